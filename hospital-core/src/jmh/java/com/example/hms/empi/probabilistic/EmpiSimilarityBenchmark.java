@@ -0,0 +1,128 @@
+package com.example.hms.empi.probabilistic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EMPI scoring micro-benchmarks (roadmap row 25 performance follow-on).
+ *
+ * <ul>
+ *   <li>{@code legacyNameSimilarity} — the pre-index implementation
+ *       (trim + lower-case copies, two fresh {@code int[]} rows per call),
+ *       kept here verbatim as the baseline.</li>
+ *   <li>{@code nameSimilarity} / {@code boundedNameSimilarity} — the
+ *       allocation-free paths in {@link EmpiSimilarity}.</li>
+ *   <li>{@code sliceSearch} — one full duplicate check against a
+ *       synthetic {@code tenantSize}-patient {@link EmpiMatchIndex} slice;
+ *       the sub-millisecond target applies to this one.</li>
+ * </ul>
+ *
+ * <p>Run: {@code ./gradlew :hospital-core:jmh -PjmhIncludes=EmpiSimilarityBenchmark}
+ * (add {@code -prof gc} via jmh args to see the allocation difference).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmpiSimilarityBenchmark {
+
+    private static final String[] FIRST = {
+        "Awa", "Aminata", "Fatoumata", "Mariam", "Salif", "Issa", "Boukary", "Adama", "Rasmata", "Ousmane",
+        "Alimata", "Hamidou", "Safiatou", "Moussa", "Karim", "Aissata", "Abdoulaye", "Habibou", "Zenabo", "Idrissa"
+    };
+    private static final String[] LAST = {
+        "Diallo", "Ouedraogo", "Sawadogo", "Traore", "Kabore", "Zongo", "Compaore", "Kone", "Sanou", "Ilboudo",
+        "Nikiema", "Kiemde", "Bamogo", "Yameogo", "Tapsoba", "Zoungrana", "Ouattara", "Coulibaly", "Bationo", "Some"
+    };
+
+    @Param({"500000"})
+    public int tenantSize;
+
+    private EmpiMatchIndex.HospitalSlice slice;
+    private EmpiCandidateQueryDTO query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        slice = EmpiMatchIndex.newSlice(tenantSize);
+        for (int i = 0; i < tenantSize; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)] + suffix(random);
+            String last = LAST[random.nextInt(LAST.length)] + suffix(random);
+            LocalDate dob = LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            slice.put(UUID.randomUUID(), first, last, dob, random.nextBoolean() ? "F" : "M");
+        }
+        query = new EmpiCandidateQueryDTO("Awa", "Diallo", LocalDate.of(1990, 1, 15), "F", null);
+    }
+
+    @Benchmark
+    public double legacyNameSimilarity() {
+        return legacy("  Ouedraogo ", "OUEDRAOGO") + legacy("Fatoumata", "Fatimata");
+    }
+
+    @Benchmark
+    public double nameSimilarity() {
+        return EmpiSimilarity.nameSimilarity("  Ouedraogo ", "OUEDRAOGO")
+            + EmpiSimilarity.nameSimilarity("Fatoumata", "Fatimata");
+    }
+
+    @Benchmark
+    public double boundedNameSimilarity() {
+        return EmpiSimilarity.boundedNameSimilarity("Sawadogo", "Ouedraogo", 0.7)
+            + EmpiSimilarity.boundedNameSimilarity("Fatoumata", "Fatimata", 0.7);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void sliceSearch(Blackhole blackhole) {
+        List<EmpiCandidateMatchDTO> result = slice.search(query, null, 0.7, 10);
+        blackhole.consume(result);
+    }
+
+    /** Short random spelling noise so blocks hold realistic variants, not clones. */
+    private static String suffix(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> "a";
+            case 1 -> "e";
+            default -> "";
+        };
+    }
+
+    /** The pre-index {@code nameSimilarity} body, unchanged, as the baseline. */
+    private static double legacy(String a, String b) {
+        String x = a.trim().toLowerCase(Locale.ROOT);
+        String y = b.trim().toLowerCase(Locale.ROOT);
+        if (x.isEmpty() || y.isEmpty()) return 0.0;
+        if (x.equals(y)) return 1.0;
+        int n = x.length();
+        int m = y.length();
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            curr[0] = i;
+            char si = x.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = (si == y.charAt(j - 1)) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return 1.0 - ((double) prev[m] / (double) Math.max(n, m));
+    }
+}
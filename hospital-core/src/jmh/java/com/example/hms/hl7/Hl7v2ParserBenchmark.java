@@ -0,0 +1,213 @@
+package com.example.hms.hl7;
+
+import com.example.hms.hl7.mllp.Hl7MessageHeader;
+import com.example.hms.hl7.mllp.Hl7MessageInspector;
+import com.example.hms.utility.Hl7v2MessageBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inbound HL7 v2 parsing micro-benchmarks: header read plus domain parse,
+ * i.e. what {@code Hl7MessageDispatcher} does per MLLP frame.
+ *
+ * <ul>
+ *   <li>{@code legacyOru} / {@code legacyAdt} — the pre-index path
+ *       ({@code String.split} on {@code [\r\n]+} and {@code \|} per
+ *       segment, MSH re-split into an {@code ArrayList}), kept here
+ *       verbatim as the baseline;</li>
+ *   <li>{@code indexedOru} / {@code indexedAdt} — one
+ *       {@link Hl7v2Message} index shared by the header and the parser;</li>
+ *   <li>{@code indexedOruAllObservations} — same, reading all OBX of the
+ *       panel, which the legacy path never did.</li>
+ * </ul>
+ *
+ * <p>Samples are a Sysmex-style CBC panel (18 OBX) and an ADT^A01 with a
+ * fully-populated PV1.
+ *
+ * <p>Run: {@code ./gradlew :hospital-core:jmh -PjmhIncludes=Hl7v2ParserBenchmark}
+ * (add {@code -prof gc} via jmh args to see the allocation difference).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Hl7v2ParserBenchmark {
+
+    private static final String[][] CBC = {
+        {"WBC", "6.4", "10*3/uL", "N"}, {"RBC", "4.62", "10*6/uL", "N"}, {"HGB", "13.1", "g/dL", "N"},
+        {"HCT", "39.8", "%", "N"}, {"MCV", "86.1", "fL", "N"}, {"MCH", "28.4", "pg", "N"},
+        {"MCHC", "32.9", "g/dL", "N"}, {"PLT", "41", "10*3/uL", "LL"}, {"RDW-CV", "13.2", "%", "N"},
+        {"MPV", "10.4", "fL", "N"}, {"NEUT#", "3.9", "10*3/uL", "N"}, {"LYMPH#", "1.8", "10*3/uL", "N"},
+        {"MONO#", "0.5", "10*3/uL", "N"}, {"EO#", "0.15", "10*3/uL", "N"}, {"BASO#", "0.05", "10*3/uL", "N"},
+        {"NEUT%", "60.9", "%", "N"}, {"LYMPH%", "28.1", "%", "N"}, {"MONO%", "7.8", "%", "N"}
+    };
+
+    private final Hl7v2MessageBuilder builder = new Hl7v2MessageBuilder();
+    private final String oru = buildOru();
+    private final String adt = String.join("\r",
+        "MSH|^~\\&|ADT-SYS|HOSP-OUAGA|HMS|HOSP-OUAGA|20260515101545||ADT^A01^ADT_A01|ADT-2026-118|P|2.5.1|||AL|NE|BFA",
+        "EVN|A01|20260515101545|||NURSE-12^OUEDRAOGO^RASMATA",
+        "PID|1||MRN-0042^^^HMS^MR~CNIB-88121^^^ONI^NI||DIALLO^AMINATA^S||19720504|F|||"
+            + "Secteur 15 Rue 15.32^^Ouagadougou^Kadiogo^01 BP 1234^BFA||+22670000000|||M||ACC-55512",
+        "NK1|1|DIALLO^MOUSSA|SPO|Secteur 15^^Ouagadougou^^^BFA|+22670000001",
+        "PV1|1|I|MED^201^B^HOSP-OUAGA||||1234^KABORE^ISSA|||MED||||1|||1234^KABORE^ISSA|IN|VN-2026-77120|"
+            + "||||||||||||||||||||||||20260515100000|",
+        "PV2|||^Fever and cough",
+        "AL1|1|DA|PCN^Penicillin||Rash") + "\r";
+
+    private static String buildOru() {
+        StringBuilder sb = new StringBuilder(4096)
+            .append("MSH|^~\\&|SYSMEX^XN-1000^L|HEMA-LAB^FACILITY-1^L|HMS|HOSP-OUAGA|20260515101545||")
+            .append("ORU^R01^ORU_R01|XN-2026-003311|P|2.5.1|||NE|AL\r")
+            .append("PID|1||MRN-0042^^^HMS^MR||DIALLO^AMINATA||19720504|F\r")
+            .append("PV1|1|O|LAB^^^HOSP-OUAGA\r")
+            .append("ORC|RE|ACC-2026-03311|XN-3311^SYSMEX\r")
+            .append("OBR|1|ACC-2026-03311|XN-3311^SYSMEX|58410-2^CBC panel^LN|||20260515100200|||||||")
+            .append("20260515100500||||||||20260515101545|||F\r");
+        for (int i = 0; i < CBC.length; i++) {
+            String[] r = CBC[i];
+            sb.append("OBX|").append(i + 1).append("|NM|").append(r[0]).append('^').append(r[0]).append("^99SYSMEX||")
+                .append(r[1]).append('|').append(r[2]).append("|||").append(r[3]).append("|||F|||20260515101545|||")
+                .append("XN-1000^SYSMEX\r");
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public void legacyOru(Blackhole blackhole) {
+        blackhole.consume(legacyHeader(oru));
+        blackhole.consume(legacyParseOru(oru));
+    }
+
+    @Benchmark
+    public void indexedOru(Blackhole blackhole) {
+        Hl7v2Message message = Hl7MessageInspector.index(oru);
+        blackhole.consume(Hl7MessageInspector.parseHeader(message));
+        blackhole.consume(builder.parseIndexedOruR01(message));
+    }
+
+    @Benchmark
+    public void indexedOruAllObservations(Blackhole blackhole) {
+        Hl7v2Message message = Hl7MessageInspector.index(oru);
+        blackhole.consume(Hl7MessageInspector.parseHeader(message));
+        blackhole.consume(builder.parseOruR01Observations(message));
+    }
+
+    @Benchmark
+    public void legacyAdt(Blackhole blackhole) {
+        blackhole.consume(legacyHeader(adt));
+        blackhole.consume(legacyParseAdt(adt));
+    }
+
+    @Benchmark
+    public void indexedAdt(Blackhole blackhole) {
+        Hl7v2Message message = Hl7MessageInspector.index(adt);
+        Hl7MessageHeader header = Hl7MessageInspector.parseHeader(message);
+        blackhole.consume(header);
+        blackhole.consume(builder.parseIndexedAdtMessage(message, header.triggerEvent()));
+    }
+
+    // ── Baseline: the pre-index code paths, unchanged ─────────────────────────
+
+    private static String[] legacyHeader(String body) {
+        char fieldSep = body.charAt(3);
+        int eol = -1;
+        for (int i = 4; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\r' || c == '\n') {
+                eol = i;
+                break;
+            }
+        }
+        String msh = (eol < 0) ? body : body.substring(0, eol);
+        List<String> out = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < msh.length(); i++) {
+            if (msh.charAt(i) == fieldSep) {
+                out.add(msh.substring(start, i));
+                start = i + 1;
+            }
+        }
+        out.add(msh.substring(start));
+        return out.toArray(new String[0]);
+    }
+
+    private static String[] legacyParseOru(String hl7Message) {
+        String[] segments = hl7Message.split("[\r\n]+");
+        String patientId = "";
+        for (String seg : segments) {
+            if (seg.startsWith("PID")) {
+                String[] f = seg.split("\\|", -1);
+                patientId = f.length > 3 ? firstComponent(f[3]) : "";
+                break;
+            }
+        }
+        String placer = "";
+        String filler = "";
+        for (String seg : segments) {
+            if (seg.startsWith("OBR")) {
+                String[] f = seg.split("\\|", -1);
+                placer = f.length > 2 ? firstComponent(f[2]) : "";
+                filler = f.length > 3 ? firstComponent(f[3]) : "";
+                break;
+            }
+        }
+        for (String seg : segments) {
+            if (seg.startsWith("OBX")) {
+                String[] f = seg.split("\\|", -1);
+                return new String[] {
+                    patientId, placer, filler,
+                    f.length > 3 ? firstComponent(f[3]) : "",
+                    f.length > 5 ? f[5] : "",
+                    f.length > 6 ? f[6] : "",
+                    f.length > 8 ? f[8] : "N",
+                    f.length > 14 ? f[14] : ""
+                };
+            }
+        }
+        return null;
+    }
+
+    private static String[] legacyParseAdt(String hl7Message) {
+        String[] segments = hl7Message.split("[\r\n]+");
+        String[] pid = legacyFindSegment(segments, "PID");
+        String[] pv1 = legacyFindSegment(segments, "PV1");
+        String first = field(pid, 3).split("~", -1)[0];
+        String[] mrn = first.split("\\^", -1);
+        String[] name = field(pid, 5).split("\\^", -1);
+        String[] address = field(pid, 11).split("\\^", -1);
+        return new String[] {
+            mrn[0], mrn.length > 3 ? mrn[3] : "",
+            name[0], name.length > 1 ? name[1] : "", name.length > 2 ? name[2] : "",
+            field(pid, 7), field(pid, 8),
+            address[0], address.length > 2 ? address[2] : "", address.length > 5 ? address[5] : "",
+            field(pv1, 2), field(pv1, 3), firstComponent(field(pv1, 19)), field(pv1, 44), field(pv1, 45)
+        };
+    }
+
+    private static String[] legacyFindSegment(String[] segments, String prefix) {
+        for (String seg : segments) {
+            if (seg.startsWith(prefix + "|")) {
+                return seg.split("\\|", -1);
+            }
+        }
+        return new String[0];
+    }
+
+    private static String field(String[] segment, int idx) {
+        return idx < segment.length ? segment[idx] : "";
+    }
+
+    private static String firstComponent(String field) {
+        int idx = field.indexOf('^');
+        return idx >= 0 ? field.substring(0, idx) : field;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.hms.security;
+
+import com.example.hms.security.auth.TenantRoleAssignment;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling in {@link JwtAuthenticationFilter}, measured on
+ * the real {@link JwtTokenProvider} for HS256 and RS256 tokens.
+ *
+ * <ul>
+ *   <li>{@code legacyPerRequest} — the pre-cache call sequence, kept here
+ *       as the baseline: subject, validate, jti, iat, hospital context and
+ *       impersonation each parse and verify the compact token (6 signature
+ *       checks per request);</li>
+ *   <li>{@code singleParseCold} — {@link JwtTokenProvider#parseVerifiedClaims}
+ *       once with the claims cache disabled, every gate reading the one
+ *       {@link Claims} (a token's first request);</li>
+ *   <li>{@code singleParseCached} — the same with the cache warm: the
+ *       steady state for a session's bearer token.</li>
+ * </ul>
+ *
+ * <p>User lookup ({@code getAuthentication}) is identical on both paths and
+ * left out so the numbers isolate token handling.
+ *
+ * <p>Run: {@code ./gradlew :hospital-core:jmh -PjmhIncludes=JwtAuthenticationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthenticationBenchmark {
+
+    private static final String HMAC_SECRET = "benchmark-secret-minimum-256-bits-long-for-hs256-signing!!";
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    private JwtTokenProvider uncached;
+    private JwtTokenProvider cached;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = null;
+        if ("RS256".equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyPair = generator.generateKeyPair();
+        }
+        uncached = provider(keyPair, 0);
+        cached = provider(keyPair, 10_000);
+        token = cached.generateAccessToken(new TokenUserDescriptor(
+            UUID.randomUUID(), "nurse.bench", List.of("ROLE_NURSE")));
+        cached.parseVerifiedClaims(token);
+    }
+
+    @Benchmark
+    public void legacyPerRequest(Blackhole blackhole) {
+        blackhole.consume(uncached.getUsernameFromJWT(token));
+        blackhole.consume(uncached.validateToken(token));
+        blackhole.consume(uncached.getJtiFromToken(token));
+        blackhole.consume(uncached.getIssuedAt(token));
+        blackhole.consume(uncached.extractHospitalContext(token, null));
+        blackhole.consume(uncached.extractImpersonationContext(token));
+    }
+
+    @Benchmark
+    public void singleParseCold(Blackhole blackhole) {
+        consumeGates(uncached, blackhole);
+    }
+
+    @Benchmark
+    public void singleParseCached(Blackhole blackhole) {
+        consumeGates(cached, blackhole);
+    }
+
+    private void consumeGates(JwtTokenProvider provider, Blackhole blackhole) {
+        Claims claims = provider.parseVerifiedClaims(token).orElseThrow();
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(claims.getId());
+        blackhole.consume(claims.getIssuedAt());
+        blackhole.consume(provider.extractHospitalContext(claims, null));
+        blackhole.consume(provider.extractImpersonationContext(claims));
+    }
+
+    private static JwtTokenProvider provider(KeyPair keyPair, int claimsCacheMaxEntries) throws Exception {
+        UUID hospitalId = UUID.randomUUID();
+        UUID organizationId = UUID.randomUUID();
+        JwtTokenProvider provider = new JwtTokenProvider(null, userId -> List.of(
+            new TenantRoleAssignment(hospitalId, organizationId, "NURSE", "Nurse", true)));
+        set(provider, "jwtSecret", HMAC_SECRET);
+        set(provider, "accessTokenExpirationMs", 3_600_000L);
+        set(provider, "refreshTokenExpirationMs", 7_200_000L);
+        set(provider, "rsaPrivateKeyPem", keyPair == null ? "" : pem(keyPair.getPrivate().getEncoded()));
+        set(provider, "rsaPublicKeyPem", keyPair == null ? "" : pem(keyPair.getPublic().getEncoded()));
+        set(provider, "previousPublicKeyPem", "");
+        set(provider, "claimsCacheMaxEntries", claimsCacheMaxEntries);
+        provider.init();
+        return provider;
+    }
+
+    private static String pem(byte[] der) {
+        return Base64.getEncoder().encodeToString(der);
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtTokenProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.hms.service;
+
+import com.example.hms.enums.AbnormalFlag;
+import com.example.hms.model.LabResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reflex-rule evaluation per posted result, for a CBC-style trigger test
+ * carrying eight rules:
+ *
+ * <ul>
+ *   <li>{@code legacyPerResultParse} — the pre-compilation path (a new
+ *       {@code ObjectMapper} and a {@code Map} parse per rule per result),
+ *       kept here verbatim as the baseline;</li>
+ *   <li>{@code compiled} — the same rules as {@link LabReflexCondition}s
+ *       compiled once, as {@link LabReflexRuleEngine} caches them;</li>
+ *   <li>{@code compiledWithDelta} — the compiled rules plus two delta checks
+ *       against an in-memory prior-result list.</li>
+ * </ul>
+ *
+ * <p>Run: {@code ./gradlew :hospital-core:jmh -PjmhIncludes=LabReflexRuleBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LabReflexRuleBenchmark {
+
+    private static final List<String> CONDITIONS = List.of(
+        "{\"severityFlag\":\"CRITICAL\"}",
+        "{\"severityFlag\":\"ABNORMAL\"}",
+        "{\"thresholdOperator\":\"GT\",\"thresholdValue\":11.0}",
+        "{\"thresholdOperator\":\"LT\",\"thresholdValue\":4.0}",
+        "{\"thresholdOperator\":\"GTE\",\"thresholdValue\":30.0}",
+        "{\"thresholdOperator\":\"LTE\",\"thresholdValue\":1.5}",
+        "{\"thresholdOperator\":\"GT\",\"thresholdValue\":20.0}",
+        "{\"thresholdOperator\":\"LT\",\"thresholdValue\":0.5}");
+
+    private static final List<String> DELTA_CONDITIONS = List.of(
+        "{\"deltaOperator\":\"GTE\",\"deltaValue\":3.0,\"deltaDirection\":\"RISE\"}",
+        "{\"deltaOperator\":\"GTE\",\"deltaValue\":25,\"deltaMode\":\"PERCENT\",\"deltaDirection\":\"FALL\"}");
+
+    private final List<LabReflexCondition> compiled = CONDITIONS.stream()
+        .map(LabReflexCondition::compile).toList();
+    private final List<LabReflexCondition> compiledWithDelta = Stream
+        .concat(CONDITIONS.stream(), DELTA_CONDITIONS.stream())
+        .map(LabReflexCondition::compile).toList();
+
+    private final LabResult result = LabResult.builder()
+        .resultValue("12.4")
+        .abnormalFlag(AbnormalFlag.ABNORMAL)
+        .resultDate(LocalDateTime.now())
+        .build();
+    private final List<LabResult> priors = List.of(
+        LabResult.builder().resultValue("8.1").resultDate(LocalDateTime.now().minusHours(10)).build(),
+        LabResult.builder().resultValue("7.9").resultDate(LocalDateTime.now().minusHours(34)).build());
+
+    @Benchmark
+    public void legacyPerResultParse(Blackhole blackhole) {
+        for (String condition : CONDITIONS) {
+            blackhole.consume(legacyEvaluate(condition, result));
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        LabReflexCondition.Subject subject = new LabReflexCondition.Subject(result, List::of);
+        for (LabReflexCondition condition : compiled) {
+            blackhole.consume(condition.matches(subject));
+        }
+    }
+
+    @Benchmark
+    public void compiledWithDelta(Blackhole blackhole) {
+        LabReflexCondition.Subject subject = new LabReflexCondition.Subject(result, () -> priors);
+        for (LabReflexCondition condition : compiledWithDelta) {
+            blackhole.consume(condition.matches(subject));
+        }
+    }
+
+    // ── Baseline: the pre-compilation code path, unchanged ────────────────────
+
+    @SuppressWarnings("unchecked")
+    private static boolean legacyEvaluate(String conditionJson, LabResult result) {
+        try {
+            Map<String, Object> cond = new ObjectMapper().readValue(conditionJson, Map.class);
+            if (cond.containsKey("severityFlag")) {
+                String required = (String) cond.get("severityFlag");
+                String actual = result.getAbnormalFlag() != null
+                    ? result.getAbnormalFlag().name() : "NORMAL";
+                return required.equalsIgnoreCase(actual);
+            }
+            if (cond.containsKey("thresholdValue") && cond.containsKey("thresholdOperator")) {
+                double threshold = ((Number) cond.get("thresholdValue")).doubleValue();
+                String operator = (String) cond.get("thresholdOperator");
+                double value = Double.parseDouble(result.getResultValue().trim());
+                return switch (operator.toUpperCase()) {
+                    case "GT"  -> value > threshold;
+                    case "GTE" -> value >= threshold;
+                    case "LT"  -> value < threshold;
+                    case "LTE" -> value <= threshold;
+                    default    -> false;
+                };
+            }
+        } catch (Exception e) {
+            return false;
+        }
+        return false;
+    }
+}
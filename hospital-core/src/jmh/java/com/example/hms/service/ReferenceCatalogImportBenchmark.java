@@ -0,0 +1,168 @@
+package com.example.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference-catalog CSV import rate against in-memory H2 (PostgreSQL mode),
+ * reported in rows per second for a {@value #ROWS}-row ICD-style catalog:
+ *
+ * <ul>
+ *   <li>{@code legacyRowByRow} — the pre-chunking shape: a case-insensitive
+ *       lookup and a single-row insert per CSV row, all in one transaction.
+ *       It runs as plain JDBC here, so it is a lower bound on the cost of
+ *       the old JPA path (no entity hydration, no dirty checking);</li>
+ *   <li>{@code chunkedImport} — {@link ReferenceCatalogImporter} into an
+ *       empty catalog: one lookup and one insert batch per chunk;</li>
+ *   <li>{@code chunkedReimportUnchanged} — the same file again over the
+ *       loaded catalog, where every row is looked up and skipped.</li>
+ * </ul>
+ *
+ * <p>Run: {@code ./gradlew :hospital-core:jmh -PjmhIncludes=ReferenceCatalogImportBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReferenceCatalogImportBenchmark {
+
+    static final int ROWS = 10_000;
+    static final int CHUNK_SIZE = 1_000;
+
+    private static final String LEGACY_LOOKUP_SQL = """
+        SELECT id FROM reference.catalog_entries
+         WHERE catalog_id = ? AND UPPER(code) = UPPER(?)
+        """;
+
+    private static final String LEGACY_INSERT_SQL = """
+        INSERT INTO reference.catalog_entries (
+            id, catalog_id, code, label, description, metadata, active, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        SingleConnectionDataSource dataSource;
+        JdbcTemplate jdbc;
+        TransactionTemplate tx;
+        ReferenceCatalogImporter importer;
+        String csv;
+        List<String[]> parsedRows;
+
+        @Setup(Level.Trial)
+        public void start() {
+            dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:catalog-import-bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "", true);
+            jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("CREATE SCHEMA IF NOT EXISTS reference");
+            jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS reference.catalog_entries (
+                    active BOOLEAN NOT NULL,
+                    created_at TIMESTAMP NOT NULL,
+                    updated_at TIMESTAMP NOT NULL,
+                    catalog_id UUID NOT NULL,
+                    id UUID PRIMARY KEY,
+                    code VARCHAR(160) NOT NULL,
+                    description VARCHAR(255),
+                    label VARCHAR(255) NOT NULL,
+                    metadata VARCHAR(255))
+                """);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            tx = new TransactionTemplate(transactionManager);
+            importer = new ReferenceCatalogImporter(jdbc, transactionManager, new ObjectMapper(), CHUNK_SIZE);
+
+            StringBuilder builder = new StringBuilder("code,label,description,metadata,active\n");
+            parsedRows = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                String code = "I%02d_%04d".formatted(i % 100, i);
+                String label = "Diagnosis " + i;
+                String description = "Synthetic catalog entry number " + i;
+                builder.append(code).append(',').append(label).append(',').append(description)
+                    .append(",\"{\"\"chapter\"\":\"\"").append(i % 22).append("\"\"}\",true\n");
+                parsedRows.add(new String[] {code, label, description, "{\"chapter\":\"" + (i % 22) + "\"}"});
+            }
+            csv = builder.toString();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            jdbc.execute("DROP ALL OBJECTS");
+            dataSource.destroy();
+        }
+    }
+
+    /** A catalog id with no entries, fresh for every invocation. */
+    @State(Scope.Benchmark)
+    public static class EmptyCatalog {
+        UUID catalogId;
+
+        @Setup(Level.Invocation)
+        public void clear(Database db) {
+            db.jdbc.update("DELETE FROM reference.catalog_entries");
+            catalogId = UUID.randomUUID();
+        }
+    }
+
+    /** A catalog already holding the benchmark file. */
+    @State(Scope.Benchmark)
+    public static class LoadedCatalog {
+        UUID catalogId;
+
+        @Setup(Level.Trial)
+        public void load(Database db) throws IOException {
+            catalogId = UUID.randomUUID();
+            db.importer.importEntries(catalogId, new StringReader(db.csv), null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int legacyRowByRow(Database db, EmptyCatalog catalog) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Integer created = db.tx.execute(status -> {
+            int inserted = 0;
+            for (String[] row : db.parsedRows) {
+                if (db.jdbc.queryForList(LEGACY_LOOKUP_SQL, UUID.class, catalog.catalogId, row[0]).isEmpty()) {
+                    inserted += db.jdbc.update(LEGACY_INSERT_SQL, UUID.randomUUID(), catalog.catalogId,
+                        row[0], row[1], row[2], row[3], true, now, now);
+                }
+            }
+            return inserted;
+        });
+        return created != null ? created : 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ReferenceCatalogImporter.Result chunkedImport(Database db, EmptyCatalog catalog) throws IOException {
+        return db.importer.importEntries(catalog.catalogId, new StringReader(db.csv), null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ReferenceCatalogImporter.Result chunkedReimportUnchanged(Database db, LoadedCatalog catalog)
+        throws IOException {
+        return db.importer.importEntries(catalog.catalogId, new StringReader(db.csv), null);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.hms.service.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Patient substring search latency over {@value #PATIENTS} synthetic
+ * patients, sampled so the JMH report carries p95 / p99 per query:
+ *
+ * <ul>
+ *   <li>{@code legacyLikeScan} — the pre-index predicates
+ *       ({@code LOWER(col) LIKE '%term%'} on first, last and full name,
+ *       email and both phones) plus the page count, as native SQL against
+ *       in-memory H2 (PostgreSQL mode);</li>
+ *   <li>{@code ngramIndexSearch} — {@link PatientNgramIndex}: postings
+ *       intersection, verification, similarity ranking and one page.</li>
+ * </ul>
+ *
+ * <p>The pg_trgm path needs a PostgreSQL instance and is not measured
+ * here; compare it with {@code EXPLAIN (ANALYZE, BUFFERS)} on the same
+ * terms against a V132-migrated database.
+ *
+ * <p>Run: {@code ./gradlew :hospital-core:jmh -PjmhIncludes=PatientSearchBenchmark}
+ * (the 1M-row setup wants {@code -Xmx4g} or more).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientSearchBenchmark {
+
+    static final int PATIENTS = 1_000_000;
+    static final int PAGE_SIZE = 20;
+
+    private static final String[] FIRST = {
+        "Awa", "Aminata", "Fatoumata", "Mariam", "Salif", "Issa", "Boukary", "Adama", "Rasmata", "Ousmane",
+        "Alimata", "Hamidou", "Safiatou", "Moussa", "Karim", "Aissata", "Abdoulaye", "Habibou", "Zenabo", "Idrissa"
+    };
+    private static final String[] LAST = {
+        "Diallo", "Ouedraogo", "Sawadogo", "Traore", "Kabore", "Zongo", "Compaore", "Kone", "Sanou", "Ilboudo",
+        "Nikiema", "Kiemde", "Bamogo", "Yameogo", "Tapsoba", "Zoungrana", "Ouattara", "Coulibaly", "Bationo", "Some"
+    };
+
+    /** {@code name|phone|email}; blank parts are absent. */
+    @Param({"ousmane kab||", "diallo||", "|7001234|", "||hamidou.zo", "awa|00042|"})
+    public String terms;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private PatientNgramIndex.Snapshot snapshot;
+    private PatientSearchQuery query;
+    private String legacyWhere;
+    private Object[] legacyArgs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            "jdbc:h2:mem:patient-search-bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "sa", "", true);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS clinical");
+        jdbc.execute("""
+            CREATE TABLE IF NOT EXISTS clinical.patients (
+                id UUID PRIMARY KEY,
+                first_name VARCHAR(100) NOT NULL,
+                last_name VARCHAR(100) NOT NULL,
+                email VARCHAR(255),
+                phone_number_primary VARCHAR(20) NOT NULL,
+                phone_number_secondary VARCHAR(20))
+            """);
+
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            String email = random.nextInt(4) == 0 ? null
+                : (first + "." + last + i + "@example.com").toLowerCase(Locale.ROOT);
+            String phone = "+2267%07d".formatted(i);
+            String secondary = random.nextInt(5) == 0 ? "+2265%07d".formatted(random.nextInt(10_000_000)) : null;
+            rows.add(new Object[] {new UUID(random.nextLong(), random.nextLong()), first, last, email, phone, secondary});
+        }
+        for (int from = 0; from < rows.size(); from += 10_000) {
+            jdbc.batchUpdate("""
+                INSERT INTO clinical.patients (
+                    id, first_name, last_name, email, phone_number_primary, phone_number_secondary)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, rows.subList(from, Math.min(from + 10_000, rows.size())));
+        }
+        snapshot = PatientNgramIndex.build(rows);
+
+        String[] parts = terms.split("\\|", -1);
+        query = PatientSearchQuery.of(null, parts[0], null, parts[1], parts[2], null, null);
+
+        List<String> predicates = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (query.name() != null) {
+            predicates.add("(LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ?"
+                + " OR LOWER(first_name || ' ' || last_name) LIKE ?)");
+            args.addAll(List.of(query.namePattern(), query.namePattern(), query.namePattern()));
+        }
+        if (query.phone() != null) {
+            predicates.add("(phone_number_primary LIKE ? OR phone_number_secondary LIKE ?)");
+            args.addAll(List.of(query.phonePattern(), query.phonePattern()));
+        }
+        if (query.email() != null) {
+            predicates.add("LOWER(email) LIKE ?");
+            args.add(query.emailPattern());
+        }
+        legacyWhere = " WHERE " + String.join(" AND ", predicates);
+        legacyArgs = args.toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<UUID> legacyLikeScan() {
+        jdbc.queryForObject("SELECT COUNT(*) FROM clinical.patients" + legacyWhere, Long.class, legacyArgs);
+        return jdbc.queryForList("SELECT id FROM clinical.patients" + legacyWhere
+            + " ORDER BY last_name, first_name LIMIT " + PAGE_SIZE, UUID.class, legacyArgs);
+    }
+
+    @Benchmark
+    public List<UUID> ngramIndexSearch() {
+        return snapshot.rank(snapshot.matchingIds(query), query, PAGE_SIZE);
+    }
+}
@@ -20,6 +20,14 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * follow-on. (Javadoc accuracy fix from PR #349 Copilot review —
  * the earlier wording referenced a "placeholder consumer wiring
  * class" that does not exist yet.)
+ *
+ * <p>ORU^R01 leg (row-36 follow-on): with the flag on, the MLLP
+ * dispatcher runs the allowlist gate, hands the frame to an
+ * {@link OruResultQueue} and answers {@code CA} (commit accept) as soon
+ * as the hand-off is durable; {@link OruResultSettler} persists the
+ * {@code LabResult} rows in consumer batches. {@link OruTransport}
+ * picks Kafka (production) or an in-process queue (tests, single-node
+ * dev). The dispense leg is still the foundation pass.
  */
 @ConfigurationProperties(prefix = "app.async.pipeline")
 public class AsyncPipelineProperties {
@@ -35,6 +43,37 @@ public class AsyncPipelineProperties {
     /** Consumer-group id; per-env override recommended. */
     private String consumerGroup = "hms-async-pipeline";
 
+    /** Where accepted ORU^R01 frames are queued for settlement. */
+    private OruTransport oruTransport = OruTransport.KAFKA;
+
+    /** Maximum frames settled per consumer batch. */
+    private int oruBatchSize = 100;
+
+    /**
+     * How long the MLLP thread waits for the broker to confirm the hand-off
+     * before answering {@code CE} (commit error) so the analyzer retransmits.
+     */
+    private long oruEnqueueTimeoutMs = 2_000;
+
+    /** Kafka listener concurrency; ordering is per sender (record key), not global. */
+    private int oruConsumerConcurrency = 3;
+
+    /** Bound of the {@link OruTransport#IN_PROCESS} queue; a full queue answers {@code CE}. */
+    private int oruInProcessCapacity = 10_000;
+
+    /**
+     * Transport behind {@link OruResultQueue}.
+     */
+    public enum OruTransport {
+        /** Durable: {@code acks=all} producer, batch consumer group on {@link #oruResultTopic}. */
+        KAFKA,
+        /**
+         * Bounded in-memory queue drained by one background thread. Not
+         * durable across a restart — for tests and single-node dev only.
+         */
+        IN_PROCESS
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -66,4 +105,44 @@ public class AsyncPipelineProperties {
     public void setConsumerGroup(String consumerGroup) {
         this.consumerGroup = consumerGroup;
     }
+
+    public OruTransport getOruTransport() {
+        return oruTransport;
+    }
+
+    public void setOruTransport(OruTransport oruTransport) {
+        this.oruTransport = oruTransport;
+    }
+
+    public int getOruBatchSize() {
+        return oruBatchSize;
+    }
+
+    public void setOruBatchSize(int oruBatchSize) {
+        this.oruBatchSize = oruBatchSize;
+    }
+
+    public long getOruEnqueueTimeoutMs() {
+        return oruEnqueueTimeoutMs;
+    }
+
+    public void setOruEnqueueTimeoutMs(long oruEnqueueTimeoutMs) {
+        this.oruEnqueueTimeoutMs = oruEnqueueTimeoutMs;
+    }
+
+    public int getOruConsumerConcurrency() {
+        return oruConsumerConcurrency;
+    }
+
+    public void setOruConsumerConcurrency(int oruConsumerConcurrency) {
+        this.oruConsumerConcurrency = oruConsumerConcurrency;
+    }
+
+    public int getOruInProcessCapacity() {
+        return oruInProcessCapacity;
+    }
+
+    public void setOruInProcessCapacity(int oruInProcessCapacity) {
+        this.oruInProcessCapacity = oruInProcessCapacity;
+    }
 }
@@ -0,0 +1,125 @@
+package com.example.hms.async;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AsyncPipelineProperties.OruTransport#IN_PROCESS} transport: a
+ * bounded in-memory queue drained in batches by a single background thread.
+ *
+ * <p>One drainer means one global order, which trivially satisfies the
+ * per-sender ordering contract. A failed batch (database down) is retried
+ * with capped exponential backoff, never skipped. Frames still queued at
+ * shutdown are lost — the reason this transport is for tests and
+ * single-node dev only; production runs {@link KafkaOruResultQueue}.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${app.async.pipeline.enabled:false} "
+    + "and '${app.async.pipeline.oru-transport:KAFKA}' == 'IN_PROCESS'")
+public class InProcessOruResultQueue implements OruResultQueue {
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final OruResultSettler settler;
+    private final int batchSize;
+    private final long enqueueTimeoutMs;
+    private final BlockingQueue<OruResultEnvelope> queue;
+    private volatile boolean running;
+    private volatile int inFlight;
+    private Thread drainer;
+
+    public InProcessOruResultQueue(OruResultSettler settler, AsyncPipelineProperties properties) {
+        this.settler = settler;
+        this.batchSize = Math.max(1, properties.getOruBatchSize());
+        this.enqueueTimeoutMs = Math.max(0, properties.getOruEnqueueTimeoutMs());
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getOruInProcessCapacity()));
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        drainer = new Thread(this::drainLoop, "oru-settler");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (drainer != null) drainer.interrupt();
+        if (!queue.isEmpty()) {
+            log.warn("[ORU-ASYNC] In-process queue stopped with {} unsettled frame(s)", queue.size());
+        }
+    }
+
+    /**
+     * Waits up to {@code oru-enqueue-timeout-ms} for room, like the Kafka
+     * transport waits for the broker; a full queue after that answers
+     * {@code CE} so the analyzer retransmits.
+     */
+    @Override
+    public void enqueue(OruResultEnvelope envelope) {
+        if (!running) {
+            throw new OruResultQueueException("In-process ORU queue stopped");
+        }
+        try {
+            if (!queue.offer(envelope, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new OruResultQueueException("In-process ORU queue full for " + enqueueTimeoutMs + " ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OruResultQueueException("Interrupted while queueing ORU^R01", ex);
+        }
+    }
+
+    /** Frames queued or being settled — lets tests wait for the pipeline to go idle. */
+    public int pending() {
+        return queue.size() + inFlight;
+    }
+
+    private void drainLoop() {
+        List<OruResultEnvelope> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OruResultEnvelope first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                inFlight = batch.size();
+                settleWithRetry(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+                inFlight = 0;
+            }
+        }
+    }
+
+    private void settleWithRetry(List<OruResultEnvelope> batch) throws InterruptedException {
+        long backoff = 500;
+        while (true) {
+            try {
+                settler.settleBatch(batch);
+                return;
+            } catch (RuntimeException ex) {
+                if (!running) throw new InterruptedException("stopping");
+                log.warn("[ORU-ASYNC] Batch of {} failed, retrying in {} ms: {}",
+                    batch.size(), backoff, ex.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+            }
+        }
+    }
+}
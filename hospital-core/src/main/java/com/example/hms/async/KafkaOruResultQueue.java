@@ -0,0 +1,42 @@
+package com.example.hms.async;
+
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link AsyncPipelineProperties.OruTransport#KAFKA} transport. Frames are
+ * keyed by {@link OruResultEnvelope#senderKey()}, so one analyzer's results
+ * land on one partition and settle in order. {@link #enqueue} blocks until
+ * the broker acknowledges the write ({@code acks=all}, idempotent producer):
+ * the {@code CA} the analyzer receives means the frame survives a node loss.
+ */
+public class KafkaOruResultQueue implements OruResultQueue {
+
+    private final KafkaTemplate<String, OruResultEnvelope> template;
+    private final String topic;
+    private final long timeoutMs;
+
+    public KafkaOruResultQueue(KafkaTemplate<String, OruResultEnvelope> template,
+                               AsyncPipelineProperties properties) {
+        this.template = template;
+        this.topic = properties.getOruResultTopic();
+        this.timeoutMs = properties.getOruEnqueueTimeoutMs();
+    }
+
+    @Override
+    public void enqueue(OruResultEnvelope envelope) {
+        try {
+            template.send(topic, envelope.senderKey(), envelope).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OruResultQueueException("Interrupted while queueing ORU^R01", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new OruResultQueueException("Broker did not confirm ORU^R01 within " + timeoutMs + " ms", ex);
+        } catch (RuntimeException ex) {
+            throw new OruResultQueueException("Could not queue ORU^R01: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.hms.async;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One accepted ORU^R01 frame on its way from the MLLP listener to
+ * {@link OruResultSettler}. Carries the raw body (parsing happens on the
+ * consumer side) plus what the synchronous allowlist gate already resolved,
+ * so settlement never repeats the sender lookup.
+ *
+ * @param hospitalId         receiving hospital resolved from the MLLP allowlist
+ * @param sendingApplication MSH-3
+ * @param sendingFacility    MSH-4
+ * @param messageControlId   MSH-10; with the sender it is the idempotency key
+ * @param remoteAddress      peer address, for logs only
+ * @param rawMessage         the HL7 body exactly as received
+ * @param receivedAt         when the frame was acknowledged with {@code CA}
+ */
+public record OruResultEnvelope(
+    UUID hospitalId,
+    String sendingApplication,
+    String sendingFacility,
+    String messageControlId,
+    String remoteAddress,
+    String rawMessage,
+    Instant receivedAt
+) {
+
+    /**
+     * Partition / ordering key: results from one analyzer settle in the
+     * order they were received; different analyzers settle independently.
+     */
+    public String senderKey() {
+        return sendingApplication + "/" + sendingFacility;
+    }
+}
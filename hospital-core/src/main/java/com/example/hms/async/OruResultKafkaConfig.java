@@ -0,0 +1,151 @@
+package com.example.hms.async;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Kafka wiring for the async ORU^R01 pipeline. Same bootstrap settings as
+ * {@link com.example.hms.config.KafkaConfig}, but a dedicated producer
+ * ({@code acks=all}, idempotent — the MLLP {@code CA} promises durability)
+ * and a batch listener container with manual-after-batch offset commits.
+ * Records that cannot be deserialized are dead-lettered to
+ * {@code <oru-result-topic>.DLT} instead of blocking their partition.
+ */
+@Configuration
+@ConditionalOnExpression("${spring.kafka.enabled:false} and ${app.async.pipeline.enabled:false} "
+    + "and '${app.async.pipeline.oru-transport:KAFKA}' == 'KAFKA'")
+public class OruResultKafkaConfig {
+
+    private static final long MAX_RETRY_INTERVAL_MS = 30_000;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    public ProducerFactory<String, OruResultEnvelope> oruResultProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, OruResultEnvelope> oruResultKafkaTemplate() {
+        return new KafkaTemplate<>(oruResultProducerFactory());
+    }
+
+    @Bean
+    public ConsumerFactory<String, OruResultEnvelope> oruResultConsumerFactory(AsyncPipelineProperties properties) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, properties.getConsumerGroup());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, properties.getOruBatchSize()));
+        JsonDeserializer<OruResultEnvelope> valueDeserializer = new JsonDeserializer<>(OruResultEnvelope.class, false);
+        valueDeserializer.addTrustedPackages("com.example.hms");
+        // A record that does not parse reaches the listener with a null value
+        // (and the cause in a header) instead of failing every poll forever.
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    /**
+     * Raw-bytes producer for the dead-letter topic: an undeserializable
+     * record is republished exactly as it arrived.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> oruResultDeadLetterTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OruResultEnvelope> oruResultListenerContainerFactory(
+        ConsumerFactory<String, OruResultEnvelope> oruResultConsumerFactory,
+        KafkaTemplate<String, OruResultEnvelope> oruResultKafkaTemplate,
+        KafkaTemplate<String, byte[]> oruResultDeadLetterTemplate,
+        AsyncPipelineProperties properties
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, OruResultEnvelope> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(oruResultConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(Math.max(1, properties.getOruConsumerConcurrency()));
+        // Unbounded retry for a failed batch (database down): a frame is
+        // never skipped, only delayed. DeserializationException is
+        // not retryable by default, so a poison record the listener reports
+        // goes straight to <topic>.DLT and the partition moves on.
+        ExponentialBackOff backOff = new ExponentialBackOff(500, 2.0);
+        backOff.setMaxInterval(MAX_RETRY_INTERVAL_MS);
+        Map<Class<?>, KafkaOperations<?, ?>> deadLetterTemplates = new LinkedHashMap<>();
+        deadLetterTemplates.put(byte[].class, oruResultDeadLetterTemplate);
+        deadLetterTemplates.put(OruResultEnvelope.class, oruResultKafkaTemplate);
+        factory.setCommonErrorHandler(
+            new DefaultErrorHandler(new DeadLetterPublishingRecoverer(deadLetterTemplates), backOff));
+        return factory;
+    }
+
+    @Bean
+    public NewTopic oruResultTopic(AsyncPipelineProperties properties) {
+        return TopicBuilder.name(properties.getOruResultTopic())
+                .partitions(6)
+                .replicas(1)
+                .build();
+    }
+
+    /** Default {@link DeadLetterPublishingRecoverer} destination: same partition of {@code <topic>.DLT}. */
+    @Bean
+    public NewTopic oruResultDeadLetterTopic(AsyncPipelineProperties properties) {
+        return TopicBuilder.name(properties.getOruResultTopic() + ".DLT")
+                .partitions(6)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public KafkaOruResultQueue kafkaOruResultQueue(KafkaTemplate<String, OruResultEnvelope> oruResultKafkaTemplate,
+                                                   AsyncPipelineProperties properties) {
+        return new KafkaOruResultQueue(oruResultKafkaTemplate, properties);
+    }
+
+    @Bean
+    public OruResultKafkaListener oruResultKafkaListener(OruResultSettler settler) {
+        return new OruResultKafkaListener(settler);
+    }
+}
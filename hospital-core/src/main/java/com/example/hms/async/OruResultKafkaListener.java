@@ -0,0 +1,61 @@
+package com.example.hms.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch consumer for {@code app.async.pipeline.oru-result-topic}. A thrown
+ * exception (database unavailable) makes the container's error handler
+ * redeliver the whole batch with backoff; offsets are committed only after
+ * {@link OruResultSettler#settleBatch} returns.
+ *
+ * <p>A record the {@code ErrorHandlingDeserializer} could not parse arrives
+ * with a null value. The frames before it are settled, then it is reported
+ * as a {@link BatchListenerFailedException}: the error handler commits up to
+ * it, dead-letters it and redelivers the rest.
+ */
+@Slf4j
+public class OruResultKafkaListener {
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(OruResultKafkaListener.class);
+
+    private final OruResultSettler settler;
+
+    public OruResultKafkaListener(OruResultSettler settler) {
+        this.settler = settler;
+    }
+
+    @KafkaListener(
+        topics = "${app.async.pipeline.oru-result-topic}",
+        groupId = "${app.async.pipeline.consumer-group}",
+        containerFactory = "oruResultListenerContainerFactory",
+        batch = "true")
+    public void onBatch(List<ConsumerRecord<String, OruResultEnvelope>> records) {
+        log.debug("[ORU-ASYNC] Settling batch of {} frame(s)", records.size());
+        List<OruResultEnvelope> batch = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, OruResultEnvelope> rec = records.get(i);
+            if (rec.value() == null) {
+                settler.settleBatch(batch);
+                DeserializationException cause = SerializationUtils.getExceptionFromHeader(
+                    rec, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+                log.error("[ORU-ASYNC] Undeserializable ORU envelope at {}-{}@{}, dead-lettering",
+                    rec.topic(), rec.partition(), rec.offset());
+                throw cause != null
+                    ? new BatchListenerFailedException("Undeserializable ORU envelope", cause, i)
+                    : new BatchListenerFailedException("Empty ORU envelope",
+                        new DeserializationException("null ORU envelope", null, false, null), i);
+            }
+            batch.add(rec.value());
+        }
+        settler.settleBatch(batch);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.hms.async;
+
+/**
+ * Hand-off between the MLLP listener and {@link OruResultSettler}.
+ * Implementations preserve order per {@link OruResultEnvelope#senderKey()}.
+ */
+public interface OruResultQueue {
+
+    /**
+     * Queue a frame for settlement. Returns only once the hand-off is as
+     * durable as the transport allows — the caller answers {@code CA} on
+     * return and {@code CE} on exception.
+     *
+     * @throws OruResultQueueException when the frame could not be queued
+     */
+    void enqueue(OruResultEnvelope envelope);
+}
@@ -0,0 +1,16 @@
+package com.example.hms.async;
+
+/**
+ * The ORU hand-off failed (broker unavailable, timeout, queue full); the
+ * MLLP listener answers {@code CE} so the analyzer retransmits.
+ */
+public class OruResultQueueException extends RuntimeException {
+
+    public OruResultQueueException(String message) {
+        super(message);
+    }
+
+    public OruResultQueueException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
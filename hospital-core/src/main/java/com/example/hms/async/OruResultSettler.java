@@ -0,0 +1,237 @@
+package com.example.hms.async;
+
+import com.example.hms.enums.integration.IntegrationMessageDirection;
+import com.example.hms.enums.integration.IntegrationMessageStatus;
+import com.example.hms.model.Hospital;
+import com.example.hms.repository.HospitalRepository;
+import com.example.hms.service.integration.MllpInboundLabService;
+import com.example.hms.service.integration.MllpInboundLabService.OruFrame;
+import com.example.hms.service.integration.MllpInboundOutcome;
+import com.example.hms.service.integration.message.IntegrationMessageRecorder;
+import com.example.hms.utility.Hl7v2MessageBuilder;
+import com.example.hms.utility.Hl7v2MessageBuilder.ParsedObservation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Consumer half of the async ORU^R01 pipeline: turns a batch of queued
+ * frames into {@code LabResult} rows.
+ *
+ * <p>Per batch the receiving hospitals are loaded with one query, and the
+ * clean results are resolved and inserted together in one transaction by
+ * {@link MllpInboundLabService#processOruR01Batch}. Only the frames that
+ * path leaves behind go through the synchronous path's
+ * {@link MllpInboundLabService#processOruR01}, in batch order, each
+ * committing on its own: a rejected result (unknown accession,
+ * cross-tenant) is recorded on the integration-message DLQ surface by the
+ * lab service and never holds back the frames behind it.
+ *
+ * <p>Delivery is at-least-once. A transient database failure is rethrown so
+ * the transport redelivers the batch; frames settled before the failure are
+ * replayed as no-ops by the lab service's {@code (sender, MSH-10)}
+ * idempotency check.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.async.pipeline", name = "enabled", havingValue = "true")
+public class OruResultSettler {
+
+    static final String METRIC_SETTLED = "hms.oru.async.settled";
+    static final String METRIC_LAG = "hms.oru.async.lag";
+    static final String METRIC_BATCH = "hms.oru.async.batch";
+    static final String TAG_OUTCOME = "outcome";
+
+    /** {@code integration_message_event.integration_id} is VARCHAR(120). */
+    private static final int INTEGRATION_ID_MAX = 120;
+
+    private final Hl7v2MessageBuilder messageBuilder;
+    private final HospitalRepository hospitalRepository;
+    private final MllpInboundLabService inboundLab;
+    private final IntegrationMessageRecorder messageRecorder;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+
+    public OruResultSettler(Hl7v2MessageBuilder messageBuilder,
+                            HospitalRepository hospitalRepository,
+                            MllpInboundLabService inboundLab,
+                            IntegrationMessageRecorder messageRecorder,
+                            @Nullable MeterRegistry meterRegistry) {
+        this.messageBuilder = messageBuilder;
+        this.hospitalRepository = hospitalRepository;
+        this.inboundLab = inboundLab;
+        this.messageRecorder = messageRecorder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Settle one batch: every clean first-time result is inserted together
+     * through {@link MllpInboundLabService#processOruR01Batch}; the frames it
+     * leaves unsettled (rejections, replays, or all of them when the batch
+     * insert fails) are then settled one by one, in batch order.
+     *
+     * @throws RuntimeException a transient / connectivity data-access failure
+     *         ({@link TransientDataAccessException},
+     *         {@link DataAccessResourceFailureException}, ...) when the
+     *         database is unavailable — the caller must redeliver the batch
+     */
+    public void settleBatch(List<OruResultEnvelope> batch) {
+        if (batch == null || batch.isEmpty()) return;
+        Timer.Sample sample = meterRegistry == null ? null : Timer.start(meterRegistry);
+        Map<UUID, Hospital> hospitals = loadHospitals(batch);
+        List<ParsedObservation> observations = new ArrayList<>(batch.size());
+        List<OruFrame> frames = new ArrayList<>(batch.size());
+        for (OruResultEnvelope envelope : batch) {
+            Hospital hospital = hospitals.get(envelope.hospitalId());
+            ParsedObservation observation = hospital == null ? null : parse(envelope);
+            observations.add(observation);
+            frames.add(new OruFrame(observation, hospital, envelope.sendingApplication(),
+                envelope.sendingFacility(), envelope.messageControlId(), envelope.rawMessage()));
+        }
+        List<MllpInboundOutcome> settled = settleTogether(frames);
+        for (int i = 0; i < batch.size(); i++) {
+            OruResultEnvelope envelope = batch.get(i);
+            MllpInboundOutcome outcome = i < settled.size() ? settled.get(i) : null;
+            if (outcome != null) {
+                incrementCounter(outcome.name().toLowerCase(Locale.ROOT));
+                recordLag(envelope.receivedAt());
+            } else {
+                settleOne(envelope, hospitals.get(envelope.hospitalId()), observations.get(i));
+            }
+        }
+        if (sample != null) {
+            sample.stop(Timer.builder(METRIC_BATCH).register(meterRegistry));
+        }
+    }
+
+    private List<MllpInboundOutcome> settleTogether(List<OruFrame> frames) {
+        try {
+            return inboundLab.processOruR01Batch(frames);
+        } catch (TransientDataAccessException | RecoverableDataAccessException
+                 | DataAccessResourceFailureException | CannotCreateTransactionException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            // One bad row rolled the batch back; the single path isolates it.
+            log.warn("[ORU-ASYNC] Batch insert of {} frame(s) failed, settling one by one: {}",
+                frames.size(), ex.getMessage());
+            return List.of();
+        }
+    }
+
+    private void settleOne(OruResultEnvelope envelope, Hospital hospital, ParsedObservation observation) {
+        String outcome;
+        try {
+            outcome = settle(envelope, hospital, observation);
+        } catch (TransientDataAccessException | RecoverableDataAccessException
+                 | DataAccessResourceFailureException | CannotCreateTransactionException ex) {
+            // Database unreachable: redeliver the batch instead of dead-lettering it.
+            throw ex;
+        } catch (RuntimeException ex) {
+            // Poison frame: retrying cannot help, so record it and move on
+            // rather than block every later result from the same analyzer.
+            log.error("[ORU-ASYNC] Settlement failed for {} MSH-10={}", envelope.senderKey(),
+                envelope.messageControlId(), ex);
+            recordFailure(envelope, hospital, "settlement error: " + ex.getClass().getSimpleName());
+            outcome = "error";
+        }
+        incrementCounter(outcome);
+        recordLag(envelope.receivedAt());
+    }
+
+    private String settle(OruResultEnvelope envelope, Hospital hospital, ParsedObservation observation) {
+        if (hospital == null) {
+            // Hospital deleted between the CA and settlement (tenant purge).
+            recordFailure(envelope, null, "receiving hospital " + envelope.hospitalId() + " no longer exists");
+            return "rejected_invalid";
+        }
+        if (observation == null) {
+            log.warn("[ORU-ASYNC] ORU^R01 from {} unparseable (MSH-10={})",
+                envelope.senderKey(), envelope.messageControlId());
+            recordFailure(envelope, hospital, "unparseable ORU^R01 OBX segment");
+            return "unparseable";
+        }
+        MllpInboundOutcome outcome = inboundLab.processOruR01(
+            observation, hospital, envelope.sendingApplication(), envelope.sendingFacility(),
+            envelope.messageControlId(), envelope.rawMessage());
+        return outcome.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Nullable
+    private ParsedObservation parse(OruResultEnvelope envelope) {
+        try {
+            return messageBuilder.parseOruR01(envelope.rawMessage());
+        } catch (RuntimeException ex) {
+            log.warn("[ORU-ASYNC] Parser threw for {} MSH-10={}: {}", envelope.senderKey(),
+                envelope.messageControlId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private Map<UUID, Hospital> loadHospitals(List<OruResultEnvelope> batch) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (OruResultEnvelope envelope : batch) {
+            if (envelope.hospitalId() != null) ids.add(envelope.hospitalId());
+        }
+        Map<UUID, Hospital> byId = new HashMap<>(ids.size() * 2);
+        for (Hospital hospital : hospitalRepository.findAllById(ids)) {
+            byId.put(hospital.getId(), hospital);
+        }
+        return byId;
+    }
+
+    private void recordFailure(OruResultEnvelope envelope, Hospital hospital, String reason) {
+        try {
+            UUID organizationId = (hospital != null && hospital.getOrganization() != null)
+                ? hospital.getOrganization().getId() : null;
+            String integrationId = "MLLP:" + envelope.senderKey();
+            if (integrationId.length() > INTEGRATION_ID_MAX) {
+                integrationId = integrationId.substring(0, INTEGRATION_ID_MAX);
+            }
+            messageRecorder.recordMessage(
+                integrationId, organizationId,
+                IntegrationMessageDirection.INBOUND, "ORU^R01",
+                envelope.rawMessage(), IntegrationMessageStatus.FAILED, reason);
+        } catch (RuntimeException ex) {
+            log.warn("[ORU-ASYNC] Recorder threw for {} reason={}", envelope.senderKey(), reason, ex);
+        }
+    }
+
+    private void incrementCounter(String outcome) {
+        if (meterRegistry == null) return;
+        try {
+            Counter.builder(METRIC_SETTLED).tag(TAG_OUTCOME, outcome).register(meterRegistry).increment();
+        } catch (RuntimeException ex) {
+            log.debug("[ORU-ASYNC] Failed to record metric {}: {}", METRIC_SETTLED, ex.getMessage());
+        }
+    }
+
+    /** Receive-to-settle lag: how far behind the analyzers the lab worklist is. */
+    private void recordLag(Instant receivedAt) {
+        if (meterRegistry == null || receivedAt == null) return;
+        try {
+            Timer.builder(METRIC_LAG).register(meterRegistry)
+                .record(Duration.between(receivedAt, Instant.now()));
+        } catch (RuntimeException ex) {
+            log.debug("[ORU-ASYNC] Failed to record metric {}: {}", METRIC_LAG, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
+import com.example.hms.model.Patient;
+import com.example.hms.utility.BoundedTtlCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Optional push of BPA cards to STOMP topic {@code /topic/bpa/{hospitalId}}
+ * when a captured vital sign makes a protocol fire, so an open chart shows
+ * the advisory without waiting for the next {@code patient-view} hook.
+ * Off unless {@code app.bpa.push.enabled=true}.
+ *
+ * <p>Evaluates once the capturing transaction has committed (the vitals
+ * window already holds the new reading) and only publishes cards that were
+ * not firing at the previous capture, so a patient who stays septic is not
+ * re-announced every minute. What fired last is kept per (patient, hospital)
+ * in a {@link BoundedTtlCache} ({@code app.bpa.push.firing-*}); a patient
+ * with no capture for the TTL, or evicted when it is full, is treated as
+ * having had nothing firing, so at worst a card is announced once more.
+ *
+ * <p>Failures here must NOT affect the originating clinical write, so all
+ * errors are caught and logged at WARN (same policy as
+ * {@link com.example.hms.service.PatientTrackerEventPublisher}).
+ */
+@Slf4j
+@Service
+public class BpaCardPublisher {
+
+    public static final String TOPIC_PREFIX = "/topic/bpa/";
+
+    /** Payload published to {@link #TOPIC_PREFIX}{@code {hospitalId}}. */
+    public record BpaCardsEvent(UUID patientId, UUID hospitalId, List<CdsCard> cards, LocalDateTime emittedAt) { }
+
+    private record Key(UUID patientId, UUID hospitalId) { }
+
+    private final BpaRuleEngine ruleEngine;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean enabled;
+    /** Card summaries firing at the last capture, per patient; absent when nothing fired. */
+    private final BoundedTtlCache<Key, Set<String>> firing;
+
+    @Autowired
+    public BpaCardPublisher(BpaRuleEngine ruleEngine,
+                            SimpMessagingTemplate messagingTemplate,
+                            @Value("${app.bpa.push.enabled:false}") boolean enabled,
+                            @Value("${app.bpa.push.firing-max-entries:20000}") int firingMaxEntries,
+                            @Value("${app.bpa.push.firing-ttl-seconds:86400}") long firingTtlSeconds) {
+        this(ruleEngine, messagingTemplate, enabled, firingMaxEntries,
+            Duration.ofSeconds(Math.max(0, firingTtlSeconds)));
+    }
+
+    public BpaCardPublisher(BpaRuleEngine ruleEngine, SimpMessagingTemplate messagingTemplate,
+                            boolean enabled, int firingMaxEntries, Duration firingTtl) {
+        this.ruleEngine = ruleEngine;
+        this.messagingTemplate = messagingTemplate;
+        this.enabled = enabled;
+        this.firing = new BoundedTtlCache<>(firingMaxEntries, firingTtl);
+    }
+
+    /** Re-evaluate the patient's BPAs once the current transaction (if any) commits. */
+    public void vitalsCaptured(Patient patient, UUID hospitalId) {
+        if (!enabled || patient == null || patient.getId() == null || hospitalId == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishNewlyFired(patient, hospitalId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publishNewlyFired(patient, hospitalId);
+            }
+        });
+    }
+
+    void publishNewlyFired(Patient patient, UUID hospitalId) {
+        Key key = new Key(patient.getId(), hospitalId);
+        try {
+            List<CdsCard> cards = ruleEngine.evaluateForPatient(patient, hospitalId);
+            Set<String> now = cards.stream().map(CdsCard::summary).collect(Collectors.toUnmodifiableSet());
+            Set<String> before = firing.getIfPresent(key);
+            if (now.isEmpty()) {
+                if (before != null) firing.invalidate(key);
+            } else {
+                firing.put(key, now);
+            }
+            List<CdsCard> fresh = cards.stream()
+                .filter(c -> before == null || !before.contains(c.summary()))
+                .toList();
+            if (fresh.isEmpty()) return;
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + hospitalId,
+                new BpaCardsEvent(patient.getId(), hospitalId, fresh, LocalDateTime.now()));
+        } catch (Exception ex) {
+            log.warn("Failed to push BPA cards for patient {}: {}", patient.getId(), ex.getMessage());
+        }
+    }
+
+    int trackedPatients() {
+        return firing.size();
+    }
+}
@@ -10,8 +10,9 @@ import java.util.UUID;
 
 /**
  * Immutable snapshot of patient state handed to every {@link BpaRule}.
- * Carries the recent vitals, active problems, and active prescriptions
- * the rules need without forcing each rule to re-query the database.
+ * Carries the recent vitals window, active problems, and active
+ * prescriptions the rules need without forcing each rule to re-query the
+ * database.
  *
  * <p>Built by {@link BpaRuleEngine}; never assembled by a rule. Records
  * are public so Mockito spies can verify accessors in tests without
@@ -19,9 +20,9 @@ import java.util.UUID;
  *
  * @param patient                 the patient whose chart was opened
  * @param hospitalId              hospital scope of the chart-view session
- * @param recentVitals            vital-sign records in chronological-DESC
- *                                order (most recent first), already
- *                                filtered to the engine's lookback window
+ * @param vitals                  rolling window of the last
+ *                                {@link VitalsWindow#SPAN} of vital signs;
+ *                                rules narrow it to their own lookback
  * @param activeProblems          patient problems with non-terminal
  *                                status — used by rules to gate or
  *                                suppress advisories (e.g. don't suggest
@@ -34,18 +35,24 @@ import java.util.UUID;
 public record BpaRuleContext(
     Patient patient,
     UUID hospitalId,
-    List<PatientVitalSign> recentVitals,
+    VitalsWindow vitals,
     List<PatientProblem> activeProblems,
     List<Prescription> activePrescriptions
 ) {
 
     /** Defensive copies + null guards keep the record fully immutable. */
     public BpaRuleContext {
-        recentVitals = recentVitals == null ? List.of() : List.copyOf(recentVitals);
+        vitals = vitals == null ? VitalsWindow.EMPTY : vitals;
         activeProblems = activeProblems == null ? List.of() : List.copyOf(activeProblems);
         activePrescriptions = activePrescriptions == null ? List.of() : List.copyOf(activePrescriptions);
     }
 
+    /** Hand-built context over explicit vital-sign rows (tests, ad-hoc evaluation). */
+    public BpaRuleContext(Patient patient, UUID hospitalId, List<PatientVitalSign> recentVitals,
+                          List<PatientProblem> activeProblems, List<Prescription> activePrescriptions) {
+        this(patient, hospitalId, VitalsWindow.of(recentVitals), activeProblems, activePrescriptions);
+    }
+
     /** True when the patient context is fully populated. */
     public boolean hasPatient() {
         return patient != null && patient.getId() != null;
@@ -12,6 +12,7 @@ import com.example.hms.repository.PatientVitalSignRepository;
 import com.example.hms.repository.PrescriptionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,12 +30,16 @@ import java.util.UUID;
  * registered {@link BpaRule} against it. The result is the concatenated
  * list of {@link CdsCard cards} returned by the rules.
  *
- * <p>Loads recent vitals once (24h lookback covers all three v0 rules:
- * malaria fever 24h, sepsis qSOFA 6h, OB hemorrhage 6h), active problems
- * once, and active prescriptions once — rules are then pure functions of
- * the assembled context. This avoids hidden N+1 lookups inside individual
- * rules and keeps the chart-view load to three queries regardless of how
- * many rules are registered.
+ * <p>Takes the recent vitals as a {@link VitalsWindow} (24h lookback
+ * covers all three v0 rules: malaria fever 24h, sepsis qSOFA 6h, OB
+ * hemorrhage 6h) from {@link BpaVitalsWindowStore}, which pages them from
+ * the database only when the patient has no live window and otherwise
+ * keeps it current from vitals captures. Active problems and active
+ * prescriptions are loaded once per evaluation — rules are then pure
+ * functions of the assembled context. This avoids hidden N+1 lookups
+ * inside individual rules and keeps a chart-view of a minute-by-minute
+ * monitored patient to two small queries regardless of how many rules
+ * are registered.
  */
 @Service
 public class BpaRuleEngine {
@@ -44,10 +49,10 @@ public class BpaRuleEngine {
     /**
      * Vitals lookback for context assembly. The widest rule window in v0
      * is 24h (malaria); narrower windows (qSOFA / OB hemorrhage) filter
-     * down inside the rule. Increase here if a future rule needs longer
-     * history.
+     * down inside the rule. Increase {@link VitalsWindow#SPAN} if a future
+     * rule needs longer history.
      */
-    static final Duration VITALS_LOOKBACK = Duration.ofHours(24);
+    static final Duration VITALS_LOOKBACK = VitalsWindow.SPAN;
 
     /**
      * Page size for the vitals query. We page until either the 24h
@@ -88,29 +93,46 @@ public class BpaRuleEngine {
     private final PatientVitalSignRepository vitalSignRepository;
     private final PatientProblemRepository problemRepository;
     private final PrescriptionRepository prescriptionRepository;
+    private final BpaVitalsWindowStore windowStore;
 
+    @Autowired
     public BpaRuleEngine(
         List<BpaRule> rules,
         PatientVitalSignRepository vitalSignRepository,
         PatientProblemRepository problemRepository,
-        PrescriptionRepository prescriptionRepository
+        PrescriptionRepository prescriptionRepository,
+        BpaVitalsWindowStore windowStore
     ) {
         this.rules = List.copyOf(rules);
         this.vitalSignRepository = vitalSignRepository;
         this.problemRepository = problemRepository;
         this.prescriptionRepository = prescriptionRepository;
+        this.windowStore = windowStore;
+    }
+
+    /** Engine without a window store — every context pages its vitals. */
+    public BpaRuleEngine(
+        List<BpaRule> rules,
+        PatientVitalSignRepository vitalSignRepository,
+        PatientProblemRepository problemRepository,
+        PrescriptionRepository prescriptionRepository
+    ) {
+        this(rules, vitalSignRepository, problemRepository, prescriptionRepository,
+            new BpaVitalsWindowStore(0, Duration.ZERO, null));
     }
 
     /** Build a context for the given patient; never null. */
     public BpaRuleContext buildContext(Patient patient, UUID hospitalId) {
         if (patient == null || patient.getId() == null) {
-            return new BpaRuleContext(null, hospitalId, List.of(), List.of(), List.of());
+            return new BpaRuleContext(null, hospitalId, VitalsWindow.EMPTY, List.of(), List.of());
         }
         UUID patientId = patient.getId();
         return new BpaRuleContext(
             patient,
             hospitalId,
-            loadRecentVitals(patientId, hospitalId),
+            windowStore.window(patientId, hospitalId,
+                () -> vitalSignRepository.findLatestRecordedAt(patientId, hospitalId),
+                () -> VitalsWindow.of(loadRecentVitals(patientId, hospitalId))),
             loadActiveProblems(patientId, hospitalId),
             loadActivePrescriptions(patientId, hospitalId)
         );
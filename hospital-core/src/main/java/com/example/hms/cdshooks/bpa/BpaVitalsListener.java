@@ -0,0 +1,76 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.cdshooks.bpa.VitalsWindow.Reading;
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientVitalSign;
+import com.example.hms.utility.AfterCommitEntityListener;
+import com.example.hms.utility.ApplicationContextProvider;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that keeps {@link BpaVitalsWindowStore} current: a
+ * newly captured {@link PatientVitalSign} is appended to the patient's
+ * windows once its transaction commits (and then, when enabled, offered to
+ * {@link BpaCardPublisher}, so the cards are evaluated against the extended
+ * window); an edited or deleted one drops them at once and again when the
+ * transaction completes. See {@link AfterCommitEntityListener}.
+ *
+ * <p>Only reads the patient's and hospital's ids, so uninitialised proxies
+ * are never loaded during flush.
+ */
+public class BpaVitalsListener extends AfterCommitEntityListener<BpaVitalsWindowStore, BpaVitalsListener.Change> {
+
+    /** A capture ({@code reading} set) or an edit/deletion ({@code reading} null) of one patient's vitals. */
+    record Change(UUID patientId, UUID hospitalId, Patient patient, Reading reading) { }
+
+    public BpaVitalsListener() {
+        super(BpaVitalsWindowStore.class, "[BPA]");
+    }
+
+    @PostPersist
+    public void onCaptured(PatientVitalSign vitalSign) {
+        Patient patient = vitalSign.getPatient();
+        if (patient == null || patient.getId() == null || vitalSign.getRecordedAt() == null) return;
+        UUID hospitalId = vitalSign.getHospital() != null ? vitalSign.getHospital().getId() : null;
+        queue(new Change(patient.getId(), hospitalId, patient, Reading.of(vitalSign)));
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChanged(PatientVitalSign vitalSign) {
+        Patient patient = vitalSign.getPatient();
+        if (patient == null || patient.getId() == null) return;
+        Change change = new Change(patient.getId(), null, null, null);
+        now(change, (store, c) -> store.invalidate(c.patientId()));
+        queue(change);
+    }
+
+    @Override
+    protected void afterCompletion(BpaVitalsWindowStore store, Set<Change> changes, boolean committed) {
+        for (Change change : changes) {
+            if (change.reading() == null) {
+                store.invalidate(change.patientId());
+            } else if (committed) {
+                store.append(change.patientId(), change.hospitalId(), change.reading());
+            }
+        }
+        if (committed) publish(changes);
+    }
+
+    private static void publish(Set<Change> changes) {
+        ApplicationContext context = ApplicationContextProvider.getApplicationContext();
+        if (context == null) return;
+        BpaCardPublisher publisher = context.getBean(BpaCardPublisher.class);
+        changes.stream()
+            .filter(change -> change.reading() != null)
+            .map(change -> new Change(change.patientId(), change.hospitalId(), change.patient(), null))
+            .distinct()
+            .forEach(change -> publisher.vitalsCaptured(change.patient(), change.hospitalId()));
+    }
+}
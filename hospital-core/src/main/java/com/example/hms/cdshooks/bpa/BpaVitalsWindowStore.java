@@ -0,0 +1,125 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.cdshooks.bpa.VitalsWindow.Reading;
+import com.example.hms.utility.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Per-patient {@link VitalsWindow}s behind {@link BpaRuleEngine}, so a
+ * {@code patient-view} hook on a patient monitored every minute no longer
+ * pages through 24 hours of vital-sign rows on every chart open.
+ *
+ * <p>A window is loaded from the database once per (patient, hospital
+ * scope) and then kept current incrementally: {@link BpaVitalsListener}
+ * hands every committed capture to {@link #append}. Edits and deletions of
+ * existing rows drop the patient's windows instead ({@link #invalidate}).
+ *
+ * <p>Every hit is checked against the newest {@code recorded_at} in the
+ * database (one index-only query), so captures on other nodes, or by SQL
+ * outside JPA, trigger a reload on the next chart open. Edits made there
+ * show up when the TTL ({@code app.bpa.vitals-window.*}) runs out.
+ * Windows live in a {@link BoundedTtlCache}; {@code max-entries=0} turns
+ * the store off.
+ *
+ * <p>Metrics: {@value #METRIC_LOOKUPS}{@code {outcome=hit|stale|loaded}}.
+ */
+@Slf4j
+@Component
+public class BpaVitalsWindowStore {
+
+    static final String METRIC_LOOKUPS = "hms.bpa.vitals_window.lookups";
+    static final String OUTCOME_HIT = "hit";
+    static final String OUTCOME_STALE = "stale";
+    static final String OUTCOME_LOADED = "loaded";
+
+    record Key(UUID patientId, UUID hospitalId) { }
+
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final BoundedTtlCache<Key, VitalsWindow> entries;
+
+    @Autowired
+    public BpaVitalsWindowStore(
+        @Value("${app.bpa.vitals-window.max-entries:5000}") int maxEntries,
+        @Value("${app.bpa.vitals-window.ttl-seconds:60}") long ttlSeconds,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(maxEntries, Duration.ofSeconds(Math.max(0, ttlSeconds)), meterRegistry);
+    }
+
+    public BpaVitalsWindowStore(int maxEntries, Duration ttl, @Nullable MeterRegistry meterRegistry) {
+        this.entries = new BoundedTtlCache<>(maxEntries, ttl);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Window for the patient, scoped to {@code hospitalId} (null = every
+     * hospital): stored, unless {@code latestRecordedAt} reports a row it
+     * does not cover, else from {@code loader}.
+     */
+    public VitalsWindow window(UUID patientId, UUID hospitalId,
+                               Supplier<LocalDateTime> latestRecordedAt, Supplier<VitalsWindow> loader) {
+        Key key = new Key(patientId, hospitalId);
+        VitalsWindow window = entries.getIfPresent(key);
+        if (window != null) {
+            if (covers(window, latestRecordedAt.get())) {
+                count(OUTCOME_HIT);
+                return window;
+            }
+            count(OUTCOME_STALE);
+            entries.invalidate(key);
+        }
+        window = entries.load(key, loader);
+        count(OUTCOME_LOADED);
+        return window;
+    }
+
+    /** Append a committed capture to the patient's hospital-scoped and unscoped windows. */
+    public void append(UUID patientId, UUID hospitalId, Reading reading) {
+        if (patientId == null || reading.recordedAt() == null) return;
+        LocalDateTime now = LocalDateTime.now();
+        entries.computeIfPresent(new Key(patientId, hospitalId), (k, w) -> w.with(reading, now));
+        if (hospitalId != null) {
+            entries.computeIfPresent(new Key(patientId, null), (k, w) -> w.with(reading, now));
+        }
+    }
+
+    /** Drop every window of {@code patientId}. */
+    public void invalidate(UUID patientId) {
+        if (patientId == null) return;
+        entries.invalidateIf(k -> patientId.equals(k.patientId()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static boolean covers(VitalsWindow window, LocalDateTime latest) {
+        if (latest == null || latest.isBefore(LocalDateTime.now().minus(VitalsWindow.SPAN))) return true;
+        LocalDateTime newest = window.newestRecordedAt();
+        return newest != null && !latest.isAfter(newest);
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_LOOKUPS)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_LOOKUPS, ex.getMessage());
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.hms.cdshooks.bpa;
 
+import com.example.hms.cdshooks.bpa.VitalsWindow.Reading;
 import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
 import com.example.hms.cdshooks.dto.CdsHookDtos.CdsLink;
 import com.example.hms.cdshooks.dto.CdsHookDtos.Source;
 import com.example.hms.model.BpaProtocol;
 import com.example.hms.model.PatientProblem;
-import com.example.hms.model.PatientVitalSign;
 import com.example.hms.model.Prescription;
 import com.example.hms.repository.BpaProtocolRepository;
 import org.springframework.stereotype.Service;
@@ -66,7 +66,7 @@ public class MalariaFeverProtocolRule implements BpaRule {
     public List<CdsCard> evaluate(BpaRuleContext context) {
         if (context == null || !context.hasPatient()) return List.of();
 
-        Optional<PatientVitalSign> feverEvent = findFeverInWindow(context.recentVitals());
+        Optional<Reading> feverEvent = findFeverInWindow(context.vitals());
         if (feverEvent.isEmpty()) return List.of();
 
         if (hasActiveMalariaProblem(context.activeProblems())) return List.of();
@@ -78,13 +78,10 @@ public class MalariaFeverProtocolRule implements BpaRule {
         return List.of(buildCard(protocol.get(), feverEvent.get()));
     }
 
-    Optional<PatientVitalSign> findFeverInWindow(List<PatientVitalSign> vitals) {
+    Optional<Reading> findFeverInWindow(VitalsWindow vitals) {
         LocalDateTime cutoff = LocalDateTime.now().minus(LOOKBACK);
-        return vitals.stream()
-            .filter(v -> v.getTemperatureCelsius() != null)
-            .filter(v -> v.getRecordedAt() != null && !v.getRecordedAt().isBefore(cutoff))
-            .filter(v -> v.getTemperatureCelsius() >= FEVER_THRESHOLD_C)
-            .findFirst();
+        return vitals.latest(cutoff, r ->
+            r.temperatureCelsius() != null && r.temperatureCelsius() >= FEVER_THRESHOLD_C);
     }
 
     boolean hasActiveMalariaProblem(List<PatientProblem> problems) {
@@ -104,12 +101,12 @@ public class MalariaFeverProtocolRule implements BpaRule {
         return hints.stream().anyMatch(lower::contains);
     }
 
-    private static CdsCard buildCard(BpaProtocol protocol, PatientVitalSign feverEvent) {
+    private static CdsCard buildCard(BpaProtocol protocol, Reading feverEvent) {
         String detail = protocol.getSummary()
             + "\n\nMost recent temperature: "
-            + String.format(Locale.ROOT, "%.1f", feverEvent.getTemperatureCelsius())
+            + String.format(Locale.ROOT, "%.1f", feverEvent.temperatureCelsius())
             + "°C at "
-            + feverEvent.getRecordedAt() + ".";
+            + feverEvent.recordedAt() + ".";
         List<CdsLink> links = protocol.getProtocolUrl() == null
             ? null
             : List.of(new CdsLink(
@@ -5,7 +5,6 @@ import com.example.hms.cdshooks.dto.CdsHookDtos.CdsLink;
 import com.example.hms.cdshooks.dto.CdsHookDtos.Source;
 import com.example.hms.model.BpaProtocol;
 import com.example.hms.model.PatientProblem;
-import com.example.hms.model.PatientVitalSign;
 import com.example.hms.repository.BpaProtocolRepository;
 import org.springframework.stereotype.Service;
 
@@ -69,7 +68,7 @@ public class ObHemorrhageProtocolRule implements BpaRule {
 
         if (!isPostpartum(context.activeProblems())) return List.of();
 
-        Optional<HemorrhageSignal> signal = detectSignal(context.recentVitals());
+        Optional<HemorrhageSignal> signal = detectSignal(context.vitals());
         if (signal.isEmpty()) return List.of();
 
         Optional<BpaProtocol> protocol = protocolRepository.findByProtocolCodeAndActiveTrue(PROTOCOL_CODE);
@@ -84,23 +83,24 @@ public class ObHemorrhageProtocolRule implements BpaRule {
                 || matchesAny(p.getProblemDisplay(), POSTPARTUM_HINTS));
     }
 
-    Optional<HemorrhageSignal> detectSignal(List<PatientVitalSign> vitals) {
+    Optional<HemorrhageSignal> detectSignal(VitalsWindow vitals) {
         LocalDateTime cutoff = LocalDateTime.now().minus(LOOKBACK);
-        for (PatientVitalSign v : vitals) {
-            if (v.getRecordedAt() == null || v.getRecordedAt().isBefore(cutoff)) continue;
-            boolean tachy = v.getHeartRateBpm() != null && v.getHeartRateBpm() > HR_THRESHOLD;
-            boolean hypo = v.getSystolicBpMmHg() != null && v.getSystolicBpMmHg() < SBP_THRESHOLD;
-            if (tachy || hypo) {
-                return Optional.of(new HemorrhageSignal(
-                    v.getHeartRateBpm(),
-                    v.getSystolicBpMmHg(),
-                    v.getRecordedAt(),
-                    tachy,
-                    hypo
-                ));
-            }
-        }
-        return Optional.empty();
+        return vitals.latest(cutoff, r -> isTachycardic(r) || isHypotensive(r))
+            .map(r -> new HemorrhageSignal(
+                r.heartRateBpm(),
+                r.systolicBpMmHg(),
+                r.recordedAt(),
+                isTachycardic(r),
+                isHypotensive(r)
+            ));
+    }
+
+    private static boolean isTachycardic(VitalsWindow.Reading r) {
+        return r.heartRateBpm() != null && r.heartRateBpm() > HR_THRESHOLD;
+    }
+
+    private static boolean isHypotensive(VitalsWindow.Reading r) {
+        return r.systolicBpMmHg() != null && r.systolicBpMmHg() < SBP_THRESHOLD;
     }
 
     private static boolean matchesAny(String value, List<String> hints) {
@@ -1,11 +1,12 @@
 package com.example.hms.cdshooks.bpa;
 
+import com.example.hms.cdshooks.bpa.VitalsWindow.Metric;
+import com.example.hms.cdshooks.bpa.VitalsWindow.Stats;
 import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
 import com.example.hms.cdshooks.dto.CdsHookDtos.CdsLink;
 import com.example.hms.cdshooks.dto.CdsHookDtos.Source;
 import com.example.hms.model.BpaProtocol;
 import com.example.hms.model.PatientProblem;
-import com.example.hms.model.PatientVitalSign;
 import com.example.hms.repository.BpaProtocolRepository;
 import org.springframework.stereotype.Service;
 
@@ -67,7 +68,7 @@ public class SepsisQsofaProtocolRule implements BpaRule {
     public List<CdsCard> evaluate(BpaRuleContext context) {
         if (context == null || !context.hasPatient()) return List.of();
 
-        QsofaScore score = scoreQsofa(context.recentVitals(), context.activeProblems());
+        QsofaScore score = scoreQsofa(context.vitals(), context.activeProblems());
         if (score.total() < QSOFA_TRIGGER) return List.of();
 
         Optional<BpaProtocol> protocol = protocolRepository.findByProtocolCodeAndActiveTrue(PROTOCOL_CODE);
@@ -76,22 +77,14 @@ public class SepsisQsofaProtocolRule implements BpaRule {
         return List.of(buildCard(protocol.get(), score));
     }
 
-    QsofaScore scoreQsofa(List<PatientVitalSign> vitals, List<PatientProblem> problems) {
+    QsofaScore scoreQsofa(VitalsWindow vitals, List<PatientProblem> problems) {
         LocalDateTime cutoff = LocalDateTime.now().minus(LOOKBACK);
-        boolean rrHigh = false;
-        boolean sbpLow = false;
-        for (PatientVitalSign v : vitals) {
-            if (v.getRecordedAt() == null || v.getRecordedAt().isBefore(cutoff)) continue;
-            if (!rrHigh && v.getRespiratoryRateBpm() != null
-                && v.getRespiratoryRateBpm() >= RR_THRESHOLD) {
-                rrHigh = true;
-            }
-            if (!sbpLow && v.getSystolicBpMmHg() != null
-                && v.getSystolicBpMmHg() <= SBP_THRESHOLD) {
-                sbpLow = true;
-            }
-            if (rrHigh && sbpLow) break;
-        }
+        // Any reading in the window meeting a criterion counts, so the
+        // window extremes are all we need.
+        Stats rr = vitals.stats(Metric.RESPIRATORY_RATE, cutoff);
+        Stats sbp = vitals.stats(Metric.SYSTOLIC_BP, cutoff);
+        boolean rrHigh = rr.count() > 0 && rr.max() >= RR_THRESHOLD;
+        boolean sbpLow = sbp.count() > 0 && sbp.min() <= SBP_THRESHOLD;
         boolean ams = problems.stream().anyMatch(p ->
             matchesAny(p.getProblemDisplay(), AMS_HINTS)
                 || matchesAny(p.getProblemCode(), AMS_HINTS));
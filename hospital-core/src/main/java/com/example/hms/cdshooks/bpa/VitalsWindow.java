@@ -0,0 +1,168 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.model.PatientVitalSign;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable rolling window of one patient's recent vital signs, held as
+ * compact {@link Reading}s (no entities, no associations) in
+ * most-recent-first order and capped at {@link #SPAN}.
+ *
+ * <p>Rules ask aggregate questions of it — {@link #stats min/max/last/count}
+ * of a metric since a cutoff, or the {@link #latest latest reading} matching
+ * a trigger — instead of walking entity lists. A window is built once from
+ * the database by {@link BpaVitalsWindowStore} and then extended reading by
+ * reading as vitals are captured ({@link #with}).
+ */
+public final class VitalsWindow {
+
+    /** Widest lookback any BPA rule needs (malaria fever, 24h). */
+    public static final Duration SPAN = Duration.ofHours(24);
+
+    public static final VitalsWindow EMPTY = new VitalsWindow(List.of());
+
+    private static final Comparator<Reading> MOST_RECENT_FIRST =
+        Comparator.comparing(Reading::recordedAt).reversed();
+
+    /** The bedside fields BPA rules read from a vital-sign row. */
+    public record Reading(
+        UUID id,
+        LocalDateTime recordedAt,
+        Double temperatureCelsius,
+        Integer heartRateBpm,
+        Integer respiratoryRateBpm,
+        Integer systolicBpMmHg,
+        Integer diastolicBpMmHg,
+        Integer spo2Percent
+    ) {
+        public static Reading of(PatientVitalSign v) {
+            return new Reading(v.getId(), v.getRecordedAt(), v.getTemperatureCelsius(),
+                v.getHeartRateBpm(), v.getRespiratoryRateBpm(), v.getSystolicBpMmHg(),
+                v.getDiastolicBpMmHg(), v.getSpo2Percent());
+        }
+    }
+
+    public enum Metric {
+        TEMPERATURE_C(Reading::temperatureCelsius),
+        HEART_RATE(Reading::heartRateBpm),
+        RESPIRATORY_RATE(Reading::respiratoryRateBpm),
+        SYSTOLIC_BP(Reading::systolicBpMmHg),
+        DIASTOLIC_BP(Reading::diastolicBpMmHg),
+        SPO2(Reading::spo2Percent);
+
+        private final Function<Reading, Number> accessor;
+
+        Metric(Function<Reading, Number> accessor) {
+            this.accessor = accessor;
+        }
+    }
+
+    /**
+     * Aggregate of one metric over the readings that carry it.
+     * {@code min}/{@code max}/{@code last} are null when {@code count == 0}.
+     */
+    public record Stats(int count, Double min, Double max, Double last, LocalDateTime lastAt) {
+        static final Stats NONE = new Stats(0, null, null, null, null);
+    }
+
+    private final List<Reading> readings;
+
+    private VitalsWindow(List<Reading> readings) {
+        this.readings = readings;
+    }
+
+    /** Window over the given rows; rows without a timestamp are ignored. */
+    public static VitalsWindow of(Collection<PatientVitalSign> vitals) {
+        if (vitals == null || vitals.isEmpty()) return EMPTY;
+        List<Reading> readings = new ArrayList<>(vitals.size());
+        for (PatientVitalSign v : vitals) {
+            if (v != null && v.getRecordedAt() != null) readings.add(Reading.of(v));
+        }
+        readings.sort(MOST_RECENT_FIRST);
+        return new VitalsWindow(List.copyOf(readings));
+    }
+
+    /**
+     * A copy with {@code reading} added and everything older than
+     * {@link #SPAN} before {@code now} dropped. A reading whose id is
+     * already present is not added twice.
+     */
+    public VitalsWindow with(Reading reading, LocalDateTime now) {
+        LocalDateTime cutoff = now.minus(SPAN);
+        if (reading.recordedAt() == null || reading.recordedAt().isBefore(cutoff)
+                || (reading.id() != null && contains(reading.id()))) {
+            return this;
+        }
+        List<Reading> next = new ArrayList<>(readings.size() + 1);
+        boolean placed = false;
+        for (Reading r : readings) {
+            if (r.recordedAt().isBefore(cutoff)) break;
+            if (!placed && !reading.recordedAt().isBefore(r.recordedAt())) {
+                next.add(reading);
+                placed = true;
+            }
+            next.add(r);
+        }
+        if (!placed) next.add(reading);
+        return new VitalsWindow(List.copyOf(next));
+    }
+
+    /** Min / max / last / count of {@code metric} over readings at or after {@code since}. */
+    public Stats stats(Metric metric, LocalDateTime since) {
+        int count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        Reading last = null;
+        for (Reading r : readings) {
+            if (r.recordedAt().isBefore(since)) break;
+            Number value = metric.accessor.apply(r);
+            if (value == null) continue;
+            double d = value.doubleValue();
+            if (last == null) last = r;
+            count++;
+            min = Math.min(min, d);
+            max = Math.max(max, d);
+        }
+        if (last == null) return Stats.NONE;
+        return new Stats(count, min, max, metric.accessor.apply(last).doubleValue(), last.recordedAt());
+    }
+
+    /** The most recent reading at or after {@code since} that matches {@code trigger}. */
+    public Optional<Reading> latest(LocalDateTime since, Predicate<Reading> trigger) {
+        for (Reading r : readings) {
+            if (r.recordedAt().isBefore(since)) break;
+            if (trigger.test(r)) return Optional.of(r);
+        }
+        return Optional.empty();
+    }
+
+    /** Recording time of the newest reading, or null when the window is empty. */
+    public LocalDateTime newestRecordedAt() {
+        return readings.isEmpty() ? null : readings.get(0).recordedAt();
+    }
+
+    public int size() {
+        return readings.size();
+    }
+
+    public boolean isEmpty() {
+        return readings.isEmpty();
+    }
+
+    private boolean contains(UUID id) {
+        for (Reading r : readings) {
+            if (id.equals(r.id())) return true;
+        }
+        return false;
+    }
+}
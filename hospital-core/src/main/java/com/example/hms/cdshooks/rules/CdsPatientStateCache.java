@@ -0,0 +1,107 @@
+package com.example.hms.cdshooks.rules;
+
+import com.example.hms.model.Prescription;
+import com.example.hms.utility.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of the patient half of a {@link CdsRuleContext} —
+ * active prescriptions, their RxNorm codes and the latest weight — so the
+ * {@code order-select} → {@code order-sign} round trips of one ordering
+ * session, and every draft within a single {@code order-sign}, load it
+ * once instead of once per hook call.
+ *
+ * <p>A {@link BoundedTtlCache} keyed by (patient, hospital) with a short
+ * TTL ({@code app.cds.patient-state-cache.*}); {@code max-entries=0} turns
+ * it off. The proposed-order half of the context is never cached.
+ *
+ * <p>Invalidation: {@link CdsPatientStateListener} calls
+ * {@link #invalidate(UUID)} whenever one of the patient's prescriptions or
+ * vital signs is written through JPA — immediately, and again once the
+ * transaction completes (for a load in flight meanwhile, see
+ * {@link BoundedTtlCache#load}).
+ *
+ * <p>The cached {@link Prescription}s are detached and shared between
+ * requests: rules may only read their basic columns.
+ *
+ * <p>Metrics: {@value #METRIC_LOOKUPS}{@code {outcome=hit|loaded}}.
+ */
+@Slf4j
+@Component
+public class CdsPatientStateCache {
+
+    static final String METRIC_LOOKUPS = "hms.cds.patient_state.lookups";
+    static final String OUTCOME_HIT = "hit";
+    static final String OUTCOME_LOADED = "loaded";
+
+    /** Active medication list (RxNorm list parallel to it) and latest weight. */
+    public record PatientState(List<Prescription> activePrescriptions,
+                               List<String> activePrescriptionRxnorms,
+                               Double weightKg) { }
+
+    record Key(UUID patientId, UUID hospitalId) { }
+
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final BoundedTtlCache<Key, PatientState> entries;
+
+    @Autowired
+    public CdsPatientStateCache(
+        @Value("${app.cds.patient-state-cache.max-entries:5000}") int maxEntries,
+        @Value("${app.cds.patient-state-cache.ttl-seconds:30}") long ttlSeconds,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(maxEntries, Duration.ofSeconds(Math.max(0, ttlSeconds)), meterRegistry);
+    }
+
+    public CdsPatientStateCache(int maxEntries, Duration ttl, @Nullable MeterRegistry meterRegistry) {
+        this.entries = new BoundedTtlCache<>(maxEntries, ttl);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** State for the patient at the hospital: cached, else from {@code loader}. */
+    public PatientState get(UUID patientId, UUID hospitalId, Supplier<PatientState> loader) {
+        Key key = new Key(patientId, hospitalId);
+        PatientState state = entries.getIfPresent(key);
+        if (state != null) {
+            count(OUTCOME_HIT);
+            return state;
+        }
+        state = entries.load(key, loader);
+        count(OUTCOME_LOADED);
+        return state;
+    }
+
+    /** Drop every hospital's entry for {@code patientId}. */
+    public void invalidate(UUID patientId) {
+        if (patientId == null) return;
+        entries.invalidateIf(k -> patientId.equals(k.patientId()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_LOOKUPS)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_LOOKUPS, ex.getMessage());
+        }
+    }
+}
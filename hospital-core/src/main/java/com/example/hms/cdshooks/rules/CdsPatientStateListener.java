@@ -0,0 +1,49 @@
+package com.example.hms.cdshooks.rules;
+
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientVitalSign;
+import com.example.hms.model.Prescription;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener on {@link Prescription} and {@link PatientVitalSign}
+ * that drops the patient's {@link CdsPatientStateCache} entries whenever
+ * one of those rows is created, changed or deleted.
+ *
+ * <p>Only reads the patient's id, so an uninitialised proxy is never loaded
+ * during flush. The entries are dropped at once, so the writer's own
+ * follow-up hook calls see the change, and again when the transaction
+ * completes; see {@link AfterCommitEntityListener}.
+ */
+public class CdsPatientStateListener extends AfterCommitEntityListener<CdsPatientStateCache, UUID> {
+
+    public CdsPatientStateListener() {
+        super(CdsPatientStateCache.class, "[CDS]");
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        Patient patient = null;
+        if (entity instanceof Prescription prescription) {
+            patient = prescription.getPatient();
+        } else if (entity instanceof PatientVitalSign vitalSign) {
+            patient = vitalSign.getPatient();
+        }
+        UUID patientId = patient != null ? patient.getId() : null;
+        now(patientId, CdsPatientStateCache::invalidate);
+        queue(patientId);
+    }
+
+    @Override
+    protected void afterCompletion(CdsPatientStateCache cache, Set<UUID> patientIds, boolean committed) {
+        patientIds.forEach(cache::invalidate);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.hms.cdshooks.rules;
 
 import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
+import com.example.hms.cdshooks.rules.CdsPatientStateCache.PatientState;
 import com.example.hms.enums.PrescriptionStatus;
 import com.example.hms.model.Patient;
 import com.example.hms.model.PatientVitalSign;
@@ -10,11 +11,18 @@ import com.example.hms.repository.MedicationCatalogItemRepository;
 import com.example.hms.repository.PatientVitalSignRepository;
 import com.example.hms.repository.PrescriptionRepository;
 import com.example.hms.terminology.TerminologyCodes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -25,6 +33,13 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,12 +57,35 @@ import java.util.regex.Pattern;
  * (CANCELLED / DISCONTINUED / PARTNER_REJECTED). The remaining set is
  * the patient's "current medication list" for interaction and
  * duplicate purposes.
+ *
+ * <p>Latency (CDS Hooks responses must fit the EHR's ~500 ms budget, also
+ * for polypharmacy patients):
+ * <ul>
+ *   <li>The patient half of the context (active list, RxNorm mapping,
+ *       weight) comes from {@link CdsPatientStateCache}, so the hook calls
+ *       of one ordering session load it once.</li>
+ *   <li>Rules run concurrently on a small bounded pool
+ *       ({@code app.cds.rules.parallelism}); a rule still running when the
+ *       budget ({@code app.cds.rules.budget-ms}) is spent is abandoned and
+ *       its cards are dropped — CDS is advisory and a late card is as good
+ *       as none. When the queue is full the caller runs the rule itself.
+ *       Results keep rule registration order. Because rules may run off
+ *       the request thread, they must stay pure functions of the context:
+ *       no repositories, no lazy associations.</li>
+ * </ul>
+ *
+ * <p>Metrics: {@value #METRIC_RULE_TIMEOUTS}{@code {rule}}.
  */
 @Service
 public class CdsRuleEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(CdsRuleEngine.class);
 
+    static final String METRIC_RULE_TIMEOUTS = "hms.cds.rule.timeouts";
+
+    /** Queued rule evaluations per worker before callers run rules themselves. */
+    private static final int QUEUE_PER_WORKER = 16;
+
     /**
      * Statuses considered terminal for active-medication checks. Anything
      * else (DRAFT, SIGNED, TRANSMITTED, DISPENSED, etc.) counts as a
@@ -73,17 +111,80 @@ public class CdsRuleEngine {
     private final PrescriptionRepository prescriptionRepository;
     private final MedicationCatalogItemRepository catalogRepository;
     private final PatientVitalSignRepository vitalSignRepository;
+    private final CdsPatientStateCache patientStateCache;
+    private final long budgetNanos;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    /** Null when rules run serially on the caller's thread. */
+    @Nullable
+    private final ThreadPoolExecutor executor;
 
+    @Autowired
+    public CdsRuleEngine(
+        List<CdsRule> rules,
+        PrescriptionRepository prescriptionRepository,
+        MedicationCatalogItemRepository catalogRepository,
+        PatientVitalSignRepository vitalSignRepository,
+        CdsPatientStateCache patientStateCache,
+        @Value("${app.cds.rules.parallelism:4}") int parallelism,
+        @Value("${app.cds.rules.budget-ms:300}") long budgetMs,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(rules, prescriptionRepository, catalogRepository, vitalSignRepository, patientStateCache,
+            parallelism, Duration.ofMillis(Math.max(1, budgetMs)), meterRegistry);
+    }
+
+    /** Serial, uncached engine — for unit tests that only exercise the context helpers. */
     public CdsRuleEngine(
         List<CdsRule> rules,
         PrescriptionRepository prescriptionRepository,
         MedicationCatalogItemRepository catalogRepository,
         PatientVitalSignRepository vitalSignRepository
+    ) {
+        this(rules, prescriptionRepository, catalogRepository, vitalSignRepository,
+            new CdsPatientStateCache(0, Duration.ZERO, null), 0, Duration.ZERO, null);
+    }
+
+    public CdsRuleEngine(
+        List<CdsRule> rules,
+        PrescriptionRepository prescriptionRepository,
+        MedicationCatalogItemRepository catalogRepository,
+        PatientVitalSignRepository vitalSignRepository,
+        CdsPatientStateCache patientStateCache,
+        int parallelism,
+        Duration budget,
+        @Nullable MeterRegistry meterRegistry
     ) {
         this.rules = List.copyOf(rules);
         this.prescriptionRepository = prescriptionRepository;
         this.catalogRepository = catalogRepository;
         this.vitalSignRepository = vitalSignRepository;
+        this.patientStateCache = patientStateCache;
+        this.budgetNanos = budget.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.executor = parallelism > 0 && this.rules.size() > 1 ? newExecutor(parallelism) : null;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int parallelism) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            parallelism, parallelism,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(parallelism * QUEUE_PER_WORKER),
+            r -> {
+                Thread t = new Thread(r, "cds-rule-" + threadIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) executor.shutdownNow();
     }
 
     /** Build a context for the given proposed order; never null. */
@@ -94,12 +195,10 @@ public class CdsRuleEngine {
         MedicationCatalogItem catalogItem = resolveCatalogItem(hospitalId, proposedMedicationCode);
         String rxnorm = catalogItem == null ? null : catalogItem.getRxnormCode();
 
-        List<Prescription> active = patient == null
-            ? List.of()
-            : loadActivePrescriptions(patient.getId(), hospitalId);
-        List<String> activeRxnorms = mapRxnorms(active, hospitalId);
-
-        Double weight = patient == null ? null : loadLatestWeight(patient.getId(), hospitalId);
+        PatientState state = patient == null || patient.getId() == null
+            ? new PatientState(List.of(), List.of(), null)
+            : patientStateCache.get(patient.getId(), hospitalId,
+                () -> loadPatientState(patient.getId(), hospitalId));
         Double doseMg = parseDoseMg(proposedDosage);
 
         return new CdsRuleContext(
@@ -110,30 +209,73 @@ public class CdsRuleEngine {
             rxnorm,
             doseMg,
             catalogItem,
-            weight,
-            active,
-            activeRxnorms
+            state.weightKg(),
+            state.activePrescriptions(),
+            state.activePrescriptionRxnorms()
         );
     }
 
     /** Run every registered rule against the context. */
     public List<CdsCard> evaluate(CdsRuleContext context) {
         if (context == null) return List.of();
-        List<CdsCard> cards = new ArrayList<>();
+        if (executor == null) {
+            List<CdsCard> cards = new ArrayList<>();
+            for (CdsRule rule : rules) cards.addAll(run(rule, context));
+            return cards;
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        List<Future<List<CdsCard>>> pending = new ArrayList<>(rules.size());
         for (CdsRule rule : rules) {
+            pending.add(executor.submit(() -> run(rule, context)));
+        }
+        List<CdsCard> cards = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            Future<List<CdsCard>> future = pending.get(i);
+            String ruleId = rules.get(i).id();
             try {
-                List<CdsCard> ruleCards = rule.evaluate(context);
-                if (ruleCards != null) cards.addAll(ruleCards);
-            } catch (RuntimeException ex) {
-                // Defensive: a buggy rule must not block a clinician from
-                // signing. Log and continue with the rest.
-                logger.warn("CDS rule {} threw {}: {}", rule.id(),
-                    ex.getClass().getSimpleName(), ex.getMessage());
+                cards.addAll(future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                logger.warn("CDS rule {} exceeded the {} ms budget; its cards are dropped",
+                    ruleId, TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+                countTimeout(ruleId);
+            } catch (ExecutionException ex) {
+                // run() already absorbs RuntimeExceptions; this is an Error.
+                logger.warn("CDS rule {} failed: {}", ruleId, ex.getCause().toString());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.forEach(f -> f.cancel(true));
+                break;
             }
         }
         return cards;
     }
 
+    private static List<CdsCard> run(CdsRule rule, CdsRuleContext context) {
+        try {
+            List<CdsCard> ruleCards = rule.evaluate(context);
+            return ruleCards != null ? ruleCards : List.of();
+        } catch (RuntimeException ex) {
+            // Defensive: a buggy rule must not block a clinician from
+            // signing. Log and continue with the rest.
+            logger.warn("CDS rule {} threw {}: {}", rule.id(),
+                ex.getClass().getSimpleName(), ex.getMessage());
+            return List.of();
+        }
+    }
+
+    private void countTimeout(String ruleId) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_RULE_TIMEOUTS)
+                .tag("rule", ruleId)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            logger.debug("Failed to record metric {}: {}", METRIC_RULE_TIMEOUTS, ex.getMessage());
+        }
+    }
+
     /** Convenience: build context + evaluate. */
     public List<CdsCard> evaluateProposedPrescription(Patient patient, UUID hospitalId,
                                                        String proposedMedicationName,
@@ -171,6 +313,12 @@ public class CdsRuleEngine {
         return byRxnorm.isEmpty() ? null : byRxnorm.get(0);
     }
 
+    PatientState loadPatientState(UUID patientId, UUID hospitalId) {
+        List<Prescription> active = loadActivePrescriptions(patientId, hospitalId);
+        return new PatientState(active, mapRxnorms(active, hospitalId),
+            loadLatestWeight(patientId, hospitalId));
+    }
+
     List<Prescription> loadActivePrescriptions(UUID patientId, UUID hospitalId) {
         if (patientId == null) return List.of();
         List<Prescription> all = hospitalId != null
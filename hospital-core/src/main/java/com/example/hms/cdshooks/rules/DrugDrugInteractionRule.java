@@ -2,18 +2,20 @@ package com.example.hms.cdshooks.rules;
 
 import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
 import com.example.hms.cdshooks.dto.CdsHookDtos.Source;
+import com.example.hms.cdshooks.rules.DrugInteractionMatrix.Interaction;
 import com.example.hms.enums.InteractionSeverity;
-import com.example.hms.model.medication.DrugInteraction;
-import com.example.hms.repository.DrugInteractionRepository;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Pairs the proposed prescription's RxNorm with each currently-active
- * prescription on the patient, looks up
- * {@code clinical.drug_interactions}, and emits one card per hit.
+ * prescription on the patient, looks the pair up in the
+ * {@link DrugInteractionMatrix} (the in-memory copy of
+ * {@code clinical.drug_interactions}), and emits one card per hit — no
+ * query per pair, so a 20-medication list costs twenty map lookups.
  *
  * <p>RxNorm is the join key. When either side has no resolved RxNorm
  * (freetext prescription, no catalog match) the rule cannot reason and
@@ -33,10 +35,10 @@ public class DrugDrugInteractionRule implements CdsRule {
     private static final String ID = "drug-drug-interaction";
     private static final String SOURCE_LABEL = "HMS Drug-Drug Interaction Check";
 
-    private final DrugInteractionRepository repository;
+    private final DrugInteractionMatrix matrix;
 
-    public DrugDrugInteractionRule(DrugInteractionRepository repository) {
-        this.repository = repository;
+    public DrugDrugInteractionRule(DrugInteractionMatrix matrix) {
+        this.matrix = matrix;
     }
 
     @Override
@@ -51,45 +53,33 @@ public class DrugDrugInteractionRule implements CdsRule {
 
         return context.activePrescriptionRxnorms().stream()
             .filter(existing -> existing != null && !existing.isBlank() && !existing.equals(proposed))
-            .map(existing -> canonicalPair(proposed, existing))
             .distinct()
-            .map(pairKey -> {
-                int sep = pairKey.indexOf('|');
-                String a = pairKey.substring(0, sep);
-                String b = pairKey.substring(sep + 1);
-                // proposed is always one side of the pair; we don't care which
-                // because findInteractionBetween is bidirectional.
-                return repository.findInteractionBetween(a, b).orElse(null);
-            })
-            .filter(java.util.Objects::nonNull)
-            .filter(DrugInteraction::isActive)
+            // The matrix only holds active rows and is order-insensitive.
+            .map(existing -> matrix.lookup(proposed, existing))
+            .filter(Objects::nonNull)
             .map(this::buildCard)
             .toList();
     }
 
-    private static String canonicalPair(String a, String b) {
-        return a.compareTo(b) <= 0 ? a + "|" + b : b + "|" + a;
-    }
-
-    private CdsCard buildCard(DrugInteraction di) {
-        String summary = "Drug-drug interaction: " + di.getDrug1Name()
-            + " ↔ " + di.getDrug2Name() + " (" + di.getSeverity() + ")";
+    private CdsCard buildCard(Interaction di) {
+        String summary = "Drug-drug interaction: " + di.drug1Name()
+            + " ↔ " + di.drug2Name() + " (" + di.severity() + ")";
         String detail = composeDetail(di);
         return new CdsCard(
             summary,
             detail,
-            mapIndicator(di.getSeverity()),
+            mapIndicator(di.severity()),
             new Source(SOURCE_LABEL, null, null),
             null, null, null, UUID.randomUUID().toString()
         );
     }
 
-    private static String composeDetail(DrugInteraction di) {
+    private static String composeDetail(Interaction di) {
         StringBuilder detail = new StringBuilder();
-        if (di.getDescription() != null) detail.append(di.getDescription());
-        if (di.getRecommendation() != null) {
+        if (di.description() != null) detail.append(di.description());
+        if (di.recommendation() != null) {
             if (!detail.isEmpty()) detail.append(' ');
-            detail.append("Recommendation: ").append(di.getRecommendation());
+            detail.append("Recommendation: ").append(di.recommendation());
         }
         return detail.isEmpty() ? null : detail.toString();
     }
@@ -0,0 +1,39 @@
+package com.example.hms.cdshooks.rules;
+
+import com.example.hms.model.medication.DrugInteraction;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that marks the {@link DrugInteractionMatrix} stale
+ * whenever a {@link DrugInteraction} row is created, changed (severity,
+ * text, activation) or deleted.
+ *
+ * <p>The matrix is dropped at once and again when the writing transaction
+ * completes, so a reload between flush and commit cannot outlive the edit;
+ * see {@link AfterCommitEntityListener}.
+ */
+public class DrugInteractionChangeListener extends AfterCommitEntityListener<DrugInteractionMatrix, UUID> {
+
+    public DrugInteractionChangeListener() {
+        super(DrugInteractionMatrix.class, "[CDS]");
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(DrugInteraction interaction) {
+        now(interaction.getId(), (matrix, id) -> matrix.markStale());
+        queue(interaction.getId());
+    }
+
+    @Override
+    protected void afterCompletion(DrugInteractionMatrix matrix, Set<UUID> interactionIds, boolean committed) {
+        matrix.markStale();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.hms.cdshooks.rules;
+
+import com.example.hms.enums.InteractionSeverity;
+import com.example.hms.model.medication.DrugInteraction;
+import com.example.hms.repository.DrugInteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the active rows of {@code clinical.drug_interactions},
+ * keyed by canonical code pair ({@code "a|b"} with {@code a <= b}), so
+ * {@link DrugDrugInteractionRule} answers a polypharmacy order with map
+ * lookups instead of one query per active medication.
+ *
+ * <p>The whole knowledge base is a few thousand rows, loaded with a single
+ * query on first use and again when:
+ * <ul>
+ *   <li>an interaction row is written through JPA
+ *       ({@link DrugInteractionChangeListener} marks the matrix stale once
+ *       the transaction completes), or</li>
+ *   <li>the refresh interval ({@code app.cds.interaction-matrix.refresh-seconds})
+ *       runs out — the catch-all for imports on other nodes or by SQL.</li>
+ * </ul>
+ * A load that overlaps a change is served to its caller but not kept.
+ *
+ * <p>Metrics: {@value #METRIC_RELOADS} counts matrix (re)loads.
+ */
+@Slf4j
+@Component
+public class DrugInteractionMatrix {
+
+    static final String METRIC_RELOADS = "hms.cds.interaction_matrix.reloads";
+
+    /** The fields a CDS card needs — detached from the entity and immutable. */
+    public record Interaction(String drug1Name, String drug2Name, InteractionSeverity severity,
+                              String description, String recommendation) { }
+
+    private record Snapshot(Map<String, Interaction> byPair, long loadedAtNanos) { }
+
+    private final DrugInteractionRepository repository;
+    private final long refreshNanos;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Snapshot current;
+
+    @Autowired
+    public DrugInteractionMatrix(
+        DrugInteractionRepository repository,
+        @Value("${app.cds.interaction-matrix.refresh-seconds:600}") long refreshSeconds,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(repository, Duration.ofSeconds(Math.max(0, refreshSeconds)), meterRegistry);
+    }
+
+    public DrugInteractionMatrix(DrugInteractionRepository repository, Duration refresh,
+                                 @Nullable MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.refreshNanos = refresh.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** The active interaction between two codes, in either order; null when none is known. */
+    public Interaction lookup(String code1, String code2) {
+        if (code1 == null || code2 == null) return null;
+        return snapshot().byPair().get(pairKey(code1, code2));
+    }
+
+    /** Reload on next use; a load in progress is served but not kept. */
+    public void markStale() {
+        changes.incrementAndGet();
+        current = null;
+    }
+
+    int size() {
+        Snapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.byPair().size();
+    }
+
+    static String pairKey(String a, String b) {
+        return a.compareTo(b) <= 0 ? a + "|" + b : b + "|" + a;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) return snapshot;
+        synchronized (this) {
+            // One loader at a time; the rest wait and take its result.
+            snapshot = current;
+            if (isFresh(snapshot)) return snapshot;
+            long epoch = changes.get();
+            snapshot = load();
+            if (changes.get() == epoch) current = snapshot;
+            return snapshot;
+        }
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null && System.nanoTime() - snapshot.loadedAtNanos() < refreshNanos;
+    }
+
+    private Snapshot load() {
+        Map<String, Interaction> byPair = new HashMap<>();
+        for (DrugInteraction di : repository.findByActiveTrue()) {
+            if (!di.isActive() || di.getDrug1Code() == null || di.getDrug2Code() == null) continue;
+            byPair.putIfAbsent(pairKey(di.getDrug1Code(), di.getDrug2Code()), new Interaction(
+                di.getDrug1Name(), di.getDrug2Name(), di.getSeverity(),
+                di.getDescription(), di.getRecommendation()));
+        }
+        countReload();
+        log.debug("[CDS] Loaded drug interaction matrix with {} pairs", byPair.size());
+        return new Snapshot(Map.copyOf(byPair), System.nanoTime());
+    }
+
+    private void countReload() {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_RELOADS)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_RELOADS, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.hms.controller;
+
+import com.example.hms.empi.probabilistic.EmpiProbabilisticProperties;
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import com.example.hms.payload.dto.empi.EmpiDedupJobResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicatePairResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicateResolutionRequestDTO;
+import com.example.hms.service.empi.EmpiDeduplicationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * Data-steward surface for the batch EMPI deduplication scan: queue a scan,
+ * follow its progress, and work the ranked review queue it produces.
+ * <p>
+ * Same admin allowlist as the /empi merge endpoints — resolving a pair as
+ * MERGED performs the irreversible identity-graph merge. Gated by
+ * {@code app.empi.probabilistic.enabled} like /empi/candidates: flag off
+ * means the blocking index is not maintained, so the surface returns 404.
+ */
+@RestController
+@RequestMapping("/empi/dedup")
+@Tag(name = "EMPI Deduplication", description = "Batch duplicate-patient scan and steward review queue")
+public class EmpiDeduplicationController {
+
+    private static final String ADMIN_ROLES = "hasAnyRole('SUPER_ADMIN','HOSPITAL_ADMIN')";
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final EmpiDeduplicationService deduplicationService;
+    private final EmpiProbabilisticProperties properties;
+
+    public EmpiDeduplicationController(EmpiDeduplicationService deduplicationService,
+                                       EmpiProbabilisticProperties properties) {
+        this.deduplicationService = deduplicationService;
+        this.properties = properties;
+    }
+
+    @PostMapping("/jobs")
+    @PreAuthorize(ADMIN_ROLES)
+    @Operation(summary = "Queue a deduplication scan of a hospital's patient registry",
+        description = "Returns the already-active job when one is queued or running for the hospital. "
+            + "Super-admins without an active hospital must pass hospitalId.")
+    public ResponseEntity<EmpiDedupJobResponseDTO> startJob(@RequestParam(required = false) UUID hospitalId) {
+        if (!properties.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(deduplicationService.startJob(hospitalId));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize(ADMIN_ROLES)
+    @Operation(summary = "Fetch a deduplication job's status and progress counters")
+    public ResponseEntity<EmpiDedupJobResponseDTO> getJob(@PathVariable UUID jobId) {
+        if (!properties.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(deduplicationService.getJob(jobId));
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    @PreAuthorize(ADMIN_ROLES)
+    @Operation(summary = "Cancel a queued or running deduplication job",
+        description = "Pairs already queued by the job stay in the review queue.")
+    public ResponseEntity<EmpiDedupJobResponseDTO> cancelJob(@PathVariable UUID jobId) {
+        if (!properties.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(deduplicationService.cancelJob(jobId));
+    }
+
+    @GetMapping("/jobs/{jobId}/pairs")
+    @PreAuthorize(ADMIN_ROLES)
+    @Operation(summary = "List suspected duplicate pairs found by a job, best score first")
+    public ResponseEntity<Page<EmpiDuplicatePairResponseDTO>> listPairs(
+        @PathVariable UUID jobId,
+        @RequestParam(required = false) EmpiDuplicateReviewStatus status,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "50") int size
+    ) {
+        if (!properties.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), MAX_PAGE_SIZE));
+        return ResponseEntity.ok(deduplicationService.listPairs(jobId, status, pageable));
+    }
+
+    @PostMapping("/pairs/{pairId}/resolve")
+    @PreAuthorize(ADMIN_ROLES)
+    @Operation(summary = "Resolve a suspected duplicate pair",
+        description = "MERGED merges the pair at the identity-graph level (merge type DATA_CLEANUP) "
+            + "keeping primaryPatientId; NOT_DUPLICATE dismisses the pair for all future scans.")
+    public ResponseEntity<EmpiDuplicatePairResponseDTO> resolvePair(
+        @PathVariable UUID pairId,
+        @Valid @RequestBody EmpiDuplicateResolutionRequestDTO request
+    ) {
+        if (!properties.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(deduplicationService.resolvePair(pairId, request));
+    }
+}
@@ -7,6 +7,7 @@ import com.example.hms.service.PatientRecordSharingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -23,6 +24,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.UUID;
 
 @RestController
@@ -117,13 +119,12 @@ public class PatientRecordSharingController {
 
     @PostMapping("/export")
     @PreAuthorize("hasAnyAuthority('ROLE_NURSE','ROLE_MIDWIFE','ROLE_DOCTOR','ROLE_HOSPITAL_ADMIN','ROLE_SUPER_ADMIN')")
-    public ResponseEntity<byte[]> exportRecords(
+    public void exportRecords(
             @RequestParam @NotNull UUID patientId,
             @RequestParam @NotNull UUID fromHospitalId,
             @RequestParam @NotNull UUID toHospitalId,
-            @RequestParam @NotBlank String format) {
-
-        byte[] fileContent = sharingService.exportPatientRecord(patientId, fromHospitalId, toHospitalId, format);
+            @RequestParam @NotBlank String format,
+            HttpServletResponse response) throws IOException {
 
         String contentType = switch (format.toLowerCase()) {
             case "csv" -> "text/csv";
@@ -133,9 +134,10 @@ public class PatientRecordSharingController {
 
         String fileName = "patient_record." + format.toLowerCase();
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(fileContent);
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        // Sections go to the client as they are rendered; the service checks
+        // consent before writing, so a refusal still maps to an error status.
+        sharingService.streamPatientRecord(patientId, fromHospitalId, toHospitalId, format, response.getOutputStream());
     }
 }
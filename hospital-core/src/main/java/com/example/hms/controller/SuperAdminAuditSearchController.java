@@ -111,9 +111,10 @@ public class SuperAdminAuditSearchController {
      * {@code support.audit_event_logs}, {@code frontend_audit_events},
      * and {@code permission_matrix_audit_events} into one merged feed
      * sorted by event timestamp DESC. {@code sources} is optional —
-     * empty/missing means "all three". Date bounds are optional but
-     * recommended; the service caps per-source rows to keep deep-page
-     * requests bounded.
+     * empty/missing means "all three". Pass the previous response's
+     * {@code nextCursor} as {@code cursor} to page through the feed — a
+     * deep page then costs the same as the first. Page numbers without a
+     * cursor are still accepted for a bounded depth.
      */
     @GetMapping("/aggregated")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
@@ -122,12 +123,13 @@ public class SuperAdminAuditSearchController {
         @RequestParam(required = false) List<AuditSource> sources,
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+        @RequestParam(required = false) String cursor,
         Pageable pageable
     ) {
         Set<AuditSource> sourceSet = (sources == null || sources.isEmpty())
             ? EnumSet.allOf(AuditSource.class)
             : EnumSet.copyOf(sources);
         return ResponseEntity.ok(
-            aggregationService.searchAggregated(sourceSet, fromDate, toDate, pageable));
+            aggregationService.searchAggregated(sourceSet, fromDate, toDate, cursor, pageable));
     }
 }
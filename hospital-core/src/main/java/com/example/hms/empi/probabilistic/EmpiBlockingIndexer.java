@@ -0,0 +1,259 @@
+package com.example.hms.empi.probabilistic;
+
+import com.example.hms.enums.empi.EmpiBlockingKeyType;
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientHospitalRegistration;
+import com.example.hms.model.empi.EmpiBlockingBackfillState;
+import com.example.hms.model.empi.EmpiBlockingKey;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.repository.empi.EmpiBlockingBackfillStateRepository;
+import com.example.hms.repository.empi.EmpiBlockingKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps {@code empi.blocking_keys} in step with {@code clinical.patients}
+ * (roadmap row 25 blocking follow-on).
+ *
+ * <p>Writers never call this directly: {@link EmpiBlockingKeyListener}
+ * hooks the JPA lifecycle of {@link Patient} and
+ * {@link PatientHospitalRegistration}, so the 18-odd patient write paths
+ * (registration desk, FHIR write, ADT intake, chart updates, …) all stay
+ * covered without each one remembering to re-index.
+ *
+ * <p>Re-indexing runs AFTER the writer's transaction commits, in its own
+ * {@code REQUIRES_NEW} transaction: a blocking-index failure must never
+ * roll back a clinical write, and a rolled-back registration must never
+ * leave keys behind. The listener coalesces the patient ids touched by one
+ * transaction, so a bulk import re-indexes each patient once.
+ *
+ * <p>The same after-commit pass patches any resident {@link EmpiMatchIndex}
+ * slice, so the in-memory path sees local writes immediately.
+ *
+ * <p>Flag-off ({@code app.empi.probabilistic.enabled=false}): no-op, so the
+ * matcher's dormant state costs the registration desk nothing. Flipping the
+ * flag on backfills the table at the next startup, resuming from a persisted
+ * checkpoint if a node dies part-way (see {@link #backfillOnStartup}).
+ */
+@Service
+@Slf4j
+public class EmpiBlockingIndexer {
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    private static final int BACKFILL_PAGE_ATTEMPTS = 3;
+    private static final Integer SINGLETON_ID = EmpiBlockingBackfillState.SINGLETON_ID;
+
+    private final EmpiProbabilisticProperties properties;
+    private final PatientRepository patientRepository;
+    private final EmpiBlockingKeyRepository blockingKeyRepository;
+    private final EmpiMatchIndex matchIndex;
+    private final EmpiBlockingBackfillStateRepository backfillStateRepository;
+    private final TransactionTemplate indexTx;
+
+    public EmpiBlockingIndexer(
+        EmpiProbabilisticProperties properties,
+        PatientRepository patientRepository,
+        EmpiBlockingKeyRepository blockingKeyRepository,
+        EmpiMatchIndex matchIndex,
+        EmpiBlockingBackfillStateRepository backfillStateRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = properties;
+        this.patientRepository = patientRepository;
+        this.blockingKeyRepository = blockingKeyRepository;
+        this.matchIndex = matchIndex;
+        this.backfillStateRepository = backfillStateRepository;
+        this.indexTx = new TransactionTemplate(transactionManager);
+        this.indexTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Re-index each patient, logging failures — the after-commit pass of
+     * {@link EmpiBlockingKeyListener}, so the clinical write has already
+     * committed and must not see them.
+     */
+    public void reindexCommitted(Collection<UUID> patientIds) {
+        if (!properties.isEnabled()) return;
+        patientIds.forEach(this::reindexQuietly);
+    }
+
+    /**
+     * Rewrite one patient's keys. Computes the target key set first and
+     * skips the delete/insert when nothing changed — most patient updates
+     * (phone, address, photo) do not touch a blocking field.
+     */
+    public void reindex(UUID patientId) {
+        indexTx.executeWithoutResult(status -> {
+            Patient patient = patientRepository.findById(patientId).orElse(null);
+            // Resident slices are patched unconditionally: sex or exact-name
+            // edits change scores without changing any blocking key.
+            if (patient == null) {
+                matchIndex.remove(patientId);
+            } else {
+                matchIndex.upsert(patient);
+            }
+            Set<KeySignature> target = patient == null ? Set.of() : targetKeys(patient);
+            List<EmpiBlockingKey> existing = blockingKeyRepository.findByPatientId(patientId);
+            Set<KeySignature> current = new HashSet<>(existing.size());
+            for (EmpiBlockingKey key : existing) {
+                current.add(new KeySignature(
+                    key.getHospitalId(), key.getKeyType(), key.getKeyValue(), key.getBlockYear()));
+            }
+            if (current.equals(target)) return;
+
+            blockingKeyRepository.deleteByPatientId(patientId);
+            blockingKeyRepository.flush();
+            blockingKeyRepository.saveAll(target.stream()
+                .map(sig -> toKey(patientId, sig))
+                .toList());
+        });
+    }
+
+    /**
+     * Start (or resume) the backfill once the context is up — on its own
+     * virtual thread, so a large registry never holds up readiness.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!properties.isEnabled()) {
+            // Keys are not maintained while the matcher is off, so the next
+            // flag-on startup must walk the registry again.
+            indexTx.executeWithoutResult(status -> backfillStateRepository.findForUpdate(SINGLETON_ID)
+                .filter(state -> state.getCompletedAt() != null)
+                .ifPresent(state -> {
+                    state.setCheckpointPatientId(EmpiBlockingBackfillState.START);
+                    state.setIndexedPatients(0);
+                    state.setCompletedAt(null);
+                    state.setUpdatedAt(Instant.now());
+                }));
+            return;
+        }
+        if (!properties.isBackfillOnStartup()) return;
+        Thread.ofVirtual().name("empi-blocking-backfill").start(this::backfill);
+    }
+
+    /**
+     * Populate the index for every patient, resuming after the persisted
+     * {@link EmpiBlockingBackfillState} checkpoint. Each page's keys
+     * and the advanced checkpoint commit together, so a crash loses at most
+     * the page in flight; nodes starting together share the walk, serialised
+     * on the checkpoint row lock.
+     */
+    void backfill() {
+        long started = System.currentTimeMillis();
+        long indexed = 0;
+        int failures = 0;
+        while (true) {
+            Integer page;
+            try {
+                page = indexTx.execute(status -> backfillPage());
+            } catch (RuntimeException ex) {
+                // Usually a unique-key race with a live re-index of a patient
+                // on the page; the page rolled back whole, so just retry it.
+                if (++failures >= BACKFILL_PAGE_ATTEMPTS) {
+                    log.warn("[EMPI_BLOCKING] Blocking-key backfill stopped after {} patients, resumes at next startup: {}",
+                        indexed, ex.getMessage());
+                    return;
+                }
+                continue;
+            }
+            if (page == null || page == 0) break;
+            indexed += page;
+            failures = 0;
+        }
+        if (indexed > 0) {
+            log.info("[EMPI_BLOCKING] Backfilled blocking keys for {} patients in {} ms",
+                indexed, System.currentTimeMillis() - started);
+        }
+    }
+
+    /**
+     * One backfill page in the caller's transaction: lock the checkpoint,
+     * rewrite the keys of the next {@value #BACKFILL_PAGE_SIZE} patients by id,
+     * advance the checkpoint. Returns the number of patients indexed, 0 once
+     * the walk is complete.
+     */
+    private int backfillPage() {
+        EmpiBlockingBackfillState state = backfillStateRepository.findForUpdate(SINGLETON_ID)
+            .orElseGet(() -> backfillStateRepository.save(new EmpiBlockingBackfillState(
+                SINGLETON_ID, EmpiBlockingBackfillState.START, 0, null, Instant.now())));
+        if (state.getCompletedAt() != null) return 0;
+        List<UUID> ids = patientRepository.findIdsAfterUnscoped(
+            state.getCheckpointPatientId(), PageRequest.of(0, BACKFILL_PAGE_SIZE));
+        state.setUpdatedAt(Instant.now());
+        if (ids.isEmpty()) {
+            state.setCompletedAt(Instant.now());
+            return 0;
+        }
+        List<EmpiBlockingKey> keys = new ArrayList<>();
+        for (Patient patient : patientRepository.findAllWithRegistrationsByIdInUnscoped(ids)) {
+            matchIndex.upsert(patient);
+            for (KeySignature sig : targetKeys(patient)) {
+                keys.add(toKey(patient.getId(), sig));
+            }
+        }
+        blockingKeyRepository.deleteByPatientIdIn(ids);
+        blockingKeyRepository.saveAll(keys);
+        state.setCheckpointPatientId(ids.get(ids.size() - 1));
+        state.setIndexedPatients(state.getIndexedPatients() + ids.size());
+        return ids.size();
+    }
+
+    private static EmpiBlockingKey toKey(UUID patientId, KeySignature sig) {
+        return EmpiBlockingKey.builder()
+            .hospitalId(sig.hospitalId())
+            .patientId(patientId)
+            .keyType(sig.keyType())
+            .keyValue(sig.keyValue())
+            .blockYear(sig.blockYear())
+            .build();
+    }
+
+    private Set<KeySignature> targetKeys(Patient patient) {
+        if (patient.getDateOfBirth() == null || patient.getHospitalRegistrations() == null) return Set.of();
+        List<EmpiBlockingKeys.Key> keys = EmpiBlockingKeys.keysFor(patient.getFirstName(), patient.getLastName());
+        if (keys.isEmpty()) return Set.of();
+        int year = patient.getDateOfBirth().getYear();
+        Set<KeySignature> target = new LinkedHashSet<>();
+        for (PatientHospitalRegistration reg : patient.getHospitalRegistrations()) {
+            if (reg == null || reg.getHospital() == null || reg.getHospital().getId() == null) continue;
+            UUID hospitalId = reg.getHospital().getId();
+            for (EmpiBlockingKeys.Key key : keys) {
+                target.add(new KeySignature(hospitalId, key.type(), key.value(), year));
+            }
+        }
+        return target;
+    }
+
+    private void reindexQuietly(UUID patientId) {
+        try {
+            reindex(patientId);
+        } catch (RuntimeException ex) {
+            // The clinical write has already committed; a stale block is
+            // repaired by the next write to the same patient.
+            log.warn("[EMPI_BLOCKING] Failed to re-index patient {}: {}", patientId, ex.getMessage());
+        }
+    }
+
+    /** Identity of a key row for diffing the stored set against the target set. */
+    private record KeySignature(UUID hospitalId, EmpiBlockingKeyType keyType, String keyValue, int blockYear) {}
+}
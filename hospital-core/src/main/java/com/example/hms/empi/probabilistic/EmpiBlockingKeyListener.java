@@ -0,0 +1,58 @@
+package com.example.hms.empi.probabilistic;
+
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientHospitalRegistration;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that queues EMPI blocking-key maintenance whenever a
+ * {@link Patient} is created/updated or gains a
+ * {@link PatientHospitalRegistration} (a new hospital scope for the same
+ * demographics). The actual write happens after commit in
+ * {@link EmpiBlockingIndexer}.
+ *
+ * <p>Bean lookup, per-transaction coalescing and failure isolation come
+ * from {@link AfterCommitEntityListener}; rolled-back writes are dropped.
+ *
+ * <p>Registration updates are deliberately ignored: stay-status, bed and
+ * discharge-readiness churn on every ward round and never changes a key.
+ * A deactivated registration is filtered out at match time.
+ */
+public class EmpiBlockingKeyListener extends AfterCommitEntityListener<EmpiBlockingIndexer, UUID> {
+
+    public EmpiBlockingKeyListener() {
+        super(EmpiBlockingIndexer.class, "[EMPI_BLOCKING]");
+    }
+
+    @PostPersist
+    public void onCreated(Object entity) {
+        if (entity instanceof Patient patient) {
+            queue(patient.getId());
+        } else if (entity instanceof PatientHospitalRegistration registration
+            && registration.getPatient() != null) {
+            queue(registration.getPatient().getId());
+        }
+    }
+
+    @PostUpdate
+    public void onUpdated(Object entity) {
+        if (entity instanceof Patient patient) {
+            queue(patient.getId());
+        }
+    }
+
+    @Override
+    protected boolean isActive(EmpiBlockingIndexer indexer) {
+        return indexer.isEnabled();
+    }
+
+    @Override
+    protected void afterCompletion(EmpiBlockingIndexer indexer, Set<UUID> patientIds, boolean committed) {
+        if (committed) indexer.reindexCommitted(patientIds);
+    }
+}
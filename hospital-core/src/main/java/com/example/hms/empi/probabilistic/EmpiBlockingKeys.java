@@ -0,0 +1,139 @@
+package com.example.hms.empi.probabilistic;
+
+import com.example.hms.enums.empi.EmpiBlockingKeyType;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Pure-function blocking-key derivation for the EMPI probabilistic matcher
+ * (roadmap row 25 blocking follow-on).
+ *
+ * <p>The same function runs on both sides of the index: when a patient is
+ * written ({@link EmpiBlockingIndexer}) and when a receptionist asks for
+ * candidates ({@link EmpiProbabilisticMatcher}). A candidate can only be
+ * scored if it shares at least one key with the query, so the families
+ * are chosen to survive the data-quality patterns the scorer already
+ * tolerates:
+ *
+ * <ul>
+ *   <li>{@code LP:} Soundex of the last name — spelling variants
+ *       ("Diallo"/"Dialo", "Ouedraogo"/"Ouédraogo").</li>
+ *   <li>{@code LG:} leading trigram of the last name — phonetic codes
+ *       that diverge on the first consonant cluster.</li>
+ *   <li>{@code FP:} Soundex of the first name — registrations where the
+ *       surname was left blank or swapped into the given-name field.</li>
+ * </ul>
+ *
+ * <p>Each key is stored alongside the DOB year. Queries probe the year
+ * ±1 to mirror {@link EmpiSimilarity#dobSimilarity}'s one-year tolerance.
+ *
+ * <p>Pure Java (no commons-codec) for the same minimal-supply-chain reason
+ * {@link EmpiSimilarity} gives.
+ */
+public final class EmpiBlockingKeys {
+
+    /** One derived key; {@code value} is already type-prefixed. */
+    public record Key(EmpiBlockingKeyType type, String value) {}
+
+    static final String PREFIX_LAST_PHONETIC = "LP:";
+    static final String PREFIX_LAST_NGRAM = "LG:";
+    static final String PREFIX_FIRST_PHONETIC = "FP:";
+    private static final int NGRAM_LENGTH = 3;
+
+    private EmpiBlockingKeys() {}
+
+    /**
+     * Keys for one (first, last) name pair. Blank names contribute no key;
+     * both blank yields an empty list (the patient is unreachable by name
+     * blocking, which is correct — the scorer would give it 0.0 anyway).
+     */
+    public static List<Key> keysFor(String firstName, String lastName) {
+        List<Key> keys = new ArrayList<>(3);
+        String last = normalize(lastName);
+        if (!last.isEmpty()) {
+            keys.add(new Key(EmpiBlockingKeyType.LAST_NAME_PHONETIC, PREFIX_LAST_PHONETIC + soundex(last)));
+            String gram = last.length() <= NGRAM_LENGTH ? last : last.substring(0, NGRAM_LENGTH);
+            keys.add(new Key(EmpiBlockingKeyType.LAST_NAME_NGRAM, PREFIX_LAST_NGRAM + gram));
+        }
+        String first = normalize(firstName);
+        if (!first.isEmpty()) {
+            keys.add(new Key(EmpiBlockingKeyType.FIRST_NAME_PHONETIC, PREFIX_FIRST_PHONETIC + soundex(first)));
+        }
+        return keys;
+    }
+
+    /** Just the key values for a query, de-duplicated and order-stable. */
+    public static Set<String> keyValuesFor(String firstName, String lastName) {
+        Set<String> values = new LinkedHashSet<>();
+        for (Key key : keysFor(firstName, lastName)) {
+            values.add(key.value());
+        }
+        return values;
+    }
+
+    /**
+     * Years to probe for a query DOB: the year itself plus its neighbours.
+     * Empty for a null DOB — the caller then falls back to the any-year probe.
+     */
+    public static List<Integer> probeYears(LocalDate dateOfBirth) {
+        if (dateOfBirth == null) return Collections.emptyList();
+        int year = dateOfBirth.getYear();
+        return List.of(year - 1, year, year + 1);
+    }
+
+    /**
+     * Lower-cases, strips diacritics and drops everything that is not an
+     * ASCII letter ("N'Diaye" → "ndiaye", "Ouédraogo" → "ouedraogo").
+     */
+    static String normalize(String raw) {
+        if (raw == null) return "";
+        String decomposed = Normalizer.normalize(raw.trim(), Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = Character.toLowerCase(decomposed.charAt(i));
+            if (c >= 'a' && c <= 'z') out.append(c);
+        }
+        return out.toString();
+    }
+
+    /**
+     * American Soundex over an already-normalised (lower-case a–z) string.
+     * 'h' and 'w' do not separate equal codes; vowels do.
+     */
+    static String soundex(String normalized) {
+        if (normalized.isEmpty()) return "";
+        char[] out = {Character.toUpperCase(normalized.charAt(0)), '0', '0', '0'};
+        char previous = soundexDigit(normalized.charAt(0));
+        int written = 1;
+        for (int i = 1; i < normalized.length() && written < 4; i++) {
+            char c = normalized.charAt(i);
+            char digit = soundexDigit(c);
+            if (digit != '0' && digit != previous) {
+                out[written++] = digit;
+            }
+            if (c != 'h' && c != 'w') {
+                previous = digit;
+            }
+        }
+        return new String(out).toUpperCase(Locale.ROOT);
+    }
+
+    private static char soundexDigit(char c) {
+        return switch (c) {
+            case 'b', 'f', 'p', 'v' -> '1';
+            case 'c', 'g', 'j', 'k', 'q', 's', 'x', 'z' -> '2';
+            case 'd', 't' -> '3';
+            case 'l' -> '4';
+            case 'm', 'n' -> '5';
+            case 'r' -> '6';
+            default -> '0';
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.hms.empi.probabilistic;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.hms.empi.probabilistic.EmpiProbabilisticMatcher.W_DOB;
+import static com.example.hms.empi.probabilistic.EmpiProbabilisticMatcher.W_NAME;
+import static com.example.hms.empi.probabilistic.EmpiProbabilisticMatcher.W_SEX;
+
+/**
+ * Pairwise scorer for one blocking-key block of the batch deduplication scan
+ * (roadmap row 25 stewardship follow-on).
+ *
+ * <p>Same Fellegi-Sunter weights as the interactive matcher, minus the
+ * national-ID term: the batch scan compares registry rows with each other,
+ * and the alias store already links rows that share a national ID. The best
+ * achievable composite is therefore 0.75, which is why the dedup threshold is
+ * configured separately from {@code min-score}.
+ *
+ * <p>Two pruning rules keep a block well under its n² worst case:
+ * <ul>
+ *   <li>members are sorted by DOB and the inner loop stops once the year gap
+ *       exceeds one — beyond that the DOB term is 0.0 and name plus sex
+ *       cannot reach any sensible threshold;</li>
+ *   <li>a pair sharing several keys is scored only in its lexicographically
+ *       smallest shared block that can score it, so the same pair is not
+ *       rescored for each of its {@code LP:}/{@code LG:}/{@code FP:} keys.</li>
+ * </ul>
+ *
+ * <p>A block with more than {@code maxBlockSize} members is split on DOB
+ * year: members born in year {@code y} are compared only within the window
+ * {@code {y, y + 1}}, and a window that still exceeds the cap is skipped.
+ * Skipped windows are decided up front for every key ({@link #skippedWindows})
+ * and passed to ownership, so a pair whose smallest shared block cannot
+ * score it falls to the next shared block instead of being lost.
+ *
+ * <p>Stateless and thread-safe: blocks are scored concurrently on the
+ * deduplication service's fork-join pool.
+ */
+public final class EmpiDuplicatePairScorer {
+
+    /** One registry row as projected by {@code PatientRepository.findEmpiMatchTuplesByIds}. */
+    public record Row(UUID id, String firstName, String lastName, int packedDob, String sex, Set<String> keys) {
+
+        /** Build from an {@code (id, firstName, lastName, dateOfBirth, gender)} tuple. */
+        public static Row of(Object[] tuple) {
+            String first = (String) tuple[1];
+            String last = (String) tuple[2];
+            return new Row((UUID) tuple[0], first, last,
+                EmpiSimilarity.packDob((LocalDate) tuple[3]), (String) tuple[4],
+                EmpiBlockingKeys.keyValuesFor(first, last));
+        }
+    }
+
+    /** A scored pair, canonically ordered ({@code patientAId < patientBId}). */
+    public record Pair(UUID patientAId, UUID patientBId, double score,
+                       double nameScore, double dobScore, boolean sexMatched) {}
+
+    /** Outcome of one block: the pairs at or above threshold plus work counters. */
+    public record BlockResult(List<Pair> pairs, long comparisons, boolean oversized) {
+        static final BlockResult EMPTY = new BlockResult(List.of(), 0, false);
+    }
+
+    private static final Comparator<Row> BY_DOB = Comparator.comparingInt(Row::packedDob);
+
+    private final double minScore;
+    private final int maxBlockSize;
+
+    public EmpiDuplicatePairScorer(double minScore, int maxBlockSize) {
+        this.minScore = minScore;
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    /** Identifier of the DOB-year window {@code {year, year + 1}} of a block. */
+    public static String window(String blockKey, int year) {
+        return blockKey + '#' + year;
+    }
+
+    /**
+     * Windows the scan cannot score: for every key with more than
+     * {@code maxBlockSize} members, each year whose window (that year plus
+     * the next) still exceeds the cap.
+     *
+     * @param membersByYear per key value, block members per DOB year
+     */
+    public Set<String> skippedWindows(Map<String, Map<Integer, Integer>> membersByYear) {
+        Set<String> skipped = new HashSet<>();
+        for (Map.Entry<String, Map<Integer, Integer>> block : membersByYear.entrySet()) {
+            Map<Integer, Integer> years = block.getValue();
+            int size = 0;
+            for (int count : years.values()) size += count;
+            if (size <= maxBlockSize) continue;
+            for (Map.Entry<Integer, Integer> year : years.entrySet()) {
+                int windowSize = year.getValue() + years.getOrDefault(year.getKey() + 1, 0);
+                if (windowSize > maxBlockSize) skipped.add(window(block.getKey(), year.getKey()));
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Score every eligible pair in a block. A block larger than
+     * {@code maxBlockSize} is reported as oversized and scored one DOB-year
+     * window at a time, leaving out the windows in {@code skipped}; the
+     * pairs those hold fall to the members' other shared keys.
+     */
+    public BlockResult scoreBlock(String blockKey, List<Row> members, Set<String> skipped) {
+        if (members.size() < 2) return BlockResult.EMPTY;
+        boolean oversized = members.size() > maxBlockSize;
+
+        Row[] rows = members.stream().filter(r -> r.packedDob() != 0).toArray(Row[]::new);
+        Arrays.sort(rows, BY_DOB);
+        List<Pair> pairs = new ArrayList<>();
+        long comparisons = 0;
+        for (int i = 0; i < rows.length; i++) {
+            Row a = rows[i];
+            int yearA = a.packedDob() / 10_000;
+            // Sorted by DOB, so every later partner of a falls in a's window.
+            if (oversized && skipped.contains(window(blockKey, yearA))) continue;
+            for (int j = i + 1; j < rows.length; j++) {
+                Row b = rows[j];
+                if (b.packedDob() / 10_000 - yearA > 1) break;
+                if (a.id().equals(b.id()) || !ownsPair(blockKey, a, b, skipped)) continue;
+                comparisons++;
+                Pair pair = score(a, b);
+                if (pair != null) pairs.add(pair);
+            }
+        }
+        return new BlockResult(pairs, comparisons, oversized);
+    }
+
+    /** Scores one pair; {@code null} when it falls below the threshold. */
+    Pair score(Row a, Row b) {
+        double dob = EmpiSimilarity.dobSimilarity(a.packedDob(), b.packedDob());
+        double sex = EmpiSimilarity.sexSimilarity(a.sex(), b.sex());
+        double nameFloor = (minScore - W_DOB * dob - W_SEX * sex) / W_NAME;
+        if (nameFloor > 1.0) return null;
+        double name = EmpiSimilarity.boundedCombinedNameSimilarity(
+            a.firstName(), a.lastName(), b.firstName(), b.lastName(), Math.max(0.0, nameFloor));
+        if (name < nameFloor) return null;
+        double score = Math.round((W_NAME * name + W_DOB * dob + W_SEX * sex) * 1000.0) / 1000.0;
+        if (score < minScore) return null;
+        boolean aFirst = a.id().compareTo(b.id()) < 0;
+        return new Pair(aFirst ? a.id() : b.id(), aFirst ? b.id() : a.id(),
+            score, name, dob, sex > 0.0);
+    }
+
+    /**
+     * True when no key both rows share sorts before {@code blockKey}, not
+     * counting keys whose window for this pair is in {@code skipped}.
+     */
+    static boolean ownsPair(String blockKey, Row a, Row b, Set<String> skipped) {
+        int year = Math.min(a.packedDob(), b.packedDob()) / 10_000;
+        for (String key : a.keys()) {
+            if (key.compareTo(blockKey) < 0 && b.keys().contains(key)
+                && !skipped.contains(window(key, year))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,433 @@
+package com.example.hms.empi.probabilistic;
+
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientHospitalRegistration;
+import com.example.hms.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-hospital, memory-resident match index for the probabilistic EMPI
+ * matcher (roadmap row 25 performance follow-on).
+ *
+ * <p>Each hospital's active registrations are held as a columnar slice —
+ * parallel arrays of patient id, trimmed first/last name, packed DOB
+ * ({@code yyyymmdd} int) and upper-cased sex — plus in-memory postings
+ * from {@link EmpiBlockingKeys} key values to row numbers. A duplicate
+ * check then never touches the database: postings give the block, the
+ * DOB-year window is an int compare, and scoring goes through the
+ * allocation-free {@link EmpiSimilarity} bounded path with a top-K heap,
+ * so only the K survivors are ever turned into DTOs.
+ *
+ * <p>Pruning: the cheap fields (DOB, sex, national-ID) are scored first;
+ * whatever name similarity would still be needed to reach the current
+ * floor (max of {@code minScore} and the heap's K-th score) becomes the
+ * bound for the banded Levenshtein, which exits as soon as the pair
+ * cannot qualify.
+ *
+ * <p>Freshness: slices load lazily on first use, are patched in place by
+ * {@link EmpiBlockingIndexer} after every committed patient write on this
+ * node, and are rebuilt after {@code in-memory-index-max-age-minutes} to
+ * pick up writes committed on other nodes.
+ *
+ * <p>Flag-off ({@code app.empi.probabilistic.in-memory-index=false}, the
+ * default): never loads anything; the matcher uses the
+ * {@code empi.blocking_keys} path.
+ */
+@Component
+@Slf4j
+public class EmpiMatchIndex {
+
+    private static final double SCORE_ROUNDING_SLACK = 0.0005;
+
+    private final EmpiProbabilisticProperties properties;
+    private final PatientRepository patientRepository;
+    private final Map<UUID, HospitalSlice> slices = new ConcurrentHashMap<>();
+    private final Map<UUID, FutureTask<HospitalSlice>> loading = new ConcurrentHashMap<>();
+
+    public EmpiMatchIndex(EmpiProbabilisticProperties properties, PatientRepository patientRepository) {
+        this.properties = properties;
+        this.patientRepository = patientRepository;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && properties.isInMemoryIndex();
+    }
+
+    /**
+     * Ranked candidates for one scoped query. Same contract as the
+     * database path in {@link EmpiProbabilisticMatcher}: scores rounded to
+     * three decimals, filtered at {@code minScore}, sorted descending,
+     * truncated to {@code maxCandidates}.
+     */
+    public List<EmpiCandidateMatchDTO> findCandidates(
+        UUID hospitalId, EmpiCandidateQueryDTO query, UUID nationalIdMatch
+    ) {
+        int max = Math.max(0, properties.getMaxCandidates());
+        if (hospitalId == null || query == null || max == 0) return Collections.emptyList();
+        HospitalSlice slice = slice(hospitalId);
+        slice.lock.readLock().lock();
+        try {
+            return slice.search(query, nationalIdMatch, properties.getMinScore(), max);
+        } finally {
+            slice.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Patch every loaded slice after a committed write: update the row in
+     * hospitals where the patient is actively registered, tombstone it
+     * everywhere else. Unloaded hospitals pick the change up on first load.
+     */
+    public void upsert(Patient patient) {
+        if (patient == null || patient.getId() == null || slices.isEmpty()) return;
+        Set<UUID> activeHospitals = new HashSet<>();
+        if (patient.getHospitalRegistrations() != null) {
+            for (PatientHospitalRegistration reg : patient.getHospitalRegistrations()) {
+                if (reg != null && reg.isActive() && reg.getHospital() != null && reg.getHospital().getId() != null) {
+                    activeHospitals.add(reg.getHospital().getId());
+                }
+            }
+        }
+        slices.forEach((hospitalId, slice) -> {
+            slice.lock.writeLock().lock();
+            try {
+                if (activeHospitals.contains(hospitalId)) {
+                    slice.put(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                        patient.getDateOfBirth(), patient.getGender());
+                } else {
+                    slice.remove(patient.getId());
+                }
+            } finally {
+                slice.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(UUID patientId) {
+        if (patientId == null) return;
+        slices.values().forEach(slice -> {
+            slice.lock.writeLock().lock();
+            try {
+                slice.remove(patientId);
+            } finally {
+                slice.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void evict(UUID hospitalId) {
+        if (hospitalId != null) slices.remove(hospitalId);
+    }
+
+    /** Rows currently resident for a hospital (0 when not loaded) — for ops/metrics. */
+    public int residentSize(UUID hospitalId) {
+        HospitalSlice slice = slices.get(hospitalId);
+        return slice == null ? 0 : slice.liveCount;
+    }
+
+    private HospitalSlice slice(UUID hospitalId) {
+        long maxAgeMillis = Math.max(1, properties.getInMemoryIndexMaxAgeMinutes()) * 60_000L;
+        HospitalSlice slice = slices.get(hospitalId);
+        if (slice != null && System.currentTimeMillis() - slice.loadedAt > maxAgeMillis) {
+            slices.remove(hospitalId, slice);
+        }
+        HospitalSlice resident = slices.get(hospitalId);
+        if (resident != null) return resident;
+        // Load outside the map: a computeIfAbsent would hold the bin lock
+        // (and stall other hospitals hashed to it) for the whole query.
+        // One FutureTask per hospital keeps concurrent first searches to a
+        // single load.
+        FutureTask<HospitalSlice> task = new FutureTask<>(() -> load(hospitalId));
+        FutureTask<HospitalSlice> inFlight = loading.putIfAbsent(hospitalId, task);
+        if (inFlight != null) return await(inFlight);
+        try {
+            task.run();
+            HospitalSlice loaded = await(task);
+            HospitalSlice raced = slices.putIfAbsent(hospitalId, loaded);
+            return raced != null ? raced : loaded;
+        } finally {
+            loading.remove(hospitalId, task);
+        }
+    }
+
+    private static HospitalSlice await(FutureTask<HospitalSlice> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading EMPI match slice", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Failed to load EMPI match slice", ex.getCause());
+        }
+    }
+
+    private HospitalSlice load(UUID hospitalId) {
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = patientRepository.findEmpiMatchTuplesByHospital(hospitalId);
+        HospitalSlice slice = new HospitalSlice(Math.max(16, rows.size()));
+        for (Object[] row : rows) {
+            slice.put((UUID) row[0], (String) row[1], (String) row[2], (LocalDate) row[3], (String) row[4]);
+        }
+        log.info("[EMPI_INDEX] Loaded {} patients for hospital {} in {} ms",
+            slice.liveCount, hospitalId, System.currentTimeMillis() - started);
+        return slice;
+    }
+
+    static HospitalSlice newSlice(int capacity) {
+        return new HospitalSlice(capacity);
+    }
+
+    /**
+     * Columnar rows + key postings for one hospital. All mutation happens
+     * under the owning index's write lock; {@link #search} under the read lock.
+     */
+    static final class HospitalSlice {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final long loadedAt = System.currentTimeMillis();
+
+        private UUID[] ids;
+        private String[] firstNames;
+        private String[] lastNames;
+        private int[] dobs;
+        private String[] sexes;
+        private boolean[] live;
+        private int size;
+        private int liveCount;
+        private final Map<UUID, Integer> rowById;
+        private final Map<String, IntList> postings = new HashMap<>();
+
+        HospitalSlice(int capacity) {
+            ids = new UUID[capacity];
+            firstNames = new String[capacity];
+            lastNames = new String[capacity];
+            dobs = new int[capacity];
+            sexes = new String[capacity];
+            live = new boolean[capacity];
+            rowById = new HashMap<>(capacity * 4 / 3 + 1);
+        }
+
+        void put(UUID id, String first, String last, LocalDate dob, String sex) {
+            if (id == null) return;
+            Integer existing = rowById.get(id);
+            int row;
+            if (existing != null) {
+                row = existing;
+                if (!live[row]) liveCount++;
+            } else {
+                ensureCapacity(size + 1);
+                row = size++;
+                ids[row] = id;
+                rowById.put(id, row);
+                liveCount++;
+            }
+            firstNames[row] = trimToNull(first);
+            lastNames[row] = trimToNull(last);
+            dobs[row] = EmpiSimilarity.packDob(dob);
+            sexes[row] = normalizeSex(sex);
+            live[row] = true;
+            // Postings are append-only: a renamed patient keeps its stale
+            // postings, which only cost one extra (correctly scored) visit.
+            for (String key : EmpiBlockingKeys.keyValuesFor(first, last)) {
+                IntList list = postings.computeIfAbsent(key, k -> new IntList());
+                if (list.size == 0 || list.values[list.size - 1] != row) list.add(row);
+            }
+        }
+
+        void remove(UUID id) {
+            Integer row = rowById.get(id);
+            if (row != null && live[row]) {
+                live[row] = false;
+                liveCount--;
+            }
+        }
+
+        List<EmpiCandidateMatchDTO> search(
+            EmpiCandidateQueryDTO query, UUID nationalIdMatch, double minScore, int max
+        ) {
+            String qFirst = trimToNull(query.firstName());
+            String qLast = trimToNull(query.lastName());
+            int qDob = EmpiSimilarity.packDob(query.dateOfBirth());
+            int qYear = qDob / 10_000;
+            String qSex = normalizeSex(query.sex());
+
+            VisitMarks marks = VisitMarks.forThread(size);
+            PriorityQueue<ScoredRow> top = new PriorityQueue<>(max + 1);
+
+            for (String key : EmpiBlockingKeys.keyValuesFor(qFirst, qLast)) {
+                IntList list = postings.get(key);
+                if (list == null) continue;
+                for (int i = 0; i < list.size; i++) {
+                    int row = list.values[i];
+                    if (!live[row] || !marks.visit(row)) continue;
+                    // Same block as the database path: a patient without a DOB
+                    // has no empi.blocking_keys rows, so it is never a name/DOB
+                    // candidate there, with or without a DOB on the query.
+                    if (dobs[row] == 0) continue;
+                    if (qDob != 0) {
+                        int gap = dobs[row] / 10_000 - qYear;
+                        if (gap > 1 || gap < -1) continue;
+                    }
+                    scoreRow(row, qFirst, qLast, qDob, qSex, nationalIdMatch, minScore, max, top);
+                }
+            }
+            // Block 2 (national-ID alias) — same as the database path: the
+            // alias hit is always scored, whatever its name/DOB block.
+            if (nationalIdMatch != null) {
+                Integer row = rowById.get(nationalIdMatch);
+                if (row != null && live[row] && marks.visit(row)) {
+                    scoreRow(row, qFirst, qLast, qDob, qSex, nationalIdMatch, minScore, max, top);
+                }
+            }
+
+            List<ScoredRow> ranked = new ArrayList<>(top);
+            ranked.sort(null);
+            Collections.reverse(ranked);
+            List<EmpiCandidateMatchDTO> result = new ArrayList<>(ranked.size());
+            for (ScoredRow scored : ranked) {
+                int row = scored.row();
+                result.add(new EmpiCandidateMatchDTO(
+                    ids[row],
+                    displayName(row),
+                    scored.score(),
+                    scored.name() > 0.0,
+                    scored.dob() > 0.0,
+                    scored.sex() > 0.0,
+                    scored.nationalId() > 0.0));
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        private void scoreRow(
+            int row, String qFirst, String qLast, int qDob, String qSex, UUID nationalIdMatch,
+            double minScore, int max, PriorityQueue<ScoredRow> top
+        ) {
+            double dob = EmpiSimilarity.dobSimilarity(qDob, dobs[row]);
+            double sex = (qSex != null && qSex.equals(sexes[row])) ? 1.0 : 0.0;
+            double nid = ids[row].equals(nationalIdMatch) ? 1.0 : 0.0;
+            double partial = EmpiProbabilisticMatcher.W_DOB * dob
+                + EmpiProbabilisticMatcher.W_SEX * sex
+                + EmpiProbabilisticMatcher.W_NATIONAL_ID * nid;
+
+            // Scores are compared after rounding to three decimals, so the
+            // floor carries half a unit of slack to keep borderline rows.
+            double floor = minScore - SCORE_ROUNDING_SLACK;
+            if (top.size() == max) floor = Math.max(floor, top.peek().score() - SCORE_ROUNDING_SLACK);
+            double neededName = (floor - partial) / EmpiProbabilisticMatcher.W_NAME;
+            if (neededName > 1.0) return;
+
+            double name = EmpiSimilarity.boundedCombinedNameSimilarity(
+                qFirst, qLast, firstNames[row], lastNames[row], neededName);
+            if (name < 0.0 || name < neededName) return;
+
+            double composite = roundToThree(partial + EmpiProbabilisticMatcher.W_NAME * name);
+            if (composite < minScore) return;
+            if (top.size() == max) {
+                if (composite <= top.peek().score()) return;
+                top.poll();
+            }
+            top.add(new ScoredRow(row, composite, name, dob, sex, nid));
+        }
+
+        private String displayName(int row) {
+            String f = firstNames[row];
+            String l = lastNames[row];
+            if (f == null && l == null) return ids[row].toString();
+            if (f == null) return l;
+            if (l == null) return f;
+            return f + " " + l;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= ids.length) return;
+            int capacity = Math.max(needed, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+            dobs = Arrays.copyOf(dobs, capacity);
+            sexes = Arrays.copyOf(sexes, capacity);
+            live = Arrays.copyOf(live, capacity);
+        }
+    }
+
+    /** Heap entry; natural order is ascending score so the heap head is the K-th best. */
+    private record ScoredRow(int row, double score, double name, double dob, double sex, double nationalId)
+        implements Comparable<ScoredRow> {
+        @Override
+        public int compareTo(ScoredRow other) {
+            return Double.compare(score, other.score);
+        }
+    }
+
+    /** Growable {@code int[]} posting list. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Per-thread "already scored in this search" marks. A generation
+     * stamp per row avoids clearing (or allocating) a bitmap per query;
+     * the array is only wiped when the stamp wraps.
+     */
+    private static final class VisitMarks {
+        private static final ThreadLocal<VisitMarks> CURRENT = ThreadLocal.withInitial(VisitMarks::new);
+
+        private int[] stamps = new int[1024];
+        private int generation;
+
+        static VisitMarks forThread(int rows) {
+            VisitMarks marks = CURRENT.get();
+            if (marks.stamps.length < rows) marks.stamps = new int[Math.max(rows, marks.stamps.length * 2)];
+            if (++marks.generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks.stamps, 0);
+                marks.generation = 1;
+            }
+            return marks;
+        }
+
+        boolean visit(int row) {
+            if (stamps[row] == generation) return false;
+            stamps[row] = generation;
+            return true;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String normalizeSex(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed == null ? null : trimmed.toUpperCase(Locale.ROOT).intern();
+    }
+
+    private static double roundToThree(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -3,7 +3,14 @@ package com.example.hms.empi.probabilistic;
 import com.example.hms.enums.empi.EmpiAliasType;
 import com.example.hms.model.Patient;
 import com.example.hms.repository.PatientRepository;
+import com.example.hms.repository.empi.EmpiBlockingKeyRepository;
 import com.example.hms.service.empi.EmpiService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -11,6 +18,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
 
@@ -34,12 +42,16 @@ import java.util.UUID;
  * remainder are sorted desc and truncated to
  * {@link EmpiProbabilisticProperties#getMaxCandidates()}.
  *
- * <p>Candidate generation today is a coarse name-prefix scan via
- * {@link PatientRepository#findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase}
- * + an exact national-ID lookup via the EMPI alias index. A blocking
- * pass keyed on (last-name n-gram + DOB-year) is the named-but-deferred
- * follow-on once the labelled audit set is in place to tune blocking
- * recall.
+ * <p>Candidate generation is a bounded index lookup on
+ * {@code empi.blocking_keys} (last-name Soundex / leading trigram /
+ * first-name Soundex, each paired with DOB year ±1 — see
+ * {@link EmpiBlockingKeys}), scoped to the caller's hospital in SQL, plus
+ * an exact national-ID lookup via the EMPI alias index. The earlier
+ * unanchored {@code %name%} scan loaded every tenant's matching patients
+ * and filtered by hospital in Java; one reception-desk check could pull
+ * thousands of entities. Block size and a national-ID-anchored recall
+ * proxy are published on {@code hms.empi.blocking.*} so the key families
+ * can be tuned against the labelled audit set once it lands.
  *
  * <p>National-ID alias is resolved ONCE per inbound request and passed
  * into {@link #score} — without this single-resolve pattern, a search
@@ -51,31 +63,50 @@ import java.util.UUID;
  * row-25 IT pins.
  */
 @Service
+@Slf4j
 public class EmpiProbabilisticMatcher {
 
     // Weights are tuned starting points; the labelled audit set is the
     // named follow-on input that re-fits these via ROC analysis. They
     // sum to 1.0 so the composite score stays in [0, 1].
-    private static final double W_NAME = 0.40;
-    private static final double W_DOB = 0.25;
-    private static final double W_SEX = 0.10;
-    private static final double W_NATIONAL_ID = 0.25;
+    static final double W_NAME = 0.40;
+    static final double W_DOB = 0.25;
+    static final double W_SEX = 0.10;
+    static final double W_NATIONAL_ID = 0.25;
+
+    // ── Metric names ─────────────────────────────────────────────────────────
+    static final String METRIC_BLOCK_SIZE = "hms.empi.blocking.block.size";
+    static final String METRIC_BLOCK_TRUNCATED = "hms.empi.blocking.truncated";
+    static final String METRIC_BLOCK_RECALL = "hms.empi.blocking.recall";
+    static final String TAG_SCOPE = "scope";
+    static final String TAG_OUTCOME = "outcome";
 
     private final EmpiProbabilisticProperties properties;
     private final PatientRepository patientRepository;
+    private final EmpiBlockingKeyRepository blockingKeyRepository;
     private final EmpiService empiService;
     private final com.example.hms.utility.RoleValidator roleValidator;
+    private final EmpiMatchIndex matchIndex;
+
+    /** Optional — null in unit tests that don't care about metrics. */
+    private final MeterRegistry meterRegistry;
 
     public EmpiProbabilisticMatcher(
         EmpiProbabilisticProperties properties,
         PatientRepository patientRepository,
+        EmpiBlockingKeyRepository blockingKeyRepository,
         EmpiService empiService,
-        com.example.hms.utility.RoleValidator roleValidator
+        com.example.hms.utility.RoleValidator roleValidator,
+        EmpiMatchIndex matchIndex,
+        MeterRegistry meterRegistry
     ) {
         this.properties = properties;
         this.patientRepository = patientRepository;
+        this.blockingKeyRepository = blockingKeyRepository;
         this.empiService = empiService;
         this.roleValidator = roleValidator;
+        this.matchIndex = matchIndex;
+        this.meterRegistry = meterRegistry;
     }
 
     public boolean isEnabled() {
@@ -86,13 +117,20 @@ public class EmpiProbabilisticMatcher {
         if (!properties.isEnabled() || query == null) return Collections.emptyList();
 
         UUID nationalIdMatch = resolveNationalIdAliasOnce(query);
-        List<Patient> candidates = collectCandidates(query, nationalIdMatch);
-
         // ── Tenant isolation (empi-identity skill: "scope the matcher to a
         // single hospital's PatientHospitalRegistration set"). Null scope =
         // super-admin unscoped; scoped callers never see cross-hospital
-        // demographics in the candidate list. ──
+        // demographics in the candidate list. The blocking lookup is
+        // already hospital-scoped in SQL; the in-memory filter below stays
+        // as defence in depth (inactive registrations, alias-block hits). ──
         UUID activeHospitalId = roleValidator.requireActiveHospitalId();
+        if (activeHospitalId != null && matchIndex != null && matchIndex.isEnabled()) {
+            // Memory-resident path: block, score and rank without a DB
+            // round trip (the alias lookup above is the only query).
+            return matchIndex.findCandidates(activeHospitalId, query, nationalIdMatch);
+        }
+        List<Patient> candidates = collectCandidates(query, nationalIdMatch, activeHospitalId);
+
         if (activeHospitalId != null) {
             candidates = candidates.stream()
                 .filter(candidate -> candidate.isRegisteredInHospital(activeHospitalId))
@@ -116,28 +154,51 @@ public class EmpiProbabilisticMatcher {
             .orElse(null);
     }
 
-    private List<Patient> collectCandidates(EmpiCandidateQueryDTO query, UUID nationalIdMatch) {
+    private List<Patient> collectCandidates(
+        EmpiCandidateQueryDTO query, UUID nationalIdMatch, UUID activeHospitalId
+    ) {
         Set<UUID> seen = new HashSet<>();
         List<Patient> candidates = new ArrayList<>();
-        addNamePrefixBlock(query, seen, candidates);
+        addBlockingIndexBlock(query, activeHospitalId, seen, candidates);
+        if (nationalIdMatch != null) {
+            // Recall proxy: the alias index is ground truth for "same
+            // person", so a national-ID hit the name/DOB block missed is a
+            // blocking false negative.
+            incrementCounter(METRIC_BLOCK_RECALL, TAG_OUTCOME, seen.contains(nationalIdMatch) ? "hit" : "miss");
+        }
         addNationalIdAliasBlock(nationalIdMatch, seen, candidates);
         return candidates;
     }
 
     /**
-     * Block 1: name-prefix candidates. Coarse — the audit-set follow-on
-     * will tighten to last-name n-gram + DOB-year blocking once ROC
-     * analysis is available.
+     * Block 1: blocking-index candidates. One bounded query against
+     * {@code empi.blocking_keys} for the query's keys × DOB year ±1 (any
+     * year when the draft has no DOB), then a single
+     * {@code findAllById} for the ids. Never scans {@code clinical.patients}.
      */
-    private void addNamePrefixBlock(
-        EmpiCandidateQueryDTO query, Set<UUID> seen, List<Patient> candidates
+    private void addBlockingIndexBlock(
+        EmpiCandidateQueryDTO query, UUID activeHospitalId, Set<UUID> seen, List<Patient> candidates
     ) {
-        if (!isPresent(query.firstName()) && !isPresent(query.lastName())) return;
-        String first = isPresent(query.firstName()) ? query.firstName().trim() : "";
-        String last = isPresent(query.lastName()) ? query.lastName().trim() : "";
-        List<Patient> byName = patientRepository
-            .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(first, last);
-        for (Patient p : byName) {
+        Set<String> keys = EmpiBlockingKeys.keyValuesFor(query.firstName(), query.lastName());
+        if (keys.isEmpty()) return;
+        List<Integer> years = EmpiBlockingKeys.probeYears(query.dateOfBirth());
+        int cap = Math.max(1, properties.getMaxBlockSize());
+        Pageable limit = PageRequest.of(0, cap);
+
+        List<UUID> ids;
+        if (activeHospitalId != null) {
+            ids = years.isEmpty()
+                ? blockingKeyRepository.findBlockedPatientIdsAnyYear(activeHospitalId, keys, limit)
+                : blockingKeyRepository.findBlockedPatientIds(activeHospitalId, keys, years, limit);
+        } else {
+            ids = years.isEmpty()
+                ? blockingKeyRepository.findBlockedPatientIdsUnscopedAnyYear(keys, limit)
+                : blockingKeyRepository.findBlockedPatientIdsUnscoped(keys, years, limit);
+        }
+        recordBlockSize(ids.size(), ids.size() >= cap, activeHospitalId != null);
+        if (ids.isEmpty()) return;
+
+        for (Patient p : patientRepository.findAllById(ids)) {
             addUnique(p, seen, candidates);
         }
     }
@@ -163,23 +224,35 @@ public class EmpiProbabilisticMatcher {
         }
     }
 
+    /**
+     * Threshold, then keep the best {@code maxCandidates} in a min-heap.
+     * Only survivors are turned into DTOs; the full candidate list is
+     * never sorted.
+     */
     private List<EmpiCandidateMatchDTO> rankCandidates(
         List<Patient> candidates, EmpiCandidateQueryDTO query, UUID nationalIdMatch
     ) {
         double minScore = properties.getMinScore();
-        List<EmpiCandidateMatchDTO> scored = new ArrayList<>(candidates.size());
+        int max = Math.max(0, properties.getMaxCandidates());
+        if (max == 0) return Collections.emptyList();
+        PriorityQueue<Scored> top = new PriorityQueue<>(max + 1, Comparator.comparingDouble(Scored::score));
         for (Patient p : candidates) {
-            EmpiCandidateMatchDTO dto = score(p, query, nationalIdMatch);
-            if (dto.score() >= minScore) {
-                scored.add(dto);
+            FieldScores fields = fieldScores(p, query, nationalIdMatch);
+            double composite = fields.composite();
+            if (composite < minScore) continue;
+            if (top.size() == max) {
+                if (composite <= top.peek().score()) continue;
+                top.poll();
             }
+            top.add(new Scored(p, fields, composite));
         }
-        scored.sort(Comparator.comparingDouble(EmpiCandidateMatchDTO::score).reversed());
-        int max = Math.max(0, properties.getMaxCandidates());
-        if (scored.size() > max) {
-            return Collections.unmodifiableList(scored.subList(0, max));
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Scored::score).reversed());
+        List<EmpiCandidateMatchDTO> result = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            result.add(toDto(scored.patient(), scored.fields()));
         }
-        return Collections.unmodifiableList(scored);
+        return Collections.unmodifiableList(result);
     }
 
     /**
@@ -190,6 +263,10 @@ public class EmpiProbabilisticMatcher {
      * the weighted-sum composite rounded to three decimals.
      */
     EmpiCandidateMatchDTO score(Patient candidate, EmpiCandidateQueryDTO query, UUID nationalIdMatch) {
+        return toDto(candidate, fieldScores(candidate, query, nationalIdMatch));
+    }
+
+    private FieldScores fieldScores(Patient candidate, EmpiCandidateQueryDTO query, UUID nationalIdMatch) {
         double name = EmpiSimilarity.combinedNameSimilarity(
             query.firstName(), query.lastName(),
             candidate.getFirstName(), candidate.getLastName());
@@ -202,21 +279,30 @@ public class EmpiProbabilisticMatcher {
         double nid = (nationalIdMatch != null
             && candidate.getId() != null
             && candidate.getId().equals(nationalIdMatch)) ? 1.0 : 0.0;
+        return new FieldScores(name, dob, sex, nid);
+    }
 
-        double composite =
-            W_NAME * name + W_DOB * dob + W_SEX * sex + W_NATIONAL_ID * nid;
-
+    private static EmpiCandidateMatchDTO toDto(Patient candidate, FieldScores fields) {
         return new EmpiCandidateMatchDTO(
             candidate.getId(),
             combineDisplayName(candidate),
-            roundToThree(composite),
-            name > 0.0,
-            dob > 0.0,
-            sex > 0.0,
-            nid > 0.0
+            fields.composite(),
+            fields.name() > 0.0,
+            fields.dob() > 0.0,
+            fields.sex() > 0.0,
+            fields.nationalId() > 0.0
         );
     }
 
+    /** Per-field similarities; {@link #composite()} is the rounded weighted sum. */
+    private record FieldScores(double name, double dob, double sex, double nationalId) {
+        double composite() {
+            return roundToThree(W_NAME * name + W_DOB * dob + W_SEX * sex + W_NATIONAL_ID * nationalId);
+        }
+    }
+
+    private record Scored(Patient patient, FieldScores fields, double score) {}
+
     private static String combineDisplayName(Patient p) {
         String f = p.getFirstName() == null ? "" : p.getFirstName().trim();
         String l = p.getLastName() == null ? "" : p.getLastName().trim();
@@ -230,6 +316,34 @@ public class EmpiProbabilisticMatcher {
         return s != null && !s.trim().isEmpty();
     }
 
+    private void recordBlockSize(int size, boolean truncated, boolean scoped) {
+        if (meterRegistry == null) return; // unit-test path
+        String scope = scoped ? "hospital" : "unscoped";
+        try {
+            DistributionSummary.builder(METRIC_BLOCK_SIZE)
+                .tag(TAG_SCOPE, scope)
+                .register(meterRegistry)
+                .record(size);
+        } catch (Exception ex) {
+            // Metrics must never fail the request.
+            log.debug("Failed to record metric {}: {}", METRIC_BLOCK_SIZE, ex.getMessage());
+        }
+        if (truncated) incrementCounter(METRIC_BLOCK_TRUNCATED, TAG_SCOPE, scope);
+    }
+
+    private void incrementCounter(String name, String tag, String value) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(name)
+                .tag(tag, value)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            // Metrics must never fail the request.
+            log.debug("Failed to record metric {}: {}", name, ex.getMessage());
+        }
+    }
+
     private static double roundToThree(double value) {
         return Math.round(value * 1000.0) / 1000.0;
     }
@@ -41,6 +41,60 @@ public class EmpiProbabilisticProperties {
     /** Maximum candidates returned per query. */
     private int maxCandidates = 10;
 
+    /**
+     * Upper bound on patient ids pulled from {@code empi.blocking_keys} for
+     * one query. A block that hits the cap is counted on
+     * {@code hms.empi.blocking.truncated} — a signal the key families need
+     * tightening for that population, not a silent recall loss.
+     */
+    private int maxBlockSize = 500;
+
+    /**
+     * Populate {@code empi.blocking_keys} at startup when the table is empty
+     * and the matcher is enabled. Turn off for very large registries where
+     * the operator prefers an offline backfill.
+     */
+    private boolean backfillOnStartup = true;
+
+    /**
+     * Serve scoped queries from {@link EmpiMatchIndex} (per-hospital,
+     * memory-resident columnar slices) instead of the
+     * {@code empi.blocking_keys} round trip. Off by default: a slice costs
+     * roughly 150 bytes per registered patient of heap.
+     */
+    private boolean inMemoryIndex = false;
+
+    /**
+     * Rebuild a resident slice after this many minutes so writes committed
+     * on other nodes become visible. Local writes are patched in place.
+     */
+    private long inMemoryIndexMaxAgeMinutes = 15;
+
+    /**
+     * Threshold for the batch deduplication scan. Lower ceiling than
+     * {@link #minScore}: registry-to-registry comparison has no national-ID
+     * term, so the best achievable composite is 0.75. 0.65 means an exact
+     * DOB and sex plus a name similarity of at least 0.75.
+     */
+    private double dedupMinScore = 0.65;
+
+    /**
+     * Blocks with more members than this are split on DOB year by the batch
+     * scan and counted on {@code hms.empi.dedup.blocks.oversized}; a year
+     * window still above the cap is skipped, and its pairs fall to the
+     * members' other key families.
+     */
+    private int dedupMaxBlockSize = 2000;
+
+    /** Distinct blocking keys scored and committed per checkpoint. */
+    private int dedupKeysPerCheckpoint = 200;
+
+    /** Fork-join parallelism for pair scoring; {@code 0} = available processors. */
+    private int dedupParallelism = 0;
+
+    /** A RUNNING job whose heartbeat is older than this is resumed by another node. */
+    private long dedupStaleAfterMinutes = 10;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -64,4 +118,76 @@ public class EmpiProbabilisticProperties {
     public void setMaxCandidates(int maxCandidates) {
         this.maxCandidates = maxCandidates;
     }
+
+    public int getMaxBlockSize() {
+        return maxBlockSize;
+    }
+
+    public void setMaxBlockSize(int maxBlockSize) {
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    public boolean isBackfillOnStartup() {
+        return backfillOnStartup;
+    }
+
+    public void setBackfillOnStartup(boolean backfillOnStartup) {
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    public boolean isInMemoryIndex() {
+        return inMemoryIndex;
+    }
+
+    public void setInMemoryIndex(boolean inMemoryIndex) {
+        this.inMemoryIndex = inMemoryIndex;
+    }
+
+    public long getInMemoryIndexMaxAgeMinutes() {
+        return inMemoryIndexMaxAgeMinutes;
+    }
+
+    public void setInMemoryIndexMaxAgeMinutes(long inMemoryIndexMaxAgeMinutes) {
+        this.inMemoryIndexMaxAgeMinutes = inMemoryIndexMaxAgeMinutes;
+    }
+
+    public double getDedupMinScore() {
+        return dedupMinScore;
+    }
+
+    public void setDedupMinScore(double dedupMinScore) {
+        this.dedupMinScore = dedupMinScore;
+    }
+
+    public int getDedupMaxBlockSize() {
+        return dedupMaxBlockSize;
+    }
+
+    public void setDedupMaxBlockSize(int dedupMaxBlockSize) {
+        this.dedupMaxBlockSize = dedupMaxBlockSize;
+    }
+
+    public int getDedupKeysPerCheckpoint() {
+        return dedupKeysPerCheckpoint;
+    }
+
+    public void setDedupKeysPerCheckpoint(int dedupKeysPerCheckpoint) {
+        this.dedupKeysPerCheckpoint = dedupKeysPerCheckpoint;
+    }
+
+    public int getDedupParallelism() {
+        return dedupParallelism;
+    }
+
+    public void setDedupParallelism(int dedupParallelism) {
+        this.dedupParallelism = dedupParallelism;
+    }
+
+    public long getDedupStaleAfterMinutes() {
+        return dedupStaleAfterMinutes;
+    }
+
+    public void setDedupStaleAfterMinutes(long dedupStaleAfterMinutes) {
+        this.dedupStaleAfterMinutes = dedupStaleAfterMinutes;
+    }
 }
@@ -1,7 +1,6 @@
 package com.example.hms.empi.probabilistic;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Pure-function similarity helpers used by
@@ -17,6 +16,13 @@ import java.time.temporal.ChronoUnit;
  * JaroWinkler): pure-Java implementations keep the EMPI module
  * dependency surface bounded for the West-Africa-deployment threat
  * model (offline-capable, minimal supply chain).
+ *
+ * <p>Hot-path contract: nothing here allocates per comparison. Names are
+ * compared case-folded in place (no {@code trim()/toLowerCase()} copies)
+ * and the Levenshtein DP rows live in a per-thread scratch buffer that
+ * only grows. {@link #boundedNameSimilarity} adds a banded DP with early
+ * exit for callers that only care whether a pair can still clear
+ * {@code minScore} — the {@link EmpiMatchIndex} scan path.
  */
 public final class EmpiSimilarity {
 
@@ -37,13 +43,39 @@ public final class EmpiSimilarity {
      * out for JW when ROC analysis recommends it.
      */
     public static double nameSimilarity(String a, String b) {
+        return boundedNameSimilarity(a, b, 0.0);
+    }
+
+    /**
+     * {@link #nameSimilarity} with a floor: returns the exact similarity
+     * when it is {@code >= minSimilarity}, otherwise any value below the
+     * floor (callers must treat it as "cannot qualify", not as a score).
+     *
+     * <p>The floor converts to a maximum edit distance
+     * {@code k = floor((1 - minSimilarity) × longest)}; the DP then only
+     * fills the diagonal band {@code |i - j| <= k} and stops as soon as a
+     * whole row exceeds {@code k}. A length gap larger than {@code k} is
+     * rejected before any DP work.
+     */
+    public static double boundedNameSimilarity(String a, String b, double minSimilarity) {
         if (a == null || b == null) return 0.0;
-        String x = a.trim().toLowerCase(java.util.Locale.ROOT);
-        String y = b.trim().toLowerCase(java.util.Locale.ROOT);
-        if (x.isEmpty() || y.isEmpty()) return 0.0;
-        if (x.equals(y)) return 1.0;
-        int distance = levenshtein(x, y);
-        int longest = Math.max(x.length(), y.length());
+        int aStart = trimStart(a);
+        int aEnd = trimEnd(a, aStart);
+        int bStart = trimStart(b);
+        int bEnd = trimEnd(b, bStart);
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        if (n == 0 || m == 0) return 0.0;
+        int longest = Math.max(n, m);
+        if (n == m && a.regionMatches(true, aStart, b, bStart, n)) return 1.0;
+
+        int maxDistance = minSimilarity <= 0.0
+            ? longest
+            : (int) Math.floor((1.0 - minSimilarity) * longest + 1e-9);
+        if (maxDistance < 0) return -1.0;
+        if (Math.abs(n - m) > maxDistance) return -1.0;
+        int distance = bandedLevenshtein(a, aStart, n, b, bStart, m, maxDistance);
+        if (distance > maxDistance) return -1.0;
         return 1.0 - ((double) distance / (double) longest);
     }
 
@@ -67,6 +99,30 @@ public final class EmpiSimilarity {
              + 0.6 * nameSimilarity(lastA, lastB);
     }
 
+    /**
+     * {@link #combinedNameSimilarity} with a floor, for the pruned scan in
+     * {@link EmpiMatchIndex}. The last name is checked first against the
+     * most optimistic bound (first name perfect), then the first name gets
+     * whatever budget is left; either side falling short returns a value
+     * below {@code minSimilarity}.
+     */
+    public static double boundedCombinedNameSimilarity(
+        String firstA, String lastA, String firstB, String lastB, double minSimilarity
+    ) {
+        boolean hasFirst = isPresent(firstA) && isPresent(firstB);
+        boolean hasLast = isPresent(lastA) && isPresent(lastB);
+        if (!hasFirst && !hasLast) return 0.0;
+        if (!hasFirst) return boundedNameSimilarity(lastA, lastB, minSimilarity);
+        if (!hasLast) return boundedNameSimilarity(firstA, firstB, minSimilarity);
+        double lastFloor = (minSimilarity - 0.4) / 0.6;
+        double last = boundedNameSimilarity(lastA, lastB, lastFloor);
+        if (last < lastFloor) return -1.0;
+        double firstFloor = (minSimilarity - 0.6 * last) / 0.4;
+        double first = boundedNameSimilarity(firstA, firstB, firstFloor);
+        if (first < firstFloor) return -1.0;
+        return 0.4 * first + 0.6 * last;
+    }
+
     /**
      * DOB similarity with month-tolerance: exact match = 1.0, same
      * year+month = 0.85, same year = 0.6, within ±1 year = 0.4,
@@ -79,14 +135,37 @@ public final class EmpiSimilarity {
      */
     public static double dobSimilarity(LocalDate a, LocalDate b) {
         if (a == null || b == null) return 0.0;
-        if (a.equals(b)) return 1.0;
-        if (a.getYear() == b.getYear() && a.getMonthValue() == b.getMonthValue()) return 0.85;
-        if (a.getYear() == b.getYear()) return 0.6;
-        long yearGap = Math.abs(ChronoUnit.YEARS.between(a, b));
-        if (yearGap <= 1L) return 0.4;
+        return dobSimilarity(packDob(a), packDob(b));
+    }
+
+    /**
+     * {@link #dobSimilarity(LocalDate, LocalDate)} over {@link #packDob}
+     * values ({@code yyyymmdd}; {@code 0} = unknown), for the columnar
+     * {@link EmpiMatchIndex} which stores DOBs as {@code int[]}. The year
+     * gap reproduces {@code ChronoUnit.YEARS.between} (whole years).
+     */
+    public static double dobSimilarity(int packedA, int packedB) {
+        if (packedA == 0 || packedB == 0) return 0.0;
+        if (packedA == packedB) return 1.0;
+        int yearA = packedA / 10_000;
+        int yearB = packedB / 10_000;
+        int monthDayA = packedA % 10_000;
+        int monthDayB = packedB % 10_000;
+        if (yearA == yearB && monthDayA / 100 == monthDayB / 100) return 0.85;
+        if (yearA == yearB) return 0.6;
+        int yearGap = packedA < packedB
+            ? yearB - yearA - (monthDayB < monthDayA ? 1 : 0)
+            : yearA - yearB - (monthDayA < monthDayB ? 1 : 0);
+        if (yearGap <= 1) return 0.4;
         return 0.0;
     }
 
+    /** {@code yyyymmdd} packing used by {@link #dobSimilarity(int, int)}; {@code 0} for null. */
+    public static int packDob(LocalDate date) {
+        if (date == null) return 0;
+        return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
     /** Sex/gender match: case-insensitive equality on the trimmed values; 0.0 on either-side blank. */
     public static double sexSimilarity(String a, String b) {
         if (!isPresent(a) || !isPresent(b)) return 0.0;
@@ -100,28 +179,64 @@ public final class EmpiSimilarity {
     }
 
     private static boolean isPresent(String s) {
-        return s != null && !s.trim().isEmpty();
+        return s != null && trimStart(s) < s.length();
     }
 
-    private static int levenshtein(String s, String t) {
-        int n = s.length();
-        int m = t.length();
-        if (n == 0) return m;
-        if (m == 0) return n;
-        int[] prev = new int[m + 1];
-        int[] curr = new int[m + 1];
-        for (int j = 0; j <= m; j++) prev[j] = j;
+    /** Per-thread DP scratch: two rows, grown on demand, never shrunk. */
+    private static final ThreadLocal<int[][]> DP_ROWS =
+        ThreadLocal.withInitial(() -> new int[][] {new int[32], new int[32]});
+
+    /**
+     * Case-insensitive Levenshtein over {@code s[sOff, sOff+n)} and
+     * {@code t[tOff, tOff+m)}, restricted to the band {@code |i - j| <= k}.
+     * Returns {@code k + 1} as soon as the distance provably exceeds
+     * {@code k}; otherwise the exact distance.
+     */
+    static int bandedLevenshtein(String s, int sOff, int n, String t, int tOff, int m, int k) {
+        if (Math.abs(n - m) > k) return k + 1;
+        int[][] rows = DP_ROWS.get();
+        if (rows[0].length < m + 1) {
+            int size = Math.max(m + 1, rows[0].length * 2);
+            rows[0] = new int[size];
+            rows[1] = new int[size];
+        }
+        int[] prev = rows[0];
+        int[] curr = rows[1];
+        final int outside = k + 1;
+        for (int j = 0; j <= m; j++) prev[j] = j <= k ? j : outside;
+
         for (int i = 1; i <= n; i++) {
-            curr[0] = i;
-            char si = s.charAt(i - 1);
-            for (int j = 1; j <= m; j++) {
-                int cost = (si == t.charAt(j - 1)) ? 0 : 1;
-                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            int from = Math.max(1, i - k);
+            int to = Math.min(m, i + k);
+            curr[0] = i <= k ? i : outside;
+            if (from > 1) curr[from - 1] = outside;
+            char si = Character.toLowerCase(s.charAt(sOff + i - 1));
+            int rowMin = curr[0];
+            for (int j = from; j <= to; j++) {
+                int cost = (si == Character.toLowerCase(t.charAt(tOff + j - 1))) ? 0 : 1;
+                int value = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                if (value > outside) value = outside;
+                curr[j] = value;
+                if (value < rowMin) rowMin = value;
             }
+            if (to < m) curr[to + 1] = outside;
+            if (rowMin > k) return outside;
             int[] tmp = prev;
             prev = curr;
             curr = tmp;
         }
         return prev[m];
     }
+
+    private static int trimStart(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') i++;
+        return i;
+    }
+
+    private static int trimEnd(String s, int start) {
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        return end;
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.hms.enums.empi;
+
+/**
+ * Blocking-key families persisted in {@code empi.blocking_keys}. Each key is
+ * paired with the patient's DOB year so a block stays small even for common
+ * surnames.
+ */
+public enum EmpiBlockingKeyType {
+    /** Soundex code of the normalised last name. */
+    LAST_NAME_PHONETIC,
+    /** Leading trigram of the normalised last name. */
+    LAST_NAME_NGRAM,
+    /** Soundex code of the normalised first name (catches blank/garbled surnames). */
+    FIRST_NAME_PHONETIC
+}
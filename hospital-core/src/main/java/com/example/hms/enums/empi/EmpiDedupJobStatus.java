@@ -0,0 +1,12 @@
+package com.example.hms.enums.empi;
+
+/**
+ * Lifecycle of a batch EMPI deduplication scan.
+ */
+public enum EmpiDedupJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,10 @@
+package com.example.hms.enums.empi;
+
+/**
+ * Data-steward decision on a suspected duplicate pair.
+ */
+public enum EmpiDuplicateReviewStatus {
+    PENDING,
+    MERGED,
+    NOT_DUPLICATE
+}
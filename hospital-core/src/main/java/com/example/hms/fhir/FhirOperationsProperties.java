@@ -19,7 +19,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *
  * <p>Both are intentionally separate so an operator can promote
  * {@code $everything} to production (synchronous, low-risk) without
- * also enabling {@code $export} (async, S3-bound, capacity-sensitive).
+ * also enabling {@code $export} (async, storage-bound, capacity-sensitive).
  */
 @ConfigurationProperties(prefix = "app.fhir.operations")
 public class FhirOperationsProperties {
@@ -37,6 +37,14 @@ public class FhirOperationsProperties {
 
     public static class BulkExport {
         private boolean enabled = false;
+        /** Root folder for NDJSON output; one sub-folder per job. */
+        private String storageDir = "./data/fhir-bulk-export";
+        /** Rows fetched (and mapped) per keyset page; bounds runner memory. */
+        private int pageSize = 500;
+        /** A type's output rolls over to a new part after this many resources. */
+        private int maxResourcesPerFile = 100_000;
+        /** An in-progress job whose heartbeat is older than this is re-claimed. */
+        private int staleAfterMinutes = 15;
 
         public boolean isEnabled() {
             return enabled;
@@ -45,10 +53,48 @@ public class FhirOperationsProperties {
         public void setEnabled(boolean enabled) {
             this.enabled = enabled;
         }
+
+        public String getStorageDir() {
+            return storageDir;
+        }
+
+        public void setStorageDir(String storageDir) {
+            this.storageDir = storageDir;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getMaxResourcesPerFile() {
+            return maxResourcesPerFile;
+        }
+
+        public void setMaxResourcesPerFile(int maxResourcesPerFile) {
+            this.maxResourcesPerFile = maxResourcesPerFile;
+        }
+
+        public int getStaleAfterMinutes() {
+            return staleAfterMinutes;
+        }
+
+        public void setStaleAfterMinutes(int staleAfterMinutes) {
+            this.staleAfterMinutes = staleAfterMinutes;
+        }
     }
 
     public static class Everything {
         private boolean enabled = false;
+        /** How long an assembled Bundle is reused while the compartment is unchanged; 0 disables caching. */
+        private int cacheTtlSeconds = 30;
+        /** Upper bound on cached Bundles per node. */
+        private int cacheMaxEntries = 500;
+        /** Section queries in flight across all requests; keeps the fan-out inside the connection pool. */
+        private int maxConcurrentSections = 16;
 
         public boolean isEnabled() {
             return enabled;
@@ -57,5 +103,29 @@ public class FhirOperationsProperties {
         public void setEnabled(boolean enabled) {
             this.enabled = enabled;
         }
+
+        public int getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+
+        public void setCacheTtlSeconds(int cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+
+        public int getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(int cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+
+        public int getMaxConcurrentSections() {
+            return maxConcurrentSections;
+        }
+
+        public void setMaxConcurrentSections(int maxConcurrentSections) {
+            this.maxConcurrentSections = maxConcurrentSections;
+        }
     }
 }
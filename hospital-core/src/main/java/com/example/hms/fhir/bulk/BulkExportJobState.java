@@ -8,14 +8,13 @@ import java.util.List;
 import java.util.UUID;
 
 /**
- * Immutable in-memory state for a single FHIR Bulk Data Access
- * ($export) job — roadmap row 21 foundation pass.
+ * Immutable snapshot of a single FHIR Bulk Data Access ($export) job —
+ * roadmap row 21.
  *
- * <p>This is the placeholder for the persistent
- * {@code fhir_bulk_export_jobs} table that ships with the row-21
- * follow-on. Field shape mirrors the columns the table will need so
- * the next pass only swaps the in-memory map for a JPA repository
- * without touching the operation provider's surface.
+ * <p>Read from {@code platform.fhir_bulk_export_jobs} (plus its finished
+ * parts) by {@link FhirBulkExportService}; the operation provider and the
+ * status controller only ever see this view, never the entity.
+ * {@link #getOutputs()} is empty until the job is {@code COMPLETED}.
  */
 public final class BulkExportJobState {
 
@@ -29,6 +28,13 @@ public final class BulkExportJobState {
     private final Instant requestedAt;
     private final Instant completedAt;
     private final String errorMessage;
+    private final Instant transactionTime;
+    private final String currentType;
+    private final long exportedCount;
+    private final List<OutputFile> outputs;
+
+    /** One finished NDJSON part as listed in the completion manifest. */
+    public record OutputFile(String type, String fileName, long count) {}
 
     public BulkExportJobState(
         UUID jobId,
@@ -41,6 +47,26 @@ public final class BulkExportJobState {
         Instant requestedAt,
         Instant completedAt,
         String errorMessage
+    ) {
+        this(jobId, hospitalId, scope, since, types, groupId, status, requestedAt,
+            completedAt, errorMessage, null, null, 0L, List.of());
+    }
+
+    public BulkExportJobState(
+        UUID jobId,
+        UUID hospitalId,
+        Scope scope,
+        Instant since,
+        List<String> types,
+        String groupId,
+        BulkExportStatus status,
+        Instant requestedAt,
+        Instant completedAt,
+        String errorMessage,
+        Instant transactionTime,
+        String currentType,
+        long exportedCount,
+        List<OutputFile> outputs
     ) {
         this.jobId = jobId;
         this.hospitalId = hospitalId;
@@ -52,6 +78,10 @@ public final class BulkExportJobState {
         this.requestedAt = requestedAt;
         this.completedAt = completedAt;
         this.errorMessage = errorMessage;
+        this.transactionTime = transactionTime;
+        this.currentType = currentType;
+        this.exportedCount = exportedCount;
+        this.outputs = outputs == null ? List.of() : outputs;
     }
 
     public BulkExportJobState withStatus(BulkExportStatus newStatus) {
@@ -60,7 +90,8 @@ public final class BulkExportJobState {
             || newStatus == BulkExportStatus.CANCELLED) ? Instant.now() : this.completedAt;
         return new BulkExportJobState(
             jobId, hospitalId, scope, since, types, groupId,
-            newStatus, requestedAt, completed, errorMessage
+            newStatus, requestedAt, completed, errorMessage,
+            transactionTime, currentType, exportedCount, outputs
         );
     }
 
@@ -74,4 +105,8 @@ public final class BulkExportJobState {
     public Instant getRequestedAt() { return requestedAt; }
     public Instant getCompletedAt() { return completedAt; }
     public String getErrorMessage() { return errorMessage; }
+    public Instant getTransactionTime() { return transactionTime; }
+    public String getCurrentType() { return currentType; }
+    public long getExportedCount() { return exportedCount; }
+    public List<OutputFile> getOutputs() { return outputs; }
 }
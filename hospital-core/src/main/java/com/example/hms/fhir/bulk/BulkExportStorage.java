@@ -0,0 +1,28 @@
+package com.example.hms.fhir.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * Where {@link FhirBulkExportRunner} writes NDJSON parts and where the
+ * status controller reads them back from. Keys are
+ * {@code (jobId, fileName)}; a part is written once, sequentially, and
+ * only listed in the manifest after its stream is closed.
+ *
+ * <p>{@link LocalFileBulkExportStorage} is the shipped implementation. An
+ * S3-compatible bucket plugs in here (a multipart-upload
+ * {@code OutputStream} keeps the runner's constant-memory property) once
+ * an object-store client is part of the build.
+ */
+public interface BulkExportStorage {
+
+    /** Stream for a new part; replaces any earlier part of the same name. */
+    OutputStream create(UUID jobId, String fileName) throws IOException;
+
+    InputStream open(UUID jobId, String fileName) throws IOException;
+
+    /** Removes every part of the job; a no-op when nothing was written. */
+    void deleteJob(UUID jobId) throws IOException;
+}
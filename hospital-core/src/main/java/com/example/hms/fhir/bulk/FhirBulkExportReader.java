@@ -0,0 +1,187 @@
+package com.example.hms.fhir.bulk;
+
+import com.example.hms.fhir.mapper.EncounterFhirMapper;
+import com.example.hms.fhir.mapper.MedicationRequestFhirMapper;
+import com.example.hms.fhir.mapper.ObservationFhirMapper;
+import com.example.hms.fhir.mapper.PatientFhirMapper;
+import com.example.hms.model.BaseEntity;
+import com.example.hms.model.Encounter;
+import com.example.hms.model.LabResult;
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientVitalSign;
+import com.example.hms.model.Prescription;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hl7.fhir.r4.model.Resource;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated reads behind {@link FhirBulkExportRunner}, one
+ * {@link Source} per entity table. Every page is two round trips:
+ * <ol>
+ *   <li>the next {@code limit} ids after the last one emitted
+ *       ({@code id > :after ORDER BY id}) — an index range scan whatever
+ *       the tenant's size, where an {@code OFFSET} page would re-walk
+ *       everything before it;</li>
+ *   <li>the entities for those ids, fetch-joining exactly what the FHIR
+ *       mapper touches so mapping never lazy-loads row by row.</li>
+ * </ol>
+ * Both run inside the caller's read-only transaction, which the routing
+ * data source sends to the replica. Queries are hand-written JPQL rather
+ * than repository methods because the tenant filter is explicit here (the
+ * runner has no request-scoped hospital context) and the fetch plans are
+ * specific to export.
+ */
+@Component
+public class FhirBulkExportReader {
+
+    /** Below every UUID in both PostgreSQL and H2 ordering; the first page's cursor. */
+    static final UUID FIRST_PAGE = new UUID(0L, 0L);
+    /** Stands in for an absent {@code _since} so one query shape serves both cases. */
+    private static final LocalDateTime NO_SINCE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /** Entity tables the runner reads; Observation is fed by two. */
+    public enum Source {
+        PATIENT("Patient",
+            """
+            SELECT r.patient.id FROM PatientHospitalRegistration r
+            WHERE r.hospital.id = :hospitalId AND r.patient.id > :after
+              AND r.patient.updatedAt >= :since
+            ORDER BY r.patient.id
+            """,
+            """
+            SELECT DISTINCT p FROM Patient p
+            LEFT JOIN FETCH p.hospitalRegistrations reg
+            LEFT JOIN FETCH reg.hospital
+            WHERE p.id IN :ids
+            """),
+        ENCOUNTER("Encounter",
+            """
+            SELECT e.id FROM Encounter e
+            WHERE e.hospital.id = :hospitalId AND e.id > :after AND e.updatedAt >= :since
+            ORDER BY e.id
+            """,
+            "SELECT e FROM Encounter e WHERE e.id IN :ids"),
+        LAB_RESULT("Observation",
+            """
+            SELECT lr.id FROM LabResult lr
+            WHERE lr.labOrder.hospital.id = :hospitalId AND lr.id > :after AND lr.updatedAt >= :since
+            ORDER BY lr.id
+            """,
+            """
+            SELECT lr FROM LabResult lr
+            JOIN FETCH lr.labOrder o
+            LEFT JOIN FETCH o.labTestDefinition
+            WHERE lr.id IN :ids
+            """),
+        VITAL_SIGN("Observation",
+            """
+            SELECT v.id FROM PatientVitalSign v
+            WHERE v.hospital.id = :hospitalId AND v.id > :after AND v.updatedAt >= :since
+            ORDER BY v.id
+            """,
+            "SELECT v FROM PatientVitalSign v WHERE v.id IN :ids"),
+        MEDICATION_REQUEST("MedicationRequest",
+            """
+            SELECT p.id FROM Prescription p
+            WHERE p.hospital.id = :hospitalId AND p.id > :after AND p.updatedAt >= :since
+            ORDER BY p.id
+            """,
+            "SELECT p FROM Prescription p WHERE p.id IN :ids");
+
+        private final String resourceType;
+        private final String idQuery;
+        private final String loadQuery;
+
+        Source(String resourceType, String idQuery, String loadQuery) {
+            this.resourceType = resourceType;
+            this.idQuery = idQuery;
+            this.loadQuery = loadQuery;
+        }
+
+        public String resourceType() {
+            return resourceType;
+        }
+    }
+
+    /** Resource types {@code $export} can produce, in output order. */
+    public static final List<String> SUPPORTED_TYPES =
+        List.of("Patient", "Encounter", "Observation", "MedicationRequest");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PatientFhirMapper patientMapper;
+    private final EncounterFhirMapper encounterMapper;
+    private final ObservationFhirMapper observationMapper;
+    private final MedicationRequestFhirMapper medicationRequestMapper;
+
+    public FhirBulkExportReader(PatientFhirMapper patientMapper,
+                                EncounterFhirMapper encounterMapper,
+                                ObservationFhirMapper observationMapper,
+                                MedicationRequestFhirMapper medicationRequestMapper) {
+        this.patientMapper = patientMapper;
+        this.encounterMapper = encounterMapper;
+        this.observationMapper = observationMapper;
+        this.medicationRequestMapper = medicationRequestMapper;
+    }
+
+    public static List<Source> sourcesFor(String resourceType) {
+        List<Source> sources = new ArrayList<>(2);
+        for (Source source : Source.values()) {
+            if (source.resourceType().equals(resourceType)) sources.add(source);
+        }
+        return sources;
+    }
+
+    /** Ids of the next page after {@code after}, ascending; empty once the table is exhausted. */
+    public List<UUID> nextIds(Source source, UUID hospitalId, LocalDateTime since, UUID after, int limit) {
+        return entityManager.createQuery(source.idQuery, UUID.class)
+            .setParameter("hospitalId", hospitalId)
+            .setParameter("after", after == null ? FIRST_PAGE : after)
+            .setParameter("since", since == null ? NO_SINCE : since)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    /** Loads and maps one page; output follows {@code ids} order so parts are deterministic. */
+    public List<Resource> load(Source source, List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, BaseEntity> byId = new HashMap<>(ids.size() * 2);
+        for (BaseEntity row : entityManager.createQuery(source.loadQuery, entityType(source))
+                .setParameter("ids", ids)
+                .getResultList()) {
+            byId.put(row.getId(), row);
+        }
+        List<Resource> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            BaseEntity row = byId.get(id);
+            if (row == null) continue; // deleted between the two queries
+            switch (source) {
+                case PATIENT -> out.add(patientMapper.toFhir((Patient) row));
+                case ENCOUNTER -> out.add(encounterMapper.toFhir((Encounter) row));
+                case LAB_RESULT -> out.add(observationMapper.toFhir((LabResult) row));
+                case VITAL_SIGN -> out.addAll(observationMapper.toFhir((PatientVitalSign) row));
+                case MEDICATION_REQUEST -> out.add(medicationRequestMapper.toFhir((Prescription) row));
+            }
+        }
+        return out;
+    }
+
+    private static Class<? extends BaseEntity> entityType(Source source) {
+        return switch (source) {
+            case PATIENT -> Patient.class;
+            case ENCOUNTER -> Encounter.class;
+            case LAB_RESULT -> LabResult.class;
+            case VITAL_SIGN -> PatientVitalSign.class;
+            case MEDICATION_REQUEST -> Prescription.class;
+        };
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.hms.fhir.bulk;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import com.example.hms.fhir.FhirOperationsProperties;
+import com.example.hms.fhir.bulk.FhirBulkExportReader.Source;
+import com.example.hms.fhir.bulk.FhirBulkExportService.BulkExportStatus;
+import com.example.hms.model.platform.FhirBulkExportFile;
+import com.example.hms.model.platform.FhirBulkExportJob;
+import com.example.hms.repository.platform.FhirBulkExportFileRepository;
+import com.example.hms.repository.platform.FhirBulkExportJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams claimed {@code $export} jobs to NDJSON (roadmap row 21
+ * follow-on). Driven by {@code FhirBulkExportScheduler}.
+ *
+ * <p>Memory is bounded by {@code page-size}, not by tenant size: each
+ * page is read through {@link FhirBulkExportReader} in a read-only
+ * transaction (routed to the replica), mapped and serialised to JSON
+ * lines before that transaction ends — the persistence context and its
+ * entities are dropped with it — and the lines are appended to the
+ * current part outside any transaction. A type rolls over to a new part
+ * every {@code max-resources-per-file} resources.
+ *
+ * <p>Claiming is an optimistic version bump, so two nodes sweeping at
+ * once cannot both run a job. The heartbeat written after every page
+ * doubles as the cancellation check: a {@code DELETE} on the poll URL
+ * bumps the version and the next heartbeat fails. A job re-claimed after
+ * its node died restarts from its first type; finished parts are listed
+ * only once flushed, so clients never see a half-written file.
+ *
+ * <p>Metrics, tagged {@code type} with the FHIR resource type:
+ * {@code hms.fhir.export.resources}, {@code hms.fhir.export.bytes} and
+ * {@code hms.fhir.export.duration} (wall time per type) — resources per
+ * second is their ratio. Jobs are counted on {@code hms.fhir.export.jobs}
+ * by {@code outcome}.
+ */
+@Component
+public class FhirBulkExportRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FhirBulkExportRunner.class);
+
+    static final String METRIC_RESOURCES = "hms.fhir.export.resources";
+    static final String METRIC_BYTES = "hms.fhir.export.bytes";
+    static final String METRIC_DURATION = "hms.fhir.export.duration";
+    static final String METRIC_JOBS = "hms.fhir.export.jobs";
+    static final String TAG_TYPE = "type";
+    static final String TAG_OUTCOME = "outcome";
+
+    private static final String NDJSON_SUFFIX = ".ndjson";
+    private static final int ERROR_MAX_LENGTH = 2000;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final FhirOperationsProperties operationsProperties;
+    private final FhirBulkExportJobRepository jobRepository;
+    private final FhirBulkExportFileRepository fileRepository;
+    private final FhirBulkExportReader reader;
+    private final BulkExportStorage storage;
+    private final FhirContext fhirContext;
+    private final TransactionTemplate writeTx;
+    private final TransactionTemplate readTx;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+
+    public FhirBulkExportRunner(
+        FhirOperationsProperties operationsProperties,
+        FhirBulkExportJobRepository jobRepository,
+        FhirBulkExportFileRepository fileRepository,
+        FhirBulkExportReader reader,
+        BulkExportStorage storage,
+        FhirContext fhirContext,
+        PlatformTransactionManager transactionManager,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this.operationsProperties = operationsProperties;
+        this.jobRepository = jobRepository;
+        this.fileRepository = fileRepository;
+        this.reader = reader;
+        this.storage = storage;
+        this.fhirContext = fhirContext;
+        this.meterRegistry = meterRegistry;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+    }
+
+    /** Claims and runs every pending job; returns how many completed. */
+    public int runPendingJobs() {
+        FhirOperationsProperties.BulkExport config = operationsProperties.getBulkExport();
+        if (!config.isEnabled()) return 0;
+        Instant staleBefore = Instant.now().minus(config.getStaleAfterMinutes(), ChronoUnit.MINUTES);
+        int completed = 0;
+        for (FhirBulkExportJob candidate : jobRepository.findClaimable(staleBefore)) {
+            FhirBulkExportJob job = claim(candidate);
+            if (job != null && runJob(job)) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    /** Optimistic claim that also discards a previous attempt's parts; {@code null} when another node won. */
+    private FhirBulkExportJob claim(FhirBulkExportJob job) {
+        FhirBulkExportJob claimed;
+        try {
+            claimed = writeTx.execute(status -> {
+                Instant now = Instant.now();
+                fileRepository.deleteByJobId(job.getId());
+                job.setStatus(BulkExportStatus.IN_PROGRESS);
+                if (job.getStartedAt() == null) job.setStartedAt(now);
+                job.setTransactionTime(now);
+                job.setHeartbeatAt(now);
+                job.setExportedCount(0);
+                job.setCurrentType(null);
+                return jobRepository.save(job);
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            log.debug("[FHIR_EXPORT] Job {} claimed by another worker", job.getId());
+            return null;
+        }
+        try {
+            storage.deleteJob(claimed.getId());
+        } catch (IOException ex) {
+            // Parts are rewritten under the same names; leftovers are overwritten.
+            log.warn("[FHIR_EXPORT] Could not clear earlier output of job {}: {}", claimed.getId(), ex.getMessage());
+        }
+        return claimed;
+    }
+
+    /** Streams every requested type of a claimed job; {@code true} when it completed. */
+    private boolean runJob(FhirBulkExportJob claimed) {
+        FhirBulkExportJob job = claimed;
+        log.info("[FHIR_EXPORT] Job {} running for hospital {} (types: {})",
+            job.getId(), job.getHospitalId(), requestedTypes(job));
+        IParser parser = fhirContext.newJsonParser().setPrettyPrint(false);
+        try {
+            for (String type : requestedTypes(job)) {
+                job.setCurrentType(type);
+                job = heartbeat(job);
+                job = exportType(job, type, parser);
+            }
+            FhirBulkExportJob done = job;
+            done.setStatus(BulkExportStatus.COMPLETED);
+            done.setCurrentType(null);
+            done.setCompletedAt(Instant.now());
+            FhirBulkExportJob finished = writeTx.execute(status -> jobRepository.save(done));
+            incrementCounter(METRIC_JOBS, TAG_OUTCOME, "completed");
+            log.info("[FHIR_EXPORT] Job {} completed: {} resources", finished.getId(), finished.getExportedCount());
+            return true;
+        } catch (OptimisticLockingFailureException ex) {
+            incrementCounter(METRIC_JOBS, TAG_OUTCOME, "interrupted");
+            log.info("[FHIR_EXPORT] Job {} stopped: modified concurrently (cancelled or re-claimed)", job.getId());
+            discardIfCancelled(job.getId());
+            return false;
+        } catch (RuntimeException ex) {
+            incrementCounter(METRIC_JOBS, TAG_OUTCOME, "failed");
+            log.warn("[FHIR_EXPORT] Job {} failed while exporting {}: {}",
+                job.getId(), job.getCurrentType(), ex.getMessage(), ex);
+            markFailed(job.getId(), ex);
+            return false;
+        }
+    }
+
+    private FhirBulkExportJob exportType(FhirBulkExportJob job, String type, IParser parser) {
+        FhirOperationsProperties.BulkExport config = operationsProperties.getBulkExport();
+        int pageSize = Math.max(1, config.getPageSize());
+        LocalDateTime since = job.getSince() == null ? null
+            : LocalDateTime.ofInstant(job.getSince(), ZoneId.systemDefault());
+        long startedNanos = System.nanoTime();
+        FhirBulkExportJob current = job;
+        try (PartWriter writer = new PartWriter(current.getId(), type, Math.max(1, config.getMaxResourcesPerFile()))) {
+            for (Source source : FhirBulkExportReader.sourcesFor(type)) {
+                UUID after = FhirBulkExportReader.FIRST_PAGE;
+                while (after != null) {
+                    UUID cursor = after;
+                    UUID hospitalId = current.getHospitalId();
+                    Page page = readTx.execute(status -> readPage(source, hospitalId, since, cursor, pageSize, parser));
+                    if (page == null || page.rows() == 0) break;
+                    for (String line : page.lines()) {
+                        writer.write(line);
+                    }
+                    current.setExportedCount(current.getExportedCount() + page.lines().size());
+                    current = heartbeat(current);
+                    after = page.rows() < pageSize ? null : page.lastId();
+                }
+            }
+            writer.finish();
+            long elapsedNanos = System.nanoTime() - startedNanos;
+            recordThroughput(type, writer.totalResources(), writer.totalBytes(), elapsedNanos);
+            log.info("[FHIR_EXPORT] Job {} {}: {} resources, {} bytes in {} part(s), {} resources/s",
+                current.getId(), type, writer.totalResources(), writer.totalBytes(), writer.parts(),
+                ratePerSecond(writer.totalResources(), elapsedNanos));
+        }
+        return current;
+    }
+
+    private Page readPage(Source source, UUID hospitalId, LocalDateTime since, UUID after,
+                          int pageSize, IParser parser) {
+        List<UUID> ids = reader.nextIds(source, hospitalId, since, after, pageSize);
+        if (ids.isEmpty()) return new Page(List.of(), null, 0);
+        List<Resource> resources = reader.load(source, ids);
+        List<String> lines = new ArrayList<>(resources.size());
+        for (Resource resource : resources) {
+            if (resource != null) lines.add(parser.encodeResourceToString(resource));
+        }
+        return new Page(lines, ids.get(ids.size() - 1), ids.size());
+    }
+
+    /** Persists progress; throws {@link OptimisticLockingFailureException} once cancelled or re-claimed. */
+    private FhirBulkExportJob heartbeat(FhirBulkExportJob job) {
+        job.setHeartbeatAt(Instant.now());
+        return writeTx.execute(status -> jobRepository.save(job));
+    }
+
+    private void recordPart(UUID jobId, String type, int partNumber, String fileName, long resources, long bytes) {
+        writeTx.executeWithoutResult(status -> fileRepository.save(FhirBulkExportFile.builder()
+            .jobId(jobId)
+            .resourceType(type)
+            .partNumber(partNumber)
+            .fileName(fileName)
+            .resourceCount(resources)
+            .byteCount(bytes)
+            .build()));
+    }
+
+    private void discardIfCancelled(UUID jobId) {
+        try {
+            boolean cancelled = jobRepository.findById(jobId)
+                .map(j -> j.getStatus() == BulkExportStatus.CANCELLED)
+                .orElse(true);
+            // A re-claimed job belongs to another node now; leave its output alone.
+            if (cancelled) storage.deleteJob(jobId);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("[FHIR_EXPORT] Could not discard output of cancelled job {}: {}", jobId, ex.getMessage());
+        }
+    }
+
+    private void markFailed(UUID jobId, RuntimeException cause) {
+        try {
+            writeTx.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+                if (job.getStatus() != BulkExportStatus.IN_PROGRESS) return;
+                String message = cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+                job.setStatus(BulkExportStatus.FAILED);
+                job.setCompletedAt(Instant.now());
+                job.setErrorMessage(message.length() > ERROR_MAX_LENGTH ? message.substring(0, ERROR_MAX_LENGTH) : message);
+                jobRepository.save(job);
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("[FHIR_EXPORT] Could not mark job {} failed: {}", jobId, ex.getMessage());
+        }
+    }
+
+    static List<String> requestedTypes(FhirBulkExportJob job) {
+        String raw = job.getResourceTypes();
+        if (raw == null || raw.isBlank()) return FhirBulkExportReader.SUPPORTED_TYPES;
+        List<String> types = new ArrayList<>();
+        for (String type : FhirBulkExportReader.SUPPORTED_TYPES) {
+            for (String requested : raw.split(",")) {
+                if (type.equals(requested.trim())) {
+                    types.add(type);
+                    break;
+                }
+            }
+        }
+        return types;
+    }
+
+    static String fileName(String type, int partNumber) {
+        return type + "-" + partNumber + NDJSON_SUFFIX;
+    }
+
+    private static long ratePerSecond(long resources, long elapsedNanos) {
+        return elapsedNanos <= 0 ? resources : resources * 1_000_000_000L / elapsedNanos;
+    }
+
+    private void recordThroughput(String type, long resources, long bytes, long elapsedNanos) {
+        if (meterRegistry == null) return;
+        try {
+            Counter.builder(METRIC_RESOURCES).tag(TAG_TYPE, type).register(meterRegistry).increment(resources);
+            Counter.builder(METRIC_BYTES).baseUnit("bytes").tag(TAG_TYPE, type).register(meterRegistry).increment(bytes);
+            Timer.builder(METRIC_DURATION).tag(TAG_TYPE, type).register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException ex) {
+            log.debug("[FHIR_EXPORT] Failed to record throughput metrics: {}", ex.getMessage());
+        }
+    }
+
+    private void incrementCounter(String name, String tagKey, String tagValue) {
+        if (meterRegistry == null) return;
+        try {
+            Counter.builder(name).tag(tagKey, tagValue).register(meterRegistry).increment();
+        } catch (RuntimeException ex) {
+            log.debug("[FHIR_EXPORT] Failed to record metric {}: {}", name, ex.getMessage());
+        }
+    }
+
+    /** One page of serialised resources; {@code rows} counts entity rows (vitals expand 1:N). */
+    private record Page(List<String> lines, UUID lastId, int rows) {}
+
+    /**
+     * Appends NDJSON lines for one type, rolling to a new part at the
+     * per-file limit. A part is opened on its first line (types with no
+     * data produce no file, as the spec asks) and recorded once closed.
+     */
+    private final class PartWriter implements AutoCloseable {
+        private final UUID jobId;
+        private final String type;
+        private final int maxPerFile;
+        private OutputStream out;
+        private int partNumber;
+        private long partResources;
+        private long partBytes;
+        private long totalResources;
+        private long totalBytes;
+
+        PartWriter(UUID jobId, String type, int maxPerFile) {
+            this.jobId = jobId;
+            this.type = type;
+            this.maxPerFile = maxPerFile;
+        }
+
+        void write(String line) {
+            try {
+                if (out != null && partResources >= maxPerFile) closePart();
+                if (out == null) openPart();
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                out.write(bytes);
+                out.write('\n');
+                partResources++;
+                partBytes += bytes.length + 1L;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Writing " + fileName(type, partNumber) + " failed", ex);
+            }
+        }
+
+        void finish() {
+            try {
+                if (out != null) closePart();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Closing " + fileName(type, partNumber) + " failed", ex);
+            }
+        }
+
+        long totalResources() {
+            return totalResources;
+        }
+
+        long totalBytes() {
+            return totalBytes;
+        }
+
+        int parts() {
+            return partNumber;
+        }
+
+        private void openPart() throws IOException {
+            partNumber++;
+            partResources = 0;
+            partBytes = 0;
+            out = new BufferedOutputStream(storage.create(jobId, fileName(type, partNumber)), WRITE_BUFFER_BYTES);
+        }
+
+        private void closePart() throws IOException {
+            OutputStream closing = out;
+            out = null;
+            closing.close();
+            recordPart(jobId, type, partNumber, fileName(type, partNumber), partResources, partBytes);
+            totalResources += partResources;
+            totalBytes += partBytes;
+        }
+
+        /** Abandons an unfinished part on failure; it was never recorded, so it is never served. */
+        @Override
+        public void close() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // The job is failing already; the orphan part is cleared on retry or cancel.
+            }
+            out = null;
+        }
+    }
+}
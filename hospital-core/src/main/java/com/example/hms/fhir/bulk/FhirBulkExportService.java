@@ -1,52 +1,54 @@
 package com.example.hms.fhir.bulk;
 
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import com.example.hms.enums.AuditEventType;
 import com.example.hms.enums.AuditStatus;
 import com.example.hms.fhir.FhirOperationsProperties;
+import com.example.hms.model.platform.FhirBulkExportFile;
+import com.example.hms.model.platform.FhirBulkExportJob;
 import com.example.hms.payload.dto.AuditEventRequestDTO;
+import com.example.hms.repository.platform.FhirBulkExportFileRepository;
+import com.example.hms.repository.platform.FhirBulkExportJobRepository;
 import com.example.hms.security.context.HospitalContextHolder;
 import com.example.hms.service.AuditEventLogService;
 import org.hl7.fhir.r4.model.OperationOutcome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Foundation-pass FHIR R4 Bulk Data Access service ($export — roadmap
- * row 21, v1.1 / Backend / Interop FHIR).
+ * FHIR R4 Bulk Data Access service ($export — roadmap row 21, v1.1 /
+ * Backend / Interop FHIR): kickoff, status and cancel over the persistent
+ * {@code platform.fhir_bulk_export_jobs} table.
  *
- * <p>This pass deliberately ships an <strong>in-memory job map</strong>
- * with status transitions but no NDJSON output. The follow-on (named
- * in the row-21 cell) adds: persistent {@code fhir_bulk_export_jobs}
- * table, a Spring {@code @Scheduled} runner that fans out
- * per-resource-type collection queries through the existing FHIR read
- * mappers, NDJSON writer streaming to an S3-compatible bucket
- * (deliverable target), and the timeout / retry / DLQ semantics the
- * spec implies for a bulk job.
+ * <p>Kickoff only validates and records a {@code QUEUED} job; the NDJSON
+ * is produced asynchronously by {@link FhirBulkExportRunner}, on whichever
+ * node's scheduler claims the job first. Status reads the job and — once
+ * {@code COMPLETED} — its finished parts, which the status controller
+ * turns into the spec's completion manifest.
  *
- * <p>Scope-limited for the foundation pass:
  * <ul>
- *   <li>Job creation returns a UUID, sets status to {@code QUEUED}, and
- *       persists nothing — restart wipes the map. Acceptable because
- *       the deliverable target is an S3-backed runner that does not
- *       yet exist; once it lands, both the map and the queued state
- *       are replaced atomically.</li>
- *   <li>Status polling always returns {@code IN_PROGRESS} for the
- *       lifetime of the job — there is no completion path yet. This
- *       is the spec-conformant 202 response while a real job runs;
- *       the only deviation is that the job never advances. Operators
- *       must call {@code cancelExport} to clear the entry.</li>
- *   <li>{@link #cancelExport} flips state to {@code CANCELLED} and
- *       drops the row; subsequent polls return {@code NOT_FOUND}.</li>
+ *   <li>{@code _type} is checked against
+ *       {@link FhirBulkExportReader#SUPPORTED_TYPES}; an unsupported type
+ *       is a {@code 400} at kickoff rather than a silently short
+ *       export.</li>
+ *   <li>{@link #cancelExport} flips the row to {@code CANCELLED} (a
+ *       running export notices at its next page) and deletes its output;
+ *       subsequent polls return {@code NOT_FOUND}.</li>
  * </ul>
  *
  * <p>Tenant scope: each job is pinned to the active hospital from
@@ -56,7 +58,7 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * <p>Feature-flagged via
  * {@link FhirOperationsProperties.BulkExport#isEnabled()}; flag-off
- * surfaces as {@code 501 Not Implemented} from
+ * surfaces as {@code 405 Method Not Allowed} from
  * {@link FhirBulkExportOperationProvider}.
  */
 @Service
@@ -65,16 +67,27 @@ public class FhirBulkExportService {
     private static final Logger log = LoggerFactory.getLogger(FhirBulkExportService.class);
     private static final String AUDIT_ENTITY_TYPE = "FHIR_BULK_EXPORT_JOB";
 
+    private static final Set<BulkExportStatus> ACTIVE =
+        EnumSet.of(BulkExportStatus.QUEUED, BulkExportStatus.IN_PROGRESS);
+
     private final FhirOperationsProperties operationsProperties;
     private final AuditEventLogService auditEventLogService;
-    private final Map<UUID, BulkExportJobState> jobs = new ConcurrentHashMap<>();
+    private final FhirBulkExportJobRepository jobRepository;
+    private final FhirBulkExportFileRepository fileRepository;
+    private final BulkExportStorage storage;
 
     public FhirBulkExportService(
         FhirOperationsProperties operationsProperties,
-        AuditEventLogService auditEventLogService
+        AuditEventLogService auditEventLogService,
+        FhirBulkExportJobRepository jobRepository,
+        FhirBulkExportFileRepository fileRepository,
+        BulkExportStorage storage
     ) {
         this.operationsProperties = operationsProperties;
         this.auditEventLogService = auditEventLogService;
+        this.jobRepository = jobRepository;
+        this.fileRepository = fileRepository;
+        this.storage = storage;
     }
 
     public boolean isEnabled() {
@@ -94,70 +107,143 @@ public class FhirBulkExportService {
      *                resource types are exported)
      * @param groupId mandatory when {@code scope == GROUP}; otherwise null
      */
+    @Transactional
     public BulkExportJobState createExport(
         Scope scope, Instant since, List<String> types, String groupId
     ) {
         ensureEnabled();
+        List<String> requested = types == null ? List.of() : List.copyOf(types);
+        ensureSupportedTypes(requested);
         UUID hospitalId = HospitalContextHolder.getContextOrEmpty().getActiveHospitalId();
-        UUID jobId = UUID.randomUUID();
-        BulkExportJobState state = new BulkExportJobState(
-            jobId,
-            hospitalId,
-            scope,
-            since,
-            types == null ? List.of() : List.copyOf(types),
-            groupId,
-            BulkExportStatus.QUEUED,
-            Instant.now(),
-            null,
-            null
-        );
-        jobs.put(jobId, state);
+        FhirBulkExportJob job = jobRepository.save(FhirBulkExportJob.builder()
+            .hospitalId(hospitalId)
+            .scope(scope)
+            .since(since)
+            .resourceTypes(requested.isEmpty() ? null : String.join(",", requested))
+            .groupId(groupId)
+            .status(BulkExportStatus.QUEUED)
+            .build());
+        BulkExportJobState state = toState(job, List.of());
         emitAudit(state, "FHIR $export job queued (" + scope + ")");
         return state;
     }
 
+    @Transactional(readOnly = true)
     public Optional<BulkExportJobState> getJob(UUID jobId) {
-        BulkExportJobState state = jobs.get(jobId);
-        if (state == null) return Optional.empty();
-        UUID hospitalId = HospitalContextHolder.getContextOrEmpty().getActiveHospitalId();
-        // Cross-tenant rejection collapses to "no such job" so the
-        // existence of jobs belonging to other tenants is invisible.
-        //
-        // DENY on null context (PR #352 Copilot review — Medium): a
-        // super-admin without an explicit X-Hospital-Id has
-        // activeHospitalId == null. Returning the job in that case
-        // would let any super-admin see any tenant's jobs — the
-        // inverse of the invisible-rejection contract.
-        if (hospitalId == null) return Optional.empty();
-        if (state.getHospitalId() == null
-            || !state.getHospitalId().equals(hospitalId)) {
+        return findScoped(jobId).map(job -> toState(job,
+            job.getStatus() == BulkExportStatus.COMPLETED
+                ? fileRepository.findByJobIdOrderByResourceTypeAscPartNumberAsc(jobId)
+                : List.of()));
+    }
+
+    /**
+     * Opens one finished NDJSON part of a completed job, or empty when the
+     * job is not visible to this tenant or has no such part.
+     */
+    @Transactional(readOnly = true)
+    public Optional<InputStream> openOutput(UUID jobId, String fileName) {
+        Optional<FhirBulkExportJob> job = findScoped(jobId)
+            .filter(j -> j.getStatus() == BulkExportStatus.COMPLETED);
+        if (job.isEmpty() || fileRepository.findByJobIdAndFileName(jobId, fileName).isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(storage.open(jobId, fileName));
+        } catch (IOException ex) {
+            log.warn("FHIR $export output {} of job {} unreadable: {}", fileName, jobId, ex.toString());
             return Optional.empty();
         }
-        return Optional.of(state);
     }
 
     /**
-     * Mark a job as {@code CANCELLED} and drop it from the in-memory
-     * map. Returns {@code true} when a row was actually removed for
-     * this tenant; subsequent calls return {@code false} and the
-     * status endpoint reports {@code NOT_FOUND}.
+     * Mark a job as {@code CANCELLED} and delete its output. Returns
+     * {@code true} when a visible job was cancelled for this tenant;
+     * subsequent calls return {@code false} and the status endpoint
+     * reports {@code NOT_FOUND}. A running export stops at its next page
+     * (its heartbeat loses the version race).
      */
+    @Transactional
     public boolean cancelExport(UUID jobId) {
-        Optional<BulkExportJobState> resolved = getJob(jobId);
+        Optional<FhirBulkExportJob> resolved = findScoped(jobId);
         if (resolved.isEmpty()) return false;
-        BulkExportJobState state = resolved.get().withStatus(BulkExportStatus.CANCELLED);
-        jobs.remove(jobId);
-        emitAudit(state, "FHIR $export job cancelled");
+        FhirBulkExportJob job = resolved.get();
+        job.setStatus(BulkExportStatus.CANCELLED);
+        job.setCurrentType(null);
+        job.setCompletedAt(Instant.now());
+        jobRepository.save(job);
+        fileRepository.deleteByJobId(jobId);
+        try {
+            storage.deleteJob(jobId);
+        } catch (IOException ex) {
+            log.warn("FHIR $export output of cancelled job {} not fully deleted: {}", jobId, ex.toString());
+        }
+        emitAudit(toState(job, List.of()), "FHIR $export job cancelled");
         return true;
     }
 
     /**
-     * For tests / operators: visible map size (count of in-flight
-     * jobs). Not surfaced on the wire.
+     * For tests / operators: count of queued + in-progress jobs across
+     * all tenants. Not surfaced on the wire.
      */
+    @Transactional(readOnly = true)
     public int activeJobCount() {
-        return jobs.size();
+        return (int) jobRepository.countByStatusIn(ACTIVE);
+    }
+
+    private Optional<FhirBulkExportJob> findScoped(UUID jobId) {
+        UUID hospitalId = HospitalContextHolder.getContextOrEmpty().getActiveHospitalId();
+        // Cross-tenant rejection collapses to "no such job" so the
+        // existence of jobs belonging to other tenants is invisible.
+        //
+        // DENY on null context (PR #352 Copilot review — Medium): a
+        // super-admin without an explicit X-Hospital-Id has
+        // activeHospitalId == null. Returning the job in that case
+        // would let any super-admin see any tenant's jobs — the
+        // inverse of the invisible-rejection contract.
+        if (hospitalId == null || jobId == null) return Optional.empty();
+        return jobRepository.findById(jobId)
+            .filter(job -> hospitalId.equals(job.getHospitalId()))
+            .filter(job -> job.getStatus() != BulkExportStatus.CANCELLED);
+    }
+
+    private static BulkExportJobState toState(FhirBulkExportJob job, List<FhirBulkExportFile> files) {
+        List<BulkExportJobState.OutputFile> outputs = files.stream()
+            .map(f -> new BulkExportJobState.OutputFile(f.getResourceType(), f.getFileName(), f.getResourceCount()))
+            .toList();
+        Instant requestedAt = job.getCreatedAt() == null ? Instant.now()
+            : job.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant();
+        List<String> types = job.getResourceTypes() == null ? List.of()
+            : List.of(job.getResourceTypes().split(","));
+        return new BulkExportJobState(
+            job.getId(),
+            job.getHospitalId(),
+            job.getScope(),
+            job.getSince(),
+            types,
+            job.getGroupId(),
+            job.getStatus(),
+            requestedAt,
+            job.getCompletedAt(),
+            job.getErrorMessage(),
+            job.getTransactionTime(),
+            job.getCurrentType(),
+            job.getExportedCount(),
+            outputs
+        );
+    }
+
+    private static void ensureSupportedTypes(List<String> types) {
+        for (String type : types) {
+            if (!FhirBulkExportReader.SUPPORTED_TYPES.contains(type)) {
+                OperationOutcome outcome = new OperationOutcome();
+                outcome.addIssue()
+                    .setSeverity(OperationOutcome.IssueSeverity.ERROR)
+                    .setCode(OperationOutcome.IssueType.NOTSUPPORTED)
+                    .setDiagnostics("_type '" + type + "' is not exportable; supported types are "
+                        + String.join(", ", FhirBulkExportReader.SUPPORTED_TYPES) + ".");
+                throw new InvalidRequestException("Unsupported _type: " + type, outcome);
+            }
+        }
     }
 
     private void ensureEnabled() {
@@ -170,8 +256,7 @@ public class FhirBulkExportService {
                     + "app.fhir.operations.bulk-export.enabled=true to opt in.");
             // 405 — matches the rest of HMS's flag-off contract
             // (Patient / Encounter / Observation FHIR write paths). The
-            // bulk-data spec preference of 501 is a polish item for the
-            // row-21 follow-on when the async runner lands.
+            // bulk-data spec preference of 501 is still a polish item.
             throw new MethodNotAllowedException(
                 "FHIR $export is disabled.", outcome
             );
@@ -193,7 +278,7 @@ public class FhirBulkExportService {
                 .resourceId(state.getJobId().toString())
                 .eventDescription(description)
                 .build();
-            auditEventLogService.logEvent(request);
+            auditEventLogService.submitEvent(request);
         } catch (RuntimeException ex) {
             log.warn("audit emission failed for FHIR $export job {}: {}",
                 state.getJobId(), ex.toString());
@@ -203,6 +288,6 @@ public class FhirBulkExportService {
     /** Spec-level scope of a single $export invocation. */
     public enum Scope { SYSTEM, PATIENT, GROUP }
 
-    /** Internal state machine for a foundation-pass job. */
+    /** Job state machine; persisted as {@code fhir_bulk_export_jobs.status}. */
     public enum BulkExportStatus { QUEUED, IN_PROGRESS, COMPLETED, FAILED, CANCELLED }
 }
@@ -1,5 +1,6 @@
 package com.example.hms.fhir.bulk;
 
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -9,7 +10,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,31 +25,30 @@ import java.util.UUID;
  * by {@link FhirBulkExportOperationProvider#exportSystem} /
  * {@code exportPatient}. Mounted at {@code /api/fhir-bulk-status/{jobId}}
  * (sibling to HAPI's {@code /api/fhir/*} servlet) because the FHIR
- * servlet captures the entire {@code /api/fhir/*} space — the
- * canonical mounting via a HAPI plain-provider {@code @Operation}
- * with {@code manualResponse=true} is on the row-21 follow-on once
- * the async runner lands.
+ * servlet captures the entire {@code /api/fhir/*} space.
  *
- * <p>Foundation-pass semantics:
  * <ul>
- *   <li>{@code GET /api/fhir-bulk-status/{id}} returns
- *       {@code 202 Accepted} (per the FHIR bulk-data spec for the
- *       "still in progress" state) until the actual runner lands.
- *       A non-existent or cross-tenant job returns {@code 404 Not Found}
- *       (cross-tenant rejection is invisible).</li>
+ *   <li>{@code GET /api/fhir-bulk-status/{id}} — {@code 202 Accepted}
+ *       with {@code X-Progress} while queued / running; {@code 200 OK}
+ *       with the bulk-data completion manifest once complete;
+ *       {@code 500} + {@code OperationOutcome} when the runner failed.
+ *       A non-existent, cancelled or cross-tenant job returns
+ *       {@code 404 Not Found} (cross-tenant rejection is invisible).</li>
+ *   <li>{@code GET /api/fhir-bulk-status/{id}/{file}} — streams one NDJSON
+ *       part listed in the manifest, under the same tenant check.</li>
  *   <li>{@code DELETE /api/fhir-bulk-status/{id}} cancels the job —
  *       {@code 202 Accepted} on hit, {@code 404 Not Found} otherwise.</li>
  * </ul>
- *
- * <p>The {@code 200 OK + manifest} branch lands with the row-21
- * follow-on once the runner can emit NDJSON to the S3-compatible
- * bucket.
  */
 @RestController
 @RequestMapping("/fhir-bulk-status")
 public class FhirBulkExportStatusController {
 
     private static final String FHIR_JSON = "application/fhir+json";
+    private static final String NDJSON = "application/fhir+ndjson";
+    private static final String RETRY_AFTER_SECONDS = "30";
+    /** Advisory only: parts stay until the job is cancelled. */
+    private static final long MANIFEST_TTL_MILLIS = 24L * 60 * 60 * 1000;
 
     private final FhirBulkExportService service;
 
@@ -50,8 +56,8 @@ public class FhirBulkExportStatusController {
         this.service = service;
     }
 
-    @GetMapping(value = "/{jobId}", produces = FHIR_JSON)
-    public ResponseEntity<String> getStatus(@PathVariable UUID jobId) {
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getStatus(@PathVariable UUID jobId) {
         if (!service.isEnabled()) {
             return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED)
                 .contentType(MediaType.valueOf(FHIR_JSON))
@@ -63,12 +69,42 @@ public class FhirBulkExportStatusController {
                 .contentType(MediaType.valueOf(FHIR_JSON))
                 .body(notFoundOutcome(jobId));
         }
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("X-Progress", "in-progress (foundation pass — runner deferred)");
-        headers.add("Retry-After", "120");
-        return ResponseEntity.status(HttpStatus.ACCEPTED)
-            .headers(headers)
-            .build();
+        BulkExportJobState job = state.get();
+        return switch (job.getStatus()) {
+            case COMPLETED -> ResponseEntity.ok()
+                .headers(h -> h.setExpires(System.currentTimeMillis() + MANIFEST_TTL_MILLIS))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(manifest(job));
+            case FAILED -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.valueOf(FHIR_JSON))
+                .body(failedOutcome(job));
+            default -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.add("X-Progress", progress(job));
+                headers.add("Retry-After", RETRY_AFTER_SECONDS);
+                yield ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .headers(headers)
+                    .build();
+            }
+        };
+    }
+
+    @GetMapping("/{jobId}/{fileName:.+\\.ndjson}")
+    public ResponseEntity<?> getOutput(@PathVariable UUID jobId, @PathVariable String fileName) {
+        if (!service.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED)
+                .contentType(MediaType.valueOf(FHIR_JSON))
+                .body(notSupportedOutcome());
+        }
+        Optional<InputStream> output = service.openOutput(jobId, fileName);
+        if (output.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.valueOf(FHIR_JSON))
+                .body(notFoundOutcome(jobId));
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.valueOf(NDJSON))
+            .body(new InputStreamResource(output.get()));
     }
 
     @DeleteMapping(value = "/{jobId}", produces = FHIR_JSON)
@@ -87,6 +123,70 @@ public class FhirBulkExportStatusController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).build();
     }
 
+    /** Bulk-data completion manifest; output URLs point back at {@link #getOutput}. */
+    private static Map<String, Object> manifest(BulkExportJobState job) {
+        String base = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+        List<Map<String, Object>> output = new ArrayList<>(job.getOutputs().size());
+        for (BulkExportJobState.OutputFile file : job.getOutputs()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", file.type());
+            entry.put("url", base + "/fhir-bulk-status/" + job.getJobId() + "/" + file.fileName());
+            entry.put("count", file.count());
+            output.add(entry);
+        }
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("transactionTime", String.valueOf(job.getTransactionTime()));
+        manifest.put("request", base + kickoffPath(job));
+        manifest.put("requiresAccessToken", true);
+        manifest.put("output", output);
+        manifest.put("error", List.of());
+        return manifest;
+    }
+
+    private static String kickoffPath(BulkExportJobState job) {
+        String path = job.getScope() == FhirBulkExportService.Scope.PATIENT
+            ? "/fhir/Patient/$export" : "/fhir/$export";
+        List<String> params = new ArrayList<>(2);
+        if (job.getSince() != null) params.add("_since=" + job.getSince());
+        if (!job.getTypes().isEmpty()) params.add("_type=" + String.join(",", job.getTypes()));
+        return params.isEmpty() ? path : path + "?" + String.join("&", params);
+    }
+
+    private static String progress(BulkExportJobState job) {
+        if (job.getStatus() == FhirBulkExportService.BulkExportStatus.QUEUED) return "queued";
+        return job.getCurrentType() == null
+            ? job.getExportedCount() + " resources exported"
+            : "exporting " + job.getCurrentType() + " (" + job.getExportedCount() + " resources so far)";
+    }
+
+    private static String failedOutcome(BulkExportJobState job) {
+        String message = job.getErrorMessage() == null ? "export failed" : job.getErrorMessage();
+        return "{\"resourceType\":\"OperationOutcome\",\"issue\":[{"
+            + "\"severity\":\"error\",\"code\":\"exception\","
+            + "\"diagnostics\":\"Bulk-export job " + job.getJobId() + " failed: "
+            + jsonEscape(message) + "\""
+            + "}]}";
+    }
+
+    private static String jsonEscape(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        return out.toString();
+    }
+
     private static String notSupportedOutcome() {
         return "{\"resourceType\":\"OperationOutcome\",\"issue\":[{"
             + "\"severity\":\"error\",\"code\":\"not-supported\","
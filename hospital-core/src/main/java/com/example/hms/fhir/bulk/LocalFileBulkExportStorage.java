@@ -0,0 +1,69 @@
+package com.example.hms.fhir.bulk;
+
+import com.example.hms.fhir.FhirOperationsProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * {@link BulkExportStorage} on the local (or a mounted shared) filesystem:
+ * {@code {storageDir}/{jobId}/{fileName}}. The status endpoint must be
+ * served from a node that sees the same directory as the runner — in a
+ * multi-node deployment point {@code storage-dir} at a shared volume.
+ */
+@Component
+public class LocalFileBulkExportStorage implements BulkExportStorage {
+
+    private final FhirOperationsProperties operationsProperties;
+
+    public LocalFileBulkExportStorage(FhirOperationsProperties operationsProperties) {
+        this.operationsProperties = operationsProperties;
+    }
+
+    @Override
+    public OutputStream create(UUID jobId, String fileName) throws IOException {
+        Path dir = Files.createDirectories(jobDir(jobId));
+        return Files.newOutputStream(resolve(dir, fileName));
+    }
+
+    @Override
+    public InputStream open(UUID jobId, String fileName) throws IOException {
+        return Files.newInputStream(resolve(jobDir(jobId), fileName));
+    }
+
+    @Override
+    public void deleteJob(UUID jobId) throws IOException {
+        Path dir = jobDir(jobId);
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                try {
+                    Files.delete(path);
+                } catch (NoSuchFileException ignored) {
+                    // Removed concurrently (cancel racing a re-claim); already gone.
+                }
+            }
+        }
+    }
+
+    private Path jobDir(UUID jobId) {
+        return Path.of(operationsProperties.getBulkExport().getStorageDir()).resolve(jobId.toString());
+    }
+
+    /** File names are generated by the runner, but the download path echoes user input — never leave the job folder. */
+    private static Path resolve(Path dir, String fileName) throws IOException {
+        Path file = dir.resolve(fileName).normalize();
+        if (!file.getParent().equals(dir.normalize())) {
+            throw new NoSuchFileException(fileName);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.hms.fhir.everything;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cheap change detector for a patient's compartment at one hospital:
+ * per section, {@code COUNT(*)} and {@code MAX(COALESCE(updated_at, created_at))}
+ * over the same rows {@code $everything} would read (MAX alone skips rows
+ * whose {@code updated_at} is NULL). Both come off the
+ * {@code (patient_id, hospital_id)} indexes, so a stamp costs a handful of
+ * index scans instead of loading and mapping the page. The count catches
+ * deletions, which a max timestamp alone would miss.
+ *
+ * <p>Runs in the caller's transaction.
+ */
+@Component
+public class PatientCompartmentStamps {
+
+    private static final String ENCOUNTERS = """
+        SELECT COUNT(e), MAX(COALESCE(e.updatedAt, e.createdAt)) FROM Encounter e
+        WHERE e.patient.id = :patientId AND e.hospital.id = :hospitalId
+        """;
+    private static final String VITALS = """
+        SELECT COUNT(v), MAX(COALESCE(v.updatedAt, v.createdAt)) FROM PatientVitalSign v
+        WHERE v.patient.id = :patientId AND v.hospital.id = :hospitalId
+        """;
+    private static final String LAB_RESULTS = """
+        SELECT COUNT(r), MAX(COALESCE(r.updatedAt, r.createdAt)) FROM LabResult r
+        WHERE r.labOrder.patient.id = :patientId AND r.labOrder.hospital.id = :hospitalId
+        """;
+    private static final String CONDITIONS = """
+        SELECT COUNT(c), MAX(COALESCE(c.updatedAt, c.createdAt)) FROM PatientProblem c
+        WHERE c.patient.id = :patientId AND c.hospital.id = :hospitalId
+        """;
+    private static final String PRESCRIPTIONS = """
+        SELECT COUNT(p), MAX(COALESCE(p.updatedAt, p.createdAt)) FROM Prescription p
+        WHERE p.patient.id = :patientId AND p.hospital.id = :hospitalId
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Stamp of the sections {@code params} selects, prefixed with the
+     * patient row's own {@code updatedAt}. Equal stamps mean an identical
+     * {@code $everything} response for the same params.
+     */
+    public String stamp(UUID patientId, UUID hospitalId, LocalDateTime patientUpdatedAt,
+                        PatientEverythingParams params) {
+        StringBuilder sb = new StringBuilder(160).append(patientUpdatedAt);
+        if (params.includes("Encounter")) append(sb, ENCOUNTERS, patientId, hospitalId);
+        if (params.includes("Observation")) {
+            append(sb, VITALS, patientId, hospitalId);
+            append(sb, LAB_RESULTS, patientId, hospitalId);
+        }
+        if (params.includes("Condition")) append(sb, CONDITIONS, patientId, hospitalId);
+        if (params.includes("MedicationRequest")) append(sb, PRESCRIPTIONS, patientId, hospitalId);
+        return sb.toString();
+    }
+
+    private void append(StringBuilder sb, String jpql, UUID patientId, UUID hospitalId) {
+        Object[] row = entityManager.createQuery(jpql, Object[].class)
+            .setParameter("patientId", patientId)
+            .setParameter("hospitalId", hospitalId)
+            .getSingleResult();
+        sb.append('|').append(row[0]).append('@').append(row[1]);
+    }
+}
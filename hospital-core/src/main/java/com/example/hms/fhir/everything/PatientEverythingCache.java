@@ -0,0 +1,62 @@
+package com.example.hms.fhir.everything;
+
+import com.example.hms.utility.BoundedTtlCache;
+import org.hl7.fhir.r4.model.Bundle;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Short-lived per-node cache of assembled {@code $everything} Bundles,
+ * keyed on patient, hospital and params. An entry is only served while
+ * the compartment stamp it was built under (see
+ * {@link PatientCompartmentStamps}) still matches, so edits show up on
+ * the next poll; the TTL bounds staleness for changes the stamp cannot
+ * see (e.g. a referenced lab-test definition renamed).
+ *
+ * <p>Entries are stored and served as deep copies: HAPI's response
+ * pipeline may touch the returned Bundle, and a cached instance must
+ * never be shared between requests.
+ */
+class PatientEverythingCache {
+
+    private final BoundedTtlCache<Key, CachedEntry> entries;
+
+    PatientEverythingCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    PatientEverythingCache(Duration ttl, int maxEntries, Clock clock) {
+        this.entries = new BoundedTtlCache<>(maxEntries, ttl, clock);
+    }
+
+    boolean isEnabled() {
+        return entries.isEnabled();
+    }
+
+    /** Copy of the cached Bundle when present, fresh and built under {@code stamp}; otherwise {@code null}. */
+    Bundle get(UUID patientId, UUID hospitalId, PatientEverythingParams params, String stamp) {
+        Key key = new Key(patientId, hospitalId, params);
+        CachedEntry entry = entries.getIfPresent(key);
+        if (entry == null) return null;
+        if (!entry.stamp().equals(stamp)) {
+            entries.invalidate(key);
+            return null;
+        }
+        return entry.bundle().copy();
+    }
+
+    void put(UUID patientId, UUID hospitalId, PatientEverythingParams params, String stamp, Bundle bundle) {
+        if (!isEnabled()) return;
+        entries.put(new Key(patientId, hospitalId, params), new CachedEntry(bundle.copy(), stamp));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Key(UUID patientId, UUID hospitalId, PatientEverythingParams params) { }
+
+    private record CachedEntry(Bundle bundle, String stamp) { }
+}
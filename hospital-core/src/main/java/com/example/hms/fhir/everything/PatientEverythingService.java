@@ -1,6 +1,7 @@
 package com.example.hms.fhir.everything;
 
 import ca.uhn.fhir.rest.server.exceptions.ForbiddenOperationException;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import com.example.hms.enums.AuditEventType;
@@ -11,7 +12,12 @@ import com.example.hms.fhir.mapper.EncounterFhirMapper;
 import com.example.hms.fhir.mapper.MedicationRequestFhirMapper;
 import com.example.hms.fhir.mapper.ObservationFhirMapper;
 import com.example.hms.fhir.mapper.PatientFhirMapper;
+import com.example.hms.model.Encounter;
+import com.example.hms.model.LabResult;
 import com.example.hms.model.Patient;
+import com.example.hms.model.PatientProblem;
+import com.example.hms.model.PatientVitalSign;
+import com.example.hms.model.Prescription;
 import com.example.hms.payload.dto.AuditEventRequestDTO;
 import com.example.hms.repository.EncounterRepository;
 import com.example.hms.repository.LabResultRepository;
@@ -20,21 +26,37 @@ import com.example.hms.repository.PatientProblemRepository;
 import com.example.hms.repository.PatientRepository;
 import com.example.hms.repository.PatientVitalSignRepository;
 import com.example.hms.repository.PrescriptionRepository;
+import com.example.hms.security.context.HospitalContext;
 import com.example.hms.security.context.HospitalContextHolder;
 import com.example.hms.service.AuditEventLogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.OperationOutcome;
 import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 /**
  * Patient-compartment {@code $everything} operation (roadmap row 22,
@@ -62,6 +84,17 @@ import java.util.UUID;
  * the Patient lookup itself the tenant gate is enforced via the
  * registration check on the loaded entity.
  *
+ * <p>Execution: the tenant gate and a compartment stamp
+ * ({@link PatientCompartmentStamps}) run first in one read-only
+ * transaction. When a Bundle built under the same stamp is still cached
+ * ({@link PatientEverythingCache}) it is served as-is. Otherwise every
+ * selected section is fetched concurrently on virtual threads, each in
+ * its own read-only transaction (so on the replica), with {@code _since}
+ * applied in SQL and a {@code Slice} query that skips the COUNT. Each
+ * section maps its rows before its transaction closes; the Bundle is
+ * assembled in the fixed section order, so output is identical to a
+ * sequential run.
+ *
  * <p>Feature-flagged via
  * {@link FhirOperationsProperties.Everything#isEnabled()}; flag-off
  * surfaces as {@code 405 Method Not Allowed} + a FHIR
@@ -79,6 +112,12 @@ public class PatientEverythingService {
      */
     private static final String PATIENT_PREFIX = "Patient/";
 
+    static final String METRIC_REQUESTS = "hms.fhir.everything.requests";
+    static final String TAG_CACHE = "cache";
+
+    /** Stands in for an absent {@code _since} so each section has one query shape. */
+    private static final LocalDateTime NO_SINCE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final FhirOperationsProperties operationsProperties;
     private final PatientRepository patientRepository;
     private final PatientHospitalRegistrationRepository registrationRepository;
@@ -93,6 +132,14 @@ public class PatientEverythingService {
     private final ConditionFhirMapper conditionMapper;
     private final MedicationRequestFhirMapper medicationRequestMapper;
     private final AuditEventLogService auditEventLogService;
+    private final PatientCompartmentStamps compartmentStamps;
+    private final TransactionTemplate readTx;
+    private final PatientEverythingCache cache;
+    private final ExecutorService sectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    /** Caps section queries in flight across all requests, so the fan-out cannot drain the pool. */
+    private final Semaphore sectionPermits;
+    @Nullable
+    private final MeterRegistry meterRegistry;
 
     public PatientEverythingService(
         FhirOperationsProperties operationsProperties,
@@ -108,7 +155,10 @@ public class PatientEverythingService {
         ObservationFhirMapper observationMapper,
         ConditionFhirMapper conditionMapper,
         MedicationRequestFhirMapper medicationRequestMapper,
-        AuditEventLogService auditEventLogService
+        AuditEventLogService auditEventLogService,
+        PatientCompartmentStamps compartmentStamps,
+        PlatformTransactionManager transactionManager,
+        @Nullable MeterRegistry meterRegistry
     ) {
         this.operationsProperties = operationsProperties;
         this.patientRepository = patientRepository;
@@ -124,6 +174,19 @@ public class PatientEverythingService {
         this.conditionMapper = conditionMapper;
         this.medicationRequestMapper = medicationRequestMapper;
         this.auditEventLogService = auditEventLogService;
+        this.compartmentStamps = compartmentStamps;
+        this.meterRegistry = meterRegistry;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        FhirOperationsProperties.Everything config = operationsProperties.getEverything();
+        this.cache = new PatientEverythingCache(
+            Duration.ofSeconds(config.getCacheTtlSeconds()), config.getCacheMaxEntries());
+        this.sectionPermits = new Semaphore(Math.max(1, config.getMaxConcurrentSections()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sectionExecutor.shutdownNow();
     }
 
     public boolean isEnabled() {
@@ -135,7 +198,6 @@ public class PatientEverythingService {
      * with no filters, default count, no cursor. Preserved for callers
      * that haven't migrated to the params-aware overload yet.
      */
-    @Transactional(readOnly = true)
     public Bundle everythingForPatient(UUID patientId) {
         return doEverythingForPatient(patientId,
             PatientEverythingParams.of(null, null, null, null));
@@ -145,42 +207,101 @@ public class PatientEverythingService {
      * Row-22 follow-on: parameterised $everything supporting
      * {@code _since} / {@code _type} / {@code _count} / {@code _page}.
      */
-    @Transactional(readOnly = true)
     public Bundle everythingForPatient(UUID patientId, PatientEverythingParams params) {
         return doEverythingForPatient(patientId, params);
     }
 
     /**
-     * Shared implementation behind both public overloads. Kept private
-     * so each overload's {@code @Transactional} entry-point goes
-     * through Spring's proxy without self-calling — Sonar S2229.
+     * Shared implementation behind both public overloads. Not
+     * {@code @Transactional}: the sections run on other threads, each in
+     * its own read-only transaction, and a request-thread transaction
+     * would only pin a connection while they run.
      */
     private Bundle doEverythingForPatient(UUID patientId, PatientEverythingParams params) {
         ensureEnabled();
         UUID hospitalId = resolveHospitalScopeOrForbid();
-        Patient patient = loadAndVerifyTenantOwnedPatient(patientId, hospitalId);
+        String stamp = readTx.execute(status -> {
+            Patient patient = loadAndVerifyTenantOwnedPatient(patientId, hospitalId);
+            return cache.isEnabled()
+                ? compartmentStamps.stamp(patientId, hospitalId, patient.getUpdatedAt(), params)
+                : null;
+        });
+
+        Bundle bundle = stamp == null ? null : cache.get(patientId, hospitalId, params, stamp);
+        recordRequest(bundle != null ? "hit" : (stamp == null ? "disabled" : "miss"));
+        if (bundle == null) {
+            bundle = assemble(SectionContext.forRequest(patientId, hospitalId, params));
+            if (stamp != null) cache.put(patientId, hospitalId, params, stamp, bundle);
+        }
+
+        emitAudit(patientId, describe(patientId, params, bundle.getTotal()));
+        return bundle;
+    }
+
+    private Bundle assemble(SectionContext ctx) {
+        List<Supplier<Section>> sections = new ArrayList<>(6);
+        if (ctx.includes("Patient") && ctx.isFirstPage()) sections.add(() -> patientSection(ctx));
+        if (ctx.includes("Encounter")) sections.add(() -> encounterSection(ctx));
+        if (ctx.includes("Observation")) {
+            sections.add(() -> vitalSignSection(ctx));
+            sections.add(() -> labResultSection(ctx));
+        }
+        if (ctx.includes("Condition")) sections.add(() -> conditionSection(ctx));
+        if (ctx.includes("MedicationRequest")) sections.add(() -> medicationRequestSection(ctx));
+
+        // The schema-per-tenant resolver reads the hospital context from a
+        // thread-local; hand it to every worker.
+        HospitalContext hospitalContext = HospitalContextHolder.getContextOrEmpty();
+        List<Future<Section>> futures = new ArrayList<>(sections.size());
+        for (Supplier<Section> section : sections) {
+            futures.add(sectionExecutor.submit(() -> runSection(hospitalContext, section)));
+        }
 
-        SectionContext ctx = SectionContext.forRequest(patientId, hospitalId, params);
         Bundle bundle = new Bundle();
         bundle.setType(Bundle.BundleType.SEARCHSET);
-
-        appendPatientSection(bundle, patient, ctx);
-        appendEncounterSection(bundle, ctx);
-        appendObservationSection(bundle, ctx);
-        appendConditionSection(bundle, ctx);
-        appendMedicationRequestSection(bundle, ctx);
+        boolean hasMore = false;
+        try {
+            for (Future<Section> future : futures) {
+                Section section = await(future);
+                section.resources().forEach(resource -> addEntry(bundle, resource));
+                hasMore |= section.hasMore();
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
 
         bundle.setTotal(bundle.getEntry().size());
-        if (ctx.hasMore()) {
+        if (hasMore) {
             bundle.addLink()
                 .setRelation("next")
-                .setUrl(nextLink(patientId, params, ctx.nextCursor()));
+                .setUrl(nextLink(ctx.patientId(), ctx.params(), ctx.nextCursor()));
         }
-
-        emitAudit(patient, describe(patientId, params, bundle.getTotal()));
         return bundle;
     }
 
+    private Section runSection(HospitalContext hospitalContext, Supplier<Section> section) throws InterruptedException {
+        sectionPermits.acquire();
+        try {
+            HospitalContextHolder.setContext(hospitalContext);
+            return readTx.execute(status -> section.get());
+        } finally {
+            HospitalContextHolder.clear();
+            sectionPermits.release();
+        }
+    }
+
+    private static Section await(Future<Section> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InternalErrorException("Interrupted while assembling Patient/$everything", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new InternalErrorException("Patient/$everything section failed", ex.getCause());
+        }
+    }
+
     private UUID resolveHospitalScopeOrForbid() {
         UUID hospitalId = HospitalContextHolder.getContextOrEmpty().getActiveHospitalId();
         if (hospitalId == null) {
@@ -210,74 +331,70 @@ public class PatientEverythingService {
         return patient;
     }
 
-    private void appendPatientSection(Bundle bundle, Patient patient, SectionContext ctx) {
+    private Section patientSection(SectionContext ctx) {
         // Patient itself is always emitted on the first page unless
         // _type explicitly excludes it; subsequent pages skip the
         // Patient entry to avoid duplicate emission across cursor
-        // iterations.
-        if (ctx.includes("Patient") && ctx.isFirstPage()
-            && ctx.passesSinceFilter(patient.getUpdatedAt())) {
-            addEntry(bundle, patientMapper.toFhir(patient));
-        }
+        // iterations. Re-read here (the gate's copy belongs to another
+        // transaction) so the mapper can walk its registrations.
+        return patientRepository.findById(ctx.patientId())
+            .filter(patient -> ctx.passesSinceFilter(patient.getUpdatedAt()))
+            .map(patient -> new Section(single(patientMapper.toFhir(patient)), false))
+            .orElse(Section.EMPTY);
     }
 
-    private void appendEncounterSection(Bundle bundle, SectionContext ctx) {
-        if (!ctx.includes("Encounter")) return;
-        Page<?> page = encounterRepository
-            .findByPatient_IdAndHospital_Id(ctx.patientId(), ctx.hospitalId(), ctx.pageRequest());
-        ctx.notePageOverflow(page);
-        page.forEach(e -> {
-            var encounter = (com.example.hms.model.Encounter) e;
-            if (ctx.passesSinceFilter(encounter.getUpdatedAt())) {
-                addEntry(bundle, encounterMapper.toFhir(encounter));
-            }
-        });
+    private Section encounterSection(SectionContext ctx) {
+        Slice<Encounter> page = encounterRepository
+            .findEverythingSlice(
+                ctx.patientId(), ctx.hospitalId(), ctx.sinceForQuery(), ctx.pageRequest());
+        List<Resource> out = new ArrayList<>(page.getNumberOfElements());
+        page.forEach(encounter -> out.add(encounterMapper.toFhir(encounter)));
+        return new Section(out, page.hasNext());
     }
 
-    private void appendObservationSection(Bundle bundle, SectionContext ctx) {
-        if (!ctx.includes("Observation")) return;
-        Page<com.example.hms.model.PatientVitalSign> vitals = vitalSignRepository
-            .findPageByPatient_IdAndHospital_IdOrderByRecordedAtDesc(
-                ctx.patientId(), ctx.hospitalId(), ctx.pageRequest());
-        ctx.notePageOverflow(vitals);
-        vitals.forEach(v -> {
-            if (ctx.passesSinceFilter(v.getUpdatedAt())) {
-                observationMapper.toFhir(v).forEach(o -> addEntry(bundle, o));
-            }
-        });
-        Page<com.example.hms.model.LabResult> labResults = labResultRepository
-            .findPageByLabOrder_Patient_IdAndLabOrder_Hospital_Id(
-                ctx.patientId(), ctx.hospitalId(), ctx.pageRequest());
-        ctx.notePageOverflow(labResults);
-        labResults.forEach(r -> {
-            if (ctx.passesSinceFilter(r.getUpdatedAt())) {
-                addEntry(bundle, observationMapper.toFhir(r));
-            }
-        });
+    private Section vitalSignSection(SectionContext ctx) {
+        Slice<PatientVitalSign> vitals = vitalSignRepository
+            .findEverythingSlice(
+                ctx.patientId(), ctx.hospitalId(), ctx.sinceForQuery(), ctx.pageRequest());
+        // One vitals row expands into up to ten Observations.
+        List<Resource> out = new ArrayList<>(vitals.getNumberOfElements() * 4);
+        vitals.forEach(v -> out.addAll(observationMapper.toFhir(v)));
+        return new Section(out, vitals.hasNext());
+    }
+
+    private Section labResultSection(SectionContext ctx) {
+        Slice<LabResult> labResults = labResultRepository
+            .findEverythingSlice(
+                ctx.patientId(), ctx.hospitalId(), ctx.sinceForQuery(), ctx.pageRequest());
+        List<Resource> out = new ArrayList<>(labResults.getNumberOfElements());
+        labResults.forEach(r -> out.add(observationMapper.toFhir(r)));
+        return new Section(out, labResults.hasNext());
     }
 
-    private void appendConditionSection(Bundle bundle, SectionContext ctx) {
-        if (!ctx.includes("Condition")) return;
+    private Section conditionSection(SectionContext ctx) {
         // Hospital-scoped per Copilot review (PR copilot-review) — the
         // previous findByPatient_Id call could leak problems recorded
         // at other hospitals for the same patient into a
         // hospital-scoped $everything response.
-        patientProblemRepository.findByPatient_IdAndHospital_Id(ctx.patientId(), ctx.hospitalId())
-            .stream()
-            .filter(c -> ctx.passesSinceFilter(c.getUpdatedAt()))
-            .forEach(c -> addEntry(bundle, conditionMapper.toFhir(c)));
+        List<PatientProblem> problems = patientProblemRepository
+            .findEverythingSince(
+                ctx.patientId(), ctx.hospitalId(), ctx.sinceForQuery());
+        List<Resource> out = new ArrayList<>(problems.size());
+        problems.forEach(c -> out.add(conditionMapper.toFhir(c)));
+        return new Section(out, false);
     }
 
-    private void appendMedicationRequestSection(Bundle bundle, SectionContext ctx) {
-        if (!ctx.includes("MedicationRequest")) return;
-        Page<com.example.hms.model.Prescription> prescriptions = prescriptionRepository
-            .findByPatient_IdAndHospital_Id(ctx.patientId(), ctx.hospitalId(), ctx.pageRequest());
-        ctx.notePageOverflow(prescriptions);
-        prescriptions.forEach(p -> {
-            if (ctx.passesSinceFilter(p.getUpdatedAt())) {
-                addEntry(bundle, medicationRequestMapper.toFhir(p));
-            }
-        });
+    private Section medicationRequestSection(SectionContext ctx) {
+        Slice<Prescription> prescriptions = prescriptionRepository
+            .findEverythingSlice(
+                ctx.patientId(), ctx.hospitalId(), ctx.sinceForQuery(), ctx.pageRequest());
+        List<Resource> out = new ArrayList<>(prescriptions.getNumberOfElements());
+        prescriptions.forEach(p -> out.add(medicationRequestMapper.toFhir(p)));
+        return new Section(out, prescriptions.hasNext());
+    }
+
+    private static List<Resource> single(Resource resource) {
+        return resource == null ? List.of() : List.of(resource);
     }
 
     private static String nextLink(UUID patientId, PatientEverythingParams params, int nextCursor) {
@@ -349,40 +466,57 @@ public class PatientEverythingService {
         return new ForbiddenOperationException(message, outcome);
     }
 
-    private void emitAudit(Patient patient, String description) {
+    private void emitAudit(UUID patientId, String description) {
         try {
             AuditEventRequestDTO request = AuditEventRequestDTO.builder()
                 .eventType(AuditEventType.PATIENT_EXPORT)
                 .status(AuditStatus.SUCCESS)
                 .entityType(AUDIT_ENTITY_TYPE)
-                .resourceId(patient.getId() == null ? null : patient.getId().toString())
+                .resourceId(patientId == null ? null : patientId.toString())
                 .eventDescription(description)
                 .build();
-            auditEventLogService.logEvent(request);
+            auditEventLogService.submitEvent(request);
         } catch (RuntimeException ex) {
             log.warn("audit emission failed for FHIR {}{}/$everything: {}",
-                PATIENT_PREFIX, patient.getId(), ex.toString());
+                PATIENT_PREFIX, patientId, ex.toString());
+        }
+    }
+
+    private void recordRequest(String cacheOutcome) {
+        if (meterRegistry == null) return;
+        try {
+            Counter.builder(METRIC_REQUESTS).tag(TAG_CACHE, cacheOutcome).register(meterRegistry).increment();
+        } catch (RuntimeException ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_REQUESTS, ex.getMessage());
         }
     }
 
+    /** One section's mapped resources, and whether its page overflowed. */
+    private record Section(List<Resource> resources, boolean hasMore) {
+        static final Section EMPTY = new Section(List.of(), false);
+    }
+
     /**
-     * Per-request state carried across the per-section helpers. Keeps
-     * the orchestrator method below the Sonar cognitive-complexity
-     * limit (S3776) and replaces the original {@code boolean[]{false}}
-     * mutable-holder pattern that triggered the "Brain Method" finding.
+     * Per-request inputs shared by the section fetchers. Immutable, so
+     * the concurrently running sections can read it without
+     * coordination; overflow is reported per {@link Section} instead.
      */
     private static final class SectionContext {
         private final UUID patientId;
         private final UUID hospitalId;
         private final PatientEverythingParams params;
         private final PageRequest pageRequest;
-        private boolean hasMore;
+        private final LocalDateTime sinceForQuery;
 
         private SectionContext(UUID patientId, UUID hospitalId, PatientEverythingParams params) {
             this.patientId = patientId;
             this.hospitalId = hospitalId;
             this.params = params;
             this.pageRequest = PageRequest.of(params.cursor(), params.count());
+            // Same UTC reading of updated_at the in-memory filter used before.
+            this.sinceForQuery = params.since() == null
+                ? NO_SINCE
+                : LocalDateTime.ofInstant(params.since(), ZoneOffset.UTC);
         }
 
         static SectionContext forRequest(UUID patientId, UUID hospitalId, PatientEverythingParams params) {
@@ -391,22 +525,17 @@ public class PatientEverythingService {
 
         UUID patientId() { return patientId; }
         UUID hospitalId() { return hospitalId; }
+        PatientEverythingParams params() { return params; }
         PageRequest pageRequest() { return pageRequest; }
+        LocalDateTime sinceForQuery() { return sinceForQuery; }
         boolean isFirstPage() { return params.cursor() == 0; }
         boolean includes(String type) { return params.includes(type); }
-        boolean hasMore() { return hasMore; }
         int nextCursor() { return params.cursor() + 1; }
 
-        boolean passesSinceFilter(java.time.LocalDateTime updatedAt) {
+        boolean passesSinceFilter(LocalDateTime updatedAt) {
             if (params.since() == null) return true;
             Instant resolved = updatedAt == null ? null : updatedAt.toInstant(ZoneOffset.UTC);
             return params.afterSince(resolved);
         }
-
-        void notePageOverflow(Page<?> page) {
-            if (page != null && page.hasNext()) {
-                this.hasMore = true;
-            }
-        }
     }
 }
@@ -0,0 +1,265 @@
+package com.example.hms.hl7;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass, index-only view over an HL7 v2 message.
+ *
+ * <p>{@link #parse} walks the text once and records where every segment
+ * and every field starts and ends; nothing is copied. Values are only
+ * materialised when a caller asks for them ({@link #field},
+ * {@link #component}), so a handler that reads a dozen fields out of a
+ * 40-field OBX pays for a dozen substrings, not for a regex compile and a
+ * {@code String[]} per segment.
+ *
+ * <p>Delimiters come from the message itself: the field separator is
+ * MSH-1 and the component / repetition / escape / sub-component
+ * characters are MSH-2. A body that does not start with {@code MSH} is
+ * still indexed with the standard {@code |^~\&} set so fragment parsing
+ * (tests, replays) keeps working. Segments end at {@code CR} or
+ * {@code LF}; runs of terminators and blank segments are skipped.
+ *
+ * <p>Field numbering follows the standard: for ordinary segments field 0 is
+ * the segment id; for MSH, {@code field(msh, 1)} is the field separator
+ * and {@code field(msh, 2)} the encoding characters. Absent fields and
+ * components read as {@code ""}. Instances are immutable and thread-safe;
+ * the underlying {@link CharSequence} must not change after parsing.
+ */
+public final class Hl7v2Message {
+
+    public static final char DEFAULT_FIELD_SEPARATOR = '|';
+    public static final String DEFAULT_ENCODING_CHARACTERS = "^~\\&";
+
+    private static final String MSH = "MSH";
+
+    private final CharSequence text;
+    private final char fieldSeparator;
+    private final char componentSeparator;
+    private final char repetitionSeparator;
+    private final char subComponentSeparator;
+    private final String encodingCharacters;
+    private final int segmentCount;
+    /** Index into {@link #tokenBounds} of each segment's first token. */
+    private final int[] segmentFirstToken;
+    /** Token count per segment; token 0 is the segment id. */
+    private final int[] segmentTokenCount;
+    /** Flattened {@code [start, end)} pairs for every token of every segment. */
+    private final int[] tokenBounds;
+
+    private Hl7v2Message(CharSequence text, char fieldSeparator, String encodingCharacters,
+                         int segmentCount, int[] segmentFirstToken, int[] segmentTokenCount,
+                         int[] tokenBounds) {
+        this.text = text;
+        this.fieldSeparator = fieldSeparator;
+        this.encodingCharacters = encodingCharacters;
+        this.componentSeparator = encodingChar(encodingCharacters, 0, '^');
+        this.repetitionSeparator = encodingChar(encodingCharacters, 1, '~');
+        this.subComponentSeparator = encodingChar(encodingCharacters, 3, '&');
+        this.segmentCount = segmentCount;
+        this.segmentFirstToken = segmentFirstToken;
+        this.segmentTokenCount = segmentTokenCount;
+        this.tokenBounds = tokenBounds;
+    }
+
+    /**
+     * Index {@code text} in one pass.
+     *
+     * @throws IllegalArgumentException if {@code text} is {@code null} or
+     *         starts with {@code MSH} but has no field separator after it
+     */
+    public static Hl7v2Message parse(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("HL7 message is null");
+        }
+        int length = text.length();
+        char fs = DEFAULT_FIELD_SEPARATOR;
+        boolean startsWithMsh = startsWith(text, 0, MSH);
+        if (startsWithMsh) {
+            if (length < 4 || isTerminator(text.charAt(3))) {
+                throw new IllegalArgumentException("MSH segment has no field separator");
+            }
+            fs = text.charAt(3);
+        }
+
+        // Typical messages run 30-60 chars per field; start small and grow.
+        int[] bounds = new int[Math.max(32, (length / 6) & ~1)];
+        int[] firstToken = new int[16];
+        int[] tokenCount = new int[16];
+        int tokens = 0;
+        int segments = 0;
+
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (isTerminator(c)) {
+                pos++;
+                continue;
+            }
+            if (segments == firstToken.length) {
+                firstToken = Arrays.copyOf(firstToken, segments * 2);
+                tokenCount = Arrays.copyOf(tokenCount, segments * 2);
+            }
+            firstToken[segments] = tokens;
+            int tokenStart = pos;
+            while (pos < length) {
+                c = text.charAt(pos);
+                if (c == fs || isTerminator(c)) {
+                    if ((tokens + 1) * 2 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                    bounds[tokens * 2] = tokenStart;
+                    bounds[tokens * 2 + 1] = pos;
+                    tokens++;
+                    if (c != fs) break;
+                    tokenStart = pos + 1;
+                }
+                pos++;
+            }
+            if (pos == length) {
+                // Last segment without a trailing terminator.
+                if ((tokens + 1) * 2 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                bounds[tokens * 2] = tokenStart;
+                bounds[tokens * 2 + 1] = pos;
+                tokens++;
+            }
+            tokenCount[segments] = tokens - firstToken[segments];
+            segments++;
+        }
+
+        String encoding = DEFAULT_ENCODING_CHARACTERS;
+        if (startsWithMsh && segments > 0 && tokenCount[0] > 1) {
+            // MSH token 1 is MSH-2; the encoding characters never contain the field separator.
+            encoding = text.subSequence(bounds[2], bounds[3]).toString();
+        }
+        return new Hl7v2Message(text, fs, encoding, segments, firstToken, tokenCount, bounds);
+    }
+
+    public char fieldSeparator() {
+        return fieldSeparator;
+    }
+
+    public String encodingCharacters() {
+        return encodingCharacters;
+    }
+
+    public char componentSeparator() {
+        return componentSeparator;
+    }
+
+    public char repetitionSeparator() {
+        return repetitionSeparator;
+    }
+
+    public char subComponentSeparator() {
+        return subComponentSeparator;
+    }
+
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    /** True when segment {@code segment}'s id equals {@code name}; allocation-free. */
+    public boolean isSegment(int segment, String name) {
+        int token = segmentFirstToken[segment];
+        int start = tokenBounds[token * 2];
+        int end = tokenBounds[token * 2 + 1];
+        return end - start == name.length() && startsWith(text, start, name);
+    }
+
+    public String segmentName(int segment) {
+        int token = segmentFirstToken[segment];
+        return text.subSequence(tokenBounds[token * 2], tokenBounds[token * 2 + 1]).toString();
+    }
+
+    /** Index of the first segment named {@code name} at or after {@code from}, or {@code -1}. */
+    public int findSegment(String name, int from) {
+        for (int i = Math.max(0, from); i < segmentCount; i++) {
+            if (isSegment(i, name)) return i;
+        }
+        return -1;
+    }
+
+    public int findSegment(String name) {
+        return findSegment(name, 0);
+    }
+
+    /** Number of fields in the segment, excluding the segment id. */
+    public int fieldCount(int segment) {
+        int count = segmentTokenCount[segment] - 1;
+        // MSH-1 is the separator itself and has no token of its own.
+        return isSegment(segment, MSH) ? count + 1 : count;
+    }
+
+    /** Raw field value, repetitions and components included; {@code ""} when absent. */
+    public String field(int segment, int field) {
+        if (segment < 0 || segment >= segmentCount) return "";
+        if (field == 1 && isSegment(segment, MSH)) return String.valueOf(fieldSeparator);
+        int token = tokenIndex(segment, field);
+        if (token < 0) return "";
+        return text.subSequence(tokenBounds[token * 2], tokenBounds[token * 2 + 1]).toString();
+    }
+
+    /**
+     * Component {@code component} (1-based) of the first repetition of the
+     * field; {@code component(seg, f, 1)} is what most handlers mean by "the
+     * id part" of a CE / CX / XCN value.
+     */
+    public String component(int segment, int field, int component) {
+        return component(segment, field, 0, component);
+    }
+
+    /** Component {@code component} (1-based) of repetition {@code repetition} (0-based). */
+    public String component(int segment, int field, int repetition, int component) {
+        if (segment < 0 || segment >= segmentCount || component < 1 || repetition < 0) return "";
+        int token = tokenIndex(segment, field);
+        if (token < 0) return "";
+        int start = tokenBounds[token * 2];
+        int end = tokenBounds[token * 2 + 1];
+
+        int pos = start;
+        for (int r = 0; r < repetition; r++) {
+            pos = indexOf(repetitionSeparator, pos, end);
+            if (pos < 0) return "";
+            pos++;
+        }
+        int repEnd = indexOf(repetitionSeparator, pos, end);
+        if (repEnd < 0) repEnd = end;
+
+        for (int c = 1; c < component; c++) {
+            pos = indexOf(componentSeparator, pos, repEnd);
+            if (pos < 0) return "";
+            pos++;
+        }
+        int compEnd = indexOf(componentSeparator, pos, repEnd);
+        if (compEnd < 0) compEnd = repEnd;
+        return text.subSequence(pos, compEnd).toString();
+    }
+
+    private int tokenIndex(int segment, int field) {
+        // For MSH the separator (MSH-1) is not a token, so MSH-n sits at token n-1.
+        int tokenOffset = isSegment(segment, MSH) ? field - 1 : field;
+        if (tokenOffset < 0 || tokenOffset >= segmentTokenCount[segment]) return -1;
+        return segmentFirstToken[segment] + tokenOffset;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '\r' || c == '\n';
+    }
+
+    private static boolean startsWith(CharSequence text, int offset, String prefix) {
+        if (text.length() - offset < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static char encodingChar(String encoding, int index, char fallback) {
+        return encoding.length() > index ? encoding.charAt(index) : fallback;
+    }
+}
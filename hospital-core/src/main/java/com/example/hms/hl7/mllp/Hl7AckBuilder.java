@@ -16,7 +16,12 @@ public final class Hl7AckBuilder {
     private static final DateTimeFormatter HL7_DTM = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
     public static final String CR = "\r";
 
-    public enum AckCode { AA, AE, AR }
+    /**
+     * {@code AA/AE/AR} are application-level (original mode). {@code CA/CE/CR}
+     * are the enhanced-mode commit acknowledgements: the message was safely
+     * stored, application processing happens later.
+     */
+    public enum AckCode { AA, AE, AR, CA, CE, CR }
 
     private Hl7AckBuilder() {}
 
@@ -1,6 +1,10 @@
 package com.example.hms.hl7.mllp;
 
+import com.example.hms.async.OruResultEnvelope;
+import com.example.hms.async.OruResultQueue;
+import com.example.hms.async.OruResultQueueException;
 import com.example.hms.enums.integration.IntegrationMessageDirection;
+import com.example.hms.hl7.Hl7v2Message;
 import com.example.hms.enums.integration.IntegrationMessageStatus;
 import com.example.hms.model.Hospital;
 import com.example.hms.service.integration.MllpInboundAdtService;
@@ -13,8 +17,11 @@ import com.example.hms.utility.Hl7v2MessageBuilder.ParsedAdtMessage;
 import com.example.hms.utility.Hl7v2MessageBuilder.ParsedObservation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -47,6 +54,13 @@ import java.util.UUID;
  * maps to ACK codes: {@code ACCEPTED → AA},
  * {@code REJECTED_NOT_FOUND/INVALID → AE},
  * {@code REJECTED_CROSS_TENANT → AR}.
+ *
+ * <p>With {@code app.async.pipeline.enabled=true} an {@link OruResultQueue}
+ * is present and allowlisted {@code ORU^R01} frames take the pipelined
+ * path instead: the frame is durably queued and answered with a commit
+ * ACK ({@code CA}) without parsing; {@code CE} if the queue refused it so
+ * the analyzer retransmits. The application outcome is recorded on the
+ * integration-message surface by {@link com.example.hms.async.OruResultSettler}.
  */
 @Component
 public class Hl7MessageDispatcher {
@@ -60,23 +74,47 @@ public class Hl7MessageDispatcher {
     private final MllpInboundLabService inboundLab;
     private final MllpInboundAdtService inboundAdt;
     private final IntegrationMessageRecorder messageRecorder;
+    private final OruResultQueue oruQueue;
 
     public Hl7MessageDispatcher(Hl7v2MessageBuilder messageBuilder,
                                 MllpAllowedSenderService allowlist,
                                 MllpInboundLabService inboundLab,
                                 MllpInboundAdtService inboundAdt,
                                 IntegrationMessageRecorder messageRecorder) {
+        this(messageBuilder, allowlist, inboundLab, inboundAdt, messageRecorder, (OruResultQueue) null);
+    }
+
+    @Autowired
+    public Hl7MessageDispatcher(Hl7v2MessageBuilder messageBuilder,
+                                MllpAllowedSenderService allowlist,
+                                MllpInboundLabService inboundLab,
+                                MllpInboundAdtService inboundAdt,
+                                IntegrationMessageRecorder messageRecorder,
+                                ObjectProvider<OruResultQueue> oruQueue) {
+        this(messageBuilder, allowlist, inboundLab, inboundAdt, messageRecorder, oruQueue.getIfAvailable());
+    }
+
+    Hl7MessageDispatcher(Hl7v2MessageBuilder messageBuilder,
+                         MllpAllowedSenderService allowlist,
+                         MllpInboundLabService inboundLab,
+                         MllpInboundAdtService inboundAdt,
+                         IntegrationMessageRecorder messageRecorder,
+                         OruResultQueue oruQueue) {
         this.messageBuilder = messageBuilder;
         this.allowlist = allowlist;
         this.inboundLab = inboundLab;
         this.inboundAdt = inboundAdt;
         this.messageRecorder = messageRecorder;
+        this.oruQueue = oruQueue;
     }
 
     public String dispatch(String hl7Body, String remoteAddress) {
+        // Index the body once; the header and the domain parser share it.
+        Hl7v2Message message;
         Hl7MessageHeader header;
         try {
-            header = Hl7MessageInspector.parseHeader(hl7Body);
+            message = Hl7MessageInspector.index(hl7Body);
+            header = Hl7MessageInspector.parseHeader(message);
         } catch (MllpProtocolException ex) {
             log.warn("[MLLP {}] Rejecting message — invalid MSH: {}", remoteAddress, ex.getMessage());
             // No parsed header — record under a sentinel integration id
@@ -110,10 +148,13 @@ public class Hl7MessageDispatcher {
         String trigger = header.triggerEvent();
 
         if ("ORU".equals(code) && "R01".equals(trigger)) {
-            return handleOru(header, hl7Body, remoteAddress, hospital.get());
+            if (oruQueue != null) {
+                return enqueueOru(header, hl7Body, remoteAddress, hospital.get());
+            }
+            return handleOru(header, message, hl7Body, remoteAddress, hospital.get());
         }
         if ("ADT".equals(code) && trigger != null && ACCEPTED_ADT_EVENTS.contains(trigger)) {
-            return handleAdt(header, hl7Body, remoteAddress, hospital.get());
+            return handleAdt(header, message, hl7Body, remoteAddress, hospital.get());
         }
 
         log.warn("[MLLP {}] Unsupported message type {} from {}/{}",
@@ -126,9 +167,9 @@ public class Hl7MessageDispatcher {
             "Unsupported message type " + header.messageType());
     }
 
-    private String handleOru(Hl7MessageHeader header, String hl7Body,
+    private String handleOru(Hl7MessageHeader header, Hl7v2Message message, String hl7Body,
                              String remoteAddress, Hospital hospital) {
-        ParsedObservation obs = messageBuilder.parseOruR01(hl7Body);
+        ParsedObservation obs = messageBuilder.parseIndexedOruR01(message);
         if (obs == null) {
             log.warn("[MLLP {}] ORU^R01 from {}/{} unparseable",
                 remoteAddress, header.sendingApplication(), header.sendingFacility());
@@ -148,9 +189,25 @@ public class Hl7MessageDispatcher {
         return ackForOutcome(header, outcome, "ORU^R01");
     }
 
-    private String handleAdt(Hl7MessageHeader header, String hl7Body,
+    private String enqueueOru(Hl7MessageHeader header, String hl7Body,
+                              String remoteAddress, Hospital hospital) {
+        OruResultEnvelope envelope = new OruResultEnvelope(
+            hospital.getId(), header.sendingApplication(), header.sendingFacility(),
+            header.messageControlId(), remoteAddress, hl7Body, Instant.now());
+        try {
+            oruQueue.enqueue(envelope);
+        } catch (OruResultQueueException ex) {
+            log.warn("[MLLP {}] CE — ORU^R01 from {}/{} not queued: {}",
+                remoteAddress, header.sendingApplication(), header.sendingFacility(), ex.getMessage());
+            return Hl7AckBuilder.buildAck(header, Hl7AckBuilder.AckCode.CE,
+                "Result queue unavailable, retry");
+        }
+        return Hl7AckBuilder.buildAck(header, Hl7AckBuilder.AckCode.CA, null);
+    }
+
+    private String handleAdt(Hl7MessageHeader header, Hl7v2Message message, String hl7Body,
                              String remoteAddress, Hospital hospital) {
-        ParsedAdtMessage parsed = messageBuilder.parseAdtMessage(hl7Body, header.triggerEvent());
+        ParsedAdtMessage parsed = messageBuilder.parseIndexedAdtMessage(message, header.triggerEvent());
         if (parsed == null) {
             log.warn("[MLLP {}] {} from {}/{} unparseable (missing PID-3 / segments)",
                 remoteAddress, header.messageType(),
@@ -1,5 +1,7 @@
 package com.example.hms.hl7.mllp;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -19,7 +21,8 @@ import org.springframework.context.annotation.Configuration;
 public class MllpAutoConfiguration {
 
     @Bean(destroyMethod = "stop")
-    public MllpTcpServer mllpTcpServer(MllpProperties properties, Hl7MessageDispatcher dispatcher) {
-        return new MllpTcpServer(properties, dispatcher);
+    public MllpTcpServer mllpTcpServer(MllpProperties properties, Hl7MessageDispatcher dispatcher,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MllpTcpServer(properties, dispatcher, meterRegistry.getIfAvailable());
     }
 }
@@ -0,0 +1,216 @@
+package com.example.hms.hl7.mllp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Keeps idle outbound MLLP sockets per destination so consecutive messages
+ * to the same analyzer skip the TCP (and middleware session) handshake.
+ *
+ * <p>The reason {@link MllpOutboundSender} used to connect per message still
+ * holds: lab equipment drops idle connections without a FIN reaching us.
+ * So a pooled socket is never trusted blindly. On every borrow it is
+ * <ul>
+ *   <li>discarded once idle longer than {@code idleTimeoutMs} — shorter
+ *       than the analyzer's own idle cut-off, so we close first;</li>
+ *   <li>probed with a 1 ms non-blocking read: {@code -1} means the peer
+ *       closed (half-open on our side), stray bytes mean the stream is out
+ *       of step with the ACK protocol — both discard; a timeout is the
+ *       healthy answer.</li>
+ * </ul>
+ * A socket that fails mid-exchange is closed, never returned.
+ *
+ * <p>Thread-safe. Each borrowed connection is used by one caller at a time;
+ * MLLP original mode has one message in flight per connection.
+ */
+@Slf4j
+public class MllpConnectionPool implements AutoCloseable {
+
+    private static final int PROBE_TIMEOUT_MS = 1;
+
+    public record Destination(String host, int port) {
+        @Override
+        public String toString() {
+            return host + ":" + port;
+        }
+    }
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final int maxIdlePerDestination;
+    private final long idleTimeoutMs;
+    private final Map<Destination, Deque<Connection>> idle = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public MllpConnectionPool(int connectTimeoutMs, int readTimeoutMs,
+                              int maxIdlePerDestination, long idleTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.maxIdlePerDestination = maxIdlePerDestination;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /** A socket plus whether it came out of the pool (vs. freshly connected). */
+    public static final class Connection {
+        private final Destination destination;
+        private final Socket socket;
+        private final boolean reused;
+        private long idleSince;
+
+        private Connection(Destination destination, Socket socket, boolean reused) {
+            this.destination = destination;
+            this.socket = socket;
+            this.reused = reused;
+        }
+
+        public OutputStream out() throws IOException {
+            return socket.getOutputStream();
+        }
+
+        public InputStream in() throws IOException {
+            return socket.getInputStream();
+        }
+
+        /** True when the socket was pooled — a failure on it may just mean it went stale. */
+        public boolean reused() {
+            return reused;
+        }
+    }
+
+    /** An idle healthy connection to {@code destination}, or a fresh one. */
+    public Connection borrow(Destination destination) throws IOException {
+        Deque<Connection> queue = idle.get(destination);
+        if (queue != null) {
+            Connection candidate;
+            while ((candidate = queue.pollFirst()) != null) {
+                if (isHealthy(candidate)) {
+                    return new Connection(destination, candidate.socket, true);
+                }
+                closeQuietly(candidate.socket);
+            }
+        }
+        return open(destination);
+    }
+
+    /** A freshly connected socket to {@code destination}, bypassing the idle queue. */
+    public Connection open(Destination destination) throws IOException {
+        return new Connection(destination, connect(destination), false);
+    }
+
+    /**
+     * Closes every idle connection to {@code destination}. Called when a
+     * pooled socket fails: its siblings were cut by the same idle timeout or
+     * receiver restart, and the probe in {@link #borrow} cannot always tell.
+     */
+    public void evict(Destination destination) {
+        Deque<Connection> queue = idle.get(destination);
+        if (queue == null) return;
+        Connection connection;
+        while ((connection = queue.pollFirst()) != null) {
+            closeQuietly(connection.socket);
+        }
+    }
+
+    /** Back to the pool after a clean request/ACK exchange. */
+    public void release(Connection connection) {
+        if (closed || maxIdlePerDestination <= 0 || connection.socket.isClosed()) {
+            closeQuietly(connection.socket);
+            return;
+        }
+        Deque<Connection> queue = idle.computeIfAbsent(connection.destination, d -> new ConcurrentLinkedDeque<>());
+        connection.idleSince = System.nanoTime();
+        // Most recently used first: it is the least likely to have been cut.
+        queue.offerFirst(connection);
+        while (queue.size() > maxIdlePerDestination) {
+            Connection eldest = queue.pollLast();
+            if (eldest == null) break;
+            closeQuietly(eldest.socket);
+        }
+    }
+
+    /** Closes a connection whose exchange failed or whose stream state is unknown. */
+    public void invalidate(Connection connection) {
+        closeQuietly(connection.socket);
+    }
+
+    public int idleCount(Destination destination) {
+        Deque<Connection> queue = idle.get(destination);
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        idle.values().forEach(queue -> {
+            Connection connection;
+            while ((connection = queue.pollFirst()) != null) {
+                closeQuietly(connection.socket);
+            }
+        });
+    }
+
+    private Socket connect(Destination destination) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setKeepAlive(true);
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(destination.host(), destination.port()), connectTimeoutMs);
+            socket.setSoTimeout(readTimeoutMs);
+            return socket;
+        } catch (IOException ex) {
+            closeQuietly(socket);
+            throw ex;
+        }
+    }
+
+    private boolean isHealthy(Connection connection) {
+        Socket socket = connection.socket;
+        if (System.nanoTime() - connection.idleSince > idleTimeoutMs * 1_000_000L) {
+            log.debug("[MLLP-OUT {}] Closing pooled connection idle past {} ms",
+                connection.destination, idleTimeoutMs);
+            return false;
+        }
+        if (socket.isClosed() || !socket.isConnected() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return false;
+        }
+        try {
+            socket.setSoTimeout(PROBE_TIMEOUT_MS);
+            int read = socket.getInputStream().read();
+            if (read < 0) {
+                log.debug("[MLLP-OUT {}] Peer closed pooled connection", connection.destination);
+            } else {
+                log.warn("[MLLP-OUT {}] Unsolicited byte 0x{} on idle connection; discarding it",
+                    connection.destination, Integer.toHexString(read));
+            }
+            return false;
+        } catch (SocketTimeoutException expected) {
+            // Nothing to read and not closed: the healthy case.
+        } catch (IOException ex) {
+            return false;
+        }
+        try {
+            socket.setSoTimeout(readTimeoutMs);
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already broken; nothing left to release.
+        }
+    }
+}
@@ -77,10 +77,21 @@ public final class MllpFrameCodec {
      * The message is encoded with {@code charset}.
      */
     public static void writeFrame(OutputStream out, String message, Charset charset) throws IOException {
-        out.write(START_BLOCK);
-        out.write(message.getBytes(charset));
-        out.write(END_BLOCK);
-        out.write(CARRIAGE_RETURN);
+        out.write(encodeFrame(message, charset));
         out.flush();
     }
+
+    /**
+     * The complete frame as one array, so an unbuffered socket stream sends
+     * it with a single write instead of four.
+     */
+    public static byte[] encodeFrame(String message, Charset charset) {
+        byte[] body = message.getBytes(charset);
+        byte[] frame = new byte[body.length + 3];
+        frame[0] = START_BLOCK;
+        System.arraycopy(body, 0, frame, 1, body.length);
+        frame[body.length + 1] = END_BLOCK;
+        frame[body.length + 2] = CARRIAGE_RETURN;
+        return frame;
+    }
 }
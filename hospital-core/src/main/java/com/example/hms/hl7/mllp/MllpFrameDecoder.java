@@ -0,0 +1,132 @@
+package com.example.hms.hl7.mllp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Incremental MLLP frame scanner over bulk {@link ByteBuffer} reads — the
+ * counterpart of {@link MllpFrameCodec#readFrame} for the
+ * {@link MllpProperties.Transport#VIRTUAL_THREADS} transport.
+ *
+ * <p>{@code readFrame} pulls one byte per {@code InputStream.read()} call;
+ * this decoder is fed whatever a single socket read returned and scans it
+ * with a tight loop over the backing array, copying body runs in bulk. A
+ * read may hold a partial frame, exactly one, or several back-to-back
+ * frames; state carries across calls. The body buffer is reused for every
+ * frame on the connection and only grows (up to {@code maxFrameBytes}).
+ *
+ * <p>Framing rules match {@code readFrame}: bytes before {@code <VT>} are
+ * skipped, {@code <FS>} must be followed by {@code <CR>}, and an oversized
+ * body raises {@link MllpProtocolException}. Not thread-safe — one decoder
+ * per connection.
+ */
+public final class MllpFrameDecoder {
+
+    private static final int INITIAL_BODY_BYTES = 4 * 1024;
+
+    private enum State { SEEKING_START, IN_BODY, SAW_END_BLOCK }
+
+    private final int maxFrameBytes;
+    private byte[] body = new byte[INITIAL_BODY_BYTES];
+    private int length;
+    private State state = State.SEEKING_START;
+    private boolean frameReady;
+
+    public MllpFrameDecoder(int maxFrameBytes) {
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Consume bytes from {@code in} (position to limit) until one frame
+     * completes or the buffer is drained. On {@code true} the frame is
+     * available through {@link #frameBytes()}/{@link #frameLength()} until the
+     * next call, and {@code in}'s position sits just past the frame's
+     * {@code <CR>} so the caller can loop for further frames.
+     */
+    public boolean decode(ByteBuffer in) {
+        if (frameReady) {
+            frameReady = false;
+            length = 0;
+        }
+        byte[] array = in.array();
+        int offset = in.arrayOffset();
+        int pos = in.position();
+        int limit = in.limit();
+        while (pos < limit) {
+            switch (state) {
+                case SEEKING_START -> {
+                    // Tolerate idle bytes per common analyzer behaviour.
+                    while (pos < limit && array[offset + pos] != MllpFrameCodec.START_BLOCK) pos++;
+                    if (pos < limit) {
+                        pos++;
+                        state = State.IN_BODY;
+                    }
+                }
+                case IN_BODY -> {
+                    int runStart = pos;
+                    while (pos < limit && array[offset + pos] != MllpFrameCodec.END_BLOCK) pos++;
+                    append(array, offset + runStart, pos - runStart);
+                    if (pos < limit) {
+                        pos++;
+                        state = State.SAW_END_BLOCK;
+                    }
+                }
+                case SAW_END_BLOCK -> {
+                    byte b = array[offset + pos++];
+                    if (b != MllpFrameCodec.CARRIAGE_RETURN) {
+                        in.position(pos);
+                        reset();
+                        throw new MllpProtocolException(
+                            "Expected <CR> after <FS>, got 0x" + Integer.toHexString(b & 0xFF));
+                    }
+                    state = State.SEEKING_START;
+                    frameReady = true;
+                    in.position(pos);
+                    return true;
+                }
+            }
+        }
+        in.position(pos);
+        return false;
+    }
+
+    /** Backing array of the last decoded frame; valid up to {@link #frameLength()}. */
+    public byte[] frameBytes() {
+        return body;
+    }
+
+    public int frameLength() {
+        return length;
+    }
+
+    /** Decodes the last frame without an intermediate {@code byte[]} copy. */
+    public String frameAsString(Charset charset) {
+        return new String(body, 0, length, charset);
+    }
+
+    /** True when the peer stopped mid-frame — EOF now means a truncated frame. */
+    public boolean isMidFrame() {
+        return state != State.SEEKING_START;
+    }
+
+    private void append(byte[] src, int from, int count) {
+        if (count == 0) return;
+        if (length + count > maxFrameBytes) {
+            reset();
+            throw new MllpProtocolException("MLLP frame exceeds limit of " + maxFrameBytes + " bytes");
+        }
+        if (length + count > body.length) {
+            int grown = Math.min(maxFrameBytes, Math.max(body.length * 2, length + count));
+            body = Arrays.copyOf(body, grown);
+        }
+        System.arraycopy(src, from, body, length, count);
+        length += count;
+    }
+
+    private void reset() {
+        state = State.SEEKING_START;
+        length = 0;
+        frameReady = false;
+    }
+}
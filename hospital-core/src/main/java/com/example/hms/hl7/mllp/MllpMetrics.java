@@ -0,0 +1,125 @@
+package com.example.hms.hl7.mllp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer instrumentation for {@link MllpTcpServer}. Null-safe: with no
+ * {@link MeterRegistry} (tests, metrics disabled) every call only updates
+ * the in-process active-connection count.
+ *
+ * <ul>
+ *   <li>{@code hms.hl7.mllp.connections.active} — gauge of open sockets;</li>
+ *   <li>{@code hms.hl7.mllp.connections} — accepted/rejected, tag {@code outcome};</li>
+ *   <li>{@code hms.hl7.mllp.frames} — decoded frames, tag {@code outcome} (ok/malformed);</li>
+ *   <li>{@code hms.hl7.mllp.frame.bytes} — body size distribution;</li>
+ *   <li>{@code hms.hl7.mllp.ack.latency} — frame fully read to ACK flushed,
+ *       i.e. the time an analyzer waits on us.</li>
+ * </ul>
+ */
+public class MllpMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(MllpMetrics.class);
+
+    static final String METRIC_ACTIVE = "hms.hl7.mllp.connections.active";
+    static final String METRIC_CONNECTIONS = "hms.hl7.mllp.connections";
+    static final String METRIC_FRAMES = "hms.hl7.mllp.frames";
+    static final String METRIC_FRAME_BYTES = "hms.hl7.mllp.frame.bytes";
+    static final String METRIC_ACK_LATENCY = "hms.hl7.mllp.ack.latency";
+    static final String TAG_OUTCOME = "outcome";
+    static final String TAG_TRANSPORT = "transport";
+
+    private final MeterRegistry registry;
+    private final String transport;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter framesOk;
+    private final Counter framesMalformed;
+    private final DistributionSummary frameBytes;
+    private final Timer ackLatency;
+
+    public MllpMetrics(MeterRegistry registry, MllpProperties.Transport transport) {
+        this.registry = registry;
+        this.transport = transport.name().toLowerCase(Locale.ROOT);
+        if (registry == null) {
+            accepted = null;
+            rejected = null;
+            framesOk = null;
+            framesMalformed = null;
+            frameBytes = null;
+            ackLatency = null;
+            return;
+        }
+        Gauge.builder(METRIC_ACTIVE, active, AtomicInteger::get)
+            .tag(TAG_TRANSPORT, this.transport)
+            .register(registry);
+        accepted = counter(METRIC_CONNECTIONS, "accepted");
+        rejected = counter(METRIC_CONNECTIONS, "rejected");
+        framesOk = counter(METRIC_FRAMES, "ok");
+        framesMalformed = counter(METRIC_FRAMES, "malformed");
+        frameBytes = DistributionSummary.builder(METRIC_FRAME_BYTES)
+            .baseUnit("bytes")
+            .tag(TAG_TRANSPORT, this.transport)
+            .register(registry);
+        ackLatency = Timer.builder(METRIC_ACK_LATENCY)
+            .tag(TAG_TRANSPORT, this.transport)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+    }
+
+    public void connectionOpened() {
+        active.incrementAndGet();
+        increment(accepted);
+    }
+
+    public void connectionClosed() {
+        active.decrementAndGet();
+    }
+
+    public void connectionRejected() {
+        increment(rejected);
+    }
+
+    public void frameReceived(int bytes) {
+        increment(framesOk);
+        if (frameBytes != null) frameBytes.record(bytes);
+    }
+
+    public void frameMalformed() {
+        increment(framesMalformed);
+    }
+
+    public void ackSent(long startedNanos) {
+        if (ackLatency != null) ackLatency.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int activeConnections() {
+        return active.get();
+    }
+
+    private Counter counter(String name, String outcome) {
+        return Counter.builder(name)
+            .tag(TAG_OUTCOME, outcome)
+            .tag(TAG_TRANSPORT, transport)
+            .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter == null) return;
+        try {
+            counter.increment();
+        } catch (RuntimeException ex) {
+            log.debug("[MLLP] Failed to record metric: {}", ex.getMessage());
+        }
+    }
+}
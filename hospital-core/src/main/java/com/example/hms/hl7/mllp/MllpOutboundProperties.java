@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Outbound MLLP transport (P2 #17).
@@ -57,4 +59,38 @@ public class MllpOutboundProperties {
 
     /** Messages transmitted per sweep, so one backlog cannot monopolise the run. */
     private int batchSize = 50;
+
+    /**
+     * Keep sockets open between messages ({@link MllpConnectionPool}). Off
+     * restores the original connect-per-message behaviour for equipment that
+     * insists on it.
+     */
+    private boolean pooled = true;
+
+    /** Idle sockets kept per destination. */
+    private int maxIdlePerDestination = 2;
+
+    /**
+     * Pooled sockets idle longer than this are closed rather than reused. Keep
+     * it below the analyser's own idle cut-off so we, not it, end the session.
+     */
+    private long idleTimeoutMs = 60_000;
+
+    /** Destinations transmitted to concurrently per sweep. */
+    private int dispatchParallelism = 4;
+
+    /**
+     * Per-receiver overrides of {@link #host}/{@link #port}, keyed by
+     * {@code MSH-5/MSH-6} (receiving application / facility) of the outbound
+     * message, e.g. {@code app.hl7.mllp.outbound.routes[LAB_ANALYZER/CHEM].host}.
+     * Messages with no matching route go to the default host.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String host;
+        private int port = 2576;
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.hms.hl7.mllp;
 
-import lombok.RequiredArgsConstructor;
+import com.example.hms.hl7.Hl7v2Message;
+import com.example.hms.hl7.mllp.MllpConnectionPool.Connection;
+import com.example.hms.hl7.mllp.MllpConnectionPool.Destination;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -9,6 +12,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
 
 /**
@@ -17,17 +21,52 @@ import java.nio.charset.Charset;
  * <p>The mirror of {@link MllpTcpServer}. Reuses {@link MllpFrameCodec} for
  * framing so the two halves cannot drift apart on the wire format.
  *
- * <p>One connection per message rather than a pooled long-lived socket: lab
- * interfaces are low-volume and frequently behind equipment that drops idle
- * connections without notice, so a fresh connect is both simpler and more
- * reliable than detecting a half-open socket after the fact.
+ * <p>Connections are pooled per destination ({@link MllpConnectionPool}) so a
+ * busy analyser is not re-handshaken for every order. Lab equipment is
+ * frequently behind gear that drops idle connections without notice, which
+ * is why one connection per message was the original design; the pool
+ * checks each socket before reuse. A pooled socket that still turns out to
+ * be dead (reset, or closed before any ACK) is retried once on a newly
+ * opened connection, after evicting the destination's other idle sockets.
+ * A read timeout is never retried here, because the receiver may already
+ * have the message. {@code pooled=false} restores connect-per-message.
+ *
+ * <p>The destination is the default {@code host:port}, unless the message's
+ * {@code MSH-5/MSH-6} matches a configured route.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class MllpOutboundSender {
 
     private final MllpOutboundProperties properties;
+    private final MllpConnectionPool pool;
+
+    public MllpOutboundSender(MllpOutboundProperties properties) {
+        this.properties = properties;
+        this.pool = new MllpConnectionPool(
+            properties.getConnectTimeoutMs(), properties.getReadTimeoutMs(),
+            properties.getMaxIdlePerDestination(), properties.getIdleTimeoutMs());
+    }
+
+    /**
+     * Where {@code message} goes: the route for its {@code MSH-5/MSH-6}, or the
+     * default host. Never {@code null}.
+     */
+    public Destination destinationFor(String message) {
+        if (!properties.getRoutes().isEmpty() && message != null && message.startsWith("MSH")) {
+            try {
+                Hl7v2Message parsed = Hl7v2Message.parse(message);
+                MllpOutboundProperties.Route route = properties.getRoutes()
+                    .get(parsed.field(0, 5) + "/" + parsed.field(0, 6));
+                if (route != null && route.getHost() != null && !route.getHost().isBlank()) {
+                    return new Destination(route.getHost(), route.getPort());
+                }
+            } catch (IllegalArgumentException ex) {
+                log.debug("[MLLP-OUT] Unroutable MSH, using default destination: {}", ex.getMessage());
+            }
+        }
+        return new Destination(properties.getHost(), properties.getPort());
+    }
 
     /**
      * @return the ACK the receiver returned
@@ -35,11 +74,53 @@ public class MllpOutboundSender {
      *         back — the caller records it and retries
      */
     public String send(String message) throws IOException {
+        return send(destinationFor(message), message);
+    }
+
+    /** {@link #send(String)} to an explicit destination. */
+    public String send(Destination destination, String message) throws IOException {
         Charset charset = Charset.forName(properties.getCharset());
+        if (!properties.isPooled()) {
+            return sendUnpooled(destination, message, charset);
+        }
+        Connection connection = pool.borrow(destination);
+        try {
+            return exchange(connection, message, charset);
+        } catch (SocketTimeoutException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            if (!connection.reused()) {
+                throw ex;
+            }
+            log.debug("[MLLP-OUT {}] Pooled connection failed ({}); retrying on a fresh one",
+                destination, ex.getMessage());
+            // Its idle siblings most likely died at the same moment, and the
+            // probe cannot always tell: drop them and connect anew.
+            pool.evict(destination);
+            return exchange(pool.open(destination), message, charset);
+        }
+    }
+
+    private String exchange(Connection connection, String message, Charset charset) throws IOException {
+        try {
+            OutputStream out = connection.out();
+            MllpFrameCodec.writeFrame(out, message, charset);
+            byte[] ackFrame = MllpFrameCodec.readFrame(connection.in(), properties.getMaxFrameBytes());
+            if (ackFrame == null || ackFrame.length == 0) {
+                throw new IOException("Receiver closed the connection without acknowledging");
+            }
+            pool.release(connection);
+            return new String(ackFrame, charset);
+        } catch (IOException | RuntimeException ex) {
+            pool.invalidate(connection);
+            throw ex;
+        }
+    }
 
+    private String sendUnpooled(Destination destination, String message, Charset charset) throws IOException {
         try (Socket socket = new Socket()) {
             socket.connect(
-                new InetSocketAddress(properties.getHost(), properties.getPort()),
+                new InetSocketAddress(destination.host(), destination.port()),
                 properties.getConnectTimeoutMs());
             socket.setSoTimeout(properties.getReadTimeoutMs());
 
@@ -55,6 +136,11 @@ public class MllpOutboundSender {
         }
     }
 
+    @PreDestroy
+    public void close() {
+        pool.close();
+    }
+
     /**
      * Whether the ACK says the receiver accepted the message.
      *
@@ -46,9 +46,42 @@ public class MllpProperties {
      * floods (accidental analyzer misconfig or malicious traffic). The
      * accept loop blocks new clients once this limit is reached; analyzers
      * retry on the next configured interval, which is the desired behaviour.
+     *
+     * <p>Under {@link Transport#VIRTUAL_THREADS} this caps open sockets rather
+     * than platform threads; connections over the cap are closed on accept
+     * (counted as {@code hms.hl7.mllp.connections{outcome=rejected}}) instead
+     * of stalling the accept thread.
      */
     private int maxConcurrentConnections = 100;
 
+    /** Connection-handling model; see {@link Transport}. */
+    private Transport transport = Transport.THREAD_POOL;
+
+    /**
+     * Per-connection socket read buffer for {@link Transport#VIRTUAL_THREADS}.
+     * Reused for every read on the connection; a typical ORU^R01 fits in one read.
+     */
+    private int readBufferBytes = 16 * 1024;
+
+    /**
+     * How the listener services accepted sockets.
+     */
+    public enum Transport {
+        /**
+         * Legacy: bounded platform-thread pool sized at
+         * {@code maxConcurrentConnections}; over the limit the accept thread
+         * handles the connection itself (CallerRunsPolicy).
+         */
+        THREAD_POOL,
+        /**
+         * One virtual thread per connection with bulk buffered reads through
+         * {@link MllpFrameDecoder}. Blocking socket I/O parks the virtual
+         * thread instead of pinning a carrier, so hundreds of mostly idle
+         * analyzer connections cost a few KB each.
+         */
+        VIRTUAL_THREADS
+    }
+
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
@@ -70,6 +103,12 @@ public class MllpProperties {
     public int getMaxConcurrentConnections() { return maxConcurrentConnections; }
     public void setMaxConcurrentConnections(int maxConcurrentConnections) { this.maxConcurrentConnections = maxConcurrentConnections; }
 
+    public Transport getTransport() { return transport; }
+    public void setTransport(Transport transport) { this.transport = transport; }
+
+    public int getReadBufferBytes() { return readBufferBytes; }
+    public void setReadBufferBytes(int readBufferBytes) { this.readBufferBytes = readBufferBytes; }
+
     public Charset resolvedCharset() {
         return Charset.forName(charset);
     }
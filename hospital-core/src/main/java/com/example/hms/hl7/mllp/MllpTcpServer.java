@@ -1,5 +1,6 @@
 package com.example.hms.hl7.mllp;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
@@ -7,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -14,9 +16,12 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -35,6 +40,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * under flood conditions the accept thread itself processes the over-limit
  * connection, providing natural backpressure instead of unbounded thread
  * spawning.
+ *
+ * <p>{@link MllpProperties.Transport#VIRTUAL_THREADS} replaces that pool with
+ * one virtual thread per connection: the accept thread never runs handler
+ * code, the connection cap becomes a semaphore on open sockets (over-limit
+ * clients are closed on accept), and frames are scanned from bulk socket
+ * reads by a per-connection {@link MllpFrameDecoder} instead of byte-at-a-time
+ * {@link MllpFrameCodec#readFrame}. Both transports report through
+ * {@link MllpMetrics}.
  */
 public class MllpTcpServer {
 
@@ -44,13 +57,31 @@ public class MllpTcpServer {
     private final Hl7MessageDispatcher dispatcher;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final ExecutorService workers;
+    private final MllpProperties.Transport transport;
+    private final Semaphore connectionPermits;
+    private final MllpMetrics metrics;
     private ServerSocket serverSocket;
     private volatile int boundPort = -1;
 
     public MllpTcpServer(MllpProperties properties, Hl7MessageDispatcher dispatcher) {
+        this(properties, dispatcher, null);
+    }
+
+    public MllpTcpServer(MllpProperties properties, Hl7MessageDispatcher dispatcher, MeterRegistry meterRegistry) {
         this.properties = properties;
         this.dispatcher = dispatcher;
+        this.transport = properties.getTransport() == null
+            ? MllpProperties.Transport.THREAD_POOL
+            : properties.getTransport();
+        this.metrics = new MllpMetrics(meterRegistry, transport);
         int max = Math.max(1, properties.getMaxConcurrentConnections());
+        if (transport == MllpProperties.Transport.VIRTUAL_THREADS) {
+            this.connectionPermits = new Semaphore(max);
+            this.workers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("mllp-conn-", 0).factory());
+            return;
+        }
+        this.connectionPermits = null;
         ThreadPoolExecutor pool = new ThreadPoolExecutor(
             max, max,
             60L, TimeUnit.SECONDS,
@@ -77,8 +108,8 @@ public class MllpTcpServer {
         accept.setDaemon(true);
         accept.start();
 
-        log.info("[MLLP] HL7 v2 listener started on {}:{} charset={} maxFrameBytes={}",
-            properties.getBindAddress(), boundPort,
+        log.info("[MLLP] HL7 v2 listener started on {}:{} transport={} charset={} maxFrameBytes={}",
+            properties.getBindAddress(), boundPort, transport,
             properties.getCharset(), properties.getMaxFrameBytes());
     }
 
@@ -98,6 +129,14 @@ public class MllpTcpServer {
         }
     }
 
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Rejected connection — nothing useful to do.
+        }
+    }
+
     private static void closeQuietly(ServerSocket socket, Throwable cause) {
         try {
             socket.close();
@@ -120,6 +159,8 @@ public class MllpTcpServer {
 
     public int getBoundPort() { return boundPort; }
 
+    public int getActiveConnections() { return metrics.activeConnections(); }
+
     private void acceptLoop() {
         Charset charset = properties.resolvedCharset();
         while (running.get()) {
@@ -134,20 +175,38 @@ public class MllpTcpServer {
                 }
                 return;
             }
+            if (connectionPermits != null && !connectionPermits.tryAcquire()) {
+                metrics.connectionRejected();
+                log.warn("[MLLP {}] connection limit {} reached — closing",
+                    describe(client), properties.getMaxConcurrentConnections());
+                closeQuietly(client);
+                continue;
+            }
             workers.submit(() -> handle(client, charset));
         }
     }
 
     private void handle(Socket client, Charset charset) {
         String remote = describe(client);
+        metrics.connectionOpened();
         try (Socket socket = client) {
             socket.setSoTimeout(properties.getReadTimeoutMs());
             socket.setTcpNoDelay(true);
-            processFrames(socket, charset, remote);
+            if (transport == MllpProperties.Transport.VIRTUAL_THREADS) {
+                processFramesBulk(socket, charset, remote);
+            } else {
+                processFrames(socket, charset, remote);
+            }
         } catch (java.net.SocketTimeoutException timeout) {
             log.debug("[MLLP {}] read timeout — closing", remote);
+        } catch (MllpProtocolException protocol) {
+            metrics.frameMalformed();
+            log.warn("[MLLP {}] framing error: {}", remote, protocol.getMessage());
         } catch (IOException ioe) {
             log.warn("[MLLP {}] I/O error: {}", remote, ioe.getMessage());
+        } finally {
+            metrics.connectionClosed();
+            if (connectionPermits != null) connectionPermits.release();
         }
     }
 
@@ -167,10 +226,46 @@ public class MllpTcpServer {
                     log.debug("[MLLP {}] peer closed", remote);
                     return;
                 }
+                long received = System.nanoTime();
+                metrics.frameReceived(frame.length);
                 String body = new String(frame, charset);
                 String ack = safeDispatch(body, remote);
                 MllpFrameCodec.writeFrame(out, ack, charset);
+                metrics.ackSent(received);
+            }
+        }
+    }
+
+    /**
+     * {@link #processFrames} for the virtual-thread transport: one reusable
+     * read buffer and decoder per connection, each socket read handed to the
+     * decoder in bulk (it may carry several pipelined frames), and each ACK
+     * written as a single pre-framed array.
+     */
+    private void processFramesBulk(Socket socket, Charset charset, String remote) throws IOException {
+        InputStream in = socket.getInputStream();
+        OutputStream out = socket.getOutputStream();
+        MllpFrameDecoder decoder = new MllpFrameDecoder(properties.getMaxFrameBytes());
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(512, properties.getReadBufferBytes()));
+        buffer.limit(0);
+        while (running.get()) {
+            while (decoder.decode(buffer)) {
+                long received = System.nanoTime();
+                metrics.frameReceived(decoder.frameLength());
+                String ack = safeDispatch(decoder.frameAsString(charset), remote);
+                out.write(MllpFrameCodec.encodeFrame(ack, charset));
+                out.flush();
+                metrics.ackSent(received);
+            }
+            int read = in.read(buffer.array(), 0, buffer.capacity());
+            if (read == -1) {
+                if (decoder.isMidFrame()) {
+                    throw new EOFException("MLLP frame truncated: EOF before <FS><CR>");
+                }
+                log.debug("[MLLP {}] peer closed", remote);
+                return;
             }
+            buffer.clear().limit(read);
         }
     }
 
@@ -165,7 +165,7 @@ public class DicomProxyService {
                 .userName(caller != null ? caller.getUsername() : null)
                 .eventDescription(description)
                 .build();
-            auditEventLogService.logEvent(request);
+            auditEventLogService.submitEvent(request);
         } catch (RuntimeException ex) {
             log.warn("audit emission failed for DICOM proxy study {}: {}", studyUid, ex.toString());
         }
@@ -1,7 +1,9 @@
 package com.example.hms.model;
 
+import com.example.hms.service.LabReflexRuleChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Index;
@@ -27,6 +29,7 @@ import lombok.ToString;
         @Index(name = "idx_reflex_rules_active",  columnList = "active")
     }
 )
+@EntityListeners(LabReflexRuleChangeListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @ToString(exclude = {"triggerTestDefinition", "reflexTestDefinition"})
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
@@ -46,6 +49,8 @@ public class LabReflexRule extends BaseEntity {
      * Examples:
      * <pre>{"severityFlag":"ABNORMAL"}</pre>
      * <pre>{"thresholdOperator":"GT","thresholdValue":11.0}</pre>
+     * <pre>{"deltaOperator":"GTE","deltaValue":25,"deltaMode":"PERCENT"}</pre>
+     * See {@link com.example.hms.service.LabReflexCondition} for the full grammar.
      */
     @NotBlank
     @Column(name = "condition", nullable = false, columnDefinition = "TEXT")
@@ -1,9 +1,11 @@
 package com.example.hms.model;
 
+import com.example.hms.empi.probabilistic.EmpiBlockingKeyListener;
 import com.example.hms.security.EncryptedStringConverter;
 import com.example.hms.security.context.HospitalContext;
 import com.example.hms.security.tenant.TenantEntityListener;
 import com.example.hms.security.tenant.TenantScoped;
+import com.example.hms.service.search.PatientSearchIndexListener;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
@@ -52,7 +54,7 @@ import java.util.UUID;
 @NoArgsConstructor @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
-@EntityListeners(TenantEntityListener.class)
+@EntityListeners({TenantEntityListener.class, EmpiBlockingKeyListener.class, PatientSearchIndexListener.class})
 @ToString(exclude = {
     "user", "hospitalRegistrations", "appointments", "encounters",
     "billingInvoices", "patientInsurances", "labOrders", "allergyEntries"
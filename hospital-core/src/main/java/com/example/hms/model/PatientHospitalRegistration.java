@@ -1,8 +1,10 @@
 package com.example.hms.model;
 
+import com.example.hms.empi.probabilistic.EmpiBlockingKeyListener;
 import com.example.hms.enums.PatientStayStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -46,6 +48,7 @@ import java.util.UUID;
 @NoArgsConstructor @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
+@EntityListeners(EmpiBlockingKeyListener.class)
 @ToString(exclude = {"patient", "hospital"})
 public class PatientHospitalRegistration extends BaseEntity {
 
@@ -1,7 +1,10 @@
 package com.example.hms.model;
 
+import com.example.hms.cdshooks.bpa.BpaVitalsListener;
+import com.example.hms.cdshooks.rules.CdsPatientStateListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Index;
@@ -26,6 +29,7 @@ import java.time.LocalDateTime;
  * measurement bundle (heart rate, blood pressure, etc.) entered by clinical staff or an automated source.
  */
 @Entity
+@EntityListeners({CdsPatientStateListener.class, BpaVitalsListener.class})
 @Table(
     name = "patient_vital_signs",
     schema = "clinical",
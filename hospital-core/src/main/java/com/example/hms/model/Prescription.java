@@ -1,5 +1,6 @@
 package com.example.hms.model;
 
+import com.example.hms.cdshooks.rules.CdsPatientStateListener;
 import com.example.hms.enums.PrescriptionStatus;
 import com.example.hms.model.prescription.PrescriptionAlert;
 import com.example.hms.model.prescription.PrescriptionInstruction;
@@ -11,6 +12,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -44,6 +46,7 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(CdsPatientStateListener.class)
 @Table(
     name = "prescriptions",
     schema = "clinical",
@@ -1,7 +1,9 @@
 package com.example.hms.model;
 
+import com.example.hms.security.authz.AssignmentChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
@@ -22,6 +24,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(AssignmentChangeListener.class)
 @Table(
     name = "user_role_hospital_assignment",
     schema = "\"security\"",
@@ -0,0 +1,52 @@
+package com.example.hms.model.empi;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Singleton checkpoint of the {@code empi.blocking_keys} backfill run by
+ * {@link com.example.hms.empi.probabilistic.EmpiBlockingIndexer}. Each page
+ * of keys commits together with {@link #checkpointPatientId}, so a backfill
+ * interrupted by a crash or deploy resumes after the last committed page.
+ * V127 platform_downtime_state pattern: one row, id=1, DB CHECK.
+ */
+@Entity
+@Table(name = "blocking_backfill_state", schema = "empi")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmpiBlockingBackfillState {
+
+    public static final Integer SINGLETON_ID = 1;
+
+    /** Sorts first under PostgreSQL's byte-wise uuid order: "from the beginning". */
+    public static final UUID START = new UUID(0L, 0L);
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    /** Last patient id whose keys are committed. */
+    @Column(name = "checkpoint_patient_id", nullable = false)
+    private UUID checkpointPatientId;
+
+    @Column(name = "indexed_patients", nullable = false)
+    private long indexedPatients;
+
+    /** Set once the walk reaches the end; {@code null} while a backfill is owed. */
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,68 @@
+package com.example.hms.model.empi;
+
+import com.example.hms.enums.empi.EmpiBlockingKeyType;
+import com.example.hms.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * One EMPI blocking key for one patient at one hospital (roadmap row 25
+ * blocking follow-on). Candidate generation in
+ * {@link com.example.hms.empi.probabilistic.EmpiProbabilisticMatcher} is an
+ * index lookup on {@code (hospital_id, key_value, block_year)} instead of an
+ * unanchored name scan over every tenant's patients.
+ *
+ * <p>Plain UUID columns rather than associations: the table is a derived
+ * index, rebuilt wholesale by
+ * {@link com.example.hms.empi.probabilistic.EmpiBlockingIndexer}, and must
+ * never drag a {@code Patient} graph into the lookup.
+ */
+@Entity
+@Table(name = "blocking_keys", schema = "empi",
+    uniqueConstraints = @UniqueConstraint(name = "uq_empi_blocking_key",
+        columnNames = {"hospital_id", "patient_id", "key_value", "block_year"}),
+    indexes = {
+        @Index(name = "idx_empi_blocking_lookup", columnList = "hospital_id, key_value, block_year"),
+        @Index(name = "idx_empi_blocking_patient", columnList = "patient_id")
+    }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(callSuper = true)
+public class EmpiBlockingKey extends BaseEntity {
+
+    @Column(name = "hospital_id", nullable = false)
+    private UUID hospitalId;
+
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "key_type", length = 30, nullable = false)
+    private EmpiBlockingKeyType keyType;
+
+    /** Type-prefixed key, e.g. {@code LP:D400} or {@code LG:dia}. */
+    @Column(name = "key_value", length = 32, nullable = false)
+    private String keyValue;
+
+    @Column(name = "block_year", nullable = false)
+    private int blockYear;
+}
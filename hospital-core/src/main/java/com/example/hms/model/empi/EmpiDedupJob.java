@@ -0,0 +1,84 @@
+package com.example.hms.model.empi;
+
+import com.example.hms.enums.empi.EmpiDedupJobStatus;
+import com.example.hms.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One batch deduplication scan over a hospital's registry.
+ *
+ * <p>The scan walks {@code empi.blocking_keys} in key order and commits
+ * {@link #checkpointKey} together with each page of pairs it writes, so a
+ * job interrupted by a deploy or crash resumes from the last committed
+ * page instead of rescoring the registry. {@code @Version} makes the
+ * claim by a worker node an optimistic compare-and-set.
+ */
+@Entity
+@Table(name = "dedup_jobs", schema = "empi",
+    indexes = @Index(name = "idx_empi_dedup_jobs_status", columnList = "status, heartbeat_at"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(callSuper = true)
+public class EmpiDedupJob extends BaseEntity {
+
+    @Column(name = "hospital_id", nullable = false)
+    private UUID hospitalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    @Builder.Default
+    private EmpiDedupJobStatus status = EmpiDedupJobStatus.QUEUED;
+
+    /** Last blocking-key value fully processed; {@code null} before the first page. */
+    @Column(name = "checkpoint_key", length = 32)
+    private String checkpointKey;
+
+    @Column(name = "processed_blocks", nullable = false)
+    private long processedBlocks;
+
+    @Column(name = "scored_pairs", nullable = false)
+    private long scoredPairs;
+
+    @Column(name = "pairs_found", nullable = false)
+    private long pairsFound;
+
+    @Column(name = "requested_by")
+    private UUID requestedBy;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /** Refreshed on every checkpoint; a stale heartbeat marks a RUNNING job as orphaned. */
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+}
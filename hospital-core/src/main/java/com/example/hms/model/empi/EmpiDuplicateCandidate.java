@@ -0,0 +1,87 @@
+package com.example.hms.model.empi;
+
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import com.example.hms.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A suspected duplicate patient pair surfaced by an {@link EmpiDedupJob},
+ * waiting for a data steward's decision.
+ *
+ * <p>Pairs are stored canonically ({@code patientAId < patientBId}) and are
+ * unique per hospital, so a later scan never re-queues a pair a steward
+ * already dismissed as {@code NOT_DUPLICATE}.
+ */
+@Entity
+@Table(name = "duplicate_candidates", schema = "empi",
+    uniqueConstraints = @UniqueConstraint(name = "uq_empi_duplicate_pair",
+        columnNames = {"hospital_id", "patient_a_id", "patient_b_id"}),
+    indexes = {
+        @Index(name = "idx_empi_duplicate_review", columnList = "hospital_id, review_status, score"),
+        @Index(name = "idx_empi_duplicate_job", columnList = "job_id, score")
+    }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(callSuper = true)
+public class EmpiDuplicateCandidate extends BaseEntity {
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "hospital_id", nullable = false)
+    private UUID hospitalId;
+
+    @Column(name = "patient_a_id", nullable = false)
+    private UUID patientAId;
+
+    @Column(name = "patient_b_id", nullable = false)
+    private UUID patientBId;
+
+    /** Composite Fellegi-Sunter score, same weights as the interactive matcher. */
+    @Column(name = "score", nullable = false)
+    private double score;
+
+    @Column(name = "name_score", nullable = false)
+    private double nameScore;
+
+    @Column(name = "dob_score", nullable = false)
+    private double dobScore;
+
+    @Column(name = "sex_matched", nullable = false)
+    private boolean sexMatched;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "review_status", length = 20, nullable = false)
+    @Builder.Default
+    private EmpiDuplicateReviewStatus reviewStatus = EmpiDuplicateReviewStatus.PENDING;
+
+    @Column(name = "reviewed_by")
+    private UUID reviewedBy;
+
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+
+    @Column(name = "review_notes", length = 1000)
+    private String reviewNotes;
+}
@@ -1,9 +1,11 @@
 package com.example.hms.model.medication;
 
+import com.example.hms.cdshooks.rules.DrugInteractionChangeListener;
 import com.example.hms.enums.InteractionSeverity;
 import com.example.hms.model.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Index;
@@ -26,6 +28,7 @@ import lombok.EqualsAndHashCode;
  * Used for real-time interaction checking when prescribing medications.
  */
 @Entity
+@EntityListeners(DrugInteractionChangeListener.class)
 @Table(
     name = "drug_interactions",
     schema = "clinical",
@@ -2,8 +2,10 @@ package com.example.hms.model.pharmacy;
 
 import com.example.hms.model.BaseEntity;
 import com.example.hms.model.medication.MedicationCatalogItem;
+import com.example.hms.service.pharmacy.InventoryItemChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Index;
@@ -27,6 +29,7 @@ import java.math.BigDecimal;
  * Aggregates stock lots for a single catalog medication.
  */
 @Entity
+@EntityListeners(InventoryItemChangeListener.class)
 @Table(
     name = "inventory_items",
     schema = "clinical",
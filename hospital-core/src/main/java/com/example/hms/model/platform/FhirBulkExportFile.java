@@ -0,0 +1,54 @@
+package com.example.hms.model.platform;
+
+import com.example.hms.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * One finished NDJSON part of a {@link FhirBulkExportJob}. Rows are only
+ * written once the part is fully flushed to storage, so the poll manifest
+ * never lists a half-written file.
+ */
+@Entity
+@Table(name = "fhir_bulk_export_files", schema = "platform",
+    uniqueConstraints = @UniqueConstraint(name = "uq_fhir_bulk_export_file_part",
+        columnNames = {"job_id", "resource_type", "part_number"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(callSuper = true)
+public class FhirBulkExportFile extends BaseEntity {
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "resource_type", length = 40, nullable = false)
+    private String resourceType;
+
+    @Column(name = "part_number", nullable = false)
+    private int partNumber;
+
+    /** {@code {resourceType}-{partNumber}.ndjson}; also the key inside the job's storage folder. */
+    @Column(name = "file_name", length = 120, nullable = false)
+    private String fileName;
+
+    @Column(name = "resource_count", nullable = false)
+    private long resourceCount;
+
+    @Column(name = "byte_count", nullable = false)
+    private long byteCount;
+}
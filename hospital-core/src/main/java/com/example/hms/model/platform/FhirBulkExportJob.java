@@ -0,0 +1,98 @@
+package com.example.hms.model.platform;
+
+import com.example.hms.fhir.bulk.FhirBulkExportService.BulkExportStatus;
+import com.example.hms.fhir.bulk.FhirBulkExportService.Scope;
+import com.example.hms.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One FHIR {@code $export} request (roadmap row 21).
+ *
+ * <p>Created {@code QUEUED} by {@code FhirBulkExportService}; a
+ * {@code FhirBulkExportRunner} on any node claims it with an optimistic
+ * version bump, streams each requested resource type to NDJSON parts and
+ * finishes it {@code COMPLETED} or {@code FAILED}. {@code heartbeatAt} is
+ * refreshed per page so a job whose node died can be re-claimed.
+ * {@code resourceTypes} is the comma-joined {@code _type} list; empty
+ * means every supported type.
+ */
+@Entity
+@Table(name = "fhir_bulk_export_jobs", schema = "platform",
+    indexes = {
+        @Index(name = "idx_fhir_bulk_export_jobs_status", columnList = "status, heartbeat_at"),
+        @Index(name = "idx_fhir_bulk_export_jobs_hospital", columnList = "hospital_id, created_at")
+    })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(callSuper = true)
+public class FhirBulkExportJob extends BaseEntity {
+
+    @Column(name = "hospital_id", nullable = false)
+    private UUID hospitalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", length = 20, nullable = false)
+    private Scope scope;
+
+    /** {@code _since}: only resources changed at or after this instant. */
+    @Column(name = "since_at")
+    private Instant since;
+
+    @Column(name = "resource_types", length = 500)
+    private String resourceTypes;
+
+    @Column(name = "group_id", length = 128)
+    private String groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    @Builder.Default
+    private BulkExportStatus status = BulkExportStatus.QUEUED;
+
+    /** Spec {@code transactionTime}: the instant the export's snapshot was taken. */
+    @Column(name = "transaction_time")
+    private Instant transactionTime;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    /** Resource type being streamed; {@code null} while queued and once finished. */
+    @Column(name = "current_type", length = 40)
+    private String currentType;
+
+    @Column(name = "exported_count", nullable = false)
+    private long exportedCount;
+
+    @Column(name = "error_message", length = 2000)
+    private String errorMessage;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+}
@@ -16,7 +16,16 @@ import java.util.UUID;
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserRoleAssignmentBulkImportResultDTO {
+
+    public enum Status {
+        CREATED,
+        SKIPPED,
+        FAILED
+    }
+
+    /** Spreadsheet row of the record: the header is row 1. */
     private int rowNumber;
+    private Status status;
     private String identifier;
     private boolean success;
     private String message;
@@ -0,0 +1,25 @@
+package com.example.hms.payload.dto.empi;
+
+import com.example.hms.enums.empi.EmpiDedupJobStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+@Builder
+public class EmpiDedupJobResponseDTO {
+    UUID id;
+    UUID hospitalId;
+    EmpiDedupJobStatus status;
+    String checkpointKey;
+    long processedBlocks;
+    long scoredPairs;
+    long pairsFound;
+    UUID requestedBy;
+    LocalDateTime createdAt;
+    LocalDateTime startedAt;
+    LocalDateTime finishedAt;
+    String lastError;
+}
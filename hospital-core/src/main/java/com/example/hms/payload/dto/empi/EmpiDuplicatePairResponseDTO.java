@@ -0,0 +1,26 @@
+package com.example.hms.payload.dto.empi;
+
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+@Builder
+public class EmpiDuplicatePairResponseDTO {
+    UUID id;
+    UUID jobId;
+    UUID hospitalId;
+    UUID patientAId;
+    UUID patientBId;
+    double score;
+    double nameScore;
+    double dobScore;
+    boolean sexMatched;
+    EmpiDuplicateReviewStatus reviewStatus;
+    UUID reviewedBy;
+    LocalDateTime reviewedAt;
+    String reviewNotes;
+}
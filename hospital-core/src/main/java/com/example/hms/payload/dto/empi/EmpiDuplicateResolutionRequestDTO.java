@@ -0,0 +1,24 @@
+package com.example.hms.payload.dto.empi;
+
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Steward decision on a suspected duplicate pair. {@code MERGED} requires the
+ * surviving patient, which must be one of the two in the pair.
+ */
+@Data
+public class EmpiDuplicateResolutionRequestDTO {
+
+    @NotNull(message = "Decision is required")
+    private EmpiDuplicateReviewStatus decision;
+
+    private UUID primaryPatientId;
+
+    @Size(max = 1000)
+    private String notes;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,4 +18,7 @@ public class CatalogImportResponseDTO {
     private int created;
     private int updated;
     private int skipped;
+    private int failed;
+    /** The first rejected rows, at most {@code ReferenceCatalogImporter.MAX_REPORTED_ERRORS}. */
+    private List<CatalogImportRowErrorDTO> errors;
 }
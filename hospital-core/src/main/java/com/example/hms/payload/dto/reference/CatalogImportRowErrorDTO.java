@@ -0,0 +1,18 @@
+package com.example.hms.payload.dto.reference;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportRowErrorDTO {
+
+    /** CSV record number, header excluded. */
+    private long row;
+    private String code;
+    private String message;
+}
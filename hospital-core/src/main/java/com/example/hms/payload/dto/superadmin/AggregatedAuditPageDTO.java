@@ -8,6 +8,10 @@ import java.util.List;
  * MVP-8c — paged response wrapper for the cross-source audit
  * aggregation. Mirrors the shape of {@link AuditSearchPageDTO} so the
  * frontend can reuse its pagination helper.
+ *
+ * <p>{@code nextCursor} is the keyset cursor for the following page
+ * (null on the last page); {@code totalElements} is a cached,
+ * approximate count.
  */
 @Builder
 public record AggregatedAuditPageDTO(
@@ -15,5 +19,6 @@ public record AggregatedAuditPageDTO(
     int pageNumber,
     int pageSize,
     long totalElements,
-    int totalPages
+    int totalPages,
+    String nextCursor
 ) { }
@@ -20,4 +20,8 @@ public class EmpiEventPayload {
     UUID organizationId;
     UUID hospitalId;
     UUID departmentId;
+    /** Set on {@code DUPLICATE_SCAN_COMPLETED}: the batch job that produced the review queue. */
+    UUID deduplicationJobId;
+    /** Set on {@code DUPLICATE_SCAN_COMPLETED}: new suspected pairs queued for review. */
+    Long duplicatePairCount;
 }
@@ -159,4 +159,95 @@ public interface AuditEventLogRepository
                                                         @Param("toDate") LocalDateTime toDate,
                                                         @Param("eventTypes") Collection<AuditEventType> eventTypes,
                                                         Pageable pageable);
+
+    // ── Keyset pages for the cross-source aggregation ───────────────────
+    //
+    // (event_timestamp DESC, id DESC) order, served by idx_audit_event_ts_id
+    // (V131). The first page is plain JPQL. Later pages take rows strictly
+    // older than (afterTs, afterId) with a native row-value comparison —
+    // JPQL has no tuple comparison, and the OR-expanded form keeps the
+    // planner from seeking straight to the cursor — and return ids only;
+    // findAllWithAssignmentByIdIn then loads those rows. Assignment and
+    // hospital are fetched with the row — the aggregation DTO reads
+    // hospital and organization ids from them.
+
+    String KEYSET_FIRST = "SELECT a FROM AuditEventLog a " +
+        "LEFT JOIN FETCH a.assignment asg LEFT JOIN FETCH asg.hospital WHERE " +
+        "(:fromDate IS NULL OR a.eventTimestamp >= :fromDate) AND " +
+        "(:toDate IS NULL OR a.eventTimestamp <= :toDate) ";
+    String KEYSET_ORDER = "ORDER BY a.eventTimestamp DESC, a.id DESC";
+
+    String KEYSET_NEXT_IDS = "SELECT a.id FROM support.audit_event_logs a WHERE " +
+        "(CAST(:fromDate AS TIMESTAMP) IS NULL OR a.event_timestamp >= CAST(:fromDate AS TIMESTAMP)) AND " +
+        "(CAST(:toDate AS TIMESTAMP) IS NULL OR a.event_timestamp <= CAST(:toDate AS TIMESTAMP)) AND " +
+        "(a.event_timestamp, a.id) < (CAST(:afterTs AS TIMESTAMP), CAST(:afterId AS UUID)) ";
+    String KEYSET_NEXT_ORDER = "ORDER BY a.event_timestamp DESC, a.id DESC LIMIT :limit";
+
+    @Query(KEYSET_FIRST + KEYSET_ORDER)
+    List<AuditEventLog> findKeysetFirstPage(@Param("fromDate") LocalDateTime fromDate,
+                                            @Param("toDate") LocalDateTime toDate,
+                                            Pageable limit);
+
+    @Query(KEYSET_FIRST + "AND a.eventType IN :eventTypes " + KEYSET_ORDER)
+    List<AuditEventLog> findKeysetFirstPageByEventTypeIn(@Param("fromDate") LocalDateTime fromDate,
+                                                         @Param("toDate") LocalDateTime toDate,
+                                                         @Param("eventTypes") Collection<AuditEventType> eventTypes,
+                                                         Pageable limit);
+
+    @Query(KEYSET_FIRST + "AND a.eventType NOT IN :eventTypes " + KEYSET_ORDER)
+    List<AuditEventLog> findKeysetFirstPageByEventTypeNotIn(@Param("fromDate") LocalDateTime fromDate,
+                                                            @Param("toDate") LocalDateTime toDate,
+                                                            @Param("eventTypes") Collection<AuditEventType> eventTypes,
+                                                            Pageable limit);
+
+    @Query(value = KEYSET_NEXT_IDS + KEYSET_NEXT_ORDER, nativeQuery = true)
+    List<UUID> findKeysetNextIds(@Param("fromDate") LocalDateTime fromDate,
+                                 @Param("toDate") LocalDateTime toDate,
+                                 @Param("afterTs") LocalDateTime afterTs,
+                                 @Param("afterId") UUID afterId,
+                                 @Param("limit") int limit);
+
+    /** {@code eventTypes} are {@link AuditEventType} names — the column is stored as a string. */
+    @Query(value = KEYSET_NEXT_IDS + "AND a.event_type IN (:eventTypes) " + KEYSET_NEXT_ORDER, nativeQuery = true)
+    List<UUID> findKeysetNextIdsByEventTypeIn(@Param("fromDate") LocalDateTime fromDate,
+                                              @Param("toDate") LocalDateTime toDate,
+                                              @Param("eventTypes") Collection<String> eventTypes,
+                                              @Param("afterTs") LocalDateTime afterTs,
+                                              @Param("afterId") UUID afterId,
+                                              @Param("limit") int limit);
+
+    @Query(value = KEYSET_NEXT_IDS + "AND a.event_type NOT IN (:eventTypes) " + KEYSET_NEXT_ORDER, nativeQuery = true)
+    List<UUID> findKeysetNextIdsByEventTypeNotIn(@Param("fromDate") LocalDateTime fromDate,
+                                                 @Param("toDate") LocalDateTime toDate,
+                                                 @Param("eventTypes") Collection<String> eventTypes,
+                                                 @Param("afterTs") LocalDateTime afterTs,
+                                                 @Param("afterId") UUID afterId,
+                                                 @Param("limit") int limit);
+
+    /** Rows of a keyset id page, with assignment and hospital; in no particular order. */
+    @Query("SELECT a FROM AuditEventLog a " +
+           "LEFT JOIN FETCH a.assignment asg LEFT JOIN FETCH asg.hospital WHERE a.id IN :ids")
+    List<AuditEventLog> findAllWithAssignmentByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT COUNT(a) FROM AuditEventLog a WHERE " +
+           "(:fromDate IS NULL OR a.eventTimestamp >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.eventTimestamp <= :toDate)")
+    long countInDateRange(@Param("fromDate") LocalDateTime fromDate,
+                          @Param("toDate") LocalDateTime toDate);
+
+    @Query("SELECT COUNT(a) FROM AuditEventLog a WHERE " +
+           "(:fromDate IS NULL OR a.eventTimestamp >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.eventTimestamp <= :toDate) AND " +
+           "a.eventType IN :eventTypes")
+    long countInDateRangeByEventTypeIn(@Param("fromDate") LocalDateTime fromDate,
+                                       @Param("toDate") LocalDateTime toDate,
+                                       @Param("eventTypes") Collection<AuditEventType> eventTypes);
+
+    @Query("SELECT COUNT(a) FROM AuditEventLog a WHERE " +
+           "(:fromDate IS NULL OR a.eventTimestamp >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.eventTimestamp <= :toDate) AND " +
+           "a.eventType NOT IN :eventTypes")
+    long countInDateRangeByEventTypeNotIn(@Param("fromDate") LocalDateTime fromDate,
+                                          @Param("toDate") LocalDateTime toDate,
+                                          @Param("eventTypes") Collection<AuditEventType> eventTypes);
 }
@@ -57,6 +57,9 @@ public interface DrugInteractionRepository extends JpaRepository<DrugInteraction
            "((di.drug1Code IN :drugCodes AND di.drug2Code IN :drugCodes))")
     List<DrugInteraction> findInteractionsAmongDrugs(@Param("drugCodes") List<String> drugCodes);
 
+    /** Every active interaction — the in-memory CDS matrix loads the whole knowledge base at once. */
+    List<DrugInteraction> findByActiveTrue();
+
     /**
      * Find all contraindicated interactions.
      */
@@ -3,6 +3,7 @@ package com.example.hms.repository;
 import com.example.hms.model.Encounter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -52,6 +53,22 @@ public interface EncounterRepository
 
     Page<Encounter> findByPatient_IdAndHospital_Id(UUID patientId, UUID hospitalId, Pageable pageable);
 
+    /**
+     * FHIR {@code Patient/$everything} section: {@code _since} is applied in
+     * SQL, and a {@link Slice} reads one row past the page for
+     * {@code Bundle.link[next]} instead of issuing a COUNT query. A row with
+     * no {@code updated_at} (legacy SQL inserts) is always included, as the
+     * in-memory {@code _since} filter did.
+     */
+    @Query("""
+        SELECT e FROM Encounter e
+        WHERE e.patient.id = :patientId AND e.hospital.id = :hospitalId
+          AND (e.updatedAt >= :since OR e.updatedAt IS NULL)
+        """)
+    Slice<Encounter> findEverythingSlice(
+        @Param("patientId") UUID patientId, @Param("hospitalId") UUID hospitalId,
+        @Param("since") LocalDateTime since, Pageable pageable);
+
     Page<Encounter> findByStaff_IdAndHospital_Id(UUID staffId, UUID hospitalId, Pageable pageable);
 
     Optional<Encounter> findFirstByPatient_IdAndStaff_IdAndHospital_IdOrderByEncounterDateDesc(
@@ -4,12 +4,21 @@ import com.example.hms.model.EncounterTreatment;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface EncounterTreatmentRepository extends JpaRepository<EncounterTreatment, UUID> {
     List<EncounterTreatment> findByEncounter_Id(UUID encounterId);
+
+    /**
+     * Treatments of several encounters in one query, with the associations
+     * {@code EncounterTreatmentMapper} reads fetched alongside.
+     */
+    @EntityGraph(attributePaths = {"encounter", "encounter.patient", "treatment", "staff", "staff.user"})
+    List<EncounterTreatment> findByEncounter_IdIn(Collection<UUID> encounterIds);
+
     List<EncounterTreatment> findByTreatment_Id(UUID treatmentId);
     @EntityGraph(value = "Treatment.withBasics")
     Optional<EncounterTreatment> findById(UUID id);
@@ -35,4 +35,34 @@ public interface FrontendAuditEventRepository extends JpaRepository<FrontendAudi
     long countInDateRange(
         @Param("fromDate") LocalDateTime fromDate,
         @Param("toDate") LocalDateTime toDate);
+
+    /**
+     * First keyset page for the cross-source aggregation, in
+     * {@code (occurredAt DESC, id DESC)} order.
+     */
+    @Query("SELECT f FROM FrontendAuditEvent f WHERE "
+        + "(:fromDate IS NULL OR f.occurredAt >= :fromDate) AND "
+        + "(:toDate   IS NULL OR f.occurredAt <= :toDate) "
+        + "ORDER BY f.occurredAt DESC, f.id DESC")
+    List<FrontendAuditEvent> findKeysetFirstPage(
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate,
+        Pageable limit);
+
+    /**
+     * Next keyset page: rows strictly older than {@code (afterTs, afterId)}.
+     * Native for the row-value comparison, which lets
+     * {@code idx_frontend_audit_occurred_id} (V131) seek straight to the cursor.
+     */
+    @Query(value = "SELECT f.* FROM support.frontend_audit_events f WHERE "
+        + "(CAST(:fromDate AS TIMESTAMP) IS NULL OR f.occurred_at >= CAST(:fromDate AS TIMESTAMP)) AND "
+        + "(CAST(:toDate AS TIMESTAMP)   IS NULL OR f.occurred_at <= CAST(:toDate AS TIMESTAMP)) AND "
+        + "(f.occurred_at, f.id) < (CAST(:afterTs AS TIMESTAMP), CAST(:afterId AS UUID)) "
+        + "ORDER BY f.occurred_at DESC, f.id DESC LIMIT :limit", nativeQuery = true)
+    List<FrontendAuditEvent> findKeysetNextPage(
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate,
+        @Param("afterTs") LocalDateTime afterTs,
+        @Param("afterId") UUID afterId,
+        @Param("limit") int limit);
 }
@@ -65,6 +65,13 @@ public interface HospitalRepository extends JpaRepository<Hospital, UUID> {
 
     Optional<Hospital> findByNameIgnoreCase(String hospitalName);
 
+    /* Bulk lookups; arguments must already be lower-cased. */
+    @Query("SELECT h FROM Hospital h WHERE LOWER(h.code) IN :codes")
+    List<Hospital> findByCodeInIgnoreCase(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT h FROM Hospital h WHERE LOWER(h.name) IN :names")
+    List<Hospital> findByNameInIgnoreCase(@Param("names") Collection<String> names);
+
     Optional<Hospital> findByName(String name);
 
     /* Dashboard count */
@@ -4,10 +4,14 @@ import com.example.hms.enums.AbnormalFlag;
 import com.example.hms.model.LabResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -194,6 +198,27 @@ public interface LabResultRepository extends JpaRepository<LabResult, UUID> {
         Pageable pageable
     );
 
+    /**
+     * {@code $everything} section: {@code _since} in SQL, no COUNT query.
+     * Fetches only what {@code ObservationFhirMapper} reads.
+     */
+    @EntityGraph(attributePaths = {
+        "labOrder",
+        "labOrder.patient",
+        "labOrder.labTestDefinition"
+    })
+    @Query("""
+        SELECT r FROM LabResult r
+        WHERE r.labOrder.patient.id = :patientId AND r.labOrder.hospital.id = :hospitalId
+          AND (r.updatedAt >= :since OR r.updatedAt IS NULL)
+        """)
+    Slice<LabResult> findEverythingSlice(
+        @Param("patientId") UUID patientId,
+        @Param("hospitalId") UUID hospitalId,
+        @Param("since") LocalDateTime since,
+        Pageable pageable
+    );
+
     /** Count CRITICAL (or any flag) results for orders placed by a given staff member. */
     long countByLabOrder_OrderingStaff_IdAndAbnormalFlag(UUID staffId, AbnormalFlag abnormalFlag);
 
@@ -214,6 +239,19 @@ public interface LabResultRepository extends JpaRepository<LabResult, UUID> {
         String sourceSendingFacility,
         String sourceMessageControlId);
 
+    /**
+     * {@code (sendingApplication, sendingFacility, controlId)} of every result
+     * carrying one of the given MSH-10 values — the batch form of the
+     * idempotency check above, for async ORU settlement. Callers match the
+     * sender columns themselves.
+     */
+    @Query("""
+        SELECT r.sourceSendingApplication, r.sourceSendingFacility, r.sourceMessageControlId
+        FROM LabResult r
+        WHERE r.sourceMessageControlId IN :controlIds
+        """)
+    List<Object[]> findSourceKeysByMessageControlIdIn(@Param("controlIds") Collection<String> controlIds);
+
     /**
      * Paged unscoped variant used by the chart-review aggregator when no
      * hospital scope is supplied. Sort + limit are applied at the DB level
@@ -2,8 +2,11 @@ package com.example.hms.repository;
 
 import com.example.hms.model.LabSpecimen;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,4 +19,13 @@ public interface LabSpecimenRepository extends JpaRepository<LabSpecimen, UUID>
     boolean existsByAccessionNumber(String accessionNumber);
 
     Optional<LabSpecimen> findByAccessionNumber(String accessionNumber);
+
+    /** Batch form of {@link #findByAccessionNumber} with the order and its hospital fetched — async ORU settlement. */
+    @Query("""
+        SELECT s FROM LabSpecimen s
+        JOIN FETCH s.labOrder o
+        JOIN FETCH o.hospital
+        WHERE s.accessionNumber IN :accessionNumbers
+        """)
+    List<LabSpecimen> findWithOrderByAccessionNumberIn(@Param("accessionNumbers") Collection<String> accessionNumbers);
 }
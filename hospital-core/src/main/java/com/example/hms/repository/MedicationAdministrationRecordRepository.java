@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,6 +18,18 @@ public interface MedicationAdministrationRecordRepository extends JpaRepository<
     List<MedicationAdministrationRecord> findByPatient_IdAndHospital_IdAndStatus(
         UUID patientId, UUID hospitalId, MedicationAdministrationStatus status);
 
+    /** Which of the given prescriptions have at least one MAR entry in {@code status} at the hospital. */
+    @Query("""
+        SELECT DISTINCT m.prescription.id FROM MedicationAdministrationRecord m
+        WHERE m.hospital.id = :hospitalId
+          AND m.status = :status
+          AND m.prescription.id IN :prescriptionIds
+    """)
+    List<UUID> findPrescriptionIdsWithStatus(
+        @Param("hospitalId") UUID hospitalId,
+        @Param("prescriptionIds") Collection<UUID> prescriptionIds,
+        @Param("status") MedicationAdministrationStatus status);
+
     @Query("""
         SELECT m FROM MedicationAdministrationRecord m
         JOIN FETCH m.prescription
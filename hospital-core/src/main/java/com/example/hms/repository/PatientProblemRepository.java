@@ -2,8 +2,11 @@ package com.example.hms.repository;
 
 import com.example.hms.model.PatientProblem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,4 +16,14 @@ public interface PatientProblemRepository extends JpaRepository<PatientProblem,
     List<PatientProblem> findByPatient_Id(UUID patientId);
 
     List<PatientProblem> findByPatient_IdAndHospital_Id(UUID patientId, UUID hospitalId);
+
+    /** {@code $everything} section: {@code _since} in SQL (see EncounterRepository). */
+    @Query("""
+        SELECT c FROM PatientProblem c
+        WHERE c.patient.id = :patientId AND c.hospital.id = :hospitalId
+          AND (c.updatedAt >= :since OR c.updatedAt IS NULL)
+        """)
+    List<PatientProblem> findEverythingSince(
+        @Param("patientId") UUID patientId, @Param("hospitalId") UUID hospitalId,
+        @Param("since") LocalDateTime since);
 }
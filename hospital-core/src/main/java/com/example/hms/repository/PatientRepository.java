@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -104,10 +105,109 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
     @Query("SELECT p FROM Patient p WHERE p.id = :id")
     Optional<Patient> findByIdUnscoped(@Param("id") UUID id);
 
+    /**
+     * Batch form of {@link #findByIdUnscoped}, used to hydrate a page of
+     * {@link com.example.hms.service.search.PatientSearchService} results
+     * whose tenant scope the search query has already enforced.
+     */
+    @Query("SELECT p FROM Patient p WHERE p.id IN :ids")
+    List<Patient> findAllByIdInUnscoped(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * {@code (id, firstName, middleName, lastName)} for the given ids,
+     * unscoped — the audit batch writer fills PATIENT {@code resource_name}s
+     * from its flusher thread, where there is no {@code HospitalContext}.
+     */
+    @Query("SELECT p.id, p.firstName, p.middleName, p.lastName FROM Patient p WHERE p.id IN :ids")
+    List<Object[]> findNameTuplesByIdInUnscoped(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Scalar search columns for every patient — the load query for
+     * {@link com.example.hms.service.search.PatientNgramIndex}. Scalars, not
+     * entities, so the whole table never enters the persistence context.
+     */
+    @Query("""
+        SELECT p.id, p.firstName, p.lastName, p.email, p.phoneNumberPrimary, p.phoneNumberSecondary
+        FROM Patient p
+        """)
+    List<Object[]> findSearchIndexTuples();
+
+    /**
+     * {@link #findSearchIndexTuples()} for just these patients — how the
+     * index patches rows written since it loaded. Deleted ids have no tuple.
+     */
+    @Query("""
+        SELECT p.id, p.firstName, p.lastName, p.email, p.phoneNumberPrimary, p.phoneNumberSecondary
+        FROM Patient p
+        WHERE p.id IN :ids
+        """)
+    List<Object[]> findSearchIndexTuplesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * The non-text filters and tenant scope of {@link #searchPatientsExtended},
+     * applied to ids the n-gram index has already matched on name, phone and email.
+     */
+    @Query("""
+        SELECT DISTINCT p.id FROM Patient p
+        JOIN p.hospitalRegistrations r
+        WHERE p.id IN :ids
+          AND (:hospitalId IS NULL OR r.hospital.id = :hospitalId)
+          AND (:mrn IS NULL OR r.mrn = :mrn)
+          AND (:dob IS NULL OR CAST(p.dateOfBirth AS string) = :dob)
+          AND (:active IS NULL OR p.active = :active)
+          AND r.active = true
+          AND (
+                :#{@tenantContext.isSuperAdmin()} = true OR (
+                    (p.organizationId IS NOT NULL AND p.organizationId IN :#{@tenantContext.effectiveOrganizationIds()})
+                    OR (p.hospitalId IS NOT NULL AND p.hospitalId IN :#{@tenantContext.effectiveHospitalIds()})
+                    OR (r.hospital.id IS NOT NULL AND r.hospital.id IN :#{@tenantContext.effectiveHospitalIds()})
+                )
+              )
+        """)
+    List<UUID> filterSearchCandidates(
+        @Param("ids") Collection<UUID> ids,
+        @Param("mrn") String mrn,
+        @Param("dob") String dob,
+        @Param("hospitalId") UUID hospitalId,
+        @Param("active") Boolean active);
+
   List<Patient> findByActive(boolean active);
 
     List<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
 
+    /**
+     * Scalar match tuples (id, firstName, lastName, dateOfBirth, gender) for
+     * every patient actively registered at a hospital — the load query for
+     * {@link com.example.hms.empi.probabilistic.EmpiMatchIndex}. Scalars, not
+     * entities, so a 500k-row tenant never enters the persistence context.
+     */
+    @Query("""
+        SELECT p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender
+        FROM PatientHospitalRegistration r JOIN r.patient p
+        WHERE r.hospital.id = :hospitalId AND r.active = true
+        """)
+    List<Object[]> findEmpiMatchTuplesByHospital(@Param("hospitalId") UUID hospitalId);
+
+    /** Same tuple shape as {@link #findEmpiMatchTuplesByHospital}, for one page of a dedup scan. */
+    @Query("""
+        SELECT p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender
+        FROM Patient p
+        WHERE p.id IN :ids
+        """)
+    List<Object[]> findEmpiMatchTuplesByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * One keyset page of patient ids strictly after {@code afterId}, unscoped —
+     * the EMPI blocking-key backfill runs off the startup thread, where there
+     * is no {@code HospitalContext}.
+     */
+    @Query("SELECT p.id FROM Patient p WHERE p.id > :afterId ORDER BY p.id")
+    List<UUID> findIdsAfterUnscoped(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /** The given patients with their registrations fetched, unscoped — one backfill page. */
+    @Query("SELECT DISTINCT p FROM Patient p LEFT JOIN FETCH p.hospitalRegistrations WHERE p.id IN :ids")
+    List<Patient> findAllWithRegistrationsByIdInUnscoped(@Param("ids") Collection<UUID> ids);
+
     List<Patient> findByEmailContainingIgnoreCase(String email);
 
     // ── Registration-time exact matchers (cross-hospital by design) ──────────
@@ -3,12 +3,14 @@ package com.example.hms.repository;
 import com.example.hms.model.PatientVitalSign;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +22,26 @@ public interface PatientVitalSignRepository extends JpaRepository<PatientVitalSi
 
     Optional<PatientVitalSign> findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(UUID patientId, UUID hospitalId);
 
+    /**
+     * Latest recording time per patient at a hospital, as {@code [patientId, recordedAt]}
+     * rows — one grouped query for a whole ward instead of one "latest vital" lookup
+     * per bed. Patients with no vitals there have no row.
+     */
+    @Query("SELECT v.patient.id, MAX(v.recordedAt) FROM PatientVitalSign v "
+        + "WHERE v.hospital.id = :hospitalId AND v.patient.id IN :patientIds "
+        + "GROUP BY v.patient.id")
+    List<Object[]> findLatestRecordedAtByPatient(@Param("hospitalId") UUID hospitalId,
+                                                 @Param("patientIds") Collection<UUID> patientIds);
+
+    /**
+     * Newest recording time for the patient, optionally at one hospital — the
+     * freshness check of a stored BPA vitals window (index-only on
+     * {@code (patient_id, hospital_id, recorded_at)}).
+     */
+    @Query("SELECT MAX(v.recordedAt) FROM PatientVitalSign v "
+        + "WHERE v.patient.id = :patientId AND (:hospitalId IS NULL OR v.hospital.id = :hospitalId)")
+    LocalDateTime findLatestRecordedAt(@Param("patientId") UUID patientId, @Param("hospitalId") UUID hospitalId);
+
     List<PatientVitalSign> findByPatient_IdOrderByRecordedAtDesc(UUID patientId, Pageable pageable);
 
     List<PatientVitalSign> findByPatient_IdAndHospital_IdOrderByRecordedAtDesc(UUID patientId, UUID hospitalId, Pageable pageable);
@@ -34,6 +56,17 @@ public interface PatientVitalSignRepository extends JpaRepository<PatientVitalSi
     Page<PatientVitalSign> findPageByPatient_IdAndHospital_IdOrderByRecordedAtDesc(
         UUID patientId, UUID hospitalId, Pageable pageable);
 
+    /** {@code $everything} section: {@code _since} in SQL, no COUNT query (see EncounterRepository). */
+    @Query("""
+        SELECT v FROM PatientVitalSign v
+        WHERE v.patient.id = :patientId AND v.hospital.id = :hospitalId
+          AND (v.updatedAt >= :since OR v.updatedAt IS NULL)
+        ORDER BY v.recordedAt DESC
+        """)
+    Slice<PatientVitalSign> findEverythingSlice(
+        @Param("patientId") UUID patientId, @Param("hospitalId") UUID hospitalId,
+        @Param("since") LocalDateTime since, Pageable pageable);
+
         @Query("""
                 SELECT v FROM PatientVitalSign v
                 WHERE v.patient.id = :patientId
@@ -38,4 +38,29 @@ public interface PermissionMatrixAuditEventRepository extends JpaRepository<Perm
     long countInDateRange(
         @Param("fromInstant") Instant fromInstant,
         @Param("toInstant") Instant toInstant);
-}
\ No newline at end of file
+
+    /** First keyset page; see FrontendAuditEventRepository#findKeysetFirstPage. */
+    @Query("SELECT p FROM PermissionMatrixAuditEvent p WHERE "
+        + "(:fromInstant IS NULL OR p.createdAt >= :fromInstant) AND "
+        + "(:toInstant   IS NULL OR p.createdAt <= :toInstant) "
+        + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PermissionMatrixAuditEvent> findKeysetFirstPage(
+        @Param("fromInstant") Instant fromInstant,
+        @Param("toInstant") Instant toInstant,
+        Pageable limit);
+
+    /** Next keyset page; see FrontendAuditEventRepository#findKeysetNextPage. */
+    @Query(value = "SELECT p.* FROM permission_matrix_audit_events p WHERE "
+        + "(CAST(:fromInstant AS TIMESTAMP WITH TIME ZONE) IS NULL "
+        + " OR p.created_at >= CAST(:fromInstant AS TIMESTAMP WITH TIME ZONE)) AND "
+        + "(CAST(:toInstant AS TIMESTAMP WITH TIME ZONE) IS NULL "
+        + " OR p.created_at <= CAST(:toInstant AS TIMESTAMP WITH TIME ZONE)) AND "
+        + "(p.created_at, p.id) < (CAST(:afterInstant AS TIMESTAMP WITH TIME ZONE), CAST(:afterId AS UUID)) "
+        + "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit", nativeQuery = true)
+    List<PermissionMatrixAuditEvent> findKeysetNextPage(
+        @Param("fromInstant") Instant fromInstant,
+        @Param("toInstant") Instant toInstant,
+        @Param("afterInstant") Instant afterInstant,
+        @Param("afterId") UUID afterId,
+        @Param("limit") int limit);
+}
@@ -4,10 +4,15 @@ import com.example.hms.enums.PrescriptionStatus;
 import com.example.hms.model.Prescription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -38,6 +43,10 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, UUID
     @EntityGraph(attributePaths = {"patient", "staff", "staff.user", "encounter", "encounter.hospital"})
     List<Prescription> findByPatient_IdAndHospital_Id(UUID patientId, UUID hospitalId);
 
+    /** Ward-level MAR source: the given patients' prescriptions in the given statuses, in one query. */
+    List<Prescription> findByHospital_IdAndPatient_IdInAndStatusIn(
+        UUID hospitalId, Collection<UUID> patientIds, Collection<PrescriptionStatus> statuses);
+
     // Hospital-scoped queries for tenant isolation
     @EntityGraph(attributePaths = {"patient", "staff", "staff.user", "encounter", "encounter.hospital"})
     Page<Prescription> findByHospital_Id(UUID hospitalId, Pageable pageable);
@@ -45,6 +54,16 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, UUID
     @EntityGraph(attributePaths = {"patient", "staff", "staff.user", "encounter", "encounter.hospital"})
     Page<Prescription> findByPatient_IdAndHospital_Id(UUID patientId, UUID hospitalId, Pageable pageable);
 
+    /** {@code $everything} section: {@code _since} in SQL, no COUNT query (see EncounterRepository). */
+    @Query("""
+        SELECT p FROM Prescription p
+        WHERE p.patient.id = :patientId AND p.hospital.id = :hospitalId
+          AND (p.updatedAt >= :since OR p.updatedAt IS NULL)
+        """)
+    Slice<Prescription> findEverythingSlice(
+        @Param("patientId") UUID patientId, @Param("hospitalId") UUID hospitalId,
+        @Param("since") LocalDateTime since, Pageable pageable);
+
     @EntityGraph(attributePaths = {"patient", "staff", "staff.user", "encounter", "encounter.hospital"})
     Page<Prescription> findByStaff_IdAndHospital_Id(UUID staffId, UUID hospitalId, Pageable pageable);
 
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +20,10 @@ public interface RoleRepository extends JpaRepository<Role, UUID> {
 
     Optional<Role> findByNameIgnoreCase(String roleName);
 
+    /** {@code names} must already be lower-cased. */
+    @Query("SELECT r FROM Role r WHERE LOWER(r.name) IN :names")
+    List<Role> findByNameInIgnoreCase(@Param("names") Collection<String> names);
+
     @Query("SELECT DISTINCT r FROM Role r " +
         "LEFT JOIN FETCH r.permissions p " +
         "LEFT JOIN FETCH p.assignment a " +
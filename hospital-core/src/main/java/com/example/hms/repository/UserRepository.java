@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -45,6 +46,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
   @Query("select u from User u where lower(u.username) in :usernames")
   List<User> findByUsernameInIgnoreCase(@Param("usernames") List<String> usernames);
 
+  List<User> findByPhoneNumberIn(Collection<String> phoneNumbers);
+
     /* Case-insensitive username finders with roles pre-fetched (for auth) */
     @EntityGraph(attributePaths = {"userRoles", "userRoles.role"})
     @Query("select u from User u where lower(u.username) = lower(:username)")
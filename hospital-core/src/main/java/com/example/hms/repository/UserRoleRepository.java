@@ -3,10 +3,17 @@ package com.example.hms.repository;
 import com.example.hms.model.UserRole;
 import com.example.hms.model.UserRoleId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface UserRoleRepository extends JpaRepository<UserRole, UserRoleId> {
     boolean existsByUserIdAndRoleId(UUID userId, UUID roleId);
+
+    @Query("select ur.id from UserRole ur where ur.id.userId in :userIds")
+    List<UserRoleId> findIdsByUserIdIn(@Param("userIds") Collection<UUID> userIds);
 }
 
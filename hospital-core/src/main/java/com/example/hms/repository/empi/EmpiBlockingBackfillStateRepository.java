@@ -0,0 +1,24 @@
+package com.example.hms.repository.empi;
+
+import com.example.hms.model.empi.EmpiBlockingBackfillState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EmpiBlockingBackfillStateRepository extends JpaRepository<EmpiBlockingBackfillState, Integer> {
+
+    /**
+     * The checkpoint row, locked for the rest of the transaction — nodes
+     * starting together take backfill pages in turn instead of rewriting
+     * the same one.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM EmpiBlockingBackfillState s WHERE s.id = :id")
+    Optional<EmpiBlockingBackfillState> findForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,103 @@
+package com.example.hms.repository.empi;
+
+import com.example.hms.model.empi.EmpiBlockingKey;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmpiBlockingKeyRepository extends JpaRepository<EmpiBlockingKey, UUID> {
+
+    @Query("""
+        SELECT DISTINCT k.patientId FROM EmpiBlockingKey k
+        WHERE k.hospitalId = :hospitalId
+          AND k.keyValue IN :keys
+          AND k.blockYear IN :years
+        """)
+    List<UUID> findBlockedPatientIds(@Param("hospitalId") UUID hospitalId,
+                                     @Param("keys") Collection<String> keys,
+                                     @Param("years") Collection<Integer> years,
+                                     Pageable pageable);
+
+    /** DOB-less probe: same key lookup across every year (still index-anchored on the key prefix). */
+    @Query("""
+        SELECT DISTINCT k.patientId FROM EmpiBlockingKey k
+        WHERE k.hospitalId = :hospitalId
+          AND k.keyValue IN :keys
+        """)
+    List<UUID> findBlockedPatientIdsAnyYear(@Param("hospitalId") UUID hospitalId,
+                                            @Param("keys") Collection<String> keys,
+                                            Pageable pageable);
+
+    /** Super-admin (unscoped) variant — every hospital's keys. */
+    @Query("""
+        SELECT DISTINCT k.patientId FROM EmpiBlockingKey k
+        WHERE k.keyValue IN :keys
+          AND k.blockYear IN :years
+        """)
+    List<UUID> findBlockedPatientIdsUnscoped(@Param("keys") Collection<String> keys,
+                                             @Param("years") Collection<Integer> years,
+                                             Pageable pageable);
+
+    @Query("""
+        SELECT DISTINCT k.patientId FROM EmpiBlockingKey k
+        WHERE k.keyValue IN :keys
+        """)
+    List<UUID> findBlockedPatientIdsUnscopedAnyYear(@Param("keys") Collection<String> keys,
+                                                    Pageable pageable);
+
+    /**
+     * Next page of distinct key values for a hospital strictly after the
+     * checkpoint — the resumable cursor of the batch deduplication scan.
+     * Keyset rather than offset paging so a resumed job costs one index seek.
+     */
+    @Query("""
+        SELECT DISTINCT k.keyValue FROM EmpiBlockingKey k
+        WHERE k.hospitalId = :hospitalId
+          AND k.keyValue > :afterKey
+        ORDER BY k.keyValue
+        """)
+    List<String> findKeyValuesAfter(@Param("hospitalId") UUID hospitalId,
+                                    @Param("afterKey") String afterKey,
+                                    Pageable pageable);
+
+    /** Members of a page of blocks as {@code (keyValue, patientId)} tuples. */
+    @Query("""
+        SELECT k.keyValue, k.patientId FROM EmpiBlockingKey k
+        WHERE k.hospitalId = :hospitalId
+          AND k.keyValue IN :keys
+        """)
+    List<Object[]> findBlockMembers(@Param("hospitalId") UUID hospitalId,
+                                    @Param("keys") Collection<String> keys);
+
+    /**
+     * Block sizes as {@code (keyValue, blockYear, members)} tuples — what the
+     * batch scan needs to decide which DOB-year windows of an oversized block
+     * it skips, without loading the members.
+     */
+    @Query("""
+        SELECT k.keyValue, k.blockYear, COUNT(k) FROM EmpiBlockingKey k
+        WHERE k.hospitalId = :hospitalId
+          AND k.keyValue IN :keys
+        GROUP BY k.keyValue, k.blockYear
+        """)
+    List<Object[]> countBlockMembersByYear(@Param("hospitalId") UUID hospitalId,
+                                           @Param("keys") Collection<String> keys);
+
+    List<EmpiBlockingKey> findByPatientId(UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM EmpiBlockingKey k WHERE k.patientId = :patientId")
+    int deleteByPatientId(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM EmpiBlockingKey k WHERE k.patientId IN :patientIds")
+    int deleteByPatientIdIn(@Param("patientIds") Collection<UUID> patientIds);
+}
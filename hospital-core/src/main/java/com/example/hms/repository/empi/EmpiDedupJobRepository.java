@@ -0,0 +1,37 @@
+package com.example.hms.repository.empi;
+
+import com.example.hms.enums.empi.EmpiDedupJobStatus;
+import com.example.hms.model.empi.EmpiDedupJob;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EmpiDedupJobRepository extends JpaRepository<EmpiDedupJob, UUID> {
+
+    Optional<EmpiDedupJob> findFirstByHospitalIdAndStatusIn(UUID hospitalId, Collection<EmpiDedupJobStatus> statuses);
+
+    Page<EmpiDedupJob> findByHospitalIdOrderByCreatedAtDesc(UUID hospitalId, Pageable pageable);
+
+    /**
+     * Jobs a worker may pick up: queued ones, plus running ones whose
+     * heartbeat went stale (the node that owned them died mid-scan).
+     */
+    @Query("""
+        SELECT j FROM EmpiDedupJob j
+        WHERE j.status = com.example.hms.enums.empi.EmpiDedupJobStatus.QUEUED
+           OR (j.status = com.example.hms.enums.empi.EmpiDedupJobStatus.RUNNING
+               AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore))
+        ORDER BY j.createdAt
+        """)
+    List<EmpiDedupJob> findClaimable(@Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,36 @@
+package com.example.hms.repository.empi;
+
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import com.example.hms.model.empi.EmpiDuplicateCandidate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmpiDuplicateCandidateRepository extends JpaRepository<EmpiDuplicateCandidate, UUID> {
+
+    /** Review queue, best pairs first. */
+    Page<EmpiDuplicateCandidate> findByJobIdOrderByScoreDesc(UUID jobId, Pageable pageable);
+
+    Page<EmpiDuplicateCandidate> findByJobIdAndReviewStatusOrderByScoreDesc(
+        UUID jobId, EmpiDuplicateReviewStatus reviewStatus, Pageable pageable);
+
+    /**
+     * Pairs already recorded for a hospital whose lower id is in the batch —
+     * one query per checkpoint page to skip pairs an earlier scan (or the
+     * pre-crash half of this one) already queued or a steward already decided.
+     */
+    @Query("""
+        SELECT c.patientAId, c.patientBId FROM EmpiDuplicateCandidate c
+        WHERE c.hospitalId = :hospitalId AND c.patientAId IN :patientAIds
+        """)
+    List<Object[]> findExistingPairs(@Param("hospitalId") UUID hospitalId,
+                                     @Param("patientAIds") Collection<UUID> patientAIds);
+}
@@ -5,6 +5,7 @@ import com.example.hms.model.pharmacy.Dispense;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -50,4 +51,15 @@ public interface DispenseRepository extends JpaRepository<Dispense, UUID> {
     BigDecimal sumQuantityDispensedForPrescription(
             @Param("prescriptionId") UUID prescriptionId,
             @Param("excludedStatus") DispenseStatus excludedStatus);
+
+    /**
+     * Claims the cancellation of a completed or partial dispense. Two racing
+     * cancels both pass the in-memory status check; only the one that flips
+     * the row gets 1 back, so stock is returned exactly once.
+     */
+    @Modifying
+    @Query("UPDATE Dispense d SET d.status = com.example.hms.enums.DispenseStatus.CANCELLED, d.updatedAt = :now "
+         + "WHERE d.id = :id AND d.status IN (com.example.hms.enums.DispenseStatus.COMPLETED, "
+         + "com.example.hms.enums.DispenseStatus.PARTIAL)")
+    int markCancelled(@Param("id") UUID id, @Param("now") LocalDateTime now);
 }
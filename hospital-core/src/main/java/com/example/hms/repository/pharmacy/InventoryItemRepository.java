@@ -1,15 +1,21 @@
 package com.example.hms.repository.pharmacy;
 
+import com.example.hms.enums.PharmacyType;
 import com.example.hms.model.pharmacy.InventoryItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -30,4 +36,38 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, UU
     Page<InventoryItem> findByPharmacyHospitalIdAndActiveTrue(UUID hospitalId, Pageable pageable);
 
     List<InventoryItem> findByPharmacyHospitalIdAndMedicationCatalogItemIdAndActiveTrue(UUID hospitalId, UUID medicationCatalogItemId);
+
+    /** Hospital-wide on-hand total for one catalog item; loads {@code HospitalStockView} entries. */
+    @Query("SELECT COALESCE(SUM(i.quantityOnHand), 0) FROM InventoryItem i "
+         + "WHERE i.pharmacy.hospital.id = :hospitalId AND i.medicationCatalogItem.id = :catalogItemId "
+         + "AND i.active = true AND i.pharmacy.pharmacyType = :pharmacyType")
+    BigDecimal sumOnHandByHospitalAndCatalogItem(@Param("hospitalId") UUID hospitalId,
+                                                 @Param("catalogItemId") UUID catalogItemId,
+                                                 @Param("pharmacyType") PharmacyType pharmacyType);
+
+    /** Which of {@code pharmacyIds} carry the catalog item — one query for the whole partner network. */
+    @Query("SELECT DISTINCT i.pharmacy.id FROM InventoryItem i "
+         + "WHERE i.pharmacy.id IN :pharmacyIds AND i.medicationCatalogItem.id = :catalogItemId")
+    Set<UUID> findPharmacyIdsCarrying(@Param("pharmacyIds") Collection<UUID> pharmacyIds,
+                                      @Param("catalogItemId") UUID catalogItemId);
+
+    /**
+     * Atomic conditional decrement of the on-hand aggregate; see
+     * {@link StockLotRepository#withdrawIfAvailable}.
+     *
+     * @return 1 when applied, 0 when fewer than {@code quantity} units are on hand
+     */
+    @Modifying
+    @Query("UPDATE InventoryItem i SET i.quantityOnHand = i.quantityOnHand - :quantity, i.updatedAt = :now "
+         + "WHERE i.id = :id AND i.quantityOnHand >= :quantity")
+    int withdrawIfAvailable(@Param("id") UUID id,
+                            @Param("quantity") BigDecimal quantity,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE InventoryItem i SET i.quantityOnHand = i.quantityOnHand + :quantity, i.updatedAt = :now "
+         + "WHERE i.id = :id")
+    int restore(@Param("id") UUID id,
+                @Param("quantity") BigDecimal quantity,
+                @Param("now") LocalDateTime now);
 }
@@ -4,11 +4,14 @@ import com.example.hms.model.pharmacy.StockLot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,4 +32,25 @@ public interface StockLotRepository extends JpaRepository<StockLot, UUID> {
                                    @Param("cutoffDate") LocalDate cutoffDate);
 
     Page<StockLot> findByInventoryItemPharmacyId(UUID pharmacyId, Pageable pageable);
+
+    /**
+     * Atomic conditional decrement: the availability check and the subtraction
+     * are one statement, so concurrent dispenses serialise on the row lock and
+     * can neither oversell nor overwrite each other's result.
+     *
+     * @return 1 when applied, 0 when fewer than {@code quantity} units remain
+     */
+    @Modifying
+    @Query("UPDATE StockLot s SET s.remainingQuantity = s.remainingQuantity - :quantity, s.updatedAt = :now "
+         + "WHERE s.id = :id AND s.remainingQuantity >= :quantity")
+    int withdrawIfAvailable(@Param("id") UUID id,
+                            @Param("quantity") BigDecimal quantity,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StockLot s SET s.remainingQuantity = s.remainingQuantity + :quantity, s.updatedAt = :now "
+         + "WHERE s.id = :id")
+    int restore(@Param("id") UUID id,
+                @Param("quantity") BigDecimal quantity,
+                @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,24 @@
+package com.example.hms.repository.platform;
+
+import com.example.hms.model.platform.FhirBulkExportFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface FhirBulkExportFileRepository extends JpaRepository<FhirBulkExportFile, UUID> {
+
+    List<FhirBulkExportFile> findByJobIdOrderByResourceTypeAscPartNumberAsc(UUID jobId);
+
+    Optional<FhirBulkExportFile> findByJobIdAndFileName(UUID jobId, String fileName);
+
+    @Modifying
+    @Query("DELETE FROM FhirBulkExportFile f WHERE f.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,40 @@
+package com.example.hms.repository.platform;
+
+import com.example.hms.fhir.bulk.FhirBulkExportService.BulkExportStatus;
+import com.example.hms.model.platform.FhirBulkExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FhirBulkExportJobRepository extends JpaRepository<FhirBulkExportJob, UUID> {
+
+    long countByStatusIn(Collection<BulkExportStatus> statuses);
+
+    /**
+     * Jobs a runner may pick up: queued ones, plus in-progress ones whose
+     * heartbeat went stale (the node streaming them died).
+     */
+    default List<FhirBulkExportJob> findClaimable(Instant staleBefore) {
+        return findClaimable(BulkExportStatus.QUEUED, BulkExportStatus.IN_PROGRESS, staleBefore);
+    }
+
+    // Statuses are bound rather than written as literals: the enum is nested
+    // in FhirBulkExportService, which JPQL cannot name portably.
+    @Query("""
+        SELECT j FROM FhirBulkExportJob j
+        WHERE j.status = :queued
+           OR (j.status = :inProgress
+               AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore))
+        ORDER BY j.createdAt
+        """)
+    List<FhirBulkExportJob> findClaimable(@Param("queued") BulkExportStatus queued,
+                                          @Param("inProgress") BulkExportStatus inProgress,
+                                          @Param("staleBefore") Instant staleBefore);
+}
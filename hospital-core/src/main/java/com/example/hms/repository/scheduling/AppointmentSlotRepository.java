@@ -1,14 +1,15 @@
 package com.example.hms.repository.scheduling;
 
-import com.example.hms.enums.SlotStatus;
 import com.example.hms.model.scheduling.AppointmentSlot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,6 +18,18 @@ public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot
 
     boolean existsByStaff_IdAndStartAt(UUID staffId, LocalDateTime startAt);
 
+    /**
+     * Every occupied (staff, start) pair in a window, as {@code [staffId, startAt]}
+     * rows — what bulk generation subtracts from the slot grid, in one query
+     * instead of one existence check per candidate slot.
+     */
+    @Query("SELECT s.staff.id, s.startAt FROM AppointmentSlot s "
+        + "WHERE s.staff.id IN :staffIds "
+        + "AND s.startAt >= :fromInclusive AND s.startAt < :toExclusive")
+    List<Object[]> findStaffStartTimes(@Param("staffIds") Collection<UUID> staffIds,
+                                       @Param("fromInclusive") LocalDateTime fromInclusive,
+                                       @Param("toExclusive") LocalDateTime toExclusive);
+
     List<AppointmentSlot> findBySessionTemplate_IdAndSlotDateBetween(
         UUID sessionTemplateId, LocalDate from, LocalDate to);
 
@@ -49,6 +62,15 @@ public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot
                                      @Param("now") LocalDateTime now,
                                      org.springframework.data.domain.Pageable pageable);
 
-    /** Holds whose window has passed, for the reclaim sweep. */
-    List<AppointmentSlot> findByStatusAndHeldUntilBefore(SlotStatus status, LocalDateTime cutoff);
+    /**
+     * The reclaim sweep as one statement: every hold whose window has passed
+     * goes back to OPEN. Served by the partial {@code idx_slot_held_until}
+     * index; no rows are loaded into the persistence context.
+     */
+    @Modifying
+    @Query("UPDATE AppointmentSlot s "
+        + "SET s.status = com.example.hms.enums.SlotStatus.OPEN, "
+        + "    s.heldUntil = NULL, s.heldByUserId = NULL, s.updatedAt = :now "
+        + "WHERE s.status = com.example.hms.enums.SlotStatus.HELD AND s.heldUntil < :now")
+    int reopenExpiredHolds(@Param("now") LocalDateTime now);
 }
@@ -6,6 +6,7 @@ import com.example.hms.security.context.HospitalContextRequestOverrides;
 import com.example.hms.security.context.ImpersonationContextHolder;
 import com.example.hms.service.HospitalLifecycleStatusService;
 import com.example.hms.service.OrganizationLifecycleStatusService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +27,7 @@ import java.time.Instant;
 import java.util.Date;
 import java.util.Deque;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -156,16 +158,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * older than the global revocation timestamp. Tolerates tokens without
      * an iat claim (treats them as not-revoked) and exceptions during
      * extraction (treats them as not-revoked, so a parser hiccup never
-     * locks every user out — the {@link #tokenProvider#validateToken}
-     * call already guarded structural validity).
+     * locks every user out — {@link JwtTokenProvider#parseVerifiedClaims}
+     * already guarded structural validity).
      */
-    private boolean isRevokedByGlobalIat(String jwt) {
+    private boolean isRevokedByGlobalIat(Claims claims) {
         Instant minIat = globalSessionRevocationService.getGlobalMinTokenIat();
         if (minIat == null || minIat.equals(Instant.EPOCH)) {
             return false;
         }
         try {
-            Date issuedAt = tokenProvider.getIssuedAt(jwt);
+            Date issuedAt = claims.getIssuedAt();
             if (issuedAt == null) {
                 return false;
             }
@@ -175,9 +177,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * The token is verified exactly once, by
+     * {@link JwtTokenProvider#parseVerifiedClaims} (which caches the result
+     * until {@code exp}); every later gate reads that one {@link Claims}
+     * instance instead of re-parsing the compact token.
+     */
     private boolean handleJwtAuthentication(HttpServletRequest request, HttpServletResponse response,
                                             String path, String jwt) {
-        String extractedSubject = safeExtractSubject(jwt);
+        Optional<Claims> verified = tokenProvider.parseVerifiedClaims(jwt);
+        // An unverifiable token can still carry a subject we already know is
+        // missing (e.g. signed with the previous rotation key), so fall back
+        // to the lenient extraction only on that path.
+        String extractedSubject = verified.isPresent()
+            ? verified.get().getSubject()
+            : safeExtractSubject(jwt);
 
         if (isKnownMissingPrincipal(extractedSubject)) {
             log.debug("[JWT] Short-circuiting cached missing user '{}' on path={}", extractedSubject, path);
@@ -185,8 +199,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return false;
         }
 
-        if (tokenProvider.validateToken(jwt)) {
-            return handleValidatedToken(request, response, path, jwt, extractedSubject);
+        if (verified.isPresent()) {
+            return handleValidatedToken(request, response, path, jwt, verified.get(), extractedSubject);
         } else {
             // Do NOT log the raw Authorization header — even an invalid/expired token
             // still embeds the user's subject claim and could be a partial credential
@@ -213,12 +227,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      */
     private boolean handleValidatedToken(
         HttpServletRequest request, HttpServletResponse response,
-        String path, String jwt, String extractedSubject
+        String path, String jwt, Claims claims, String extractedSubject
     ) {
-        // Reject tokens that have been explicitly revoked (logout / refresh rotation)
-        String jti = tokenProvider.getJtiFromToken(jwt);
+        // Reject tokens that have been explicitly revoked (logout / refresh rotation).
+        // Checked on every request — a cached verification never skips it.
+        String jti = claims.getId();
         if (jti != null && tokenBlacklistService.isBlacklisted(jti)) {
             log.debug("[JWT] Token jti={} is blacklisted, rejecting on path={}", jti, path);
+            tokenProvider.evictVerifiedClaims(jwt);
             respondUnauthorized(response, extractedSubject);
             return false;
         }
@@ -227,8 +243,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Force-logout-all bumps `globalMinTokenIat` to "now"; any token
         // issued before that instant is rejected. Cached + refreshed every
         // 30 s by GlobalSessionRevocationService so this stays a hot path.
-        if (isRevokedByGlobalIat(jwt)) {
+        if (isRevokedByGlobalIat(claims)) {
             log.warn("[JWT] Token rejected by global session revocation on path={}", path);
+            tokenProvider.evictVerifiedClaims(jwt);
             respondUnauthorized(response, extractedSubject);
             return false;
         }
@@ -236,7 +253,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (log.isTraceEnabled()) {
             log.trace("[JWT] Token present and valid (len={})", jwt.length());
         }
-        if (!applyAuthentication(jwt, request, extractedSubject)) {
+        if (!applyAuthentication(jwt, claims, request, extractedSubject)) {
             respondUnauthorized(response, extractedSubject);
             return false;
         }
@@ -306,17 +323,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private boolean applyAuthentication(String jwt, HttpServletRequest request, String extractedSubject) {
+    private boolean applyAuthentication(String jwt, Claims claims, HttpServletRequest request,
+                                        String extractedSubject) {
         try {
-            Authentication authentication = tokenProvider.getAuthenticationFromJwt(jwt);
+            Authentication authentication = tokenProvider.getAuthentication(claims, jwt);
             log.debug("[JWT] Setting authentication for principal={} authorities={}",
                 authentication.getName(), authentication.getAuthorities());
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            HospitalContext context = tokenProvider.extractHospitalContext(jwt, authentication);
+            HospitalContext context = tokenProvider.extractHospitalContext(claims, authentication);
             context = applyRequestOverrides(context, request);
             HospitalContextHolder.setContext(context);
-            tokenProvider.extractImpersonationContext(jwt)
+            tokenProvider.extractImpersonationContext(claims)
                 .ifPresent(ImpersonationContextHolder::set);
             forgetMissingPrincipal(extractedSubject);
             return true;
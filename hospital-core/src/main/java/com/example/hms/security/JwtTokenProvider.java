@@ -89,6 +89,12 @@ public class JwtTokenProvider {
     @Value("${app.jwt.previous-public-key:}")
     private String previousPublicKeyPem;
 
+    /** Upper bound on tokens whose verified claims are kept; {@code 0} disables the cache. */
+    @Value("${app.jwt.claims-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries = 10_000;
+
+    private VerifiedClaimsCache verifiedClaimsCache = new VerifiedClaimsCache(0);
+
     /** Signing key — either HMAC SecretKey or RSA PrivateKey. */
     private Key signingKey;
 
@@ -121,6 +127,8 @@ public class JwtTokenProvider {
         } else {
             initHmac();
         }
+        // Fresh cache per key set: nothing verified under an earlier key survives a re-init.
+        this.verifiedClaimsCache = new VerifiedClaimsCache(claimsCacheMaxEntries);
     }
 
     private void initAsymmetric() {
@@ -436,7 +444,19 @@ public class JwtTokenProvider {
      */
     public Optional<com.example.hms.security.context.ImpersonationContext> extractImpersonationContext(String token) {
         try {
-            Claims claims = parseClaimsWithRotation(token);
+            return extractImpersonationContext(parseClaimsWithRotation(token));
+        } catch (RuntimeException ex) {
+            log.debug("[JWT] Could not extract impersonation context: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Same as {@link #extractImpersonationContext(String)} over claims the
+     * caller already verified via {@link #parseVerifiedClaims}.
+     */
+    public Optional<com.example.hms.security.context.ImpersonationContext> extractImpersonationContext(Claims claims) {
+        try {
             String idStr = claims.get(CLAIM_IMPERSONATOR_USER_ID, String.class);
             String username = claims.get(CLAIM_IMPERSONATOR_USERNAME, String.class);
             if (!StringUtils.hasText(idStr) || !StringUtils.hasText(username)) {
@@ -532,6 +552,17 @@ public class JwtTokenProvider {
         if (claimsOptional.isEmpty()) {
             return HospitalContext.empty();
         }
+        return extractHospitalContext(claimsOptional.get(), authentication);
+    }
+
+    /**
+     * Same as {@link #extractHospitalContext(String, Authentication)} over
+     * claims the caller already verified via {@link #parseVerifiedClaims}.
+     */
+    public HospitalContext extractHospitalContext(Claims claims, Authentication authentication) {
+        if (claims == null) {
+            return HospitalContext.empty();
+        }
 
         HospitalUserDetails userDetails = (authentication != null && authentication.getPrincipal() instanceof HospitalUserDetails details)
             ? details
@@ -541,7 +572,7 @@ public class JwtTokenProvider {
             ? authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()
             : List.of();
 
-        return buildHospitalContext(claimsOptional.get(), userDetails, authorities);
+        return buildHospitalContext(claims, userDetails, authorities);
     }
 
     private Optional<Claims> parseClaimsSafely(String token) {
@@ -661,8 +692,14 @@ public class JwtTokenProvider {
     }
 
     public Authentication getAuthenticationFromJwt(String token) {
-        Claims claims = parseClaimsWithRotation(token);
+        return getAuthentication(parseClaimsWithRotation(token), token);
+    }
 
+    /**
+     * Builds the authentication for an already-verified token; {@code token}
+     * is kept as the credentials, as {@link #getAuthenticationFromJwt} does.
+     */
+    public Authentication getAuthentication(Claims claims, String token) {
         String username = claims.getSubject();
 
         @SuppressWarnings("unchecked")
@@ -727,13 +764,39 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String authToken) {
+        return parseVerifiedClaims(authToken).isPresent();
+    }
+
+    /**
+     * Verifies {@code token} once and returns its claims, or empty when the
+     * signature, structure or expiry check fails — the same acceptance rule
+     * as {@link #validateToken}. Successful results are cached until the
+     * token's {@code exp}, so a bearer token presented on every request
+     * skips the signature check after the first. Callers must still apply
+     * the blacklist and global-revocation gates to the returned claims.
+     */
+    public Optional<Claims> parseVerifiedClaims(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+        Claims cached = verifiedClaimsCache.get(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            jwtParser()
-                .parseSignedClaims(authToken);
-            return true;
+            Claims claims = jwtParser().parseSignedClaims(token).getPayload();
+            verifiedClaimsCache.put(token, claims);
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException ex) {
             log.error("❌ JWT validation error: {}", ex.getMessage());
-            return false;
+            return Optional.empty();
+        }
+    }
+
+    /** Drops a token's cached claims, e.g. once it is found blacklisted or revoked. */
+    public void evictVerifiedClaims(String token) {
+        if (StringUtils.hasText(token)) {
+            verifiedClaimsCache.evict(token);
         }
     }
 
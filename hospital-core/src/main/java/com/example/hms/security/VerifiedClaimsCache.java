@@ -0,0 +1,81 @@
+package com.example.hms.security;
+
+import com.example.hms.utility.BoundedTtlCache;
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Bounded cache of signature-verified JWT claims, so a bearer token sent on
+ * every request pays for one RSA / HMAC verification per token lifetime
+ * instead of several per request.
+ *
+ * <p>Keyed on the SHA-256 of the compact token: the raw credential is never
+ * held as a map key. A verified signature cannot become invalid while the
+ * token bytes stay the same, so entries live until the token's own
+ * {@code exp}, capped at {@link #MAX_RETENTION}; tokens without one are
+ * not cached. Revocation is NOT decided here — the blacklist and the
+ * global-revocation {@code iat} floor are still checked against the claims
+ * on every request, and {@link #evict} drops a token as soon as either
+ * rejects it.
+ *
+ * <p>Storage and eviction are {@link BoundedTtlCache}'s. A new instance is
+ * built on every {@link JwtTokenProvider#init()}, so a key change never
+ * serves claims verified under the old key.
+ */
+final class VerifiedClaimsCache {
+
+    /** Upper bound on how long a verified token is kept, whatever its {@code exp}. */
+    static final Duration MAX_RETENTION = Duration.ofHours(1);
+
+    private final BoundedTtlCache<String, Claims> entries;
+
+    VerifiedClaimsCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    VerifiedClaimsCache(int maxEntries, Clock clock) {
+        this.entries = new BoundedTtlCache<>(maxEntries, MAX_RETENTION, clock);
+    }
+
+    boolean isEnabled() {
+        return entries.isEnabled();
+    }
+
+    /** Claims verified earlier for {@code token} and not yet expired; otherwise {@code null}. */
+    Claims get(String token) {
+        if (!isEnabled()) return null;
+        return entries.getIfPresent(keyOf(token));
+    }
+
+    void put(String token, Claims claims) {
+        if (!isEnabled()) return;
+        Date expiration = claims.getExpiration();
+        if (expiration == null) return;
+        entries.put(keyOf(token), claims, expiration.getTime());
+    }
+
+    void evict(String token) {
+        if (!isEnabled()) return;
+        entries.invalidate(keyOf(token));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.hms.security.authz;
+
+import com.example.hms.model.UserRoleHospitalAssignment;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that drops the cached {@link AssignmentSnapshot} of a
+ * user whenever one of their {@link UserRoleHospitalAssignment} rows is
+ * created, changed (activation, role, hospital) or deleted.
+ *
+ * <p>The snapshot is dropped at once, so the writing transaction does not
+ * read back its own stale snapshot, and again when that transaction
+ * completes, so one re-read between flush and commit cannot outlive the
+ * change. See {@link AfterCommitEntityListener}.
+ */
+public class AssignmentChangeListener extends AfterCommitEntityListener<AssignmentSnapshotCache, UUID> {
+
+    public AssignmentChangeListener() {
+        super(AssignmentSnapshotCache.class, "[AUTHZ]");
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(UserRoleHospitalAssignment assignment) {
+        UUID userId = assignment.getUser() != null ? assignment.getUser().getId() : null;
+        now(userId, AssignmentSnapshotCache::invalidate);
+        queue(userId);
+    }
+
+    @Override
+    protected void afterCompletion(AssignmentSnapshotCache cache, Set<UUID> userIds, boolean committed) {
+        userIds.forEach(cache::invalidate);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.hms.security.authz;
+
+import com.example.hms.model.UserRoleHospitalAssignment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable view of one user's <b>active</b> role assignments, loaded with a
+ * single query and answered from memory afterwards: which hospitals the user
+ * is active in, and which role codes they hold in each.
+ *
+ * <p>Holds ids and upper-cased role codes only — never entities — so it is
+ * safe to share across requests and threads. A {@code null} hospital key is
+ * a global (unscoped) assignment, matching
+ * {@link UserRoleHospitalAssignment#getHospital()} being nullable.
+ */
+public final class AssignmentSnapshot {
+
+    /** One active assignment: its id, hospital ({@code null} = global) and role code. */
+    public record Grant(UUID assignmentId, UUID hospitalId, String roleCode) { }
+
+    private final UUID userId;
+    private final List<Grant> grants;
+    private final Map<UUID, Set<String>> rolesByHospital;
+
+    private AssignmentSnapshot(UUID userId, List<Grant> grants) {
+        this.userId = userId;
+        this.grants = List.copyOf(grants);
+        Map<UUID, Set<String>> byHospital = new HashMap<>();
+        for (Grant grant : grants) {
+            Set<String> codes = byHospital.computeIfAbsent(grant.hospitalId(), k -> new HashSet<>());
+            if (grant.roleCode() != null) codes.add(grant.roleCode());
+        }
+        byHospital.replaceAll((k, codes) -> Collections.unmodifiableSet(codes));
+        this.rolesByHospital = Collections.unmodifiableMap(byHospital);
+    }
+
+    public static AssignmentSnapshot of(UUID userId, Collection<UserRoleHospitalAssignment> active) {
+        List<Grant> grants = new ArrayList<>(active.size());
+        for (UserRoleHospitalAssignment a : active) {
+            UUID hospitalId = a.getHospital() != null ? a.getHospital().getId() : null;
+            String roleCode = a.getRole() != null && a.getRole().getCode() != null
+                ? a.getRole().getCode().toUpperCase()
+                : null;
+            grants.add(new Grant(a.getId(), hospitalId, roleCode));
+        }
+        return new AssignmentSnapshot(userId, grants);
+    }
+
+    public UUID userId() {
+        return userId;
+    }
+
+    public List<Grant> grants() {
+        return grants;
+    }
+
+    public boolean isEmpty() {
+        return grants.isEmpty();
+    }
+
+    /** The hospital of the only active assignment; {@code null} if there are zero, several, or it is global. */
+    public UUID singleHospitalId() {
+        return grants.size() == 1 ? grants.get(0).hospitalId() : null;
+    }
+
+    /** Any active assignment whose hospital equals {@code hospitalId} ({@code null} matches global ones). */
+    public boolean isActiveIn(UUID hospitalId) {
+        return rolesByHospital.containsKey(hospitalId);
+    }
+
+    /**
+     * True if the user holds one of {@code upperCaseCodes} in {@code hospitalId}.
+     * A {@code null} hospital never matches, as with the
+     * {@code a.hospital.id = :hospitalId} query this replaces.
+     */
+    public boolean hasAnyRole(UUID hospitalId, Set<String> upperCaseCodes) {
+        if (hospitalId == null) return false;
+        Set<String> held = rolesByHospital.get(hospitalId);
+        if (held == null) return false;
+        for (String code : upperCaseCodes) {
+            if (held.contains(code)) return true;
+        }
+        return false;
+    }
+
+    /** Id of an active assignment in {@code hospitalId}, or {@code null}. */
+    public UUID assignmentIdIn(UUID hospitalId) {
+        if (hospitalId == null) return null;
+        for (Grant grant : grants) {
+            if (hospitalId.equals(grant.hospitalId())) return grant.assignmentId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.hms.security.authz;
+
+import com.example.hms.utility.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Two-level cache of {@link AssignmentSnapshot}s behind
+ * {@link com.example.hms.utility.RoleValidator}, so one controller action
+ * that asks "which hospital / is this user a nurse here?" five to ten times
+ * pays for at most one assignment query.
+ *
+ * <ol>
+ *   <li><b>Request level</b> — snapshots memoised on the current
+ *       {@link RequestAttributes} for the life of the HTTP request. Threads
+ *       without a bound request (schedulers, async workers) skip this
+ *       level.</li>
+ *   <li><b>Shared level</b> — a {@link BoundedTtlCache} keyed by user id
+ *       with a short TTL ({@code app.authz.assignment-cache.*}).
+ *       {@code max-entries=0} turns it off.</li>
+ * </ol>
+ *
+ * <p>Invalidation: {@link AssignmentChangeListener} calls
+ * {@link #invalidate(UUID)} whenever an assignment row is inserted, updated
+ * or deleted through JPA — immediately, and again once the surrounding
+ * transaction completes, so a snapshot re-read between flush and commit
+ * cannot outlive the change. A load that overlaps an invalidation of the
+ * same user is returned to its caller but not stored. Changes made on
+ * another node, or by SQL outside JPA, become visible when the TTL runs out.
+ *
+ * <p>Metrics: {@value #METRIC_LOOKUPS}{@code {outcome=request|shared|loaded}}
+ * counts every lookup ({@code request} and {@code shared} are queries
+ * saved), and {@value #METRIC_SAVED_PER_REQUEST} records the queries saved
+ * by each HTTP request when it completes.
+ */
+@Slf4j
+@Component
+public class AssignmentSnapshotCache {
+
+    static final String METRIC_LOOKUPS = "hms.authz.assignment.lookups";
+    static final String METRIC_SAVED_PER_REQUEST = "hms.authz.assignment.queries.saved";
+    static final String OUTCOME_REQUEST = "request";
+    static final String OUTCOME_SHARED = "shared";
+    static final String OUTCOME_LOADED = "loaded";
+
+    private static final String REQUEST_ATTRIBUTE = AssignmentSnapshotCache.class.getName() + ".snapshots";
+
+    /** Per-request memo; only touched by the thread the request is bound to. */
+    private static final class RequestLedger {
+        private final Map<UUID, AssignmentSnapshot> snapshots = new ConcurrentHashMap<>();
+        private final AtomicInteger saved = new AtomicInteger();
+    }
+
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final BoundedTtlCache<UUID, AssignmentSnapshot> shared;
+
+    @Autowired
+    public AssignmentSnapshotCache(
+        @Value("${app.authz.assignment-cache.max-entries:10000}") int maxEntries,
+        @Value("${app.authz.assignment-cache.ttl-seconds:30}") long ttlSeconds,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(maxEntries, Duration.ofSeconds(Math.max(0, ttlSeconds)), meterRegistry);
+    }
+
+    public AssignmentSnapshotCache(int maxEntries, Duration ttl, @Nullable MeterRegistry meterRegistry) {
+        this.shared = new BoundedTtlCache<>(maxEntries, ttl);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Snapshot for {@code userId}: from this request, else from the shared
+     * cache, else from {@code loader} (one query).
+     */
+    public AssignmentSnapshot get(UUID userId, Function<UUID, AssignmentSnapshot> loader) {
+        RequestLedger ledger = currentLedger(true);
+        if (ledger != null) {
+            AssignmentSnapshot local = ledger.snapshots.get(userId);
+            if (local != null) {
+                ledger.saved.incrementAndGet();
+                count(OUTCOME_REQUEST);
+                return local;
+            }
+        }
+        AssignmentSnapshot snapshot = shared.getIfPresent(userId);
+        if (snapshot != null) {
+            if (ledger != null) ledger.saved.incrementAndGet();
+            count(OUTCOME_SHARED);
+        } else {
+            snapshot = shared.load(userId, () -> loader.apply(userId));
+            count(OUTCOME_LOADED);
+        }
+        if (ledger != null) ledger.snapshots.put(userId, snapshot);
+        return snapshot;
+    }
+
+    /** Drop {@code userId}'s snapshot from both levels. */
+    public void invalidate(UUID userId) {
+        if (userId == null) return;
+        shared.invalidate(userId);
+        RequestLedger ledger = currentLedger(false);
+        if (ledger != null) ledger.snapshots.remove(userId);
+    }
+
+    public void invalidateAll() {
+        shared.invalidateAll();
+        RequestLedger ledger = currentLedger(false);
+        if (ledger != null) ledger.snapshots.clear();
+    }
+
+    int size() {
+        return shared.size();
+    }
+
+    private RequestLedger currentLedger(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return null;
+        Object existing = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (existing instanceof RequestLedger ledger) return ledger;
+        if (!create) return null;
+        RequestLedger ledger = new RequestLedger();
+        attributes.setAttribute(REQUEST_ATTRIBUTE, ledger, RequestAttributes.SCOPE_REQUEST);
+        attributes.registerDestructionCallback(REQUEST_ATTRIBUTE,
+            () -> recordSaved(ledger.saved.get()), RequestAttributes.SCOPE_REQUEST);
+        return ledger;
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_LOOKUPS)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_LOOKUPS, ex.getMessage());
+        }
+    }
+
+    private void recordSaved(int saved) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            DistributionSummary.builder(METRIC_SAVED_PER_REQUEST)
+                .register(meterRegistry)
+                .record(saved);
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_SAVED_PER_REQUEST, ex.getMessage());
+        }
+    }
+}
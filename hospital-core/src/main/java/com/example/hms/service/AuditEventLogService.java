@@ -18,6 +18,13 @@ public interface AuditEventLogService {
 
     AuditEventLogResponseDTO logEvent(AuditEventRequestDTO requestDTO);
 
+    /**
+     * Fire-and-forget variant of {@link #logEvent} for callers that do not
+     * need the persisted row: the event is buffered and written in batches
+     * off the caller's thread. Never throws.
+     */
+    void submitEvent(AuditEventRequestDTO requestDTO);
+
     Page<AuditEventLogResponseDTO> getAuditLogsByEventTypeAndStatus(AuditEventType parsedType, AuditStatus parsedStatus, Pageable pageable);
 
     Page<AuditEventLogResponseDTO> getAuditLogsByDateRange(LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable);
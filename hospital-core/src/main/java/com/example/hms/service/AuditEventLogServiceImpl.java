@@ -16,6 +16,8 @@ import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
 import com.example.hms.repository.StaffRepository;
 import com.example.hms.security.context.ImpersonationContext;
 import com.example.hms.security.context.ImpersonationContextHolder;
+import com.example.hms.service.audit.AuditEventSink;
+import com.example.hms.service.audit.PendingAuditEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -42,6 +44,7 @@ public class AuditEventLogServiceImpl implements AuditEventLogService {
     private final ObjectMapper objectMapper;
     private final PatientRepository patientRepository;
     private final StaffRepository staffRepository;
+    private final AuditEventSink auditEventSink;
 
     @Override
     @Transactional(readOnly = true)
@@ -113,6 +116,45 @@ public class AuditEventLogServiceImpl implements AuditEventLogService {
         }
     }
 
+    /**
+     * Captures everything that depends on the caller's thread (details JSON,
+     * impersonator, event time, row id) and hands the event to the
+     * {@link AuditEventSink}. Users, assignments and patient names are
+     * resolved by the batch writer. Like {@link #logEvent}, never throws.
+     */
+    @Override
+    public void submitEvent(AuditEventRequestDTO requestDTO) {
+        try {
+            ImpersonatorIdentity impersonator = resolveImpersonatorIdentity(requestDTO);
+            auditEventSink.submit(new PendingAuditEvent(
+                UUID.randomUUID(),
+                LocalDateTime.now(),
+                requestDTO.getUserId(),
+                requestDTO.getUserName(),
+                requestDTO.getAssignmentId(),
+                requestDTO.getRoleName(),
+                requestDTO.getHospitalName(),
+                requestDTO.getEventType(),
+                requestDTO.getEventDescription(),
+                requestDTO.getIpAddress(),
+                requestDTO.getStatus(),
+                convertDetailsToString(requestDTO.getDetails()),
+                requestDTO.getResourceId(),
+                requestDTO.getResourceName(),
+                requestDTO.getEntityType(),
+                impersonator.userId(),
+                impersonator.username()));
+        } catch (Exception e) {
+            log.error("[AUDIT] Failed to submit audit event (eventType={}, entityType={}, resourceId={}, userId={}, userName={}): {}",
+                    requestDTO.getEventType(),
+                    requestDTO.getEntityType(),
+                    requestDTO.getResourceId(),
+                    requestDTO.getUserId(),
+                    requestDTO.getUserName(),
+                    e.getMessage(), e);
+        }
+    }
+
     /**
      * Internal implementation that does the actual audit persistence.
      * Separated from {@link #logEvent} so the outer method can swallow exceptions.
@@ -0,0 +1,292 @@
+package com.example.hms.service;
+
+import com.example.hms.enums.AbnormalFlag;
+import com.example.hms.model.LabResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * A {@link com.example.hms.model.LabReflexRule#getCondition() reflex rule
+ * condition} parsed once into typed clauses, so evaluating it against a
+ * result is a handful of comparisons instead of a JSON parse.
+ *
+ * <p>Recognised keys — a matching {@code severityFlag} fires the rule on its
+ * own (as the original per-result evaluation did); otherwise every other
+ * clause present must hold:
+ * <pre>
+ * {"severityFlag":"ABNORMAL"}                                    flag equals (missing flag = NORMAL)
+ * {"thresholdOperator":"GT","thresholdValue":11.0}               GT | GTE | LT | LTE | EQ
+ * {"rangeLow":3.5,"rangeHigh":5.1,"rangeMode":"OUTSIDE"}         inclusive bounds, INSIDE (default) | OUTSIDE
+ * {"deltaOperator":"GTE","deltaValue":25,"deltaMode":"PERCENT",
+ *  "deltaDirection":"FALL","deltaWindowHours":72}                change vs the patient's previous result
+ * </pre>
+ * Delta checks compare against the most recent earlier numeric result of
+ * the same test inside the window (default {@value #DEFAULT_DELTA_WINDOW_HOURS}h);
+ * {@code deltaMode} is ABSOLUTE (default) or PERCENT of the prior value and
+ * {@code deltaDirection} RISE, FALL or ANY (default, magnitude only). No
+ * prior result means the delta clause does not fire.
+ *
+ * <p>A condition that cannot be compiled — bad JSON, unknown operator, no
+ * recognised clause — never fires; {@link #error()} says why.
+ */
+public final class LabReflexCondition {
+
+    static final long DEFAULT_DELTA_WINDOW_HOURS = 72;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Null when the condition has no {@code severityFlag}. */
+    private final SeverityClause severity;
+    /** Every other clause, combined with AND. */
+    private final List<Clause> clauses;
+    private final String error;
+
+    private LabReflexCondition(SeverityClause severity, List<Clause> clauses, String error) {
+        this.severity = severity;
+        this.clauses = clauses;
+        this.error = error;
+    }
+
+    /** Compile a condition; never throws. */
+    public static LabReflexCondition compile(String conditionJson) {
+        if (conditionJson == null || conditionJson.isBlank()) {
+            return invalid("condition is empty");
+        }
+        try {
+            JsonNode node = MAPPER.readTree(conditionJson);
+            if (node == null || !node.isObject()) {
+                return invalid("condition is not a JSON object");
+            }
+            SeverityClause severity = node.hasNonNull("severityFlag")
+                ? new SeverityClause(
+                    AbnormalFlag.valueOf(node.get("severityFlag").asText().trim().toUpperCase(Locale.ROOT)))
+                : null;
+            List<Clause> clauses = new ArrayList<>(3);
+            if (node.hasNonNull("thresholdOperator") && node.hasNonNull("thresholdValue")) {
+                clauses.add(new ThresholdClause(
+                    Operator.parse(node.get("thresholdOperator").asText()),
+                    number(node, "thresholdValue")));
+            }
+            if (node.hasNonNull("rangeLow") || node.hasNonNull("rangeHigh")) {
+                clauses.add(new RangeClause(
+                    node.hasNonNull("rangeLow") ? number(node, "rangeLow") : Double.NEGATIVE_INFINITY,
+                    node.hasNonNull("rangeHigh") ? number(node, "rangeHigh") : Double.POSITIVE_INFINITY,
+                    "OUTSIDE".equalsIgnoreCase(text(node, "rangeMode", "INSIDE"))));
+            }
+            if (node.hasNonNull("deltaOperator") && node.hasNonNull("deltaValue")) {
+                clauses.add(new DeltaClause(
+                    Operator.parse(node.get("deltaOperator").asText()),
+                    number(node, "deltaValue"),
+                    "PERCENT".equalsIgnoreCase(text(node, "deltaMode", "ABSOLUTE")),
+                    Direction.valueOf(text(node, "deltaDirection", "ANY").toUpperCase(Locale.ROOT)),
+                    Duration.ofHours(node.hasNonNull("deltaWindowHours")
+                        ? node.get("deltaWindowHours").asLong() : DEFAULT_DELTA_WINDOW_HOURS)));
+            }
+            if (severity == null && clauses.isEmpty()) {
+                return invalid("no recognised clause");
+            }
+            return new LabReflexCondition(severity, List.copyOf(clauses), null);
+        } catch (Exception ex) {
+            return invalid(ex.getMessage());
+        }
+    }
+
+    /**
+     * True when the severity flag matches, or every other clause holds for
+     * the subject; always false for an invalid condition.
+     */
+    public boolean matches(Subject subject) {
+        if (severity != null && severity.test(subject)) return true;
+        if (clauses.isEmpty()) return false;
+        for (Clause clause : clauses) {
+            if (!clause.test(subject)) return false;
+        }
+        return true;
+    }
+
+    /** Whether evaluating this condition may need the patient's previous results. */
+    public boolean needsPriorResults() {
+        for (Clause clause : clauses) {
+            if (clause instanceof DeltaClause) return true;
+        }
+        return false;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /** Why the condition could not be compiled; null when valid. */
+    public String error() {
+        return error;
+    }
+
+    private static LabReflexCondition invalid(String reason) {
+        return new LabReflexCondition(null, List.of(), reason == null ? "unparseable condition" : reason);
+    }
+
+    private static double number(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (!value.isNumber() && !value.isTextual()) {
+            throw new IllegalArgumentException(field + " is not numeric");
+        }
+        return value.isNumber() ? value.doubleValue() : Double.parseDouble(value.asText().trim());
+    }
+
+    private static String text(JsonNode node, String field, String fallback) {
+        return node.hasNonNull(field) ? node.get(field).asText().trim() : fallback;
+    }
+
+    // ── Evaluation input ────────────────────────────────────────────────────
+
+    /**
+     * One result as the clauses see it. The numeric value is parsed once and
+     * the prior results are loaded at most once, however many rules read them.
+     */
+    public static final class Subject {
+
+        private final LabResult result;
+        private final Supplier<List<LabResult>> priorResults;
+        private boolean valueParsed;
+        private Double value;
+        private List<LabResult> priors;
+
+        /**
+         * @param result       the result being evaluated
+         * @param priorResults the patient's recent results of the same test,
+         *                     newest first (may include {@code result} itself)
+         */
+        public Subject(LabResult result, Supplier<List<LabResult>> priorResults) {
+            this.result = result;
+            this.priorResults = priorResults;
+        }
+
+        AbnormalFlag flag() {
+            return result.getAbnormalFlag() != null ? result.getAbnormalFlag() : AbnormalFlag.NORMAL;
+        }
+
+        Double value() {
+            if (!valueParsed) {
+                value = parse(result.getResultValue());
+                valueParsed = true;
+            }
+            return value;
+        }
+
+        Double priorValue(Duration window) {
+            if (priors == null) {
+                List<LabResult> loaded = priorResults != null ? priorResults.get() : null;
+                priors = loaded != null ? loaded : List.of();
+            }
+            LocalDateTime at = result.getResultDate() != null ? result.getResultDate() : LocalDateTime.now();
+            LocalDateTime since = at.minus(window);
+            UUID selfId = result.getId();
+            for (LabResult prior : priors) {
+                if (prior == result || (selfId != null && selfId.equals(prior.getId()))) continue;
+                LocalDateTime when = prior.getResultDate();
+                if (when == null || when.isAfter(at)) continue;
+                if (when.isBefore(since)) break;
+                Double priorValue = parse(prior.getResultValue());
+                if (priorValue != null) return priorValue;
+            }
+            return null;
+        }
+
+        private static Double parse(String raw) {
+            if (raw == null) return null;
+            try {
+                return Double.valueOf(raw.trim());
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+
+    // ── Clauses ─────────────────────────────────────────────────────────────
+
+    enum Operator {
+        GT, GTE, LT, LTE, EQ;
+
+        static Operator parse(String raw) {
+            String op = raw.trim().toUpperCase(Locale.ROOT);
+            if ("GE".equals(op)) return GTE;
+            if ("LE".equals(op)) return LTE;
+            return Operator.valueOf(op);
+        }
+
+        boolean apply(double value, double reference) {
+            return switch (this) {
+                case GT -> value > reference;
+                case GTE -> value >= reference;
+                case LT -> value < reference;
+                case LTE -> value <= reference;
+                case EQ -> Double.compare(value, reference) == 0;
+            };
+        }
+    }
+
+    enum Direction { RISE, FALL, ANY }
+
+    private interface Clause {
+        boolean test(Subject subject);
+    }
+
+    private record SeverityClause(AbnormalFlag flag) implements Clause {
+        @Override
+        public boolean test(Subject subject) {
+            return subject.flag() == flag;
+        }
+    }
+
+    private record ThresholdClause(Operator operator, double threshold) implements Clause {
+        @Override
+        public boolean test(Subject subject) {
+            Double value = subject.value();
+            return value != null && operator.apply(value, threshold);
+        }
+    }
+
+    private record RangeClause(double low, double high, boolean outside) implements Clause {
+        @Override
+        public boolean test(Subject subject) {
+            Double value = subject.value();
+            if (value == null) return false;
+            boolean inside = value >= low && value <= high;
+            return inside != outside;
+        }
+    }
+
+    private record DeltaClause(Operator operator, double amount, boolean percent,
+                               Direction direction, Duration window) implements Clause {
+        @Override
+        public boolean test(Subject subject) {
+            Double value = subject.value();
+            if (value == null) return false;
+            Double prior = subject.priorValue(window);
+            if (prior == null) return false;
+            double delta = value - prior;
+            if (direction == Direction.RISE && delta <= 0) return false;
+            if (direction == Direction.FALL && delta >= 0) return false;
+            double magnitude = Math.abs(delta);
+            if (percent) {
+                if (prior == 0) return false;
+                magnitude = magnitude / Math.abs(prior) * 100.0;
+            }
+            return operator.apply(magnitude, amount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (!isValid()) return "LabReflexCondition[invalid: " + error + "]";
+        return "LabReflexCondition" + (severity != null ? "[" + severity + " OR " + clauses + "]" : clauses);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.hms.service;
+
+import com.example.hms.model.LabReflexRule;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that marks the compiled rules of
+ * {@link LabReflexRuleEngine} stale whenever a {@link LabReflexRule} is
+ * created, changed (condition, trigger, activation) or deleted.
+ *
+ * <p>The rules are dropped at once and again when the writing transaction
+ * completes; see {@link AfterCommitEntityListener}.
+ */
+public class LabReflexRuleChangeListener extends AfterCommitEntityListener<LabReflexRuleEngine, UUID> {
+
+    public LabReflexRuleChangeListener() {
+        super(LabReflexRuleEngine.class, "[LAB]");
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(LabReflexRule rule) {
+        now(rule.getId(), (engine, id) -> engine.markStale());
+        queue(rule.getId());
+    }
+
+    @Override
+    protected void afterCompletion(LabReflexRuleEngine engine, Set<UUID> ruleIds, boolean committed) {
+        engine.markStale();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.hms.service;
+
+import com.example.hms.model.LabOrder;
+import com.example.hms.model.LabReflexRule;
+import com.example.hms.model.LabResult;
+import com.example.hms.repository.LabReflexRuleRepository;
+import com.example.hms.repository.LabResultRepository;
+import com.example.hms.utility.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evaluates the active {@link LabReflexRule}s of a result's test against
+ * that result. Each test definition's rules are loaded and their JSON
+ * conditions compiled ({@link LabReflexCondition}) once, then kept per
+ * trigger test definition, so posting a result costs no rule query and no
+ * JSON parse.
+ *
+ * <p>Held in a {@link BoundedTtlCache} for
+ * {@code app.lab.reflex-rules.ttl-seconds}; {@code max-entries=0} turns
+ * caching off.
+ *
+ * <p>Invalidation: {@link LabReflexRuleChangeListener} calls
+ * {@link #markStale()} whenever a rule is written through JPA —
+ * immediately, and again once the transaction completes. A rule edit may
+ * move it to another trigger test, so every entry is dropped, loads in
+ * flight included ({@link BoundedTtlCache#invalidateAll}).
+ *
+ * <p>The patient's previous results are only read when a rule with a delta
+ * check is evaluated, and then once per result.
+ *
+ * <p>Metrics: {@value #METRIC_LOOKUPS}{@code {outcome=hit|loaded}}.
+ */
+@Slf4j
+@Component
+public class LabReflexRuleEngine {
+
+    static final String METRIC_LOOKUPS = "hms.lab.reflex_rules.lookups";
+    static final String OUTCOME_HIT = "hit";
+    static final String OUTCOME_LOADED = "loaded";
+
+    /** A rule reduced to what firing it needs — detached from the entity and immutable. */
+    public record CompiledRule(UUID ruleId, UUID reflexTestDefinitionId, LabReflexCondition condition) { }
+
+    private final LabReflexRuleRepository ruleRepository;
+    private final LabResultRepository resultRepository;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final BoundedTtlCache<UUID, List<CompiledRule>> entries;
+
+    @Autowired
+    public LabReflexRuleEngine(
+        LabReflexRuleRepository ruleRepository,
+        LabResultRepository resultRepository,
+        @Value("${app.lab.reflex-rules.max-entries:2000}") int maxEntries,
+        @Value("${app.lab.reflex-rules.ttl-seconds:600}") long ttlSeconds,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(ruleRepository, resultRepository, maxEntries, Duration.ofSeconds(Math.max(0, ttlSeconds)),
+            meterRegistry);
+    }
+
+    public LabReflexRuleEngine(LabReflexRuleRepository ruleRepository, LabResultRepository resultRepository,
+                               int maxEntries, Duration ttl, @Nullable MeterRegistry meterRegistry) {
+        this.ruleRepository = ruleRepository;
+        this.resultRepository = resultRepository;
+        this.entries = new BoundedTtlCache<>(maxEntries, ttl);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** The rules of the result's test whose condition holds for it, in rule order. */
+    public List<CompiledRule> firedRules(LabResult result) {
+        LabOrder order = result.getLabOrder();
+        if (order == null || order.getLabTestDefinition() == null) return List.of();
+        UUID testDefinitionId = order.getLabTestDefinition().getId();
+        List<CompiledRule> rules = rulesFor(testDefinitionId);
+        if (rules.isEmpty()) return List.of();
+
+        UUID patientId = order.getPatient() != null ? order.getPatient().getId() : null;
+        LabReflexCondition.Subject subject = new LabReflexCondition.Subject(result, () -> patientId == null
+            ? List.of()
+            : resultRepository.findTop12ByLabOrder_Patient_IdAndLabOrder_LabTestDefinition_IdOrderByResultDateDesc(
+                patientId, testDefinitionId));
+        List<CompiledRule> fired = new ArrayList<>(rules.size());
+        for (CompiledRule rule : rules) {
+            if (rule.condition().matches(subject)) {
+                fired.add(rule);
+            }
+        }
+        return fired;
+    }
+
+    /** Compiled active rules triggered by a test definition: cached, else loaded. */
+    public List<CompiledRule> rulesFor(UUID testDefinitionId) {
+        if (testDefinitionId == null) return List.of();
+        List<CompiledRule> rules = entries.getIfPresent(testDefinitionId);
+        if (rules != null) {
+            count(OUTCOME_HIT);
+            return rules;
+        }
+        rules = entries.load(testDefinitionId, () -> load(testDefinitionId));
+        count(OUTCOME_LOADED);
+        return rules;
+    }
+
+    /** Recompile every test's rules on next use. */
+    public void markStale() {
+        entries.invalidateAll();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private List<CompiledRule> load(UUID testDefinitionId) {
+        List<LabReflexRule> active = ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(testDefinitionId);
+        List<CompiledRule> compiled = new ArrayList<>(active.size());
+        for (LabReflexRule rule : active) {
+            if (rule.getReflexTestDefinition() == null) continue;
+            LabReflexCondition condition = LabReflexCondition.compile(rule.getCondition());
+            if (!condition.isValid()) {
+                log.warn("Reflex rule {} has an invalid condition '{}' and will never fire: {}",
+                    rule.getId(), rule.getCondition(), condition.error());
+                continue;
+            }
+            compiled.add(new CompiledRule(rule.getId(), rule.getReflexTestDefinition().getId(), condition));
+        }
+        return List.copyOf(compiled);
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_LOOKUPS)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_LOOKUPS, ex.getMessage());
+        }
+    }
+}
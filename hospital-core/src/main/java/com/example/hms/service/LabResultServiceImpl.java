@@ -40,9 +40,7 @@ import java.util.stream.Collectors;
 
 import com.example.hms.enums.AbnormalFlag;
 import com.example.hms.enums.LabOrderStatus;
-import com.example.hms.model.LabReflexRule;
 import com.example.hms.model.LabTestDefinition;
-import com.example.hms.repository.LabReflexRuleRepository;
 import com.example.hms.repository.LabTestDefinitionRepository;
 
 @Service
@@ -65,7 +63,7 @@ public class LabResultServiceImpl implements LabResultService {
     private final AuthService authService;
     private final UserRepository userRepository;
     private final InstrumentOutboxService instrumentOutboxService;
-    private final LabReflexRuleRepository labReflexRuleRepository;
+    private final LabReflexRuleEngine labReflexRuleEngine;
     private final LabTestDefinitionRepository labTestDefinitionRepository;
     private final CriticalValueNotificationService criticalValueNotificationService;
 
@@ -462,53 +460,17 @@ public class LabResultServiceImpl implements LabResultService {
     private void triggerReflexOrders(LabResult result) {
         LabOrder parent = result.getLabOrder();
         if (parent == null || parent.getLabTestDefinition() == null) return;
-        UUID testDefId = parent.getLabTestDefinition().getId();
-        List<LabReflexRule> rules = labReflexRuleRepository
-            .findByTriggerTestDefinition_IdAndActiveTrue(testDefId);
-        for (LabReflexRule rule : rules) {
-            if (evaluateReflexCondition(rule.getCondition(), result)) {
-                createReflexChildOrder(rule, parent, result);
-            }
-        }
-    }
-
-    private boolean evaluateReflexCondition(String conditionJson, LabResult result) {
-        try {
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Object> cond =
-                new com.fasterxml.jackson.databind.ObjectMapper()
-                    .readValue(conditionJson, java.util.Map.class);
-            if (cond.containsKey("severityFlag")) {
-                String required = (String) cond.get("severityFlag");
-                String actual = result.getAbnormalFlag() != null
-                    ? result.getAbnormalFlag().name() : "NORMAL";
-                return required.equalsIgnoreCase(actual);
-            }
-            if (cond.containsKey("thresholdValue") && cond.containsKey("thresholdOperator")) {
-                double threshold = ((Number) cond.get("thresholdValue")).doubleValue();
-                String operator = (String) cond.get("thresholdOperator");
-                double value = Double.parseDouble(result.getResultValue().trim());
-                return switch (operator.toUpperCase()) {
-                    case "GT"  -> value > threshold;
-                    case "GTE" -> value >= threshold;
-                    case "LT"  -> value < threshold;
-                    case "LTE" -> value <= threshold;
-                    default    -> false;
-                };
-            }
-        } catch (Exception e) {
-            LOG.warn("Failed to evaluate reflex condition '{}' for result {}: {}",
-                conditionJson, result.getId(), e.getMessage());
+        for (LabReflexRuleEngine.CompiledRule rule : labReflexRuleEngine.firedRules(result)) {
+            createReflexChildOrder(rule, parent, result);
         }
-        return false;
     }
 
-    private void createReflexChildOrder(LabReflexRule rule, LabOrder parent, LabResult result) {
+    private void createReflexChildOrder(LabReflexRuleEngine.CompiledRule rule, LabOrder parent, LabResult result) {
         LabTestDefinition reflexDef = labTestDefinitionRepository
-            .findById(rule.getReflexTestDefinition().getId()).orElse(null);
+            .findById(rule.reflexTestDefinitionId()).orElse(null);
         if (reflexDef == null) {
             LOG.warn("Reflex rule {} references unknown test definition {}",
-                rule.getId(), rule.getReflexTestDefinition().getId());
+                rule.ruleId(), rule.reflexTestDefinitionId());
             return;
         }
         LabOrder child = LabOrder.builder()
@@ -0,0 +1,153 @@
+package com.example.hms.service;
+
+import com.example.hms.payload.dto.nurse.NurseDashboardSummaryDTO;
+import com.example.hms.utility.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of nurse dashboard summaries, so the station's poll of
+ * {@code /nurse/dashboard/summary} costs no queries between changes.
+ *
+ * <p>A {@link BoundedTtlCache} keyed by (nurse, hospital) with a short TTL
+ * ({@code app.nurse.dashboard-cache.*}); {@code max-entries=0} turns it
+ * off.
+ *
+ * <p>Invalidation: {@link #boardChanged} drops every summary of the
+ * hospital — immediately, and again once the transaction completes — when
+ * the nurse workflow writes vitals, MAR entries or handoffs. Writes from
+ * other modules are picked up when the TTL runs out. Dropping is by
+ * {@link BoundedTtlCache#invalidateIf}, which also covers loads in flight.
+ *
+ * <p>Push: with {@code app.nurse.board-push.enabled=true}, each committed
+ * change is announced on STOMP topic {@code /topic/nurse-board/{hospitalId}}
+ * so open boards refresh at once instead of waiting for the next poll.
+ * Push failures are logged at WARN and never affect the write (same policy
+ * as {@link PatientTrackerEventPublisher}).
+ *
+ * <p>Metrics: {@value #METRIC_LOOKUPS}{@code {outcome=hit|loaded}}.
+ */
+@Slf4j
+@Component
+public class NurseBoardCache {
+
+    public static final String TOPIC_PREFIX = "/topic/nurse-board/";
+
+    static final String METRIC_LOOKUPS = "hms.nurse.dashboard_summary.lookups";
+    static final String OUTCOME_HIT = "hit";
+    static final String OUTCOME_LOADED = "loaded";
+
+    /** Payload published to {@link #TOPIC_PREFIX}{@code {hospitalId}}: what changed, not the new board. */
+    public record NurseBoardChangedEvent(UUID hospitalId, UUID patientId, String reason, LocalDateTime emittedAt) { }
+
+    record Key(UUID nurseUserId, UUID hospitalId) { }
+
+    @Nullable
+    private final SimpMessagingTemplate messagingTemplate;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final BoundedTtlCache<Key, NurseDashboardSummaryDTO> entries;
+
+    @Autowired
+    public NurseBoardCache(
+        @Value("${app.nurse.dashboard-cache.max-entries:2000}") int maxEntries,
+        @Value("${app.nurse.dashboard-cache.ttl-seconds:15}") long ttlSeconds,
+        @Value("${app.nurse.board-push.enabled:false}") boolean pushEnabled,
+        @Nullable SimpMessagingTemplate messagingTemplate,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(maxEntries, Duration.ofSeconds(Math.max(0, ttlSeconds)),
+            pushEnabled ? messagingTemplate : null, meterRegistry);
+    }
+
+    /** @param messagingTemplate where to push board changes; null disables push */
+    public NurseBoardCache(int maxEntries, Duration ttl, @Nullable SimpMessagingTemplate messagingTemplate,
+                           @Nullable MeterRegistry meterRegistry) {
+        this.entries = new BoundedTtlCache<>(maxEntries, ttl);
+        this.messagingTemplate = messagingTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** The nurse's summary at the hospital: cached, else from {@code loader}. */
+    public NurseDashboardSummaryDTO summary(UUID nurseUserId, UUID hospitalId,
+                                           Supplier<NurseDashboardSummaryDTO> loader) {
+        Key key = new Key(nurseUserId, hospitalId);
+        NurseDashboardSummaryDTO summary = entries.getIfPresent(key);
+        if (summary != null) {
+            count(OUTCOME_HIT);
+            return summary;
+        }
+        summary = entries.load(key, loader);
+        count(OUTCOME_LOADED);
+        return summary;
+    }
+
+    /**
+     * A patient's board state changed at the hospital: drop the hospital's
+     * summaries now and when the current transaction (if any) completes, and
+     * announce the change once it commits.
+     */
+    public void boardChanged(UUID hospitalId, UUID patientId, String reason) {
+        if (hospitalId == null) return;
+        evict(hospitalId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(hospitalId, patientId, reason);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(hospitalId, patientId, reason);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                evict(hospitalId);
+            }
+        });
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(UUID hospitalId) {
+        entries.invalidateIf(k -> hospitalId.equals(k.hospitalId()));
+    }
+
+    private void publish(UUID hospitalId, UUID patientId, String reason) {
+        if (messagingTemplate == null) return;
+        try {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + hospitalId,
+                new NurseBoardChangedEvent(hospitalId, patientId, reason, LocalDateTime.now()));
+        } catch (Exception ex) {
+            log.warn("Failed to push nurse board change for hospital {} ({}): {}",
+                hospitalId, reason, ex.getMessage());
+        }
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_LOOKUPS)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_LOOKUPS, ex.getMessage());
+        }
+    }
+}
@@ -3,12 +3,23 @@ package com.example.hms.service;
 import com.example.hms.payload.dto.PatientRecordDTO;
 import com.example.hms.payload.dto.RecordShareResultDTO;
 
+import java.io.OutputStream;
 import java.util.UUID;
 
 public interface PatientRecordSharingService {
     PatientRecordDTO getPatientRecord(UUID patientId, UUID fromHospitalId, UUID toHospitalId);
     byte[] exportPatientRecord(UUID patientId, UUID fromHospitalId, UUID toHospitalId, String format);
 
+    /**
+     * Streaming form of {@link #exportPatientRecord}: writes the CSV or PDF
+     * export to {@code out} section by section as each is loaded, without
+     * assembling the record or the document in memory. Consent is verified
+     * before anything is written. Does not close {@code out}.
+     *
+     * @param format {@code csv} or {@code pdf}
+     */
+    void streamPatientRecord(UUID patientId, UUID fromHospitalId, UUID toHospitalId, String format, OutputStream out);
+
     /**
      * Smart resolver: automatically determines the most-appropriate source hospital
      * (SAME_HOSPITAL → INTRA_ORG → CROSS_ORG) and returns the record together with
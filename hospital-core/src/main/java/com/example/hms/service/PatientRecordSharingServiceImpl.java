@@ -22,6 +22,7 @@ import com.example.hms.mapper.PrescriptionMapper;
 import com.example.hms.model.AuditEventLog;
 import com.example.hms.model.Encounter;
 import com.example.hms.model.EncounterHistory;
+import com.example.hms.model.EncounterTreatment;
 import com.example.hms.model.AdvanceDirective;
 import com.example.hms.model.Hospital;
 import com.example.hms.model.LabOrder;
@@ -66,6 +67,8 @@ import com.example.hms.repository.PatientSurgicalHistoryRepository;
 import com.example.hms.repository.PatientVitalSignRepository;
 import com.example.hms.repository.ImmunizationRepository;
 import com.example.hms.repository.PrescriptionRepository;
+import com.example.hms.security.context.HospitalContext;
+import com.example.hms.security.context.HospitalContextHolder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.itextpdf.barcodes.BarcodeQRCode;
 import com.itextpdf.io.font.constants.StandardFonts;
@@ -95,10 +98,16 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -115,6 +124,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -146,6 +159,9 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
     private static final String HEADER_STATUS = "Status";
     private static final String HEADER_NOTES = "Notes";
 
+    /** Rows laid out per flush of a large PDF table. */
+    private static final int PDF_TABLE_FLUSH_ROWS = 50;
+
     private final PatientRepository patientRepository;
     private final HospitalRepository hospitalRepository;
     private final PatientConsentRepository consentRepository;
@@ -179,10 +195,14 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
     private final ObjectMapper objectMapper;
     private final JdbcTemplate jdbcTemplate;
     private final ConsentResolutionService consentResolutionService;
+    private final PlatformTransactionManager transactionManager;
 
     @Value("${hms.record.qr-base-url:https://hospital-system.com/patient/}")
     private String qrBaseUrl;
 
+    @Value("${hms.record.aggregate.parallelism:4}")
+    private int aggregateParallelism;
+
     private final Map<String, Boolean> tableAvailabilityCache = new ConcurrentHashMap<>();
 
     @Override
@@ -205,7 +225,48 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
         return throwUnsupportedFormat(format);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamPatientRecord(UUID patientId, UUID fromHospitalId, UUID toHospitalId,
+                                    String format, OutputStream out) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"pdf".equalsIgnoreCase(format)) {
+            throwUnsupportedFormat(format);
+        }
+
+        // Consent is checked before the first byte is written, so a refusal
+        // still reaches the caller as an error rather than a truncated file.
+        ShareParties parties = resolveShareParties(patientId, fromHospitalId, toHospitalId);
+        StreamedSections sections = new StreamedSections(
+            patientId, fromHospitalId, parties.fromHospital(), parseConsentScope(parties.consent()));
+
+        PatientRecordDTO header = recordHeader(parties.patient(), sections.allergies())
+            .fromHospitalId(parties.fromHospital().getId())
+            .fromHospitalName(parties.fromHospital().getName())
+            .toHospitalId(parties.toHospital().getId())
+            .toHospitalName(parties.toHospital().getName())
+            .build();
+
+        if (csv) {
+            writeCsv(header, sections, out);
+        } else {
+            writePdf(header, sections, out);
+        }
+
+        logAuditEvent(parties.patient(), fromHospitalId, toHospitalId,
+            sections.auditCounts(), parties.consent(), sections.allowedDomains);
+    }
+
     private PatientRecordDTO buildPatientRecord(UUID patientId, UUID fromHospitalId, UUID toHospitalId) {
+        ShareParties parties = resolveShareParties(patientId, fromHospitalId, toHospitalId);
+        return buildPatientRecordFromEntities(patientId, fromHospitalId, toHospitalId,
+            parties.patient(), parties.fromHospital(), parties.toHospital(), parties.consent());
+    }
+
+    /** The consent row and the entities on either side of it. */
+    private record ShareParties(PatientConsent consent, Patient patient, Hospital fromHospital, Hospital toHospital) { }
+
+    private ShareParties resolveShareParties(UUID patientId, UUID fromHospitalId, UUID toHospitalId) {
         PatientConsent consent = consentRepository
             .findByPatientIdAndFromHospitalIdAndToHospitalId(patientId, fromHospitalId, toHospitalId)
             .orElseThrow(() -> new BusinessException("Active consent is required before sharing records."));
@@ -229,7 +290,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             : hospitalRepository.findById(toHospitalId)
                 .orElseThrow(() -> new ResourceNotFoundException("Target hospital not found."));
 
-        return buildPatientRecordFromEntities(patientId, fromHospitalId, toHospitalId, patient, fromHospital, toHospital, consent);
+        return new ShareParties(consent, patient, fromHospital, toHospital);
     }
 
     /**
@@ -249,18 +310,10 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             Patient patient, Hospital fromHospital, Hospital toHospital,
             PatientConsent consent) {
 
-        Map<UUID, String> mrnByHospital = buildHospitalMrnMap(patient);
         Set<String> allowedDomains = parseConsentScope(consent);
 
         // ── Encounters (always fetched internally for treatments/history) ──
-        List<Encounter> encountersInScope = safeFetchFromTable(
-            CLINICAL_CATEGORY,
-            "encounters",
-            () -> encounterRepository.findAllByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
-                .sorted(Comparator.comparing(Encounter::getEncounterDate, Comparator.nullsLast(Comparator.naturalOrder())))
-                .toList(),
-            "Encounter"
-        );
+        List<Encounter> encountersInScope = loadEncountersInScope(patientId, fromHospitalId);
 
         // Only include encounter DTOs when ENCOUNTERS scope is allowed
         List<EncounterResponseDTO> encounterDtos = isDomainAllowed(allowedDomains, SCOPE_ENCOUNTERS)
@@ -276,57 +329,16 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             loadScopedTreatments(allowedDomains, encountersInScope, fromHospital);
 
         // ── Problems ───────────────────────────────────────────────────────
-        List<PatientProblemResponseDTO> problemDtos = List.of();
-        if (isDomainAllowed(allowedDomains, SCOPE_PROBLEMS)) {
-            Comparator<PatientProblem> problemComparator = Comparator
-                .comparing(PatientProblem::getOnsetDate, Comparator.nullsLast(Comparator.reverseOrder()))
-                .thenComparing(PatientProblem::getLastReviewedAt, Comparator.nullsLast(Comparator.reverseOrder()));
-
-            problemDtos = safeFetchFromTable(
-                CLINICAL_CATEGORY,
-                "patient_problems",
-                () -> patientProblemRepository
-                    .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
-                    .sorted(problemComparator)
-                    .map(patientProblemMapper::toResponseDto)
-                    .toList(),
-                "Patient problem"
-            );
-        }
+        List<PatientProblemResponseDTO> problemDtos =
+            loadScopedProblems(allowedDomains, patientId, fromHospitalId);
 
         // ── Surgical history ───────────────────────────────────────────────
-        List<PatientSurgicalHistoryResponseDTO> surgicalHistoryDtos = List.of();
-        if (isDomainAllowed(allowedDomains, SCOPE_SURGICAL_HISTORY)) {
-            surgicalHistoryDtos = safeFetchFromTable(
-                CLINICAL_CATEGORY,
-                "patient_surgical_history",
-                () -> patientSurgicalHistoryRepository
-                    .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
-                    .sorted(Comparator
-                        .comparing(PatientSurgicalHistory::getProcedureDate, Comparator.nullsLast(Comparator.reverseOrder()))
-                        .thenComparing(PatientSurgicalHistory::getLastUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                    .map(patientSurgicalHistoryMapper::toResponseDto)
-                    .toList(),
-                "Patient surgical history"
-            );
-        }
+        List<PatientSurgicalHistoryResponseDTO> surgicalHistoryDtos =
+            loadScopedSurgicalHistory(allowedDomains, patientId, fromHospitalId);
 
         // ── Advance directives ─────────────────────────────────────────────
-        List<AdvanceDirectiveResponseDTO> advanceDirectiveDtos = List.of();
-        if (isDomainAllowed(allowedDomains, SCOPE_ADVANCE_DIRECTIVES)) {
-            advanceDirectiveDtos = safeFetchFromTable(
-                CLINICAL_CATEGORY,
-                "advance_directives",
-                () -> advanceDirectiveRepository
-                    .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
-                    .sorted(Comparator
-                        .comparing(AdvanceDirective::getEffectiveDate, Comparator.nullsLast(Comparator.reverseOrder()))
-                        .thenComparing(AdvanceDirective::getLastReviewedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                    .map(advanceDirectiveMapper::toResponseDto)
-                    .toList(),
-                "Advance directive"
-            );
-        }
+        List<AdvanceDirectiveResponseDTO> advanceDirectiveDtos =
+            loadScopedAdvanceDirectives(allowedDomains, patientId, fromHospitalId);
 
         // ── Lab orders (N+1 fix: hospital-scoped query) ────────────────────
         List<LabOrderResponseDTO> labOrderDtos = List.of();
@@ -363,38 +375,12 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
         List<PatientAllergyResponseDTO> allergyDtos = loadScopedAllergies(allowedDomains, patientId, fromHospitalId);
 
         // ── Prescriptions ──────────────────────────────────────────────────
-        List<PrescriptionResponseDTO> prescriptionDtos = List.of();
-        if (isDomainAllowed(allowedDomains, SCOPE_PRESCRIPTIONS)) {
-            prescriptionDtos = safeFetchFromTable(
-                CLINICAL_CATEGORY,
-                "prescriptions",
-                () -> prescriptionRepository
-                    .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
-                    .sorted(Comparator.comparing(Prescription::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
-                    .map(prescriptionMapper::toResponseDTO)
-                    .toList(),
-                "Prescription"
-            );
-        }
+        List<PrescriptionResponseDTO> prescriptionDtos =
+            loadScopedPrescriptions(allowedDomains, patientId, fromHospitalId);
 
         // ── Insurance ──────────────────────────────────────────────────────
-        List<PatientInsuranceResponseDTO> insuranceDtos = List.of();
-        if (isDomainAllowed(allowedDomains, SCOPE_INSURANCES)) {
-            insuranceDtos = safeFetchFromTable(
-                CLINICAL_CATEGORY,
-                "patient_insurances",
-                () -> patientInsuranceRepository
-                    .findByPatient_Id(patientId).stream()
-                    .filter(insurance -> isInsuranceInScope(insurance, fromHospitalId))
-                    .sorted(Comparator
-                        .comparing(PatientInsurance::isPrimary).reversed()
-                        .thenComparing(PatientInsurance::getEffectiveDate, Comparator.nullsLast(Comparator.reverseOrder()))
-                        .thenComparing(PatientInsurance::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                    .map(patientInsuranceMapper::toPatientInsuranceResponseDTO)
-                    .toList(),
-                "Patient insurance"
-            );
-        }
+        List<PatientInsuranceResponseDTO> insuranceDtos =
+            loadScopedInsurances(allowedDomains, patientId, fromHospitalId);
 
         // ── Vital Signs ────────────────────────────────────────────────────
         List<PatientVitalSignResponseDTO> vitalSignDtos = List.of();
@@ -426,29 +412,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             );
         }
 
-        PatientRecordDTO dto = PatientRecordDTO.builder()
-            .patientId(patient.getId())
-            .firstName(patient.getFirstName())
-            .lastName(patient.getLastName())
-            .middleName(patient.getMiddleName())
-            .dateOfBirth(patient.getDateOfBirth())
-            .gender(patient.getGender())
-            .bloodType(patient.getBloodType())
-            .medicalHistorySummary(patient.getMedicalHistorySummary())
-            .allergies(resolveAllergySummary(patient, allergyDtos))
-            .address(patient.getAddress())
-            .city(patient.getCity())
-            .state(patient.getState())
-            .zipCode(patient.getZipCode())
-            .country(patient.getCountry())
-            .phoneNumberPrimary(patient.getPhoneNumberPrimary())
-            .phoneNumberSecondary(patient.getPhoneNumberSecondary())
-            .email(patient.getEmail())
-            .emergencyContactName(patient.getEmergencyContactName())
-            .emergencyContactPhone(patient.getEmergencyContactPhone())
-            .emergencyContactRelationship(patient.getEmergencyContactRelationship())
-            .hospitalMRNs(Set.copyOf(mrnByHospital.values()))
-            .hospitalMrnMap(new LinkedHashMap<>(mrnByHospital))
+        PatientRecordDTO dto = recordHeader(patient, allergyDtos)
             .fromHospitalId(fromHospital.getId())
             .fromHospitalName(fromHospital.getName())
             .toHospitalId(toHospital.getId())
@@ -475,10 +439,38 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             dto.setConsentPurpose(consent.getPurpose());
         }
 
-        logAuditEvent(patient, fromHospitalId, toHospitalId, dto, consent, allowedDomains);
+        logAuditEvent(patient, fromHospitalId, toHospitalId, auditCounts(dto), consent, allowedDomains);
         return dto;
     }
 
+    /** Demographics and MRNs — what every record and both export formats lead with. */
+    private PatientRecordDTO.PatientRecordDTOBuilder recordHeader(Patient patient, List<PatientAllergyResponseDTO> allergyDtos) {
+        Map<UUID, String> mrnByHospital = buildHospitalMrnMap(patient);
+        return PatientRecordDTO.builder()
+            .patientId(patient.getId())
+            .firstName(patient.getFirstName())
+            .lastName(patient.getLastName())
+            .middleName(patient.getMiddleName())
+            .dateOfBirth(patient.getDateOfBirth())
+            .gender(patient.getGender())
+            .bloodType(patient.getBloodType())
+            .medicalHistorySummary(patient.getMedicalHistorySummary())
+            .allergies(resolveAllergySummary(patient, allergyDtos))
+            .address(patient.getAddress())
+            .city(patient.getCity())
+            .state(patient.getState())
+            .zipCode(patient.getZipCode())
+            .country(patient.getCountry())
+            .phoneNumberPrimary(patient.getPhoneNumberPrimary())
+            .phoneNumberSecondary(patient.getPhoneNumberSecondary())
+            .email(patient.getEmail())
+            .emergencyContactName(patient.getEmergencyContactName())
+            .emergencyContactPhone(patient.getEmergencyContactPhone())
+            .emergencyContactRelationship(patient.getEmergencyContactRelationship())
+            .hospitalMRNs(Set.copyOf(mrnByHospital.values()))
+            .hospitalMrnMap(new LinkedHashMap<>(mrnByHospital));
+    }
+
     /**
      * Parses the consent scope into a set of allowed domain names.
      * Returns an empty set when the scope is empty/null (meaning all domains allowed).
@@ -583,6 +575,114 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             .toList();
     }
 
+    private List<Encounter> loadEncountersInScope(UUID patientId, UUID fromHospitalId) {
+        return safeFetchFromTable(
+            CLINICAL_CATEGORY,
+            "encounters",
+            () -> encounterRepository.findAllByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
+                .sorted(Comparator.comparing(Encounter::getEncounterDate, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList(),
+            "Encounter"
+        );
+    }
+
+    private List<PatientProblemResponseDTO> loadScopedProblems(
+            Set<String> allowedDomains, UUID patientId, UUID fromHospitalId) {
+        if (!isDomainAllowed(allowedDomains, SCOPE_PROBLEMS)) {
+            return List.of();
+        }
+        Comparator<PatientProblem> problemComparator = Comparator
+            .comparing(PatientProblem::getOnsetDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PatientProblem::getLastReviewedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+        return safeFetchFromTable(
+            CLINICAL_CATEGORY,
+            "patient_problems",
+            () -> patientProblemRepository
+                .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
+                .sorted(problemComparator)
+                .map(patientProblemMapper::toResponseDto)
+                .toList(),
+            "Patient problem"
+        );
+    }
+
+    private List<PatientSurgicalHistoryResponseDTO> loadScopedSurgicalHistory(
+            Set<String> allowedDomains, UUID patientId, UUID fromHospitalId) {
+        if (!isDomainAllowed(allowedDomains, SCOPE_SURGICAL_HISTORY)) {
+            return List.of();
+        }
+        return safeFetchFromTable(
+            CLINICAL_CATEGORY,
+            "patient_surgical_history",
+            () -> patientSurgicalHistoryRepository
+                .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
+                .sorted(Comparator
+                    .comparing(PatientSurgicalHistory::getProcedureDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(PatientSurgicalHistory::getLastUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(patientSurgicalHistoryMapper::toResponseDto)
+                .toList(),
+            "Patient surgical history"
+        );
+    }
+
+    private List<AdvanceDirectiveResponseDTO> loadScopedAdvanceDirectives(
+            Set<String> allowedDomains, UUID patientId, UUID fromHospitalId) {
+        if (!isDomainAllowed(allowedDomains, SCOPE_ADVANCE_DIRECTIVES)) {
+            return List.of();
+        }
+        return safeFetchFromTable(
+            CLINICAL_CATEGORY,
+            "advance_directives",
+            () -> advanceDirectiveRepository
+                .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
+                .sorted(Comparator
+                    .comparing(AdvanceDirective::getEffectiveDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(AdvanceDirective::getLastReviewedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(advanceDirectiveMapper::toResponseDto)
+                .toList(),
+            "Advance directive"
+        );
+    }
+
+    private List<PrescriptionResponseDTO> loadScopedPrescriptions(
+            Set<String> allowedDomains, UUID patientId, UUID fromHospitalId) {
+        if (!isDomainAllowed(allowedDomains, SCOPE_PRESCRIPTIONS)) {
+            return List.of();
+        }
+        return safeFetchFromTable(
+            CLINICAL_CATEGORY,
+            "prescriptions",
+            () -> prescriptionRepository
+                .findByPatient_IdAndHospital_Id(patientId, fromHospitalId).stream()
+                .sorted(Comparator.comparing(Prescription::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(prescriptionMapper::toResponseDTO)
+                .toList(),
+            "Prescription"
+        );
+    }
+
+    private List<PatientInsuranceResponseDTO> loadScopedInsurances(
+            Set<String> allowedDomains, UUID patientId, UUID fromHospitalId) {
+        if (!isDomainAllowed(allowedDomains, SCOPE_INSURANCES)) {
+            return List.of();
+        }
+        return safeFetchFromTable(
+            CLINICAL_CATEGORY,
+            "patient_insurances",
+            () -> patientInsuranceRepository
+                .findByPatient_Id(patientId).stream()
+                .filter(insurance -> isInsuranceInScope(insurance, fromHospitalId))
+                .sorted(Comparator
+                    .comparing(PatientInsurance::isPrimary).reversed()
+                    .thenComparing(PatientInsurance::getEffectiveDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(PatientInsurance::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(patientInsuranceMapper::toPatientInsuranceResponseDTO)
+                .toList(),
+            "Patient insurance"
+        );
+    }
+
     private Map<UUID, String> buildHospitalMrnMap(Patient patient) {
         if (patient.getHospitalRegistrations() == null || patient.getHospitalRegistrations().isEmpty()) {
             return Map.of();
@@ -627,11 +727,19 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             return List.of();
         }
 
+        // One query for every encounter in scope, kept in encounter order.
+        List<UUID> encounterIds = encountersInScope.stream().map(Encounter::getId).toList();
+        Map<UUID, Integer> encounterOrder = new HashMap<>();
+        for (int i = 0; i < encounterIds.size(); i++) {
+            encounterOrder.putIfAbsent(encounterIds.get(i), i);
+        }
         return safeFetchFromTable(
             CLINICAL_CATEGORY,
             "encounter_treatments",
-            () -> encountersInScope.stream()
-                .flatMap(encounter -> encounterTreatmentRepository.findByEncounter_Id(encounter.getId()).stream())
+            () -> encounterTreatmentRepository.findByEncounter_IdIn(encounterIds).stream()
+                .sorted(Comparator.comparing(
+                    (EncounterTreatment treatment) -> encounterOrder.get(treatment.getEncounter().getId()),
+                    Comparator.nullsLast(Comparator.naturalOrder())))
                 .map(encounterTreatmentMapper::toDto)
                 .toList(),
             "Encounter treatment"
@@ -716,7 +824,18 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
     }
 
     private byte[] generateCsv(PatientRecordDTO dto) {
-        List<PatientAllergyResponseDTO> allergies = dto.getAllergiesDetailed();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeCsv(dto, ExportSections.of(dto), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the one-row CSV summary to {@code out} without closing it.
+     * Section counts are taken as each section is read, so a streamed
+     * export never holds more than one section's rows.
+     */
+    private void writeCsv(PatientRecordDTO dto, ExportSections sections, OutputStream out) {
+        List<PatientAllergyResponseDTO> allergies = sections.allergies();
         long totalAllergies = allergies.size();
         long criticalAllergyCount = allergies.stream().filter(this::isCriticalAllergy).count();
         long activeAllergyCount = allergies.stream().filter(this::isActiveAllergy).count();
@@ -751,16 +870,22 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             .append(escapeCsv(dto.getEmergencyContactName())).append(",")
             .append(escapeCsv(dto.getEmergencyContactPhone())).append(",")
             .append(escapeCsv(dto.getEmergencyContactRelationship())).append(",")
-            .append("\"").append(String.join(" | ", hospitalMrns)).append("\"").append(",")
-            .append(dto.getPrescriptions().size()).append(",")
-            .append(dto.getProblems().size()).append(",")
-            .append(dto.getSurgicalHistory().size()).append(",")
-            .append(dto.getAdvanceDirectives().size()).append(",")
-            .append(dto.getEncounterHistory().size()).append(",")
-            .append(dto.getInsurances().size())
-            .append("\n");
+            .append("\"").append(String.join(" | ", hospitalMrns)).append("\"");
 
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(sb.toString());
+            writer.write("," + sections.prescriptions().size());
+            writer.write("," + sections.problems().size());
+            writer.write("," + sections.surgicalHistory().size());
+            writer.write("," + sections.advanceDirectives().size());
+            writer.write("," + sections.encounterHistory().size());
+            writer.write("," + sections.insurances().size());
+            writer.write("\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new RecordExportException("Failed to generate patient record CSV", e);
+        }
     }
 
     private String escapeCsv(String value) {
@@ -907,11 +1032,24 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
      */
     private byte[] generatePdf(PatientRecordDTO dto) {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePdf(dto, ExportSections.of(dto), out);
+        return out.toByteArray();
+    }
 
+    /**
+     * Writes the patient record as a PDF to {@code out} without closing it.
+     * Pages are flushed as they fill and each section is a large table
+     * flushed every {@value #PDF_TABLE_FLUSH_ROWS} rows, so neither the
+     * document nor a long section's layout is held in memory.
+     */
+    private void writePdf(PatientRecordDTO dto, ExportSections sections, OutputStream out) {
         try (PdfWriter writer = new PdfWriter(out);
              PdfDocument pdfDoc = new PdfDocument(writer);
              Document document = new Document(pdfDoc)) {
 
+            // The caller owns out — for a streamed export, the HTTP response.
+            writer.setCloseStream(false);
+
             PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
             Color headerColor = new DeviceRgb(63, 81, 181);
             Color borderColor = new DeviceRgb(200, 200, 200);
@@ -961,50 +1099,13 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             document.add(table);
             document.add(new Paragraph("\n"));
 
-            addAllergySection(document, dto, font, headerColor, borderColor);
-
-            if (!dto.getPrescriptions().isEmpty()) {
-                document.add(new Paragraph("Prescriptions")
-                    .setFont(font)
-                    .setFontSize(16)
-                    .setBold()
-                    .setFontColor(headerColor)
-                    .setMarginTop(10));
-
-                float[] rxWidths = {160F, 80F, 80F, 80F, 80F, 160F};
-                Table rxTable = new Table(rxWidths).setWidth(UnitValue.createPercentValue(100));
-
-                String[] rxHeaders = {"Medication", "Dosage", "Frequency", "Duration", HEADER_STATUS, HEADER_NOTES};
-                for (String header : rxHeaders) {
-                    rxTable.addHeaderCell(new Cell()
-                        .add(new Paragraph(header).setBold())
-                        .setBackgroundColor(headerColor)
-                        .setFontColor(ColorConstants.WHITE)
-                        .setBorder(Border.NO_BORDER));
-                }
-
-                dto.getPrescriptions().forEach(prescription -> {
-                    rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getMedicationDisplayName()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-                    rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getDosage()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-                    rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getFrequency()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-                    rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getDuration()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-                    rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getStatus()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-                    String notes = prescription.getNotes();
-                    if ((notes == null || notes.isBlank()) && prescription.getCreatedAt() != null) {
-                        notes = "Prescribed on " + prescription.getCreatedAt();
-                    }
-                    rxTable.addCell(new Cell().add(new Paragraph(defaultText(notes))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-                });
-
-                document.add(rxTable);
-                document.add(new Paragraph("\n"));
-            }
-
-            addProblemSection(document, dto, font, headerColor, borderColor);
-            addSurgicalHistorySection(document, dto, font, headerColor, borderColor);
-            addEncounterHistorySection(document, dto, font, headerColor, borderColor);
-            addAdvanceDirectiveSection(document, dto, font, headerColor, borderColor);
-            addInsuranceSection(document, dto, font, headerColor, borderColor);
+            addAllergySection(document, sections.allergies(), font, headerColor, borderColor);
+            addPrescriptionSection(document, sections.prescriptions(), font, headerColor, borderColor);
+            addProblemSection(document, sections.problems(), font, headerColor, borderColor);
+            addSurgicalHistorySection(document, sections.surgicalHistory(), font, headerColor, borderColor);
+            addEncounterHistorySection(document, sections.encounterHistory(), font, headerColor, borderColor);
+            addAdvanceDirectiveSection(document, sections.advanceDirectives(), font, headerColor, borderColor);
+            addInsuranceSection(document, sections.insurances(), font, headerColor, borderColor);
 
             String qrContent = qrBaseUrl + dto.getPatientId();
             BarcodeQRCode qrCode = new BarcodeQRCode(qrContent);
@@ -1032,27 +1133,28 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
         } catch (IOException | RuntimeException e) {
             throw new RecordExportException("Failed to generate patient record PDF", e);
         }
-
-        return out.toByteArray();
     }
 
-    private void addAllergySection(Document document, PatientRecordDTO dto, PdfFont font, Color headerColor, Color borderColor) {
-        List<PatientAllergyResponseDTO> allergies = dto.getAllergiesDetailed();
-        if (allergies == null || allergies.isEmpty()) {
+    /**
+     * Adds a titled section table. The table goes in as an iText large table
+     * and is flushed every {@value #PDF_TABLE_FLUSH_ROWS} rows, so a section
+     * with hundreds of rows is laid out and written a page at a time.
+     */
+    private <T> void addSectionTable(Document document, String title, float[] widths, String[] headers,
+                                     List<T> rows, BiConsumer<Table, T> addRow,
+                                     PdfFont font, Color headerColor) {
+        if (rows == null || rows.isEmpty()) {
             return;
         }
 
-        document.add(new Paragraph("Allergies")
+        document.add(new Paragraph(title)
             .setFont(font)
             .setFontSize(16)
             .setBold()
             .setFontColor(headerColor)
             .setMarginTop(10));
 
-        float[] widths = {170F, 80F, 110F, 180F, 70F, 100F, 120F, 120F};
-        Table table = new Table(widths).setWidth(UnitValue.createPercentValue(100));
-
-        String[] headers = {"Allergen", "Severity", "Verification", "Reaction / Notes", "Active", "Last Occurrence", "Hospital", "Source"};
+        Table table = new Table(widths, true).setWidth(UnitValue.createPercentValue(100));
         for (String header : headers) {
             table.addHeaderCell(new Cell()
                 .add(new Paragraph(header).setBold())
@@ -1060,8 +1162,24 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
                 .setFontColor(ColorConstants.WHITE)
                 .setBorder(Border.NO_BORDER));
         }
+        document.add(table);
+
+        int added = 0;
+        for (T row : rows) {
+            addRow.accept(table, row);
+            if (++added % PDF_TABLE_FLUSH_ROWS == 0) {
+                table.flush();
+            }
+        }
+        table.complete();
+        document.add(new Paragraph("\n"));
+    }
 
-        allergies.forEach(allergy -> {
+    private void addAllergySection(Document document, List<PatientAllergyResponseDTO> allergies, PdfFont font, Color headerColor, Color borderColor) {
+        float[] widths = {170F, 80F, 110F, 180F, 70F, 100F, 120F, 120F};
+        String[] headers = {"Allergen", "Severity", "Verification", "Reaction / Notes", "Active", "Last Occurrence", "Hospital", "Source"};
+
+        addSectionTable(document, "Allergies", widths, headers, allergies, (table, allergy) -> {
             String allergen;
             if (hasText(allergy.getAllergenDisplay())) {
                 allergen = allergy.getAllergenDisplay().trim();
@@ -1080,10 +1198,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             table.addCell(new Cell().add(new Paragraph(defaultText(lastOccurrence))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(allergy.getHospitalName()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(allergy.getSourceSystem()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-        });
-
-        document.add(table);
-        document.add(new Paragraph("\n"));
+        }, font, headerColor);
     }
 
     private String resolveActiveLabel(Boolean active) {
@@ -1106,70 +1221,43 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
         return null;
     }
 
-    private void addEncounterHistorySection(Document document, PatientRecordDTO dto, PdfFont font, Color headerColor, Color borderColor) {
-        List<EncounterHistoryResponseDTO> historyEntries = dto.getEncounterHistory();
-        if (historyEntries == null || historyEntries.isEmpty()) {
-            return;
-        }
-
-        document.add(new Paragraph("Encounter History")
-            .setFont(font)
-            .setFontSize(16)
-            .setBold()
-            .setFontColor(headerColor)
-            .setMarginTop(10));
+    private void addPrescriptionSection(Document document, List<PrescriptionResponseDTO> prescriptions, PdfFont font, Color headerColor, Color borderColor) {
+        float[] rxWidths = {160F, 80F, 80F, 80F, 80F, 160F};
+        String[] rxHeaders = {"Medication", "Dosage", "Frequency", "Duration", HEADER_STATUS, HEADER_NOTES};
+
+        addSectionTable(document, "Prescriptions", rxWidths, rxHeaders, prescriptions, (rxTable, prescription) -> {
+            rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getMedicationDisplayName()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
+            rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getDosage()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
+            rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getFrequency()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
+            rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getDuration()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
+            rxTable.addCell(new Cell().add(new Paragraph(defaultText(prescription.getStatus()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
+            String notes = prescription.getNotes();
+            if ((notes == null || notes.isBlank()) && prescription.getCreatedAt() != null) {
+                notes = "Prescribed on " + prescription.getCreatedAt();
+            }
+            rxTable.addCell(new Cell().add(new Paragraph(defaultText(notes))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
+        }, font, headerColor);
+    }
 
+    private void addEncounterHistorySection(Document document, List<EncounterHistoryResponseDTO> historyEntries, PdfFont font, Color headerColor, Color borderColor) {
         float[] historyWidths = {120F, 90F, 90F, 110F, 120F, 190F};
-        Table historyTable = new Table(historyWidths).setWidth(UnitValue.createPercentValue(100));
+        String[] historyHeaders = {"Changed At", "Change Type", HEADER_STATUS, "Encounter Type", "Changed By", HEADER_NOTES};
 
-    String[] historyHeaders = {"Changed At", "Change Type", HEADER_STATUS, "Encounter Type", "Changed By", HEADER_NOTES};
-        for (String header : historyHeaders) {
-            historyTable.addHeaderCell(new Cell()
-                .add(new Paragraph(header).setBold())
-                .setBackgroundColor(headerColor)
-                .setFontColor(ColorConstants.WHITE)
-                .setBorder(Border.NO_BORDER));
-        }
-
-        historyEntries.forEach(entry -> {
+        addSectionTable(document, "Encounter History", historyWidths, historyHeaders, historyEntries, (historyTable, entry) -> {
             historyTable.addCell(new Cell().add(new Paragraph(defaultText(entry.getChangedAt() != null ? entry.getChangedAt().toString() : null))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             historyTable.addCell(new Cell().add(new Paragraph(defaultText(entry.getChangeType()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             historyTable.addCell(new Cell().add(new Paragraph(defaultText(entry.getStatus()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             historyTable.addCell(new Cell().add(new Paragraph(defaultText(entry.getEncounterType()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             historyTable.addCell(new Cell().add(new Paragraph(defaultText(entry.getChangedBy()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             historyTable.addCell(new Cell().add(new Paragraph(defaultText(entry.getNotes()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-        });
-
-        document.add(historyTable);
-        document.add(new Paragraph("\n"));
+        }, font, headerColor);
     }
 
-    private void addProblemSection(Document document, PatientRecordDTO dto, PdfFont font, Color headerColor, Color borderColor) {
-        List<PatientProblemResponseDTO> problems = dto.getProblems();
-        if (problems == null || problems.isEmpty()) {
-            return;
-        }
-
-        document.add(new Paragraph("Clinical Problems")
-            .setFont(font)
-            .setFontSize(16)
-            .setBold()
-            .setFontColor(headerColor)
-            .setMarginTop(10));
-
+    private void addProblemSection(Document document, List<PatientProblemResponseDTO> problems, PdfFont font, Color headerColor, Color borderColor) {
         float[] widths = {180F, 80F, 80F, 80F, 80F, 120F, 200F};
-        Table table = new Table(widths).setWidth(UnitValue.createPercentValue(100));
-
-    String[] headers = {"Problem", HEADER_STATUS, "Severity", "Onset", "Resolved", "Source", HEADER_NOTES};
-        for (String header : headers) {
-            table.addHeaderCell(new Cell()
-                .add(new Paragraph(header).setBold())
-                .setBackgroundColor(headerColor)
-                .setFontColor(ColorConstants.WHITE)
-                .setBorder(Border.NO_BORDER));
-        }
+        String[] headers = {"Problem", HEADER_STATUS, "Severity", "Onset", "Resolved", "Source", HEADER_NOTES};
 
-        problems.forEach(problem -> {
+        addSectionTable(document, "Clinical Problems", widths, headers, problems, (table, problem) -> {
             table.addCell(new Cell().add(new Paragraph(defaultText(problem.getProblemDisplay()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(problem.getStatus()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(problem.getSeverity()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
@@ -1177,76 +1265,28 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             table.addCell(new Cell().add(new Paragraph(defaultText(problem.getResolvedDate() != null ? problem.getResolvedDate().toString() : null))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(problem.getSourceSystem()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(problem.getNotes()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-        });
-
-        document.add(table);
-        document.add(new Paragraph("\n"));
+        }, font, headerColor);
     }
 
-    private void addSurgicalHistorySection(Document document, PatientRecordDTO dto, PdfFont font, Color headerColor, Color borderColor) {
-        List<PatientSurgicalHistoryResponseDTO> surgeries = dto.getSurgicalHistory();
-        if (surgeries == null || surgeries.isEmpty()) {
-            return;
-        }
-
-        document.add(new Paragraph("Surgical History")
-            .setFont(font)
-            .setFontSize(16)
-            .setBold()
-            .setFontColor(headerColor)
-            .setMarginTop(10));
-
+    private void addSurgicalHistorySection(Document document, List<PatientSurgicalHistoryResponseDTO> surgeries, PdfFont font, Color headerColor, Color borderColor) {
         float[] widths = {180F, 80F, 80F, 100F, 120F, 200F};
-        Table table = new Table(widths).setWidth(UnitValue.createPercentValue(100));
-
-    String[] headers = {"Procedure", "Date", "Outcome", "Location", "Performed By", HEADER_NOTES};
-        for (String header : headers) {
-            table.addHeaderCell(new Cell()
-                .add(new Paragraph(header).setBold())
-                .setBackgroundColor(headerColor)
-                .setFontColor(ColorConstants.WHITE)
-                .setBorder(Border.NO_BORDER));
-        }
+        String[] headers = {"Procedure", "Date", "Outcome", "Location", "Performed By", HEADER_NOTES};
 
-        surgeries.forEach(history -> {
+        addSectionTable(document, "Surgical History", widths, headers, surgeries, (table, history) -> {
             table.addCell(new Cell().add(new Paragraph(defaultText(history.getProcedureDisplay()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(history.getProcedureDate() != null ? history.getProcedureDate().toString() : null))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(history.getOutcome()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(history.getLocation()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(history.getPerformedBy()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(history.getNotes()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-        });
-
-        document.add(table);
-        document.add(new Paragraph("\n"));
+        }, font, headerColor);
     }
 
-    private void addAdvanceDirectiveSection(Document document, PatientRecordDTO dto, PdfFont font, Color headerColor, Color borderColor) {
-        List<AdvanceDirectiveResponseDTO> directives = dto.getAdvanceDirectives();
-        if (directives == null || directives.isEmpty()) {
-            return;
-        }
-
-        document.add(new Paragraph("Advance Directives")
-            .setFont(font)
-            .setFontSize(16)
-            .setBold()
-            .setFontColor(headerColor)
-            .setMarginTop(10));
-
+    private void addAdvanceDirectiveSection(Document document, List<AdvanceDirectiveResponseDTO> directives, PdfFont font, Color headerColor, Color borderColor) {
         float[] widths = {150F, 80F, 80F, 80F, 120F, 120F, 160F};
-        Table table = new Table(widths).setWidth(UnitValue.createPercentValue(100));
-
-    String[] headers = {"Type", HEADER_STATUS, "Effective", "Expires", "Physician", "Witness", "Document"};
-        for (String header : headers) {
-            table.addHeaderCell(new Cell()
-                .add(new Paragraph(header).setBold())
-                .setBackgroundColor(headerColor)
-                .setFontColor(ColorConstants.WHITE)
-                .setBorder(Border.NO_BORDER));
-        }
+        String[] headers = {"Type", HEADER_STATUS, "Effective", "Expires", "Physician", "Witness", "Document"};
 
-        directives.forEach(directive -> {
+        addSectionTable(document, "Advance Directives", widths, headers, directives, (table, directive) -> {
             table.addCell(new Cell().add(new Paragraph(defaultText(directive.getDirectiveType()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(directive.getStatus()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(directive.getEffectiveDate() != null ? directive.getEffectiveDate().toString() : null))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
@@ -1254,38 +1294,14 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             table.addCell(new Cell().add(new Paragraph(defaultText(directive.getPhysicianName()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(directive.getWitnessName()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             table.addCell(new Cell().add(new Paragraph(defaultText(directive.getDocumentLocation()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-        });
-
-        document.add(table);
-        document.add(new Paragraph("\n"));
+        }, font, headerColor);
     }
 
-    private void addInsuranceSection(Document document, PatientRecordDTO dto, PdfFont font, Color headerColor, Color borderColor) {
-        List<PatientInsuranceResponseDTO> insurances = dto.getInsurances();
-        if (insurances == null || insurances.isEmpty()) {
-            return;
-        }
-
-        document.add(new Paragraph("Insurance Coverage")
-            .setFont(font)
-            .setFontSize(16)
-            .setBold()
-            .setFontColor(headerColor)
-            .setMarginTop(10));
-
+    private void addInsuranceSection(Document document, List<PatientInsuranceResponseDTO> insurances, PdfFont font, Color headerColor, Color borderColor) {
         float[] insuranceWidths = {150F, 110F, 90F, 80F, 140F, 150F};
-        Table insuranceTable = new Table(insuranceWidths).setWidth(UnitValue.createPercentValue(100));
-
         String[] insuranceHeaders = {"Provider", "Policy #", "Group #", "Primary", "Coverage", "Subscriber"};
-        for (String header : insuranceHeaders) {
-            insuranceTable.addHeaderCell(new Cell()
-                .add(new Paragraph(header).setBold())
-                .setBackgroundColor(headerColor)
-                .setFontColor(ColorConstants.WHITE)
-                .setBorder(Border.NO_BORDER));
-        }
 
-        insurances.forEach(insurance -> {
+        addSectionTable(document, "Insurance Coverage", insuranceWidths, insuranceHeaders, insurances, (insuranceTable, insurance) -> {
             insuranceTable.addCell(new Cell().add(new Paragraph(defaultText(insurance.getProviderName()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             insuranceTable.addCell(new Cell().add(new Paragraph(defaultText(insurance.getPolicyNumber()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             insuranceTable.addCell(new Cell().add(new Paragraph(defaultText(insurance.getGroupNumber()))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
@@ -1293,10 +1309,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             insuranceTable.addCell(new Cell().add(new Paragraph(primaryLabel)).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             insuranceTable.addCell(new Cell().add(new Paragraph(defaultText(formatInsuranceWindow(insurance.getEffectiveDate(), insurance.getExpirationDate())))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
             insuranceTable.addCell(new Cell().add(new Paragraph(defaultText(formatSubscriber(insurance)))).setBorderBottom(new SolidBorder(borderColor, 0.5f)));
-        });
-
-        document.add(insuranceTable);
-        document.add(new Paragraph("\n"));
+        }, font, headerColor);
     }
 
     private String formatInsuranceWindow(LocalDate effective, LocalDate expiration) {
@@ -1361,8 +1374,33 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
         throw new IllegalArgumentException("Unsupported export format: " + format);
     }
 
+    /** Per-section sizes of an assembled record, as the share audit entry carries them. */
+    private Map<String, Object> auditCounts(PatientRecordDTO dto) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("encounterCount", dto.getEncounters().size());
+        counts.put("treatmentCount", dto.getTreatments().size());
+        counts.put("labOrderCount", dto.getLabOrders().size());
+        counts.put("labResultCount", dto.getLabResults().size());
+        counts.put("prescriptionCount", dto.getPrescriptions().size());
+        counts.put("problemCount", dto.getProblems().size());
+        counts.put("surgicalHistoryCount", dto.getSurgicalHistory().size());
+        counts.put("advanceDirectiveCount", dto.getAdvanceDirectives().size());
+        counts.put("encounterHistoryCount", dto.getEncounterHistory().size());
+        counts.put("insuranceCount", dto.getInsurances().size());
+        counts.putAll(allergyAuditCounts(dto.getAllergiesDetailed()));
+        return counts;
+    }
+
+    private Map<String, Object> allergyAuditCounts(List<PatientAllergyResponseDTO> allergyEntries) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("allergyCount", allergyEntries.size());
+        counts.put("criticalAllergyCount", allergyEntries.stream().filter(this::isCriticalAllergy).count());
+        counts.put("activeAllergyCount", allergyEntries.stream().filter(this::isActiveAllergy).count());
+        return counts;
+    }
+
     private void logAuditEvent(Patient patient, UUID fromHospitalId, UUID toHospitalId,
-                               PatientRecordDTO dto, PatientConsent consent, Set<String> scopeApplied) {
+                               Map<String, Object> sectionCounts, PatientConsent consent, Set<String> scopeApplied) {
         try {
             Map<String, Object> auditPayload = new HashMap<>();
             auditPayload.put("patientId", patient.getId());
@@ -1371,20 +1409,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             auditPayload.put("consentId", consent != null ? consent.getId() : "SELF_SERVE");
             auditPayload.put("consentExpiresAt", consent != null ? consent.getConsentExpiration() : null);
             auditPayload.put("scopeApplied", scopeApplied.isEmpty() ? "ALL" : scopeApplied);
-            auditPayload.put("encounterCount", dto.getEncounters().size());
-            auditPayload.put("treatmentCount", dto.getTreatments().size());
-            auditPayload.put("labOrderCount", dto.getLabOrders().size());
-            auditPayload.put("labResultCount", dto.getLabResults().size());
-            auditPayload.put("prescriptionCount", dto.getPrescriptions().size());
-            auditPayload.put("problemCount", dto.getProblems().size());
-            auditPayload.put("surgicalHistoryCount", dto.getSurgicalHistory().size());
-            auditPayload.put("advanceDirectiveCount", dto.getAdvanceDirectives().size());
-            auditPayload.put("encounterHistoryCount", dto.getEncounterHistory().size());
-            auditPayload.put("insuranceCount", dto.getInsurances().size());
-            List<PatientAllergyResponseDTO> allergyEntries = dto.getAllergiesDetailed();
-            auditPayload.put("allergyCount", allergyEntries.size());
-            auditPayload.put("criticalAllergyCount", allergyEntries.stream().filter(this::isCriticalAllergy).count());
-            auditPayload.put("activeAllergyCount", allergyEntries.stream().filter(this::isActiveAllergy).count());
+            auditPayload.putAll(sectionCounts);
 
             String rawDetails = objectMapper.writeValueAsString(auditPayload);
             String details = rawDetails.length() > 1000 ? rawDetails.substring(0, 997) + "..." : rawDetails;
@@ -1412,6 +1437,111 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
         }
     }
 
+    // ── Export sections ────────────────────────────────────────────────────
+
+    /**
+     * The list sections an export renders, in the order both formats read
+     * them. A writer reads each section once.
+     */
+    private interface ExportSections {
+        List<PatientAllergyResponseDTO> allergies();
+        List<PrescriptionResponseDTO> prescriptions();
+        List<PatientProblemResponseDTO> problems();
+        List<PatientSurgicalHistoryResponseDTO> surgicalHistory();
+        List<EncounterHistoryResponseDTO> encounterHistory();
+        List<AdvanceDirectiveResponseDTO> advanceDirectives();
+        List<PatientInsuranceResponseDTO> insurances();
+
+        static ExportSections of(PatientRecordDTO dto) {
+            return new AssembledSections(dto);
+        }
+    }
+
+    /** Sections of a record that has already been assembled. */
+    private record AssembledSections(PatientRecordDTO dto) implements ExportSections {
+        public List<PatientAllergyResponseDTO> allergies() { return dto.getAllergiesDetailed(); }
+        public List<PrescriptionResponseDTO> prescriptions() { return dto.getPrescriptions(); }
+        public List<PatientProblemResponseDTO> problems() { return dto.getProblems(); }
+        public List<PatientSurgicalHistoryResponseDTO> surgicalHistory() { return dto.getSurgicalHistory(); }
+        public List<EncounterHistoryResponseDTO> encounterHistory() { return dto.getEncounterHistory(); }
+        public List<AdvanceDirectiveResponseDTO> advanceDirectives() { return dto.getAdvanceDirectives(); }
+        public List<PatientInsuranceResponseDTO> insurances() { return dto.getInsurances(); }
+    }
+
+    /**
+     * Sections of a streamed export: each is loaded — one query, or two for
+     * encounter history — only when the writer reaches it, and only its size
+     * is kept for the audit entry afterwards. Allergies load up front because
+     * the record header summarises them.
+     */
+    private final class StreamedSections implements ExportSections {
+
+        private final UUID patientId;
+        private final UUID fromHospitalId;
+        private final Hospital fromHospital;
+        private final Set<String> allowedDomains;
+        private final List<PatientAllergyResponseDTO> allergies;
+        private final Map<String, Object> counts = new LinkedHashMap<>();
+
+        StreamedSections(UUID patientId, UUID fromHospitalId, Hospital fromHospital, Set<String> allowedDomains) {
+            this.patientId = patientId;
+            this.fromHospitalId = fromHospitalId;
+            this.fromHospital = fromHospital;
+            this.allowedDomains = allowedDomains;
+            this.allergies = loadScopedAllergies(allowedDomains, patientId, fromHospitalId);
+        }
+
+        @Override
+        public List<PatientAllergyResponseDTO> allergies() {
+            return allergies;
+        }
+
+        @Override
+        public List<PrescriptionResponseDTO> prescriptions() {
+            return counted("prescriptionCount", loadScopedPrescriptions(allowedDomains, patientId, fromHospitalId));
+        }
+
+        @Override
+        public List<PatientProblemResponseDTO> problems() {
+            return counted("problemCount", loadScopedProblems(allowedDomains, patientId, fromHospitalId));
+        }
+
+        @Override
+        public List<PatientSurgicalHistoryResponseDTO> surgicalHistory() {
+            return counted("surgicalHistoryCount", loadScopedSurgicalHistory(allowedDomains, patientId, fromHospitalId));
+        }
+
+        @Override
+        public List<EncounterHistoryResponseDTO> encounterHistory() {
+            List<Encounter> encounters = isDomainAllowed(allowedDomains, SCOPE_ENCOUNTER_HISTORY)
+                ? loadEncountersInScope(patientId, fromHospitalId)
+                : List.of();
+            return counted("encounterHistoryCount", loadScopedEncounterHistory(allowedDomains, encounters, fromHospital));
+        }
+
+        @Override
+        public List<AdvanceDirectiveResponseDTO> advanceDirectives() {
+            return counted("advanceDirectiveCount", loadScopedAdvanceDirectives(allowedDomains, patientId, fromHospitalId));
+        }
+
+        @Override
+        public List<PatientInsuranceResponseDTO> insurances() {
+            return counted("insuranceCount", loadScopedInsurances(allowedDomains, patientId, fromHospitalId));
+        }
+
+        /** Sizes of the sections the export carried. */
+        Map<String, Object> auditCounts() {
+            Map<String, Object> all = new LinkedHashMap<>(counts);
+            all.putAll(allergyAuditCounts(allergies));
+            return all;
+        }
+
+        private <T> List<T> counted(String key, List<T> section) {
+            counts.put(key, section.size());
+            return section;
+        }
+    }
+
     // ── Smart resolver ─────────────────────────────────────────────────────
 
     @Override
@@ -1483,7 +1613,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             .orElseGet(() -> patientRepository.findById(patientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found.")));
 
-        List<PatientRecordDTO> partials = new ArrayList<>();
+        List<Supplier<PatientRecordDTO>> partialBuilds = new ArrayList<>();
 
         // 1. SAME_HOSPITAL — patient is registered at the requesting hospital
         boolean registeredAtRequesting = patient.getHospitalRegistrations() != null
@@ -1492,7 +1622,7 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
                     && requestingHospitalId.equals(r.getHospital().getId()));
 
         if (registeredAtRequesting) {
-            partials.add(buildPatientRecordFromEntities(
+            partialBuilds.add(() -> buildPatientRecordFromEntities(
                 patientId, requestingHospitalId, requestingHospitalId,
                 patient, requestingHospital, requestingHospital));
         }
@@ -1502,17 +1632,77 @@ public class PatientRecordSharingServiceImpl implements PatientRecordSharingServ
             UUID fromId = c.getFromHospital().getId();
             if (c.isConsentActive() && !fromId.equals(requestingHospitalId)) {
                 Hospital fromHospital = c.getFromHospital();
-                partials.add(buildPatientRecordFromEntities(
+                partialBuilds.add(() -> buildPatientRecordFromEntities(
                     patientId, fromId, requestingHospitalId,
                     patient, fromHospital, requestingHospital, c));
             }
         }
 
-        if (partials.isEmpty()) {
+        if (partialBuilds.isEmpty()) {
             throw new BusinessException("No active consent or registration found for this patient at the requesting hospital.");
         }
 
-        return mergePatientRecords(partials, patient, requestingHospital);
+        return mergePatientRecords(buildPartials(partialBuilds, patient), patient, requestingHospital);
+    }
+
+    /**
+     * Builds the per-hospital partial records, at most
+     * {@code hms.record.aggregate.parallelism} at a time, each on its own
+     * virtual thread in its own read-only transaction. Results keep the
+     * order of {@code builds}, so the merge is the same as a serial one.
+     */
+    private List<PatientRecordDTO> buildPartials(List<Supplier<PatientRecordDTO>> builds, Patient patient) {
+        if (builds.size() == 1) {
+            return List.of(builds.get(0).get());
+        }
+
+        // Workers read the patient's registrations for the MRN map; load them
+        // here, where the request-thread session that owns the entity is open.
+        buildHospitalMrnMap(patient);
+
+        // The schema-per-tenant resolver reads the hospital context from a
+        // thread-local; hand it to every worker.
+        HospitalContext hospitalContext = HospitalContextHolder.getContextOrEmpty();
+        TransactionTemplate readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+
+        int threads = Math.min(builds.size(), Math.max(1, aggregateParallelism));
+        try (ExecutorService pool = Executors.newFixedThreadPool(
+                threads, Thread.ofVirtual().name("record-aggregate-", 0).factory())) {
+            List<Future<PatientRecordDTO>> futures = new ArrayList<>(builds.size());
+            for (Supplier<PatientRecordDTO> build : builds) {
+                futures.add(pool.submit(() -> {
+                    HospitalContextHolder.setContext(hospitalContext);
+                    try {
+                        return readTx.execute(status -> build.get());
+                    } finally {
+                        HospitalContextHolder.clear();
+                    }
+                }));
+            }
+
+            List<PatientRecordDTO> partials = new ArrayList<>(futures.size());
+            try {
+                for (Future<PatientRecordDTO> future : futures) {
+                    partials.add(awaitPartial(future));
+                }
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+            }
+            return partials;
+        }
+    }
+
+    private static PatientRecordDTO awaitPartial(Future<PatientRecordDTO> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aggregating patient records", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Partial patient record build failed", ex.getCause());
+        }
     }
 
     private <T> void addWithDedup(List<T> target, List<T> source, Set<UUID> seen,
@@ -76,6 +76,8 @@ import com.example.hms.repository.StaffRepository;
 import com.example.hms.repository.UltrasoundOrderRepository;
 import com.example.hms.repository.UltrasoundReportRepository;
 import com.example.hms.repository.UserRepository;
+import com.example.hms.service.search.PatientSearchQuery;
+import com.example.hms.service.search.PatientSearchService;
 import com.example.hms.utility.DiagnosisCodeValidator;
 import com.example.hms.utility.RoleValidator;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -242,6 +244,7 @@ public class PatientServiceImpl implements PatientService {
     private final PatientProxyRepository patientProxyRepository;
     private final ObjectMapper objectMapper;
     private final RoleValidator roleValidator;
+    private final PatientSearchService patientSearchService;
 
     @Override
     @Transactional(readOnly = true)
@@ -453,22 +456,18 @@ public class PatientServiceImpl implements PatientService {
     @Transactional(readOnly = true)
     public List<PatientResponseDTO> searchPatients(PatientSearchCriteria criteria, int page, int size, Locale locale) {
         Pageable pageable = PageRequest.of(page, size);
-        String mrn = trimToNull(criteria.getMrn());
-        String namePattern = buildLowercaseContainsPattern(criteria.getName());
-        String dob = trimToNull(criteria.getDateOfBirth());
-        String phonePattern = buildPhoneSearchPattern(criteria.getPhone());
-        String emailPattern = buildLowercaseContainsPattern(criteria.getEmail());
         UUID hospitalId = criteria.getHospitalId();
         Boolean activeFilter = criteria.getActive() == null ? Boolean.TRUE : criteria.getActive();
 
-        Page<Patient> patientPage = patientRepository.searchPatientsExtended(
-            mrn,
-            namePattern,
-            dob,
-            phonePattern,
-            emailPattern,
-            hospitalId,
-            activeFilter,
+        Page<Patient> patientPage = patientSearchService.search(
+            PatientSearchQuery.of(
+                criteria.getMrn(),
+                criteria.getName(),
+                criteria.getDateOfBirth(),
+                criteria.getPhone(),
+                criteria.getEmail(),
+                hospitalId,
+                activeFilter),
             pageable
         );
         return patientPage.stream()
@@ -2424,30 +2423,6 @@ public class PatientServiceImpl implements PatientService {
         return trimmed.isEmpty() ? null : trimmed;
     }
 
-    private static String buildLowercaseContainsPattern(String input) {
-        String normalized = trimToNull(input);
-        if (normalized == null) {
-            return null;
-        }
-        String escaped = escapeLike(normalized.toLowerCase(Locale.ROOT));
-        return "%" + escaped + "%";
-    }
-
-    private static String buildPhoneSearchPattern(String input) {
-        String normalized = trimToNull(input);
-        if (normalized == null) {
-            return null;
-        }
-        return "%" + escapeLike(normalized) + "%";
-    }
-
-    private static String escapeLike(String value) {
-        return value
-            .replace("\\", "\\\\")
-            .replace("%", "\\%")
-            .replace("_", "\\_");
-    }
-
     private PatientResponseDTO buildPatientDto(Patient patient, UUID hospitalId) {
         PatientResponseDTO dto = patientMapper.toPatientDTO(patient, hospitalId);
         if (patient == null || dto == null || patient.getId() == null) {
@@ -0,0 +1,398 @@
+package com.example.hms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Chunked CSV upsert into {@code reference.catalog_entries}, used by
+ * {@link ReferenceCatalogServiceImpl#importCatalog}.
+ *
+ * <p>Rows are parsed and validated as they stream off the reader and
+ * grouped into chunks of {@code app.reference-catalog.import.chunk-size}.
+ * Each chunk loads the entries it touches with one {@code IN} query, then
+ * writes its new and changed rows with one JDBC batch each, and commits
+ * in its own transaction — a 60k-row catalog holds locks for one chunk at
+ * a time, and what committed stays committed if a later chunk fails.
+ *
+ * <p>A bad row never aborts the run: validation failures and duplicate
+ * codes are recorded and skipped, and a chunk the database rejects is
+ * replayed row by row so only the offending rows are lost.
+ */
+@Slf4j
+@Component
+public class ReferenceCatalogImporter {
+
+    /** Row errors beyond this many are counted but not reported individually. */
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    static final int CODE_MAX_LENGTH = 160;
+    static final int TEXT_MAX_LENGTH = 255;
+
+    static final String SELECT_EXISTING_SQL = """
+        SELECT id, code, label, description, metadata, active
+          FROM reference.catalog_entries
+         WHERE catalog_id = :catalogId AND UPPER(code) IN (:codes)
+        """;
+
+    static final String INSERT_SQL = """
+        INSERT INTO reference.catalog_entries (
+            id, catalog_id, code, label, description, metadata, active, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    static final String UPDATE_SQL = """
+        UPDATE reference.catalog_entries
+           SET label = ?, description = ?, metadata = ?, active = ?, updated_at = ?
+         WHERE id = ?
+        """;
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader()
+        .setSkipHeaderRecord(true)
+        .setIgnoreEmptyLines(true)
+        .setTrim(true)
+        .build();
+
+    // Compiled once: normalizeCode runs for every imported row.
+    private static final Pattern NON_ALPHANUMERIC_RUN = Pattern.compile("[^A-Za-z0-9]+");
+    private static final Pattern EDGE_UNDERSCORE = Pattern.compile("^_|_$");
+    private static final Pattern WHITESPACE_RUN = Pattern.compile("\\s+");
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    /** Running totals, reported after every committed chunk. */
+    public record Progress(int processed, int created, int updated, int skipped, int failed,
+                           double rowsPerSecond) { }
+
+    public record RowError(long row, String code, String message) { }
+
+    public record Result(int processed, int created, int updated, int skipped, int failed,
+                         List<RowError> errors, long elapsedMillis) { }
+
+    /** A parsed, validated row waiting for its chunk to be written. */
+    private record PendingRow(long row, String code, String label, String description,
+                              Map<String, Object> metadata, String metadataJson, boolean active) { }
+
+    private record ExistingEntry(UUID id, String label, String description,
+                                 Map<String, Object> metadata, boolean active) { }
+
+    private record ChunkOutcome(int created, int updated, int skipped) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final TransactionTemplate chunkTx;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ReferenceCatalogImporter(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.reference-catalog.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        // Each chunk commits on its own, even when called inside a transaction.
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Upsert every row of {@code csv} into the catalog. Columns: {@code code}
+     * (required), {@code label}, {@code description}, {@code metadata} (a JSON
+     * object) and {@code active}; codes are matched case-insensitively.
+     *
+     * @param progress called after each chunk commits; may be {@code null}
+     * @throws IOException when the CSV itself cannot be read — rows of chunks
+     *         committed before that point stay imported
+     */
+    public Result importEntries(UUID catalogId, Reader csv, Consumer<Progress> progress) throws IOException {
+        long started = System.nanoTime();
+        Tally tally = new Tally();
+        Map<String, Long> firstSeen = new HashMap<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+
+        try (CSVParser parser = FORMAT.parse(csv)) {
+            for (CSVRecord csvRow : parser) {
+                PendingRow row = parseRow(csvRow, firstSeen, tally);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(catalogId, chunk, tally);
+                    chunk.clear();
+                    report(progress, tally, started);
+                }
+            }
+        } catch (UncheckedIOException ex) {
+            // CSVParser's iterator wraps malformed input (e.g. an unclosed quote).
+            throw ex.getCause();
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(catalogId, chunk, tally);
+            report(progress, tally, started);
+        }
+        return tally.result(elapsedNanos(started) / 1_000_000);
+    }
+
+    /** The catalog-code normalisation shared with catalog creation: {@code "icd-10 cm"} → {@code ICD_10_CM}. */
+    static String normalizeCode(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        String trimmed = value.trim();
+        String normalized = NON_ALPHANUMERIC_RUN.matcher(trimmed).replaceAll("_");
+        normalized = EDGE_UNDERSCORE.matcher(normalized).replaceAll("");
+        if (!StringUtils.hasText(normalized)) {
+            normalized = WHITESPACE_RUN.matcher(trimmed).replaceAll("_");
+        }
+        return normalized.toUpperCase();
+    }
+
+    // ── Parsing ───────────────────────────────────────────────────────────
+
+    private PendingRow parseRow(CSVRecord csvRow, Map<String, Long> firstSeen, Tally tally) {
+        long rowNumber = csvRow.getRecordNumber();
+        String code = normalizeCode(value(csvRow, "code"));
+        if (code == null) {
+            tally.skipped(1);
+            return null;
+        }
+        if (code.length() > CODE_MAX_LENGTH) {
+            tally.fail(rowNumber, code, "code is longer than " + CODE_MAX_LENGTH + " characters");
+            return null;
+        }
+        Long earlier = firstSeen.putIfAbsent(code, rowNumber);
+        if (earlier != null) {
+            tally.fail(rowNumber, code, "duplicate code, first seen on row " + earlier);
+            return null;
+        }
+
+        String label = value(csvRow, "label");
+        if (!StringUtils.hasText(label)) {
+            label = normalizeLabelFromCode(code);
+        }
+        String description = value(csvRow, "description");
+        if (label.length() > TEXT_MAX_LENGTH || (description != null && description.length() > TEXT_MAX_LENGTH)) {
+            tally.fail(rowNumber, code, "label and description are limited to " + TEXT_MAX_LENGTH + " characters");
+            return null;
+        }
+
+        Map<String, Object> metadata;
+        String metadataJson;
+        try {
+            metadata = parseMetadata(value(csvRow, "metadata"));
+            metadataJson = metadata.isEmpty() ? null : objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException ex) {
+            tally.fail(rowNumber, code, "metadata is not a JSON object: " + ex.getOriginalMessage());
+            return null;
+        }
+        if (metadataJson != null && metadataJson.length() > TEXT_MAX_LENGTH) {
+            tally.fail(rowNumber, code, "metadata is longer than " + TEXT_MAX_LENGTH + " characters");
+            return null;
+        }
+
+        return new PendingRow(rowNumber, code, label, description, metadata, metadataJson,
+            parseActiveFlag(value(csvRow, "active")));
+    }
+
+    private static String value(CSVRecord csvRow, String column) {
+        if (csvRow.isMapped(column) && csvRow.isSet(column)) {
+            String val = csvRow.get(column);
+            return val != null ? val.trim() : null;
+        }
+        return null;
+    }
+
+    private static String normalizeLabelFromCode(String code) {
+        var words = Arrays.stream(code.toLowerCase().split("[_-]"))
+            .filter(StringUtils::hasText)
+            .map(part -> Character.toUpperCase(part.charAt(0)) + part.substring(1))
+            .toList();
+        return words.isEmpty() ? "Unnamed" : String.join(" ", words);
+    }
+
+    private Map<String, Object> parseMetadata(String raw) throws JsonProcessingException {
+        if (!StringUtils.hasText(raw)) {
+            return Map.of();
+        }
+        Map<String, Object> result = objectMapper.readValue(raw, MAP_TYPE);
+        return result != null ? result : Map.of();
+    }
+
+    private static boolean parseActiveFlag(String raw) {
+        if (!StringUtils.hasText(raw)) {
+            return true;
+        }
+        return !raw.equalsIgnoreCase("false") && !raw.equalsIgnoreCase("0") && !raw.equalsIgnoreCase("no");
+    }
+
+    // ── Writing ───────────────────────────────────────────────────────────
+
+    private void writeChunk(UUID catalogId, List<PendingRow> chunk, Tally tally) {
+        try {
+            tally.add(chunkTx.execute(status -> upsert(catalogId, chunk)));
+        } catch (DataAccessException ex) {
+            log.warn("[catalog:import] chunk of {} rows from row {} rejected, retrying row by row: {}",
+                chunk.size(), chunk.get(0).row(), rootMessage(ex));
+            for (PendingRow row : chunk) {
+                try {
+                    tally.add(chunkTx.execute(status -> upsert(catalogId, List.of(row))));
+                } catch (DataAccessException rowEx) {
+                    tally.fail(row.row(), row.code(), rootMessage(rowEx));
+                }
+            }
+        }
+    }
+
+    private ChunkOutcome upsert(UUID catalogId, List<PendingRow> rows) {
+        Map<String, ExistingEntry> existing = loadExisting(catalogId, rows);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        int skipped = 0;
+
+        for (PendingRow row : rows) {
+            ExistingEntry entry = existing.get(row.code());
+            if (entry == null) {
+                inserts.add(new Object[] {
+                    UUID.randomUUID(), catalogId, row.code(), row.label(), row.description(),
+                    row.metadataJson(), row.active(), now, now
+                });
+            } else if (changed(entry, row)) {
+                updates.add(new Object[] {
+                    row.label(), row.description(), row.metadataJson(), row.active(), now, entry.id()
+                });
+            } else {
+                skipped++;
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        return new ChunkOutcome(inserts.size(), updates.size(), skipped);
+    }
+
+    /** Existing entries for the chunk's codes, keyed by upper-cased code. */
+    private Map<String, ExistingEntry> loadExisting(UUID catalogId, List<PendingRow> rows) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("catalogId", catalogId)
+            .addValue("codes", rows.stream().map(PendingRow::code).toList());
+        Map<String, ExistingEntry> existing = HashMap.newHashMap(rows.size());
+        namedJdbc.query(SELECT_EXISTING_SQL, params, rs -> {
+            // Legacy duplicates differing only in case: the first one wins,
+            // as it would have for a case-insensitive single-row lookup.
+            existing.putIfAbsent(rs.getString("code").toUpperCase(), new ExistingEntry(
+                rs.getObject("id", UUID.class),
+                rs.getString("label"),
+                rs.getString("description"),
+                storedMetadata(rs.getString("metadata")),
+                rs.getBoolean("active")));
+        });
+        return existing;
+    }
+
+    private Map<String, Object> storedMetadata(String json) {
+        try {
+            return parseMetadata(json);
+        } catch (JsonProcessingException ex) {
+            // Unreadable stored metadata counts as a change and is overwritten.
+            return null;
+        }
+    }
+
+    private static boolean changed(ExistingEntry entry, PendingRow row) {
+        return !Objects.equals(entry.label(), row.label())
+            || !Objects.equals(entry.description(), row.description())
+            || !Objects.equals(entry.metadata(), row.metadata())
+            || entry.active() != row.active();
+    }
+
+    // ── Reporting ─────────────────────────────────────────────────────────
+
+    private static void report(Consumer<Progress> progress, Tally tally, long started) {
+        if (progress == null) {
+            return;
+        }
+        long elapsed = Math.max(1, elapsedNanos(started));
+        progress.accept(new Progress(tally.processed, tally.created, tally.updated, tally.skipped,
+            tally.failed, tally.processed * 1_000_000_000d / elapsed));
+    }
+
+    private static long elapsedNanos(long started) {
+        return System.nanoTime() - started;
+    }
+
+    private static String rootMessage(DataAccessException ex) {
+        Throwable root = NestedExceptionUtils.getMostSpecificCause(ex);
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private static final class Tally {
+        private int processed;
+        private int created;
+        private int updated;
+        private int skipped;
+        private int failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void add(ChunkOutcome outcome) {
+            processed += outcome.created() + outcome.updated() + outcome.skipped();
+            created += outcome.created();
+            updated += outcome.updated();
+            skipped += outcome.skipped();
+        }
+
+        void skipped(int rows) {
+            processed += rows;
+            skipped += rows;
+        }
+
+        void fail(long row, String code, String message) {
+            processed++;
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, code, message));
+            }
+        }
+
+        Result result(long elapsedMillis) {
+            return new Result(processed, created, updated, skipped, failed, List.copyOf(errors), elapsedMillis);
+        }
+    }
+}
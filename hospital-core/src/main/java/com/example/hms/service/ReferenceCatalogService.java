@@ -15,6 +15,11 @@ public interface ReferenceCatalogService {
 
     ReferenceCatalogResponseDTO createCatalog(CreateReferenceCatalogRequestDTO requestDTO);
 
+    /**
+     * Upserts the CSV's entries into the catalog in chunks that each commit on
+     * their own; rejected rows are reported in the response instead of failing
+     * the import, and a failure part-way leaves the earlier chunks imported.
+     */
     CatalogImportResponseDTO importCatalog(UUID catalogId, MultipartFile file);
 
     ReferenceCatalogResponseDTO schedulePublish(UUID catalogId, SchedulePublishRequestDTO requestDTO);
@@ -8,10 +8,10 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 /**
- * MVP-8c — cross-source audit aggregation. Materialises rows from
- * each requested source separately, merges them by timestamp DESC,
- * and paginates the merged stream. Used by the super-admin
- * audit-search UI's "All sources" tab.
+ * MVP-8c — cross-source audit aggregation. Reads each requested source
+ * in (timestamp, id) DESC order, merges the streams, and pages the merged
+ * feed by cursor. Used by the super-admin audit-search UI's "All sources"
+ * tab.
  */
 public interface SuperAdminAuditAggregationService {
 
@@ -24,12 +24,27 @@ public interface SuperAdminAuditAggregationService {
      *                 means "no lower bound" (the per-source LIMIT
      *                 still caps work).
      * @param toDate   inclusive upper bound; null means "no upper bound".
-     * @param pageable page coordinates; sort is ignored — the merge is
-     *                 always timestamp DESC.
+     * @param cursor   {@code nextCursor} of the previous page, or null for
+     *                 the first page. With a cursor the page number is
+     *                 only echoed back; without one, pages are counted
+     *                 from the top (bounded depth).
+     * @param pageable page size (and page number for cursor-less
+     *                 requests); sort is ignored — the merge is always
+     *                 timestamp DESC, id DESC.
      */
     AggregatedAuditPageDTO searchAggregated(
         Set<AuditSource> sources,
         LocalDateTime fromDate,
         LocalDateTime toDate,
+        String cursor,
         Pageable pageable);
+
+    /** Cursor-less form: page {@code pageable.pageNumber} counted from the newest row. */
+    default AggregatedAuditPageDTO searchAggregated(
+        Set<AuditSource> sources,
+        LocalDateTime fromDate,
+        LocalDateTime toDate,
+        Pageable pageable) {
+        return searchAggregated(sources, fromDate, toDate, null, pageable);
+    }
 }
@@ -0,0 +1,600 @@
+package com.example.hms.service;
+
+import com.example.hms.exception.BusinessException;
+import com.example.hms.exception.ResourceNotFoundException;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Role;
+import com.example.hms.model.User;
+import com.example.hms.model.UserRoleHospitalAssignment;
+import com.example.hms.model.UserRoleId;
+import com.example.hms.payload.dto.assignment.UserRoleAssignmentBulkImportRequestDTO;
+import com.example.hms.repository.HospitalRepository;
+import com.example.hms.repository.RoleRepository;
+import com.example.hms.repository.UserRepository;
+import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
+import com.example.hms.repository.UserRoleRepository;
+import com.example.hms.security.SecurityUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.hibernate.Session;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * CSV engine behind {@link UserRoleHospitalAssignmentService#bulkImportAssignments}.
+ *
+ * <p>{@link #plan} parses the whole file with commons-csv (quoted fields,
+ * a one-character delimiter, case-insensitive headers), resolves every
+ * user, role and hospital the file references with one {@code IN} query per
+ * kind of identifier, and checks each row against the users' existing
+ * assignments and against the rows above it in memory. The number of
+ * queries depends on which identifier columns the file uses, not on how
+ * many rows it has.
+ *
+ * <p>{@link #persist} writes the accepted rows through the persistence
+ * context in JDBC batches of {@value #BATCH_SIZE}. It stays on JPA rather
+ * than plain JDBC so the assignment entity listeners keep firing.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserRoleAssignmentBulkImporter {
+
+    static final int BATCH_SIZE = 200;
+
+    private static final String MSG_ASSIGNMENT_CONFLICT = "assignment.conflict";
+    private static final String MSG_ROLE_NOT_FOUND = "role.notfound";
+    private static final String MSG_ROLE_NOT_FOUND_BY_NAME = "role.notfound.byname";
+    private static final String MSG_USER_NOT_FOUND = "user.notfound";
+    private static final String MSG_HOSPITAL_NOT_FOUND = "hospital.notfound";
+    private static final String MSG_HOSPITAL_REQUIRED = "hospital.required";
+    private static final String DEFAULT_ROLE_ALREADY_ASSIGNED = "Role already assigned to this user for this hospital.";
+    private static final String DEFAULT_DUPLICATE_ROW_PREFIX = "Duplicate of row ";
+    private static final String DEFAULT_USER_NOT_FOUND_PREFIX = "User not found: ";
+    private static final String DEFAULT_ROLE_NOT_FOUND_PREFIX = "Role not found with ID: ";
+    private static final String DEFAULT_ROLE_NOT_FOUND_BY_NAME_PREFIX = "Role not found with name: ";
+    private static final String DEFAULT_HOSPITAL_NOT_FOUND_ID_PREFIX = "Hospital not found with ID: ";
+    private static final String DEFAULT_HOSPITAL_NOT_FOUND_CODE_PREFIX = "Hospital not found with code: ";
+    private static final String DEFAULT_HOSPITAL_NOT_FOUND_NAME_PREFIX = "Hospital not found with name: ";
+    private static final String DEFAULT_SUPER_ADMIN_SCOPE_MESSAGE = "SUPER_ADMIN assignments are global and must not include a hospital.";
+    private static final String DEFAULT_PATIENT_ACTIVE_MESSAGE = "PATIENT assignments must be inactive until email verification.";
+    private static final String DEFAULT_HOSPITAL_REQUIRED_MESSAGE = "Hospital must be provided for non-SUPER_ADMIN roles.";
+    private static final String DEFAULT_INVALID_UUID_MESSAGE = "Invalid UUID value: ";
+    private static final String DEFAULT_INVALID_BOOLEAN_MESSAGE = "Invalid boolean value: ";
+    private static final String DEFAULT_INVALID_DATE_MESSAGE = "Invalid date value: ";
+    private static final String DEFAULT_ROW_MISSING_USER = "Row missing user identifier";
+    private static final String DEFAULT_ROW_MISSING_ROLE = "Row missing role identifier";
+    private static final String DEFAULT_PROCESSING_ERROR = "Unable to process CSV content";
+    private static final String UNKNOWN_IDENTIFIER = "unknown";
+
+    private static final String ROLE_SUPER_ADMIN = "SUPER_ADMIN";
+    private static final String ROLE_PATIENT = "PATIENT";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final String[] USER_ID_COLUMNS = {"user_id", "userid"};
+    private static final String[] USER_IDENTIFIER_COLUMNS = {"user_identifier", "username", "email", "phone", "identifier"};
+    private static final String[] ROW_IDENTIFIER_COLUMNS = {"user_identifier", "username", "email", "phone", "identifier", "user_id", "userid"};
+    private static final String[] ROLE_ID_COLUMNS = {"role_id", "roleid"};
+    private static final String[] ROLE_NAME_COLUMNS = {"role_name", "rolename", "role_code"};
+    private static final String[] HOSPITAL_ID_COLUMNS = {"hospital_id", "hospitalid"};
+    private static final String[] HOSPITAL_CODE_COLUMNS = {"hospital_code", "hospitalcode", "facility_code"};
+    private static final String[] HOSPITAL_NAME_COLUMNS = {"hospital_name", "hospitalname", "facility_name"};
+    private static final String[] ACTIVE_COLUMNS = {"active", "is_active"};
+    private static final String[] START_DATE_COLUMNS = {"start_date", "startdate", "effective_date"};
+    private static final String[] REGISTRAR_COLUMNS = {"registered_by_user_id", "registrar_id"};
+
+    private static final Set<String> TRUE_VALUES = Set.of("true", "1", "yes", "y");
+    private static final Set<String> FALSE_VALUES = Set.of("false", "0", "no", "n");
+    private static final List<DateTimeFormatter> SUPPORTED_DATE_FORMATS = List.of(
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy")
+    );
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final HospitalRepository hospitalRepository;
+    private final UserRoleHospitalAssignmentRepository assignmentRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final MessageSource messageSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** A row that passed every check and can be created as-is. */
+    public record ResolvedRow(int rowNumber, String identifier, User user, Role role, Hospital hospital,
+                              User registrar, boolean active, LocalDate startDate) {
+    }
+
+    /**
+     * A row that will not be created. {@code conflict} rows duplicate an
+     * existing assignment or an earlier row and may be skipped; the rest
+     * are failures.
+     */
+    public record RejectedRow(int rowNumber, String identifier, boolean conflict, String message) {
+    }
+
+    /**
+     * Outcome of validating a whole file; nothing has been written yet.
+     * {@code existingUserRoles} holds the legacy user-role links the
+     * referenced users already have.
+     */
+    public record Plan(int processed, List<ResolvedRow> accepted, List<RejectedRow> rejected,
+                       Set<UserRoleId> existingUserRoles) {
+    }
+
+    /**
+     * Parses and validates {@code request}'s CSV. Malformed CSV as a whole
+     * is a {@link BusinessException}; problems with individual rows end up
+     * in {@link Plan#rejected()}.
+     */
+    public Plan plan(UserRoleAssignmentBulkImportRequestDTO request, Locale locale) {
+        List<CsvRow> rows = new ArrayList<>();
+        List<RejectedRow> rejected = new ArrayList<>();
+        int processed = parse(request, rows, rejected);
+
+        References references = loadReferences(rows);
+        Map<AssignmentKey, Integer> taken = new HashMap<>();
+        references.existingAssignments().forEach(key -> taken.put(key, 0));
+
+        List<ResolvedRow> accepted = new ArrayList<>(rows.size());
+        for (CsvRow row : rows) {
+            ResolvedRow resolved;
+            try {
+                resolved = resolve(row, references, locale);
+            } catch (BusinessException | ResourceNotFoundException ex) {
+                rejected.add(new RejectedRow(row.rowNumber(), row.identifier(), false, ex.getMessage()));
+                continue;
+            }
+            Integer firstRow = taken.putIfAbsent(AssignmentKey.of(resolved), row.rowNumber());
+            if (firstRow == null) {
+                accepted.add(resolved);
+            } else {
+                String message = firstRow == 0
+                    ? messageSource.getMessage(MSG_ASSIGNMENT_CONFLICT, null, DEFAULT_ROLE_ALREADY_ASSIGNED, locale)
+                    : DEFAULT_DUPLICATE_ROW_PREFIX + firstRow;
+                rejected.add(new RejectedRow(row.rowNumber(), row.identifier(), true, message));
+            }
+        }
+        return new Plan(processed, accepted, rejected, references.existingUserRoles());
+    }
+
+    /**
+     * Persists {@code entities} in the caller's transaction, flushing every
+     * {@value #BATCH_SIZE} so inserts go out as JDBC batches. Each flushed
+     * batch is detached, so the persistence context (and every later
+     * flush's dirty check) does not grow with the file; only the new rows
+     * are detached, not the users, hospitals and roles the caller loaded,
+     * and they keep their generated ids for the response. Uses
+     * {@code persist} rather than repository {@code save}: legacy
+     * {@code UserRole} rows carry an assigned id, which would make
+     * {@code save} merge and select each one first.
+     */
+    public void persist(List<?> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(BATCH_SIZE);
+        try {
+            for (int from = 0; from < entities.size(); from += BATCH_SIZE) {
+                List<?> batch = entities.subList(from, Math.min(entities.size(), from + BATCH_SIZE));
+                batch.forEach(entityManager::persist);
+                entityManager.flush();
+                batch.forEach(entityManager::detach);
+            }
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    /* ===================== Parsing ===================== */
+
+    private int parse(UserRoleAssignmentBulkImportRequestDTO request, List<CsvRow> rows, List<RejectedRow> rejected) {
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+            .setDelimiter(delimiter(request))
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setAllowMissingColumnNames(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+        int processed = 0;
+        try (CSVParser parser = format.parse(new StringReader(request.getCsvContent()))) {
+            for (CSVRecord csvRecord : parser) {
+                processed++;
+                // Record 1 is the first line after the header, i.e. spreadsheet row 2.
+                int rowNumber = Math.toIntExact(csvRecord.getRecordNumber() + 1);
+                String identifier = column(csvRecord, ROW_IDENTIFIER_COLUMNS);
+                identifier = identifier != null ? identifier : UNKNOWN_IDENTIFIER;
+                try {
+                    rows.add(toCsvRow(csvRecord, rowNumber, identifier, request));
+                } catch (BusinessException ex) {
+                    rejected.add(new RejectedRow(rowNumber, identifier, false, ex.getMessage()));
+                }
+            }
+        } catch (IOException | UncheckedIOException | IllegalArgumentException | IllegalStateException ex) {
+            throw new BusinessException(DEFAULT_PROCESSING_ERROR, ex);
+        }
+        return processed;
+    }
+
+    private static char delimiter(UserRoleAssignmentBulkImportRequestDTO request) {
+        String delimiter = request.getDelimiter();
+        return delimiter != null && !delimiter.isEmpty() ? delimiter.charAt(0) : ',';
+    }
+
+    private static CsvRow toCsvRow(CSVRecord csvRecord, int rowNumber, String identifier,
+                                   UserRoleAssignmentBulkImportRequestDTO options) {
+        UUID userId = parseUuid(column(csvRecord, USER_ID_COLUMNS));
+        String userIdentifier = userId == null ? column(csvRecord, USER_IDENTIFIER_COLUMNS) : null;
+        if (userId == null && userIdentifier == null) {
+            throw new BusinessException(DEFAULT_ROW_MISSING_USER);
+        }
+
+        UUID roleId = parseUuid(column(csvRecord, ROLE_ID_COLUMNS));
+        String roleName = column(csvRecord, ROLE_NAME_COLUMNS);
+        if (roleId == null && roleName == null) {
+            if (options.getDefaultRoleId() != null) {
+                roleId = options.getDefaultRoleId();
+            } else if (options.getDefaultRoleName() != null && !options.getDefaultRoleName().isBlank()) {
+                roleName = options.getDefaultRoleName().trim();
+            } else {
+                throw new BusinessException(DEFAULT_ROW_MISSING_ROLE);
+            }
+        }
+
+        UUID hospitalId = parseUuid(column(csvRecord, HOSPITAL_ID_COLUMNS));
+        UUID registrarId = parseUuid(column(csvRecord, REGISTRAR_COLUMNS));
+        return new CsvRow(
+            rowNumber,
+            identifier,
+            userId,
+            userIdentifier,
+            roleId,
+            roleId == null ? roleName : null,
+            hospitalId != null ? hospitalId : options.getDefaultHospitalId(),
+            column(csvRecord, HOSPITAL_CODE_COLUMNS),
+            column(csvRecord, HOSPITAL_NAME_COLUMNS),
+            parseBoolean(column(csvRecord, ACTIVE_COLUMNS), options.getDefaultActive()),
+            parseStartDate(column(csvRecord, START_DATE_COLUMNS)),
+            registrarId != null ? registrarId : options.getRegisteredByUserId());
+    }
+
+    /** First non-blank value among {@code aliases}; short rows simply lack the trailing columns. */
+    private static String column(CSVRecord csvRecord, String... aliases) {
+        for (String alias : aliases) {
+            if (csvRecord.isMapped(alias) && csvRecord.isSet(alias)) {
+                String value = csvRecord.get(alias);
+                if (value != null && !value.isBlank()) {
+                    return value.trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static UUID parseUuid(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(raw);
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException(DEFAULT_INVALID_UUID_MESSAGE + raw);
+        }
+    }
+
+    private static Boolean parseBoolean(String raw, Boolean defaultValue) {
+        if (raw == null) {
+            return defaultValue;
+        }
+        String normalized = raw.toLowerCase(Locale.ROOT);
+        if (TRUE_VALUES.contains(normalized)) {
+            return Boolean.TRUE;
+        }
+        if (FALSE_VALUES.contains(normalized)) {
+            return Boolean.FALSE;
+        }
+        throw new BusinessException(DEFAULT_INVALID_BOOLEAN_MESSAGE + raw);
+    }
+
+    private static LocalDate parseStartDate(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        for (DateTimeFormatter formatter : SUPPORTED_DATE_FORMATS) {
+            try {
+                return LocalDate.parse(raw, formatter);
+            } catch (DateTimeParseException ignored) {
+                // try next
+            }
+        }
+        throw new BusinessException(DEFAULT_INVALID_DATE_MESSAGE + raw);
+    }
+
+    /* ===================== Set-based lookups ===================== */
+
+    private References loadReferences(List<CsvRow> rows) {
+        Set<UUID> userIds = new HashSet<>();
+        Set<String> userIdentifiers = new HashSet<>();
+        Set<UUID> roleIds = new HashSet<>();
+        Set<String> roleNames = new HashSet<>();
+        Set<UUID> hospitalIds = new HashSet<>();
+        Set<String> hospitalCodes = new HashSet<>();
+        Set<String> hospitalNames = new HashSet<>();
+        boolean principalNeeded = false;
+
+        for (CsvRow row : rows) {
+            if (row.userId() != null) {
+                userIds.add(row.userId());
+            } else {
+                userIdentifiers.add(row.userIdentifier());
+            }
+            if (row.registrarId() != null) {
+                userIds.add(row.registrarId());
+            } else {
+                principalNeeded = true;
+            }
+            if (row.roleId() != null) {
+                roleIds.add(row.roleId());
+            } else {
+                roleNames.add(lower(row.roleName()));
+            }
+            // Only the identifier that resolution will actually use is looked up.
+            if (row.hospitalId() != null) {
+                hospitalIds.add(row.hospitalId());
+            } else if (row.hospitalCode() != null) {
+                hospitalCodes.add(lower(row.hospitalCode()));
+            } else if (row.hospitalName() != null) {
+                hospitalNames.add(lower(row.hospitalName()));
+            }
+        }
+
+        Map<UUID, User> usersById = index(query(userIds, userRepository::findAllById), User::getId);
+        Map<String, User> usersByIdentifier = loadUsersByIdentifier(userIdentifiers);
+        User principal = principalNeeded ? loadPrincipal() : null;
+
+        Map<UUID, Role> rolesById = index(query(roleIds, roleRepository::findAllById), Role::getId);
+        Map<String, Role> rolesByName = index(query(roleNames, roleRepository::findByNameInIgnoreCase),
+            role -> lower(role.getName()));
+
+        Map<UUID, Hospital> hospitalsById = index(query(hospitalIds, hospitalRepository::findAllById), Hospital::getId);
+        Map<String, Hospital> hospitalsByCode = index(query(hospitalCodes, hospitalRepository::findByCodeInIgnoreCase),
+            hospital -> lower(hospital.getCode()));
+        Map<String, Hospital> hospitalsByName = index(query(hospitalNames, hospitalRepository::findByNameInIgnoreCase),
+            hospital -> lower(hospital.getName()));
+
+        Set<UUID> assigneeIds = new HashSet<>();
+        usersById.values().forEach(user -> assigneeIds.add(user.getId()));
+        usersByIdentifier.values().forEach(user -> assigneeIds.add(user.getId()));
+        Set<AssignmentKey> existingAssignments = new HashSet<>();
+        Set<UserRoleId> existingUserRoles = new HashSet<>();
+        if (!assigneeIds.isEmpty()) {
+            for (UserRoleHospitalAssignment assignment : assignmentRepository.findByUserIdIn(assigneeIds)) {
+                existingAssignments.add(new AssignmentKey(
+                    assignment.getUser().getId(),
+                    assignment.getHospital() != null ? assignment.getHospital().getId() : null,
+                    assignment.getRole().getId()));
+            }
+            existingUserRoles.addAll(userRoleRepository.findIdsByUserIdIn(assigneeIds));
+        }
+
+        return new References(usersById, usersByIdentifier, principal, rolesById, rolesByName,
+            hospitalsById, hospitalsByCode, hospitalsByName, existingAssignments, existingUserRoles);
+    }
+
+    /**
+     * Same precedence as single assignment: username, then email (both
+     * case-insensitive), then exact phone number. Each step only queries
+     * the identifiers the previous ones did not match. Keys are lower-cased
+     * identifiers.
+     */
+    private Map<String, User> loadUsersByIdentifier(Set<String> identifiers) {
+        Map<String, User> matched = new HashMap<>();
+        if (identifiers.isEmpty()) {
+            return matched;
+        }
+        Map<String, String> pending = new HashMap<>();
+        identifiers.forEach(identifier -> pending.putIfAbsent(lower(identifier), identifier));
+
+        matchUsers(userRepository.findByUsernameInIgnoreCase(List.copyOf(pending.keySet())),
+            user -> lower(user.getUsername()), pending, matched);
+        if (!pending.isEmpty()) {
+            matchUsers(userRepository.findByEmailInIgnoreCase(List.copyOf(pending.keySet())),
+                user -> lower(user.getEmail()), pending, matched);
+        }
+        if (!pending.isEmpty()) {
+            Map<String, String> byPhone = new HashMap<>();
+            pending.forEach((key, raw) -> byPhone.put(raw, key));
+            for (User user : userRepository.findByPhoneNumberIn(byPhone.keySet())) {
+                String key = byPhone.get(user.getPhoneNumber());
+                if (key != null) {
+                    matched.putIfAbsent(key, user);
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static void matchUsers(List<User> users, Function<User, String> key,
+                                   Map<String, String> pending, Map<String, User> matched) {
+        for (User user : users) {
+            String userKey = key.apply(user);
+            if (userKey != null && pending.remove(userKey) != null) {
+                matched.put(userKey, user);
+            }
+        }
+    }
+
+    private User loadPrincipal() {
+        String principal = SecurityUtils.getCurrentUsername();
+        if (principal == null || principal.isBlank()) {
+            return null;
+        }
+        return userRepository.findByUsername(principal)
+            .or(() -> userRepository.findByEmail(principal))
+            .orElse(null);
+    }
+
+    /* ===================== Per-row validation (in memory) ===================== */
+
+    private ResolvedRow resolve(CsvRow row, References references, Locale locale) {
+        User user = resolveUser(row, references, locale);
+        Role role = resolveRole(row, references, locale);
+        String roleCode = role.getCode() != null && !role.getCode().isBlank() ? role.getCode() : role.getName();
+        boolean active = scopedActive(row, roleCode);
+        Hospital hospital = resolveHospital(row, roleCode, references, locale);
+        User registrar = row.registrarId() != null
+            ? require(references.usersById().get(row.registrarId()), MSG_USER_NOT_FOUND, row.registrarId(),
+                DEFAULT_USER_NOT_FOUND_PREFIX, locale)
+            : references.principal();
+        return new ResolvedRow(row.rowNumber(), row.identifier(), user, role, hospital, registrar, active,
+            row.startDate());
+    }
+
+    private User resolveUser(CsvRow row, References references, Locale locale) {
+        if (row.userId() != null) {
+            return require(references.usersById().get(row.userId()), MSG_USER_NOT_FOUND, row.userId(),
+                DEFAULT_USER_NOT_FOUND_PREFIX, locale);
+        }
+        return require(references.usersByIdentifier().get(lower(row.userIdentifier())), MSG_USER_NOT_FOUND,
+            row.userIdentifier(), DEFAULT_USER_NOT_FOUND_PREFIX, locale);
+    }
+
+    private Role resolveRole(CsvRow row, References references, Locale locale) {
+        if (row.roleId() != null) {
+            return require(references.rolesById().get(row.roleId()), MSG_ROLE_NOT_FOUND, row.roleId(),
+                DEFAULT_ROLE_NOT_FOUND_PREFIX, locale);
+        }
+        return require(references.rolesByName().get(lower(row.roleName())), MSG_ROLE_NOT_FOUND_BY_NAME,
+            row.roleName(), DEFAULT_ROLE_NOT_FOUND_BY_NAME_PREFIX, locale);
+    }
+
+    /**
+     * Mirrors single assignment: SUPER_ADMIN is global and starts active,
+     * PATIENT may not be imported active, every other role starts inactive
+     * until the assignee confirms.
+     */
+    private static boolean scopedActive(CsvRow row, String roleCode) {
+        if (isRole(roleCode, ROLE_SUPER_ADMIN)) {
+            if (row.hospitalId() != null || row.hospitalCode() != null || row.hospitalName() != null) {
+                throw new BusinessException(DEFAULT_SUPER_ADMIN_SCOPE_MESSAGE);
+            }
+            return !Boolean.FALSE.equals(row.active());
+        }
+        if (isRole(roleCode, ROLE_PATIENT) && Boolean.TRUE.equals(row.active())) {
+            throw new BusinessException(DEFAULT_PATIENT_ACTIVE_MESSAGE);
+        }
+        return false;
+    }
+
+    private Hospital resolveHospital(CsvRow row, String roleCode, References references, Locale locale) {
+        if (row.hospitalId() != null) {
+            return require(references.hospitalsById().get(row.hospitalId()), MSG_HOSPITAL_NOT_FOUND,
+                row.hospitalId(), DEFAULT_HOSPITAL_NOT_FOUND_ID_PREFIX, locale);
+        }
+        if (row.hospitalCode() != null) {
+            return require(references.hospitalsByCode().get(lower(row.hospitalCode())), MSG_HOSPITAL_NOT_FOUND,
+                row.hospitalCode(), DEFAULT_HOSPITAL_NOT_FOUND_CODE_PREFIX, locale);
+        }
+        if (row.hospitalName() != null) {
+            return require(references.hospitalsByName().get(lower(row.hospitalName())), MSG_HOSPITAL_NOT_FOUND,
+                row.hospitalName(), DEFAULT_HOSPITAL_NOT_FOUND_NAME_PREFIX, locale);
+        }
+        if (isRole(roleCode, ROLE_SUPER_ADMIN) || isRole(roleCode, ROLE_PATIENT)) {
+            return null;
+        }
+        throw new BusinessException(
+            messageSource.getMessage(MSG_HOSPITAL_REQUIRED, null, DEFAULT_HOSPITAL_REQUIRED_MESSAGE, locale));
+    }
+
+    private <T> T require(T value, String messageKey, Object argument, String defaultPrefix, Locale locale) {
+        if (value == null) {
+            throw new ResourceNotFoundException(messageSource.getMessage(
+                messageKey, new Object[]{argument}, defaultPrefix + argument, locale));
+        }
+        return value;
+    }
+
+    /* ===================== Helpers ===================== */
+
+    private static boolean isRole(String roleCode, String expected) {
+        if (roleCode == null) {
+            return false;
+        }
+        String normalized = roleCode.regionMatches(true, 0, ROLE_PREFIX, 0, ROLE_PREFIX.length())
+            ? roleCode.substring(ROLE_PREFIX.length())
+            : roleCode;
+        return normalized.equalsIgnoreCase(expected);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /** Runs {@code finder} only when there is something to look up. */
+    private static <Q, V> List<V> query(Set<Q> keys, Function<Set<Q>, List<V>> finder) {
+        return keys.isEmpty() ? List.of() : finder.apply(keys);
+    }
+
+    private static <K, V> Map<K, V> index(Collection<V> values, Function<V, K> key) {
+        Map<K, V> indexed = new HashMap<>();
+        for (V value : values) {
+            K k = key.apply(value);
+            if (k != null) {
+                indexed.putIfAbsent(k, value);
+            }
+        }
+        return indexed;
+    }
+
+    private record CsvRow(int rowNumber, String identifier, UUID userId, String userIdentifier, UUID roleId,
+                          String roleName, UUID hospitalId, String hospitalCode, String hospitalName,
+                          Boolean active, LocalDate startDate, UUID registrarId) {
+    }
+
+    /** Assignment identity; a {@code null} hospital is a global assignment. */
+    private record AssignmentKey(UUID userId, UUID hospitalId, UUID roleId) {
+        static AssignmentKey of(ResolvedRow row) {
+            return new AssignmentKey(row.user().getId(),
+                row.hospital() != null ? row.hospital().getId() : null,
+                row.role().getId());
+        }
+    }
+
+    private record References(Map<UUID, User> usersById,
+                              Map<String, User> usersByIdentifier,
+                              User principal,
+                              Map<UUID, Role> rolesById,
+                              Map<String, Role> rolesByName,
+                              Map<UUID, Hospital> hospitalsById,
+                              Map<String, Hospital> hospitalsByCode,
+                              Map<String, Hospital> hospitalsByName,
+                              Set<AssignmentKey> existingAssignments,
+                              Set<UserRoleId> existingUserRoles) {
+    }
+}
@@ -106,7 +106,12 @@ public interface UserRoleHospitalAssignmentService {
     UserRoleAssignmentPublicViewDTO verifyAssignmentByCode(String assignmentCode, String confirmationCode);
 
     /**
-     * Bulk import assignments using a CSV payload.
+     * Bulk import assignments using a CSV payload. The whole file is
+     * validated up front with a fixed number of lookups, then the accepted
+     * rows are written in batches. Each row is reported as CREATED, SKIPPED
+     * (already assigned, or a repeat of an earlier row) or FAILED. With
+     * {@code skipConflicts} off, any conflict rejects the file before
+     * anything is written.
      */
     UserRoleAssignmentBulkImportResponseDTO bulkImportAssignments(UserRoleAssignmentBulkImportRequestDTO requestDTO);
 
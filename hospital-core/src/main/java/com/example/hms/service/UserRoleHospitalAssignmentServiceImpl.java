@@ -49,16 +49,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.security.SecureRandom;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -67,7 +65,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -107,10 +104,6 @@ public class UserRoleHospitalAssignmentServiceImpl implements UserRoleHospitalAs
     private static final String DEFAULT_SUPER_ADMIN_SCOPE_MESSAGE = "SUPER_ADMIN assignments are global and must not include a hospital.";
     private static final String DEFAULT_HOSPITAL_REQUIRED_MESSAGE = "Hospital must be provided for non-SUPER_ADMIN roles.";
     private static final String DEFAULT_INVALID_UUID_MESSAGE = "Invalid UUID value: ";
-    private static final String DEFAULT_INVALID_BOOLEAN_MESSAGE = "Invalid boolean value: ";
-    private static final String DEFAULT_INVALID_DATE_MESSAGE = "Invalid date value: ";
-    private static final String DEFAULT_ROW_MISSING_USER = "Row missing user identifier";
-    private static final String DEFAULT_ROW_MISSING_ROLE = "Row missing role identifier";
     private static final String DEFAULT_CREATED_MESSAGE = "Created";
     private static final String DEFAULT_PROCESSING_ERROR = "Unable to process CSV content";
     private static final String MSG_ASSIGNMENT_INVALID_CODE = "assignment.confirmation.invalid";
@@ -150,15 +143,8 @@ public class UserRoleHospitalAssignmentServiceImpl implements UserRoleHospitalAs
             "Verify critical incident escalation contacts"
         ))
     );
-    private static final DateTimeFormatter DATE_FORMAT_DD_MM_YYYY = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final DateTimeFormatter DATE_FORMAT_MM_DD_YYYY = DateTimeFormatter.ofPattern("MM/dd/yyyy");
     private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
     private static final SecureRandom RANDOM = new SecureRandom();
-    private static final List<DateTimeFormatter> SUPPORTED_DATE_FORMATS = List.of(
-        DateTimeFormatter.ISO_LOCAL_DATE,
-        DATE_FORMAT_DD_MM_YYYY,
-        DATE_FORMAT_MM_DD_YYYY
-    );
 
     private final SmsService smsService;
     private final EmailService emailService;
@@ -177,6 +163,7 @@ public class UserRoleHospitalAssignmentServiceImpl implements UserRoleHospitalAs
     private final MessageSource messageSource;
     private final com.example.hms.utility.RoleValidator roleValidator;
     private final ApplicationEventPublisher eventPublisher;
+    private final UserRoleAssignmentBulkImporter bulkImporter;
 
     /* ===================== Create ===================== */
 
@@ -827,39 +814,94 @@ public class UserRoleHospitalAssignmentServiceImpl implements UserRoleHospitalAs
             throw new BusinessException(DEFAULT_PROCESSING_ERROR);
         }
 
-        String delimiter = (requestDTO.getDelimiter() != null && !requestDTO.getDelimiter().isBlank())
-            ? requestDTO.getDelimiter()
-            : ",";
-
-        List<UserRoleAssignmentBulkImportResultDTO> results = new ArrayList<>();
-        BulkImportAccumulator accumulator = new BulkImportAccumulator();
-
-        try (BufferedReader reader = new BufferedReader(new StringReader(csvContent))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null) {
-                throw new BusinessException(DEFAULT_PROCESSING_ERROR);
+        long startedAt = System.nanoTime();
+        UserRoleAssignmentBulkImporter.Plan plan = bulkImporter.plan(requestDTO, Locale.getDefault());
+        if (!requestDTO.isSkipConflicts()) {
+            // Nothing has been written yet, so a conflict rejects the whole file.
+            for (UserRoleAssignmentBulkImporter.RejectedRow rejected : plan.rejected()) {
+                if (rejected.conflict()) {
+                    throw new ConflictException(rejected.message());
+                }
             }
+        }
 
-            Map<String, Integer> headerIndex = buildHeaderIndex(splitCsvLine(headerLine, delimiter));
-            String line;
-            int rowNumber = 1;
-            while ((line = reader.readLine()) != null) {
-                rowNumber++;
-                if (line.isBlank()) {
-                    continue;
-                }
-                accumulator.incrementProcessed();
+        List<UserRoleHospitalAssignment> assignments = new ArrayList<>(plan.accepted().size());
+        List<UserRole> legacyRoles = new ArrayList<>();
+        Set<UserRoleId> legacyRoleIds = new HashSet<>(plan.existingUserRoles());
+        LocalDateTime now = LocalDateTime.now();
+        for (UserRoleAssignmentBulkImporter.ResolvedRow row : plan.accepted()) {
+            UserRoleHospitalAssignment assignment = UserRoleHospitalAssignment.builder()
+                .user(row.user())
+                .hospital(row.hospital())
+                .role(row.role())
+                .active(row.active())
+                .startDate(row.startDate() != null ? row.startDate() : now.toLocalDate())
+                .assignmentCode(generateAssignCode(row.user(), row.hospital()))
+                .confirmationCode(generateConfirmationCode())
+                .confirmationSentAt(now)
+                .registeredBy(row.registrar())
+                .build();
+            assignments.add(assignment);
 
-                String[] tokens = splitCsvLine(line, delimiter);
-                BulkImportOutcome outcome = handleBulkImportRow(rowNumber, tokens, headerIndex, requestDTO);
-                accumulator.applyOutcome(outcome.status());
-                results.add(outcome.result());
+            UserRoleId legacyRoleId = new UserRoleId(row.user().getId(), row.role().getId());
+            if (legacyRoleIds.add(legacyRoleId)) {
+                legacyRoles.add(UserRole.builder().id(legacyRoleId).user(row.user()).role(row.role()).build());
             }
-        } catch (IOException ex) {
-            throw new BusinessException(DEFAULT_PROCESSING_ERROR, ex);
         }
+        bulkImporter.persist(assignments);
+        bulkImporter.persist(legacyRoles);
 
-        return accumulator.toResponse(results);
+        List<UserRoleAssignmentBulkImportResultDTO> results = new ArrayList<>(plan.processed());
+        for (int i = 0; i < assignments.size(); i++) {
+            UserRoleHospitalAssignment saved = assignments.get(i);
+            if (requestDTO.isSendNotifications()) {
+                // Dispatched after commit, as for single assignments.
+                eventPublisher.publishEvent(new AssignmentCreatedEvent(saved.getId()));
+            }
+            recordAssignmentAudit(saved);
+            results.add(UserRoleAssignmentBulkImportResultDTO.builder()
+                .rowNumber(plan.accepted().get(i).rowNumber())
+                .status(UserRoleAssignmentBulkImportResultDTO.Status.CREATED)
+                .identifier(plan.accepted().get(i).identifier())
+                .success(true)
+                .message(DEFAULT_CREATED_MESSAGE)
+                .assignmentId(saved.getId())
+                .assignmentCode(saved.getAssignmentCode())
+                .hospitalId(saved.getHospital() != null ? saved.getHospital().getId() : null)
+                .roleCode(getRoleCode(saved.getRole()))
+                .profileCompletionUrl(assignmentLinkService.buildProfileCompletionUrl(saved.getAssignmentCode()))
+                .build());
+        }
+
+        int skipped = 0;
+        for (UserRoleAssignmentBulkImporter.RejectedRow rejected : plan.rejected()) {
+            UserRoleAssignmentBulkImportResultDTO.Status status = rejected.conflict()
+                ? UserRoleAssignmentBulkImportResultDTO.Status.SKIPPED
+                : UserRoleAssignmentBulkImportResultDTO.Status.FAILED;
+            if (rejected.conflict()) {
+                skipped++;
+            }
+            results.add(UserRoleAssignmentBulkImportResultDTO.builder()
+                .rowNumber(rejected.rowNumber())
+                .status(status)
+                .identifier(rejected.identifier())
+                .success(false)
+                .message(rejected.message())
+                .build());
+        }
+        results.sort(Comparator.comparingInt(UserRoleAssignmentBulkImportResultDTO::getRowNumber));
+
+        log.info("📥 Bulk assignment import: {} rows, {} created, {} skipped, {} failed in {} ms",
+            plan.processed(), assignments.size(), skipped, plan.rejected().size() - skipped,
+            (System.nanoTime() - startedAt) / 1_000_000);
+
+        return UserRoleAssignmentBulkImportResponseDTO.builder()
+            .processed(plan.processed())
+            .created(assignments.size())
+            .skipped(skipped)
+            .failed(plan.rejected().size() - skipped)
+            .results(results)
+            .build();
     }
 
     /* ===================== Delete ===================== */
@@ -1071,187 +1113,6 @@ public class UserRoleHospitalAssignmentServiceImpl implements UserRoleHospitalAs
             .build();
     }
 
-    private BulkImportOutcome handleBulkImportRow(int rowNumber,
-                                                  String[] tokens,
-                                                  Map<String, Integer> headerIndex,
-                                                  UserRoleAssignmentBulkImportRequestDTO options) {
-        try {
-            UserRoleHospitalAssignmentRequestDTO request = buildRequestFromCsvRow(tokens, headerIndex, options);
-            UserRoleHospitalAssignment assignment = createAssignment(request, Locale.getDefault(), options.isSendNotifications());
-
-            UserRoleAssignmentBulkImportResultDTO result = UserRoleAssignmentBulkImportResultDTO.builder()
-                .rowNumber(rowNumber)
-                .identifier(resolveRowIdentifier(request))
-                .success(true)
-                .message(DEFAULT_CREATED_MESSAGE)
-                .assignmentId(assignment.getId())
-                .assignmentCode(assignment.getAssignmentCode())
-                .hospitalId(assignment.getHospital() != null ? assignment.getHospital().getId() : null)
-                .roleCode(assignment.getRole() != null ? getRoleCode(assignment.getRole()) : null)
-                .profileCompletionUrl(assignmentLinkService.buildProfileCompletionUrl(assignment.getAssignmentCode()))
-                .build();
-
-            return BulkImportOutcome.created(result);
-        } catch (ConflictException conflict) {
-            if (!options.isSkipConflicts()) {
-                throw conflict;
-            }
-            return BulkImportOutcome.skipped(buildFailureResult(rowNumber, tokens, headerIndex, conflict.getMessage()));
-        } catch (BusinessException | ResourceNotFoundException ex) {
-            return BulkImportOutcome.failed(buildFailureResult(rowNumber, tokens, headerIndex, ex.getMessage()));
-        }
-    }
-
-    private UserRoleAssignmentBulkImportResultDTO buildFailureResult(int rowNumber,
-                                                                     String[] tokens,
-                                                                     Map<String, Integer> headerIndex,
-                                                                     String message) {
-        return UserRoleAssignmentBulkImportResultDTO.builder()
-            .rowNumber(rowNumber)
-            .identifier(extractIdentifier(tokens, headerIndex))
-            .success(false)
-            .message(message)
-            .build();
-    }
-
-    private UserRoleHospitalAssignmentRequestDTO buildRequestFromCsvRow(String[] tokens,
-                                                                        Map<String, Integer> headerIndex,
-                                                                        UserRoleAssignmentBulkImportRequestDTO options) {
-        UserRoleHospitalAssignmentRequestDTO.UserRoleHospitalAssignmentRequestDTOBuilder builder = UserRoleHospitalAssignmentRequestDTO.builder();
-    applyUserColumns(builder, tokens, headerIndex);
-        applyRoleColumns(builder, tokens, headerIndex, options);
-        applyHospitalColumns(builder, tokens, headerIndex, options);
-        applyOptionalColumns(builder, tokens, headerIndex, options);
-        return builder.build();
-    }
-
-    private void applyUserColumns(UserRoleHospitalAssignmentRequestDTO.UserRoleHospitalAssignmentRequestDTOBuilder builder,
-                                  String[] tokens,
-                                  Map<String, Integer> headerIndex) {
-        UUID userId = parseUuid(getColumnValue(tokens, headerIndex, "user_id", "userid"));
-        String userIdentifier = getColumnValue(tokens, headerIndex, "user_identifier", "username", "email", "phone", "identifier");
-        if (userId != null) {
-            builder.userId(userId);
-            return;
-        }
-        if (userIdentifier != null && !userIdentifier.isBlank()) {
-            builder.userIdentifier(userIdentifier);
-            return;
-        }
-        throw new BusinessException(DEFAULT_ROW_MISSING_USER);
-    }
-
-    private void applyRoleColumns(UserRoleHospitalAssignmentRequestDTO.UserRoleHospitalAssignmentRequestDTOBuilder builder,
-                                  String[] tokens,
-                                  Map<String, Integer> headerIndex,
-                                  UserRoleAssignmentBulkImportRequestDTO options) {
-        UUID roleId = parseUuid(getColumnValue(tokens, headerIndex, "role_id", "roleid"));
-        String roleName = getColumnValue(tokens, headerIndex, "role_name", "rolename", "role_code");
-        if (roleId == null && (roleName == null || roleName.isBlank())) {
-            if (options.getDefaultRoleId() != null) {
-                roleId = options.getDefaultRoleId();
-            } else if (options.getDefaultRoleName() != null && !options.getDefaultRoleName().isBlank()) {
-                roleName = options.getDefaultRoleName();
-            }
-        }
-        if (roleId != null) {
-            builder.roleId(roleId);
-            return;
-        }
-        if (roleName != null && !roleName.isBlank()) {
-            builder.roleName(roleName);
-            return;
-        }
-        throw new BusinessException(DEFAULT_ROW_MISSING_ROLE);
-    }
-
-    private void applyHospitalColumns(UserRoleHospitalAssignmentRequestDTO.UserRoleHospitalAssignmentRequestDTOBuilder builder,
-                                      String[] tokens,
-                                      Map<String, Integer> headerIndex,
-                                      UserRoleAssignmentBulkImportRequestDTO options) {
-        UUID hospitalId = parseUuid(getColumnValue(tokens, headerIndex, "hospital_id", "hospitalid"));
-        if (hospitalId == null) {
-            hospitalId = options.getDefaultHospitalId();
-        }
-        if (hospitalId != null) {
-            builder.hospitalId(hospitalId);
-        }
-
-        String hospitalCode = getColumnValue(tokens, headerIndex, "hospital_code", "hospitalcode", "facility_code");
-        if (hospitalCode != null) {
-            builder.hospitalCode(hospitalCode);
-        }
-
-        String hospitalName = getColumnValue(tokens, headerIndex, "hospital_name", "hospitalname", "facility_name");
-        if (hospitalName != null) {
-            builder.hospitalName(hospitalName);
-        }
-    }
-
-    private void applyOptionalColumns(UserRoleHospitalAssignmentRequestDTO.UserRoleHospitalAssignmentRequestDTOBuilder builder,
-                                      String[] tokens,
-                                      Map<String, Integer> headerIndex,
-                                      UserRoleAssignmentBulkImportRequestDTO options) {
-        Boolean active = parseBoolean(getColumnValue(tokens, headerIndex, "active", "is_active"), options.getDefaultActive());
-        if (active != null) {
-            builder.active(active);
-        }
-
-        LocalDate startDate = parseStartDate(getColumnValue(tokens, headerIndex, "start_date", "startdate", "effective_date"));
-        if (startDate != null) {
-            builder.startDate(startDate);
-        }
-
-        UUID registrarId = parseUuid(getColumnValue(tokens, headerIndex, "registered_by_user_id", "registrar_id"));
-        if (registrarId == null) {
-            registrarId = options.getRegisteredByUserId();
-        }
-        if (registrarId != null) {
-            builder.registeredByUserId(registrarId);
-        }
-    }
-
-    private Map<String, Integer> buildHeaderIndex(String[] headers) {
-        Map<String, Integer> index = new HashMap<>();
-        for (int i = 0; i < headers.length; i++) {
-            String header = headers[i];
-            if (header != null) {
-                index.put(header.trim().toLowerCase(Locale.ROOT), i);
-            }
-        }
-        return index;
-    }
-
-    private String[] splitCsvLine(String line, String delimiter) {
-        return line.split(Pattern.quote(delimiter), -1);
-    }
-
-    private String getColumnValue(String[] tokens, Map<String, Integer> headerIndex, String... keys) {
-        for (String key : keys) {
-            String value = extractColumnValue(tokens, headerIndex, key);
-            if (value != null) {
-                return value;
-            }
-        }
-        return null;
-    }
-
-    private String extractColumnValue(String[] tokens, Map<String, Integer> headerIndex, String key) {
-        if (key == null) {
-            return null;
-        }
-        Integer columnIndex = headerIndex.get(key.toLowerCase(Locale.ROOT));
-        if (columnIndex == null || columnIndex >= tokens.length) {
-            return null;
-        }
-        String value = tokens[columnIndex];
-        if (value == null) {
-            return null;
-        }
-        String trimmed = value.trim();
-        return trimmed.isBlank() ? null : trimmed;
-    }
-
     private UUID parseUuid(String raw) {
         if (raw == null || raw.isBlank()) {
             return null;
@@ -1263,103 +1124,6 @@ public class UserRoleHospitalAssignmentServiceImpl implements UserRoleHospitalAs
         }
     }
 
-    private Boolean parseBoolean(String raw, Boolean defaultValue) {
-        if (raw == null || raw.isBlank()) {
-            return defaultValue;
-        }
-        String normalized = raw.trim().toLowerCase(Locale.ROOT);
-        if (List.of("true", "1", "yes", "y").contains(normalized)) {
-            return Boolean.TRUE;
-        }
-        if (List.of("false", "0", "no", "n").contains(normalized)) {
-            return Boolean.FALSE;
-        }
-        throw new BusinessException(DEFAULT_INVALID_BOOLEAN_MESSAGE + raw);
-    }
-
-    private LocalDate parseStartDate(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return null;
-        }
-        String candidate = raw.trim();
-        for (DateTimeFormatter formatter : SUPPORTED_DATE_FORMATS) {
-            try {
-                return LocalDate.parse(candidate, formatter);
-            } catch (DateTimeParseException ignored) {
-                // try next
-            }
-        }
-        throw new BusinessException(DEFAULT_INVALID_DATE_MESSAGE + raw);
-    }
-
-    private String resolveRowIdentifier(UserRoleHospitalAssignmentRequestDTO request) {
-        if (request.getUserIdentifier() != null && !request.getUserIdentifier().isBlank()) {
-            return request.getUserIdentifier();
-        }
-        if (request.getUserId() != null) {
-            return request.getUserId().toString();
-        }
-        return "unknown";
-    }
-
-    private String extractIdentifier(String[] tokens, Map<String, Integer> headerIndex) {
-        String identifier = getColumnValue(tokens, headerIndex,
-            "user_identifier", "username", "email", "phone", "identifier", "user_id", "userid");
-        return identifier != null ? identifier : "unknown";
-    }
-
-    private static final class BulkImportAccumulator {
-        private int processed;
-        private int created;
-        private int skipped;
-        private int failed;
-
-        void incrementProcessed() {
-            processed++;
-        }
-
-        void applyOutcome(BulkRowStatus status) {
-            if (status == null) {
-                return;
-            }
-            switch (status) {
-                case CREATED -> created++;
-                case SKIPPED -> skipped++;
-                case FAILED -> failed++;
-            }
-        }
-
-        UserRoleAssignmentBulkImportResponseDTO toResponse(List<UserRoleAssignmentBulkImportResultDTO> results) {
-            return UserRoleAssignmentBulkImportResponseDTO.builder()
-                .processed(processed)
-                .created(created)
-                .skipped(skipped)
-                .failed(failed)
-                .results(results)
-                .build();
-        }
-    }
-
-    private enum BulkRowStatus {
-        CREATED,
-        SKIPPED,
-        FAILED
-    }
-
-    private record BulkImportOutcome(BulkRowStatus status, UserRoleAssignmentBulkImportResultDTO result) {
-        static BulkImportOutcome created(UserRoleAssignmentBulkImportResultDTO result) {
-            return new BulkImportOutcome(BulkRowStatus.CREATED, result);
-        }
-
-        static BulkImportOutcome skipped(UserRoleAssignmentBulkImportResultDTO result) {
-            return new BulkImportOutcome(BulkRowStatus.SKIPPED, result);
-        }
-
-        static BulkImportOutcome failed(UserRoleAssignmentBulkImportResultDTO result) {
-            return new BulkImportOutcome(BulkRowStatus.FAILED, result);
-        }
-    }
-
     private void syncLegacyRole(User user, Role role) {
         try {
             if (!userRoleRepository.existsByUserIdAndRoleId(user.getId(), role.getId())) {
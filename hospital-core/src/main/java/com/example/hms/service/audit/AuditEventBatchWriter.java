@@ -0,0 +1,236 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.enums.ActorType;
+import com.example.hms.model.Patient;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.service.audit.AuditPrincipalCache.AssignmentSnapshot;
+import com.example.hms.service.audit.AuditPrincipalCache.PrincipalSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes {@link PendingAuditEvent}s to {@code support.audit_event_logs} as
+ * one JDBC batch insert per call, in its own transaction.
+ *
+ * <p>Row contents match what {@code AuditEventLogServiceImpl.logEvent}
+ * persists — actor type/label, hospital and role name fallbacks, the
+ * assignment/user mismatch guard, the PATIENT resource-name lookup — but
+ * principals come from {@link AuditPrincipalCache} and patient names from
+ * one unscoped name query per batch, so a warm batch costs a single round
+ * trip. The name / phone / e-mail patient heuristics for events without a
+ * resource id stay on the synchronous {@code logEvent} path.
+ */
+@Slf4j
+@Component
+public class AuditEventBatchWriter {
+
+    static final String UNKNOWN_RESOURCE = "Unknown Resource";
+    static final String UNKNOWN_ROLE = "Unknown Role";
+
+    static final String INSERT_SQL = """
+        INSERT INTO support.audit_event_logs (
+            id, created_at, updated_at, event_timestamp, user_id, assignment_id,
+            actor_type, actor_label, user_name, role_name, hospital_name,
+            event_type, event_description, ip_address, status, details,
+            target_resource_id, target_entity_type, resource_name,
+            impersonator_user_id, impersonator_username)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditPrincipalCache principals;
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate writeTx;
+
+    public AuditEventBatchWriter(JdbcTemplate jdbcTemplate,
+                                 AuditPrincipalCache principals,
+                                 PatientRepository patientRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.principals = principals;
+        this.patientRepository = patientRepository;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Inserts every event; all or nothing. */
+    public void write(List<PendingAuditEvent> events) {
+        if (events.isEmpty()) return;
+        writeTx.executeWithoutResult(status -> insert(resolve(events)));
+    }
+
+    /**
+     * Inserts the events whose ids are not in the table yet — the spill
+     * replay path, where a crash may have landed after the commit but
+     * before the segment was deleted.
+     *
+     * @return rows inserted
+     */
+    public int writeIfAbsent(List<PendingAuditEvent> events) {
+        if (events.isEmpty()) return 0;
+        Integer written = writeTx.execute(status -> {
+            Set<UUID> existing = existingIds(events);
+            List<PendingAuditEvent> fresh = existing.isEmpty() ? events
+                : events.stream().filter(e -> !existing.contains(e.id())).toList();
+            insert(resolve(fresh));
+            return fresh.size();
+        });
+        return written == null ? 0 : written;
+    }
+
+    private Set<UUID> existingIds(List<PendingAuditEvent> events) {
+        String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
+        Object[] ids = events.stream().map(PendingAuditEvent::id).toArray();
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT id FROM support.audit_event_logs WHERE id IN (" + placeholders + ")", UUID.class, ids));
+    }
+
+    private List<Object[]> resolve(List<PendingAuditEvent> events) {
+        if (events.isEmpty()) return List.of();
+        Set<UUID> userIds = new HashSet<>();
+        Set<UUID> assignmentIds = new HashSet<>();
+        Set<UUID> patientIds = new HashSet<>();
+        for (PendingAuditEvent e : events) {
+            if (e.userId() != null) userIds.add(e.userId());
+            if (e.assignmentId() != null) assignmentIds.add(e.assignmentId());
+            UUID patientId = patientNeedingName(e);
+            if (patientId != null) patientIds.add(patientId);
+        }
+        Map<UUID, PrincipalSnapshot> users = principals.usersById(userIds);
+        Map<UUID, AssignmentSnapshot> assignments = principals.assignmentsById(assignmentIds);
+        Map<UUID, String> patientNames = patientNames(patientIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (PendingAuditEvent e : events) {
+            rows.add(row(e, users, assignments, patientNames, now));
+        }
+        return rows;
+    }
+
+    private Object[] row(PendingAuditEvent e, Map<UUID, PrincipalSnapshot> users,
+                         Map<UUID, AssignmentSnapshot> assignments, Map<UUID, String> patientNames,
+                         LocalDateTime now) {
+        PrincipalSnapshot user = resolveUser(e, users);
+        AssignmentSnapshot assignment = resolveAssignment(e, user, assignments);
+
+        String actorLabel;
+        if (user != null) actorLabel = user.displayName();
+        else if (hasText(e.userName())) actorLabel = e.userName();
+        else actorLabel = "SYSTEM";
+
+        String hospitalName = e.hospitalName();
+        if (!hasText(hospitalName) && assignment != null) hospitalName = assignment.hospitalName();
+
+        String roleName = e.roleName();
+        if (!hasText(roleName) && assignment != null) roleName = assignment.roleName();
+        if (!hasText(roleName) && user != null) roleName = user.defaultRoleName();
+        if (!hasText(roleName)) roleName = UNKNOWN_ROLE;
+
+        String resourceName = e.resourceName();
+        UUID patientId = patientNeedingName(e);
+        if (patientId != null) resourceName = patientNames.getOrDefault(patientId, e.resourceId());
+
+        LocalDateTime eventTime = e.eventTimestamp() != null ? e.eventTimestamp() : now;
+        return new Object[] {
+            e.id(),
+            Timestamp.valueOf(now),
+            Timestamp.valueOf(now),
+            Timestamp.valueOf(eventTime),
+            user != null ? user.userId() : null,
+            assignment != null ? assignment.id() : null,
+            (user != null ? ActorType.USER : ActorType.SYSTEM).name(),
+            truncate(actorLabel, 255),
+            truncate(actorLabel, 255),
+            truncate(roleName, 255),
+            truncate(hospitalName, 255),
+            e.eventType().name(),
+            truncate(hasText(e.eventDescription()) ? e.eventDescription() : e.eventType().name(), 2048),
+            truncate(e.ipAddress(), 45),
+            e.status() != null ? e.status().name() : null,
+            truncate(e.details(), 2048),
+            truncate(hasText(e.resourceId()) ? e.resourceId() : UNKNOWN_RESOURCE, 100),
+            truncate(e.entityType(), 50),
+            truncate(hasText(resourceName) ? resourceName : UNKNOWN_RESOURCE, 255),
+            e.impersonatorUserId(),
+            truncate(e.impersonatorUsername(), 255)
+        };
+    }
+
+    private PrincipalSnapshot resolveUser(PendingAuditEvent e, Map<UUID, PrincipalSnapshot> users) {
+        if (e.userId() != null) return users.get(e.userId());
+        if (hasText(e.userName())) return principals.userByName(e.userName()).orElse(null);
+        return null;
+    }
+
+    private AssignmentSnapshot resolveAssignment(PendingAuditEvent e, PrincipalSnapshot user,
+                                                 Map<UUID, AssignmentSnapshot> assignments) {
+        AssignmentSnapshot assignment = null;
+        if (e.assignmentId() != null) {
+            assignment = assignments.get(e.assignmentId());
+        } else if (e.roleName() != null && e.hospitalName() != null && user != null) {
+            assignment = principals.assignmentByName(user.userId(), e.roleName(), e.hospitalName()).orElse(null);
+        }
+        if (assignment != null && user != null && assignment.userId() != null
+            && !assignment.userId().equals(user.userId())) {
+            log.debug("Audit assignment/user mismatch (assignment user id: {}, actor id: {}). Dropping assignment link.",
+                assignment.userId(), user.userId());
+            return null;
+        }
+        return assignment;
+    }
+
+    /** The patient id whose name fills {@code resource_name}, when the event is a PATIENT event without one. */
+    private static UUID patientNeedingName(PendingAuditEvent e) {
+        if (!"PATIENT".equalsIgnoreCase(e.entityType()) || hasText(e.resourceName()) || !hasText(e.resourceId())) {
+            return null;
+        }
+        try {
+            return UUID.fromString(e.resourceId());
+        } catch (IllegalArgumentException notUuid) {
+            return null;
+        }
+    }
+
+    private Map<UUID, String> patientNames(Set<UUID> patientIds) {
+        if (patientIds.isEmpty()) return Map.of();
+        // Unscoped: batches are written on the flusher thread, outside any tenant context.
+        Map<UUID, String> names = new HashMap<>(patientIds.size() * 2);
+        for (Object[] row : patientRepository.findNameTuplesByIdInUnscoped(patientIds)) {
+            Patient patient = new Patient();
+            patient.setFirstName((String) row[1]);
+            patient.setMiddleName((String) row[2]);
+            patient.setLastName((String) row[3]);
+            names.put((UUID) row[0], patient.getFullName());
+        }
+        return names;
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+}
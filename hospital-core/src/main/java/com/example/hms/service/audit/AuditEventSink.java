@@ -0,0 +1,371 @@
+package com.example.hms.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous write path behind {@code AuditEventLogService.submitEvent}:
+ * a bounded in-memory buffer drained by one background thread that writes
+ * through {@link AuditEventBatchWriter} in batches of up to
+ * {@code batchSize} events, or whatever arrived within
+ * {@code flushIntervalMs} of the batch's first event.
+ *
+ * <p>Callers never wait on the database while there is room. When the
+ * buffer is full (or the sink is disabled / stopped) the caller writes its
+ * own event synchronously — backpressure rather than loss — and the event
+ * is counted as {@code overflow}. A batch failing on a connectivity problem
+ * is retried with capped exponential backoff, up to {@code maxRetries}
+ * times; a batch failing for any other reason (or out of retries) is
+ * written row by row and only the offending rows are logged, dropped and
+ * counted. With {@link AuditSinkProperties.Durability#SPILL} every buffered
+ * event is also in this node's {@link AuditSpillJournal} until committed,
+ * and segments left by a crash are replayed on the next start.
+ */
+@Slf4j
+@Component
+public class AuditEventSink {
+
+    static final String METRIC_QUEUE = "hms.audit.sink.queue";
+    static final String METRIC_EVENTS = "hms.audit.sink.events";
+    static final String METRIC_FLUSH = "hms.audit.sink.flush";
+    private static final String TAG_OUTCOME = "outcome";
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long SHUTDOWN_JOIN_MS = 5_000;
+
+    private record Queued(long seq, PendingAuditEvent event) { }
+
+    private final AuditEventBatchWriter writer;
+    private final AuditSinkProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxRetries;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<Queued> queue;
+    private final Object submitLock = new Object();
+
+    private AuditSpillJournal journal;
+    private long nextSeq;
+    private volatile boolean running;
+    private volatile int inFlight;
+    private final List<Queued> leftover = new ArrayList<>();
+    private Thread flusher;
+
+    public AuditEventSink(AuditEventBatchWriter writer,
+                          AuditSinkProperties properties,
+                          ObjectMapper objectMapper,
+                          @Nullable MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.maxRetries = Math.max(0, properties.getMaxRetries());
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getFlushIntervalMs()));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity()));
+        registerGauge();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("[AUDIT-SINK] Disabled; audit events are written synchronously");
+            return;
+        }
+        List<Path> replay = List.of();
+        if (properties.getDurability() == AuditSinkProperties.Durability.SPILL) {
+            Path spillDir = nodeSpillDir();
+            if (spillDir != null) {
+                try {
+                    journal = new AuditSpillJournal(spillDir, properties.getSpillSegmentBytes(), objectMapper);
+                    replay = journal.recoverableSegments();
+                } catch (IOException ex) {
+                    log.error("[AUDIT-SINK] Spill directory {} unusable, buffering in memory only: {}",
+                        spillDir, ex.getMessage());
+                }
+            }
+        }
+        List<Path> segments = replay;
+        running = true;
+        flusher = new Thread(() -> {
+            replay(segments);
+            flushLoop();
+        }, "audit-sink");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * {@code <spillDir>/<instanceId>}, or {@code null} (memory only) when the
+     * configured base is relative.
+     */
+    @Nullable
+    private Path nodeSpillDir() {
+        Path base = Path.of(properties.getSpillDir());
+        if (!base.isAbsolute()) {
+            log.error("[AUDIT-SINK] Spill directory {} is relative; set app.audit.sink.spill-dir to an absolute "
+                + "path. Buffering in memory only", properties.getSpillDir());
+            return null;
+        }
+        return base.resolve(instanceId());
+    }
+
+    private String instanceId() {
+        String id = properties.getInstanceId();
+        if (id == null || id.isBlank()) {
+            try {
+                id = InetAddress.getLocalHost().getHostName();
+            } catch (IOException ex) {
+                id = System.getenv().getOrDefault("HOSTNAME", "node");
+            }
+        }
+        // A path segment, never a path: no separators or "..".
+        String safe = id.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+        return safe.isEmpty() || safe.chars().allMatch(c -> c == '.') ? "node" : safe;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) return;
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(SHUTDOWN_JOIN_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<Queued> remaining;
+        synchronized (leftover) {
+            remaining = new ArrayList<>(leftover);
+            leftover.clear();
+        }
+        queue.drainTo(remaining);
+        drainOnShutdown(remaining);
+        if (journal != null) journal.close();
+    }
+
+    /**
+     * Accepts one event. Returns once it is buffered (and spilled, in SPILL
+     * mode) or, under backpressure, written. Throws only if that synchronous
+     * write fails.
+     */
+    public void submit(PendingAuditEvent event) {
+        if (!running) {
+            writer.write(List.of(event));
+            count("sync", 1);
+            return;
+        }
+        if (enqueue(event)) {
+            count("queued", 1);
+            return;
+        }
+        writer.write(List.of(event));
+        count("overflow", 1);
+    }
+
+    /** Events buffered or being written — lets tests wait for the sink to go idle. */
+    public int pending() {
+        return queue.size() + inFlight;
+    }
+
+    private boolean enqueue(PendingAuditEvent event) {
+        if (journal == null) {
+            return queue.offer(new Queued(0, event));
+        }
+        // Sequence, spill order and queue order must agree for committedThrough().
+        synchronized (submitLock) {
+            if (queue.remainingCapacity() == 0) return false;
+            long seq = ++nextSeq;
+            try {
+                journal.append(seq, event);
+            } catch (IOException ex) {
+                log.warn("[AUDIT-SINK] Spill append failed, event {} buffered in memory only: {}",
+                    event.id(), ex.getMessage());
+            }
+            return queue.offer(new Queued(seq, event));
+        }
+    }
+
+    private void flushLoop() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Queued first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                fill(batch);
+                inFlight = batch.size();
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                synchronized (leftover) {
+                    leftover.addAll(batch);
+                }
+                return;
+            } finally {
+                batch.clear();
+                inFlight = 0;
+            }
+        }
+    }
+
+    /** Tops the batch up to {@code batchSize}, waiting at most one flush interval from its first event. */
+    private void fill(List<Queued> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize) return;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            Queued next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Queued> batch) throws InterruptedException {
+        List<PendingAuditEvent> events = batch.stream().map(Queued::event).toList();
+        long started = System.nanoTime();
+        long backoff = 500;
+        int retries = 0;
+        while (true) {
+            try {
+                writer.write(events);
+                count("written", events.size());
+                break;
+            } catch (RuntimeException ex) {
+                if (!isTransient(ex) || retries++ >= maxRetries) {
+                    writeRowByRow(events, ex);
+                    break;
+                }
+                if (!running) throw new InterruptedException("stopping");
+                log.warn("[AUDIT-SINK] Batch of {} failed, retrying in {} ms: {}",
+                    events.size(), backoff, ex.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+            }
+        }
+        recordFlush(System.nanoTime() - started);
+        if (journal != null) journal.committedThrough(batch.get(batch.size() - 1).seq());
+    }
+
+    private void writeRowByRow(List<PendingAuditEvent> events, RuntimeException batchFailure) {
+        log.warn("[AUDIT-SINK] Batch of {} rejected ({}), writing row by row",
+            events.size(), batchFailure.getMessage());
+        int written = 0;
+        for (PendingAuditEvent event : events) {
+            try {
+                writer.write(List.of(event));
+                written++;
+            } catch (RuntimeException ex) {
+                log.error("[AUDIT-SINK] Dropping audit event {} (eventType={}, status={}, resourceId={}, "
+                        + "entityType={}): {}", event.id(), event.eventType(), event.status(),
+                    event.resourceId(), event.entityType(), ex.toString());
+                count("dropped", 1);
+            }
+        }
+        count("written", written);
+    }
+
+    /**
+     * Connectivity failures worth retrying the same batch for. Anything else
+     * — a constraint violation, or an NPE on a null field while binding a
+     * row — is caused by the rows themselves, so the batch is split instead.
+     */
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+            || ex instanceof RecoverableDataAccessException
+            || ex instanceof DataAccessResourceFailureException
+            || ex instanceof CannotCreateTransactionException;
+    }
+
+    private void replay(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                List<PendingAuditEvent> events = AuditSpillJournal.read(segment, objectMapper);
+                int replayed = 0;
+                for (int from = 0; from < events.size(); from += batchSize) {
+                    replayed += writer.writeIfAbsent(events.subList(from, Math.min(events.size(), from + batchSize)));
+                }
+                count("replayed", replayed);
+                AuditSpillJournal.delete(segment);
+                log.info("[AUDIT-SINK] Replayed spill segment {}: {} of {} event(s) were not yet committed",
+                    segment.getFileName(), replayed, events.size());
+            } catch (IOException | RuntimeException ex) {
+                log.error("[AUDIT-SINK] Replay of spill segment {} failed; kept for the next start: {}",
+                    segment.getFileName(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Best-effort synchronous write of whatever was still buffered at
+     * shutdown. In SPILL mode anything that fails here is still journaled
+     * and replayed on the next start.
+     */
+    private void drainOnShutdown(List<Queued> remaining) {
+        if (remaining.isEmpty()) return;
+        log.info("[AUDIT-SINK] Writing {} buffered audit event(s) before shutdown", remaining.size());
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            List<Queued> chunk = remaining.subList(from, Math.min(remaining.size(), from + batchSize));
+            try {
+                writer.write(chunk.stream().map(Queued::event).toList());
+                count("written", chunk.size());
+                if (journal != null) journal.committedThrough(chunk.get(chunk.size() - 1).seq());
+            } catch (RuntimeException ex) {
+                log.error("[AUDIT-SINK] {} audit event(s) not written at shutdown{}: {}",
+                    remaining.size() - from, journal != null ? " (kept in spill journal)" : "", ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void registerGauge() {
+        if (meterRegistry == null) return;
+        try {
+            Gauge.builder(METRIC_QUEUE, queue, BlockingQueue::size).register(meterRegistry);
+        } catch (RuntimeException ex) {
+            log.debug("[AUDIT-SINK] Failed to register queue gauge: {}", ex.getMessage());
+        }
+    }
+
+    private void count(String outcome, int amount) {
+        if (meterRegistry == null || amount == 0) return;
+        try {
+            Counter.builder(METRIC_EVENTS).tag(TAG_OUTCOME, outcome).register(meterRegistry).increment(amount);
+        } catch (RuntimeException ex) {
+            log.debug("[AUDIT-SINK] Failed to record metric {}: {}", METRIC_EVENTS, ex.getMessage());
+        }
+    }
+
+    private void recordFlush(long elapsedNanos) {
+        if (meterRegistry == null) return;
+        try {
+            Timer.builder(METRIC_FLUSH).register(meterRegistry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException ex) {
+            log.debug("[AUDIT-SINK] Failed to record metric {}: {}", METRIC_FLUSH, ex.getMessage());
+        }
+    }
+}
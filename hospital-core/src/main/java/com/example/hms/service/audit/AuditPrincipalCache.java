@@ -0,0 +1,143 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.model.User;
+import com.example.hms.model.UserRoleHospitalAssignment;
+import com.example.hms.repository.UserRepository;
+import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
+import com.example.hms.utility.BoundedTtlCache;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Short-lived snapshots of the users and role assignments audit rows
+ * point at, so a busy clinician's hundredth audit event of the hour costs
+ * no lookup at all and a batch of events costs one {@code IN} query per
+ * kind of miss.
+ *
+ * <p>Only what the audit row needs is kept (ids, display name, hospital and
+ * role names) — never the entities. Misses by username are cached as
+ * absent too: SYSTEM / job actors are looked up by name and never exist.
+ * Must be called inside a transaction (user roles load lazily).
+ */
+@Component
+public class AuditPrincipalCache {
+
+    /** The audit-relevant slice of a {@link User}. */
+    public record PrincipalSnapshot(UUID userId, String displayName, String defaultRoleName) { }
+
+    /** The audit-relevant slice of a {@link UserRoleHospitalAssignment}. */
+    public record AssignmentSnapshot(UUID id, UUID userId, String hospitalName, String roleName) { }
+
+    private record AssignmentKey(UUID userId, String roleName, String hospitalName) { }
+
+    private final UserRepository userRepository;
+    private final UserRoleHospitalAssignmentRepository assignmentRepository;
+    private final BoundedTtlCache<UUID, PrincipalSnapshot> usersById;
+    private final BoundedTtlCache<String, Optional<PrincipalSnapshot>> usersByName;
+    private final BoundedTtlCache<UUID, Optional<AssignmentSnapshot>> assignmentsById;
+    private final BoundedTtlCache<AssignmentKey, Optional<AssignmentSnapshot>> assignmentsByName;
+
+    public AuditPrincipalCache(UserRepository userRepository,
+                               UserRoleHospitalAssignmentRepository assignmentRepository,
+                               AuditSinkProperties properties) {
+        this(userRepository, assignmentRepository,
+            Duration.ofSeconds(properties.getPrincipalCacheTtlSeconds()),
+            properties.getPrincipalCacheMaxEntries(), Clock.systemUTC());
+    }
+
+    AuditPrincipalCache(UserRepository userRepository,
+                        UserRoleHospitalAssignmentRepository assignmentRepository,
+                        Duration ttl, int maxEntries, Clock clock) {
+        this.userRepository = userRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.usersById = new BoundedTtlCache<>(maxEntries, ttl, clock);
+        this.usersByName = new BoundedTtlCache<>(maxEntries, ttl, clock);
+        this.assignmentsById = new BoundedTtlCache<>(maxEntries, ttl, clock);
+        this.assignmentsByName = new BoundedTtlCache<>(maxEntries, ttl, clock);
+    }
+
+    /** Loads every uncached user id in {@code userIds} with one query. Ids that do not exist stay unresolved. */
+    public Map<UUID, PrincipalSnapshot> usersById(Collection<UUID> userIds) {
+        Map<UUID, PrincipalSnapshot> out = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>();
+        for (UUID id : userIds) {
+            if (id == null) continue;
+            PrincipalSnapshot cached = usersById.getIfPresent(id);
+            if (cached != null) out.put(id, cached);
+            else missing.add(id);
+        }
+        if (!missing.isEmpty()) {
+            for (User user : userRepository.findAllById(missing)) {
+                PrincipalSnapshot snapshot = snapshot(user);
+                usersById.put(user.getId(), snapshot);
+                out.put(user.getId(), snapshot);
+            }
+        }
+        return out;
+    }
+
+    public Optional<PrincipalSnapshot> userByName(String username) {
+        return computeIfAbsent(usersByName, username, name -> userRepository.findByUsername(name)
+            .map(AuditPrincipalCache::snapshot));
+    }
+
+    /** Loads every uncached assignment id with one query; absent ids resolve to empty. */
+    public Map<UUID, AssignmentSnapshot> assignmentsById(Collection<UUID> assignmentIds) {
+        Map<UUID, AssignmentSnapshot> out = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>();
+        for (UUID id : assignmentIds) {
+            if (id == null) continue;
+            Optional<AssignmentSnapshot> cached = assignmentsById.getIfPresent(id);
+            if (cached == null) missing.add(id);
+            else cached.ifPresent(a -> out.put(id, a));
+        }
+        if (!missing.isEmpty()) {
+            for (UserRoleHospitalAssignment assignment : assignmentRepository.findAllById(missing)) {
+                AssignmentSnapshot snapshot = snapshot(assignment);
+                assignmentsById.put(assignment.getId(), Optional.of(snapshot));
+                out.put(assignment.getId(), snapshot);
+                missing.remove(assignment.getId());
+            }
+            missing.forEach(id -> assignmentsById.put(id, Optional.empty()));
+        }
+        return out;
+    }
+
+    public Optional<AssignmentSnapshot> assignmentByName(UUID userId, String roleName, String hospitalName) {
+        return computeIfAbsent(assignmentsByName, new AssignmentKey(userId, roleName, hospitalName),
+            key -> assignmentRepository.findByUserIdAndRoleNameAndHospitalName(
+                key.userId(), key.roleName(), key.hospitalName()).map(AuditPrincipalCache::snapshot));
+    }
+
+    private static PrincipalSnapshot snapshot(User user) {
+        String defaultRole = null;
+        if (user.getUserRoles() != null && !user.getUserRoles().isEmpty()) {
+            var userRole = user.getUserRoles().iterator().next();
+            defaultRole = userRole.getRole() != null ? userRole.getRole().getName() : null;
+        }
+        return new PrincipalSnapshot(user.getId(), user.getFirstName() + " " + user.getLastName(), defaultRole);
+    }
+
+    private static AssignmentSnapshot snapshot(UserRoleHospitalAssignment assignment) {
+        return new AssignmentSnapshot(
+            assignment.getId(),
+            assignment.getUser() != null ? assignment.getUser().getId() : null,
+            assignment.getHospital() != null ? assignment.getHospital().getName() : null,
+            assignment.getRole() != null ? assignment.getRole().getName() : null);
+    }
+
+    private static <K, V> V computeIfAbsent(BoundedTtlCache<K, V> cache, K key, Function<K, V> loader) {
+        V cached = cache.getIfPresent(key);
+        return cached != null ? cached : cache.load(key, () -> loader.apply(key));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.hms.service.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the asynchronous audit write path ({@link AuditEventSink}).
+ *
+ * <p>With {@code enabled=false}, {@code AuditEventLogService.submitEvent}
+ * still writes through the same batch writer, just synchronously on the
+ * caller's thread, one row per call.
+ */
+@ConfigurationProperties(prefix = "app.audit.sink")
+public class AuditSinkProperties {
+
+    private boolean enabled = true;
+
+    /** Ring-buffer capacity; when full, callers write their own event synchronously. */
+    private int capacity = 10_000;
+
+    /** Flush once this many events are buffered... */
+    private int batchSize = 200;
+
+    /** ...or once the oldest buffered event has waited this long. */
+    private long flushIntervalMs = 250;
+
+    private Durability durability = Durability.SPILL;
+
+    /**
+     * Absolute base directory for spill segments ({@link Durability#SPILL}).
+     * Each node spills under {@code <spillDir>/<instanceId>}, so nodes that
+     * share a volume never replay each other's segments. A relative path is
+     * refused (events are then buffered in memory only): it would follow the
+     * working directory from one deploy to the next.
+     */
+    private String spillDir = "/var/lib/hms/audit-spill";
+
+    /**
+     * Stable identity of this node, naming its spill subdirectory. Must
+     * survive restarts (e.g. a StatefulSet pod name) so a crashed node
+     * replays its own segments; defaults to the host name.
+     */
+    private String instanceId;
+
+    /** A spill segment is rolled over past this size. */
+    private long spillSegmentBytes = 8L * 1024 * 1024;
+
+    /** How long resolved users / assignments are reused across events. */
+    private long principalCacheTtlSeconds = 300;
+
+    private int principalCacheMaxEntries = 10_000;
+
+    /**
+     * Connectivity failures a batch is retried through (with capped
+     * exponential backoff) before it is written row by row and the rows
+     * that still fail are logged and dropped.
+     */
+    private int maxRetries = 10;
+
+    public enum Durability {
+        /**
+         * Buffered events live only in memory: a crash loses at most one
+         * flush interval's worth of audit rows.
+         */
+        MEMORY,
+        /**
+         * Every event is appended to a local spill segment before
+         * {@code submitEvent} returns; segments are deleted once their
+         * events are committed and replayed (idempotently, by event id) on
+         * the next start. Survives a JVM crash, not loss of the disk.
+         */
+        SPILL
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public String getSpillDir() {
+        return spillDir;
+    }
+
+    public void setSpillDir(String spillDir) {
+        this.spillDir = spillDir;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public long getSpillSegmentBytes() {
+        return spillSegmentBytes;
+    }
+
+    public void setSpillSegmentBytes(long spillSegmentBytes) {
+        this.spillSegmentBytes = spillSegmentBytes;
+    }
+
+    public long getPrincipalCacheTtlSeconds() {
+        return principalCacheTtlSeconds;
+    }
+
+    public void setPrincipalCacheTtlSeconds(long principalCacheTtlSeconds) {
+        this.principalCacheTtlSeconds = principalCacheTtlSeconds;
+    }
+
+    public int getPrincipalCacheMaxEntries() {
+        return principalCacheMaxEntries;
+    }
+
+    public void setPrincipalCacheMaxEntries(int principalCacheMaxEntries) {
+        this.principalCacheMaxEntries = principalCacheMaxEntries;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.hms.service.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Append-only NDJSON journal of audit events that are buffered but not yet
+ * committed ({@link AuditSinkProperties.Durability#SPILL}).
+ *
+ * <p>Each event is written (to the OS, not fsync'd) before
+ * {@code submitEvent} returns, tagged with the sink's sequence number.
+ * Segments roll over past {@code spillSegmentBytes}; once the flusher has
+ * committed every event of a segment it is deleted, and the active segment
+ * is truncated in place when it is fully committed, so a healthy node keeps
+ * at most one near-empty file. Segment names carry the journal's start time,
+ * so files left by a crashed run never collide with the new run's and are
+ * handed to {@link #recoverableSegments()} for replay.
+ */
+@Slf4j
+final class AuditSpillJournal implements AutoCloseable {
+
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".ndjson";
+
+    private record ClosedSegment(Path path, long maxSeq) { }
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final ObjectMapper objectMapper;
+    private final long runId;
+    private final List<Path> recoverable;
+    private final Deque<ClosedSegment> closed = new ArrayDeque<>();
+
+    private FileChannel active;
+    private Path activePath;
+    private long activeBytes;
+    private long activeMaxSeq = -1;
+    private int segmentIndex;
+
+    AuditSpillJournal(Path dir, long segmentBytes, ObjectMapper objectMapper) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = Math.max(4096, segmentBytes);
+        this.objectMapper = objectMapper;
+        this.runId = System.currentTimeMillis();
+        Files.createDirectories(dir);
+        this.recoverable = listSegments(dir);
+    }
+
+    /** Segments left behind by an earlier run, oldest first; never touched by this journal. */
+    List<Path> recoverableSegments() {
+        return recoverable;
+    }
+
+    synchronized void append(long seq, PendingAuditEvent event) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(event) + "\n").getBytes(StandardCharsets.UTF_8);
+        if (active == null) {
+            openSegment();
+        } else if (activeBytes > 0 && activeBytes + line.length > segmentBytes) {
+            active.close();
+            closed.addLast(new ClosedSegment(activePath, activeMaxSeq));
+            openSegment();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            active.write(buffer);
+        }
+        activeBytes += line.length;
+        activeMaxSeq = seq;
+    }
+
+    /** Forgets every event with a sequence number up to and including {@code seq}. */
+    synchronized void committedThrough(long seq) {
+        while (!closed.isEmpty() && closed.peekFirst().maxSeq() <= seq) {
+            delete(closed.pollFirst().path());
+        }
+        if (active != null && activeBytes > 0 && closed.isEmpty() && activeMaxSeq <= seq) {
+            try {
+                active.truncate(0);
+                activeBytes = 0;
+            } catch (IOException ex) {
+                log.warn("[AUDIT-SINK] Could not truncate spill segment {}: {}", activePath, ex.getMessage());
+            }
+        }
+    }
+
+    /** Bytes currently held in this run's segments. */
+    synchronized long pendingBytes() {
+        long total = activeBytes;
+        for (ClosedSegment segment : closed) {
+            try {
+                total += Files.size(segment.path());
+            } catch (IOException ignored) {
+                // deleted underneath us; nothing pending there
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (active == null) return;
+        try {
+            active.close();
+        } catch (IOException ex) {
+            log.warn("[AUDIT-SINK] Could not close spill segment {}: {}", activePath, ex.getMessage());
+        }
+        if (activeBytes == 0 && closed.isEmpty()) {
+            delete(activePath);
+        }
+        active = null;
+    }
+
+    /**
+     * Reads one segment. A torn last line (crash mid-append) or any other
+     * unreadable line is skipped with a warning rather than failing replay.
+     */
+    static List<PendingAuditEvent> read(Path segment, ObjectMapper objectMapper) throws IOException {
+        List<PendingAuditEvent> events = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    events.add(objectMapper.readValue(line, PendingAuditEvent.class));
+                } catch (JsonProcessingException ex) {
+                    log.warn("[AUDIT-SINK] Skipping unreadable line in spill segment {}: {}",
+                        segment.getFileName(), ex.getOriginalMessage());
+                }
+            }
+        }
+        return events;
+    }
+
+    static void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException ex) {
+            log.warn("[AUDIT-SINK] Could not delete spill segment {}: {}", segment, ex.getMessage());
+        }
+    }
+
+    private void openSegment() throws IOException {
+        activePath = dir.resolve(String.format("%s%d-%06d%s", PREFIX, runId, segmentIndex++, SUFFIX));
+        active = FileChannel.open(activePath,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeBytes = 0;
+        activeMaxSeq = -1;
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return List.copyOf(segments);
+    }
+}
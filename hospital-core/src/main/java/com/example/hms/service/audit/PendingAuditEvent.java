@@ -0,0 +1,37 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.enums.AuditEventType;
+import com.example.hms.enums.AuditStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An audit event captured on the caller's thread and not yet written.
+ *
+ * <p>Everything that depends on the caller's context is fixed here: the
+ * row id (so a spill replay can skip rows already committed), the event
+ * time, the serialised details and the impersonator read from the
+ * request-scoped {@code ImpersonationContext}. Principal names are
+ * resolved later, on the writer thread.
+ */
+public record PendingAuditEvent(
+    UUID id,
+    LocalDateTime eventTimestamp,
+    UUID userId,
+    String userName,
+    UUID assignmentId,
+    String roleName,
+    String hospitalName,
+    AuditEventType eventType,
+    String eventDescription,
+    String ipAddress,
+    AuditStatus status,
+    String details,
+    String resourceId,
+    String resourceName,
+    String entityType,
+    UUID impersonatorUserId,
+    String impersonatorUsername
+) {
+}
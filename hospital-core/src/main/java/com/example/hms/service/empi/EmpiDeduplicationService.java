@@ -0,0 +1,46 @@
+package com.example.hms.service.empi;
+
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import com.example.hms.payload.dto.empi.EmpiDedupJobResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicatePairResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicateResolutionRequestDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * Batch EMPI deduplication over a hospital's whole registry: the offline
+ * counterpart of the receptionist-facing probabilistic matcher. Scans run
+ * asynchronously (see {@code EmpiDeduplicationScheduler}); this interface
+ * queues them and serves the resulting steward review queue.
+ */
+public interface EmpiDeduplicationService {
+
+    /**
+     * Queue a scan for a hospital. Returns the already-active job instead when
+     * one is queued or running for that hospital. {@code hospitalId} may be
+     * {@code null} for hospital-scoped callers (their active hospital is used).
+     */
+    EmpiDedupJobResponseDTO startJob(UUID hospitalId);
+
+    EmpiDedupJobResponseDTO getJob(UUID jobId);
+
+    EmpiDedupJobResponseDTO cancelJob(UUID jobId);
+
+    /** Pairs found by a job, best score first; {@code status} narrows the queue when set. */
+    Page<EmpiDuplicatePairResponseDTO> listPairs(UUID jobId, EmpiDuplicateReviewStatus status, Pageable pageable);
+
+    /**
+     * Record a steward's decision. {@code MERGED} performs the identity-graph
+     * merge through {@link EmpiService#mergePatients} with
+     * {@code EmpiMergeType.DATA_CLEANUP}.
+     */
+    EmpiDuplicatePairResponseDTO resolvePair(UUID pairId, EmpiDuplicateResolutionRequestDTO request);
+
+    /**
+     * Claim and run every queued (or orphaned running) job to completion.
+     * Called by the scheduler; returns the number of jobs this node completed.
+     */
+    int runPendingJobs();
+}
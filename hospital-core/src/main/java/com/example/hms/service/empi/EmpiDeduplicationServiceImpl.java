@@ -0,0 +1,531 @@
+package com.example.hms.service.empi;
+
+import com.example.hms.empi.probabilistic.EmpiDuplicatePairScorer;
+import com.example.hms.empi.probabilistic.EmpiProbabilisticProperties;
+import com.example.hms.enums.empi.EmpiDedupJobStatus;
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import com.example.hms.enums.empi.EmpiMergeType;
+import com.example.hms.exception.BusinessException;
+import com.example.hms.exception.ResourceNotFoundException;
+import com.example.hms.model.empi.EmpiDedupJob;
+import com.example.hms.model.empi.EmpiDuplicateCandidate;
+import com.example.hms.payload.dto.empi.EmpiDedupJobResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicatePairResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicateResolutionRequestDTO;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.repository.empi.EmpiBlockingKeyRepository;
+import com.example.hms.repository.empi.EmpiDedupJobRepository;
+import com.example.hms.repository.empi.EmpiDuplicateCandidateRepository;
+import com.example.hms.utility.MessageUtil;
+import com.example.hms.utility.RoleValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Batch EMPI deduplication (roadmap row 25 stewardship follow-on).
+ *
+ * <p>A job walks the hospital's {@code empi.blocking_keys} in key order, one
+ * page of {@code dedup-keys-per-checkpoint} keys at a time. Each page:
+ * <ol>
+ *   <li>loads the block members and their match tuples (scalars, never
+ *       {@code Patient} entities);</li>
+ *   <li>sizes every key those members carry per DOB year, so blocks above
+ *       {@code dedup-max-block-size} are split on year rather than skipped
+ *       and pair ownership skips the windows that cannot be scored;</li>
+ *   <li>scores the blocks in parallel on a dedicated fork-join pool with
+ *       {@link EmpiDuplicatePairScorer};</li>
+ *   <li>drops pairs already queued for the hospital, then writes the new
+ *       pairs and advances the job's checkpoint in one short transaction.</li>
+ * </ol>
+ * A crash between pages therefore loses at most one page of scoring work,
+ * and never double-queues a pair.
+ *
+ * <p>Jobs are claimed with an optimistic version bump, so two nodes sweeping
+ * at once cannot both run the same job; a running job whose heartbeat goes
+ * stale is picked up again from its checkpoint. Cancellation is an ordinary
+ * status write, which the running worker notices as a version conflict on
+ * its next checkpoint.
+ */
+@Service
+@Slf4j
+public class EmpiDeduplicationServiceImpl implements EmpiDeduplicationService {
+
+    static final String METRIC_BLOCKS = "hms.empi.dedup.blocks";
+    static final String METRIC_BLOCKS_OVERSIZED = "hms.empi.dedup.blocks.oversized";
+    static final String METRIC_COMPARISONS = "hms.empi.dedup.comparisons";
+    static final String METRIC_PAIRS = "hms.empi.dedup.pairs";
+    static final String METRIC_JOBS = "hms.empi.dedup.jobs";
+    static final String TAG_OUTCOME = "outcome";
+
+    private static final String MSG_JOB_NOT_FOUND = "empi.dedup.jobNotFound";
+    private static final String MSG_PAIR_NOT_FOUND = "empi.dedup.pairNotFound";
+    private static final String MSG_HOSPITAL_REQUIRED = "empi.dedup.hospitalRequired";
+    private static final String MSG_ALREADY_RESOLVED = "empi.dedup.alreadyResolved";
+    private static final String MSG_PRIMARY_NOT_IN_PAIR = "empi.dedup.primaryNotInPair";
+    private static final String MSG_INVALID_DECISION = "empi.dedup.invalidDecision";
+    private static final String MSG_JOB_FINISHED = "empi.dedup.jobFinished";
+    private static final String MSG_CROSS_TENANT = "empi.merge.crossTenant";
+
+    private static final Set<EmpiDedupJobStatus> ACTIVE =
+        EnumSet.of(EmpiDedupJobStatus.QUEUED, EmpiDedupJobStatus.RUNNING);
+    private static final int TUPLE_CHUNK = 1000;
+    private static final int ERROR_MAX_LENGTH = 1000;
+
+    private final EmpiProbabilisticProperties properties;
+    private final EmpiDedupJobRepository jobRepository;
+    private final EmpiDuplicateCandidateRepository candidateRepository;
+    private final EmpiBlockingKeyRepository blockingKeyRepository;
+    private final PatientRepository patientRepository;
+    private final EmpiService empiService;
+    private final RoleValidator roleValidator;
+    private final TransactionTemplate checkpointTx;
+    private final ForkJoinPool scoringPool;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+
+    public EmpiDeduplicationServiceImpl(
+        EmpiProbabilisticProperties properties,
+        EmpiDedupJobRepository jobRepository,
+        EmpiDuplicateCandidateRepository candidateRepository,
+        EmpiBlockingKeyRepository blockingKeyRepository,
+        PatientRepository patientRepository,
+        EmpiService empiService,
+        RoleValidator roleValidator,
+        PlatformTransactionManager transactionManager,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.jobRepository = jobRepository;
+        this.candidateRepository = candidateRepository;
+        this.blockingKeyRepository = blockingKeyRepository;
+        this.patientRepository = patientRepository;
+        this.empiService = empiService;
+        this.roleValidator = roleValidator;
+        this.meterRegistry = meterRegistry;
+        this.checkpointTx = new TransactionTemplate(transactionManager);
+        this.checkpointTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int parallelism = properties.getDedupParallelism() > 0
+            ? properties.getDedupParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        // Dedicated pool: a registry-wide scan must not starve the common
+        // pool that request threads' parallel streams share.
+        this.scoringPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scoringPool.shutdownNow();
+    }
+
+    // ── REST-facing operations ──────────────────────────────────────────────
+
+    @Override
+    @Transactional
+    public EmpiDedupJobResponseDTO startJob(UUID hospitalId) {
+        UUID scopedHospitalId = resolveHospital(hospitalId);
+        EmpiDedupJob job = jobRepository.findFirstByHospitalIdAndStatusIn(scopedHospitalId, ACTIVE)
+            .orElseGet(() -> jobRepository.save(EmpiDedupJob.builder()
+                .hospitalId(scopedHospitalId)
+                .status(EmpiDedupJobStatus.QUEUED)
+                .requestedBy(roleValidator.getCurrentUserId())
+                .build()));
+        return toJobDto(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmpiDedupJobResponseDTO getJob(UUID jobId) {
+        return toJobDto(loadJob(jobId));
+    }
+
+    @Override
+    @Transactional
+    public EmpiDedupJobResponseDTO cancelJob(UUID jobId) {
+        EmpiDedupJob job = loadJob(jobId);
+        if (!ACTIVE.contains(job.getStatus())) {
+            throw new BusinessException(MessageUtil.resolve(MSG_JOB_FINISHED, jobId));
+        }
+        job.setStatus(EmpiDedupJobStatus.CANCELLED);
+        job.setFinishedAt(LocalDateTime.now());
+        return toJobDto(jobRepository.save(job));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<EmpiDuplicatePairResponseDTO> listPairs(UUID jobId, EmpiDuplicateReviewStatus status,
+                                                         Pageable pageable) {
+        EmpiDedupJob job = loadJob(jobId);
+        Page<EmpiDuplicateCandidate> page = status == null
+            ? candidateRepository.findByJobIdOrderByScoreDesc(job.getId(), pageable)
+            : candidateRepository.findByJobIdAndReviewStatusOrderByScoreDesc(job.getId(), status, pageable);
+        return page.map(EmpiDeduplicationServiceImpl::toPairDto);
+    }
+
+    @Override
+    @Transactional
+    public EmpiDuplicatePairResponseDTO resolvePair(UUID pairId, EmpiDuplicateResolutionRequestDTO request) {
+        EmpiDuplicateCandidate pair = candidateRepository.findById(pairId)
+            .orElseThrow(() -> new ResourceNotFoundException(MSG_PAIR_NOT_FOUND, pairId));
+        requireHospitalAccess(pair.getHospitalId());
+        if (pair.getReviewStatus() != EmpiDuplicateReviewStatus.PENDING) {
+            throw new BusinessException(MessageUtil.resolve(MSG_ALREADY_RESOLVED, pairId));
+        }
+        EmpiDuplicateReviewStatus decision = request.getDecision();
+        if (decision == EmpiDuplicateReviewStatus.MERGED) {
+            UUID primary = request.getPrimaryPatientId();
+            UUID secondary;
+            if (pair.getPatientAId().equals(primary)) {
+                secondary = pair.getPatientBId();
+            } else if (pair.getPatientBId().equals(primary)) {
+                secondary = pair.getPatientAId();
+            } else {
+                throw new BusinessException(MessageUtil.resolve(MSG_PRIMARY_NOT_IN_PAIR));
+            }
+            empiService.mergePatients(primary, secondary, EmpiMergeType.DATA_CLEANUP, request.getNotes());
+        } else if (decision != EmpiDuplicateReviewStatus.NOT_DUPLICATE) {
+            throw new BusinessException(MessageUtil.resolve(MSG_INVALID_DECISION, decision));
+        }
+        pair.setReviewStatus(decision);
+        pair.setReviewedBy(roleValidator.getCurrentUserId());
+        pair.setReviewedAt(LocalDateTime.now());
+        pair.setReviewNotes(request.getNotes());
+        return toPairDto(candidateRepository.save(pair));
+    }
+
+    // ── Batch execution ─────────────────────────────────────────────────────
+
+    @Override
+    public int runPendingJobs() {
+        if (!properties.isEnabled()) return 0;
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(properties.getDedupStaleAfterMinutes());
+        int completed = 0;
+        for (EmpiDedupJob candidate : jobRepository.findClaimable(staleBefore)) {
+            EmpiDedupJob job = claim(candidate);
+            if (job != null && runJob(job)) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    /** Optimistic claim; {@code null} when another node won the race. */
+    private EmpiDedupJob claim(EmpiDedupJob job) {
+        try {
+            return checkpointTx.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                job.setStatus(EmpiDedupJobStatus.RUNNING);
+                if (job.getStartedAt() == null) job.setStartedAt(now);
+                job.setHeartbeatAt(now);
+                return jobRepository.save(job);
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            log.debug("[EMPI_DEDUP] Job {} claimed by another worker", job.getId());
+            return null;
+        }
+    }
+
+    /** Runs a claimed job to the end of the key space; {@code true} when it completed. */
+    private boolean runJob(EmpiDedupJob claimed) {
+        EmpiDuplicatePairScorer scorer = new EmpiDuplicatePairScorer(
+            properties.getDedupMinScore(), properties.getDedupMaxBlockSize());
+        EmpiDedupJob job = claimed;
+        long pairsAtStart = job.getPairsFound();
+        log.info("[EMPI_DEDUP] Job {} running for hospital {} from checkpoint '{}'",
+            job.getId(), job.getHospitalId(), job.getCheckpointKey());
+        try {
+            while (true) {
+                PageOutcome outcome = processPage(job, scorer);
+                if (outcome == null) break;
+                job = outcome.job();
+                if (outcome.last()) break;
+            }
+            EmpiDedupJob finished = complete(job);
+            long newPairs = finished.getPairsFound() - pairsAtStart;
+            incrementCounter(METRIC_JOBS, TAG_OUTCOME, "completed");
+            log.info("[EMPI_DEDUP] Job {} completed: {} blocks, {} comparisons, {} pairs queued",
+                finished.getId(), finished.getProcessedBlocks(), finished.getScoredPairs(), finished.getPairsFound());
+            empiService.publishDuplicateScanCompleted(finished.getId(), finished.getHospitalId(), newPairs);
+            return true;
+        } catch (OptimisticLockingFailureException ex) {
+            // Cancelled, or re-claimed after our heartbeat went stale.
+            incrementCounter(METRIC_JOBS, TAG_OUTCOME, "interrupted");
+            log.info("[EMPI_DEDUP] Job {} stopped: modified concurrently (cancelled or re-claimed)", job.getId());
+            return false;
+        } catch (RuntimeException ex) {
+            incrementCounter(METRIC_JOBS, TAG_OUTCOME, "failed");
+            log.warn("[EMPI_DEDUP] Job {} failed at checkpoint '{}': {}",
+                job.getId(), job.getCheckpointKey(), ex.getMessage(), ex);
+            markFailed(job.getId(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * Score and persist one page of blocks. Returns {@code null} when the key
+     * space is exhausted before this page.
+     */
+    private PageOutcome processPage(EmpiDedupJob job, EmpiDuplicatePairScorer scorer) {
+        UUID hospitalId = job.getHospitalId();
+        String after = job.getCheckpointKey() == null ? "" : job.getCheckpointKey();
+        int pageSize = Math.max(1, properties.getDedupKeysPerCheckpoint());
+        List<String> keys = blockingKeyRepository.findKeyValuesAfter(hospitalId, after, PageRequest.of(0, pageSize));
+        if (keys.isEmpty()) return null;
+
+        Map<String, Set<UUID>> blockIds = new LinkedHashMap<>();
+        for (String key : keys) blockIds.put(key, new LinkedHashSet<>());
+        Set<UUID> patientIds = new HashSet<>();
+        for (Object[] member : blockingKeyRepository.findBlockMembers(hospitalId, keys)) {
+            UUID patientId = (UUID) member[1];
+            blockIds.get((String) member[0]).add(patientId);
+            patientIds.add(patientId);
+        }
+        Map<UUID, EmpiDuplicatePairScorer.Row> rows = loadRows(patientIds);
+        Set<String> skipped = skippedWindows(hospitalId, keys.get(keys.size() - 1), rows.values(), scorer);
+
+        List<Map.Entry<String, List<EmpiDuplicatePairScorer.Row>>> blocks = new ArrayList<>(blockIds.size());
+        for (Map.Entry<String, Set<UUID>> block : blockIds.entrySet()) {
+            List<EmpiDuplicatePairScorer.Row> members = new ArrayList<>(block.getValue().size());
+            for (UUID id : block.getValue()) {
+                EmpiDuplicatePairScorer.Row row = rows.get(id);
+                if (row != null) members.add(row);
+            }
+            blocks.add(Map.entry(block.getKey(), members));
+        }
+        List<EmpiDuplicatePairScorer.BlockResult> results = scoringPool.submit(() -> blocks.parallelStream()
+            .map(block -> scorer.scoreBlock(block.getKey(), block.getValue(), skipped))
+            .toList()).join();
+
+        Map<PairKey, EmpiDuplicatePairScorer.Pair> pairs = new LinkedHashMap<>();
+        long comparisons = 0;
+        int oversized = 0;
+        for (EmpiDuplicatePairScorer.BlockResult result : results) {
+            comparisons += result.comparisons();
+            if (result.oversized()) oversized++;
+            for (EmpiDuplicatePairScorer.Pair pair : result.pairs()) {
+                pairs.putIfAbsent(new PairKey(pair.patientAId(), pair.patientBId()), pair);
+            }
+        }
+        long scored = comparisons;
+        String lastKey = keys.get(keys.size() - 1);
+        boolean last = keys.size() < pageSize;
+
+        EmpiDedupJob saved = checkpointTx.execute(status -> {
+            dropExistingPairs(hospitalId, pairs);
+            candidateRepository.saveAll(pairs.values().stream()
+                .map(pair -> EmpiDuplicateCandidate.builder()
+                    .jobId(job.getId())
+                    .hospitalId(hospitalId)
+                    .patientAId(pair.patientAId())
+                    .patientBId(pair.patientBId())
+                    .score(pair.score())
+                    .nameScore(pair.nameScore())
+                    .dobScore(pair.dobScore())
+                    .sexMatched(pair.sexMatched())
+                    .reviewStatus(EmpiDuplicateReviewStatus.PENDING)
+                    .build())
+                .toList());
+            job.setCheckpointKey(lastKey);
+            job.setProcessedBlocks(job.getProcessedBlocks() + keys.size());
+            job.setScoredPairs(job.getScoredPairs() + scored);
+            job.setPairsFound(job.getPairsFound() + pairs.size());
+            job.setHeartbeatAt(LocalDateTime.now());
+            return jobRepository.save(job);
+        });
+
+        incrementCounter(METRIC_BLOCKS, keys.size());
+        incrementCounter(METRIC_BLOCKS_OVERSIZED, oversized);
+        incrementCounter(METRIC_COMPARISONS, comparisons);
+        incrementCounter(METRIC_PAIRS, pairs.size());
+        return new PageOutcome(saved, last);
+    }
+
+    private Map<UUID, EmpiDuplicatePairScorer.Row> loadRows(Set<UUID> patientIds) {
+        Map<UUID, EmpiDuplicatePairScorer.Row> rows = new HashMap<>(patientIds.size() * 2);
+        List<UUID> ids = new ArrayList<>(patientIds);
+        for (int from = 0; from < ids.size(); from += TUPLE_CHUNK) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + TUPLE_CHUNK));
+            for (Object[] tuple : patientRepository.findEmpiMatchTuplesByIds(chunk)) {
+                EmpiDuplicatePairScorer.Row row = EmpiDuplicatePairScorer.Row.of(tuple);
+                rows.put(row.id(), row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Skipped DOB-year windows of every key this page's rows carry up to
+     * {@code lastKey}: ownership looks at any shared key sorting before the
+     * block, including keys of earlier pages, so their sizes are needed too.
+     */
+    private Set<String> skippedWindows(UUID hospitalId, String lastKey,
+                                       Collection<EmpiDuplicatePairScorer.Row> rows,
+                                       EmpiDuplicatePairScorer scorer) {
+        Set<String> rowKeys = new HashSet<>();
+        for (EmpiDuplicatePairScorer.Row row : rows) {
+            for (String key : row.keys()) {
+                if (key.compareTo(lastKey) <= 0) rowKeys.add(key);
+            }
+        }
+        Map<String, Map<Integer, Integer>> membersByYear = new HashMap<>();
+        List<String> keys = new ArrayList<>(rowKeys);
+        for (int from = 0; from < keys.size(); from += TUPLE_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + TUPLE_CHUNK));
+            for (Object[] count : blockingKeyRepository.countBlockMembersByYear(hospitalId, chunk)) {
+                membersByYear.computeIfAbsent((String) count[0], k -> new HashMap<>())
+                    .put(((Number) count[1]).intValue(), ((Number) count[2]).intValue());
+            }
+        }
+        return scorer.skippedWindows(membersByYear);
+    }
+
+    /** Removes pairs an earlier scan (or the pre-crash half of this one) already queued. */
+    private void dropExistingPairs(UUID hospitalId, Map<PairKey, EmpiDuplicatePairScorer.Pair> pairs) {
+        if (pairs.isEmpty()) return;
+        List<UUID> lowerIds = pairs.keySet().stream().map(PairKey::a).distinct().toList();
+        for (int from = 0; from < lowerIds.size(); from += TUPLE_CHUNK) {
+            List<UUID> chunk = lowerIds.subList(from, Math.min(lowerIds.size(), from + TUPLE_CHUNK));
+            for (Object[] existing : candidateRepository.findExistingPairs(hospitalId, chunk)) {
+                pairs.remove(new PairKey((UUID) existing[0], (UUID) existing[1]));
+            }
+        }
+    }
+
+    private EmpiDedupJob complete(EmpiDedupJob job) {
+        return checkpointTx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(EmpiDedupJobStatus.COMPLETED);
+            job.setFinishedAt(now);
+            job.setHeartbeatAt(now);
+            return jobRepository.save(job);
+        });
+    }
+
+    private void markFailed(UUID jobId, RuntimeException cause) {
+        try {
+            checkpointTx.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+                if (!ACTIVE.contains(job.getStatus())) return;
+                String message = String.valueOf(cause.getMessage());
+                job.setStatus(EmpiDedupJobStatus.FAILED);
+                job.setFinishedAt(LocalDateTime.now());
+                job.setLastError(message.length() > ERROR_MAX_LENGTH ? message.substring(0, ERROR_MAX_LENGTH) : message);
+                jobRepository.save(job);
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("[EMPI_DEDUP] Could not record failure of job {}: {}", jobId, ex.getMessage());
+        }
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────────────────
+
+    private UUID resolveHospital(UUID requested) {
+        UUID active = roleValidator.requireActiveHospitalId();
+        if (active != null) {
+            if (requested != null && !requested.equals(active)) {
+                throw new AccessDeniedException(MessageUtil.resolve(MSG_CROSS_TENANT));
+            }
+            return active;
+        }
+        if (requested == null) {
+            throw new BusinessException(MessageUtil.resolve(MSG_HOSPITAL_REQUIRED));
+        }
+        return requested;
+    }
+
+    private EmpiDedupJob loadJob(UUID jobId) {
+        EmpiDedupJob job = jobRepository.findById(jobId)
+            .orElseThrow(() -> new ResourceNotFoundException(MSG_JOB_NOT_FOUND, jobId));
+        requireHospitalAccess(job.getHospitalId());
+        return job;
+    }
+
+    private void requireHospitalAccess(UUID hospitalId) {
+        UUID active = roleValidator.requireActiveHospitalId();
+        if (active != null && !active.equals(hospitalId)) {
+            throw new AccessDeniedException(MessageUtil.resolve(MSG_CROSS_TENANT));
+        }
+    }
+
+    private void incrementCounter(String name, String tag, String value) {
+        if (meterRegistry == null) return;
+        try {
+            Counter.builder(name).tag(tag, value).register(meterRegistry).increment();
+        } catch (RuntimeException ex) {
+            log.debug("[EMPI_DEDUP] Failed to record metric {}: {}", name, ex.getMessage());
+        }
+    }
+
+    private void incrementCounter(String name, double amount) {
+        if (meterRegistry == null || amount <= 0) return;
+        try {
+            Counter.builder(name).register(meterRegistry).increment(amount);
+        } catch (RuntimeException ex) {
+            log.debug("[EMPI_DEDUP] Failed to record metric {}: {}", name, ex.getMessage());
+        }
+    }
+
+    private static EmpiDedupJobResponseDTO toJobDto(EmpiDedupJob job) {
+        return EmpiDedupJobResponseDTO.builder()
+            .id(job.getId())
+            .hospitalId(job.getHospitalId())
+            .status(job.getStatus())
+            .checkpointKey(job.getCheckpointKey())
+            .processedBlocks(job.getProcessedBlocks())
+            .scoredPairs(job.getScoredPairs())
+            .pairsFound(job.getPairsFound())
+            .requestedBy(job.getRequestedBy())
+            .createdAt(job.getCreatedAt())
+            .startedAt(job.getStartedAt())
+            .finishedAt(job.getFinishedAt())
+            .lastError(job.getLastError())
+            .build();
+    }
+
+    private static EmpiDuplicatePairResponseDTO toPairDto(EmpiDuplicateCandidate pair) {
+        return EmpiDuplicatePairResponseDTO.builder()
+            .id(pair.getId())
+            .jobId(pair.getJobId())
+            .hospitalId(pair.getHospitalId())
+            .patientAId(pair.getPatientAId())
+            .patientBId(pair.getPatientBId())
+            .score(pair.getScore())
+            .nameScore(pair.getNameScore())
+            .dobScore(pair.getDobScore())
+            .sexMatched(pair.isSexMatched())
+            .reviewStatus(pair.getReviewStatus())
+            .reviewedBy(pair.getReviewedBy())
+            .reviewedAt(pair.getReviewedAt())
+            .reviewNotes(pair.getReviewNotes())
+            .build();
+    }
+
+    private record PairKey(UUID a, UUID b) {}
+
+    private record PageOutcome(EmpiDedupJob job, boolean last) {}
+}
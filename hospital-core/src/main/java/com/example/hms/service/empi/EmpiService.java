@@ -45,4 +45,10 @@ public interface EmpiService {
 
     @Transactional
     EmpiMergeEventResponseDTO mergeIdentities(UUID primaryIdentityId, EmpiMergeRequestDTO request);
+
+    /**
+     * Announce a finished batch deduplication scan on the EMPI identity topic
+     * so downstream stewardship tooling can pick up the new review queue.
+     */
+    void publishDuplicateScanCompleted(UUID jobId, UUID hospitalId, long duplicatePairCount);
 }
@@ -45,6 +45,7 @@ public class EmpiServiceImpl implements EmpiService {
     private static final String EVENT_IDENTITY_LINKED = "IDENTITY_LINKED";
     private static final String EVENT_ALIAS_CREATED = "IDENTITY_ALIAS_CREATED";
     private static final String EVENT_IDENTITY_MERGED = "IDENTITIES_MERGED";
+    private static final String EVENT_DUPLICATE_SCAN_COMPLETED = "DUPLICATE_SCAN_COMPLETED";
 
     private static final String MSG_IDENTITY_NOT_FOUND = "empi.identity.notFound";
     private static final String MSG_IDENTITY_NOT_FOUND_BY_NUMBER = "empi.identity.notFoundByNumber";
@@ -492,6 +493,17 @@ public class EmpiServiceImpl implements EmpiService {
             .build();
     }
 
+    @Override
+    public void publishDuplicateScanCompleted(UUID jobId, UUID hospitalId, long duplicatePairCount) {
+        publishEvent(EmpiEventPayload.builder()
+            .eventType(EVENT_DUPLICATE_SCAN_COMPLETED)
+            .deduplicationJobId(jobId)
+            .duplicatePairCount(duplicatePairCount)
+            .hospitalId(hospitalId)
+            .occurredAt(OffsetDateTime.now())
+            .build());
+    }
+
     private void publishEvent(EmpiEventPayload payload) {
         if (payload == null) {
             return;
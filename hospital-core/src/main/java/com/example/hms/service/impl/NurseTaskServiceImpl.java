@@ -71,6 +71,7 @@ import com.example.hms.repository.PrescriptionRepository;
 import com.example.hms.repository.ProcedureOrderRepository;
 import com.example.hms.repository.StaffRepository;
 import com.example.hms.repository.UserRepository;
+import com.example.hms.service.NurseBoardCache;
 import com.example.hms.service.NurseDashboardService;
 import com.example.hms.service.NurseTaskService;
 import com.example.hms.service.emar.FiveRightsVerificationResult;
@@ -87,13 +88,17 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -156,6 +161,11 @@ public class NurseTaskServiceImpl implements NurseTaskService {
         PrescriptionStatus.SIGNED, PrescriptionStatus.TRANSMITTED
     );
 
+    /** Reasons carried by {@link NurseBoardCache#boardChanged} pushes. */
+    private static final String BOARD_CHANGE_VITALS = "VITALS";
+    private static final String BOARD_CHANGE_MAR = "MAR";
+    private static final String BOARD_CHANGE_HANDOFF = "HANDOFF";
+
     /** Duration after which a patient's vitals are considered overdue. */
     private static final Duration VITALS_OVERDUE_THRESHOLD = Duration.ofHours(4);
 
@@ -181,12 +191,32 @@ public class NurseTaskServiceImpl implements NurseTaskService {
     private final ProcedureOrderRepository procedureOrderRepository;
     private final FiveRightsVerificationService fiveRightsVerificationService;
     private final ObjectMapper objectMapper;
+    private final NurseBoardCache nurseBoardCache;
 
-    /* ── Inner record ─────────────────────────────────────────────────── */
+    /* ── Inner records ────────────────────────────────────────────────── */
 
     private record PatientContext(UUID patientId, String displayName) {
     }
 
+    /**
+     * Patient scope resolved once per request: the patients the board shows
+     * (assigned, else the whole hospital) and the assignee filter applied to
+     * the hospital-level order and handoff lists ({@code null} = no filter).
+     */
+    private record PatientScope(List<PatientContext> patients, Set<UUID> assignedIds) {
+        Set<UUID> patientIds() {
+            Set<UUID> ids = new LinkedHashSet<>();
+            for (PatientContext ctx : patients) {
+                if (ctx.patientId() != null) ids.add(ctx.patientId());
+            }
+            return ids;
+        }
+    }
+
+    /** An active admission with its (initialised) patient. */
+    private record WardBed(Admission admission, Patient patient) {
+    }
+
     /* ═══════════════════════════════════════════════════════════════════
        Vitals — queries real PatientVitalSign to find patients needing checks
        ═══════════════════════════════════════════════════════════════════ */
@@ -309,7 +339,10 @@ public class NurseTaskServiceImpl implements NurseTaskService {
         if (rxOpt.isPresent()) {
             Prescription rx = rxOpt.get();
             validateHospitalMatch(rx.getHospital(), hospitalId);
-            return persistMarRecord(rx, nurseUserId, hospitalId, marStatus, note, overrideReason);
+            NurseMedicationTaskResponseDTO administered =
+                persistMarRecord(rx, nurseUserId, hospitalId, marStatus, note, overrideReason);
+            nurseBoardCache.boardChanged(hospitalId, administered.getPatientId(), BOARD_CHANGE_MAR);
+            return administered;
         }
 
         // Fall back: check existing MAR records
@@ -329,6 +362,7 @@ public class NurseTaskServiceImpl implements NurseTaskService {
             marRepository.save(marRecord);
 
             Patient patient = marRecord.getPatient();
+            nurseBoardCache.boardChanged(hospitalId, patient.getId(), BOARD_CHANGE_MAR);
             return NurseMedicationTaskResponseDTO.builder()
                 .id(marRecord.getId())
                 .patientId(patient.getId())
@@ -518,7 +552,7 @@ public class NurseTaskServiceImpl implements NurseTaskService {
         String normalized = statusFilter != null && !statusFilter.isBlank()
             ? statusFilter.trim().toUpperCase(Locale.ROOT) : null;
 
-        return deriveOrderTasks(nurseUserId, hospitalId).stream()
+        return deriveOrderTasks(hospitalId, assignedPatientIds(nurseUserId, hospitalId)).stream()
             .filter(t -> normalized == null
                 || (t.getPriority() != null && normalized.equals(t.getPriority().toUpperCase(Locale.ROOT))))
             .limit(effectiveLimit)
@@ -531,9 +565,8 @@ public class NurseTaskServiceImpl implements NurseTaskService {
      * queries, then an in-memory filter to the nurse's assigned patients —
      * never per-patient queries (N+1 with the all-hospital fallback).
      */
-    private List<NurseOrderTaskResponseDTO> deriveOrderTasks(UUID nurseUserId, UUID hospitalId) {
+    private List<NurseOrderTaskResponseDTO> deriveOrderTasks(UUID hospitalId, Set<UUID> scope) {
         if (hospitalId == null) return List.of();
-        Set<UUID> scope = assignedPatientIds(nurseUserId, hospitalId);
 
         List<NurseOrderTaskResponseDTO> tasks = new ArrayList<>();
         for (LabOrder order : labOrderRepository.findByHospital_IdAndStatusIn(hospitalId, NURSE_ACTION_LAB_STATUSES)) {
@@ -593,9 +626,12 @@ public class NurseTaskServiceImpl implements NurseTaskService {
      */
     private Set<UUID> assignedPatientIds(UUID nurseUserId, UUID hospitalId) {
         if (nurseUserId == null || hospitalId == null) return null;
-        List<PatientResponseDTO> assigned = nurseDashboardService.getPatientsForNurse(nurseUserId, hospitalId, null);
+        return idsOf(nurseDashboardService.getPatientsForNurse(nurseUserId, hospitalId, null));
+    }
+
+    private Set<UUID> idsOf(List<PatientResponseDTO> patients) {
         Set<UUID> ids = new HashSet<>();
-        for (PatientResponseDTO p : assigned) {
+        for (PatientResponseDTO p : patients) {
             if (p.getId() != null) ids.add(p.getId());
         }
         return ids.isEmpty() ? null : ids;
@@ -653,7 +689,9 @@ public class NurseTaskServiceImpl implements NurseTaskService {
             .createdByName(resolveNurseName(nurseUserId))
             .build();
 
-        return toHandoffSummary(nurseHandoffRepository.save(handoff));
+        NurseHandoffSummaryDTO saved = toHandoffSummary(nurseHandoffRepository.save(handoff));
+        nurseBoardCache.boardChanged(hospitalId, patient.getId(), BOARD_CHANGE_HANDOFF);
+        return saved;
     }
 
     @Override
@@ -676,6 +714,8 @@ public class NurseTaskServiceImpl implements NurseTaskService {
         handoff.setCompletedAt(LocalDateTime.now());
         handoff.setCompletedByName(resolveNurseName(nurseUserId));
         nurseHandoffRepository.save(handoff);
+        nurseBoardCache.boardChanged(hospitalId,
+            handoff.getPatient() != null ? handoff.getPatient().getId() : null, BOARD_CHANGE_HANDOFF);
     }
 
     private NurseHandoffSummaryDTO toHandoffSummary(NurseHandoff h) {
@@ -739,23 +779,36 @@ public class NurseTaskServiceImpl implements NurseTaskService {
 
     @Override
     public NurseDashboardSummaryDTO getDashboardSummary(UUID nurseUserId, UUID hospitalId) {
-        List<PatientContext> patients = resolvePatientContexts(nurseUserId, hospitalId);
-        long assignedPatients = patients.stream().filter(p -> p.patientId() != null).count();
+        return nurseBoardCache.summary(nurseUserId, hospitalId, () -> loadDashboardSummary(nurseUserId, hospitalId));
+    }
+
+    /**
+     * Set-based: the patient scope is resolved once and shared; vitals,
+     * prescriptions and MAR status are each one query for the whole ward;
+     * orders, handoffs and announcements are hospital-level queries. The
+     * query count does not grow with the number of patients.
+     */
+    private NurseDashboardSummaryDTO loadDashboardSummary(UUID nurseUserId, UUID hospitalId) {
+        PatientScope scope = resolvePatientScope(nurseUserId, hospitalId);
+        Set<UUID> patientIds = scope.patientIds();
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime overdueThreshold = now.minus(VITALS_OVERDUE_THRESHOLD);
 
-        long vitalsDue = countVitalsDue(patients, hospitalId, overdueThreshold);
-        long[] medCounts = countMedicationStatuses(patients, hospitalId, now);
+        Map<UUID, LocalDateTime> lastVitals = latestVitalsByPatient(hospitalId, patientIds);
+        long vitalsDue = patientIds.stream()
+            .filter(id -> isVitalsDue(lastVitals.get(id), overdueThreshold))
+            .count();
+        long[] medCounts = countMedicationStatuses(activePrescriptions(hospitalId, patientIds), hospitalId, now);
 
-        long ordersPending = deriveOrderTasks(nurseUserId, hospitalId).size();
-        long handoffsPending = countPendingHandoffs(nurseUserId, hospitalId);
+        long ordersPending = deriveOrderTasks(hospitalId, scope.assignedIds()).size();
+        long handoffsPending = countPendingHandoffs(hospitalId, scope.assignedIds());
 
         // Announcement count
         long announcementCount = hospitalId != null ? announcementRepository.countByHospital_Id(hospitalId) : 0L;
 
         return NurseDashboardSummaryDTO.builder()
-            .assignedPatients(assignedPatients)
+            .assignedPatients(patientIds.size())
             .vitalsDue(vitalsDue)
             .medicationsDue(medCounts[0])
             .medicationsOverdue(medCounts[1])
@@ -766,9 +819,8 @@ public class NurseTaskServiceImpl implements NurseTaskService {
     }
 
     /** Pending-handoff count matching the same assignee scope as the list endpoint. */
-    private long countPendingHandoffs(UUID nurseUserId, UUID hospitalId) {
+    private long countPendingHandoffs(UUID hospitalId, Set<UUID> scope) {
         if (hospitalId == null) return 0L;
-        Set<UUID> scope = assignedPatientIds(nurseUserId, hospitalId);
         if (scope == null) {
             return nurseHandoffRepository.countByHospital_IdAndStatus(hospitalId, STATUS_PENDING);
         }
@@ -780,42 +832,57 @@ public class NurseTaskServiceImpl implements NurseTaskService {
             .count();
     }
 
-    /** Count patients whose vitals are overdue (no vitals or last recording before threshold). */
-    private long countVitalsDue(List<PatientContext> patients, UUID hospitalId, LocalDateTime overdueThreshold) {
-        long count = 0;
-        for (PatientContext ctx : patients) {
-            if (ctx.patientId() == null) continue;
-            Optional<LocalDateTime> lastRecorded = vitalSignRepository
-                .findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(ctx.patientId(), hospitalId)
-                .map(v -> v.getRecordedAt());
-            if (lastRecorded.isEmpty() || lastRecorded.get().isBefore(overdueThreshold)) {
-                count++;
-            }
-        }
-        return count;
+    /** No vitals, or the last recording is before the threshold. */
+    private boolean isVitalsDue(LocalDateTime lastRecorded, LocalDateTime overdueThreshold) {
+        return lastRecorded == null || lastRecorded.isBefore(overdueThreshold);
     }
 
     /** Count medications by status (DUE / OVERDUE). Returns {due, overdue}. */
-    private long[] countMedicationStatuses(List<PatientContext> patients, UUID hospitalId, LocalDateTime now) {
+    private long[] countMedicationStatuses(List<Prescription> activePrescriptions, UUID hospitalId,
+                                           LocalDateTime now) {
+        Set<UUID> given = givenPrescriptionIds(hospitalId, activePrescriptions);
         long due = 0;
         long overdue = 0;
-        for (PatientContext ctx : patients) {
-            if (ctx.patientId() == null || hospitalId == null) continue;
-            List<Prescription> prescriptions = prescriptionRepository
-                .findByPatient_IdAndHospital_Id(ctx.patientId(), hospitalId);
-            for (Prescription rx : prescriptions) {
-                if (!ACTIVE_RX_STATUSES.contains(rx.getStatus())) continue;
-                String marStatus = resolveMarStatus(rx, now);
-                switch (marStatus) {
-                    case STATUS_DUE -> due++;
-                    case STATUS_OVERDUE -> overdue++;
-                    default -> { /* COMPLETED — not counted */ }
-                }
+        for (Prescription rx : activePrescriptions) {
+            switch (resolveMarStatus(rx, given.contains(rx.getId()), now)) {
+                case STATUS_DUE -> due++;
+                case STATUS_OVERDUE -> overdue++;
+                default -> { /* COMPLETED — not counted */ }
             }
         }
         return new long[]{due, overdue};
     }
 
+    /* ═══════════════════════════════════════════════════════════════════
+       Private helpers — ward-level (set-based) reads
+       ═══════════════════════════════════════════════════════════════════ */
+
+    /** Last vitals time per patient at the hospital, in one grouped query; absent = never recorded. */
+    private Map<UUID, LocalDateTime> latestVitalsByPatient(UUID hospitalId, Collection<UUID> patientIds) {
+        if (hospitalId == null || patientIds.isEmpty()) return Map.of();
+        Map<UUID, LocalDateTime> latest = new HashMap<>();
+        for (Object[] row : vitalSignRepository.findLatestRecordedAtByPatient(hospitalId, patientIds)) {
+            latest.put((UUID) row[0], (LocalDateTime) row[1]);
+        }
+        return latest;
+    }
+
+    /** The patients' MAR-visible prescriptions at the hospital, in one query. */
+    private List<Prescription> activePrescriptions(UUID hospitalId, Collection<UUID> patientIds) {
+        if (hospitalId == null || patientIds.isEmpty()) return List.of();
+        return prescriptionRepository.findByHospital_IdAndPatient_IdInAndStatusIn(
+            hospitalId, patientIds, ACTIVE_RX_STATUSES);
+    }
+
+    /** Which of the prescriptions already have a GIVEN MAR entry, in one query. */
+    private Set<UUID> givenPrescriptionIds(UUID hospitalId, List<Prescription> prescriptions) {
+        if (hospitalId == null || prescriptions.isEmpty()) return Set.of();
+        List<UUID> ids = prescriptions.stream().map(Prescription::getId).filter(Objects::nonNull).toList();
+        if (ids.isEmpty()) return Set.of();
+        return new HashSet<>(marRepository.findPrescriptionIdsWithStatus(
+            hospitalId, ids, MedicationAdministrationStatus.GIVEN));
+    }
+
     /* ═══════════════════════════════════════════════════════════════════
        Private helpers — MAR
        ═══════════════════════════════════════════════════════════════════ */
@@ -828,6 +895,11 @@ public class NurseTaskServiceImpl implements NurseTaskService {
                 rx.getPatient().getId(), rx.getHospital().getId(),
                 MedicationAdministrationStatus.GIVEN);
         boolean alreadyGiven = records.stream().anyMatch(r -> r.getPrescription().getId().equals(rx.getId()));
+        return resolveMarStatus(rx, alreadyGiven, now);
+    }
+
+    /** MAR status when it is already known whether the prescription has been given. */
+    private String resolveMarStatus(Prescription rx, boolean alreadyGiven, LocalDateTime now) {
         if (alreadyGiven) return STATUS_COMPLETED;
 
         // Use prescription creation time + 4 hours as a naive "due" window
@@ -927,6 +999,24 @@ public class NurseTaskServiceImpl implements NurseTaskService {
         return clampInt(value, 1, MAX_LIMIT);
     }
 
+    /**
+     * One {@code getPatientsForNurse} call (two on the all-hospital fallback)
+     * yields both the patients shown and the assignee filter, instead of each
+     * board section resolving them again.
+     */
+    private PatientScope resolvePatientScope(UUID nurseUserId, UUID hospitalId) {
+        if (hospitalId == null) return new PatientScope(List.of(), null);
+        List<PatientResponseDTO> assigned = nurseDashboardService.getPatientsForNurse(nurseUserId, hospitalId, null);
+        Set<UUID> assignedIds = nurseUserId == null ? null : idsOf(assigned);
+        List<PatientResponseDTO> shown = assigned;
+        if (shown.isEmpty() && nurseUserId != null) {
+            log.warn("No assigned patients found for nurse {}, falling back to all-hospital patient list for hospital {}",
+                    nurseUserId, hospitalId);
+            shown = nurseDashboardService.getPatientsForNurse(null, hospitalId, null);
+        }
+        return new PatientScope(shown.isEmpty() ? List.of() : deduplicatePatientContexts(shown), assignedIds);
+    }
+
     private List<PatientContext> resolvePatientContexts(UUID nurseUserId, UUID hospitalId) {
         List<PatientResponseDTO> patients = resolvePatients(nurseUserId, hospitalId);
         if (patients.isEmpty()) {
@@ -1018,6 +1108,10 @@ public class NurseTaskServiceImpl implements NurseTaskService {
        MVP-12 — Workboard, Flow Board, Vitals Capture, Admissions Panel
        ═══════════════════════════════════════════════════════════════════ */
 
+    /**
+     * One card per active admission. Vitals, prescriptions and MAR status
+     * are read for the whole ward in three queries, not per bed.
+     */
     @Override
     public List<NurseWorkboardPatientDTO> getWorkboard(UUID nurseUserId, UUID hospitalId) {
         if (hospitalId == null) return List.of();
@@ -1025,35 +1119,39 @@ public class NurseTaskServiceImpl implements NurseTaskService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime overdueThreshold = now.minus(VITALS_OVERDUE_THRESHOLD);
 
-        List<NurseWorkboardPatientDTO> result = new ArrayList<>();
+        List<WardBed> beds = new ArrayList<>();
+        Set<UUID> patientIds = new LinkedHashSet<>();
         for (Admission a : admissions) {
-            NurseWorkboardPatientDTO card = toWorkboardCard(a, hospitalId, overdueThreshold, now);
-            if (card != null) {
-                result.add(card);
-            }
+            Patient patient = JpaProxyUtils.safeInit(a.getPatient(), ADMISSION_OWNER, a.getId(), ASSOCIATION_PATIENT);
+            if (patient == null) continue;
+            beds.add(new WardBed(a, patient));
+            if (patient.getId() != null) patientIds.add(patient.getId());
+        }
+        if (beds.isEmpty()) return List.of();
+
+        Map<UUID, LocalDateTime> lastVitals = latestVitalsByPatient(hospitalId, patientIds);
+        List<Prescription> prescriptions = activePrescriptions(hospitalId, patientIds);
+        Set<UUID> given = givenPrescriptionIds(hospitalId, prescriptions);
+        Map<UUID, Long> medsDue = new HashMap<>();
+        for (Prescription rx : prescriptions) {
+            if (rx.getPatient() == null) continue;
+            if (STATUS_COMPLETED.equals(resolveMarStatus(rx, given.contains(rx.getId()), now))) continue;
+            medsDue.merge(rx.getPatient().getId(), 1L, Long::sum);
+        }
+
+        List<NurseWorkboardPatientDTO> result = new ArrayList<>(beds.size());
+        for (WardBed bed : beds) {
+            UUID patientId = bed.patient().getId();
+            LocalDateTime last = lastVitals.get(patientId);
+            result.add(toWorkboardCard(bed.admission(), bed.patient(), hospitalId,
+                last, isVitalsDue(last, overdueThreshold), medsDue.getOrDefault(patientId, 0L)));
         }
         return result;
     }
 
-    private NurseWorkboardPatientDTO toWorkboardCard(Admission a, UUID hospitalId,
-                                                     LocalDateTime overdueThreshold, LocalDateTime now) {
+    private NurseWorkboardPatientDTO toWorkboardCard(Admission a, Patient patient, UUID hospitalId,
+                                                     LocalDateTime lastVitals, boolean vitalsDue, long medsDue) {
         UUID admissionId = a.getId();
-        Patient patient = JpaProxyUtils.safeInit(a.getPatient(), ADMISSION_OWNER, admissionId, ASSOCIATION_PATIENT);
-        if (patient == null) return null;
-
-        Optional<LocalDateTime> lastVitals = vitalSignRepository
-            .findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(patient.getId(), hospitalId)
-            .map(PatientVitalSign::getRecordedAt);
-
-        boolean vitalsDue = lastVitals.isEmpty() || lastVitals.get().isBefore(overdueThreshold);
-
-        long medsDue = prescriptionRepository
-            .findByPatient_IdAndHospital_Id(patient.getId(), hospitalId)
-            .stream()
-            .filter(rx -> ACTIVE_RX_STATUSES.contains(rx.getStatus()))
-            .filter(rx -> !STATUS_COMPLETED.equals(resolveMarStatus(rx, now)))
-            .count();
-
         Department department = JpaProxyUtils.safeInit(
             a.getDepartment(), ADMISSION_OWNER, admissionId, ASSOCIATION_DEPARTMENT);
         Staff admittingProvider = JpaProxyUtils.safeInit(
@@ -1071,7 +1169,7 @@ public class NurseTaskServiceImpl implements NurseTaskService {
             .departmentName(departmentName)
             .attendingDoctor(attendingDoctor)
             .admittedAt(a.getAdmissionDateTime())
-            .lastVitalsTime(lastVitals.orElse(null))
+            .lastVitalsTime(lastVitals)
             .vitalsDue(vitalsDue)
             .medsDue(medsDue)
             .build();
@@ -1216,6 +1314,7 @@ public class NurseTaskServiceImpl implements NurseTaskService {
                 log.info("Encounter {} transitioned TRIAGE → WAITING_FOR_PHYSICIAN after vitals", encounter.getId());
             });
 
+        nurseBoardCache.boardChanged(hospitalId, patientId, BOARD_CHANGE_VITALS);
         log.info("Vitals captured: patientId={}, nurse={}, significant={}", patientId, nurseUserId, clinicallySig);
     }
 
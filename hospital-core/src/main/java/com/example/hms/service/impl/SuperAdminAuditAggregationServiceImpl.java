@@ -2,6 +2,7 @@ package com.example.hms.service.impl;
 
 import com.example.hms.enums.AuditEventType;
 import com.example.hms.enums.AuditSource;
+import com.example.hms.exception.BadRequestException;
 import com.example.hms.model.AuditEventLog;
 import com.example.hms.model.FrontendAuditEvent;
 import com.example.hms.model.PermissionMatrixAuditEvent;
@@ -11,52 +12,75 @@ import com.example.hms.repository.AuditEventLogRepository;
 import com.example.hms.repository.FrontendAuditEventRepository;
 import com.example.hms.repository.PermissionMatrixAuditEventRepository;
 import com.example.hms.service.SuperAdminAuditAggregationService;
+import com.example.hms.utility.BoundedTtlCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
 
 /**
  * MVP-8c — cross-source audit aggregation.
  *
- * <p>Strategy: for the requested page (offset {@code o}, size {@code s})
- * the worst case is that all {@code o + s} entries come from a single
- * source, so we fetch the top {@code o + s} rows from each requested
- * source, normalise them to {@link AggregatedAuditEventDTO}, merge by
- * timestamp DESC, then drop the first {@code o} entries and take
- * {@code s}. Per-source row caps prevent runaway queries.
+ * <p>Strategy: keyset pagination on {@code (timestamp, id)}. Each requested
+ * source is read as a stream of rows ordered {@code timestamp DESC, id DESC}
+ * starting strictly after the cursor (the last row of the previous page),
+ * in chunks of {@code pageSize + 1}; the streams are merged lazily with a
+ * k-way heap merge and the merge stops after {@code pageSize + 1} rows —
+ * the extra row only says whether a next page exists. A page therefore
+ * costs at most three index range scans of {@code pageSize + 1} rows and
+ * no in-memory sort, however deep it is. The cursor of the next page is
+ * returned as {@link AggregatedAuditPageDTO#nextCursor()}. Pages after the
+ * first use each repository's native row-value keyset query.
+ *
+ * <p>Page-number requests without a cursor still work for old clients:
+ * the merge skips {@code page * size} rows (streamed, never sorted), up to
+ * {@link #MAX_OFFSET_WITHOUT_CURSOR}. Each source's first fetch is sized
+ * {@code skip + pageSize + 1} so the skip costs one query per source, not
+ * one per {@code pageSize + 1} rows skipped.
  *
  * <p>Total elements is the sum of per-source counts under the same
- * date filter — exact for pagination math, no extra heap-merge cost.
+ * filter, cached per filter for {@link #COUNT_CACHE_TTL} — an
+ * approximate figure for the pager, not re-counted on every page turn.
  */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class SuperAdminAuditAggregationServiceImpl implements SuperAdminAuditAggregationService {
 
-    /** Hard cap per source so a wide-open page request can't materialise millions of rows. */
-    private static final int PER_SOURCE_HARD_CAP = 5_000;
-
     /**
      * Page-size ceiling — clamps user-supplied {@code pageable.pageSize}
-     * before any arithmetic. Aligned with {@link #PER_SOURCE_HARD_CAP}
-     * so {@code offset + pageSize} for a deep page (pageNumber = cap-1)
-     * stays representable as an int. Copilot review fix.
+     * before any arithmetic.
+     */
+    private static final int MAX_PAGE_SIZE = 5_000;
+
+    /**
+     * Deepest offset served to page-number (cursor-less) requests. Deeper
+     * pages return empty content; clients follow {@code nextCursor}.
      */
-    private static final int MAX_PAGE_SIZE = PER_SOURCE_HARD_CAP;
+    static final long MAX_OFFSET_WITHOUT_CURSOR = 5_000;
+
+    private static final Duration COUNT_CACHE_TTL = Duration.ofSeconds(60);
+    private static final int COUNT_CACHE_MAX_ENTRIES = 512;
 
     /**
      * MVP-c3 — event types that count as platform configuration. The
@@ -77,38 +101,63 @@ public class SuperAdminAuditAggregationServiceImpl implements SuperAdminAuditAgg
         AuditEventType.REGION_POLICY_UPDATED
     );
 
+    /** {@link #PLATFORM_CONFIG_EVENT_TYPES} as stored, for the native keyset queries. */
+    private static final List<String> PLATFORM_CONFIG_EVENT_TYPE_NAMES = PLATFORM_CONFIG_EVENT_TYPES.stream()
+        .map(AuditEventType::name)
+        .toList();
+
+    /**
+     * Merge order: timestamp DESC, then id DESC. Ids compare as unsigned
+     * 128-bit values — the order PostgreSQL (and H2) use for {@code uuid},
+     * so the merge agrees with the per-source {@code id < :afterId}
+     * predicate. Rows without a timestamp sort last.
+     */
+    static final Comparator<AggregatedAuditEventDTO> MERGE_ORDER = Comparator
+        .comparing(AggregatedAuditEventDTO::timestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(AggregatedAuditEventDTO::id,
+            Comparator.nullsLast((UUID a, UUID b) -> compareUuidUnsigned(b, a)));
+
     private final AuditEventLogRepository auditEventLogRepository;
     private final FrontendAuditEventRepository frontendAuditEventRepository;
     private final PermissionMatrixAuditEventRepository permissionMatrixAuditEventRepository;
 
+    private final BoundedTtlCache<CountKey, Long> countCache =
+        new BoundedTtlCache<>(COUNT_CACHE_MAX_ENTRIES, COUNT_CACHE_TTL);
+
     @Override
     public AggregatedAuditPageDTO searchAggregated(
         Set<AuditSource> sources,
         LocalDateTime fromDate,
         LocalDateTime toDate,
+        String cursor,
         Pageable pageable
     ) {
-        // Sonar fix — the prior single-method implementation came in at
-        // cognitive complexity 21. Per-source fetches are now extracted
-        // into helpers so the main method stays a thin orchestrator.
         Set<AuditSource> effectiveSources = effectiveSources(sources);
         int pageNumber = Math.max(0, pageable.getPageNumber());
         int pageSize = Math.clamp(pageable.getPageSize(), 1, MAX_PAGE_SIZE);
-        long offset = (long) pageNumber * pageSize;
-        int perSourceLimit = (int) Math.min(offset + pageSize, (long) PER_SOURCE_HARD_CAP);
-
-        List<AggregatedAuditEventDTO> merged = new ArrayList<>();
-        long totalElements = 0L;
-        totalElements += fetchAuditEventLogRows(effectiveSources, fromDate, toDate, perSourceLimit, merged);
-        totalElements += fetchFrontendRows(effectiveSources, fromDate, toDate, perSourceLimit, merged);
-        totalElements += fetchPermissionMatrixRows(effectiveSources, fromDate, toDate, perSourceLimit, merged);
+        Cursor after = Cursor.decode(cursor);
+        long skip = after == null ? (long) pageNumber * pageSize : 0L;
+        long totalElements = cachedTotal(effectiveSources, fromDate, toDate);
 
-        // Merge sort by timestamp DESC, nulls last so a row with a
-        // missing timestamp doesn't poison the head of the page.
-        merged.sort(Comparator.comparing(AggregatedAuditEventDTO::timestamp,
-            Comparator.nullsLast(Comparator.reverseOrder())));
+        if (skip > MAX_OFFSET_WITHOUT_CURSOR) {
+            return page(List.of(), null, totalElements, pageNumber, pageSize);
+        }
 
-        return slice(merged, totalElements, pageNumber, pageSize, offset);
+        // Every source may have to supply all the skipped rows plus the page.
+        int firstChunkSize = (int) (Math.min(skip, MAX_OFFSET_WITHOUT_CURSOR) + pageSize + 1);
+        KWayMerge merge = new KWayMerge(
+            openStreams(effectiveSources, fromDate, toDate, after, firstChunkSize, pageSize + 1));
+        for (long i = 0; i < skip && merge.hasNext(); i++) {
+            merge.next();
+        }
+        List<AggregatedAuditEventDTO> content = new ArrayList<>(Math.min(pageSize, 256));
+        while (content.size() < pageSize && merge.hasNext()) {
+            content.add(merge.next());
+        }
+        String nextCursor = merge.hasNext() && !content.isEmpty()
+            ? Cursor.encode(content.get(content.size() - 1))
+            : null;
+        return page(content, nextCursor, totalElements, pageNumber, pageSize);
     }
 
     private static Set<AuditSource> effectiveSources(Set<AuditSource> sources) {
@@ -117,6 +166,54 @@ public class SuperAdminAuditAggregationServiceImpl implements SuperAdminAuditAgg
             : EnumSet.copyOf(sources);
     }
 
+    private static AggregatedAuditPageDTO page(
+        List<AggregatedAuditEventDTO> content, String nextCursor, long totalElements,
+        int pageNumber, int pageSize
+    ) {
+        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
+        return AggregatedAuditPageDTO.builder()
+            .content(List.copyOf(content))
+            .pageNumber(pageNumber)
+            .pageSize(pageSize)
+            .totalElements(totalElements)
+            .totalPages(totalPages)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    // ── per-source keyset streams ───────────────────────────────────────
+
+    private List<SourceStream> openStreams(
+        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate,
+        Cursor after, int firstChunkSize, int chunkSize
+    ) {
+        List<SourceStream> streams = new ArrayList<>(3);
+        KeysetFetcher auditLog = auditEventLogFetcher(effectiveSources, fromDate, toDate);
+        if (auditLog != null) {
+            streams.add(new SourceStream(auditLog, after, firstChunkSize, chunkSize));
+        }
+        if (effectiveSources.contains(AuditSource.FRONTEND)) {
+            streams.add(new SourceStream((afterTs, afterId, limit) -> (afterTs == null
+                ? frontendAuditEventRepository.findKeysetFirstPage(fromDate, toDate, PageRequest.of(0, limit))
+                : frontendAuditEventRepository.findKeysetNextPage(fromDate, toDate, afterTs, afterId, limit))
+                .stream().map(this::toDto).toList(), after, firstChunkSize, chunkSize));
+        }
+        if (effectiveSources.contains(AuditSource.PERMISSION_MATRIX)) {
+            // PermissionMatrixAuditEvent.createdAt is an Instant; convert
+            // the LocalDateTime bounds (and cursor) to UTC for a
+            // consistent comparison.
+            Instant fromInstant = toUtcInstant(fromDate);
+            Instant toInstant = toUtcInstant(toDate);
+            streams.add(new SourceStream((afterTs, afterId, limit) -> (afterTs == null
+                ? permissionMatrixAuditEventRepository.findKeysetFirstPage(fromInstant, toInstant,
+                    PageRequest.of(0, limit))
+                : permissionMatrixAuditEventRepository.findKeysetNextPage(fromInstant, toInstant,
+                    toUtcInstant(afterTs), afterId, limit))
+                .stream().map(this::toDto).toList(), after, firstChunkSize, chunkSize));
+        }
+        return streams;
+    }
+
     /**
      * SUPPORT and PLATFORM_CONFIG share the audit_event_logs table —
      * the split is by eventType so a single row never appears under
@@ -125,92 +222,218 @@ public class SuperAdminAuditAggregationServiceImpl implements SuperAdminAuditAgg
      *   - SUPPORT only: query everything NOT in the platform-config set
      *   - PLATFORM_CONFIG only: query everything IN the platform-config set
      */
-    private long fetchAuditEventLogRows(
-        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate,
-        int perSourceLimit, List<AggregatedAuditEventDTO> merged
+    private KeysetFetcher auditEventLogFetcher(
+        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate
     ) {
         boolean wantSupport = effectiveSources.contains(AuditSource.SUPPORT);
         boolean wantPlatformConfig = effectiveSources.contains(AuditSource.PLATFORM_CONFIG);
-        if (!wantSupport && !wantPlatformConfig) {
-            return 0L;
+        if (wantSupport && wantPlatformConfig) {
+            return (afterTs, afterId, limit) -> toDtos(afterTs == null
+                ? auditEventLogRepository.findKeysetFirstPage(fromDate, toDate, PageRequest.of(0, limit))
+                : auditEventLogRows(auditEventLogRepository
+                    .findKeysetNextIds(fromDate, toDate, afterTs, afterId, limit)));
+        }
+        if (wantPlatformConfig) {
+            return (afterTs, afterId, limit) -> toDtos(afterTs == null
+                ? auditEventLogRepository.findKeysetFirstPageByEventTypeIn(fromDate, toDate,
+                    PLATFORM_CONFIG_EVENT_TYPES, PageRequest.of(0, limit))
+                : auditEventLogRows(auditEventLogRepository.findKeysetNextIdsByEventTypeIn(fromDate, toDate,
+                    PLATFORM_CONFIG_EVENT_TYPE_NAMES, afterTs, afterId, limit)));
         }
-        Pageable supportPage = PageRequest.of(0, perSourceLimit,
-            Sort.by(Sort.Direction.DESC, "eventTimestamp"));
-        Page<AuditEventLog> page = queryAuditEventLog(
-            wantSupport, wantPlatformConfig, fromDate, toDate, supportPage);
-        for (AuditEventLog row : page.getContent()) {
-            merged.add(toDto(row));
+        if (wantSupport) {
+            return (afterTs, afterId, limit) -> toDtos(afterTs == null
+                ? auditEventLogRepository.findKeysetFirstPageByEventTypeNotIn(fromDate, toDate,
+                    PLATFORM_CONFIG_EVENT_TYPES, PageRequest.of(0, limit))
+                : auditEventLogRows(auditEventLogRepository.findKeysetNextIdsByEventTypeNotIn(fromDate, toDate,
+                    PLATFORM_CONFIG_EVENT_TYPE_NAMES, afterTs, afterId, limit)));
+        }
+        return null;
+    }
+
+    /** Loads a keyset id page and puts the rows back in the page's order. */
+    private List<AuditEventLog> auditEventLogRows(List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, AuditEventLog> byId = new HashMap<>(ids.size() * 2);
+        for (AuditEventLog row : auditEventLogRepository.findAllWithAssignmentByIdIn(ids)) {
+            byId.put(row.getId(), row);
+        }
+        List<AuditEventLog> rows = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            AuditEventLog row = byId.get(id);
+            if (row != null) rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<AggregatedAuditEventDTO> toDtos(List<AuditEventLog> rows) {
+        return rows.stream().map(this::toDto).toList();
+    }
+
+    // ── cached totals ───────────────────────────────────────────────────
+
+    private long cachedTotal(Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate) {
+        CountKey key = new CountKey(effectiveSources, fromDate, toDate);
+        Long cached = countCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
         }
-        return Math.min(page.getTotalElements(), (long) PER_SOURCE_HARD_CAP);
+        return countCache.load(key, () -> countAuditEventLogRows(effectiveSources, fromDate, toDate)
+            + countFrontendRows(effectiveSources, fromDate, toDate)
+            + countPermissionMatrixRows(effectiveSources, fromDate, toDate));
     }
 
-    private Page<AuditEventLog> queryAuditEventLog(
-        boolean wantSupport, boolean wantPlatformConfig,
-        LocalDateTime fromDate, LocalDateTime toDate, Pageable supportPage
+    private long countAuditEventLogRows(
+        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate
     ) {
+        boolean wantSupport = effectiveSources.contains(AuditSource.SUPPORT);
+        boolean wantPlatformConfig = effectiveSources.contains(AuditSource.PLATFORM_CONFIG);
         if (wantSupport && wantPlatformConfig) {
-            return auditEventLogRepository.findByDateRange(fromDate, toDate, supportPage);
+            return auditEventLogRepository.countInDateRange(fromDate, toDate);
         }
         if (wantPlatformConfig) {
-            return auditEventLogRepository.findByDateRangeAndEventTypeIn(
-                fromDate, toDate, PLATFORM_CONFIG_EVENT_TYPES, supportPage);
+            return auditEventLogRepository.countInDateRangeByEventTypeIn(
+                fromDate, toDate, PLATFORM_CONFIG_EVENT_TYPES);
+        }
+        if (wantSupport) {
+            return auditEventLogRepository.countInDateRangeByEventTypeNotIn(
+                fromDate, toDate, PLATFORM_CONFIG_EVENT_TYPES);
         }
-        return auditEventLogRepository.findByDateRangeAndEventTypeNotIn(
-            fromDate, toDate, PLATFORM_CONFIG_EVENT_TYPES, supportPage);
+        return 0L;
     }
 
-    private long fetchFrontendRows(
-        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate,
-        int perSourceLimit, List<AggregatedAuditEventDTO> merged
+    private long countFrontendRows(
+        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate
     ) {
         if (!effectiveSources.contains(AuditSource.FRONTEND)) {
             return 0L;
         }
-        Pageable feLimit = PageRequest.of(0, perSourceLimit);
-        for (FrontendAuditEvent row : frontendAuditEventRepository
-            .findInDateRangeOrdered(fromDate, toDate, feLimit)) {
-            merged.add(toDto(row));
-        }
-        long sourceCount = frontendAuditEventRepository.countInDateRange(fromDate, toDate);
-        return Math.min(sourceCount, (long) PER_SOURCE_HARD_CAP);
+        return frontendAuditEventRepository.countInDateRange(fromDate, toDate);
     }
 
-    private long fetchPermissionMatrixRows(
-        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate,
-        int perSourceLimit, List<AggregatedAuditEventDTO> merged
+    private long countPermissionMatrixRows(
+        Set<AuditSource> effectiveSources, LocalDateTime fromDate, LocalDateTime toDate
     ) {
         if (!effectiveSources.contains(AuditSource.PERMISSION_MATRIX)) {
             return 0L;
         }
-        // PermissionMatrixAuditEvent.createdAt is an Instant; convert
-        // the LocalDateTime bounds to UTC for a consistent comparison.
-        Instant fromInstant = fromDate == null ? null : fromDate.toInstant(ZoneOffset.UTC);
-        Instant toInstant = toDate == null ? null : toDate.toInstant(ZoneOffset.UTC);
-        Pageable pmLimit = PageRequest.of(0, perSourceLimit);
-        for (PermissionMatrixAuditEvent row : permissionMatrixAuditEventRepository
-            .findInDateRangeOrdered(fromInstant, toInstant, pmLimit)) {
-            merged.add(toDto(row));
+        return permissionMatrixAuditEventRepository.countInDateRange(
+            toUtcInstant(fromDate), toUtcInstant(toDate));
+    }
+
+    private static Instant toUtcInstant(LocalDateTime value) {
+        return value == null ? null : value.toInstant(ZoneOffset.UTC);
+    }
+
+    static int compareUuidUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private record CountKey(Set<AuditSource> sources, LocalDateTime fromDate, LocalDateTime toDate) { }
+
+    /** One keyset page of a source, mapped: rows strictly after {@code (afterTs, afterId)}; null = first page. */
+    @FunctionalInterface
+    private interface KeysetFetcher {
+        List<AggregatedAuditEventDTO> fetch(LocalDateTime afterTs, UUID afterId, int limit);
+    }
+
+    /**
+     * A source read lazily in keyset chunks. The next chunk starts after
+     * the last row of the previous one and is only fetched once that
+     * chunk is consumed, and never after a short chunk. The first chunk
+     * may be larger, to cover a cursor-less skip in one query.
+     */
+    private static final class SourceStream {
+        private final KeysetFetcher fetcher;
+        private final int chunkSize;
+        private int nextChunkSize;
+        private LocalDateTime afterTs;
+        private UUID afterId;
+        private Iterator<AggregatedAuditEventDTO> buffer = Collections.emptyIterator();
+        private boolean exhausted;
+
+        SourceStream(KeysetFetcher fetcher, Cursor start, int firstChunkSize, int chunkSize) {
+            this.fetcher = fetcher;
+            this.chunkSize = chunkSize;
+            this.nextChunkSize = firstChunkSize;
+            this.afterTs = start == null ? null : start.timestamp();
+            this.afterId = start == null ? null : start.id();
+        }
+
+        AggregatedAuditEventDTO next() {
+            if (!buffer.hasNext()) {
+                if (exhausted) return null;
+                List<AggregatedAuditEventDTO> chunk = fetcher.fetch(afterTs, afterId, nextChunkSize);
+                exhausted = chunk.size() < nextChunkSize;
+                nextChunkSize = chunkSize;
+                if (chunk.isEmpty()) return null;
+                AggregatedAuditEventDTO last = chunk.get(chunk.size() - 1);
+                if (last.timestamp() == null) {
+                    exhausted = true; // cannot key past a row without a timestamp
+                } else {
+                    afterTs = last.timestamp();
+                    afterId = last.id();
+                }
+                buffer = chunk.iterator();
+            }
+            return buffer.next();
         }
-        long sourceCount = permissionMatrixAuditEventRepository.countInDateRange(fromInstant, toInstant);
-        return Math.min(sourceCount, (long) PER_SOURCE_HARD_CAP);
     }
 
-    private static AggregatedAuditPageDTO slice(
-        List<AggregatedAuditEventDTO> merged, long totalElements,
-        int pageNumber, int pageSize, long offset
-    ) {
-        // Cast to int is safe because offset is bounded by pageNumber * MAX_PAGE_SIZE.
-        int fromIdx = (int) Math.min(offset, (long) merged.size());
-        int toIdx = (int) Math.min(offset + pageSize, (long) merged.size());
-        List<AggregatedAuditEventDTO> pageContent = merged.subList(fromIdx, toIdx);
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
-        return AggregatedAuditPageDTO.builder()
-            .content(List.copyOf(pageContent))
-            .pageNumber(pageNumber)
-            .pageSize(pageSize)
-            .totalElements(totalElements)
-            .totalPages(totalPages)
-            .build();
+    /** Lazy k-way merge of per-source streams, each already in {@link #MERGE_ORDER}. */
+    private static final class KWayMerge {
+        private record Head(AggregatedAuditEventDTO row, SourceStream stream) { }
+
+        private final PriorityQueue<Head> heads =
+            new PriorityQueue<>(Comparator.comparing(Head::row, MERGE_ORDER));
+
+        KWayMerge(List<SourceStream> streams) {
+            for (SourceStream stream : streams) {
+                advance(stream);
+            }
+        }
+
+        boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        AggregatedAuditEventDTO next() {
+            Head head = heads.poll();
+            advance(head.stream());
+            return head.row();
+        }
+
+        private void advance(SourceStream stream) {
+            AggregatedAuditEventDTO row = stream.next();
+            if (row != null) heads.add(new Head(row, stream));
+        }
+    }
+
+    /**
+     * Opaque page cursor: base64url of {@code <timestamp>|<id>} of the last
+     * row shown. Only meaningful with the filter it was issued for.
+     */
+    record Cursor(LocalDateTime timestamp, UUID id) {
+
+        static String encode(AggregatedAuditEventDTO last) {
+            if (last.timestamp() == null || last.id() == null) return null;
+            String raw = last.timestamp() + "|" + last.id();
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                if (sep < 0) throw new IllegalArgumentException("missing separator");
+                return new Cursor(LocalDateTime.parse(raw.substring(0, sep)),
+                    UUID.fromString(raw.substring(sep + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw new BadRequestException("Invalid audit page cursor");
+            }
+        }
     }
 
     // ── per-source mappers ──────────────────────────────────────────────
@@ -1,6 +1,7 @@
 package com.example.hms.service.integration;
 
 import com.example.hms.enums.InstrumentOutboxStatus;
+import com.example.hms.hl7.mllp.MllpConnectionPool.Destination;
 import com.example.hms.hl7.mllp.MllpOutboundProperties;
 import com.example.hms.hl7.mllp.MllpOutboundSender;
 import com.example.hms.model.InstrumentOutbox;
@@ -9,10 +10,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Transmits queued HL7 messages to the instrument interface (P2 #17).
@@ -25,6 +30,13 @@ import java.util.List;
  *
  * <p>The inbound half was complete (MllpTcpServer, MllpFrameCodec, an
  * allowed-senders allowlist). This is the mirror.
+ *
+ * <p>No transaction is held across the network. The batch is read and sent
+ * with one worker per destination (messages to the same analyser keep
+ * their queue order); each row's new state is saved in its own short
+ * transaction as soon as its own send returns. A slow analyser delays its
+ * own messages only, and a crash mid-sweep re-sends only the message that
+ * was in flight, not every message acknowledged before it.
  */
 @Service
 @RequiredArgsConstructor
@@ -40,7 +52,6 @@ public class InstrumentOutboxDispatchService {
      *
      * @return how many were acknowledged
      */
-    @Transactional
     public int dispatchPending() {
         if (!properties.isEnabled()) {
             // Off by default. Saying so once per sweep at DEBUG rather than
@@ -57,28 +68,73 @@ public class InstrumentOutboxDispatchService {
             properties.getMaxAttempts(),
             retryBefore,
             PageRequest.of(0, properties.getBatchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Destination, List<InstrumentOutbox>> byDestination = new LinkedHashMap<>();
+        for (InstrumentOutbox message : batch) {
+            byDestination.computeIfAbsent(sender.destinationFor(message.getPayload()), d -> new ArrayList<>())
+                .add(message);
+        }
+        transmit(byDestination);
 
         int acknowledged = 0;
         for (InstrumentOutbox message : batch) {
-            if (dispatchOne(message)) {
+            if (message.getStatus() == InstrumentOutboxStatus.ACK) {
                 acknowledged++;
             }
         }
         return acknowledged;
     }
 
-    private boolean dispatchOne(InstrumentOutbox message) {
+    private void transmit(Map<Destination, List<InstrumentOutbox>> byDestination) {
+        int workers = Math.min(byDestination.size(), Math.max(1, properties.getDispatchParallelism()));
+        if (workers <= 1) {
+            byDestination.forEach(this::sendInOrder);
+            return;
+        }
+        // Workers block on socket reads, so virtual threads; the fixed pool
+        // only caps how many analysers are talked to at once.
+        try (ExecutorService executor = Executors.newFixedThreadPool(
+                workers, Thread.ofVirtual().name("mllp-outbound-", 0).factory())) {
+            byDestination.forEach((destination, messages) ->
+                executor.execute(() -> sendInOrder(destination, messages)));
+        }
+    }
+
+    private void sendInOrder(Destination destination, List<InstrumentOutbox> messages) {
+        for (InstrumentOutbox message : messages) {
+            dispatchOne(destination, message);
+            record(message);
+        }
+    }
+
+    /**
+     * Persist one message's outcome right after its send. A failed write
+     * leaves the row PENDING, so the next sweep re-sends it — a duplicate
+     * the receiver's MSH-10 check absorbs, never a lost message.
+     */
+    private void record(InstrumentOutbox message) {
+        try {
+            outboxRepository.save(message);
+        } catch (RuntimeException ex) {
+            log.warn("Instrument outbox {} sent but its {} state was not saved: {}",
+                message.getId(), message.getStatus(), ex.getMessage());
+        }
+    }
+
+    private boolean dispatchOne(Destination destination, InstrumentOutbox message) {
         message.setAttempts(message.getAttempts() + 1);
         message.setLastAttemptAt(LocalDateTime.now());
 
         try {
-            String ack = sender.send(message.getPayload());
+            String ack = sender.send(destination, message.getPayload());
 
             if (sender.isPositiveAck(ack)) {
                 message.setStatus(InstrumentOutboxStatus.ACK);
                 message.setSentAt(LocalDateTime.now());
                 message.setLastError(null);
-                outboxRepository.save(message);
                 return true;
             }
 
@@ -87,7 +143,6 @@ public class InstrumentOutboxDispatchService {
             // so this is terminal rather than backed off.
             message.setStatus(InstrumentOutboxStatus.ERROR);
             message.setLastError(truncate("Negative acknowledgement: " + ack));
-            outboxRepository.save(message);
             log.warn("Instrument outbox {} rejected by receiver: {}", message.getId(), ack);
             return false;
 
@@ -103,7 +158,6 @@ public class InstrumentOutboxDispatchService {
                 log.warn("Instrument outbox {} attempt {} failed, will retry: {}",
                     message.getId(), message.getAttempts(), ex.getMessage());
             }
-            outboxRepository.save(message);
             return false;
         }
     }
@@ -3,6 +3,8 @@ package com.example.hms.service.integration;
 import com.example.hms.model.Hospital;
 import com.example.hms.utility.Hl7v2MessageBuilder.ParsedObservation;
 
+import java.util.List;
+
 public interface MllpInboundLabService {
 
     /**
@@ -29,4 +31,27 @@ public interface MllpInboundLabService {
         String messageControlId,
         String rawMessageBody
     );
+
+    /**
+     * Batch fast path for the async pipeline: resolves every frame's
+     * accession and idempotency key with one query each and inserts the
+     * clean first-time results with one JDBC batch, all in one transaction.
+     *
+     * <p>Returns one outcome per frame, in order. A {@code null} entry means
+     * the frame was not settled here — invalid, unknown accession,
+     * cross-tenant, or a replay — and the caller must settle it through
+     * {@link #processOruR01}, which records the rejection exactly as the
+     * synchronous path does.
+     */
+    List<MllpInboundOutcome> processOruR01Batch(List<OruFrame> frames);
+
+    /** One parsed ORU^R01 frame for {@link #processOruR01Batch}; same fields as {@link #processOruR01}. */
+    record OruFrame(
+        ParsedObservation observation,
+        Hospital receivingHospital,
+        String sendingApplication,
+        String sendingFacility,
+        String messageControlId,
+        String rawMessageBody
+    ) {}
 }
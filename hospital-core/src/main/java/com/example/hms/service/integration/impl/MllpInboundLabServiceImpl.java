@@ -20,12 +20,22 @@ import com.example.hms.service.integration.message.IntegrationMessageRecorder;
 import com.example.hms.utility.Hl7v2MessageBuilder.ParsedObservation;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -42,6 +52,9 @@ public class MllpInboundLabServiceImpl implements MllpInboundLabService {
     // Last so existing positional constructor calls in tests only append.
     private final com.example.hms.service.CriticalValueNotificationService criticalValueNotificationService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional
     public MllpInboundOutcome processOruR01(ParsedObservation observation,
@@ -125,7 +138,111 @@ public class MllpInboundLabServiceImpl implements MllpInboundLabService {
             return MllpInboundOutcome.REJECTED_CROSS_TENANT;
         }
 
-        LabResult result = LabResult.builder()
+        LabResult saved = labResultRepository.save(newResult(
+            order, observation, sendingApplication, sendingFacility, senderApp, senderFac, controlId));
+        afterPersist(saved, placer, sendingApplication, sendingFacility, hospitalId, organizationId,
+            integrationId, controlId, rawMessageBody);
+        return MllpInboundOutcome.ACCEPTED;
+    }
+
+    @Override
+    @Transactional
+    public List<MllpInboundOutcome> processOruR01Batch(List<OruFrame> frames) {
+        List<MllpInboundOutcome> outcomes = new ArrayList<>(Collections.nCopies(frames.size(), null));
+        Set<String> placers = new HashSet<>();
+        Set<String> controlIds = new HashSet<>();
+        for (OruFrame frame : frames) {
+            if (!isBatchable(frame)) continue;
+            placers.add(frame.observation().placerOrderNumber().trim());
+            controlIds.add(frame.messageControlId().trim());
+        }
+        if (placers.isEmpty()) return outcomes;
+
+        Map<String, LabSpecimen> specimens = new HashMap<>(placers.size() * 2);
+        for (LabSpecimen specimen : specimenRepository.findWithOrderByAccessionNumberIn(placers)) {
+            specimens.put(specimen.getAccessionNumber(), specimen);
+        }
+        Set<List<String>> seenKeys = new HashSet<>();
+        for (Object[] key : labResultRepository.findSourceKeysByMessageControlIdIn(controlIds)) {
+            seenKeys.add(List.of((String) key[0], (String) key[1], (String) key[2]));
+        }
+
+        List<LabResult> results = new ArrayList<>();
+        List<Integer> settledIndexes = new ArrayList<>();
+        for (int i = 0; i < frames.size(); i++) {
+            OruFrame frame = frames.get(i);
+            if (!isBatchable(frame)) continue;
+            String senderApp = frame.sendingApplication().trim();
+            String senderFac = frame.sendingFacility().trim();
+            String controlId = frame.messageControlId().trim();
+            // Replays, and a repeat of an earlier frame in this batch, take
+            // the single path so they are acknowledged without a second row.
+            if (!seenKeys.add(List.of(senderApp, senderFac, controlId))) continue;
+            LabSpecimen specimen = specimens.get(frame.observation().placerOrderNumber().trim());
+            LabOrder order = specimen == null ? null : specimen.getLabOrder();
+            if (order == null || order.getHospital() == null
+                || !Objects.equals(order.getHospital().getId(), frame.receivingHospital().getId())) {
+                continue;
+            }
+            results.add(newResult(order, frame.observation(), frame.sendingApplication(),
+                frame.sendingFacility(), senderApp, senderFac, controlId));
+            settledIndexes.add(i);
+        }
+        if (results.isEmpty()) return outcomes;
+
+        List<LabResult> saved = saveBatch(results);
+        for (int k = 0; k < settledIndexes.size(); k++) {
+            int index = settledIndexes.get(k);
+            OruFrame frame = frames.get(index);
+            Hospital hospital = frame.receivingHospital();
+            afterPersist(saved.get(k), frame.observation().placerOrderNumber().trim(),
+                frame.sendingApplication(), frame.sendingFacility(), hospital.getId(),
+                hospital.getOrganization() != null ? hospital.getOrganization().getId() : null,
+                buildIntegrationId(frame.sendingApplication(), frame.sendingFacility()),
+                frame.messageControlId().trim(), frame.rawMessageBody());
+            outcomes.set(index, MllpInboundOutcome.ACCEPTED);
+        }
+        return outcomes;
+    }
+
+    /**
+     * A frame the batch path may settle: everything {@link #processOruR01}
+     * validates up front, plus a full idempotency key (a keyless frame
+     * cannot be deduplicated against the rest of the batch).
+     */
+    private boolean isBatchable(OruFrame frame) {
+        return frame != null
+            && frame.observation() != null
+            && StringUtils.hasText(frame.observation().placerOrderNumber())
+            && StringUtils.hasText(frame.observation().resultValue())
+            && frame.receivingHospital() != null
+            && frame.receivingHospital().getId() != null
+            && StringUtils.hasText(frame.sendingApplication())
+            && StringUtils.hasText(frame.sendingFacility())
+            && StringUtils.hasText(frame.messageControlId());
+    }
+
+    /** One JDBC batch for the whole settlement batch, like the bulk role-assignment importer. */
+    private List<LabResult> saveBatch(List<LabResult> results) {
+        if (entityManager == null) {
+            return labResultRepository.saveAll(results);
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(results.size());
+        try {
+            List<LabResult> saved = labResultRepository.saveAll(results);
+            entityManager.flush();
+            return saved;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    private LabResult newResult(LabOrder order, ParsedObservation observation,
+                                String sendingApplication, String sendingFacility,
+                                String senderApp, String senderFac, String controlId) {
+        return LabResult.builder()
             .labOrder(order)
             .assignment(null)
             .actorType(ActorType.SYSTEM)
@@ -138,9 +255,13 @@ public class MllpInboundLabServiceImpl implements MllpInboundLabService {
             .sourceSendingFacility(senderFac)
             .sourceMessageControlId(controlId)
             .build();
-        LabResult saved = labResultRepository.save(result);
+    }
+
+    private void afterPersist(LabResult saved, String placer, String sendingApplication, String sendingFacility,
+                              UUID hospitalId, UUID organizationId, String integrationId,
+                              String controlId, String rawMessageBody) {
         log.info("MLLP ORU^R01 persisted — labResult={} order={} placer={} sender={}/{} hospital={} msgCtrlId={}",
-            saved.getId(), order.getId(), placer,
+            saved.getId(), saved.getLabOrder().getId(), placer,
             sendingApplication, sendingFacility, hospitalId, controlId);
         recordInboundMessage(integrationId, organizationId, rawMessageBody,
             IntegrationMessageStatus.RECEIVED, null);
@@ -148,7 +269,6 @@ public class MllpInboundLabServiceImpl implements MllpInboundLabService {
         // P0 #5 — analyzer-reported criticals (HL7 abnormal flag) notify the
         // ordering provider; never rolls back the ingest.
         criticalValueNotificationService.notifyIfCritical(saved);
-        return MllpInboundOutcome.ACCEPTED;
     }
 
     /**
@@ -27,10 +27,8 @@ import com.example.hms.repository.RefillRequestRepository;
 import com.example.hms.repository.UserRepository;
 import com.example.hms.repository.MedicationCatalogItemRepository;
 import com.example.hms.repository.pharmacy.DispenseRepository;
-import com.example.hms.repository.pharmacy.InventoryItemRepository;
 import com.example.hms.repository.pharmacy.PharmacyRepository;
 import com.example.hms.repository.pharmacy.StockLotRepository;
-import com.example.hms.repository.pharmacy.StockTransactionRepository;
 import com.example.hms.utility.RoleValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -60,8 +58,7 @@ public class DispenseServiceImpl implements DispenseService {
     private final PatientRepository patientRepository;
     private final PharmacyRepository pharmacyRepository;
     private final StockLotRepository stockLotRepository;
-    private final InventoryItemRepository inventoryItemRepository;
-    private final StockTransactionRepository stockTransactionRepository;
+    private final StockLedger stockLedger;
     private final UserRepository userRepository;
     private final MedicationCatalogItemRepository medicationCatalogItemRepository;
     private final RefillRequestRepository refillRequestRepository;
@@ -323,30 +320,19 @@ public class DispenseServiceImpl implements DispenseService {
             throw new BusinessException("Stock lot does not belong to the selected pharmacy");
         }
 
+        // Conditional UPDATEs: the availability check and the decrement are
+        // one statement per row, so concurrent dispenses cannot oversell.
         BigDecimal requested = dto.getQuantityDispensed();
-        if (stockLot.getRemainingQuantity().compareTo(requested) < 0) {
-            throw new BusinessException("Insufficient lot stock: "
-                    + stockLot.getRemainingQuantity() + " remaining, requested " + requested);
-        }
-
-        stockLot.setRemainingQuantity(stockLot.getRemainingQuantity().subtract(requested));
-        stockLotRepository.save(stockLot);
+        stockLedger.withdraw(stockLot, requested);
 
-        if (inventoryItem.getQuantityOnHand().compareTo(requested) < 0) {
-            throw new BusinessException("Insufficient inventory stock");
-        }
-        inventoryItem.setQuantityOnHand(inventoryItem.getQuantityOnHand().subtract(requested));
-        inventoryItemRepository.save(inventoryItem);
-
-        StockTransaction tx = StockTransaction.builder()
+        stockLedger.record(StockTransaction.builder()
                 .inventoryItem(inventoryItem)
                 .stockLot(stockLot)
                 .transactionType(StockTransactionType.DISPENSE)
                 .quantity(requested)
                 .reason("Dispense for prescription " + prescription.getId())
                 .performedByUser(performer)
-                .build();
-        stockTransactionRepository.save(tx);
+                .build());
         return stockLot;
     }
 
@@ -412,29 +398,26 @@ public class DispenseServiceImpl implements DispenseService {
             throw new BusinessException("Only completed or partial dispenses can be cancelled");
         }
 
+        if (dispenseRepository.markCancelled(id, LocalDateTime.now()) == 0) {
+            throw new BusinessException("Dispense is already cancelled");
+        }
         dispense.setStatus(DispenseStatus.CANCELLED);
 
         // Reverse stock if a lot was used
         if (dispense.getStockLot() != null) {
             StockLot lot = dispense.getStockLot();
-            lot.setRemainingQuantity(lot.getRemainingQuantity().add(dispense.getQuantityDispensed()));
-            stockLotRepository.save(lot);
-
-            InventoryItem item = lot.getInventoryItem();
-            item.setQuantityOnHand(item.getQuantityOnHand().add(dispense.getQuantityDispensed()));
-            inventoryItemRepository.save(item);
+            stockLedger.restore(lot, dispense.getQuantityDispensed());
 
             User performer = resolveCurrentUser();
-            StockTransaction reverseTx = StockTransaction.builder()
-                    .inventoryItem(item)
+            stockLedger.record(StockTransaction.builder()
+                    .inventoryItem(lot.getInventoryItem())
                     .stockLot(lot)
                     .transactionType(StockTransactionType.RETURN)
                     .quantity(dispense.getQuantityDispensed())
                     .reason("Dispense cancelled — stock returned for prescription "
                             + dispense.getPrescription().getId())
                     .performedByUser(performer)
-                    .build();
-            stockTransactionRepository.save(reverseTx);
+                    .build());
         }
 
         Dispense saved = dispenseRepository.save(dispense);
@@ -0,0 +1,183 @@
+package com.example.hms.service.pharmacy;
+
+import com.example.hms.enums.PharmacyType;
+import com.example.hms.model.pharmacy.InventoryItem;
+import com.example.hms.model.pharmacy.Pharmacy;
+import com.example.hms.repository.pharmacy.InventoryItemRepository;
+import com.example.hms.utility.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hospital-wide on-hand quantity per medication catalog item, summed over
+ * active {@link PharmacyType#HOSPITAL_DISPENSARY} inventory, for the
+ * order-sign stock check in {@link StockOutRoutingServiceImpl#checkStock}.
+ *
+ * <p>A miss costs one aggregate query; after that the figure is kept
+ * current from stock movements instead of being re-summed:
+ * <ul>
+ *   <li>{@link StockLedger} reports every stock movement (dispenses,
+ *       returns, receipts, manual stock transactions) as a delta, applied
+ *       once its transaction commits.</li>
+ *   <li>Any JPA write to an {@link InventoryItem} (creation, activation,
+ *       edits) drops the catalog item's entries once its transaction
+ *       completes, via {@link InventoryItemChangeListener}.</li>
+ * </ul>
+ *
+ * <p>Entries live in a {@link BoundedTtlCache}. A delta is only added to an
+ * entry whose query finished before the delta's transaction began
+ * committing; a younger entry may already include it and is dropped
+ * instead, and a load still in flight when its own entry changes is served
+ * once but not kept. Movements on other nodes, or
+ * by SQL outside these paths, show up when the TTL
+ * ({@code app.pharmacy.stock-view.*}) runs out — the view is advisory;
+ * the dispense itself is guarded by the conditional UPDATEs.
+ *
+ * <p>Metrics: {@value #METRIC_LOOKUPS}{@code {outcome=hit|loaded}}.
+ */
+@Slf4j
+@Component
+public class HospitalStockView {
+
+    static final String METRIC_LOOKUPS = "hms.pharmacy.stock_view.lookups";
+    static final String OUTCOME_HIT = "hit";
+    static final String OUTCOME_LOADED = "loaded";
+
+    record Key(UUID hospitalId, UUID catalogItemId) { }
+
+    private record Entry(BigDecimal onHand, long loadedAtNanos) { }
+
+    private final InventoryItemRepository inventoryItemRepository;
+    @Nullable
+    private final MeterRegistry meterRegistry;
+    private final BoundedTtlCache<Key, Entry> entries;
+
+    @Autowired
+    public HospitalStockView(
+        InventoryItemRepository inventoryItemRepository,
+        @Value("${app.pharmacy.stock-view.max-entries:50000}") int maxEntries,
+        @Value("${app.pharmacy.stock-view.ttl-seconds:300}") long ttlSeconds,
+        @Nullable MeterRegistry meterRegistry
+    ) {
+        this(inventoryItemRepository, maxEntries, Duration.ofSeconds(Math.max(0, ttlSeconds)), meterRegistry);
+    }
+
+    public HospitalStockView(InventoryItemRepository inventoryItemRepository, int maxEntries,
+                             Duration ttl, @Nullable MeterRegistry meterRegistry) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.entries = new BoundedTtlCache<>(maxEntries, ttl);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** On-hand quantity of {@code catalogItemId} across the hospital's dispensaries. */
+    public BigDecimal onHand(UUID hospitalId, UUID catalogItemId) {
+        Key key = new Key(hospitalId, catalogItemId);
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+            count(OUTCOME_HIT);
+            return entry.onHand();
+        }
+        entry = entries.load(key, () -> new Entry(
+            inventoryItemRepository.sumOnHandByHospitalAndCatalogItem(
+                hospitalId, catalogItemId, PharmacyType.HOSPITAL_DISPENSARY),
+            System.nanoTime()));
+        count(OUTCOME_LOADED);
+        return entry.onHand();
+    }
+
+    /**
+     * A quantity change on {@code item} applied by a bulk UPDATE (no entity
+     * write). Applied to the view when the current transaction commits;
+     * outside a transaction the entry is simply dropped.
+     */
+    public void recordMovement(InventoryItem item, BigDecimal delta) {
+        Key key = keyOf(item);
+        if (key == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entries.invalidate(key);
+            return;
+        }
+        pending().deltas.merge(key, delta, BigDecimal::add);
+    }
+
+    /** Drop every hospital's entry for {@code catalogItemIds}. */
+    public void invalidate(Collection<UUID> catalogItemIds) {
+        entries.invalidateIf(k -> catalogItemIds.contains(k.catalogItemId()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private PendingChanges pending() {
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void apply(Key key, BigDecimal delta, long commitStartedNanos) {
+        entries.computeIfPresent(key, (k, e) -> e.loadedAtNanos() - commitStartedNanos < 0
+            ? new Entry(e.onHand().add(delta), e.loadedAtNanos())
+            : null);
+    }
+
+    private static Key keyOf(InventoryItem item) {
+        Pharmacy pharmacy = item.getPharmacy();
+        if (!item.isActive() || pharmacy == null || pharmacy.getHospital() == null
+                || pharmacy.getPharmacyType() != PharmacyType.HOSPITAL_DISPENSARY
+                || item.getMedicationCatalogItem() == null) {
+            return null;
+        }
+        return new Key(pharmacy.getHospital().getId(), item.getMedicationCatalogItem().getId());
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry == null) return; // unit-test path
+        try {
+            Counter.builder(METRIC_LOOKUPS)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        } catch (Exception ex) {
+            log.debug("Failed to record metric {}: {}", METRIC_LOOKUPS, ex.getMessage());
+        }
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Map<Key, BigDecimal> deltas = new HashMap<>();
+        private long commitStartedNanos;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitStartedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void afterCommit() {
+            deltas.forEach((key, delta) -> apply(key, delta, commitStartedNanos));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(HospitalStockView.this);
+        }
+    }
+}
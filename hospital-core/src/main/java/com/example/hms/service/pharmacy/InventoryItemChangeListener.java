@@ -0,0 +1,40 @@
+package com.example.hms.service.pharmacy;
+
+import com.example.hms.model.pharmacy.InventoryItem;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that drops the {@link HospitalStockView} entries of an
+ * {@link InventoryItem}'s catalog item whenever the item is created,
+ * changed (activation, edits) or deleted through JPA. Stock movements are
+ * bulk UPDATEs that bypass it and report to the view through
+ * {@link StockLedger}.
+ *
+ * <p>Only reads the catalog item's id, so an uninitialised proxy is never
+ * loaded during flush. The entries are dropped once the writing transaction
+ * completes; see {@link AfterCommitEntityListener}.
+ */
+public class InventoryItemChangeListener extends AfterCommitEntityListener<HospitalStockView, UUID> {
+
+    public InventoryItemChangeListener() {
+        super(HospitalStockView.class, "[PHARMACY]");
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(InventoryItem item) {
+        queue(item.getMedicationCatalogItem() != null ? item.getMedicationCatalogItem().getId() : null);
+    }
+
+    @Override
+    protected void afterCompletion(HospitalStockView view, Set<UUID> catalogItemIds, boolean committed) {
+        view.invalidate(catalogItemIds);
+    }
+}
@@ -57,6 +57,7 @@ public class InventoryServiceImpl implements InventoryService {
     private final RoleValidator roleValidator;
     private final AuditEventLogService auditEventLogService;
     private final NotificationService notificationService;
+    private final StockLedger stockLedger;
 
     // ── Inventory items ──────────────────────────────────────────────────
 
@@ -143,9 +144,8 @@ public class InventoryServiceImpl implements InventoryService {
         StockLot lot = stockLotMapper.toEntity(dto, item, receivedByUser);
         StockLot savedLot = stockLotRepository.save(lot);
 
-        // Update quantity on hand
-        item.setQuantityOnHand(item.getQuantityOnHand().add(savedLot.getRemainingQuantity()));
-        inventoryItemRepository.save(item);
+        // Update quantity on hand; the new lot was inserted with its quantity
+        stockLedger.deposit(item, null, savedLot.getRemainingQuantity());
 
         // Record stock transaction
         recordStockTransaction(item, savedLot, StockTransactionType.RECEIPT,
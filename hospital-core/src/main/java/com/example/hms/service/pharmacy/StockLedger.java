@@ -0,0 +1,179 @@
+package com.example.hms.service.pharmacy;
+
+import com.example.hms.exception.BusinessException;
+import com.example.hms.model.pharmacy.InventoryItem;
+import com.example.hms.model.pharmacy.StockLot;
+import com.example.hms.model.pharmacy.StockTransaction;
+import com.example.hms.repository.pharmacy.InventoryItemRepository;
+import com.example.hms.repository.pharmacy.StockLotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Every stock movement — dispenses, receipts, manual transactions — applied
+ * as atomic {@code qty = qty ± ?} UPDATEs instead of read-modify-write on
+ * the entities. Decrements are conditional on enough stock remaining.
+ *
+ * <p>{@link StockLot} and {@code InventoryItem} carry no {@code @Version};
+ * subtracting in Java and saving let two concurrent dispenses of the same
+ * lot both pass the availability check and the later flush overwrite the
+ * earlier one. Here the check and the subtraction are one statement, so the
+ * row lock is the only serialisation point and it is held for the
+ * remainder of the caller's transaction — nothing is read first.
+ *
+ * <p>Lock order is always lot, then inventory item, for withdrawals and
+ * restores alike, so two dispensers of the same SKU cannot deadlock.
+ *
+ * <p>The bulk updates bypass the persistence context: managed lot/item
+ * instances keep their loaded quantities and must not be modified and
+ * saved afterwards in the same transaction.
+ *
+ * <p>Committed movements are also reported to {@link HospitalStockView},
+ * which the bulk UPDATEs would otherwise leave stale.
+ *
+ * <p>Ledger rows ({@link StockTransaction}) recorded inside a transaction are
+ * buffered and written with one JDBC batch just before commit; outside a
+ * transaction they are written immediately.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    static final int BATCH_SIZE = 500;
+
+    static final String INSERT_SQL = """
+        INSERT INTO clinical.stock_transactions (
+            id, created_at, updated_at, inventory_item_id, stock_lot_id, transaction_type,
+            quantity, reason, reference_id, performed_by,
+            lot_number, supplier, po_reference, expiry_date, unit_cost)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final StockLotRepository stockLotRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final HospitalStockView stockView;
+
+    /**
+     * Take {@code quantity} out of the lot and its inventory item.
+     *
+     * @throws BusinessException when either row has less than {@code quantity}
+     *         left; the caller's transaction rolls back whatever was applied
+     */
+    public void withdraw(StockLot lot, BigDecimal quantity) {
+        withdraw(lot.getInventoryItem(), lot, quantity);
+    }
+
+    /**
+     * Take {@code quantity} out of the inventory item and, when given, one of
+     * its lots — dispenses, transfers, negative adjustments.
+     *
+     * @throws BusinessException when either row has less than {@code quantity}
+     *         left; the caller's transaction rolls back whatever was applied
+     */
+    public void withdraw(InventoryItem item, @Nullable StockLot lot, BigDecimal quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        if (lot != null && stockLotRepository.withdrawIfAvailable(lot.getId(), quantity, now) == 0) {
+            throw new BusinessException("Insufficient lot stock: lot " + lot.getLotNumber()
+                    + " has fewer than " + quantity + " units remaining");
+        }
+        if (inventoryItemRepository.withdrawIfAvailable(item.getId(), quantity, now) == 0) {
+            throw new BusinessException("Insufficient stock: fewer than " + quantity + " units on hand");
+        }
+        stockView.recordMovement(item, quantity.negate());
+    }
+
+    /** Put {@code quantity} back on the lot and its inventory item. */
+    public void restore(StockLot lot, BigDecimal quantity) {
+        deposit(lot.getInventoryItem(), lot, quantity);
+    }
+
+    /**
+     * Add {@code quantity} to the inventory item and, when given, one of its
+     * lots — receipts, returns, positive adjustments. Unconditional: an
+     * increment cannot oversell.
+     */
+    public void deposit(InventoryItem item, @Nullable StockLot lot, BigDecimal quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        if (lot != null) {
+            stockLotRepository.restore(lot.getId(), quantity, now);
+        }
+        inventoryItemRepository.restore(item.getId(), quantity, now);
+        stockView.recordMovement(item, quantity);
+    }
+
+    /**
+     * Append a ledger row. Inside a transaction the row joins the batch
+     * written at commit; the entry's id is assigned now so callers can
+     * reference it straight away.
+     */
+    public void record(StockTransaction entry) {
+        if (entry.getId() == null) {
+            entry.setId(UUID.randomUUID());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(entry));
+            return;
+        }
+        PendingEntries pending = (PendingEntries) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEntries();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.entries.add(entry);
+    }
+
+    void insert(List<StockTransaction> entries) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp stamp = Timestamp.valueOf(now);
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            List<StockTransaction> batch = entries.subList(from, Math.min(entries.size(), from + BATCH_SIZE));
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (StockTransaction entry : batch) {
+                entry.setCreatedAt(now);
+                entry.setUpdatedAt(now);
+                rows.add(new Object[] {
+                    entry.getId(), stamp, stamp,
+                    entry.getInventoryItem().getId(),
+                    entry.getStockLot() != null ? entry.getStockLot().getId() : null,
+                    entry.getTransactionType().name(),
+                    entry.getQuantity(), entry.getReason(), entry.getReferenceId(),
+                    entry.getPerformedByUser().getId(),
+                    entry.getLotNumber(), entry.getSupplier(), entry.getPoReference(),
+                    entry.getExpiryDate() != null ? Date.valueOf(entry.getExpiryDate()) : null,
+                    entry.getUnitCost()
+                });
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    private final class PendingEntries implements TransactionSynchronization {
+        private final List<StockTransaction> entries = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Still inside the transaction: a failed insert rolls the
+            // stock movement back with it.
+            if (!entries.isEmpty()) insert(entries);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockLedger.this);
+        }
+    }
+}
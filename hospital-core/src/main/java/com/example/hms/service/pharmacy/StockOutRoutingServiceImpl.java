@@ -12,7 +12,6 @@ import com.example.hms.model.Patient;
 import com.example.hms.model.Prescription;
 import com.example.hms.model.User;
 import com.example.hms.model.medication.MedicationCatalogItem;
-import com.example.hms.model.pharmacy.InventoryItem;
 import com.example.hms.model.pharmacy.Pharmacy;
 import com.example.hms.model.pharmacy.PrescriptionRoutingDecision;
 import com.example.hms.payload.dto.pharmacy.PartnerOptionDTO;
@@ -55,6 +54,7 @@ public class StockOutRoutingServiceImpl implements StockOutRoutingService {
     private final PrescriptionRoutingMapper routingMapper;
     private final RoleValidator roleValidator;
     private final PharmacyServiceSupport support;
+    private final HospitalStockView stockView;
     private final com.example.hms.service.pharmacy.partner.PartnerNotificationChannel partnerChannel;
 
     private static final String AUDIT_ENTITY = "PRESCRIPTION_ROUTING";
@@ -76,21 +76,11 @@ public class StockOutRoutingServiceImpl implements StockOutRoutingService {
         // Find the medication catalog item for this prescription
         MedicationCatalogItem catalogItem = resolveCatalogItem(prescription, hospitalId);
 
-        BigDecimal totalOnHand = BigDecimal.ZERO;
-
-        // Single query for hospital-wide on-hand stock avoids N+1 across dispensaries.
-        if (catalogItem != null) {
-            List<InventoryItem> items = inventoryItemRepository
-                    .findByPharmacyHospitalIdAndMedicationCatalogItemIdAndActiveTrue(
-                            hospitalId, catalogItem.getId());
-            for (InventoryItem item : items) {
-                if (item.getPharmacy() != null
-                        && item.getPharmacy().getPharmacyType() == PharmacyType.HOSPITAL_DISPENSARY
-                        && item.getQuantityOnHand() != null) {
-                    totalOnHand = totalOnHand.add(item.getQuantityOnHand());
-                }
-            }
-        }
+        // Served from the precomputed view: one aggregate query on a miss,
+        // kept current from stock movements after that.
+        BigDecimal totalOnHand = catalogItem != null
+                ? stockView.onHand(hospitalId, catalogItem.getId())
+                : BigDecimal.ZERO;
 
         BigDecimal needed = prescription.getQuantity() != null ? prescription.getQuantity() : BigDecimal.ONE;
         boolean sufficient = totalOnHand.compareTo(needed) >= 0;
@@ -99,20 +89,19 @@ public class StockOutRoutingServiceImpl implements StockOutRoutingService {
         if (!sufficient) {
             List<Pharmacy> partners = pharmacyRepository.findByHospitalIdAndPharmacyTypeAndActiveTrue(
                     hospitalId, PharmacyType.PARTNER_PHARMACY);
+            // Formulary membership for the whole partner network in one set query.
+            Set<UUID> carrying = catalogItem == null || partners.isEmpty()
+                    ? Set.of()
+                    : inventoryItemRepository.findPharmacyIdsCarrying(
+                            partners.stream().map(Pharmacy::getId).toList(), catalogItem.getId());
             for (Pharmacy partner : partners) {
-                boolean hasOnFormulary = false;
-                if (catalogItem != null) {
-                    hasOnFormulary = inventoryItemRepository
-                            .findByPharmacyIdAndMedicationCatalogItemId(partner.getId(), catalogItem.getId())
-                            .isPresent();
-                }
                 partnerOptions.add(PartnerOptionDTO.builder()
                         .pharmacyId(partner.getId())
                         .pharmacyName(partner.getName())
                         .pharmacyType(partner.getPharmacyType().name())
                         .city(partner.getCity())
                         .phoneNumber(partner.getPhoneNumber())
-                        .hasOnFormulary(hasOnFormulary)
+                        .hasOnFormulary(carrying.contains(partner.getId()))
                         .build());
             }
         }
@@ -45,6 +45,7 @@ public class StockTransactionServiceImpl implements StockTransactionService {
     private final StockTransactionMapper stockTransactionMapper;
     private final RoleValidator roleValidator;
     private final AuditEventLogService auditEventLogService;
+    private final StockLedger stockLedger;
 
     @Override
     @Transactional
@@ -154,55 +155,22 @@ public class StockTransactionServiceImpl implements StockTransactionService {
         enforceHospitalScope(pharmacy);
     }
 
+    /**
+     * Moves the quantities through {@link StockLedger}'s atomic UPDATEs; the
+     * loaded {@code item} / {@code lot} keep their old quantities and are not
+     * saved.
+     */
     private void applyQuantityChange(InventoryItem item, StockLot lot,
                                      StockTransactionType type, BigDecimal quantity) {
-        switch (type) {
-            case RECEIPT -> {
-                item.setQuantityOnHand(item.getQuantityOnHand().add(quantity));
-                if (lot != null) {
-                    lot.setRemainingQuantity(lot.getRemainingQuantity().add(quantity));
-                    stockLotRepository.save(lot);
-                }
-            }
-            case DISPENSE, TRANSFER -> {
-                validateSufficientStock(item, quantity);
-                item.setQuantityOnHand(item.getQuantityOnHand().subtract(quantity));
-                if (lot != null) {
-                    validateSufficientLotStock(lot, quantity);
-                    lot.setRemainingQuantity(lot.getRemainingQuantity().subtract(quantity));
-                    stockLotRepository.save(lot);
-                }
-            }
-            case ADJUSTMENT -> {
-                // Quantity can be positive (increase) or negative (decrease)
-                item.setQuantityOnHand(item.getQuantityOnHand().add(quantity));
-                if (lot != null) {
-                    lot.setRemainingQuantity(lot.getRemainingQuantity().add(quantity));
-                    stockLotRepository.save(lot);
-                }
-            }
-            case RETURN -> {
-                item.setQuantityOnHand(item.getQuantityOnHand().add(quantity));
-                if (lot != null) {
-                    lot.setRemainingQuantity(lot.getRemainingQuantity().add(quantity));
-                    stockLotRepository.save(lot);
-                }
-            }
-        }
-        inventoryItemRepository.save(item);
-    }
-
-    private void validateSufficientStock(InventoryItem item, BigDecimal quantity) {
-        if (item.getQuantityOnHand().compareTo(quantity) < 0) {
-            throw new BusinessException("Insufficient stock: " + item.getQuantityOnHand()
-                    + " on hand, requested " + quantity);
-        }
-    }
-
-    private void validateSufficientLotStock(StockLot lot, BigDecimal quantity) {
-        if (lot.getRemainingQuantity().compareTo(quantity) < 0) {
-            throw new BusinessException("Insufficient lot stock: " + lot.getRemainingQuantity()
-                    + " remaining in lot " + lot.getLotNumber() + ", requested " + quantity);
+        // ADJUSTMENT quantity can be positive (increase) or negative (decrease)
+        BigDecimal delta = switch (type) {
+            case RECEIPT, ADJUSTMENT, RETURN -> quantity;
+            case DISPENSE, TRANSFER -> quantity.negate();
+        };
+        if (delta.signum() < 0) {
+            stockLedger.withdraw(item, lot, delta.negate());
+        } else {
+            stockLedger.deposit(item, lot, delta);
         }
     }
 
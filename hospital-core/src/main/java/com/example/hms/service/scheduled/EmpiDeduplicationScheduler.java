@@ -0,0 +1,35 @@
+package com.example.hms.service.scheduled;
+
+import com.example.hms.service.empi.EmpiDeduplicationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks up queued EMPI deduplication scans, and resumes running ones whose
+ * owning node died, from their last checkpoint. Work is a no-op while
+ * {@code app.empi.probabilistic.enabled=false}.
+ * <p>
+ * Template: CriticalValueEscalationScheduler (thin fixed-delay sweep, one
+ * bad tick never kills the scheduler thread).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmpiDeduplicationScheduler {
+
+    private final EmpiDeduplicationService deduplicationService;
+
+    @Scheduled(fixedDelayString = "${hms.empi.dedup.sweep-interval-ms:60000}")
+    public void runSweep() {
+        try {
+            int completed = deduplicationService.runPendingJobs();
+            if (completed > 0) {
+                log.info("EMPI dedup sweep: {} job(s) completed", completed);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("EMPI dedup sweep failed: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.hms.service.scheduled;
+
+import com.example.hms.fhir.bulk.FhirBulkExportRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks up queued FHIR {@code $export} jobs, and re-claims in-progress
+ * ones whose node died. Work is a no-op while
+ * {@code app.fhir.operations.bulk-export.enabled=false}.
+ * <p>
+ * Template: EmpiDeduplicationScheduler (thin fixed-delay sweep, one bad
+ * tick never kills the scheduler thread).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FhirBulkExportScheduler {
+
+    private final FhirBulkExportRunner runner;
+
+    @Scheduled(fixedDelayString = "${app.fhir.operations.bulk-export.poll-interval-ms:15000}")
+    public void runSweep() {
+        try {
+            int completed = runner.runPendingJobs();
+            if (completed > 0) {
+                log.info("FHIR $export sweep: {} job(s) completed", completed);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("FHIR $export sweep failed: {}", ex.getMessage(), ex);
+        }
+    }
+}
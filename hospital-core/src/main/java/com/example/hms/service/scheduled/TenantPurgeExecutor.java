@@ -19,6 +19,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Per-organization purge step extracted from {@link TenantPurgeJob} so each
@@ -59,7 +61,7 @@ public class TenantPurgeExecutor {
     /**
      * Transition a single organization to {@code PURGED} in an isolated
      * transaction. MVP-c batch wires in the GDPR packager + encrypted
-     * archive: package → encrypt → upload (today: configured filesystem
+     * archive: package-and-encrypt in one stream → upload (today: configured filesystem
      * dir) BEFORE the state flip, so a packaging failure aborts the
      * transition with a {@code TENANT_PURGE_PACKAGING_FAILED} audit and
      * the org stays in {@code PENDING_PURGE} for the operator to retry.
@@ -79,8 +81,8 @@ public class TenantPurgeExecutor {
 
         if (executeDeletion) {
             log.warn("[TENANT-PURGE] execute-deletion=true was set but cascade data deletion is not implemented "
-                + "in this batch for org {}. Archive at {} captures org+hospital metadata; per-table dumps "
-                + "ship in a follow-up. Transition to PURGED will proceed; row-level deletion deferred.",
+                + "in this batch for org {}. Archive at {} captures the org's data; "
+                + "transition to PURGED will proceed; row-level deletion deferred.",
                 org.getId(), encryptedArchive.outputPath());
         }
 
@@ -97,29 +99,24 @@ public class TenantPurgeExecutor {
 
     private TenantArchiveEncryptionService.EncryptionResult packageAndEncrypt(Organization org) throws IOException {
         String stem = "org-" + org.getId() + "-" + Instant.now().toEpochMilli();
-        Path plaintext = Paths.get(outputDir, stem + ".zip");
         Path encrypted = Paths.get(outputDir, stem + ".zip.enc");
 
-        TenantExportPackager.PackageResult packaged = exportPackager.packageOrganization(org, plaintext);
-        log.info("[TENANT-PURGE] Packaged {} for org {}", packaged.describe(), org.getId());
+        // The ZIP is written straight into the cipher stream: no plaintext
+        // archive on disk to wipe afterwards, and no second pass over it.
+        AtomicReference<Map<String, Long>> counts = new AtomicReference<>(Map.of());
+        TenantArchiveEncryptionService.EncryptionResult encryptedResult = archiveEncryption.encryptStream(
+            encrypted, out -> counts.set(exportPackager.writeOrganization(org, out)));
 
-        TenantArchiveEncryptionService.EncryptionResult encryptedResult =
-            archiveEncryption.encryptArchive(plaintext, encrypted);
-        // Best-effort wipe of the plaintext so the archive at rest is the
-        // encrypted form. The envelope manifest stays alongside the .enc.
-        try {
-            java.nio.file.Files.deleteIfExists(plaintext);
-        } catch (IOException cleanup) {
-            log.warn("[TENANT-PURGE] Could not delete plaintext archive {} after encryption: {}",
-                plaintext, cleanup.getMessage());
-        }
+        TenantExportPackager.PackageResult packaged =
+            new TenantExportPackager.PackageResult(encryptedResult.outputPath(), Map.copyOf(counts.get()));
+        log.info("[TENANT-PURGE] Packaged {} for org {}", packaged.describe(), org.getId());
         return encryptedResult;
     }
 
     private void recordAuditPackaged(Organization org,
                                      TenantArchiveEncryptionService.EncryptionResult result) {
         try {
-            auditEventLogService.logEvent(AuditEventRequestDTO.builder()
+            auditEventLogService.submitEvent(AuditEventRequestDTO.builder()
                 .userName(SYSTEM_ACTOR)
                 .eventType(AuditEventType.TENANT_PURGE_PACKAGED)
                 .eventDescription("Tenant archive packaged + encrypted for organization "
@@ -138,7 +135,7 @@ public class TenantPurgeExecutor {
     private void recordAuditPurged(Organization org,
                                    TenantArchiveEncryptionService.EncryptionResult result) {
         try {
-            auditEventLogService.logEvent(AuditEventRequestDTO.builder()
+            auditEventLogService.submitEvent(AuditEventRequestDTO.builder()
                 .userName(SYSTEM_ACTOR)
                 .eventType(AuditEventType.TENANT_PURGED)
                 .eventDescription("Scheduled purge executed for organization " + org.getCode()
@@ -155,7 +152,7 @@ public class TenantPurgeExecutor {
 
     private void recordPackagingFailure(Organization org, IOException ex) {
         try {
-            auditEventLogService.logEvent(AuditEventRequestDTO.builder()
+            auditEventLogService.submitEvent(AuditEventRequestDTO.builder()
                 .userName(SYSTEM_ACTOR)
                 .eventType(AuditEventType.TENANT_PURGE_PACKAGING_FAILED)
                 .eventDescription("Packaging failed for organization " + org.getCode()
@@ -0,0 +1,89 @@
+package com.example.hms.service.scheduling;
+
+import com.example.hms.enums.SlotStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC batch insert of generated {@code clinical.appointment_slots} rows,
+ * used by {@link SlotInventoryServiceImpl#generate}.
+ *
+ * <p>{@code ON CONFLICT DO NOTHING}: the caller has already subtracted the
+ * slots that exist, so a conflict only means a concurrent generation run
+ * got to the same (staff, start) first — the unique index settles it and
+ * the row is simply not ours to create. Runs in the caller's transaction.
+ *
+ * <p>A driver that rewrites the batch into one multi-row statement reports
+ * {@link Statement#SUCCESS_NO_INFO} for every row, conflicting or not; such
+ * a batch is counted by looking up the ids it generated, so the created and
+ * skipped totals stay exact.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotBatchWriter {
+
+    static final int BATCH_SIZE = 1_000;
+
+    static final String INSERT_SQL = """
+        INSERT INTO clinical.appointment_slots (
+            id, created_at, updated_at, session_template_id, hospital_id, department_id,
+            staff_id, visit_type_id, slot_date, start_at, end_at, status)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT DO NOTHING
+        """;
+
+    static final String COUNT_INSERTED_SQL =
+        "SELECT COUNT(*) FROM clinical.appointment_slots WHERE id = ANY(?)";
+
+    /** One slot to create. */
+    public record NewSlot(UUID sessionTemplateId, UUID hospitalId, UUID departmentId, UUID staffId,
+                          UUID visitTypeId, LocalDate slotDate, LocalDateTime startAt, LocalDateTime endAt) { }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** @return rows actually inserted */
+    public int insert(List<NewSlot> slots) {
+        if (slots.isEmpty()) return 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String open = SlotStatus.OPEN.name();
+        int inserted = 0;
+        for (int from = 0; from < slots.size(); from += BATCH_SIZE) {
+            List<NewSlot> batch = slots.subList(from, Math.min(slots.size(), from + BATCH_SIZE));
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            UUID[] ids = new UUID[batch.size()];
+            for (NewSlot slot : batch) {
+                UUID id = UUID.randomUUID();
+                ids[rows.size()] = id;
+                rows.add(new Object[] {
+                    id, now, now, slot.sessionTemplateId(), slot.hospitalId(),
+                    slot.departmentId(), slot.staffId(), slot.visitTypeId(), slot.slotDate(),
+                    Timestamp.valueOf(slot.startAt()), Timestamp.valueOf(slot.endAt()), open
+                });
+            }
+            inserted += inserted(jdbcTemplate.batchUpdate(INSERT_SQL, rows), ids);
+        }
+        return inserted;
+    }
+
+    private int inserted(int[] counts, UUID[] ids) {
+        int inserted = 0;
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                // The ids are fresh, so the ones that exist are exactly the rows this batch created.
+                Integer found = jdbcTemplate.queryForObject(COUNT_INSERTED_SQL, Integer.class, (Object) ids);
+                return found == null ? 0 : found;
+            }
+            if (count > 0) inserted++;
+        }
+        return inserted;
+    }
+}
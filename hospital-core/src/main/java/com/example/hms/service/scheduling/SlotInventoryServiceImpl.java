@@ -10,22 +10,28 @@ import com.example.hms.payload.dto.scheduling.AppointmentSlotDTO;
 import com.example.hms.payload.dto.scheduling.SlotGenerationResultDTO;
 import com.example.hms.repository.scheduling.AppointmentSlotRepository;
 import com.example.hms.repository.scheduling.SessionTemplateRepository;
+import com.example.hms.service.scheduling.SlotBatchWriter.NewSlot;
 import com.example.hms.utility.RoleValidator;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SlotInventoryServiceImpl implements SlotInventoryService {
 
@@ -36,14 +42,44 @@ public class SlotInventoryServiceImpl implements SlotInventoryService {
      */
     private static final int MAX_GENERATION_DAYS = 180;
 
+    /**
+     * Days generated per transaction. Each chunk reads the occupied start
+     * times once and batch-inserts the rest, so a 180-day run is thirteen
+     * short transactions rather than one that holds locks for minutes.
+     */
+    static final int GENERATION_CHUNK_DAYS = 14;
+
     private static final int MAX_SEARCH_RESULTS = 200;
 
     private final SessionTemplateRepository templateRepository;
     private final AppointmentSlotRepository slotRepository;
     private final RoleValidator roleValidator;
+    private final SlotBatchWriter slotBatchWriter;
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate chunkTx;
+
+    public SlotInventoryServiceImpl(SessionTemplateRepository templateRepository,
+                                    AppointmentSlotRepository slotRepository,
+                                    RoleValidator roleValidator,
+                                    SlotBatchWriter slotBatchWriter,
+                                    PlatformTransactionManager transactionManager) {
+        this.templateRepository = templateRepository;
+        this.slotRepository = slotRepository;
+        this.roleValidator = roleValidator;
+        this.slotBatchWriter = slotBatchWriter;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+    }
 
+    /**
+     * Set-based: the slot grid is computed in memory, the occupied
+     * (staff, start) pairs of each {@link #GENERATION_CHUNK_DAYS}-day chunk
+     * come back in one query, and only the difference is inserted, as a JDBC
+     * batch. Chunks commit on their own unless the caller already has a
+     * transaction, in which case they join it.
+     */
     @Override
-    @Transactional
     public SlotGenerationResultDTO generate(LocalDate from, LocalDate to) {
         UUID hospitalId = requireHospital();
         LocalDate start = from != null ? from : LocalDate.now();
@@ -57,61 +93,105 @@ public class SlotInventoryServiceImpl implements SlotInventoryService {
                 "Generate at most " + MAX_GENERATION_DAYS + " days at a time.");
         }
 
-        List<SessionTemplate> templates = templateRepository.findByHospital_IdAndActiveTrue(hospitalId);
+        List<TemplatePlan> plans = readTx.execute(status ->
+            templateRepository.findByHospital_IdAndActiveTrue(hospitalId).stream()
+                .map(TemplatePlan::of)
+                .toList());
+        Set<UUID> staffIds = plans.stream().map(TemplatePlan::staffId).collect(Collectors.toSet());
+        Set<UUID> applied = new HashSet<>();
         int created = 0;
         int skipped = 0;
-        int applied = 0;
 
-        for (SessionTemplate template : templates) {
-            boolean used = false;
-            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-                if (!template.appliesOn(date)) {
-                    continue;
-                }
-                used = true;
-                for (LocalTime t = template.getStartTime();
-                     !t.plusMinutes(template.getSlotMinutes()).isAfter(template.getEndTime());
-                     t = t.plusMinutes(template.getSlotMinutes())) {
-
-                    LocalDateTime startAt = LocalDateTime.of(date, t);
-                    // Idempotent, and the same check the unique index enforces:
-                    // one clinician cannot be in two places at one moment.
-                    if (slotRepository.existsByStaff_IdAndStartAt(template.getStaff().getId(), startAt)) {
-                        skipped++;
-                        continue;
-                    }
-                    slotRepository.save(buildSlot(template, date, startAt));
-                    created++;
-                }
-            }
-            if (used) {
-                applied++;
-            }
+        for (LocalDate chunkStart = start; !chunkStart.isAfter(end);
+             chunkStart = chunkStart.plusDays(GENERATION_CHUNK_DAYS)) {
+            LocalDate chunkEnd = chunkStart.plusDays(GENERATION_CHUNK_DAYS - 1L);
+            ChunkResult chunk = generateChunk(plans, staffIds, chunkStart,
+                chunkEnd.isAfter(end) ? end : chunkEnd, applied);
+            created += chunk.created();
+            skipped += chunk.skipped();
         }
 
         log.info("Slot generation for hospital {}: {} template(s), {} created, {} already present",
-            hospitalId, applied, created, skipped);
+            hospitalId, applied.size(), created, skipped);
 
         return SlotGenerationResultDTO.builder()
             .from(start).to(end)
-            .templatesApplied(applied)
+            .templatesApplied(applied.size())
             .slotsCreated(created)
             .skippedExisting(skipped)
             .build();
     }
 
-    private AppointmentSlot buildSlot(SessionTemplate template, LocalDate date, LocalDateTime startAt) {
-        return AppointmentSlot.builder()
-            .sessionTemplate(template)
-            .hospital(template.getHospital())
-            .department(template.getDepartment())
-            .staff(template.getStaff())
-            .visitType(template.getVisitType())
-            .slotDate(date)
-            .startAt(startAt)
-            .endAt(startAt.plusMinutes(template.getSlotMinutes()))
-            .status(SlotStatus.OPEN)
-            .build();
+    private ChunkResult generateChunk(List<TemplatePlan> plans, Set<UUID> staffIds,
+                                      LocalDate from, LocalDate to, Set<UUID> applied) {
+        if (plans.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+        return chunkTx.execute(status -> {
+            // Idempotent, and the same rule the unique index enforces: one
+            // clinician cannot be in two places at one moment — including two
+            // of their own templates overlapping in this run.
+            Map<UUID, Set<LocalDateTime>> taken = occupiedStartTimes(staffIds, from, to);
+            List<NewSlot> fresh = new ArrayList<>();
+            int skipped = 0;
+            for (TemplatePlan plan : plans) {
+                SessionTemplate template = plan.template();
+                Set<LocalDateTime> staffTaken = taken.computeIfAbsent(plan.staffId(), k -> new HashSet<>());
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    if (!template.appliesOn(date)) {
+                        continue;
+                    }
+                    applied.add(plan.templateId());
+                    for (LocalTime t = template.getStartTime();
+                         !t.plusMinutes(template.getSlotMinutes()).isAfter(template.getEndTime());
+                         t = t.plusMinutes(template.getSlotMinutes())) {
+
+                        LocalDateTime startAt = LocalDateTime.of(date, t);
+                        if (!staffTaken.add(startAt)) {
+                            skipped++;
+                            continue;
+                        }
+                        fresh.add(plan.slot(date, startAt));
+                    }
+                }
+            }
+            int inserted = slotBatchWriter.insert(fresh);
+            // Anything the insert ignored was created by a concurrent run
+            // between our read and our write: it exists, so it is "present".
+            return new ChunkResult(inserted, skipped + fresh.size() - inserted);
+        });
+    }
+
+    private Map<UUID, Set<LocalDateTime>> occupiedStartTimes(Set<UUID> staffIds, LocalDate from, LocalDate to) {
+        Map<UUID, Set<LocalDateTime>> taken = new HashMap<>();
+        for (Object[] row : slotRepository.findStaffStartTimes(
+                staffIds, from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            taken.computeIfAbsent((UUID) row[0], k -> new HashSet<>()).add((LocalDateTime) row[1]);
+        }
+        return taken;
+    }
+
+    private record ChunkResult(int created, int skipped) { }
+
+    /**
+     * A template with its association ids read while the session is open, so
+     * the chunk transactions never touch a lazy proxy of it.
+     */
+    private record TemplatePlan(SessionTemplate template, UUID templateId, UUID hospitalId,
+                                UUID departmentId, UUID staffId, UUID visitTypeId) {
+
+        static TemplatePlan of(SessionTemplate template) {
+            return new TemplatePlan(template, template.getId(),
+                template.getHospital().getId(),
+                template.getDepartment().getId(),
+                template.getStaff().getId(),
+                template.getVisitType() != null ? template.getVisitType().getId() : null);
+        }
+
+        NewSlot slot(LocalDate date, LocalDateTime startAt) {
+            return new NewSlot(templateId, hospitalId, departmentId, staffId, visitTypeId,
+                date, startAt, startAt.plusMinutes(template.getSlotMinutes()));
+        }
     }
 
     @Override
@@ -185,17 +265,11 @@ public class SlotInventoryServiceImpl implements SlotInventoryService {
     @Override
     @Transactional
     public int reclaimExpiredHolds() {
-        List<AppointmentSlot> expired =
-            slotRepository.findByStatusAndHeldUntilBefore(SlotStatus.HELD, LocalDateTime.now());
-        for (AppointmentSlot slot : expired) {
-            clearHold(slot);
-            slot.setStatus(SlotStatus.OPEN);
-            slotRepository.save(slot);
-        }
-        if (!expired.isEmpty()) {
-            log.info("Reclaimed {} expired slot hold(s)", expired.size());
+        int reclaimed = slotRepository.reopenExpiredHolds(LocalDateTime.now());
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} expired slot hold(s)", reclaimed);
         }
-        return expired.size();
+        return reclaimed;
     }
 
     /* ---------------- helpers ---------------- */
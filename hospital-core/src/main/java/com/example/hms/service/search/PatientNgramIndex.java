@@ -0,0 +1,596 @@
+package com.example.hms.service.search;
+
+import com.example.hms.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process substring index over patient names, emails and phone numbers —
+ * the fallback for {@link PatientSearchService} when the database has no
+ * pg_trgm search columns (H2 profiles, or
+ * {@code app.patient-search.trigram.enabled=false}).
+ *
+ * <p>Every patient's normalized values are held columnar, with postings
+ * from each raw 3-gram (three chars packed into a long) to row numbers. A
+ * term of three or more characters only verifies the rows in the
+ * intersection of its 3-grams' postings; shorter terms scan the columns.
+ * Verification is {@link String#contains}, so the match set is exactly the
+ * legacy {@code LIKE '%term%'} set. Ranking uses the same word-trigram
+ * {@link #similarity} as pg_trgm, so both paths order results alike.
+ *
+ * <p>Freshness: the snapshot loads lazily on first use. Patients written on
+ * this node are queued by id (see {@link PatientSearchIndexListener}); the
+ * next search re-reads just those rows and lays them over the snapshot as
+ * a patch, which is folded into fresh postings in memory once it outgrows
+ * an eighth of the index. The table is only re-read in full on first use,
+ * after {@link #invalidate()}, when more rows are queued than a patch may
+ * hold, or after {@code app.patient-search.fallback-index-max-age-minutes}
+ * to pick up writes committed on other nodes.
+ */
+@Component
+@Slf4j
+public class PatientNgramIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+    private static final int MIN_PATCH_ROWS = 1024;
+
+    private final PatientRepository patientRepository;
+    private final long maxAgeMillis;
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot;
+    private volatile boolean stale;
+
+    public PatientNgramIndex(PatientRepository patientRepository,
+                             @Value("${app.patient-search.fallback-index-max-age-minutes:15}") long maxAgeMinutes) {
+        this.patientRepository = patientRepository;
+        this.maxAgeMillis = Math.max(1, maxAgeMinutes) * 60_000L;
+    }
+
+    /**
+     * Whether a snapshot has been built. Until then patient writes need not
+     * mark anything stale, so PostgreSQL deployments never pay for it.
+     */
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    /** Forces a full rebuild on the next search. */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /** Re-reads these patients' rows (created, updated or deleted) on the next search. */
+    public void invalidate(Collection<UUID> patientIds) {
+        changed.addAll(patientIds);
+    }
+
+    /**
+     * The current snapshot: (re)built first when missing, stale or too old,
+     * otherwise patched with the rows changed since.
+     */
+    Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current) && changed.isEmpty()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            // Drained before reading: a write committed mid-read queues its id again.
+            List<UUID> ids = new ArrayList<>(changed);
+            changed.removeAll(ids);
+            if (isFresh(current) && ids.size() <= current.patchLimit()) {
+                if (!ids.isEmpty()) {
+                    current = current.patched(ids, patientRepository.findSearchIndexTuplesByIdIn(ids));
+                    snapshot = current;
+                }
+                return current;
+            }
+            stale = false;
+            current = load();
+            snapshot = current;
+            return current;
+        }
+    }
+
+    private boolean isFresh(Snapshot candidate) {
+        return candidate != null && !stale && System.currentTimeMillis() - candidate.loadedAt <= maxAgeMillis;
+    }
+
+    private Snapshot load() {
+        long started = System.currentTimeMillis();
+        Snapshot loaded = build(patientRepository.findSearchIndexTuples());
+        log.info("[PATIENT_SEARCH] Loaded n-gram index over {} patients in {} ms",
+            loaded.size(), System.currentTimeMillis() - started);
+        return loaded;
+    }
+
+    /**
+     * Builds a snapshot from {@code (id, firstName, lastName, email,
+     * phonePrimary, phoneSecondary)} tuples, normalized the way the V132
+     * generated columns are.
+     */
+    static Snapshot build(List<Object[]> rows) {
+        return build(rows.stream().map(Row::of).toList(), System.currentTimeMillis());
+    }
+
+    private static Snapshot build(List<Row> rows, long loadedAt) {
+        int size = rows.size();
+        UUID[] ids = new UUID[size];
+        String[] names = new String[size];
+        String[] emails = new String[size];
+        String[] phones = new String[size];
+        String[] secondaryPhones = new String[size];
+        Map<UUID, Integer> rowById = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+        PostingsBuilder namePostings = new PostingsBuilder();
+        PostingsBuilder emailPostings = new PostingsBuilder();
+        PostingsBuilder phonePostings = new PostingsBuilder();
+        for (int row = 0; row < size; row++) {
+            Row values = rows.get(row);
+            ids[row] = values.id();
+            names[row] = values.name();
+            emails[row] = values.email();
+            phones[row] = values.phone();
+            secondaryPhones[row] = values.secondaryPhone();
+            rowById.put(ids[row], row);
+            namePostings.add(names[row], row);
+            emailPostings.add(emails[row], row);
+            phonePostings.add(phones[row], row);
+            phonePostings.add(secondaryPhones[row], row);
+        }
+        return new Snapshot(loadedAt, ids, names, emails, phones, secondaryPhones, rowById,
+            namePostings.build(), emailPostings.build(), phonePostings.build(), Patch.EMPTY);
+    }
+
+    private static String nullToEmpty(Object value) {
+        return value == null ? "" : (String) value;
+    }
+
+    /** One patient's normalized search values. */
+    private record Row(UUID id, String name, String email, String phone, String secondaryPhone) {
+
+        static Row of(Object[] tuple) {
+            return new Row((UUID) tuple[0],
+                (nullToEmpty(tuple[1]) + " " + nullToEmpty(tuple[2])).toLowerCase(Locale.ROOT),
+                tuple[3] == null ? null : ((String) tuple[3]).toLowerCase(Locale.ROOT),
+                (String) tuple[4],
+                (String) tuple[5]);
+        }
+    }
+
+    /**
+     * Rows re-read since the snapshot was built: {@code superseded} hides
+     * their snapshot rows (patients changed or deleted), {@code rows} holds
+     * the current values of those that still exist.
+     */
+    private record Patch(Set<UUID> superseded, Map<UUID, Row> rows) {
+        static final Patch EMPTY = new Patch(Set.of(), Map.of());
+    }
+
+    /**
+     * pg_trgm {@code similarity(a, b)}: each alphanumeric word is padded
+     * with two leading blanks and one trailing blank, and the score is the
+     * Jaccard index of the two trigram sets.
+     */
+    static double similarity(String a, String b) {
+        return similarity(wordTrigrams(a), wordTrigrams(b));
+    }
+
+    static double similarity(long[] a, long[] b) {
+        return similarity(a, a.length, b);
+    }
+
+    private static double similarity(long[] a, int aLength, long[] b) {
+        if (aLength == 0 || b.length == 0) {
+            return 0d;
+        }
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < aLength && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (aLength + b.length - common);
+    }
+
+    /** Sorted, distinct packed trigrams of the padded alphanumeric words of {@code value}. */
+    static long[] wordTrigrams(String value) {
+        if (value == null || value.isEmpty()) {
+            return new long[0];
+        }
+        long[] grams = new long[wordTrigramCapacity(value)];
+        return Arrays.copyOf(grams, fillWordTrigrams(value, grams));
+    }
+
+    /**
+     * Upper bound on the trigrams {@link #fillWordTrigrams} writes for
+     * {@code value}: one per char plus one per word, with headroom for
+     * lower-casing that lengthens a string.
+     */
+    private static int wordTrigramCapacity(String value) {
+        return value.length() * 4 + 4;
+    }
+
+    /**
+     * Writes the sorted, distinct word trigrams of {@code value} to the front
+     * of {@code grams} and returns how many there are.
+     */
+    private static int fillWordTrigrams(String value, long[] grams) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                // "  w" and " wo" from the two-blank prefix, then the word, then "d " from the one-blank suffix.
+                grams[count++] = pack(' ', ' ', lower.charAt(start));
+                grams[count++] = pack(' ', lower.charAt(start), i - start > 1 ? lower.charAt(start + 1) : ' ');
+                for (int k = start; k + 2 < i; k++) {
+                    grams[count++] = pack(lower.charAt(k), lower.charAt(k + 1), lower.charAt(k + 2));
+                }
+                if (i - start > 1) {
+                    grams[count++] = pack(lower.charAt(i - 2), lower.charAt(i - 1), ' ');
+                }
+                start = -1;
+            }
+        }
+        return distinctInPlace(grams, count);
+    }
+
+    /** Sorted, distinct packed 3-grams of {@code value} as stored (no padding, no word split). */
+    static long[] substringTrigrams(String value) {
+        if (value == null || value.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[value.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = pack(value.charAt(i), value.charAt(i + 1), value.charAt(i + 2));
+        }
+        return distinct(grams, grams.length);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static long[] distinct(long[] values, int count) {
+        return Arrays.copyOf(values, distinctInPlace(values, count));
+    }
+
+    private static int distinctInPlace(long[] values, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(values, 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[count++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    /** Per-trigram row lists, appended in row order so every list is sorted. */
+    private static final class PostingsBuilder {
+        private final Map<Long, RowList> lists = new HashMap<>();
+
+        void add(String value, int row) {
+            for (long gram : substringTrigrams(value)) {
+                lists.computeIfAbsent(gram, ignored -> new RowList()).add(row);
+            }
+        }
+
+        Map<Long, int[]> build() {
+            Map<Long, int[]> trimmed = new HashMap<>(Math.max(16, lists.size() * 4 / 3 + 1));
+            lists.forEach((gram, list) -> trimmed.put(gram, Arrays.copyOf(list.rows, list.size)));
+            return trimmed;
+        }
+    }
+
+    private static final class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            // Primary and secondary phone share one postings map.
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+
+    /**
+     * Immutable columnar rows + postings, plus a small {@link Patch} scanned
+     * linearly; a patched copy shares the columns and postings.
+     */
+    static final class Snapshot {
+        final long loadedAt;
+        private final UUID[] ids;
+        private final String[] names;
+        private final String[] emails;
+        private final String[] phones;
+        private final String[] secondaryPhones;
+        private final Map<UUID, Integer> rowById;
+        private final Map<Long, int[]> namePostings;
+        private final Map<Long, int[]> emailPostings;
+        private final Map<Long, int[]> phonePostings;
+        private final Patch patch;
+
+        @SuppressWarnings("java:S107")
+        private Snapshot(long loadedAt, UUID[] ids, String[] names, String[] emails, String[] phones,
+                         String[] secondaryPhones, Map<UUID, Integer> rowById, Map<Long, int[]> namePostings,
+                         Map<Long, int[]> emailPostings, Map<Long, int[]> phonePostings, Patch patch) {
+            this.loadedAt = loadedAt;
+            this.ids = ids;
+            this.names = names;
+            this.emails = emails;
+            this.phones = phones;
+            this.secondaryPhones = secondaryPhones;
+            this.rowById = rowById;
+            this.namePostings = namePostings;
+            this.emailPostings = emailPostings;
+            this.phonePostings = phonePostings;
+            this.patch = patch;
+        }
+
+        int size() {
+            return rowById.size() + patch.rows().size()
+                - (int) patch.superseded().stream().filter(rowById::containsKey).count();
+        }
+
+        /** Most rows a patch may hold before it is folded into the postings. */
+        int patchLimit() {
+            return Math.max(MIN_PATCH_ROWS, ids.length / 8);
+        }
+
+        /**
+         * This snapshot with {@code changedIds} replaced by {@code tuples}
+         * (ids without a tuple were deleted). Past {@link #patchLimit()} the
+         * result is rebuilt in memory, keeping {@link #loadedAt}.
+         */
+        Snapshot patched(Collection<UUID> changedIds, List<Object[]> tuples) {
+            Set<UUID> superseded = new HashSet<>(patch.superseded());
+            superseded.addAll(changedIds);
+            Map<UUID, Row> rows = new LinkedHashMap<>(patch.rows());
+            changedIds.forEach(rows::remove);
+            for (Object[] tuple : tuples) {
+                rows.put((UUID) tuple[0], Row.of(tuple));
+            }
+            if (superseded.size() <= patchLimit()) {
+                return new Snapshot(loadedAt, ids, names, emails, phones, secondaryPhones, rowById,
+                    namePostings, emailPostings, phonePostings, new Patch(superseded, rows));
+            }
+            List<Row> live = new ArrayList<>(ids.length + rows.size());
+            for (int row = 0; row < ids.length; row++) {
+                if (!superseded.contains(ids[row])) {
+                    live.add(new Row(ids[row], names[row], emails[row], phones[row], secondaryPhones[row]));
+                }
+            }
+            live.addAll(rows.values());
+            return build(live, loadedAt);
+        }
+
+        /**
+         * Ids of every patient whose name, email and phone terms all match, in
+         * row order, then patched rows in the order they were re-read.
+         */
+        List<UUID> matchingIds(PatientSearchQuery query) {
+            int[] candidates = narrow(null, namePostings, query.name());
+            candidates = narrow(candidates, emailPostings, query.email());
+            candidates = narrow(candidates, phonePostings, query.phone());
+            List<UUID> matches = new ArrayList<>();
+            if (candidates == null) {
+                for (int row = 0; row < ids.length; row++) {
+                    if (matches(row, query)) {
+                        matches.add(ids[row]);
+                    }
+                }
+            } else {
+                for (int row : candidates) {
+                    if (matches(row, query)) {
+                        matches.add(ids[row]);
+                    }
+                }
+            }
+            for (Row row : patch.rows().values()) {
+                if (matches(row.name(), row.email(), row.phone(), row.secondaryPhone(), query)) {
+                    matches.add(row.id());
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * The first {@code limit} of {@code matches} in the trigram path's
+         * order: summed similarity of the present terms descending, then
+         * name, then id. A bounded heap keeps only those rows, so a broad
+         * term costs one score per match and no full sort.
+         */
+        List<UUID> rank(Collection<UUID> matches, PatientSearchQuery query, int limit) {
+            if (limit <= 0) {
+                return List.of();
+            }
+            Scorer nameScorer = Scorer.of(query.name());
+            Scorer emailScorer = Scorer.of(query.email());
+            Scorer phoneScorer = Scorer.of(query.phone());
+            PriorityQueue<ScoredRow> best = new PriorityQueue<>(ScoredRow.ORDER.reversed());
+            for (UUID id : matches) {
+                Row values = values(id);
+                if (values == null) {
+                    continue;
+                }
+                double score = 0d;
+                if (nameScorer != null) {
+                    score += nameScorer.score(values.name());
+                }
+                if (emailScorer != null) {
+                    score += emailScorer.score(values.email());
+                }
+                if (phoneScorer != null) {
+                    score += Math.max(phoneScorer.score(values.phone()),
+                        phoneScorer.score(values.secondaryPhone()));
+                }
+                if (best.size() == limit && score < best.peek().score()) {
+                    continue;
+                }
+                ScoredRow candidate = new ScoredRow(id, values.name(), score);
+                if (best.size() < limit) {
+                    best.add(candidate);
+                } else if (ScoredRow.ORDER.compare(candidate, best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            }
+            ScoredRow[] ordered = best.toArray(new ScoredRow[0]);
+            Arrays.sort(ordered, ScoredRow.ORDER);
+            List<UUID> ranked = new ArrayList<>(ordered.length);
+            for (ScoredRow row : ordered) {
+                ranked.add(row.id());
+            }
+            return ranked;
+        }
+
+        /** The patient's current values, or {@code null} if not indexed (or deleted). */
+        private Row values(UUID id) {
+            Row patched = patch.rows().get(id);
+            if (patched != null || patch.superseded().contains(id)) {
+                return patched;
+            }
+            Integer row = rowById.get(id);
+            return row == null ? null
+                : new Row(id, names[row], emails[row], phones[row], secondaryPhones[row]);
+        }
+
+        private boolean matches(int row, PatientSearchQuery query) {
+            return !patch.superseded().contains(ids[row])
+                && matches(names[row], emails[row], phones[row], secondaryPhones[row], query);
+        }
+
+        private static boolean matches(String name, String email, String phone, String secondaryPhone,
+                                       PatientSearchQuery query) {
+            return (query.name() == null || name.contains(query.name()))
+                && (query.email() == null || contains(email, query.email()))
+                && (query.phone() == null
+                    || contains(phone, query.phone())
+                    || contains(secondaryPhone, query.phone()));
+        }
+
+        private static boolean contains(String value, String term) {
+            return value != null && value.contains(term);
+        }
+
+        /**
+         * Intersects {@code current} with the rows holding every 3-gram of
+         * {@code term}, shortest postings first. {@code null} means "no
+         * restriction yet"; terms under three chars leave it untouched.
+         */
+        private static int[] narrow(int[] current, Map<Long, int[]> postings, String term) {
+            long[] grams = substringTrigrams(term);
+            if (grams.length == 0) {
+                return current;
+            }
+            int[][] lists = new int[grams.length][];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.getOrDefault(grams[i], NO_ROWS);
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+            int[] result = current == null ? lists[0] : intersect(current, lists[0]);
+            for (int i = 1; i < lists.length && result.length > 0; i++) {
+                result = intersect(result, lists[i]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Similarity of one query term against many values. Scores are memoized
+     * per distinct value (names repeat heavily), and trigrams are built in a
+     * reused buffer rather than a fresh array per row.
+     */
+    private static final class Scorer {
+        private final long[] term;
+        private final Map<String, Double> scores = new HashMap<>();
+        private long[] buffer = new long[64];
+
+        private Scorer(long[] term) {
+            this.term = term;
+        }
+
+        static Scorer of(String term) {
+            return term == null ? null : new Scorer(wordTrigrams(term));
+        }
+
+        double score(String value) {
+            if (value == null || value.isEmpty()) {
+                return 0d;
+            }
+            Double cached = scores.get(value);
+            if (cached != null) {
+                return cached;
+            }
+            int capacity = wordTrigramCapacity(value);
+            if (buffer.length < capacity) {
+                buffer = new long[Math.max(capacity, buffer.length * 2)];
+            }
+            double score = similarity(buffer, fillWordTrigrams(value, buffer), term);
+            scores.put(value, score);
+            return score;
+        }
+    }
+
+    private record ScoredRow(UUID id, String name, double score) {
+        static final Comparator<ScoredRow> ORDER = Comparator
+            .comparingDouble(ScoredRow::score).reversed()
+            .thenComparing(ScoredRow::name)
+            .thenComparing(ScoredRow::id);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hms.service.search;
+
+import com.example.hms.model.Patient;
+import com.example.hms.utility.AfterCommitEntityListener;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener that queues a {@link Patient}'s id on the
+ * {@link PatientNgramIndex} after it is created, updated or deleted; the
+ * next fallback search re-reads just those rows, so it sees the committed
+ * change without reloading the table. The PostgreSQL path needs nothing:
+ * its search columns are generated by the database.
+ *
+ * <p>One hand-off per committed transaction, carrying every patient it
+ * writes, and none until the index has been built; see
+ * {@link AfterCommitEntityListener}.
+ */
+public class PatientSearchIndexListener extends AfterCommitEntityListener<PatientNgramIndex, UUID> {
+
+    public PatientSearchIndexListener() {
+        super(PatientNgramIndex.class, "[PATIENT_SEARCH]");
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Patient patient) {
+        queue(patient.getId());
+    }
+
+    @Override
+    protected boolean isActive(PatientNgramIndex index) {
+        return index.isBuilt();
+    }
+
+    @Override
+    protected void afterCompletion(PatientNgramIndex index, Set<UUID> patientIds, boolean committed) {
+        if (committed) index.invalidate(patientIds);
+    }
+}
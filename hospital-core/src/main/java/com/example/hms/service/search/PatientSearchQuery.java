@@ -0,0 +1,78 @@
+package com.example.hms.service.search;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Normalized patient search input. Name and email terms are trimmed and
+ * lower-cased, the phone term is only trimmed, so a term is a substring
+ * of the matching {@code search_name} / {@code search_email} /
+ * {@code phone_number_*} value exactly when the legacy
+ * {@code LIKE '%term%'} predicate matched. Blank inputs become
+ * {@code null}, meaning "no filter".
+ */
+public record PatientSearchQuery(
+    String mrn,
+    String name,
+    String dateOfBirth,
+    String phone,
+    String email,
+    UUID hospitalId,
+    Boolean active
+) {
+
+    @SuppressWarnings("java:S107")
+    public static PatientSearchQuery of(String mrn, String name, String dateOfBirth, String phone, String email,
+                                        UUID hospitalId, Boolean active) {
+        return new PatientSearchQuery(
+            trimToNull(mrn),
+            lowerTrimToNull(name),
+            trimToNull(dateOfBirth),
+            trimToNull(phone),
+            lowerTrimToNull(email),
+            hospitalId,
+            active);
+    }
+
+    /** True when at least one substring term is present, i.e. the query needs a text index. */
+    public boolean hasText() {
+        return name != null || phone != null || email != null;
+    }
+
+    String namePattern() {
+        return containsPattern(name);
+    }
+
+    String phonePattern() {
+        return containsPattern(phone);
+    }
+
+    String emailPattern() {
+        return containsPattern(email);
+    }
+
+    /** {@code %term%} with LIKE metacharacters escaped by backslash (the PostgreSQL default escape). */
+    static String containsPattern(String term) {
+        if (term == null) {
+            return null;
+        }
+        String escaped = term
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String lowerTrimToNull(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed == null ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.hms.service.search;
+
+import com.example.hms.model.Patient;
+import com.example.hms.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Patient search by MRN, name, DOB, phone, email, hospital and active flag
+ * without {@code LOWER(col) LIKE '%term%'} table scans.
+ *
+ * <p>Queries with a name, phone or email term go to
+ * {@link PatientTrigramSearch} on PostgreSQL, or to the in-process
+ * {@link PatientNgramIndex} elsewhere; both return the same match set as
+ * the legacy predicates, best match first. Queries with only exact filters
+ * (MRN, DOB, hospital) keep using
+ * {@link PatientRepository#searchPatientsExtended}, which those filters
+ * already make selective.
+ *
+ * <p>Text results are ordered by relevance; a sort on {@code pageable} is
+ * not applied to them.
+ */
+@Service
+@RequiredArgsConstructor
+public class PatientSearchService {
+
+    /** Candidate ids per tenant/registration filter query on the fallback path. */
+    static final int FILTER_CHUNK_SIZE = 1_000;
+
+    private final PatientRepository patientRepository;
+    private final PatientTrigramSearch trigramSearch;
+    private final PatientNgramIndex ngramIndex;
+
+    @Transactional(readOnly = true)
+    public Page<Patient> search(PatientSearchQuery query, Pageable pageable) {
+        if (!query.hasText()) {
+            return patientRepository.searchPatientsExtended(query.mrn(), null, query.dateOfBirth(), null, null,
+                query.hospitalId(), query.active(), pageable);
+        }
+        Page<UUID> ids = trigramSearch.isAvailable()
+            ? trigramSearch.search(query, pageable)
+            : searchFallbackIndex(query, pageable);
+        return new PageImpl<>(loadInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Text matches come from the index; MRN, DOB, hospital, active flags and
+     * tenant scope are then applied by the database to those ids only, a
+     * chunk at a time, before the survivors are ranked and paged.
+     */
+    private Page<UUID> searchFallbackIndex(PatientSearchQuery query, Pageable pageable) {
+        PatientNgramIndex.Snapshot snapshot = ngramIndex.current();
+        List<UUID> matches = snapshot.matchingIds(query);
+        Set<UUID> permitted = new HashSet<>();
+        for (int from = 0; from < matches.size(); from += FILTER_CHUNK_SIZE) {
+            List<UUID> chunk = matches.subList(from, Math.min(from + FILTER_CHUNK_SIZE, matches.size()));
+            permitted.addAll(patientRepository.filterSearchCandidates(
+                chunk, query.mrn(), query.dateOfBirth(), query.hospitalId(), query.active()));
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(snapshot.rank(permitted, query, permitted.size()), pageable, permitted.size());
+        }
+        long end = pageable.getOffset() + pageable.getPageSize();
+        List<UUID> ranked = snapshot.rank(permitted, query, (int) Math.min(end, permitted.size()));
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        return new PageImpl<>(new ArrayList<>(ranked.subList(from, ranked.size())), pageable, permitted.size());
+    }
+
+    private List<Patient> loadInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Patient> byId = patientRepository.findAllByIdInUnscoped(ids).stream()
+            .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        List<Patient> ordered = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Patient patient = byId.get(id);
+            if (patient != null) {
+                ordered.add(patient);
+            }
+        }
+        return ordered;
+    }
+}
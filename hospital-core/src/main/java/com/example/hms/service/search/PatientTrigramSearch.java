@@ -0,0 +1,181 @@
+package com.example.hms.service.search;
+
+import com.example.hms.security.tenant.TenantContextAccessor;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * PostgreSQL path of {@link PatientSearchService}: substring predicates on
+ * the V132 generated {@code search_name} / {@code search_email} columns and
+ * the phone columns, each served by a pg_trgm GIN index, ranked by
+ * {@code similarity()}.
+ *
+ * <p>The SQL is assembled from the predicates actually present. The
+ * {@code (:p IS NULL OR col LIKE :p)} shape of the legacy JPQL lets the
+ * planner cache one generic plan that cannot use the trigram indexes, so it
+ * is deliberately not reused here. Every other filter — MRN, DOB, hospital,
+ * active flags and tenant scope — mirrors
+ * {@code PatientRepository.searchPatientsExtended}.
+ */
+@Component
+@Slf4j
+public class PatientTrigramSearch {
+
+    /** Stands in for an empty id set; {@code IN ()} is not valid SQL. */
+    private static final UUID NO_ID = new UUID(0L, 0L);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TenantContextAccessor tenantContext;
+    private final boolean enabled;
+
+    /**
+     * Cached at startup: true when V132 has been applied. Lets an H2
+     * deployment, or one where the changeSet was skipped, fall back to the
+     * in-process index with the flag still on.
+     */
+    private volatile boolean columnsPresent;
+
+    public PatientTrigramSearch(TenantContextAccessor tenantContext,
+                                @Value("${app.patient-search.trigram.enabled:true}") boolean enabled) {
+        this.tenantContext = tenantContext;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void detectSearchColumns() {
+        if (!enabled) {
+            columnsPresent = false;
+            return;
+        }
+        try {
+            Number found = (Number) entityManager.createNativeQuery("""
+                SELECT COUNT(*)
+                FROM information_schema.columns
+                WHERE table_schema = 'clinical'
+                  AND table_name = 'patients'
+                  AND column_name IN ('search_name', 'search_email')
+                """).getSingleResult();
+            columnsPresent = found != null && found.intValue() == 2;
+            if (!columnsPresent) {
+                log.info("[PATIENT_SEARCH] Trigram search columns not found — using the in-process n-gram index");
+            }
+        } catch (RuntimeException ex) {
+            log.warn("[PATIENT_SEARCH] Trigram column check failed — using the in-process n-gram index: {}",
+                ex.toString());
+            columnsPresent = false;
+        }
+    }
+
+    public boolean isAvailable() {
+        return enabled && columnsPresent;
+    }
+
+    /** One page of matching patient ids, best match first, with the total match count. */
+    public Page<UUID> search(PatientSearchQuery query, Pageable pageable) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder("""
+            FROM clinical.patients p
+            WHERE EXISTS (
+                SELECT 1 FROM clinical.patient_hospital_registrations r
+                WHERE r.patient_id = p.id
+                  AND r.is_active = TRUE""");
+        if (query.hospitalId() != null) {
+            where.append("\n      AND r.hospital_id = :hospitalId");
+            params.put("hospitalId", query.hospitalId());
+        }
+        if (query.mrn() != null) {
+            where.append("\n      AND r.mrn = :mrn");
+            params.put("mrn", query.mrn());
+        }
+        if (!tenantContext.isSuperAdmin()) {
+            where.append("""
+
+                  AND (p.organization_id IN (:organizationIds)
+                       OR p.hospital_id IN (:hospitalIds)
+                       OR r.hospital_id IN (:hospitalIds))""");
+            params.put("organizationIds", orSentinel(tenantContext.effectiveOrganizationIds()));
+            params.put("hospitalIds", orSentinel(tenantContext.effectiveHospitalIds()));
+        }
+        where.append(")");
+
+        StringBuilder score = new StringBuilder();
+        if (query.name() != null) {
+            where.append("\n  AND p.search_name LIKE :namePattern");
+            params.put("namePattern", query.namePattern());
+            appendScore(score, "similarity(p.search_name, :name)");
+            params.put("name", query.name());
+        }
+        if (query.email() != null) {
+            where.append("\n  AND p.search_email LIKE :emailPattern");
+            params.put("emailPattern", query.emailPattern());
+            appendScore(score, "similarity(p.search_email, :email)");
+            params.put("email", query.email());
+        }
+        if (query.phone() != null) {
+            where.append("\n  AND (p.phone_number_primary LIKE :phonePattern"
+                + " OR p.phone_number_secondary LIKE :phonePattern)");
+            params.put("phonePattern", query.phonePattern());
+            // GREATEST skips NULLs, so a missing secondary number scores as absent.
+            appendScore(score, "GREATEST(similarity(p.phone_number_primary, :phone),"
+                + " similarity(p.phone_number_secondary, :phone))");
+            params.put("phone", query.phone());
+        }
+        if (query.dateOfBirth() != null) {
+            where.append("\n  AND CAST(p.date_of_birth AS text) = :dob");
+            params.put("dob", query.dateOfBirth());
+        }
+        if (query.active() != null) {
+            where.append("\n  AND p.is_active = :active");
+            params.put("active", query.active());
+        }
+
+        Query select = entityManager.createNativeQuery(
+            "SELECT p.id " + where + "\nORDER BY (" + score + ") DESC, p.search_name, p.id");
+        params.forEach(select::setParameter);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        @SuppressWarnings("unchecked")
+        List<UUID> ids = select.getResultList();
+
+        Query count = entityManager.createNativeQuery("SELECT COUNT(*) " + where);
+        params.entrySet().stream()
+            .filter(entry -> !isScoreOnly(entry.getKey()))
+            .forEach(entry -> count.setParameter(entry.getKey(), entry.getValue()));
+        long total = ((Number) count.getSingleResult()).longValue();
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private static void appendScore(StringBuilder score, String term) {
+        if (!score.isEmpty()) {
+            score.append(" + ");
+        }
+        score.append(term);
+    }
+
+    /** Similarity arguments only appear in ORDER BY, which the count query does not have. */
+    private static boolean isScoreOnly(String parameter) {
+        return "name".equals(parameter) || "email".equals(parameter) || "phone".equals(parameter);
+    }
+
+    private static Set<UUID> orSentinel(Set<UUID> ids) {
+        return ids == null || ids.isEmpty() ? Set.of(NO_ID) : ids;
+    }
+}
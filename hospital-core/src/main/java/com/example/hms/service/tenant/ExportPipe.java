@@ -0,0 +1,131 @@
+package com.example.hms.service.tenant;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded hand-off between a table worker and the single thread writing
+ * the archive: the worker writes NDJSON into fixed-size chunks, the
+ * archive thread drains them into the table's ZIP entry.
+ *
+ * <p>At most {@code capacity} chunks wait in the pipe; a worker that runs
+ * ahead of the archive blocks until its entry is being drained. Memory
+ * per table is therefore {@code capacity × chunkBytes} however large the
+ * table is. {@link #abort()} releases a blocked worker — its next write
+ * fails — so a broken archive never strands a database cursor.
+ */
+final class ExportPipe extends OutputStream {
+
+    private static final long OFFER_POLL_MILLIS = 100;
+
+    /** A filled chunk, or the end of the table ({@code data == null}). */
+    private record Chunk(byte[] data, int length, long rows, Throwable failure) { }
+
+    private final BlockingQueue<Chunk> queue;
+    private final int chunkBytes;
+    private byte[] buffer;
+    private int position;
+    private volatile boolean aborted;
+
+    ExportPipe(int capacity, int chunkBytes) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.buffer = new byte[this.chunkBytes];
+    }
+
+    // ── Worker side ───────────────────────────────────────────────────────
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == buffer.length) {
+            flushChunk();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (position == buffer.length) {
+                flushChunk();
+            }
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(b, off, buffer, position, n);
+            position += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /** The table is complete: hand over the last partial chunk and the row count. */
+    void finish(long rows) throws IOException {
+        if (position > 0) {
+            flushChunk();
+        }
+        enqueue(new Chunk(null, 0, rows, null));
+    }
+
+    /** The worker failed: the archive thread rethrows {@code failure} when it reaches this table. */
+    void fail(Throwable failure) {
+        try {
+            enqueue(new Chunk(null, 0, 0, failure));
+        } catch (IOException ignored) {
+            // Aborted: nobody is waiting for this table any more.
+        }
+    }
+
+    private void flushChunk() throws IOException {
+        enqueue(new Chunk(buffer, position, 0, null));
+        buffer = new byte[chunkBytes];
+        position = 0;
+    }
+
+    private void enqueue(Chunk chunk) throws IOException {
+        try {
+            while (!queue.offer(chunk, OFFER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (aborted) throw new IOException("Export aborted");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        }
+        if (aborted) throw new IOException("Export aborted");
+    }
+
+    // ── Archive side ──────────────────────────────────────────────────────
+
+    /**
+     * Copy the table's bytes to {@code out} until the worker finishes.
+     *
+     * @return rows the worker reported.
+     * @throws IOException the worker's failure, or {@code out}'s.
+     */
+    long drainTo(OutputStream out) throws IOException {
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk.data() != null) {
+                    out.write(chunk.data(), 0, chunk.length());
+                } else if (chunk.failure() != null) {
+                    throw chunk.failure() instanceof IOException io
+                        ? io : new IOException(chunk.failure().getMessage(), chunk.failure());
+                } else {
+                    return chunk.rows();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        }
+    }
+
+    /** Stop accepting chunks and drop the queued ones; a blocked worker fails on its next write. */
+    void abort() {
+        aborted = true;
+        queue.clear();
+    }
+}
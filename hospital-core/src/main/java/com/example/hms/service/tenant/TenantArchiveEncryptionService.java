@@ -1,14 +1,15 @@
 package com.example.hms.service.tenant;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 
 /**
  * Wrap a packaged tenant archive in an at-rest encryption envelope
  * (MVP-c batch — MVP-2c).
  *
- * <p>The contract is intentionally narrow: take a plaintext file, write
- * an encrypted file. Key management lives behind a {@code KEK} source
+ * <p>The contract is intentionally narrow: take plaintext bytes — a file,
+ * or an archive being written as a stream — and write an encrypted file. Key management lives behind a {@code KEK} source
  * abstraction so the production deployment can swap in a real KMS
  * (AWS KMS / GCP KMS / HashiCorp Vault) without changing this service.
  *
@@ -39,6 +40,22 @@ public interface TenantArchiveEncryptionService {
      */
     EncryptionResult encryptArchive(Path plaintextZip, Path outputPath) throws IOException;
 
+    /**
+     * Encrypt-on-write: hand {@code writer} a stream whose bytes are
+     * encrypted on their way to {@code outputPath}, so the plaintext never
+     * touches disk. Writes the same sidecar envelope as
+     * {@link #encryptArchive}. On failure the partial output is deleted.
+     *
+     * @return EncryptionResult describing what was written.
+     */
+    EncryptionResult encryptStream(Path outputPath, ArchiveWriter writer) throws IOException;
+
+    /** Produces the plaintext; must not close the stream it is given. */
+    @FunctionalInterface
+    interface ArchiveWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
     /**
      * Outcome record. {@code mode = NOOP} means encryption was
      * disabled in this environment — the output is a copy of the
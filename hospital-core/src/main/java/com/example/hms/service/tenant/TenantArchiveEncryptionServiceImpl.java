@@ -8,12 +8,13 @@ import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -35,6 +36,11 @@ import java.util.Map;
  * — the wrap IV + ciphertext are stored on the envelope manifest, not
  * the archive itself, so a partner can encrypt-once / wrap-many if a
  * KEK rotation lands.
+ *
+ * <p>{@link #encryptStream} runs the producer straight through the
+ * {@code CipherOutputStream}: plaintext exists only in the producer's
+ * buffers, never in a file, and memory does not grow with archive size.
+ * {@link #encryptArchive} is the same path fed from an existing file.
  */
 @Service
 @Slf4j
@@ -45,7 +51,7 @@ public class TenantArchiveEncryptionServiceImpl implements TenantArchiveEncrypti
     private static final int GCM_TAG_BITS = 128;
     private static final int IV_BYTES = 12;
     private static final int DEK_BYTES = 32;
-    private static final int CHUNK = 8192;
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private static final SecureRandom RNG = new SecureRandom();
@@ -88,15 +94,20 @@ public class TenantArchiveEncryptionServiceImpl implements TenantArchiveEncrypti
 
     @Override
     public EncryptionResult encryptArchive(Path plaintextZip, Path outputPath) throws IOException {
+        return encryptStream(outputPath, out -> Files.copy(plaintextZip, out));
+    }
+
+    @Override
+    public EncryptionResult encryptStream(Path outputPath, ArchiveWriter writer) throws IOException {
         Files.createDirectories(outputPath.getParent());
 
         if ("noop".equalsIgnoreCase(kekSource)) {
-            return passthroughOrReject(plaintextZip, outputPath);
+            return passthroughOrReject(outputPath, writer);
         }
 
         byte[] kek = resolveKek();
         try {
-            return encryptWithKek(plaintextZip, outputPath, kek);
+            return encryptWithKek(outputPath, writer, kek);
         } catch (GeneralSecurityException ex) {
             // Wrap to IOException so the caller's IOException catch covers
             // both the file IO and the cipher path uniformly.
@@ -107,14 +118,14 @@ public class TenantArchiveEncryptionServiceImpl implements TenantArchiveEncrypti
         }
     }
 
-    private EncryptionResult passthroughOrReject(Path plaintextZip, Path outputPath) throws IOException {
+    private EncryptionResult passthroughOrReject(Path outputPath, ArchiveWriter writer) throws IOException {
         if (!isDevOrTestProfile()) {
             throw new IOException(
                 "hms.tenant-archive.kek-source=noop is only permitted in dev/test profiles. "
                     + "Set kek-source=env (with HMS_TENANT_ARCHIVE_KEK) for non-dev environments.");
         }
-        log.warn("[TENANT-ARCHIVE-ENCRYPTION] kek-source=noop — copying plaintext archive without encryption (dev only).");
-        Files.copy(plaintextZip, outputPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        log.warn("[TENANT-ARCHIVE-ENCRYPTION] kek-source=noop — writing plaintext archive without encryption (dev only).");
+        writeThrough(outputPath, writer, null);
         Path envelopePath = writeNoopEnvelope(outputPath);
         return new EncryptionResult(outputPath.toAbsolutePath(),
             envelopePath, EncryptionResult.Mode.NOOP, "none");
@@ -168,7 +179,7 @@ public class TenantArchiveEncryptionServiceImpl implements TenantArchiveEncrypti
             + " (expected env or noop; aws-kms/gcp-kms/vault are reserved for follow-up).");
     }
 
-    private EncryptionResult encryptWithKek(Path plaintextZip, Path outputPath, byte[] kek)
+    private EncryptionResult encryptWithKek(Path outputPath, ArchiveWriter writer, byte[] kek)
         throws IOException, GeneralSecurityException {
 
         // 1. Generate a fresh DEK (AES-256).
@@ -176,20 +187,11 @@ public class TenantArchiveEncryptionServiceImpl implements TenantArchiveEncrypti
         kg.init(DEK_BYTES * 8);
         SecretKey dek = kg.generateKey();
 
-        // 2. Encrypt the archive with DEK + a random IV.
+        // 2. Encrypt the archive with DEK + a random IV as it is written.
         byte[] dataIv = randomIv();
         Cipher dataCipher = Cipher.getInstance(AES_GCM);
         dataCipher.init(Cipher.ENCRYPT_MODE, dek, new GCMParameterSpec(GCM_TAG_BITS, dataIv));
-
-        try (InputStream in = Files.newInputStream(plaintextZip);
-             OutputStream out = Files.newOutputStream(outputPath);
-             javax.crypto.CipherOutputStream cipherOut = new javax.crypto.CipherOutputStream(out, dataCipher)) {
-            byte[] buf = new byte[CHUNK];
-            int n;
-            while ((n = in.read(buf)) != -1) {
-                cipherOut.write(buf, 0, n);
-            }
-        }
+        writeThrough(outputPath, writer, dataCipher);
 
         // 3. Wrap the DEK with the KEK using a separate IV.
         byte[] wrapIv = randomIv();
@@ -205,13 +207,29 @@ public class TenantArchiveEncryptionServiceImpl implements TenantArchiveEncrypti
         //    operationally unmappable after every redeploy).
         String kekId = deriveKekId(kek);
         Path envelopePath = writeEncryptedEnvelope(outputPath, kekId, wrappedDek, wrapIv, dataIv);
-        log.info("[TENANT-ARCHIVE-ENCRYPTION] Encrypted {} -> {} (envelope at {}, kek_id={})",
-            plaintextZip, outputPath, envelopePath, kekId);
+        log.info("[TENANT-ARCHIVE-ENCRYPTION] Encrypted archive -> {} (envelope at {}, kek_id={})",
+            outputPath, envelopePath, kekId);
 
         return new EncryptionResult(outputPath.toAbsolutePath(),
             envelopePath, EncryptionResult.Mode.ENCRYPTED, AES_GCM);
     }
 
+    /**
+     * Run {@code writer} into {@code outputPath}, through {@code cipher} when
+     * given. Closing the cipher stream appends the GCM tag. A failed write
+     * leaves no partial file behind.
+     */
+    private void writeThrough(Path outputPath, ArchiveWriter writer, Cipher cipher) throws IOException {
+        try (OutputStream file = Files.newOutputStream(outputPath);
+             OutputStream sink = cipher != null ? new CipherOutputStream(file, cipher) : file;
+             OutputStream out = new BufferedOutputStream(sink, STREAM_BUFFER_BYTES)) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(outputPath);
+            throw ex;
+        }
+    }
+
     private Path writeEncryptedEnvelope(Path outputPath, String kekId,
                                         byte[] wrappedDek, byte[] wrapIv, byte[] dataIv)
         throws IOException {
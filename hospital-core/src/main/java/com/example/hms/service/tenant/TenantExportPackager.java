@@ -4,10 +4,12 @@ import com.example.hms.model.Hospital;
 import com.example.hms.model.Organization;
 import com.example.hms.service.RegionPolicyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -20,25 +22,29 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
  * GDPR data-export packager (MVP-c batch — MVP-2c).
  *
- * <p>Writes a deterministic ZIP to the configured output path containing
- * a JSON manifest at the root + per-table NDJSON files. Each NDJSON
- * record is one JSON object per line so a partner can stream-process
- * the export without loading the whole file in memory.
+ * <p>Writes a deterministic ZIP containing a JSON manifest at the root +
+ * per-table NDJSON files. Each NDJSON record is one JSON object per line
+ * so a partner can stream-process the export without loading the whole
+ * file in memory.
  *
- * <p><b>Scope of this MVP</b>: org-level + hospital-level metadata
- * (the entities the lifecycle layer already touches) ship to the
- * archive. Patient / staff / encounter / audit dumps require
- * additional repository iterators per table — they're staged as
- * empty placeholders in the manifest so the export shape is stable
- * across releases, and real content drops in via a follow-up that
- * wires per-table cursors. The encryption envelope already supports
- * arbitrary content size; only the producer needs more inputs.
+ * <p>The archive is produced as a stream ({@link #writeOrganization}):
+ * the purge executor hands it the encrypting stream from
+ * {@link TenantArchiveEncryptionService#encryptStream}, so the plaintext
+ * ZIP never reaches disk. The per-table dumps (patients, staff,
+ * encounters, appointments, audit events) come from
+ * {@link TenantTableExporter} cursors, up to
+ * {@code hms.tenant-archive.export.parallelism} tables at a time. Workers
+ * run ahead of the ZIP writer into bounded {@link ExportPipe}s, so heap
+ * stays flat however many rows a tenant has; entries still land in a fixed
+ * order.
  *
  * <p>Region-aware export-format default consulted from
  * {@link RegionPolicyService#resolveDefaultExportFormat} —
@@ -47,7 +53,6 @@ import java.util.zip.ZipOutputStream;
  * subject rights notice required by Article 20.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class TenantExportPackager {
 
@@ -56,12 +61,28 @@ public class TenantExportPackager {
 
     private static final String FIELD_LIFECYCLE_STATE = "lifecycle_state";
 
+    /** Chunks a table worker may run ahead of the ZIP writer, and their size. */
+    private static final int PIPE_CHUNKS = 16;
+    private static final int PIPE_CHUNK_BYTES = 64 * 1024;
+    private static final int FILE_BUFFER_BYTES = 64 * 1024;
+
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private final RegionPolicyService regionPolicyService;
+    private final TenantTableExporter tableExporter;
+    private final int parallelism;
+
+    public TenantExportPackager(RegionPolicyService regionPolicyService,
+                                TenantTableExporter tableExporter,
+                                @Value("${hms.tenant-archive.export.parallelism:3}") int parallelism) {
+        this.regionPolicyService = regionPolicyService;
+        this.tableExporter = tableExporter;
+        this.parallelism = Math.max(1, parallelism);
+    }
 
     /**
-     * Package one organization's data to a ZIP at {@code outputPath}.
+     * Package one organization's data to a plaintext ZIP at {@code outputPath}.
+     * The purge path streams through {@link #writeOrganization} instead.
      *
      * @return PackageResult with the absolute path + record counts.
      * @throws IOException if the ZIP cannot be written.
@@ -69,9 +90,26 @@ public class TenantExportPackager {
     public PackageResult packageOrganization(Organization org, Path outputPath) throws IOException {
         Files.createDirectories(outputPath.getParent());
 
+        Map<String, Long> counts;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputPath), FILE_BUFFER_BYTES)) {
+            counts = writeOrganization(org, out);
+        }
+        log.info("[TENANT-EXPORT] Packaged org {} -> {} ({} entries)",
+            org.getId(), outputPath, counts.size());
+        return new PackageResult(outputPath.toAbsolutePath(), Map.copyOf(counts));
+    }
+
+    /**
+     * Write one organization's archive as a ZIP stream to {@code out}.
+     * {@code out} is flushed but not closed — the caller owns it (e.g. an
+     * encrypting stream that must finish its own trailer).
+     *
+     * @return record counts by entry, as carried in the manifest.
+     * @throws IOException if {@code out} fails or a table cannot be read.
+     */
+    public Map<String, Long> writeOrganization(Organization org, OutputStream out) throws IOException {
         Map<String, Long> counts = new LinkedHashMap<>();
-        try (OutputStream out = Files.newOutputStream(outputPath);
-             ZipOutputStream zip = new ZipOutputStream(out)) {
+        try (ZipOutputStream zip = new ZipOutputStream(nonClosing(out))) {
 
             // 1. Org-level NDJSON (single record).
             counts.put("organization.ndjson", writeOrganizationNdjson(zip, org));
@@ -86,16 +124,9 @@ public class TenantExportPackager {
                 counts.put("gdpr_portability_metadata.json", 1L);
             }
 
-            // 4. Empty placeholders for the per-table dumps that need
-            //    repository iterators. Keeps the ZIP shape stable so a
-            //    consumer doesn't need to handle "missing entries".
-            for (String name : new String[] {
-                "patients.ndjson", "staff.ndjson",
-                "encounters.ndjson", "appointments.ndjson", "audit_events.ndjson"
-            }) {
-                writeEmptyEntry(zip, name);
-                counts.putIfAbsent(name, 0L);
-            }
+            // 4. Per-table dumps. Every entry is written, empty or not, so
+            //    a consumer doesn't need to handle "missing entries".
+            writeTables(zip, org.getId(), counts);
 
             // 5. Manifest LAST so record_counts_by_table reflects what's
             //    actually in the archive (Copilot review fix — earlier
@@ -103,9 +134,60 @@ public class TenantExportPackager {
             //    archive, defeating the manifest's purpose).
             writeManifest(zip, org, counts);
         }
-        log.info("[TENANT-EXPORT] Packaged org {} -> {} ({} entries)",
-            org.getId(), outputPath, counts.size());
-        return new PackageResult(outputPath.toAbsolutePath(), Map.copyOf(counts));
+        return counts;
+    }
+
+    private void writeTables(ZipOutputStream zip, UUID orgId, Map<String, Long> counts) throws IOException {
+        List<String> tables = tableExporter.entryNames();
+        if (orgId == null) {
+            // Unsaved organization: nothing can reference it yet.
+            for (String table : tables) {
+                writeEmptyEntry(zip, table);
+                counts.put(table, 0L);
+            }
+            return;
+        }
+        if (parallelism == 1 || tables.size() < 2) {
+            for (String table : tables) {
+                zip.putNextEntry(new ZipEntry(table));
+                counts.put(table, tableExporter.exportTable(table, orgId, zip));
+                zip.closeEntry();
+            }
+            return;
+        }
+
+        // Workers block on the database and on full pipes, so virtual
+        // threads; the fixed pool caps how many cursors — and pooled
+        // connections — one export holds at a time. Tasks start in entry
+        // order, so the table being drained always has a running worker.
+        List<ExportPipe> pipes = new ArrayList<>(tables.size());
+        try (ExecutorService workers = Executors.newFixedThreadPool(
+                Math.min(parallelism, tables.size()), Thread.ofVirtual().name("tenant-export-", 0).factory())) {
+            for (String table : tables) {
+                ExportPipe pipe = new ExportPipe(PIPE_CHUNKS, PIPE_CHUNK_BYTES);
+                pipes.add(pipe);
+                workers.execute(() -> exportInto(table, orgId, pipe));
+            }
+            try {
+                for (int i = 0; i < tables.size(); i++) {
+                    zip.putNextEntry(new ZipEntry(tables.get(i)));
+                    counts.put(tables.get(i), pipes.get(i).drainTo(zip));
+                    zip.closeEntry();
+                }
+            } catch (IOException | RuntimeException ex) {
+                pipes.forEach(ExportPipe::abort);
+                workers.shutdownNow();
+                throw ex;
+            }
+        }
+    }
+
+    private void exportInto(String table, UUID orgId, ExportPipe pipe) {
+        try {
+            pipe.finish(tableExporter.exportTable(table, orgId, pipe));
+        } catch (Exception ex) {
+            pipe.fail(ex);
+        }
     }
 
     private void writeManifest(ZipOutputStream zip, Organization org, Map<String, Long> counts)
@@ -192,6 +274,20 @@ public class TenantExportPackager {
         zip.closeEntry();
     }
 
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
     /** Result of packaging — surface for the caller's audit description. */
     public record PackageResult(Path outputPath, Map<String, Long> recordCountsByTable) {
         public String describe() {
@@ -0,0 +1,247 @@
+package com.example.hms.service.tenant;
+
+import com.example.hms.security.EncryptedStringConverter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Streams one organization's rows of each per-table dump
+ * ({@code patients.ndjson}, {@code staff.ndjson}, ...) as NDJSON.
+ *
+ * <p>Each table is read with a forward-only JDBC cursor inside its own
+ * read-only transaction with a bounded fetch size
+ * ({@code hms.tenant-archive.export.fetch-size}). On PostgreSQL that is a
+ * server-side cursor: the driver holds one fetch of rows at a time, so a
+ * tenant with millions of patients costs the same heap as one with ten.
+ * Rows are written straight from the {@link ResultSet} through a Jackson
+ * generator — no entity hydration, no per-row maps.
+ *
+ * <p>Tables are scoped to the organization through its hospitals, and
+ * ordered by primary key so two exports of the same data are identical.
+ * PHI columns stored through {@link EncryptedStringConverter} are
+ * decrypted on the way out; the archive itself is encrypted as a whole
+ * by {@link TenantArchiveEncryptionService}.
+ *
+ * <p>Safe to call from several threads at once — {@link TenantExportPackager}
+ * runs one table per worker.
+ */
+@Component
+public class TenantTableExporter {
+
+    private static final String ORG_HOSPITALS =
+        "SELECT h.id FROM hospital.hospitals h WHERE h.organization_id = :orgId";
+
+    /** Per-table dumps in archive order. */
+    static final List<TableExport> TABLES = List.of(
+        new TableExport("patients.ndjson", """
+            SELECT p.id, p.first_name, p.middle_name, p.last_name, p.date_of_birth, p.gender,
+                   p.address, p.address_line1, p.address_line2, p.city, p.state, p.zip_code, p.country,
+                   p.phone_number_primary, p.phone_number_secondary, p.email,
+                   p.emergency_contact_name, p.emergency_contact_phone, p.emergency_contact_relationship,
+                   p.blood_type, p.allergies, p.medical_history_summary, p.preferred_pharmacy,
+                   p.care_team_notes, p.chronic_conditions, p.code_status, p.is_active,
+                   p.created_at, p.updated_at
+              FROM clinical.patients p
+             WHERE EXISTS (SELECT 1 FROM clinical.patient_hospital_registrations r
+                            WHERE r.patient_id = p.id AND r.hospital_id IN (%s))
+             ORDER BY p.id
+            """.formatted(ORG_HOSPITALS),
+            Set.of("address", "address_line1", "address_line2",
+                "emergency_contact_name", "emergency_contact_phone", "emergency_contact_relationship",
+                "allergies", "medical_history_summary", "care_team_notes", "chronic_conditions")),
+        new TableExport("staff.ndjson", """
+            SELECT s.id, s.user_id, s.hospital_id, s.department_id, s.name, s.job_title,
+                   s.employment_type, s.specialization, s.license_number, s.license_expiry_date,
+                   s.npi, s.start_date, s.end_date, s.active, s.created_at, s.updated_at
+              FROM hospital.staff s
+             WHERE s.hospital_id IN (%s)
+             ORDER BY s.id
+            """.formatted(ORG_HOSPITALS), Set.of()),
+        new TableExport("encounters.ndjson", """
+            SELECT e.id, e.code, e.patient_id, e.staff_id, e.hospital_id, e.department_id,
+                   e.appointment_id, e.encounter_type, e.urgency, e.encounter_date, e.status,
+                   e.chief_complaint, e.esi_score, e.arrival_timestamp, e.triage_timestamp,
+                   e.roomed_timestamp, e.checkout_timestamp, e.notes, e.follow_up_instructions,
+                   e.discharge_diagnoses, e.created_at, e.updated_at
+              FROM clinical.encounters e
+             WHERE e.hospital_id IN (%s)
+             ORDER BY e.id
+            """.formatted(ORG_HOSPITALS), Set.of()),
+        new TableExport("appointments.ndjson", """
+            SELECT a.id, a.patient_id, a.staff_id, a.hospital_id, a.department_id,
+                   a.appointment_date, a.start_time, a.end_time, a.status, a.reason, a.notes,
+                   a.checked_in_at, a.created_at, a.updated_at
+              FROM clinical.appointments a
+             WHERE a.hospital_id IN (%s)
+             ORDER BY a.id
+            """.formatted(ORG_HOSPITALS), Set.of()),
+        new TableExport("audit_events.ndjson", """
+            SELECT l.id, l.event_timestamp, l.event_type, l.status, l.actor_type, l.actor_label,
+                   l.user_id, l.user_name, l.role_name, l.hospital_name, l.event_description,
+                   l.details, l.target_entity_type, l.target_resource_id, l.resource_name
+              FROM support.audit_event_logs l
+              JOIN "security".user_role_hospital_assignment ura ON ura.id = l.assignment_id
+             WHERE ura.hospital_id IN (%s)
+             ORDER BY l.id
+            """.formatted(ORG_HOSPITALS), Set.of()));
+
+    /** java.time types whose {@code toString()} is the ISO-8601 form the archive carries. */
+    private static final Map<Integer, Class<?>> TEMPORAL_CLASSES = Map.of(
+        Types.DATE, LocalDate.class,
+        Types.TIME, LocalTime.class,
+        Types.TIMESTAMP, LocalDateTime.class,
+        Types.TIMESTAMP_WITH_TIMEZONE, OffsetDateTime.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final EncryptedStringConverter PHI = new EncryptedStringConverter();
+
+    private final NamedParameterJdbcTemplate cursorJdbc;
+    private final TransactionTemplate readTx;
+
+    public TenantTableExporter(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${hms.tenant-archive.export.fetch-size:1000}") int fetchSize) {
+        // A dedicated template so the fetch size applies to the export only.
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(Math.max(1, fetchSize));
+        this.cursorJdbc = new NamedParameterJdbcTemplate(cursor);
+        // Own transaction per table: PostgreSQL only keeps a cursor open
+        // outside autocommit, and each worker thread needs its own anyway.
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+    }
+
+    /** Entry names of the per-table dumps, in archive order. */
+    public List<String> entryNames() {
+        return TABLES.stream().map(TableExport::entryName).toList();
+    }
+
+    /**
+     * Write {@code entryName}'s rows for the organization to {@code out},
+     * one JSON object per line. Does not close {@code out}.
+     *
+     * @return number of rows written.
+     * @throws IOException if {@code out} fails or the table cannot be read.
+     */
+    public long exportTable(String entryName, UUID organizationId, OutputStream out) throws IOException {
+        TableExport table = TABLES.stream()
+            .filter(t -> t.entryName().equals(entryName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown export table: " + entryName));
+        try (JsonGenerator json = MAPPER.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            RowWriter rows = new RowWriter(json, table.encryptedColumns());
+            readTx.executeWithoutResult(status -> cursorJdbc.query(table.sql(),
+                new MapSqlParameterSource("orgId", organizationId), rows::write));
+            return rows.count;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } catch (RuntimeException ex) {
+            throw new IOException("Export of " + entryName + " failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    record TableExport(String entryName, String sql, Set<String> encryptedColumns) { }
+
+    /** Serializes the current row; column labels and types are read once. */
+    private static final class RowWriter {
+
+        private final JsonGenerator json;
+        private final Set<String> encryptedColumns;
+        private String[] labels;
+        private int[] types;
+        private boolean[] encrypted;
+        private long count;
+
+        RowWriter(JsonGenerator json, Set<String> encryptedColumns) {
+            this.json = json;
+            this.encryptedColumns = encryptedColumns;
+        }
+
+        void write(ResultSet rs) throws SQLException {
+            if (labels == null) {
+                describe(rs.getMetaData());
+            }
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < labels.length; i++) {
+                    json.writeFieldName(labels[i]);
+                    writeValue(rs, i);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            count++;
+        }
+
+        private void describe(ResultSetMetaData meta) throws SQLException {
+            int columns = meta.getColumnCount();
+            labels = new String[columns];
+            types = new int[columns];
+            encrypted = new boolean[columns];
+            for (int i = 0; i < columns; i++) {
+                labels[i] = meta.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+                types[i] = meta.getColumnType(i + 1);
+                encrypted[i] = encryptedColumns.contains(labels[i]);
+            }
+        }
+
+        private void writeValue(ResultSet rs, int i) throws SQLException, IOException {
+            int column = i + 1;
+            switch (types[i]) {
+                case Types.BOOLEAN, Types.BIT -> {
+                    boolean value = rs.getBoolean(column);
+                    if (rs.wasNull()) json.writeNull(); else json.writeBoolean(value);
+                }
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> {
+                    long value = rs.getLong(column);
+                    if (rs.wasNull()) json.writeNull(); else json.writeNumber(value);
+                }
+                case Types.NUMERIC, Types.DECIMAL, Types.REAL, Types.FLOAT, Types.DOUBLE -> {
+                    BigDecimal value = rs.getBigDecimal(column);
+                    if (value == null) json.writeNull(); else json.writeNumber(value);
+                }
+                case Types.DATE, Types.TIME, Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> {
+                    Object value = rs.getObject(column, TEMPORAL_CLASSES.get(types[i]));
+                    if (value == null) json.writeNull(); else json.writeString(value.toString());
+                }
+                default -> {
+                    // Strings, UUIDs, enums: the JDBC string form is the canonical one.
+                    String value = rs.getString(column);
+                    if (value == null) json.writeNull();
+                    else json.writeString(encrypted[i] ? PHI.convertToEntityAttribute(value) : value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.hms.utility;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Base for the JPA entity listeners that keep a Spring bean (a read cache,
+ * an index, a compiled rule set) in step with entity writes.
+ *
+ * <p>Entity listeners are not Spring beans, so the target bean is resolved
+ * through {@link ApplicationContextProvider}: plain-JPA unit tests (no
+ * context) skip it silently, and a closed context or missing bean is
+ * logged at debug — a cache must never fail the clinical write that
+ * triggered the callback.
+ *
+ * <p>Subclasses {@link #queue} a key per callback. Keys queued during one
+ * transaction are coalesced and handed to {@link #afterCompletion} once,
+ * when it completes — after commit, or after rollback so invalidations can
+ * drop anything the writer's own transaction cached. Outside a transaction
+ * they are handled at once. {@link #now} is for work that must also happen
+ * before the writer reads its own change back.
+ *
+ * @param <B> the bean kept in step
+ * @param <K> what a callback queues (an id, a captured row, …)
+ */
+@Slf4j
+public abstract class AfterCommitEntityListener<B, K> {
+
+    private final Class<B> beanType;
+    private final String logTag;
+
+    protected AfterCommitEntityListener(Class<B> beanType, String logTag) {
+        this.beanType = beanType;
+        this.logTag = logTag;
+    }
+
+    /**
+     * Handle every key queued during one transaction. {@code committed} is
+     * false after a rollback; outside a transaction it is always true.
+     */
+    protected abstract void afterCompletion(B bean, Set<K> keys, boolean committed);
+
+    /** Whether callbacks should be queued at all, e.g. false while a feature flag is off. */
+    protected boolean isActive(B bean) {
+        return true;
+    }
+
+    /** Queue {@code key} for {@link #afterCompletion}; {@code null} keys are ignored. */
+    protected final void queue(K key) {
+        B bean = key == null ? null : bean(key);
+        if (bean == null || !isActive(bean)) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(bean, Set.of(key), true);
+            return;
+        }
+        // One synchronization per listener type and transaction, however many rows it writes.
+        @SuppressWarnings("unchecked")
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(getClass());
+        if (pending == null) {
+            pending = new Pending(bean);
+            TransactionSynchronizationManager.bindResource(getClass(), pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.keys.add(key);
+    }
+
+    /** Run {@code action} against the bean straight away; {@code null} keys are ignored. */
+    protected final void now(K key, BiConsumer<B, K> action) {
+        B bean = key == null ? null : bean(key);
+        if (bean == null) return;
+        try {
+            action.accept(bean, key);
+        } catch (RuntimeException ex) {
+            log.debug("{} Skipping {} update for {}: {}", logTag, beanType.getSimpleName(), key, ex.getMessage());
+        }
+    }
+
+    private B bean(K key) {
+        ApplicationContext context = ApplicationContextProvider.getApplicationContext();
+        if (context == null) return null;
+        try {
+            return context.getBean(beanType);
+        } catch (RuntimeException ex) {
+            // Closed/foreign test contexts or a missing bean.
+            log.debug("{} Skipping {} update for {}: {}", logTag, beanType.getSimpleName(), key, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void deliver(B bean, Set<K> keys, boolean committed) {
+        try {
+            afterCompletion(bean, keys, committed);
+        } catch (RuntimeException ex) {
+            log.debug("{} Skipping {} update for {}: {}", logTag, beanType.getSimpleName(), keys, ex.getMessage());
+        }
+    }
+
+    private final class Pending implements TransactionSynchronization {
+        private final B bean;
+        private final Set<K> keys = new LinkedHashSet<>();
+
+        private Pending(B bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AfterCommitEntityListener.this.getClass());
+            deliver(bean, keys, status == STATUS_COMMITTED);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.hms.utility;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Per-node map with a time-to-live and a hard size cap, shared by the
+ * short-lived read caches (assignment snapshots, CDS patient state, BPA
+ * vitals windows, stock view, $everything bundles, verified JWT claims, …).
+ *
+ * <p>When full, expired entries are purged first, then arbitrary live ones
+ * — the caches in front of it are advisory, so an unlucky eviction costs a
+ * reload, never a wrong answer. {@code maxEntries <= 0} or a non-positive
+ * TTL turns it off: {@link #load} still calls the loader but keeps nothing.
+ *
+ * <p>{@link #load} guards against the classic read/invalidate race: a load
+ * that overlaps an invalidation or update of <em>its own key</em> returns
+ * its value to the caller but does not store it, since the value may
+ * predate the change. Changes to other keys do not affect it.
+ *
+ * <p>Null values are never stored; callers that need to remember a miss
+ * wrap the value (e.g. in {@code Optional}).
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtMillis) { }
+
+    /** One {@link #load} in progress; marked stale by any change to its key. */
+    private static final class Load<K> {
+        private final K key;
+        private volatile boolean stale;
+
+        private Load(K key) {
+            this.key = key;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Set<Load<K>> loading = ConcurrentHashMap.newKeySet();
+
+    public BoundedTtlCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    public BoundedTtlCache(int maxEntries, Duration ttl, Clock clock) {
+        boolean enabled = maxEntries > 0 && !ttl.isZero() && !ttl.isNegative();
+        this.maxEntries = enabled ? maxEntries : 0;
+        this.ttlMillis = enabled ? ttl.toMillis() : 0;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /** The live value for {@code key}, or {@code null}. */
+    public V getIfPresent(K key) {
+        if (!isEnabled()) return null;
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAtMillis() <= clock.millis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Runs {@code loader} and stores its result for the TTL, unless
+     * {@code key} was invalidated or updated while it ran. Always returns
+     * the loaded value.
+     */
+    public V load(K key, Supplier<? extends V> loader) {
+        if (!isEnabled()) return loader.get();
+        Load<K> load = new Load<>(key);
+        loading.add(load);
+        try {
+            V value = loader.get();
+            if (!load.stale) {
+                Entry<V> stored = store(key, value, clock.millis() + ttlMillis);
+                // An invalidation may have slipped in between the check and the store.
+                if (stored != null && load.stale) entries.remove(key, stored);
+            }
+            return value;
+        } finally {
+            loading.remove(load);
+        }
+    }
+
+    /** Stores {@code value} for the TTL. */
+    public void put(K key, V value) {
+        if (!isEnabled()) return;
+        store(key, value, clock.millis() + ttlMillis);
+    }
+
+    /** Stores {@code value} until {@code expiresAtMillis}, but never longer than the TTL. */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (!isEnabled()) return;
+        long now = clock.millis();
+        long expiresAt = Math.min(expiresAtMillis, now + ttlMillis);
+        if (expiresAt <= now) return;
+        store(key, value, expiresAt);
+    }
+
+    /**
+     * Replaces a present value in place, keeping its expiry; a {@code null}
+     * result removes it. Loads of {@code key} in progress are not stored.
+     */
+    public void computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> update) {
+        markStale(key::equals);
+        entries.computeIfPresent(key, (k, entry) -> {
+            V updated = update.apply(k, entry.value());
+            return updated == null ? null : new Entry<>(updated, entry.expiresAtMillis());
+        });
+    }
+
+    public void invalidate(K key) {
+        markStale(key::equals);
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super K> keys) {
+        markStale(keys);
+        entries.keySet().removeIf(keys);
+    }
+
+    public void invalidateAll() {
+        markStale(key -> true);
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry<V> store(K key, V value, long expiresAtMillis) {
+        if (value == null) return null;
+        if (entries.size() >= maxEntries) {
+            long now = clock.millis();
+            entries.values().removeIf(e -> e.expiresAtMillis() <= now);
+            Iterator<K> it = entries.keySet().iterator();
+            while (entries.size() >= maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        Entry<V> entry = new Entry<>(value, expiresAtMillis);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private void markStale(Predicate<? super K> keys) {
+        for (Load<K> load : loading) {
+            if (keys.test(load.key)) load.stale = true;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.hms.utility;
 
+import com.example.hms.hl7.Hl7v2Message;
 import com.example.hms.model.LabOrder;
 import com.example.hms.model.LabResult;
 import com.example.hms.model.LabSpecimen;
@@ -8,12 +9,15 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Minimal HL7v2 message builder / parser for instrument integration scaffolding.
  * Produces OML^O21 (order) and ORU^R01 (result observation) message strings and
- * provides a basic ORU^R01 inbound parser.
+ * provides ORU^R01 / ADT inbound parsers on top of the single-pass
+ * {@link Hl7v2Message} index.
  *
  * <p>Field separator: {@code |} &nbsp; Component separator: {@code ^}
  * Line endings follow HL7v2 convention: {@code \r}
@@ -114,48 +118,57 @@ public class Hl7v2MessageBuilder {
     public ParsedObservation parseOruR01(String hl7Message) {
         if (hl7Message == null || hl7Message.isBlank()) return null;
         try {
-            String[] segments = hl7Message.split("[\r\n]+");
-            String patientId = extractPid(segments);
-            String[] obrIds = extractObrOrderNumbers(segments);
-            return parseFirstObx(segments, patientId, obrIds[0], obrIds[1]);
+            return parseIndexedOruR01(Hl7v2Message.parse(hl7Message));
         } catch (Exception ignored) {
             return null;
         }
     }
 
-    private ParsedObservation parseFirstObx(String[] segments, String patientId,
-                                            String placer, String filler) {
-        for (String seg : segments) {
-            if (seg.startsWith("OBX")) {
-                return parseObxSegment(seg, patientId, placer, filler);
+    /** {@link #parseOruR01(String)} over a message the caller has already indexed. */
+    public ParsedObservation parseIndexedOruR01(Hl7v2Message message) {
+        List<ParsedObservation> observations = parseOruR01Observations(message);
+        return observations.isEmpty() ? null : observations.get(0);
+    }
+
+    /**
+     * Parses every OBX segment of an ORU^R01, in message order. Each
+     * observation carries the order numbers of the OBR it sits under; an
+     * OBX ahead of any OBR falls back to the message's first OBR.
+     *
+     * <p>Returns an empty list if the message has no OBX or cannot be parsed.
+     */
+    public List<ParsedObservation> parseOruR01Observations(Hl7v2Message message) {
+        if (message == null) return List.of();
+        try {
+            String patientId = message.component(message.findSegment("PID"), 3, 1);
+            int firstObr = message.findSegment("OBR");
+            String placer = message.component(firstObr, 2, 1);
+            String filler = message.component(firstObr, 3, 1);
+            List<ParsedObservation> observations = new ArrayList<>(2);
+            for (int seg = 0; seg < message.segmentCount(); seg++) {
+                if (message.isSegment(seg, "OBR")) {
+                    placer = message.component(seg, 2, 1);
+                    filler = message.component(seg, 3, 1);
+                } else if (message.isSegment(seg, "OBX")) {
+                    observations.add(parseObxSegment(message, seg, patientId, placer, filler));
+                }
             }
+            return observations;
+        } catch (Exception ignored) {
+            return List.of();
         }
-        return null;
     }
 
-    private ParsedObservation parseObxSegment(String seg, String patientId,
+    private ParsedObservation parseObxSegment(Hl7v2Message message, int obx, String patientId,
                                               String placer, String filler) {
-        String[] f = seg.split("\\|", -1);
-        String testCode = f.length > 3  ? firstComponent(f[3]) : "";
-        String value    = f.length > 5  ? f[5]                 : "";
-        String unit     = f.length > 6  ? f[6]                 : "";
-        String abnFlag  = f.length > 8  ? f[8]                 : "N";
-        String datePart = f.length > 14 ? f[14]                : "";
+        String testCode = message.component(obx, 3, 1);
+        String value    = message.field(obx, 5);
+        String unit     = message.field(obx, 6);
+        String abnFlag  = message.fieldCount(obx) >= 8 ? message.field(obx, 8) : "N";
+        String datePart = message.field(obx, 14);
         return new ParsedObservation(patientId, placer, filler, testCode, value, unit, abnFlag, parseHl7DateTime(datePart));
     }
 
-    private String[] extractObrOrderNumbers(String[] segments) {
-        for (String seg : segments) {
-            if (seg.startsWith("OBR")) {
-                String[] f = seg.split("\\|", -1);
-                String placer = f.length > 2 ? firstComponent(f[2]) : "";
-                String filler = f.length > 3 ? firstComponent(f[3]) : "";
-                return new String[] { placer, filler };
-            }
-        }
-        return new String[] { "", "" };
-    }
-
     // ── Inbound ADT parser ────────────────────────────────────────────────────
 
     /**
@@ -200,34 +213,45 @@ public class Hl7v2MessageBuilder {
     public ParsedAdtMessage parseAdtMessage(String hl7Message, String triggerEvent) {
         if (hl7Message == null || hl7Message.isBlank()) return null;
         try {
-            String[] segments = hl7Message.split("[\r\n]+");
-            String[] pid = findSegment(segments, "PID");
-            if (pid.length == 0) return null;
-            String[] mrnParts = parseIdentifierList(field(pid, 3));
-            if (mrnParts[0] == null || mrnParts[0].isBlank()) {
+            return parseIndexedAdtMessage(Hl7v2Message.parse(hl7Message), triggerEvent);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /** {@link #parseAdtMessage(String, String)} over a message the caller has already indexed. */
+    public ParsedAdtMessage parseIndexedAdtMessage(Hl7v2Message message, String triggerEvent) {
+        if (message == null) return null;
+        try {
+            int pid = message.findSegment("PID");
+            if (pid < 0) return null;
+            // PID-3 may repeat (~); the first repetition is ID^^^Authority^Type.
+            String mrn = message.component(pid, 3, 1);
+            if (mrn.isBlank()) {
                 // No MRN — refuse: we cannot resolve identity.
                 return null;
             }
-            String[] name = parseName(field(pid, 5));
-            LocalDate dob = parseHl7Date(field(pid, 7));
-            String sex = field(pid, 8);
-            String[] address = parseAddress(field(pid, 11));
+            String mrnAuthority = message.component(pid, 3, 4);
+            LocalDate dob = parseHl7Date(message.field(pid, 7));
+            String sex = message.field(pid, 8);
 
-            String[] pv1 = findSegment(segments, "PV1");
-            String patientClass = field(pv1, 2);
-            String assignedLocation = field(pv1, 3);
-            String visitNumber = firstComponent(field(pv1, 19));
-            LocalDateTime admit = parseHl7DateTimeOrNull(field(pv1, 44));
-            LocalDateTime discharge = parseHl7DateTimeOrNull(field(pv1, 45));
+            int pv1 = message.findSegment("PV1");
+            String patientClass = message.field(pv1, 2);
+            String assignedLocation = message.field(pv1, 3);
+            String visitNumber = message.component(pv1, 19, 1);
+            LocalDateTime admit = parseHl7DateTimeOrNull(message.field(pv1, 44));
+            LocalDateTime discharge = parseHl7DateTimeOrNull(message.field(pv1, 45));
 
             return new ParsedAdtMessage(
                 triggerEvent,
-                mrnParts[0],
-                mrnParts[1],
-                name[0], name[1], name[2],
+                mrn,
+                mrnAuthority,
+                message.component(pid, 5, 1), message.component(pid, 5, 2), message.component(pid, 5, 3),
                 dob,
                 sex,
-                address[0], address[1], address[2], address[3], address[4],
+                // PID-11 XAD: street^other^city^state^zip^country
+                message.component(pid, 11, 1), message.component(pid, 11, 3), message.component(pid, 11, 4),
+                message.component(pid, 11, 5), message.component(pid, 11, 6),
                 patientClass,
                 assignedLocation,
                 visitNumber,
@@ -239,55 +263,6 @@ public class Hl7v2MessageBuilder {
         }
     }
 
-    private static final String[] EMPTY_SEGMENT = new String[0];
-
-    private String[] findSegment(String[] segments, String prefix) {
-        if (segments == null) return EMPTY_SEGMENT;
-        for (String seg : segments) {
-            if (seg.startsWith(prefix + "|")) {
-                return seg.split("\\|", -1);
-            }
-        }
-        return EMPTY_SEGMENT;
-    }
-
-    private String field(String[] segment, int idx) {
-        if (idx < 0 || idx >= segment.length) return "";
-        return segment[idx] == null ? "" : segment[idx];
-    }
-
-    private String[] parseIdentifierList(String raw) {
-        // PID-3 may be a repeating field separated by ~, with components ID^^^Authority^Type.
-        if (raw == null || raw.isBlank()) return new String[] { "", "" };
-        String first = raw.split("~", -1)[0];
-        String[] comps = first.split("\\^", -1);
-        String id = comps.length > 0 ? comps[0] : "";
-        String authority = comps.length > 3 ? comps[3] : "";
-        return new String[] { id, authority };
-    }
-
-    private String[] parseName(String raw) {
-        if (raw == null || raw.isBlank()) return new String[] { "", "", "" };
-        String[] comps = raw.split("\\^", -1);
-        return new String[] {
-            comps.length > 0 ? comps[0] : "",
-            comps.length > 1 ? comps[1] : "",
-            comps.length > 2 ? comps[2] : ""
-        };
-    }
-
-    private String[] parseAddress(String raw) {
-        if (raw == null || raw.isBlank()) return new String[] { "", "", "", "", "" };
-        String[] comps = raw.split("\\^", -1);
-        return new String[] {
-            comps.length > 0 ? comps[0] : "",
-            comps.length > 2 ? comps[2] : "",
-            comps.length > 3 ? comps[3] : "",
-            comps.length > 4 ? comps[4] : "",
-            comps.length > 5 ? comps[5] : ""
-        };
-    }
-
     private LocalDate parseHl7Date(String raw) {
         if (raw == null || raw.length() < 8) return null;
         try {
@@ -319,21 +294,6 @@ public class Hl7v2MessageBuilder {
         return "PID|1||" + patientId + "|||" + patientName + SEG_TERM;
     }
 
-    private String firstComponent(String field) {
-        int idx = field.indexOf('^');
-        return idx >= 0 ? field.substring(0, idx) : field;
-    }
-
-    private String extractPid(String[] segments) {
-        for (String seg : segments) {
-            if (seg.startsWith("PID")) {
-                String[] f = seg.split("\\|", -1);
-                return f.length > 3 ? firstComponent(f[3]) : "";
-            }
-        }
-        return "";
-    }
-
     private LocalDateTime parseHl7DateTime(String raw) {
         if (raw == null || raw.length() < 8) return LocalDateTime.now();
         try {
@@ -3,6 +3,8 @@ package com.example.hms.utility;
 import com.example.hms.exception.BusinessException;
 import com.example.hms.model.UserRoleHospitalAssignment;
 import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
+import com.example.hms.security.authz.AssignmentSnapshot;
+import com.example.hms.security.authz.AssignmentSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.security.core.Authentication;
@@ -10,7 +12,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.HashSet;
-import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
@@ -22,6 +23,7 @@ public class RoleValidator {
 
 
     private final UserRoleHospitalAssignmentRepository assignmentRepository;
+    private final AssignmentSnapshotCache assignmentSnapshots;
 
     /* =========================================
        Authority helpers (JWT/global authorities)
@@ -113,6 +115,16 @@ public class RoleValidator {
         return null;
     }
 
+    /**
+     * The user's active assignments, loaded once per request (and shared
+     * across requests for a short TTL, see {@link AssignmentSnapshotCache}).
+     * Every hospital-scoped check below is a lookup in this snapshot.
+     */
+    private AssignmentSnapshot snapshot(UUID userId) {
+        return assignmentSnapshots.get(userId,
+            uid -> AssignmentSnapshot.of(uid, assignmentRepository.findByUser_IdAndActiveTrue(uid)));
+    }
+
     /**
      * Resolve a single current hospital if there's exactly one active
      * assignment that has a hospital attached.
@@ -133,10 +145,7 @@ public class RoleValidator {
     public UUID getCurrentHospitalId() {
         UUID uid = getCurrentUserId();
         if (uid == null) return null;
-        List<UserRoleHospitalAssignment> active = assignmentRepository.findByUser_IdAndActiveTrue(uid);
-        if (active.size() != 1) return null;
-        var hospital = active.get(0).getHospital();
-        return hospital != null ? hospital.getId() : null;
+        return snapshot(uid).singleHospitalId();
     }
 
     /**
@@ -168,7 +177,7 @@ public class RoleValidator {
      *       to the service.</li>
      *   <li>HospitalContext (populated by JwtAuthenticationFilter from
      *       the X-Hospital-Id header).</li>
-     *   <li>Single active assignment (DB lookup).</li>
+     *   <li>Single active assignment (assignment snapshot).</li>
      *   <li>Authorities-based super-admin safety net — left in place so
      *       paths where {@code HospitalContext} isn't populated (legacy
      *       tests, edge entrypoints) still get the unscoped
@@ -212,20 +221,23 @@ public class RoleValidator {
         UUID uid = getCurrentUserId();
         UUID hid = getCurrentHospitalId();
         if (uid == null || hid == null) return null;
-        return assignmentRepository.findFirstByUser_IdAndHospital_IdAndActiveTrue(uid, hid).orElse(null);
+        UUID assignmentId = snapshot(uid).assignmentIdIn(hid);
+        if (assignmentId == null) return null;
+        // Primary-key load: served from the persistence context when the
+        // caller's transaction already holds the row.
+        return assignmentRepository.findById(assignmentId).orElse(null);
     }
 
     /* =========================================
-       Hospital‑scoped role checks (DB-backed)
+       Hospital‑scoped role checks (assignment snapshot)
        ========================================= */
-    private Set<String> expandCodesForDb(String base) {
-        // Reuse expandCodes but DB layer may accept both forms
-        return expandCodes(base);
+    private boolean hasAnyCode(UUID userId, UUID hospitalId, String baseCode) {
+        if (userId == null || hospitalId == null) return false;
+        return snapshot(userId).hasAnyRole(hospitalId, expandCodes(baseCode));
     }
 
-    private boolean hasAnyCode(UUID userId, UUID hospitalId, String baseCode) {
-        return assignmentRepository.existsActiveByUserAndHospitalAndAnyRoleCode(
-            userId, hospitalId, expandCodesForDb(baseCode));
+    private boolean isActiveIn(UUID userId, UUID hospitalId) {
+        return userId != null && snapshot(userId).isActiveIn(hospitalId);
     }
 
     public boolean isDoctor(UUID userId, UUID hospitalId) { return hasAnyCode(userId, hospitalId, "DOCTOR"); }
@@ -252,7 +264,7 @@ public class RoleValidator {
         }
     }
 
-    public boolean isAnyActiveRole(UUID userId) { return assignmentRepository.existsByUserIdAndActiveTrue(userId); }
+    public boolean isAnyActiveRole(UUID userId) { return userId != null && !snapshot(userId).isEmpty(); }
 
     /* =========================================
        Convenience
@@ -286,7 +298,7 @@ public class RoleValidator {
     public boolean canLinkInsurance(UUID actorUserId, UUID hospitalId) {
         // Staff can link insurance if they have any role in the hospital
         if (isStaffOrAdminFromAuth()) {
-            return assignmentRepository.existsByUserIdAndHospitalIdAndActiveTrue(actorUserId, hospitalId);
+            return isActiveIn(actorUserId, hospitalId);
         }
         // Patients can only link their own insurance
         return actorUserId != null && actorUserId.equals(getCurrentUserId());
@@ -294,7 +306,7 @@ public class RoleValidator {
     public boolean canViewPatient(UUID actorUserId, UUID patientId) {
         // Staff can view any patient in their hospital
         if (isStaffOrAdminFromAuth()) {
-            return assignmentRepository.existsByUserIdAndHospitalIdAndActiveTrue(actorUserId, getCurrentHospitalId());
+            return isActiveIn(actorUserId, getCurrentHospitalId());
         }
         // Patients can only view themselves
         return actorUserId != null && actorUserId.equals(patientId);
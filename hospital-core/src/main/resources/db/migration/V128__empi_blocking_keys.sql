@@ -0,0 +1,39 @@
+-- V128: empi.blocking_keys — persisted blocking index for the probabilistic
+-- EMPI matcher (roadmap row 25 blocking follow-on).
+--
+-- WHY: EmpiProbabilisticMatcher generated candidates with
+--   PatientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase
+-- i.e. LOWER(first_name) LIKE '%x%' OR LOWER(last_name) LIKE '%y%' across
+-- EVERY tenant's patients, and only then filtered by hospital in Java. One
+-- reception-desk duplicate check loaded thousands of Patient entities.
+--
+-- Each row is one (hospital, patient, key, DOB-year) tuple; keys are
+-- last-name Soundex ("LP:"), last-name leading trigram ("LG:") and
+-- first-name Soundex ("FP:") — see EmpiBlockingKeys. The matcher probes
+--   hospital_id = ? AND key_value IN (...) AND block_year IN (y-1, y, y+1)
+-- which idx_empi_blocking_lookup serves as a bounded index range scan.
+--
+-- Derived data: rows are rewritten after commit by EmpiBlockingIndexer and
+-- backfilled on startup when the table is empty, so no data migration here.
+-- No FK to clinical.patients on purpose — tenant purge deletes patients in
+-- bulk and the index must never block it; stale rows are dropped by the
+-- matcher's findAllById (missing patient ⇒ no candidate).
+
+CREATE TABLE IF NOT EXISTS empi.blocking_keys (
+    id           UUID         NOT NULL DEFAULT gen_random_uuid(),
+    hospital_id  UUID         NOT NULL,
+    patient_id   UUID         NOT NULL,
+    key_type     VARCHAR(30)  NOT NULL,
+    key_value    VARCHAR(32)  NOT NULL,
+    block_year   INTEGER      NOT NULL,
+    created_at   TIMESTAMP    NOT NULL DEFAULT now(),
+    updated_at   TIMESTAMP    NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_empi_blocking_keys PRIMARY KEY (id),
+    CONSTRAINT uq_empi_blocking_key UNIQUE (hospital_id, patient_id, key_value, block_year)
+);
+
+CREATE INDEX IF NOT EXISTS idx_empi_blocking_lookup
+    ON empi.blocking_keys (hospital_id, key_value, block_year);
+CREATE INDEX IF NOT EXISTS idx_empi_blocking_patient
+    ON empi.blocking_keys (patient_id);
@@ -0,0 +1,71 @@
+-- V129: empi.dedup_jobs + empi.duplicate_candidates — batch EMPI
+-- deduplication scan and its steward review queue (roadmap row 25
+-- stewardship follow-on).
+--
+-- WHY: the probabilistic matcher only catches a duplicate when a
+-- receptionist happens to register the same person twice; duplicates
+-- already in the registry (paper-era imports, pre-EMPI registrations) were
+-- never surfaced. EmpiDeduplicationServiceImpl walks empi.blocking_keys
+-- (V128) block by block, scores pairs in parallel and queues suspected
+-- duplicates here.
+--
+-- dedup_jobs.checkpoint_key is the last blocking-key value whose pairs are
+-- committed; a resumed job restarts strictly after it. version backs the
+-- optimistic claim so two nodes never run the same job; heartbeat_at lets a
+-- sweep on another node resume a job whose owner died.
+--
+-- duplicate_candidates stores each pair once per hospital, canonically
+-- ordered (patient_a_id < patient_b_id in JVM UUID order), so a later scan
+-- never re-queues a pair a steward already dismissed. No FK to
+-- clinical.patients, same reason as V128 (tenant purge must not be blocked).
+
+CREATE TABLE IF NOT EXISTS empi.dedup_jobs (
+    id                UUID          NOT NULL DEFAULT gen_random_uuid(),
+    hospital_id       UUID          NOT NULL,
+    status            VARCHAR(20)   NOT NULL,
+    checkpoint_key    VARCHAR(32),
+    processed_blocks  BIGINT        NOT NULL DEFAULT 0,
+    scored_pairs      BIGINT        NOT NULL DEFAULT 0,
+    pairs_found       BIGINT        NOT NULL DEFAULT 0,
+    requested_by      UUID,
+    started_at        TIMESTAMP,
+    finished_at       TIMESTAMP,
+    heartbeat_at      TIMESTAMP,
+    last_error        VARCHAR(1000),
+    version           BIGINT        NOT NULL DEFAULT 0,
+    created_at        TIMESTAMP     NOT NULL DEFAULT now(),
+    updated_at        TIMESTAMP     NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_empi_dedup_jobs PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_empi_dedup_jobs_status
+    ON empi.dedup_jobs (status, heartbeat_at);
+
+CREATE TABLE IF NOT EXISTS empi.duplicate_candidates (
+    id             UUID              NOT NULL DEFAULT gen_random_uuid(),
+    job_id         UUID              NOT NULL,
+    hospital_id    UUID              NOT NULL,
+    patient_a_id   UUID              NOT NULL,
+    patient_b_id   UUID              NOT NULL,
+    score          DOUBLE PRECISION  NOT NULL,
+    name_score     DOUBLE PRECISION  NOT NULL,
+    dob_score      DOUBLE PRECISION  NOT NULL,
+    sex_matched    BOOLEAN           NOT NULL,
+    review_status  VARCHAR(20)       NOT NULL DEFAULT 'PENDING',
+    reviewed_by    UUID,
+    reviewed_at    TIMESTAMP,
+    review_notes   VARCHAR(1000),
+    created_at     TIMESTAMP         NOT NULL DEFAULT now(),
+    updated_at     TIMESTAMP         NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_empi_duplicate_candidates PRIMARY KEY (id),
+    CONSTRAINT fk_empi_duplicate_job FOREIGN KEY (job_id)
+        REFERENCES empi.dedup_jobs (id) ON DELETE CASCADE,
+    CONSTRAINT uq_empi_duplicate_pair UNIQUE (hospital_id, patient_a_id, patient_b_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_empi_duplicate_review
+    ON empi.duplicate_candidates (hospital_id, review_status, score);
+CREATE INDEX IF NOT EXISTS idx_empi_duplicate_job
+    ON empi.duplicate_candidates (job_id, score);
@@ -0,0 +1,58 @@
+-- V130: platform.fhir_bulk_export_jobs + platform.fhir_bulk_export_files —
+-- persistent store behind FHIR $export (roadmap row 21 follow-on).
+--
+-- WHY: the foundation pass kept jobs in an in-memory map with no runner;
+-- jobs sat in QUEUED forever and a restart lost them. FhirBulkExportRunner
+-- now claims jobs from this table, streams each resource type to NDJSON
+-- parts and records every finished part in fhir_bulk_export_files, which
+-- is what the 200 OK poll manifest is built from.
+--
+-- version backs the optimistic claim (and lets a DELETE on the poll URL
+-- pre-empt a running export); heartbeat_at lets another node take over a
+-- job whose worker died. A taken-over job restarts from its first type —
+-- output parts are only listed once complete, so nothing half-written is
+-- ever served.
+
+CREATE TABLE IF NOT EXISTS platform.fhir_bulk_export_jobs (
+    id               UUID           NOT NULL DEFAULT gen_random_uuid(),
+    hospital_id      UUID           NOT NULL,
+    scope            VARCHAR(20)    NOT NULL,
+    since_at         TIMESTAMPTZ,
+    resource_types   VARCHAR(500),
+    group_id         VARCHAR(128),
+    status           VARCHAR(20)    NOT NULL,
+    transaction_time TIMESTAMPTZ,
+    started_at       TIMESTAMPTZ,
+    completed_at     TIMESTAMPTZ,
+    heartbeat_at     TIMESTAMPTZ,
+    current_type     VARCHAR(40),
+    exported_count   BIGINT         NOT NULL DEFAULT 0,
+    error_message    VARCHAR(2000),
+    version          BIGINT         NOT NULL DEFAULT 0,
+    created_at       TIMESTAMP      NOT NULL DEFAULT now(),
+    updated_at       TIMESTAMP      NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_fhir_bulk_export_jobs PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_fhir_bulk_export_jobs_status
+    ON platform.fhir_bulk_export_jobs (status, heartbeat_at);
+CREATE INDEX IF NOT EXISTS idx_fhir_bulk_export_jobs_hospital
+    ON platform.fhir_bulk_export_jobs (hospital_id, created_at);
+
+CREATE TABLE IF NOT EXISTS platform.fhir_bulk_export_files (
+    id              UUID           NOT NULL DEFAULT gen_random_uuid(),
+    job_id          UUID           NOT NULL,
+    resource_type   VARCHAR(40)    NOT NULL,
+    part_number     INT            NOT NULL,
+    file_name       VARCHAR(120)   NOT NULL,
+    resource_count  BIGINT         NOT NULL,
+    byte_count      BIGINT         NOT NULL,
+    created_at      TIMESTAMP      NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMP      NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_fhir_bulk_export_files PRIMARY KEY (id),
+    CONSTRAINT fk_fhir_bulk_export_file_job FOREIGN KEY (job_id)
+        REFERENCES platform.fhir_bulk_export_jobs (id) ON DELETE CASCADE,
+    CONSTRAINT uq_fhir_bulk_export_file_part UNIQUE (job_id, resource_type, part_number)
+);
@@ -0,0 +1,18 @@
+-- V131: (timestamp, id) keyset indexes for the super-admin "All sources"
+-- audit feed.
+--
+-- WHY: SuperAdminAuditAggregationServiceImpl now pages each source with a
+-- (timestamp, id) cursor — "rows strictly older than the last one shown",
+-- ORDER BY timestamp DESC, id DESC LIMIT n — and merges the three streams.
+-- A composite index in that order makes every page an index range scan of
+-- n rows, however deep. idx_audit_event_timestamp (V33) stays for the
+-- other date-range queries.
+
+CREATE INDEX IF NOT EXISTS idx_audit_event_ts_id
+    ON support.audit_event_logs (event_timestamp DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_frontend_audit_occurred_id
+    ON support.frontend_audit_events (occurred_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_permission_matrix_audit_created_id
+    ON permission_matrix_audit_events (created_at DESC, id DESC);
@@ -0,0 +1,45 @@
+-- V132: trigram-indexed patient search.
+--
+-- WHY: PatientServiceImpl.searchPatients filtered with
+-- LOWER(first_name) LIKE '%term%' (and the same on last name, the
+-- concatenated name, email and both phone numbers). A leading wildcard
+-- cannot use a B-tree, so every keystroke in the search box was a
+-- sequential scan of clinical.patients.
+--
+-- search_name / search_email hold the lower-cased values the old
+-- predicates computed per row. They are STORED generated columns, so
+-- every write path (JPA, imports, merges, raw SQL) keeps them in sync
+-- without touching the entity. search_name is first || ' ' || last:
+-- both are NOT NULL, and a term found in either name is also found in
+-- the concatenation, so one column covers all three old name LIKEs.
+--
+-- pg_trgm GIN indexes serve LIKE '%term%' for terms of three or more
+-- characters and back similarity() for ranking. The phone columns are
+-- matched as stored (digits are not case-folded), so they are indexed
+-- directly.
+--
+-- PostgreSQL-only: the changeSet carries a <dbms type="postgresql"/>
+-- MARK_RAN precondition. On H2 the service detects the missing
+-- search_name column and uses its in-process n-gram index instead.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE clinical.patients
+    ADD COLUMN IF NOT EXISTS search_name TEXT
+        GENERATED ALWAYS AS (lower(first_name || ' ' || last_name)) STORED;
+
+ALTER TABLE clinical.patients
+    ADD COLUMN IF NOT EXISTS search_email TEXT
+        GENERATED ALWAYS AS (lower(email)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_patients_search_name_trgm
+    ON clinical.patients USING gin (search_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_patients_search_email_trgm
+    ON clinical.patients USING gin (search_email gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_patients_phone_primary_trgm
+    ON clinical.patients USING gin (phone_number_primary gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_patients_phone_secondary_trgm
+    ON clinical.patients USING gin (phone_number_secondary gin_trgm_ops);
@@ -0,0 +1,31 @@
+-- V133: empi.blocking_backfill_state — keyset checkpoint for the EMPI
+-- blocking-key backfill (roadmap row 25 blocking follow-on).
+--
+-- WHY: EmpiBlockingIndexer only backfilled empi.blocking_keys (V128) when
+-- the table was empty, so a node that crashed half-way through left a
+-- partial index that no later startup ever completed. The backfill now
+-- pages patients by id and commits each page's keys together with
+-- checkpoint_patient_id (the last id of that page); a restart resumes
+-- strictly after it. completed_at marks the walk done; it is cleared when a
+-- node starts with the matcher off, because keys are not maintained then.
+--
+-- The all-zero UUID sorts first under PostgreSQL's byte-wise uuid order, so
+-- it stands for "from the beginning".
+--
+-- Singleton-table pattern from V127: one row, id=1 enforced by CHECK + PK.
+-- Seeded not-completed, so an index populated before this migration is
+-- walked once more — safe, a page rewrite is idempotent.
+
+CREATE TABLE IF NOT EXISTS empi.blocking_backfill_state (
+    id                     INTEGER      NOT NULL,
+    checkpoint_patient_id  UUID         NOT NULL,
+    indexed_patients       BIGINT       NOT NULL DEFAULT 0,
+    completed_at           TIMESTAMP,
+    updated_at             TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_empi_blocking_backfill_state PRIMARY KEY (id),
+    CONSTRAINT chk_empi_blocking_backfill_singleton CHECK (id = 1)
+);
+
+INSERT INTO empi.blocking_backfill_state (id, checkpoint_patient_id, updated_at)
+SELECT 1, '00000000-0000-0000-0000-000000000000', CURRENT_TIMESTAMP
+ WHERE NOT EXISTS (SELECT 1 FROM empi.blocking_backfill_state WHERE id = 1);
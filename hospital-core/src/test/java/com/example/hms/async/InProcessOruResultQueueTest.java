@@ -0,0 +1,157 @@
+package com.example.hms.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * In-process transport: batches of {@code oru-batch-size}, FIFO order,
+ * bounded wait on a full queue, and a failed batch retried whole.
+ */
+@ExtendWith(MockitoExtension.class)
+class InProcessOruResultQueueTest {
+
+    private static final long AWAIT_SECONDS = 5;
+
+    @Mock private OruResultSettler settler;
+
+    private final List<List<String>> settledBatches = new CopyOnWriteArrayList<>();
+    private InProcessOruResultQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) queue.stop();
+    }
+
+    private InProcessOruResultQueue start(int batchSize, int capacity, long enqueueTimeoutMs) {
+        AsyncPipelineProperties properties = new AsyncPipelineProperties();
+        properties.setOruBatchSize(batchSize);
+        properties.setOruInProcessCapacity(capacity);
+        properties.setOruEnqueueTimeoutMs(enqueueTimeoutMs);
+        queue = new InProcessOruResultQueue(settler, properties);
+        queue.start();
+        return queue;
+    }
+
+    private static OruResultEnvelope envelope(String controlId) {
+        return new OruResultEnvelope(UUID.randomUUID(), "MINDRAY", "LAB1", controlId,
+            "10.0.0.42:54321", "MSH|...", Instant.now());
+    }
+
+    /** The drainer reuses its batch list, so record a copy of the control ids. */
+    private static List<String> controlIds(List<OruResultEnvelope> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        batch.forEach(envelope -> ids.add(envelope.messageControlId()));
+        return ids;
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+        while (settledBatches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(settledBatches).hasSize(count);
+    }
+
+    @Test
+    @DisplayName("frames queued behind a busy batch drain in FIFO batches of oru-batch-size")
+    void drainsFifoInConfiguredBatches() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<OruResultEnvelope> batch = inv.getArgument(0);
+            settledBatches.add(controlIds(batch));
+            if (settledBatches.size() == 1) {
+                firstBatchStarted.countDown();
+                release.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(settler).settleBatch(anyList());
+        start(3, 100, 100);
+
+        queue.enqueue(envelope("MSG-0"));
+        assertThat(firstBatchStarted.await(AWAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 7; i++) {
+            queue.enqueue(envelope("MSG-" + i));
+        }
+        release.countDown();
+        awaitBatches(4);
+
+        assertThat(settledBatches).containsExactly(
+            List.of("MSG-0"),
+            List.of("MSG-1", "MSG-2", "MSG-3"),
+            List.of("MSG-4", "MSG-5", "MSG-6"),
+            List.of("MSG-7"));
+    }
+
+    @Test
+    @DisplayName("a full queue rejects the frame after oru-enqueue-timeout-ms")
+    void fullQueueRejectsAfterTimeout() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            firstBatchStarted.countDown();
+            release.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            return null;
+        }).when(settler).settleBatch(anyList());
+        start(1, 2, 50);
+
+        queue.enqueue(envelope("MSG-0"));
+        assertThat(firstBatchStarted.await(AWAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        queue.enqueue(envelope("MSG-1"));
+        queue.enqueue(envelope("MSG-2"));
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> queue.enqueue(envelope("MSG-3")))
+            .isInstanceOf(OruResultQueueException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(40);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("a settler failure retries the whole batch, so no frame of it is lost")
+    void failedBatchRetriedWhole() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<OruResultEnvelope> batch = inv.getArgument(0);
+            settledBatches.add(controlIds(batch));
+            int call = settledBatches.size();
+            if (call == 1) {
+                firstBatchStarted.countDown();
+                release.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            } else if (call == 2) {
+                throw new IllegalStateException("database down");
+            }
+            return null;
+        }).when(settler).settleBatch(anyList());
+        start(10, 100, 100);
+
+        queue.enqueue(envelope("MSG-0"));
+        assertThat(firstBatchStarted.await(AWAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        queue.enqueue(envelope("MSG-1"));
+        queue.enqueue(envelope("MSG-2"));
+        queue.enqueue(envelope("MSG-3"));
+        release.countDown();
+        awaitBatches(3);
+
+        assertThat(settledBatches.get(1)).containsExactly("MSG-1", "MSG-2", "MSG-3");
+        assertThat(settledBatches.get(2)).isEqualTo(settledBatches.get(1));
+    }
+}
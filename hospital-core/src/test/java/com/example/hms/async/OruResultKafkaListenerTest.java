@@ -0,0 +1,66 @@
+package com.example.hms.async;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Poison-record handling of the batch listener: frames ahead of an
+ * undeserializable record settle, and the record is reported by index so
+ * the error handler can dead-letter it.
+ */
+@ExtendWith(MockitoExtension.class)
+class OruResultKafkaListenerTest {
+
+    @Mock private OruResultSettler settler;
+
+    private static OruResultEnvelope envelope(String controlId) {
+        return new OruResultEnvelope(UUID.randomUUID(), "MINDRAY", "LAB1", controlId,
+            "10.0.0.42:54321", "MSH|...", Instant.now());
+    }
+
+    @Test
+    @DisplayName("a null (undeserializable) record settles the frames before it and fails at its index")
+    void poisonRecordReportedByIndex() {
+        OruResultEnvelope first = envelope("MSG-1");
+        List<ConsumerRecord<String, OruResultEnvelope>> records = List.of(
+            new ConsumerRecord<>("hms.oru.result", 0, 10L, "MINDRAY/LAB1", first),
+            new ConsumerRecord<>("hms.oru.result", 0, 11L, "MINDRAY/LAB1", null),
+            new ConsumerRecord<>("hms.oru.result", 0, 12L, "MINDRAY/LAB1", envelope("MSG-3")));
+
+        OruResultKafkaListener listener = new OruResultKafkaListener(settler);
+
+        assertThatThrownBy(() -> listener.onBatch(records))
+            .isInstanceOfSatisfying(BatchListenerFailedException.class, ex -> {
+                assertThat(ex.getIndex()).isEqualTo(1);
+                assertThat(ex.getCause()).isInstanceOf(DeserializationException.class);
+            });
+        verify(settler).settleBatch(List.of(first));
+    }
+
+    @Test
+    @DisplayName("a clean batch is settled in one call")
+    void cleanBatchSettled() {
+        OruResultEnvelope first = envelope("MSG-1");
+        OruResultEnvelope second = envelope("MSG-2");
+
+        new OruResultKafkaListener(settler).onBatch(List.of(
+            new ConsumerRecord<>("hms.oru.result", 0, 10L, "MINDRAY/LAB1", first),
+            new ConsumerRecord<>("hms.oru.result", 0, 11L, "MINDRAY/LAB1", second)));
+
+        verify(settler).settleBatch(List.of(first, second));
+    }
+}
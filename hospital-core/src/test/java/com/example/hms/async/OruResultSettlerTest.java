@@ -0,0 +1,147 @@
+package com.example.hms.async;
+
+import com.example.hms.enums.integration.IntegrationMessageStatus;
+import com.example.hms.model.Hospital;
+import com.example.hms.repository.HospitalRepository;
+import com.example.hms.service.integration.MllpInboundLabService;
+import com.example.hms.service.integration.MllpInboundOutcome;
+import com.example.hms.service.integration.message.IntegrationMessageRecorder;
+import com.example.hms.utility.Hl7v2MessageBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Consumer side of the async ORU^R01 pipeline: in-order settlement, poison
+ * frames skipped onto the DLQ surface, database outages rethrown for
+ * redelivery.
+ */
+@ExtendWith(MockitoExtension.class)
+class OruResultSettlerTest {
+
+    @Mock private HospitalRepository hospitalRepository;
+    @Mock private MllpInboundLabService inboundLab;
+    @Mock private IntegrationMessageRecorder messageRecorder;
+
+    private OruResultSettler settler;
+    private Hospital hospital;
+
+    @BeforeEach
+    void setUp() {
+        settler = new OruResultSettler(new Hl7v2MessageBuilder(), hospitalRepository, inboundLab,
+            messageRecorder, null);
+        hospital = new Hospital();
+        hospital.setId(UUID.randomUUID());
+        when(hospitalRepository.findAllById(any())).thenReturn(List.of(hospital));
+    }
+
+    private OruResultEnvelope envelope(String controlId) {
+        String oru = "MSH|^~\\&|MINDRAY|LAB1|HMS|HOSP1|20260428073000||ORU^R01|" + controlId + "|P|2.5.1\r"
+                   + "PID|1||abc-uuid\r"
+                   + "OBR|1|ACC-1||GLU^Glucose|||20260428073000\r"
+                   + "OBX|1|NM|GLU^Glucose||5.6|mmol/L|||N\r";
+        return new OruResultEnvelope(hospital.getId(), "MINDRAY", "LAB1", controlId,
+            "10.0.0.42:54321", oru, Instant.now());
+    }
+
+    @Test
+    @DisplayName("frames are settled in batch order with one hospital lookup")
+    void settlesInOrder() {
+        when(inboundLab.processOruR01(any(), eq(hospital), anyString(), anyString(), anyString(), anyString()))
+            .thenReturn(MllpInboundOutcome.ACCEPTED);
+
+        settler.settleBatch(List.of(envelope("MSG-1"), envelope("MSG-2"), envelope("MSG-3")));
+
+        InOrder order = inOrder(inboundLab);
+        for (String id : List.of("MSG-1", "MSG-2", "MSG-3")) {
+            order.verify(inboundLab).processOruR01(any(), eq(hospital), eq("MINDRAY"), eq("LAB1"),
+                eq(id), anyString());
+        }
+        verify(hospitalRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("a frame that fails for a non-transient reason is recorded FAILED and skipped")
+    void poisonFrameSkipped() {
+        when(inboundLab.processOruR01(any(), eq(hospital), anyString(), anyString(), eq("MSG-1"), anyString()))
+            .thenThrow(new IllegalStateException("bad row"));
+        when(inboundLab.processOruR01(any(), eq(hospital), anyString(), anyString(), eq("MSG-2"), anyString()))
+            .thenReturn(MllpInboundOutcome.ACCEPTED);
+
+        settler.settleBatch(List.of(envelope("MSG-1"), envelope("MSG-2")));
+
+        verify(messageRecorder).recordMessage(eq("MLLP:MINDRAY/LAB1"), any(), any(), eq("ORU^R01"),
+            anyString(), eq(IntegrationMessageStatus.FAILED), eq("settlement error: IllegalStateException"));
+        verify(inboundLab).processOruR01(any(), eq(hospital), anyString(), anyString(), eq("MSG-2"), anyString());
+    }
+
+    @Test
+    @DisplayName("a transient database failure is rethrown so the batch is redelivered")
+    void transientFailureRethrown() {
+        when(inboundLab.processOruR01(any(), eq(hospital), anyString(), anyString(), anyString(), anyString()))
+            .thenThrow(new QueryTimeoutException("db slow"));
+
+        assertThatThrownBy(() -> settler.settleBatch(List.of(envelope("MSG-1"), envelope("MSG-2"))))
+            .isInstanceOf(QueryTimeoutException.class);
+        verify(inboundLab, times(1)).processOruR01(any(), any(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("frames settled by the batch insert skip the per-frame path; the rest fall back in order")
+    void batchSettlesCleanFramesAndFallsBackForTheRest() {
+        when(inboundLab.processOruR01Batch(anyList()))
+            .thenReturn(Arrays.asList(MllpInboundOutcome.ACCEPTED, null, MllpInboundOutcome.ACCEPTED));
+        when(inboundLab.processOruR01(any(), eq(hospital), anyString(), anyString(), eq("MSG-2"), anyString()))
+            .thenReturn(MllpInboundOutcome.REJECTED_NOT_FOUND);
+
+        settler.settleBatch(List.of(envelope("MSG-1"), envelope("MSG-2"), envelope("MSG-3")));
+
+        verify(inboundLab, times(1)).processOruR01Batch(anyList());
+        verify(inboundLab, times(1)).processOruR01(any(), any(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("a non-transient batch failure settles every frame one by one")
+    void batchFailureFallsBackPerFrame() {
+        when(inboundLab.processOruR01Batch(anyList())).thenThrow(new IllegalStateException("constraint"));
+        when(inboundLab.processOruR01(any(), eq(hospital), anyString(), anyString(), anyString(), anyString()))
+            .thenReturn(MllpInboundOutcome.ACCEPTED);
+
+        settler.settleBatch(List.of(envelope("MSG-1"), envelope("MSG-2")));
+
+        InOrder order = inOrder(inboundLab);
+        order.verify(inboundLab).processOruR01(any(), eq(hospital), anyString(), anyString(), eq("MSG-1"), anyString());
+        order.verify(inboundLab).processOruR01(any(), eq(hospital), anyString(), anyString(), eq("MSG-2"), anyString());
+    }
+
+    @Test
+    @DisplayName("a transient failure of the batch insert is rethrown without per-frame retries")
+    void transientBatchFailureRethrown() {
+        when(inboundLab.processOruR01Batch(anyList())).thenThrow(new QueryTimeoutException("db slow"));
+
+        assertThatThrownBy(() -> settler.settleBatch(List.of(envelope("MSG-1"))))
+            .isInstanceOf(QueryTimeoutException.class);
+        verify(inboundLab, never()).processOruR01(any(), any(), anyString(), anyString(), anyString(), anyString());
+    }
+}
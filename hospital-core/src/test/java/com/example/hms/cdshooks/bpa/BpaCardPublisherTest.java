@@ -0,0 +1,114 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.cdshooks.bpa.BpaCardPublisher.BpaCardsEvent;
+import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
+import com.example.hms.cdshooks.dto.CdsHookDtos.Source;
+import com.example.hms.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BpaCardPublisherTest {
+
+    private final BpaRuleEngine engine = mock(BpaRuleEngine.class);
+    private final SimpMessagingTemplate messaging = mock(SimpMessagingTemplate.class);
+    private final UUID hospitalId = UUID.randomUUID();
+
+    private static Patient patient() {
+        Patient p = Patient.builder().build();
+        p.setId(UUID.randomUUID());
+        return p;
+    }
+
+    private BpaCardPublisher publisher(boolean enabled, int firingMaxEntries) {
+        return new BpaCardPublisher(engine, messaging, enabled, firingMaxEntries, Duration.ofHours(24));
+    }
+
+    private static CdsCard card(String summary) {
+        return new CdsCard(summary, null, CdsCard.Indicator.WARNING,
+            new Source("test", null, null), null, null, null, UUID.randomUUID().toString());
+    }
+
+    @Test
+    void disabledPublisherNeverEvaluates() {
+        BpaCardPublisher publisher = publisher(false, 100);
+
+        publisher.vitalsCaptured(patient(), hospitalId);
+
+        verifyNoInteractions(engine, messaging);
+    }
+
+    @Test
+    void publishesOnlyNewlyFiredCards() {
+        BpaCardPublisher publisher = publisher(true, 100);
+        Patient patient = patient();
+        when(engine.evaluateForPatient(patient, hospitalId))
+            .thenReturn(List.of(card("Sepsis")))
+            .thenReturn(List.of(card("Sepsis")))
+            .thenReturn(List.of(card("Sepsis"), card("PPH")));
+
+        publisher.vitalsCaptured(patient, hospitalId);
+        publisher.vitalsCaptured(patient, hospitalId);
+        publisher.vitalsCaptured(patient, hospitalId);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(messaging, times(2)).convertAndSend(eq(BpaCardPublisher.TOPIC_PREFIX + hospitalId), events.capture());
+        assertThat(events.getAllValues())
+            .extracting(e -> ((BpaCardsEvent) e).cards().stream().map(CdsCard::summary).toList())
+            .containsExactly(List.of("Sepsis"), List.of("PPH"));
+    }
+
+    @Test
+    void patientsWhoStopFiringAreForgotten() {
+        BpaCardPublisher publisher = publisher(true, 100);
+        Patient patient = patient();
+        when(engine.evaluateForPatient(patient, hospitalId))
+            .thenReturn(List.of(card("Sepsis")))
+            .thenReturn(List.of())
+            .thenReturn(List.of(card("Sepsis")));
+
+        publisher.vitalsCaptured(patient, hospitalId);
+        assertThat(publisher.trackedPatients()).isEqualTo(1);
+        publisher.vitalsCaptured(patient, hospitalId);
+        assertThat(publisher.trackedPatients()).isZero();
+        publisher.vitalsCaptured(patient, hospitalId);
+
+        // fired, cleared, fired again: announced twice
+        verify(messaging, times(2)).convertAndSend(eq(BpaCardPublisher.TOPIC_PREFIX + hospitalId), any(Object.class));
+    }
+
+    @Test
+    void firingStateIsBounded() {
+        BpaCardPublisher publisher = publisher(true, 10);
+        when(engine.evaluateForPatient(any(), eq(hospitalId))).thenReturn(List.of(card("Sepsis")));
+
+        for (int i = 0; i < 50; i++) publisher.vitalsCaptured(patient(), hospitalId);
+
+        assertThat(publisher.trackedPatients()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void engineFailureDoesNotPropagate() {
+        BpaCardPublisher publisher = publisher(true, 100);
+        when(engine.evaluateForPatient(any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        publisher.vitalsCaptured(patient(), hospitalId);
+
+        verify(messaging, never()).convertAndSend(anyString(), any(Object.class));
+    }
+}
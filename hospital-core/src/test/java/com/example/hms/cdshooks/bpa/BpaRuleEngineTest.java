@@ -4,6 +4,7 @@ import com.example.hms.cdshooks.dto.CdsHookDtos.CdsCard;
 import com.example.hms.cdshooks.dto.CdsHookDtos.Source;
 import com.example.hms.enums.PrescriptionStatus;
 import com.example.hms.enums.ProblemStatus;
+import com.example.hms.model.Hospital;
 import com.example.hms.model.Patient;
 import com.example.hms.model.PatientProblem;
 import com.example.hms.model.PatientVitalSign;
@@ -16,6 +17,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -24,6 +26,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class BpaRuleEngineTest {
@@ -52,7 +56,7 @@ class BpaRuleEngineTest {
     @Test
     void evaluateContextWithoutPatientReturnsEmpty() {
         BpaRuleEngine engine = new BpaRuleEngine(List.of(), vitals, problems, prescriptions);
-        BpaRuleContext ctx = new BpaRuleContext(null, UUID.randomUUID(), null, null, null);
+        BpaRuleContext ctx = new BpaRuleContext(null, UUID.randomUUID(), (VitalsWindow) null, null, null);
         assertThat(engine.evaluate(ctx)).isEmpty();
     }
 
@@ -103,7 +107,7 @@ class BpaRuleEngineTest {
         BpaRuleEngine engine = new BpaRuleEngine(List.of(), vitals, problems, prescriptions);
         BpaRuleContext ctx = engine.buildContext(null, UUID.randomUUID());
         assertThat(ctx.hasPatient()).isFalse();
-        assertThat(ctx.recentVitals()).isEmpty();
+        assertThat(ctx.vitals().isEmpty()).isTrue();
         assertThat(ctx.activeProblems()).isEmpty();
         assertThat(ctx.activePrescriptions()).isEmpty();
     }
@@ -135,7 +139,9 @@ class BpaRuleEngineTest {
         BpaRuleContext ctx = engine.buildContext(patient, hospitalId);
 
         assertThat(ctx.hasPatient()).isTrue();
-        assertThat(ctx.recentVitals()).containsExactly(recent);
+        assertThat(ctx.vitals().size()).isEqualTo(1);
+        assertThat(ctx.vitals().stats(VitalsWindow.Metric.TEMPERATURE_C, LocalDateTime.now().minusHours(1)).last())
+            .isEqualTo(37.0);
         assertThat(ctx.activeProblems()).containsExactly(activeProblem);
         assertThat(ctx.activePrescriptions()).containsExactly(signed);
     }
@@ -158,4 +164,39 @@ class BpaRuleEngineTest {
         assertThat(ctx.hasPatient()).isTrue();
         assertThat(ctx.activeProblems()).isEmpty();
     }
+
+    @Test
+    void buildContextPagesVitalsOnceThenServesTheLiveWindow() {
+        UUID patientId = UUID.randomUUID();
+        UUID hospitalId = UUID.randomUUID();
+        Patient patient = patient(patientId);
+        PatientVitalSign loaded = PatientVitalSign.builder()
+            .recordedAt(LocalDateTime.now().minusHours(2))
+            .respiratoryRateBpm(24)
+            .build();
+        when(vitals.findWithinRange(eq(patientId), eq(hospitalId), any(), any(), any()))
+            .thenReturn(List.of(loaded));
+        when(problems.findByPatient_IdAndHospital_Id(patientId, hospitalId)).thenReturn(List.of());
+        when(prescriptions.findByPatient_IdAndHospital_Id(patientId, hospitalId)).thenReturn(List.of());
+        BpaVitalsWindowStore store = new BpaVitalsWindowStore(100, Duration.ofMinutes(5), null);
+        BpaRuleEngine engine = new BpaRuleEngine(List.of(), vitals, problems, prescriptions, store);
+
+        engine.buildContext(patient, hospitalId);
+        Hospital hospital = new Hospital();
+        hospital.setId(hospitalId);
+        PatientVitalSign captured = PatientVitalSign.builder()
+            .patient(patient)
+            .hospital(hospital)
+            .recordedAt(LocalDateTime.now())
+            .systolicBpMmHg(92)
+            .build();
+        captured.setId(UUID.randomUUID());
+        store.append(patientId, hospitalId, VitalsWindow.Reading.of(captured));
+        when(vitals.findLatestRecordedAt(patientId, hospitalId)).thenReturn(captured.getRecordedAt());
+        BpaRuleContext ctx = engine.buildContext(patient, hospitalId);
+
+        // chart re-opened after a capture: no second paged read, reading included
+        assertThat(ctx.vitals().size()).isEqualTo(2);
+        verify(vitals, times(1)).findWithinRange(eq(patientId), eq(hospitalId), any(), any(), any());
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientVitalSign;
+import com.example.hms.utility.ApplicationContextProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BpaVitalsListenerTest {
+
+    private final BpaVitalsWindowStore store = new BpaVitalsWindowStore(100, Duration.ofMinutes(5), null);
+    private final BpaCardPublisher publisher = mock(BpaCardPublisher.class);
+    private final BpaVitalsListener listener = new BpaVitalsListener();
+
+    private ApplicationContext previousContext;
+    private Patient patient;
+    private Hospital hospital;
+
+    @BeforeEach
+    void setUp() {
+        previousContext = ApplicationContextProvider.getApplicationContext();
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean(BpaVitalsWindowStore.class)).thenReturn(store);
+        when(context.getBean(BpaCardPublisher.class)).thenReturn(publisher);
+        new ApplicationContextProvider().setApplicationContext(context);
+
+        patient = Patient.builder().build();
+        patient.setId(UUID.randomUUID());
+        hospital = new Hospital();
+        hospital.setId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        new ApplicationContextProvider().setApplicationContext(previousContext);
+    }
+
+    @Test
+    @DisplayName("a capture reaches the windows once it commits, then the card publisher")
+    void capture_appendedAfterCommit() {
+        window(hospital.getId());
+        window(null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onCaptured(captured(24));
+        assertThat(window(hospital.getId()).size()).isZero();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(window(hospital.getId()).size()).isEqualTo(1);
+        assertThat(window(null).size()).isEqualTo(1);
+        verify(publisher).vitalsCaptured(patient, hospital.getId());
+    }
+
+    @Test
+    @DisplayName("a rolled-back capture never reaches the windows or the publisher")
+    void capture_rollbackIgnored() {
+        window(hospital.getId());
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onCaptured(captured(24));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(window(hospital.getId()).isEmpty()).isTrue();
+        verify(publisher, never()).vitalsCaptured(any(), any());
+    }
+
+    @Test
+    @DisplayName("an edit drops the patient's windows at once and again when the transaction completes")
+    void edit_invalidatesNowAndAfterCompletion() {
+        window(hospital.getId());
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onChanged(captured(24));
+        assertThat(store.size()).isZero();
+        window(hospital.getId()); // re-read between flush and commit
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(store.size()).isZero();
+    }
+
+    private VitalsWindow window(UUID hospitalId) {
+        return store.window(patient.getId(), hospitalId, () -> null, () -> VitalsWindow.EMPTY);
+    }
+
+    private PatientVitalSign captured(int rr) {
+        PatientVitalSign v = PatientVitalSign.builder()
+            .patient(patient)
+            .hospital(hospital)
+            .recordedAt(LocalDateTime.now())
+            .respiratoryRateBpm(rr)
+            .build();
+        v.setId(UUID.randomUUID());
+        return v;
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.cdshooks.bpa.VitalsWindow.Reading;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientVitalSign;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BpaVitalsWindowStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BpaVitalsWindowStore store = new BpaVitalsWindowStore(100, Duration.ofMinutes(5), registry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Patient patient;
+    private Hospital hospital;
+
+    @BeforeEach
+    void setUp() {
+        patient = Patient.builder().build();
+        patient.setId(UUID.randomUUID());
+        hospital = new Hospital();
+        hospital.setId(UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("repeat chart opens are served from the stored window")
+    void window_loadsOnce() {
+        window(hospital.getId(), null);
+        window(hospital.getId(), null);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(registry.find(BpaVitalsWindowStore.METRIC_LOOKUPS)
+            .tag("outcome", BpaVitalsWindowStore.OUTCOME_HIT).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a committed capture is appended to the scoped and unscoped windows")
+    void append_extendsScopedAndUnscopedWindows() {
+        window(hospital.getId(), null);
+        window(null, null);
+
+        Reading reading = Reading.of(captured(24));
+        store.append(patient.getId(), hospital.getId(), reading);
+
+        assertThat(window(hospital.getId(), reading.recordedAt()).size()).isEqualTo(1);
+        assertThat(window(null, reading.recordedAt()).size()).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a newer row the window does not cover (another node) reloads it")
+    void window_newerRowElsewhere_reloads() {
+        window(hospital.getId(), null);
+
+        window(hospital.getId(), LocalDateTime.now());
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(registry.find(BpaVitalsWindowStore.METRIC_LOOKUPS)
+            .tag("outcome", BpaVitalsWindowStore.OUTCOME_STALE).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("rows older than the window span never force a reload")
+    void window_rowOutsideSpan_hit() {
+        window(hospital.getId(), null);
+
+        window(hospital.getId(), LocalDateTime.now().minus(VitalsWindow.SPAN).minusHours(1));
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("editing or deleting a vital sign drops the patient's windows")
+    void invalidate_dropsPatientWindows() {
+        window(hospital.getId(), null);
+        window(null, null);
+        store.window(UUID.randomUUID(), hospital.getId(), () -> null, this::load);
+
+        store.invalidate(patient.getId());
+
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a window paged while vitals were captured is served once but not kept")
+    void window_racingCaptureNotKept() {
+        store.window(patient.getId(), hospital.getId(), () -> null, () -> {
+            store.append(patient.getId(), hospital.getId(), Reading.of(captured(20))); // committed meanwhile
+            return load();
+        });
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("a capture for another hospital does not spoil a load scoped elsewhere")
+    void window_otherHospitalCaptureKept() {
+        store.window(patient.getId(), hospital.getId(), () -> null, () -> {
+            store.append(patient.getId(), UUID.randomUUID(), Reading.of(captured(20)));
+            return load();
+        });
+
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private VitalsWindow window(UUID hospitalId, LocalDateTime latestRecordedAt) {
+        return store.window(patient.getId(), hospitalId, () -> latestRecordedAt, this::load);
+    }
+
+    private VitalsWindow load() {
+        loads.incrementAndGet();
+        return VitalsWindow.EMPTY;
+    }
+
+    private PatientVitalSign captured(int rr) {
+        PatientVitalSign v = PatientVitalSign.builder()
+            .patient(patient)
+            .hospital(hospital)
+            .recordedAt(LocalDateTime.now())
+            .respiratoryRateBpm(rr)
+            .build();
+        v.setId(UUID.randomUUID());
+        return v;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.hms.cdshooks.bpa;
+
+import com.example.hms.cdshooks.bpa.VitalsWindow.Metric;
+import com.example.hms.cdshooks.bpa.VitalsWindow.Reading;
+import com.example.hms.cdshooks.bpa.VitalsWindow.Stats;
+import com.example.hms.model.PatientVitalSign;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VitalsWindowTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private static PatientVitalSign vitals(Integer rr, Integer sbp, LocalDateTime when) {
+        return PatientVitalSign.builder()
+            .respiratoryRateBpm(rr)
+            .systolicBpMmHg(sbp)
+            .recordedAt(when)
+            .build();
+    }
+
+    private static Reading reading(Integer rr, LocalDateTime when) {
+        return new Reading(UUID.randomUUID(), when, null, null, rr, null, null, null);
+    }
+
+    @Test
+    void statsAggregateOnlyReadingsInsideTheLookback() {
+        VitalsWindow window = VitalsWindow.of(List.of(
+            vitals(30, 120, now.minusHours(8)),
+            vitals(18, null, now.minusHours(1)),
+            vitals(24, 95, now.minusHours(3))
+        ));
+
+        Stats rr = window.stats(Metric.RESPIRATORY_RATE, now.minusHours(6));
+        Stats sbp = window.stats(Metric.SYSTOLIC_BP, now.minusHours(6));
+
+        assertThat(rr.count()).isEqualTo(2);
+        assertThat(rr.min()).isEqualTo(18.0);
+        assertThat(rr.max()).isEqualTo(24.0);
+        assertThat(rr.last()).isEqualTo(18.0);
+        assertThat(sbp.count()).isEqualTo(1);
+        assertThat(sbp.last()).isEqualTo(95.0);
+        assertThat(window.stats(Metric.TEMPERATURE_C, now.minusHours(6)).count()).isZero();
+    }
+
+    @Test
+    void latestReturnsMostRecentMatchingReading() {
+        VitalsWindow window = VitalsWindow.of(List.of(
+            vitals(25, null, now.minusHours(4)),
+            vitals(26, null, now.minusHours(2)),
+            vitals(14, null, now.minusMinutes(5))
+        ));
+
+        assertThat(window.latest(now.minusHours(6), r -> r.respiratoryRateBpm() >= 22))
+            .get().extracting(Reading::respiratoryRateBpm).isEqualTo(26);
+        assertThat(window.latest(now.minusHours(1), r -> r.respiratoryRateBpm() >= 22)).isEmpty();
+    }
+
+    @Test
+    void withKeepsOrderTrimsTheSpanAndIgnoresDuplicates() {
+        VitalsWindow window = VitalsWindow.of(List.of(vitals(16, null, now.minusHours(23))));
+        Reading late = reading(20, now.minusMinutes(1));
+        Reading backfilled = reading(22, now.minusHours(3));
+
+        VitalsWindow next = window.with(late, now).with(backfilled, now).with(late, now);
+
+        assertThat(next.size()).isEqualTo(3);
+        assertThat(next.stats(Metric.RESPIRATORY_RATE, now.minusHours(24)).last()).isEqualTo(20.0);
+        // a day later the oldest reading has aged out
+        VitalsWindow dayLater = next.with(reading(18, now.plusHours(2)), now.plusHours(2));
+        assertThat(dayLater.size()).isEqualTo(3);
+        assertThat(window.size()).isEqualTo(1);
+    }
+
+    @Test
+    void minuteByMinuteDayStaysCompactAndQueryable() {
+        List<PatientVitalSign> day = new ArrayList<>();
+        for (int minute = 0; minute < 24 * 60; minute++) {
+            day.add(vitals(16 + (minute % 7), 110, now.minusMinutes(minute)));
+        }
+        VitalsWindow window = VitalsWindow.of(day);
+
+        assertThat(window.size()).isEqualTo(1440);
+        assertThat(window.stats(Metric.RESPIRATORY_RATE, now.minusHours(6)).max()).isEqualTo(22.0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.hms.cdshooks.rules;
+
+import com.example.hms.cdshooks.rules.CdsPatientStateCache.PatientState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CdsPatientStateCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CdsPatientStateCache cache = new CdsPatientStateCache(100, Duration.ofSeconds(30), registry);
+    private final UUID patientId = UUID.randomUUID();
+    private final UUID hospitalId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("the hook calls of one ordering session load the patient state once")
+    void get_loadsOncePerPatientAndHospital() {
+        cache.get(patientId, hospitalId, this::load);
+        cache.get(patientId, hospitalId, this::load);
+        cache.get(patientId, UUID.randomUUID(), this::load);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(registry.find(CdsPatientStateCache.METRIC_LOOKUPS)
+            .tag("outcome", CdsPatientStateCache.OUTCOME_HIT).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a prescription or vital sign write drops every hospital's entry for the patient")
+    void invalidate_dropsPatientEntries() {
+        cache.get(patientId, hospitalId, this::load);
+        cache.get(patientId, null, this::load);
+        cache.get(UUID.randomUUID(), hospitalId, this::load);
+
+        cache.invalidate(patientId);
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get(patientId, hospitalId, this::load);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("a state read while the patient's orders changed is served once but not kept")
+    void get_racingChangeNotKept() {
+        cache.get(patientId, hospitalId, () -> {
+            cache.invalidate(patientId);
+            return load();
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("max-entries=0 turns the cache off")
+    void disabled_alwaysLoads() {
+        CdsPatientStateCache disabled = new CdsPatientStateCache(0, Duration.ofSeconds(30), null);
+
+        disabled.get(patientId, hospitalId, this::load);
+        disabled.get(patientId, hospitalId, this::load);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(disabled.size()).isZero();
+    }
+
+    private PatientState load() {
+        loads.incrementAndGet();
+        return new PatientState(List.of(), List.of(), 70.0);
+    }
+}
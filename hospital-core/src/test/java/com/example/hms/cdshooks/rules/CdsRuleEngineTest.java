@@ -15,16 +15,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.offset;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CdsRuleEngineTest {
@@ -37,6 +42,11 @@ class CdsRuleEngineTest {
         return new CdsRuleEngine(rules, prescriptionRepository, catalogRepository, vitalSignRepository);
     }
 
+    private CdsRuleEngine parallelEngineWith(List<CdsRule> rules, Duration budget) {
+        return new CdsRuleEngine(rules, prescriptionRepository, catalogRepository, vitalSignRepository,
+            new CdsPatientStateCache(100, Duration.ofSeconds(30), null), 4, budget, null);
+    }
+
     @Test
     void parsesSimpleMgDose() {
         assertThat(CdsRuleEngine.parseDoseMg("500 mg")).isEqualTo(500.0);
@@ -153,6 +163,73 @@ class CdsRuleEngineTest {
         assertThat(result).extracting(CdsCard::summary).containsExactly("ok");
     }
 
+    @Test
+    void buildContextReusesCachedPatientStateAcrossHookCalls() {
+        UUID hospitalId = UUID.randomUUID();
+        Patient p = Patient.builder().build();
+        p.setId(UUID.randomUUID());
+        Prescription active = Prescription.builder()
+            .medicationName("Warfarin")
+            .status(PrescriptionStatus.SIGNED)
+            .build();
+        when(prescriptionRepository.findByPatient_IdAndHospital_Id(p.getId(), hospitalId))
+            .thenReturn(List.of(active));
+        CdsRuleEngine engine = parallelEngineWith(List.of(), Duration.ofSeconds(1));
+
+        // order-select, then order-sign with two drafts
+        engine.buildContext(p, hospitalId, "Aspirin", null, "81 mg");
+        engine.buildContext(p, hospitalId, "Aspirin", null, "81 mg");
+        CdsRuleContext ctx = engine.buildContext(p, hospitalId, "Ibuprofen", null, "400 mg");
+
+        assertThat(ctx.activePrescriptions()).containsExactly(active);
+        assertThat(ctx.proposedDoseMg()).isEqualTo(400.0);
+        verify(prescriptionRepository, times(1)).findByPatient_IdAndHospital_Id(p.getId(), hospitalId);
+        verify(vitalSignRepository, times(1))
+            .findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(p.getId(), hospitalId);
+        engine.shutdown();
+    }
+
+    @Test
+    void parallelEvaluationKeepsRuleOrder() {
+        CdsRuleEngine engine = parallelEngineWith(List.of(
+            stubRule("a", List.of(card("from-A"))),
+            stubRule("b", List.of(card("from-B"))),
+            stubRule("c", List.of(card("from-C")))), Duration.ofSeconds(5));
+
+        List<CdsCard> result = engine.evaluate(emptyContext());
+
+        assertThat(result).extracting(CdsCard::summary)
+            .containsExactly("from-A", "from-B", "from-C");
+        engine.shutdown();
+    }
+
+    @Test
+    void ruleOverBudgetIsDroppedWithoutBlockingTheResponse() {
+        CountDownLatch release = new CountDownLatch(1);
+        CdsRule slow = new CdsRule() {
+            @Override public String id() { return "slow"; }
+            @Override public List<CdsCard> evaluate(CdsRuleContext c) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(card("late"));
+            }
+        };
+        CdsRuleEngine engine = parallelEngineWith(
+            List.of(slow, stubRule("fast", List.of(card("on-time")))), Duration.ofMillis(100));
+
+        long started = System.nanoTime();
+        List<CdsCard> result = engine.evaluate(emptyContext());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(result).extracting(CdsCard::summary).containsExactly("on-time");
+        assertThat(elapsedMs).isLessThan(2_000);
+        release.countDown();
+        engine.shutdown();
+    }
+
     @Test
     void unpagedFallbackWhenHospitalIdMissing() {
         UUID patientId = UUID.randomUUID();
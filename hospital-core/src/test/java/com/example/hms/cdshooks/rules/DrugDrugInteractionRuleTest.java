@@ -6,23 +6,24 @@ import com.example.hms.model.medication.DrugInteraction;
 import com.example.hms.repository.DrugInteractionRepository;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class DrugDrugInteractionRuleTest {
 
     private final DrugInteractionRepository repo = mock(DrugInteractionRepository.class);
-    private final DrugDrugInteractionRule rule = new DrugDrugInteractionRule(repo);
+    private final DrugDrugInteractionRule rule = new DrugDrugInteractionRule(
+        new DrugInteractionMatrix(repo, Duration.ofMinutes(10), null));
 
     private static CdsRuleContext contextWith(String proposedRx, String... activeRxnorms) {
         return new CdsRuleContext(
@@ -43,8 +44,8 @@ class DrugDrugInteractionRuleTest {
             .recommendation("Switch macrolide.")
             .active(true)
             .build();
-        // Rule canonicalises (alphabetical) before lookup; repo is bidirectional.
-        when(repo.findInteractionBetween("2551", "36567")).thenReturn(Optional.of(di));
+        // Stored as (2551, 36567); the proposed drug is the second code.
+        when(repo.findByActiveTrue()).thenReturn(List.of(di));
 
         List<CdsCard> cards = rule.evaluate(contextWith("36567", "2551"));
 
@@ -66,7 +67,7 @@ class DrugDrugInteractionRuleTest {
             .severity(InteractionSeverity.MODERATE)
             .active(true)
             .build();
-        when(repo.findInteractionBetween("29046", "9997")).thenReturn(Optional.of(di));
+        when(repo.findByActiveTrue()).thenReturn(List.of(di));
 
         List<CdsCard> cards = rule.evaluate(contextWith("29046", "9997"));
 
@@ -86,10 +87,10 @@ class DrugDrugInteractionRuleTest {
 
     @Test
     void skipsBlankAndIdenticalRxnorms() {
-        rule.evaluate(contextWith("11289", "", null, "11289"));
-        // Only meaningful pairs would query; identical proposed-vs-existing
-        // is filtered before the lookup.
-        verify(repo, times(0)).findInteractionBetween(eq("11289"), anyString());
+        assertThat(rule.evaluate(contextWith("11289", "", null, "11289"))).isEmpty();
+        // Only meaningful pairs are looked up; identical proposed-vs-existing
+        // is filtered first, so the matrix is never even loaded.
+        verifyNoInteractions(repo);
     }
 
     @Test
@@ -100,14 +101,13 @@ class DrugDrugInteractionRuleTest {
             .severity(InteractionSeverity.MAJOR)
             .active(true)
             .build();
-        when(repo.findInteractionBetween("11289", "1191")).thenReturn(Optional.of(di));
+        when(repo.findByActiveTrue()).thenReturn(List.of(di));
 
         // Patient on aspirin twice (current + carry-over) — pair seen
         // once, only one card.
         List<CdsCard> cards = rule.evaluate(contextWith("11289", "1191", "1191"));
 
         assertThat(cards).hasSize(1);
-        verify(repo, times(1)).findInteractionBetween("11289", "1191");
     }
 
     @Test
@@ -118,11 +118,31 @@ class DrugDrugInteractionRuleTest {
             .severity(InteractionSeverity.MAJOR)
             .active(false)
             .build();
-        when(repo.findInteractionBetween("11289", "1191")).thenReturn(Optional.of(di));
+        when(repo.findByActiveTrue()).thenReturn(List.of(di));
 
         assertThat(rule.evaluate(contextWith("11289", "1191"))).isEmpty();
     }
 
+    @Test
+    void polypharmacyListCostsOneKnowledgeBaseLoad() {
+        DrugInteraction di = DrugInteraction.builder()
+            .drug1Code("11289").drug1Name("warfarin")
+            .drug2Code("1191").drug2Name("aspirin")
+            .severity(InteractionSeverity.MAJOR)
+            .active(true)
+            .build();
+        when(repo.findByActiveTrue()).thenReturn(List.of(di));
+        List<String> active = new ArrayList<>();
+        for (int i = 0; i < 24; i++) active.add(String.valueOf(50_000 + i));
+        active.add("1191");
+
+        for (int call = 0; call < 3; call++) {
+            assertThat(rule.evaluate(contextWith("11289", active.toArray(String[]::new)))).hasSize(1);
+        }
+
+        verify(repo, times(1)).findByActiveTrue();
+    }
+
     @Test
     void hasStableId() {
         assertThat(rule.id()).isEqualTo("drug-drug-interaction");
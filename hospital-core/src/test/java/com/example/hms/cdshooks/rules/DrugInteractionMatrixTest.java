@@ -0,0 +1,85 @@
+package com.example.hms.cdshooks.rules;
+
+import com.example.hms.enums.InteractionSeverity;
+import com.example.hms.model.medication.DrugInteraction;
+import com.example.hms.repository.DrugInteractionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DrugInteractionMatrixTest {
+
+    private final DrugInteractionRepository repo = mock(DrugInteractionRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DrugInteractionMatrix matrix = new DrugInteractionMatrix(repo, Duration.ofMinutes(10), registry);
+
+    @Test
+    @DisplayName("pairs are found in either order from one knowledge-base load")
+    void lookup_bidirectionalSingleLoad() {
+        when(repo.findByActiveTrue()).thenReturn(List.of(interaction("11289", "1191")));
+
+        assertThat(matrix.lookup("11289", "1191")).isNotNull();
+        assertThat(matrix.lookup("1191", "11289").severity()).isEqualTo(InteractionSeverity.MAJOR);
+        assertThat(matrix.lookup("1191", "2551")).isNull();
+
+        verify(repo, times(1)).findByActiveTrue();
+        assertThat(registry.find(DrugInteractionMatrix.METRIC_RELOADS).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("an interaction edit reloads the matrix on next use")
+    void markStale_reloadsOnNextUse() {
+        when(repo.findByActiveTrue())
+            .thenReturn(List.of(interaction("11289", "1191")))
+            .thenReturn(List.of());
+        matrix.lookup("11289", "1191");
+
+        matrix.markStale();
+
+        assertThat(matrix.size()).isZero();
+        assertThat(matrix.lookup("11289", "1191")).isNull();
+        verify(repo, times(2)).findByActiveTrue();
+    }
+
+    @Test
+    @DisplayName("a load that overlaps an edit is used once but not kept")
+    void load_racingEditNotKept() {
+        when(repo.findByActiveTrue()).thenAnswer(inv -> {
+            matrix.markStale(); // an admin saved a row meanwhile
+            return List.of(interaction("11289", "1191"));
+        });
+
+        assertThat(matrix.lookup("11289", "1191")).isNotNull();
+        assertThat(matrix.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("the matrix is reloaded once the refresh interval has passed")
+    void refreshInterval_reloads() {
+        DrugInteractionMatrix alwaysStale = new DrugInteractionMatrix(repo, Duration.ZERO, null);
+        when(repo.findByActiveTrue()).thenReturn(List.of(interaction("11289", "1191")));
+
+        alwaysStale.lookup("11289", "1191");
+        alwaysStale.lookup("11289", "1191");
+
+        verify(repo, times(2)).findByActiveTrue();
+    }
+
+    private static DrugInteraction interaction(String code1, String code2) {
+        return DrugInteraction.builder()
+            .drug1Code(code1).drug1Name("drug-" + code1)
+            .drug2Code(code2).drug2Name("drug-" + code2)
+            .severity(InteractionSeverity.MAJOR)
+            .active(true)
+            .build();
+    }
+}
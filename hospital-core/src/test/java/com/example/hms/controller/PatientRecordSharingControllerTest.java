@@ -6,6 +6,7 @@ import com.example.hms.payload.dto.RecordShareRequestDTO;
 import com.example.hms.payload.dto.RecordShareResultDTO;
 import com.example.hms.service.PatientRecordSharingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -23,14 +24,19 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -272,10 +278,11 @@ class PatientRecordSharingControllerTest {
         @WithMockUser(authorities = "ROLE_DOCTOR")
         @DisplayName("returns 200 OK with PDF content for format=pdf")
         void exportRecords_pdf() throws Exception {
-            byte[] pdfContent = "mock-pdf-content".getBytes();
-            when(sharingService.exportPatientRecord(
-                    PATIENT_ID, FROM_HOSPITAL_ID, TO_HOSPITAL_ID, "pdf"))
-                    .thenReturn(pdfContent);
+            doAnswer(inv -> {
+                inv.<OutputStream>getArgument(4).write("mock-pdf-content".getBytes());
+                return null;
+            }).when(sharingService).streamPatientRecord(
+                    eq(PATIENT_ID), eq(FROM_HOSPITAL_ID), eq(TO_HOSPITAL_ID), eq("pdf"), any(OutputStream.class));
 
             mockMvc.perform(post(EXPORT_URL)
                             .param("patientId", PATIENT_ID.toString())
@@ -285,19 +292,22 @@ class PatientRecordSharingControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Disposition",
                             "attachment; filename=\"patient_record.pdf\""))
-                    .andExpect(header().string("Content-Type", "application/pdf"));
+                    .andExpect(header().string("Content-Type", "application/pdf"))
+                    .andExpect(content().string("mock-pdf-content"));
 
-            verify(sharingService).exportPatientRecord(PATIENT_ID, FROM_HOSPITAL_ID, TO_HOSPITAL_ID, "pdf");
+            verify(sharingService).streamPatientRecord(
+                    eq(PATIENT_ID), eq(FROM_HOSPITAL_ID), eq(TO_HOSPITAL_ID), eq("pdf"), any(OutputStream.class));
         }
 
         @Test
         @WithMockUser(authorities = "ROLE_NURSE")
         @DisplayName("returns 200 OK with CSV content for format=csv")
         void exportRecords_csv() throws Exception {
-            byte[] csvContent = "id,name\n1,Jane".getBytes();
-            when(sharingService.exportPatientRecord(
-                    PATIENT_ID, FROM_HOSPITAL_ID, TO_HOSPITAL_ID, "csv")
-            ).thenReturn(csvContent);
+            doAnswer(inv -> {
+                inv.<OutputStream>getArgument(4).write("id,name\n1,Jane".getBytes());
+                return null;
+            }).when(sharingService).streamPatientRecord(
+                    eq(PATIENT_ID), eq(FROM_HOSPITAL_ID), eq(TO_HOSPITAL_ID), eq("csv"), any(OutputStream.class));
 
             mockMvc.perform(post(EXPORT_URL)
                             .param("patientId", PATIENT_ID.toString())
@@ -307,7 +317,8 @@ class PatientRecordSharingControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Disposition",
                             "attachment; filename=\"patient_record.csv\""))
-                    .andExpect(header().string("Content-Type", "text/csv"));
+                    .andExpect(header().string("Content-Type", "text/csv"))
+                    .andExpect(content().string("id,name\n1,Jane"));
         }
 
         @Test
@@ -392,7 +403,7 @@ class PatientRecordSharingControllerTest {
         @DisplayName("exportRecords allows same 5 clinical roles")
         void exportRecords_allowedRoles() throws Exception {
             var method = PatientRecordSharingController.class.getDeclaredMethod(
-                    "exportRecords", UUID.class, UUID.class, UUID.class, String.class);
+                    "exportRecords", UUID.class, UUID.class, UUID.class, String.class, HttpServletResponse.class);
             var ann = method.getAnnotation(
                     org.springframework.security.access.prepost.PreAuthorize.class);
             org.assertj.core.api.Assertions.assertThat(ann).isNotNull();
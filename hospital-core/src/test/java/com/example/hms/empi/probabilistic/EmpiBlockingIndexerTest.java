@@ -0,0 +1,91 @@
+package com.example.hms.empi.probabilistic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.hms.model.Patient;
+import com.example.hms.model.empi.EmpiBlockingBackfillState;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.repository.empi.EmpiBlockingBackfillStateRepository;
+import com.example.hms.repository.empi.EmpiBlockingKeyRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Backfill checkpointing in {@link EmpiBlockingIndexer}: a restart resumes
+ * after the last committed page, and a finished walk is never repeated.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmpiBlockingIndexerTest {
+
+    @Mock private PatientRepository patientRepository;
+    @Mock private EmpiBlockingKeyRepository blockingKeyRepository;
+    @Mock private EmpiMatchIndex matchIndex;
+    @Mock private EmpiBlockingBackfillStateRepository backfillStateRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private EmpiBlockingIndexer indexer;
+
+    @BeforeEach
+    void setUp() {
+        EmpiProbabilisticProperties properties = new EmpiProbabilisticProperties();
+        properties.setEnabled(true);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        indexer = new EmpiBlockingIndexer(properties, patientRepository, blockingKeyRepository,
+            matchIndex, backfillStateRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("resumes after the persisted checkpoint and marks the walk complete")
+    void resumesFromCheckpoint() {
+        UUID checkpoint = UUID.randomUUID();
+        UUID next = UUID.randomUUID();
+        EmpiBlockingBackfillState state = new EmpiBlockingBackfillState(
+            EmpiBlockingBackfillState.SINGLETON_ID, checkpoint, 500, null, Instant.now());
+        when(backfillStateRepository.findForUpdate(EmpiBlockingBackfillState.SINGLETON_ID))
+            .thenReturn(Optional.of(state));
+        when(patientRepository.findIdsAfterUnscoped(eq(checkpoint), any(Pageable.class))).thenReturn(List.of(next));
+        when(patientRepository.findIdsAfterUnscoped(eq(next), any(Pageable.class))).thenReturn(List.of());
+        Patient patient = new Patient();
+        patient.setId(next);
+        when(patientRepository.findAllWithRegistrationsByIdInUnscoped(List.of(next))).thenReturn(List.of(patient));
+
+        indexer.backfill();
+
+        verify(blockingKeyRepository).deleteByPatientIdIn(List.of(next));
+        verify(matchIndex).upsert(patient);
+        assertThat(state.getCheckpointPatientId()).isEqualTo(next);
+        assertThat(state.getIndexedPatients()).isEqualTo(501);
+        assertThat(state.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("a completed walk is not repeated")
+    void completedWalkIsSkipped() {
+        EmpiBlockingBackfillState state = new EmpiBlockingBackfillState(
+            EmpiBlockingBackfillState.SINGLETON_ID, UUID.randomUUID(), 10, Instant.now(), Instant.now());
+        when(backfillStateRepository.findForUpdate(EmpiBlockingBackfillState.SINGLETON_ID))
+            .thenReturn(Optional.of(state));
+
+        indexer.backfill();
+
+        verify(patientRepository, never()).findIdsAfterUnscoped(any(), any());
+        verify(blockingKeyRepository, never()).saveAll(anyList());
+    }
+}
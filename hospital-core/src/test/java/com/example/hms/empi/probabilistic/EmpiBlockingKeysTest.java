@@ -0,0 +1,64 @@
+package com.example.hms.empi.probabilistic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.hms.enums.empi.EmpiBlockingKeyType;
+import java.time.LocalDate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Blocking-key derivation tests. The matcher and the indexer share
+ * {@link EmpiBlockingKeys}, so these pin the property that matters for
+ * recall: spelling variants the scorer tolerates land in the same block.
+ */
+class EmpiBlockingKeysTest {
+
+    @Test
+    @DisplayName("soundex — textbook codes (Robert R163, Ashcraft A261, Pfister P236)")
+    void soundexTextbook() {
+        assertThat(EmpiBlockingKeys.soundex("robert")).isEqualTo("R163");
+        assertThat(EmpiBlockingKeys.soundex("rupert")).isEqualTo("R163");
+        assertThat(EmpiBlockingKeys.soundex("ashcraft")).isEqualTo("A261");
+        assertThat(EmpiBlockingKeys.soundex("pfister")).isEqualTo("P236");
+        assertThat(EmpiBlockingKeys.soundex("diallo")).isEqualTo("D400");
+    }
+
+    @Test
+    @DisplayName("normalize — strips diacritics, punctuation and case")
+    void normalizeStripsNoise() {
+        assertThat(EmpiBlockingKeys.normalize("  Ouédraogo ")).isEqualTo("ouedraogo");
+        assertThat(EmpiBlockingKeys.normalize("N'Diaye")).isEqualTo("ndiaye");
+        assertThat(EmpiBlockingKeys.normalize(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("spelling variants share the last-name phonetic key")
+    void spellingVariantsShareBlock() {
+        assertThat(EmpiBlockingKeys.keyValuesFor("Awa", "Diallo"))
+            .containsAnyElementsOf(EmpiBlockingKeys.keyValuesFor("Aoua", "Dialo"));
+        assertThat(EmpiBlockingKeys.keyValuesFor(null, "Ouédraogo"))
+            .containsExactlyElementsOf(EmpiBlockingKeys.keyValuesFor(null, "OUEDRAOGO"));
+    }
+
+    @Test
+    @DisplayName("keysFor — one key per family, blank names contribute nothing")
+    void keyFamilies() {
+        assertThat(EmpiBlockingKeys.keysFor("Awa", "Diallo"))
+            .extracting(EmpiBlockingKeys.Key::type)
+            .containsExactly(
+                EmpiBlockingKeyType.LAST_NAME_PHONETIC,
+                EmpiBlockingKeyType.LAST_NAME_NGRAM,
+                EmpiBlockingKeyType.FIRST_NAME_PHONETIC);
+        assertThat(EmpiBlockingKeys.keyValuesFor("Awa", " ")).containsExactly("FP:A000");
+        assertThat(EmpiBlockingKeys.keyValuesFor(null, "Ba")).containsExactly("LP:B000", "LG:ba");
+        assertThat(EmpiBlockingKeys.keysFor(" ", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("probeYears — DOB year ±1, empty for a missing DOB")
+    void probeYears() {
+        assertThat(EmpiBlockingKeys.probeYears(LocalDate.of(1990, 6, 1))).containsExactly(1989, 1990, 1991);
+        assertThat(EmpiBlockingKeys.probeYears(null)).isEmpty();
+    }
+}
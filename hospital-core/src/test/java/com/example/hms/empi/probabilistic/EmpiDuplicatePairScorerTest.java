@@ -0,0 +1,119 @@
+package com.example.hms.empi.probabilistic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Batch dedup pair scoring. Pins the two pruning rules (DOB-year window and
+ * smallest-shared-block ownership) because both silently trade recall for
+ * speed if they regress.
+ */
+class EmpiDuplicatePairScorerTest {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 4, 12);
+
+    private final EmpiDuplicatePairScorer scorer = new EmpiDuplicatePairScorer(0.65, 100);
+
+    private static EmpiDuplicatePairScorer.Row row(String first, String last, LocalDate dob, String sex) {
+        return EmpiDuplicatePairScorer.Row.of(new Object[] {UUID.randomUUID(), first, last, dob, sex});
+    }
+
+    @Test
+    @DisplayName("spelling variant with same DOB and sex is queued, canonically ordered")
+    void nearDuplicateQueued() {
+        EmpiDuplicatePairScorer.Row a = row("Awa", "Diallo", DOB, "F");
+        EmpiDuplicatePairScorer.Row b = row("Awa", "Dialo", DOB, "F");
+
+        EmpiDuplicatePairScorer.BlockResult result = scorer.scoreBlock("FP:A000", List.of(a, b), Set.of());
+
+        assertThat(result.pairs()).hasSize(1);
+        EmpiDuplicatePairScorer.Pair pair = result.pairs().get(0);
+        assertThat(pair.patientAId().compareTo(pair.patientBId())).isNegative();
+        assertThat(pair.score()).isEqualTo(0.71);
+        assertThat(pair.dobScore()).isEqualTo(1.0);
+        assertThat(pair.sexMatched()).isTrue();
+    }
+
+    @Test
+    @DisplayName("a pair sharing several keys is scored only in its smallest shared block")
+    void pairOwnedBySmallestSharedKey() {
+        EmpiDuplicatePairScorer.Row a = row("Awa", "Diallo", DOB, "F");
+        EmpiDuplicatePairScorer.Row b = row("Awa", "Dialo", DOB, "F");
+
+        assertThat(scorer.scoreBlock("LP:D400", List.of(a, b), Set.of()).comparisons()).isZero();
+        assertThat(scorer.scoreBlock("LG:dia", List.of(a, b), Set.of()).comparisons()).isZero();
+        assertThat(scorer.scoreBlock("FP:A000", List.of(a, b), Set.of()).comparisons()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("members more than one DOB year apart are never compared")
+    void dobWindowPrunes() {
+        EmpiDuplicatePairScorer.Row a = row("Awa", "Diallo", DOB, "F");
+        EmpiDuplicatePairScorer.Row b = row("Awa", "Diallo", DOB.plusYears(3), "F");
+
+        EmpiDuplicatePairScorer.BlockResult result = scorer.scoreBlock("FP:A000", List.of(b, a), Set.of());
+
+        assertThat(result.comparisons()).isZero();
+        assertThat(result.pairs()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("different given names in the same surname block fall below threshold")
+    void differentPeopleNotQueued() {
+        EmpiDuplicatePairScorer.Row a = row("Awa", "Diallo", DOB, "F");
+        EmpiDuplicatePairScorer.Row b = row("Moussa", "Diallo", DOB, "M");
+
+        EmpiDuplicatePairScorer.BlockResult result = scorer.scoreBlock("LG:dia", List.of(a, b), Set.of());
+
+        assertThat(result.comparisons()).isEqualTo(1);
+        assertThat(result.pairs()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("blocks above the size cap are split on DOB year and only over-cap windows are skipped")
+    void oversizedBlockSplitOnDobYear() {
+        List<EmpiDuplicatePairScorer.Row> members = new ArrayList<>();
+        IntStream.range(0, 60).forEach(i -> members.add(row("Moussa" + i, "Diallo", DOB, "M")));
+        EmpiDuplicatePairScorer.Row a = row("Awa", "Diallo", DOB.plusYears(10), "F");
+        EmpiDuplicatePairScorer.Row b = row("Awa", "Dialo", DOB.plusYears(10), "F");
+        members.add(a);
+        members.add(b);
+        IntStream.range(0, 58).forEach(i -> members.add(row("Issa" + i, "Diallo", DOB.plusYears(10), "M")));
+
+        Set<String> skipped = scorer.skippedWindows(Map.of("FP:A000", Map.of(1990, 60, 2000, 60)));
+        EmpiDuplicatePairScorer.BlockResult result = scorer.scoreBlock("FP:A000", members, skipped);
+
+        assertThat(skipped).isEmpty();
+        assertThat(result.oversized()).isTrue();
+        assertThat(result.comparisons()).isEqualTo(2L * (60 * 59 / 2));
+        assertThat(result.pairs()).anyMatch(pair ->
+            Set.of(pair.patientAId(), pair.patientBId()).equals(Set.of(a.id(), b.id())));
+    }
+
+    @Test
+    @DisplayName("a window still above the cap is skipped and its pairs fall to the next shared key")
+    void skippedWindowDoesNotOwnPair() {
+        EmpiDuplicatePairScorer.Row a = row("Awa", "Diallo", DOB, "F");
+        EmpiDuplicatePairScorer.Row b = row("Awa", "Dialo", DOB, "F");
+        List<EmpiDuplicatePairScorer.Row> members = new ArrayList<>(List.of(a, b));
+        IntStream.range(0, 99).forEach(i -> members.add(row("Awa", "Diallo", DOB.plusMonths(1), "F")));
+
+        Set<String> skipped = scorer.skippedWindows(Map.of("FP:A000", Map.of(1990, 101), "LG:dia", Map.of(1990, 2)));
+
+        assertThat(skipped).containsExactly(EmpiDuplicatePairScorer.window("FP:A000", 1990));
+        EmpiDuplicatePairScorer.BlockResult oversized = scorer.scoreBlock("FP:A000", members, skipped);
+        assertThat(oversized.oversized()).isTrue();
+        assertThat(oversized.comparisons()).isZero();
+        assertThat(scorer.scoreBlock("LG:dia", List.of(a, b), skipped).comparisons()).isEqualTo(1);
+        assertThat(scorer.scoreBlock("LP:D400", List.of(a, b), skipped).comparisons()).isZero();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.hms.empi.probabilistic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Resident-slice tests for {@link EmpiMatchIndex}. The slice must rank
+ * exactly like the database path in {@link EmpiProbabilisticMatcher}
+ * (same weights, rounding, threshold and truncation) while pruning rows
+ * that cannot reach the floor.
+ */
+class EmpiMatchIndexTest {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+
+    @Test
+    @DisplayName("exact match scores like the DB path and carries per-field flags")
+    void exactMatch() {
+        EmpiMatchIndex.HospitalSlice slice = EmpiMatchIndex.newSlice(4);
+        UUID id = UUID.randomUUID();
+        slice.put(id, " Awa ", "Diallo", DOB, "f");
+
+        List<EmpiCandidateMatchDTO> matches = slice.search(query("Awa", "Diallo", DOB, "F"), id, 0.7, 10);
+
+        assertThat(matches).hasSize(1);
+        EmpiCandidateMatchDTO match = matches.get(0);
+        assertThat(match.patientId()).isEqualTo(id);
+        assertThat(match.displayName()).isEqualTo("Awa Diallo");
+        assertThat(match.score()).isEqualTo(1.0);
+        assertThat(match.nameMatched()).isTrue();
+        assertThat(match.sexMatched()).isTrue();
+        assertThat(match.nationalIdMatched()).isTrue();
+    }
+
+    @Test
+    @DisplayName("top-K keeps the best scores in descending order")
+    void topKRanking() {
+        EmpiMatchIndex.HospitalSlice slice = EmpiMatchIndex.newSlice(2);
+        UUID best = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        slice.put(UUID.randomUUID(), "Aub", "Dialo", DOB.plusYears(1), "M");
+        slice.put(second, "Aua", "Diallo", DOB, "F");
+        slice.put(best, "Awa", "Diallo", DOB, "F");
+
+        List<EmpiCandidateMatchDTO> matches = slice.search(query("Awa", "Diallo", DOB, "F"), null, 0.0, 2);
+
+        assertThat(matches).extracting(EmpiCandidateMatchDTO::patientId).containsExactly(best, second);
+    }
+
+    @Test
+    @DisplayName("scores agree with EmpiSimilarity for every survivor (pruning never changes a score)")
+    void prunedScoresMatchReference() {
+        EmpiMatchIndex.HospitalSlice slice = EmpiMatchIndex.newSlice(8);
+        String[][] names = {{"Awa", "Diallo"}, {"Aua", "Diallo"}, {"Awa", "Dialo"}, {"Aminata", "Diallo"}};
+        for (String[] name : names) {
+            slice.put(UUID.randomUUID(), name[0], name[1], DOB, "F");
+        }
+
+        for (EmpiCandidateMatchDTO match : slice.search(query("Awa", "Diallo", DOB, "F"), null, 0.0, 10)) {
+            String[] parts = match.displayName().split(" ");
+            double name = EmpiSimilarity.combinedNameSimilarity("Awa", "Diallo", parts[0], parts[1]);
+            double expected = Math.round((0.40 * name + 0.25 + 0.10) * 1000.0) / 1000.0;
+            assertThat(match.score()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("rows outside the DOB year ±1 window or below minScore are not returned")
+    void windowAndThreshold() {
+        EmpiMatchIndex.HospitalSlice slice = EmpiMatchIndex.newSlice(4);
+        slice.put(UUID.randomUUID(), "Awa", "Diallo", DOB.minusYears(5), "F");
+        slice.put(UUID.randomUUID(), "Zeinab", "Diallo", DOB, "M");
+
+        assertThat(slice.search(query("Awa", "Diallo", DOB, "F"), null, 0.7, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("patients without a DOB are never name-block candidates, matching the blocking-key path")
+    void nullDobRowsExcludedLikeDatabasePath() {
+        EmpiMatchIndex.HospitalSlice slice = EmpiMatchIndex.newSlice(2);
+        UUID dated = UUID.randomUUID();
+        slice.put(dated, "Awa", "Diallo", DOB, "F");
+        slice.put(UUID.randomUUID(), "Awa", "Diallo", null, "F");
+
+        assertThat(slice.search(query("Awa", "Diallo", null, "F"), null, 0.0, 10))
+            .extracting(EmpiCandidateMatchDTO::patientId).containsExactly(dated);
+        assertThat(slice.search(query("Awa", "Diallo", DOB, "F"), null, 0.0, 10))
+            .extracting(EmpiCandidateMatchDTO::patientId).containsExactly(dated);
+    }
+
+    @Test
+    @DisplayName("removed rows are tombstoned; re-put revives them with new demographics")
+    void removeAndRevive() {
+        EmpiMatchIndex.HospitalSlice slice = EmpiMatchIndex.newSlice(1);
+        UUID id = UUID.randomUUID();
+        slice.put(id, "Awa", "Diallo", DOB, "F");
+        slice.remove(id);
+        assertThat(slice.search(query("Awa", "Diallo", DOB, "F"), null, 0.0, 10)).isEmpty();
+
+        slice.put(id, "Awa", "Traore", DOB, "F");
+        assertThat(slice.search(query("Awa", "Traore", DOB, "F"), null, 0.7, 10))
+            .extracting(EmpiCandidateMatchDTO::patientId).containsExactly(id);
+    }
+
+    private static EmpiCandidateQueryDTO query(String first, String last, LocalDate dob, String sex) {
+        return new EmpiCandidateQueryDTO(first, last, dob, sex, null);
+    }
+}
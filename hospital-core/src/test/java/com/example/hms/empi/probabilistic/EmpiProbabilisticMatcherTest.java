@@ -3,7 +3,9 @@ package com.example.hms.empi.probabilistic;
 import com.example.hms.model.Patient;
 import com.example.hms.payload.dto.empi.EmpiIdentityResponseDTO;
 import com.example.hms.repository.PatientRepository;
+import com.example.hms.repository.empi.EmpiBlockingKeyRepository;
 import com.example.hms.service.empi.EmpiService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,12 +14,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
@@ -31,16 +36,21 @@ import static org.mockito.Mockito.when;
 class EmpiProbabilisticMatcherTest {
 
     @Mock private PatientRepository patientRepository;
+    @Mock private EmpiBlockingKeyRepository blockingKeyRepository;
     @Mock private EmpiService empiService;
     @Mock private com.example.hms.utility.RoleValidator roleValidator;
 
     private EmpiProbabilisticProperties properties;
+    private SimpleMeterRegistry meterRegistry;
     private EmpiProbabilisticMatcher matcher;
 
     @BeforeEach
     void setUp() {
         properties = new EmpiProbabilisticProperties();
-        matcher = new EmpiProbabilisticMatcher(properties, patientRepository, empiService, roleValidator);
+        meterRegistry = new SimpleMeterRegistry();
+        matcher = new EmpiProbabilisticMatcher(
+            properties, patientRepository, blockingKeyRepository, empiService, roleValidator,
+            new EmpiMatchIndex(properties, patientRepository), meterRegistry);
     }
 
     @Test
@@ -65,12 +75,10 @@ class EmpiProbabilisticMatcherTest {
     }
 
     @Test
-    @DisplayName("flag on, no candidates from the name-prefix block → empty list")
+    @DisplayName("flag on, no candidates from the blocking index → empty list")
     void emptyWhenNoCandidates() {
         properties.setEnabled(true);
-        lenient().when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of());
+        givenBlock();
         assertThat(matcher.findCandidates(sampleQuery())).isEmpty();
     }
 
@@ -80,9 +88,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setEnabled(true);
         UUID id = UUID.randomUUID();
         Patient p = patient(id, "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         // National-ID alias resolves to the SAME patient — boosts the
         // national-ID similarity to 1.0.
         when(empiService.findIdentityByAlias(any(), any()))
@@ -107,9 +113,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setMinScore(0.7);
         Patient p = patient(UUID.randomUUID(), "Awa", "Diallo",
             LocalDate.of(1985, 6, 12), "F");  // 5y off, different month
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         // No alias match for the national ID — similarity 0.
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
@@ -127,9 +131,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setEnabled(true);
         Patient p = patient(UUID.randomUUID(), "Awa", "Diallo",
             LocalDate.of(1990, 1, 15), "F"); // would score 1.0 unscoped
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
         // Caller is pinned to a hospital the candidate is NOT registered at
         // (the fixture patient carries no hospital registrations).
@@ -148,9 +150,7 @@ class EmpiProbabilisticMatcherTest {
         Patient a = patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
         Patient b = patient(UUID.randomUUID(), "Aua", "Diallo", LocalDate.of(1990, 1, 1), "F"); // slight typo
         Patient c = patient(UUID.randomUUID(), "Different", "Person", LocalDate.of(1970, 1, 1), "M");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(c, b, a));  // out-of-order intentionally
+        givenBlock(c, b, a);  // out-of-order intentionally
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         List<EmpiCandidateMatchDTO> matches = matcher.findCandidates(sampleQuery());
@@ -163,35 +163,31 @@ class EmpiProbabilisticMatcherTest {
     // ── Branch / condition coverage for the row-25 follow-on ─────────────
 
     @Test
-    @DisplayName("name-prefix block resolves with only firstName provided (lastName blank)")
+    @DisplayName("blocking index resolves with only firstName provided (lastName blank, no DOB → any-year probe)")
     void nameBlockFirstNameOnly() {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
         Patient p = patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase("Awa", ""))
-            .thenReturn(List.of(p));
+        givenBlock(p);
 
         var q = new EmpiCandidateQueryDTO("Awa", null, null, null, null);
         assertThat(matcher.findCandidates(q)).hasSize(1);
     }
 
     @Test
-    @DisplayName("name-prefix block resolves with only lastName provided (firstName blank)")
+    @DisplayName("blocking index resolves with only lastName provided (firstName blank, no DOB → any-year probe)")
     void nameBlockLastNameOnly() {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
         Patient p = patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase("", "Diallo"))
-            .thenReturn(List.of(p));
+        givenBlock(p);
 
         var q = new EmpiCandidateQueryDTO(null, "Diallo", null, null, null);
         assertThat(matcher.findCandidates(q)).hasSize(1);
     }
 
     @Test
-    @DisplayName("only national-ID provided → alias-block resolves the candidate; name-block is skipped")
+    @DisplayName("only national-ID provided → alias-block resolves the candidate; blocking index is skipped")
     void nationalIdOnlyPath() {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
@@ -206,13 +202,12 @@ class EmpiProbabilisticMatcherTest {
 
         assertThat(matches).hasSize(1);
         assertThat(matches.get(0).patientId()).isEqualTo(id);
-        // The name-prefix block must not be called when both names are blank.
-        org.mockito.Mockito.verify(patientRepository, org.mockito.Mockito.never())
-            .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any());
+        // The blocking index must not be probed when both names are blank.
+        org.mockito.Mockito.verifyNoInteractions(blockingKeyRepository);
     }
 
     @Test
-    @DisplayName("national-ID alias resolves to a patient id NOT in the name block → still added to candidates")
+    @DisplayName("national-ID alias resolves to a patient id NOT in the blocking block → still added to candidates")
     void nationalIdAliasAddsExtraCandidate() {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
@@ -220,9 +215,7 @@ class EmpiProbabilisticMatcherTest {
         UUID byAliasId = UUID.randomUUID();
         Patient byName = patient(byNameId, "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
         Patient byAlias = patient(byAliasId, "Other", "Person", LocalDate.of(1980, 5, 5), "M");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(byName));
+        givenBlock(byName);
         when(empiService.findIdentityByAlias(any(), any()))
             .thenReturn(Optional.of(identity(byAliasId)));
         when(patientRepository.findById(byAliasId)).thenReturn(Optional.of(byAlias));
@@ -241,9 +234,7 @@ class EmpiProbabilisticMatcherTest {
         Patient a = patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
         Patient b = patient(UUID.randomUUID(), "Aua", "Diallo", LocalDate.of(1990, 1, 1), "F");
         Patient c = patient(UUID.randomUUID(), "Aub", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(a, b, c));
+        givenBlock(a, b, c);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         matcher.findCandidates(sampleQuery());
@@ -256,14 +247,12 @@ class EmpiProbabilisticMatcherTest {
     }
 
     @Test
-    @DisplayName("candidate with a null id is dropped from the name block (defensive)")
+    @DisplayName("candidate with a null id is dropped from the blocking block (defensive)")
     void candidateWithNullIdIsSkipped() {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
         Patient nullId = patient(null, "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(nullId));
+        givenBlock(nullId);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         assertThat(matcher.findCandidates(sampleQuery())).isEmpty();
@@ -276,9 +265,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setMinScore(0.0);
         UUID id = UUID.randomUUID();
         Patient p = patient(id, " ", " ", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         var matches = matcher.findCandidates(sampleQuery());
@@ -293,9 +280,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
         Patient p = patient(UUID.randomUUID(), "Awa", "", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         assertThat(matcher.findCandidates(sampleQuery()).get(0).displayName()).isEqualTo("Awa");
@@ -307,9 +292,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setEnabled(true);
         properties.setMinScore(0.0);
         Patient p = patient(UUID.randomUUID(), "", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         assertThat(matcher.findCandidates(sampleQuery()).get(0).displayName()).isEqualTo("Diallo");
@@ -322,9 +305,7 @@ class EmpiProbabilisticMatcherTest {
         properties.setMinScore(0.0);
         properties.setMaxCandidates(0);
         Patient p = patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
-        when(patientRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(any(), any()))
-            .thenReturn(List.of(p));
+        givenBlock(p);
         when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
 
         assertThat(matcher.findCandidates(sampleQuery())).isEmpty();
@@ -338,6 +319,79 @@ class EmpiProbabilisticMatcherTest {
         assertThat(matcher.findCandidates(q)).isEmpty();
     }
 
+    @Test
+    @DisplayName("scoped caller → blocking lookup is hospital-scoped in SQL and probes DOB year ±1")
+    void scopedLookupUsesHospitalAndYearWindow() {
+        properties.setEnabled(true);
+        properties.setMinScore(0.0);
+        UUID hospitalId = UUID.randomUUID();
+        when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
+        when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
+        when(blockingKeyRepository.findBlockedPatientIds(eq(hospitalId), anyCollection(), anyCollection(), any()))
+            .thenReturn(List.of());
+
+        assertThat(matcher.findCandidates(sampleQuery())).isEmpty();
+
+        org.mockito.Mockito.verify(blockingKeyRepository).findBlockedPatientIds(
+            eq(hospitalId),
+            org.mockito.ArgumentMatchers.argThat(keys -> keys.containsAll(List.of("LP:D400", "LG:dia", "FP:A000"))),
+            org.mockito.ArgumentMatchers.argThat(years -> years.containsAll(List.of(1989, 1990, 1991))),
+            any());
+        org.mockito.Mockito.verifyNoMoreInteractions(blockingKeyRepository);
+    }
+
+    @Test
+    @DisplayName("block size is recorded and a block at the cap counts as truncated")
+    void blockSizeAndTruncationMetrics() {
+        properties.setEnabled(true);
+        properties.setMinScore(0.0);
+        properties.setMaxBlockSize(2);
+        Patient a = patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F");
+        Patient b = patient(UUID.randomUUID(), "Aua", "Diallo", LocalDate.of(1990, 1, 1), "F");
+        givenBlock(a, b);
+        when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
+
+        matcher.findCandidates(sampleQuery());
+
+        assertThat(meterRegistry.get(EmpiProbabilisticMatcher.METRIC_BLOCK_SIZE).summary().totalAmount())
+            .isEqualTo(2.0);
+        assertThat(meterRegistry.get(EmpiProbabilisticMatcher.METRIC_BLOCK_TRUNCATED).counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("recall proxy: national-ID match outside the block counts as a blocking miss")
+    void recallProxyCountsMiss() {
+        properties.setEnabled(true);
+        UUID aliasId = UUID.randomUUID();
+        givenBlock(patient(UUID.randomUUID(), "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F"));
+        when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.of(identity(aliasId)));
+        when(patientRepository.findById(aliasId)).thenReturn(Optional.empty());
+
+        matcher.findCandidates(sampleQuery());
+
+        assertThat(meterRegistry.get(EmpiProbabilisticMatcher.METRIC_BLOCK_RECALL)
+            .tag(EmpiProbabilisticMatcher.TAG_OUTCOME, "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("in-memory index on + scoped caller → served from the resident slice, blocking table untouched")
+    void inMemoryIndexServesScopedQueries() {
+        properties.setEnabled(true);
+        properties.setInMemoryIndex(true);
+        UUID hospitalId = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
+        when(empiService.findIdentityByAlias(any(), any())).thenReturn(Optional.empty());
+        when(patientRepository.findEmpiMatchTuplesByHospital(hospitalId)).thenReturn(List.<Object[]>of(
+            new Object[] {id, "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F"}));
+
+        List<EmpiCandidateMatchDTO> matches = matcher.findCandidates(sampleQuery());
+
+        assertThat(matches).extracting(EmpiCandidateMatchDTO::patientId).containsExactly(id);
+        org.mockito.Mockito.verifyNoInteractions(blockingKeyRepository);
+    }
+
     private static EmpiCandidateQueryDTO sampleQuery() {
         return new EmpiCandidateQueryDTO(
             "Awa", "Diallo", LocalDate.of(1990, 1, 1), "F", "BF1234567890"
@@ -354,6 +408,24 @@ class EmpiProbabilisticMatcherTest {
         return p;
     }
 
+    /**
+     * Stub the blocking index (every lookup variant — the variant chosen
+     * depends on scope + DOB presence) and the follow-up id fetch.
+     */
+    private void givenBlock(Patient... patients) {
+        List<UUID> ids = new ArrayList<>();
+        for (Patient p : patients) ids.add(p.getId());
+        lenient().when(blockingKeyRepository.findBlockedPatientIds(any(), anyCollection(), anyCollection(), any()))
+            .thenReturn(ids);
+        lenient().when(blockingKeyRepository.findBlockedPatientIdsAnyYear(any(), anyCollection(), any()))
+            .thenReturn(ids);
+        lenient().when(blockingKeyRepository.findBlockedPatientIdsUnscoped(anyCollection(), anyCollection(), any()))
+            .thenReturn(ids);
+        lenient().when(blockingKeyRepository.findBlockedPatientIdsUnscopedAnyYear(anyCollection(), any()))
+            .thenReturn(ids);
+        lenient().when(patientRepository.findAllById(any())).thenReturn(List.of(patients));
+    }
+
     private static EmpiIdentityResponseDTO identity(UUID patientId) {
         return EmpiIdentityResponseDTO.builder().patientId(patientId).build();
     }
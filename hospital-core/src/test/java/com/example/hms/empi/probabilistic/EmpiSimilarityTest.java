@@ -95,4 +95,66 @@ class EmpiSimilarityTest {
         assertThat(EmpiSimilarity.nationalIdSimilarity("bf1234567890", "BF1234567890")).isZero();
         assertThat(EmpiSimilarity.nationalIdSimilarity(null, "BF1234567890")).isZero();
     }
+
+    @Test
+    @DisplayName("boundedNameSimilarity — exact score when it clears the floor, below-floor sentinel otherwise")
+    void boundedNameSimilarity() {
+        assertThat(EmpiSimilarity.boundedNameSimilarity("Diallo", "Dialo", 0.8))
+            .isCloseTo(EmpiSimilarity.nameSimilarity("Diallo", "Dialo"), within(1e-9));
+        assertThat(EmpiSimilarity.boundedNameSimilarity("Diallo", "Traore", 0.8)).isLessThan(0.8);
+        // Length gap alone exceeds the band → rejected before any DP work.
+        assertThat(EmpiSimilarity.boundedNameSimilarity("Ba", "Bamogo", 0.9)).isLessThan(0.9);
+    }
+
+    @Test
+    @DisplayName("banded Levenshtein returns the textbook distance inside the band and k + 1 beyond it")
+    void bandedMatchesKnownDistances() {
+        // Hand-checked edit distances; none are derived from EmpiSimilarity itself.
+        Object[][] cases = {
+            {"kitten", "sitting", 3},
+            {"flaw", "lawn", 2},
+            {"intention", "execution", 5},
+            {"gumbo", "gambol", 2},
+            {"ouedraogo", "ouedrago", 1},
+            {"Diallo", "dialo", 1},
+            {"sawadogo", "zongo", 6},
+            {"a", "b", 1},
+        };
+        for (Object[] c : cases) {
+            String s = (String) c[0];
+            String t = (String) c[1];
+            int expected = (int) c[2];
+            int unbounded = Math.max(s.length(), t.length());
+            assertThat(EmpiSimilarity.bandedLevenshtein(s, 0, s.length(), t, 0, t.length(), unbounded))
+                .as("%s/%s unbounded", s, t).isEqualTo(expected);
+            assertThat(EmpiSimilarity.bandedLevenshtein(s, 0, s.length(), t, 0, t.length(), expected))
+                .as("%s/%s k = d", s, t).isEqualTo(expected);
+            assertThat(EmpiSimilarity.bandedLevenshtein(s, 0, s.length(), t, 0, t.length(), expected - 1))
+                .as("%s/%s k = d - 1", s, t).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("nameSimilarity is 1 - distance / longest for known pairs")
+    void nameSimilarityKnownValues() {
+        assertThat(EmpiSimilarity.nameSimilarity("kitten", "sitting")).isCloseTo(1.0 - 3.0 / 7.0, within(1e-9));
+        assertThat(EmpiSimilarity.nameSimilarity("Ouedraogo", "Ouedrago")).isCloseTo(1.0 - 1.0 / 9.0, within(1e-9));
+        assertThat(EmpiSimilarity.nameSimilarity("intention", "execution")).isCloseTo(1.0 - 5.0 / 9.0, within(1e-9));
+        // 4/9 clears a 0.4 floor (k = 5) but not a 0.5 floor (k = 4).
+        assertThat(EmpiSimilarity.boundedNameSimilarity("intention", "execution", 0.4))
+            .isCloseTo(1.0 - 5.0 / 9.0, within(1e-9));
+        assertThat(EmpiSimilarity.boundedNameSimilarity("intention", "execution", 0.5)).isLessThan(0.5);
+    }
+
+    @Test
+    @DisplayName("dobSimilarity(int, int) reproduces the LocalDate ladder incl. whole-year gaps")
+    void packedDobLadder() {
+        assertThat(EmpiSimilarity.dobSimilarity(
+            EmpiSimilarity.packDob(LocalDate.of(1990, 12, 31)), EmpiSimilarity.packDob(LocalDate.of(1992, 1, 1))))
+            .isEqualTo(0.4);
+        assertThat(EmpiSimilarity.dobSimilarity(
+            EmpiSimilarity.packDob(LocalDate.of(1990, 1, 1)), EmpiSimilarity.packDob(LocalDate.of(1992, 1, 1))))
+            .isZero();
+        assertThat(EmpiSimilarity.dobSimilarity(0, EmpiSimilarity.packDob(LocalDate.of(1990, 1, 1)))).isZero();
+    }
 }
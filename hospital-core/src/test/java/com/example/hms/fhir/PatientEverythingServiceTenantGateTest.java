@@ -3,6 +3,7 @@ package com.example.hms.fhir;
 import ca.uhn.fhir.rest.server.exceptions.ForbiddenOperationException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import com.example.hms.fhir.everything.PatientCompartmentStamps;
 import com.example.hms.fhir.everything.PatientEverythingService;
 import com.example.hms.fhir.mapper.ConditionFhirMapper;
 import com.example.hms.fhir.mapper.EncounterFhirMapper;
@@ -24,6 +25,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -79,7 +81,10 @@ class PatientEverythingServiceTenantGateTest {
             mock(ObservationFhirMapper.class),
             mock(ConditionFhirMapper.class),
             mock(MedicationRequestFhirMapper.class),
-            auditService
+            auditService,
+            mock(PatientCompartmentStamps.class),
+            mock(PlatformTransactionManager.class),
+            null
         );
     }
 
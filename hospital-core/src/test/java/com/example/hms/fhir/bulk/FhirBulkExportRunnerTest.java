@@ -0,0 +1,222 @@
+package com.example.hms.fhir.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.example.hms.fhir.FhirOperationsProperties;
+import com.example.hms.fhir.bulk.FhirBulkExportReader.Source;
+import com.example.hms.fhir.bulk.FhirBulkExportService.BulkExportStatus;
+import com.example.hms.fhir.bulk.FhirBulkExportService.Scope;
+import com.example.hms.model.platform.FhirBulkExportFile;
+import com.example.hms.model.platform.FhirBulkExportJob;
+import com.example.hms.repository.platform.FhirBulkExportFileRepository;
+import com.example.hms.repository.platform.FhirBulkExportJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class FhirBulkExportRunnerTest {
+
+    private static FhirContext fhirContext;
+
+    @Mock private FhirBulkExportJobRepository jobRepository;
+    @Mock private FhirBulkExportFileRepository fileRepository;
+    @Mock private FhirBulkExportReader reader;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir Path storageDir;
+
+    private FhirOperationsProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private FhirBulkExportRunner runner;
+    private FhirBulkExportJob job;
+
+    @BeforeAll
+    static void initContext() {
+        fhirContext = FhirContext.forR4();
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new FhirOperationsProperties();
+        properties.getBulkExport().setEnabled(true);
+        properties.getBulkExport().setStorageDir(storageDir.toString());
+        properties.getBulkExport().setPageSize(2);
+        properties.getBulkExport().setMaxResourcesPerFile(3);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        runner = new FhirBulkExportRunner(properties, jobRepository, fileRepository, reader,
+            new LocalFileBulkExportStorage(properties), fhirContext, transactionManager, meterRegistry);
+
+        job = FhirBulkExportJob.builder()
+            .hospitalId(UUID.randomUUID())
+            .scope(Scope.SYSTEM)
+            .status(BulkExportStatus.QUEUED)
+            .build();
+        job.setId(UUID.randomUUID());
+        lenient().when(jobRepository.findClaimable(any())).thenReturn(List.of(job));
+        lenient().when(jobRepository.save(any(FhirBulkExportJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(fileRepository.save(any(FhirBulkExportFile.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("streams keyset pages into NDJSON parts that roll over at the per-file limit")
+    void streamsPagesIntoRolledParts() throws Exception {
+        job.setResourceTypes("Patient");
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+            UUID.randomUUID(), UUID.randomUUID());
+        when(reader.nextIds(eq(Source.PATIENT), eq(job.getHospitalId()), any(), any(), eq(2)))
+            .thenReturn(ids.subList(0, 2), ids.subList(2, 4), ids.subList(4, 5));
+        when(reader.load(eq(Source.PATIENT), any())).thenAnswer(inv -> patients(inv.getArgument(1)));
+
+        int completed = runner.runPendingJobs();
+
+        assertThat(completed).isEqualTo(1);
+        assertThat(job.getStatus()).isEqualTo(BulkExportStatus.COMPLETED);
+        assertThat(job.getExportedCount()).isEqualTo(5);
+        assertThat(job.getCompletedAt()).isNotNull();
+        // A short page ends the type: no fourth round trip.
+        verify(reader, times(3)).nextIds(eq(Source.PATIENT), any(), any(), any(), anyInt());
+
+        Path jobDir = storageDir.resolve(job.getId().toString());
+        List<String> part1 = Files.readAllLines(jobDir.resolve("Patient-1.ndjson"));
+        List<String> part2 = Files.readAllLines(jobDir.resolve("Patient-2.ndjson"));
+        assertThat(part1).hasSize(3);
+        assertThat(part2).hasSize(2);
+        assertThat(part1.get(0)).startsWith("{\"resourceType\":\"Patient\"").contains(ids.get(0).toString());
+        assertThat(part2.get(1)).contains(ids.get(4).toString());
+
+        ArgumentCaptor<FhirBulkExportFile> files = ArgumentCaptor.forClass(FhirBulkExportFile.class);
+        verify(fileRepository, times(2)).save(files.capture());
+        assertThat(files.getAllValues())
+            .extracting(FhirBulkExportFile::getFileName, FhirBulkExportFile::getResourceCount)
+            .containsExactly(
+                tuple("Patient-1.ndjson", 3L),
+                tuple("Patient-2.ndjson", 2L));
+        assertThat(meterRegistry.get(FhirBulkExportRunner.METRIC_RESOURCES)
+            .tag(FhirBulkExportRunner.TAG_TYPE, "Patient").counter().count()).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("Observation reads lab results then vitals; a type with no rows writes no part")
+    void observationCombinesSourcesAndEmptyTypesWriteNothing() throws Exception {
+        job.setResourceTypes("Observation,Encounter");
+        UUID lab = UUID.randomUUID();
+        UUID vital = UUID.randomUUID();
+        when(reader.nextIds(eq(Source.LAB_RESULT), any(), any(), any(), anyInt())).thenReturn(List.of(lab));
+        when(reader.nextIds(eq(Source.VITAL_SIGN), any(), any(), any(), anyInt())).thenReturn(List.of(vital));
+        when(reader.nextIds(eq(Source.ENCOUNTER), any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(reader.load(eq(Source.LAB_RESULT), any())).thenReturn(List.of(observation("labresult-" + lab)));
+        // One vitals row expands into several Observations.
+        when(reader.load(eq(Source.VITAL_SIGN), any())).thenReturn(List.of(
+            observation("vital-" + vital + "-sbp"), observation("vital-" + vital + "-dbp")));
+
+        runner.runPendingJobs();
+
+        Path jobDir = storageDir.resolve(job.getId().toString());
+        assertThat(Files.readAllLines(jobDir.resolve("Observation-1.ndjson"))).hasSize(3);
+        assertThat(jobDir.resolve("Encounter-1.ndjson")).doesNotExist();
+        verify(fileRepository, times(1)).save(any(FhirBulkExportFile.class));
+        assertThat(job.getStatus()).isEqualTo(BulkExportStatus.COMPLETED);
+        assertThat(job.getExportedCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("a cancel observed at the heartbeat stops the job and deletes its output")
+    void cancelStopsAtNextHeartbeat() {
+        job.setResourceTypes("Patient");
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(reader.nextIds(eq(Source.PATIENT), any(), any(), any(), anyInt())).thenReturn(ids);
+        when(reader.load(eq(Source.PATIENT), any())).thenAnswer(inv -> patients(inv.getArgument(1)));
+        AtomicInteger saves = new AtomicInteger();
+        when(jobRepository.save(any(FhirBulkExportJob.class))).thenAnswer(inv -> {
+            // claim, type heartbeat, then the first page heartbeat loses to the DELETE.
+            if (saves.incrementAndGet() == 3) {
+                throw new ObjectOptimisticLockingFailureException(FhirBulkExportJob.class, job.getId());
+            }
+            return inv.getArgument(0);
+        });
+        FhirBulkExportJob cancelled = FhirBulkExportJob.builder().status(BulkExportStatus.CANCELLED).build();
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(cancelled));
+
+        int completed = runner.runPendingJobs();
+
+        assertThat(completed).isZero();
+        assertThat(job.getStatus()).isNotEqualTo(BulkExportStatus.COMPLETED);
+        assertThat(storageDir.resolve(job.getId().toString())).doesNotExist();
+        verify(fileRepository, never()).save(any(FhirBulkExportFile.class));
+    }
+
+    @Test
+    @DisplayName("a mapping failure marks the job FAILED with the cause")
+    void failureMarksJobFailed() {
+        job.setResourceTypes("Patient");
+        when(reader.nextIds(eq(Source.PATIENT), any(), any(), any(), anyInt())).thenReturn(List.of(UUID.randomUUID()));
+        when(reader.load(eq(Source.PATIENT), any())).thenThrow(new IllegalStateException("replica gone"));
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        int completed = runner.runPendingJobs();
+
+        assertThat(completed).isZero();
+        assertThat(job.getStatus()).isEqualTo(BulkExportStatus.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("replica gone");
+        assertThat(job.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("no-op while the bulk-export flag is off")
+    void disabledDoesNothing() {
+        properties.getBulkExport().setEnabled(false);
+
+        assertThat(runner.runPendingJobs()).isZero();
+
+        verify(jobRepository, never()).findClaimable(any());
+        verifyNoInteractions(reader);
+    }
+
+    private static List<Resource> patients(List<UUID> ids) {
+        return ids.stream().<Resource>map(id -> {
+            Patient patient = new Patient();
+            patient.setId(id.toString());
+            return patient;
+        }).toList();
+    }
+
+    private static Observation observation(String id) {
+        Observation observation = new Observation();
+        observation.setId(id);
+        observation.setStatus(Observation.ObservationStatus.FINAL);
+        return observation;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.hms.fhir.everything;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the $everything Bundle cache: stamp validation, TTL,
+ * the entry cap and copy isolation between requests.
+ */
+class PatientEverythingCacheTest {
+
+    private final UUID patientId = UUID.randomUUID();
+    private final UUID hospitalId = UUID.randomUUID();
+    private final PatientEverythingParams params = PatientEverythingParams.of(null, null, null, null);
+
+    private MutableClock clock;
+    private PatientEverythingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        cache = new PatientEverythingCache(Duration.ofSeconds(30), 2, clock);
+    }
+
+    @Test
+    @DisplayName("a Bundle is served while its compartment stamp still matches")
+    void hitWhenStampMatches() {
+        cache.put(patientId, hospitalId, params, "s1", bundleWithEntries(2));
+
+        Bundle hit = cache.get(patientId, hospitalId, params, "s1");
+
+        assertThat(hit).isNotNull();
+        assertThat(hit.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a changed stamp (new or edited row) misses and drops the stale entry")
+    void missWhenStampChanged() {
+        cache.put(patientId, hospitalId, params, "s1", bundleWithEntries(2));
+
+        assertThat(cache.get(patientId, hospitalId, params, "s2")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("entries expire after the TTL even when the stamp is unchanged")
+    void missAfterTtl() {
+        cache.put(patientId, hospitalId, params, "s1", bundleWithEntries(1));
+        clock.advance(Duration.ofSeconds(31));
+
+        assertThat(cache.get(patientId, hospitalId, params, "s1")).isNull();
+    }
+
+    @Test
+    @DisplayName("different params and a different hospital are separate entries")
+    void keyIncludesParamsAndHospital() {
+        cache.put(patientId, hospitalId, params, "s1", bundleWithEntries(1));
+
+        assertThat(cache.get(patientId, UUID.randomUUID(), params, "s1")).isNull();
+        assertThat(cache.get(patientId, hospitalId,
+            PatientEverythingParams.of(null, null, 10, null), "s1")).isNull();
+    }
+
+    @Test
+    @DisplayName("served Bundles are copies: mutating one never reaches the cache")
+    void servedBundlesAreIsolated() {
+        Bundle original = bundleWithEntries(1);
+        cache.put(patientId, hospitalId, params, "s1", original);
+        original.addEntry().setResource(new Patient());
+
+        Bundle first = cache.get(patientId, hospitalId, params, "s1");
+        first.addEntry().setResource(new Patient());
+        Bundle second = cache.get(patientId, hospitalId, params, "s1");
+
+        assertThat(second.getEntry()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("the cache never grows past its entry cap")
+    void capIsEnforced() {
+        for (int i = 0; i < 5; i++) {
+            cache.put(UUID.randomUUID(), hospitalId, params, "s", bundleWithEntries(1));
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a zero TTL disables the cache")
+    void zeroTtlDisables() {
+        PatientEverythingCache disabled = new PatientEverythingCache(Duration.ZERO, 100, clock);
+        disabled.put(patientId, hospitalId, params, "s1", bundleWithEntries(1));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.get(patientId, hospitalId, params, "s1")).isNull();
+    }
+
+    private static Bundle bundleWithEntries(int count) {
+        Bundle bundle = new Bundle();
+        bundle.setType(Bundle.BundleType.SEARCHSET);
+        for (int i = 0; i < count; i++) {
+            bundle.addEntry().setResource(new Patient());
+        }
+        bundle.setTotal(count);
+        return bundle;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
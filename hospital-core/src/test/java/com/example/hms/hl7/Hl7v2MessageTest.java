@@ -0,0 +1,95 @@
+package com.example.hms.hl7;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Hl7v2MessageTest {
+
+    private static final String ORU =
+        "MSH|^~\\&|MINDRAY^BS-240^L|LAB1|HMS|HOSP1|20260428073000||ORU^R01|MSG-42|P|2.5.1\r"
+            + "PID|1||MRN-1^^^HMS^MR~ALT-9^^^NHIS^PI||DIALLO^AMINATA\r"
+            + "OBR|1|ACC-1||GLU^Glucose\r"
+            + "OBX|1|NM|GLU^Glucose||5.6|mmol/L|||N\r"
+            + "OBX|2|NM|CHOL^Cholesterol||4.1|mmol/L\r";
+
+    @Test
+    @DisplayName("MSH numbering: MSH-1 is the separator, MSH-2 the encoding characters")
+    void mshNumbering() {
+        Hl7v2Message message = Hl7v2Message.parse(ORU);
+
+        assertThat(message.field(0, 1)).isEqualTo("|");
+        assertThat(message.field(0, 2)).isEqualTo("^~\\&");
+        assertThat(message.field(0, 3)).isEqualTo("MINDRAY^BS-240^L");
+        assertThat(message.component(0, 3, 2)).isEqualTo("BS-240");
+        assertThat(message.field(0, 9)).isEqualTo("ORU^R01");
+        assertThat(message.field(0, 10)).isEqualTo("MSG-42");
+        assertThat(message.fieldCount(0)).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("indexes every segment, including repeated OBX")
+    void indexesAllSegments() {
+        Hl7v2Message message = Hl7v2Message.parse(ORU);
+
+        assertThat(message.segmentCount()).isEqualTo(5);
+        int first = message.findSegment("OBX");
+        int second = message.findSegment("OBX", first + 1);
+        assertThat(message.field(first, 5)).isEqualTo("5.6");
+        assertThat(message.component(second, 3, 1)).isEqualTo("CHOL");
+        assertThat(message.findSegment("OBX", second + 1)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("components are read per repetition")
+    void repetitionsAndComponents() {
+        Hl7v2Message message = Hl7v2Message.parse(ORU);
+        int pid = message.findSegment("PID");
+
+        assertThat(message.component(pid, 3, 1)).isEqualTo("MRN-1");
+        assertThat(message.component(pid, 3, 4)).isEqualTo("HMS");
+        assertThat(message.component(pid, 3, 1, 1)).isEqualTo("ALT-9");
+        assertThat(message.component(pid, 3, 1, 4)).isEqualTo("NHIS");
+        assertThat(message.component(pid, 3, 2, 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("honours non-default MSH-1 / MSH-2 delimiters")
+    void customDelimiters() {
+        String body = "MSH#@*\\$#APP#FAC#HMS#H1#20260428##ADT@A01#C-1#P#2.5\r"
+            + "PID#1##MRN-7@@@AUTH*MRN-8#|not a separator\r";
+
+        Hl7v2Message message = Hl7v2Message.parse(body);
+        int pid = message.findSegment("PID");
+
+        assertThat(message.fieldSeparator()).isEqualTo('#');
+        assertThat(message.componentSeparator()).isEqualTo('@');
+        assertThat(message.repetitionSeparator()).isEqualTo('*');
+        assertThat(message.field(0, 9)).isEqualTo("ADT@A01");
+        assertThat(message.component(pid, 3, 4)).isEqualTo("AUTH");
+        assertThat(message.component(pid, 3, 1, 1)).isEqualTo("MRN-8");
+        assertThat(message.field(pid, 4)).isEqualTo("|not a separator");
+    }
+
+    @Test
+    @DisplayName("LF / CRLF terminators and blank lines are tolerated; absent values read empty")
+    void lenientTerminatorsAndAbsentFields() {
+        Hl7v2Message message = Hl7v2Message.parse("MSH|^~\\&|A|B\r\n\r\nPID|1||X|\n");
+
+        assertThat(message.segmentCount()).isEqualTo(2);
+        assertThat(message.field(1, 3)).isEqualTo("X");
+        assertThat(message.field(1, 4)).isEmpty();
+        assertThat(message.field(1, 30)).isEmpty();
+        assertThat(message.component(1, 30, 2)).isEmpty();
+        assertThat(message.field(-1, 3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a bare MSH with no field separator is rejected")
+    void rejectsTruncatedMsh() {
+        assertThatThrownBy(() -> Hl7v2Message.parse("MSH\rPID|1"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
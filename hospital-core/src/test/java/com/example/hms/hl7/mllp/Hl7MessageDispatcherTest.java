@@ -1,5 +1,8 @@
 package com.example.hms.hl7.mllp;
 
+import com.example.hms.async.OruResultEnvelope;
+import com.example.hms.async.OruResultQueue;
+import com.example.hms.async.OruResultQueueException;
 import com.example.hms.enums.integration.IntegrationMessageDirection;
 import com.example.hms.enums.integration.IntegrationMessageStatus;
 import com.example.hms.model.Hospital;
@@ -12,6 +15,7 @@ import com.example.hms.utility.Hl7v2MessageBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -24,6 +28,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
@@ -304,4 +310,46 @@ class Hl7MessageDispatcherTest {
         // ingestions in the DLQ surface.
         verifyNoInteractions(messageRecorder);
     }
+
+    @Test
+    void asyncModeQueuesOruAndEmitsCommitAckWithoutSettling() {
+        allowSender();
+        OruResultQueue queue = mock(OruResultQueue.class);
+        Hl7MessageDispatcher async = new Hl7MessageDispatcher(
+            new Hl7v2MessageBuilder(), allowlist, inboundLab, inboundAdt, messageRecorder, queue);
+
+        String oru = "MSH|^~\\&|MINDRAY|LAB1|HMS|HOSP1|20260428073000||ORU^R01|MSG-42|P|2.5.1\r"
+                   + "PID|1||abc-uuid\r"
+                   + "OBR|1|ACC-1||GLU^Glucose|||20260428073000\r"
+                   + "OBX|1|NM|GLU^Glucose||5.6|mmol/L|||N\r";
+
+        String ack = async.dispatch(oru, "10.0.0.42:54321");
+
+        assertThat(ack).contains("MSA|CA|MSG-42");
+        ArgumentCaptor<OruResultEnvelope> captor = ArgumentCaptor.forClass(OruResultEnvelope.class);
+        verify(queue).enqueue(captor.capture());
+        assertThat(captor.getValue().hospitalId()).isEqualTo(hospital.getId());
+        assertThat(captor.getValue().senderKey()).isEqualTo("MINDRAY/LAB1");
+        assertThat(captor.getValue().messageControlId()).isEqualTo("MSG-42");
+        assertThat(captor.getValue().rawMessage()).isEqualTo(oru);
+        verifyNoInteractions(inboundLab);
+    }
+
+    @Test
+    void asyncModeEmitsCeWhenQueueRefusesFrame() {
+        allowSender();
+        OruResultQueue queue = mock(OruResultQueue.class);
+        doThrow(new OruResultQueueException("broker down")).when(queue).enqueue(any());
+        Hl7MessageDispatcher async = new Hl7MessageDispatcher(
+            new Hl7v2MessageBuilder(), allowlist, inboundLab, inboundAdt, messageRecorder, queue);
+
+        String oru = "MSH|^~\\&|MINDRAY|LAB1|HMS|HOSP1|20260428073000||ORU^R01|MSG-43|P|2.5.1\r"
+                   + "OBR|1|ACC-1||GLU^Glucose|||20260428073000\r"
+                   + "OBX|1|NM|GLU^Glucose||5.6|mmol/L|||N\r";
+
+        assertThat(async.dispatch(oru, "10.0.0.42:54321"))
+            .contains("MSA|CE|MSG-43")
+            .contains("Result queue unavailable, retry");
+        verifyNoInteractions(inboundLab);
+    }
 }
@@ -0,0 +1,93 @@
+package com.example.hms.hl7.mllp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MllpFrameDecoderTest {
+
+    private static final String MSG_1 = "MSH|^~\\&|S|F|R|RF|20260428||ORU^R01|1|P|2.5\rPID|1||X\r";
+    private static final String MSG_2 = "MSH|^~\\&|S|F|R|RF|20260428||ORU^R01|2|P|2.5\rPID|1||Y\r";
+
+    private static List<String> drain(MllpFrameDecoder decoder, ByteBuffer buffer) {
+        List<String> frames = new ArrayList<>();
+        while (decoder.decode(buffer)) {
+            frames.add(decoder.frameAsString(StandardCharsets.UTF_8));
+        }
+        return frames;
+    }
+
+    @Test
+    @DisplayName("pipelined frames in one read decode in order, with junk skipped")
+    void decodesPipelinedFrames() {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        wire.writeBytes("idle".getBytes(StandardCharsets.US_ASCII));
+        wire.writeBytes(MllpFrameCodec.encodeFrame(MSG_1, StandardCharsets.UTF_8));
+        wire.writeBytes(MllpFrameCodec.encodeFrame(MSG_2, StandardCharsets.UTF_8));
+
+        MllpFrameDecoder decoder = new MllpFrameDecoder(4096);
+        ByteBuffer buffer = ByteBuffer.wrap(wire.toByteArray());
+
+        assertThat(drain(decoder, buffer)).containsExactly(MSG_1, MSG_2);
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(decoder.isMidFrame()).isFalse();
+    }
+
+    @Test
+    @DisplayName("a frame split across reads (including between <FS> and <CR>) is reassembled")
+    void reassemblesSplitFrame() {
+        byte[] wire = MllpFrameCodec.encodeFrame(MSG_1, StandardCharsets.UTF_8);
+        MllpFrameDecoder decoder = new MllpFrameDecoder(4096);
+
+        int cut1 = 10;
+        int cut2 = wire.length - 1;   // <FS> delivered, <CR> still in flight
+        assertThat(decoder.decode(ByteBuffer.wrap(wire, 0, cut1))).isFalse();
+        assertThat(decoder.decode(ByteBuffer.wrap(wire, cut1, cut2 - cut1))).isFalse();
+        assertThat(decoder.isMidFrame()).isTrue();
+        assertThat(decoder.decode(ByteBuffer.wrap(wire, cut2, 1))).isTrue();
+        assertThat(decoder.frameAsString(StandardCharsets.UTF_8)).isEqualTo(MSG_1);
+    }
+
+    @Test
+    @DisplayName("byte-at-a-time delivery matches the stream codec")
+    void decodesOneByteAtATime() {
+        byte[] wire = MllpFrameCodec.encodeFrame(MSG_2, StandardCharsets.UTF_8);
+        MllpFrameDecoder decoder = new MllpFrameDecoder(4096);
+        List<String> frames = new ArrayList<>();
+        for (int i = 0; i < wire.length; i++) {
+            frames.addAll(drain(decoder, ByteBuffer.wrap(wire, i, 1)));
+        }
+        assertThat(frames).containsExactly(MSG_2);
+    }
+
+    @Test
+    @DisplayName("body over the limit is rejected")
+    void rejectsOversizedBody() {
+        MllpFrameDecoder decoder = new MllpFrameDecoder(3);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{MllpFrameCodec.START_BLOCK, 'A', 'B', 'C', 'D'});
+
+        assertThatThrownBy(() -> decoder.decode(buffer))
+            .isInstanceOf(MllpProtocolException.class)
+            .hasMessageContaining("exceeds limit");
+    }
+
+    @Test
+    @DisplayName("<FS> not followed by <CR> is a protocol error")
+    void rejectsMissingCarriageReturn() {
+        MllpFrameDecoder decoder = new MllpFrameDecoder(4096);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{
+            MllpFrameCodec.START_BLOCK, 'M', MllpFrameCodec.END_BLOCK, 'X'});
+
+        assertThatThrownBy(() -> decoder.decode(buffer))
+            .isInstanceOf(MllpProtocolException.class)
+            .hasMessageContaining("Expected <CR>");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.hms.hl7.mllp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Connection reuse and stale-socket handling of the pooled outbound sender
+ * against a minimal in-test MLLP receiver that counts accepted connections.
+ */
+class MllpOutboundSenderPoolTest {
+
+    private ServerSocket serverSocket;
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final List<Socket> open = new CopyOnWriteArrayList<>();
+    private MllpOutboundSender sender;
+
+    @BeforeEach
+    void startReceiver() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    accepted.incrementAndGet();
+                    open.add(socket);
+                    Thread.ofVirtual().start(() -> ackLoop(socket));
+                } catch (IOException ex) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void stopReceiver() throws IOException {
+        if (sender != null) sender.close();
+        serverSocket.close();
+        for (Socket socket : open) socket.close();
+    }
+
+    private static void ackLoop(Socket socket) {
+        try (socket) {
+            while (true) {
+                byte[] frame = MllpFrameCodec.readFrame(socket.getInputStream(), 1 << 20);
+                if (frame == null) return;
+                String controlId = new String(frame, StandardCharsets.UTF_8).split("\\|")[9];
+                MllpFrameCodec.writeFrame(socket.getOutputStream(),
+                    "MSH|^~\\&|LAB|L|HMS|H|20260428||ACK|A1|P|2.5\rMSA|AA|" + controlId + "\r",
+                    StandardCharsets.UTF_8);
+            }
+        } catch (IOException ignored) {
+            // Peer went away.
+        }
+    }
+
+    private MllpOutboundSender sender(boolean pooled) {
+        MllpOutboundProperties properties = new MllpOutboundProperties();
+        properties.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        properties.setPort(serverSocket.getLocalPort());
+        properties.setReadTimeoutMs(5_000);
+        properties.setPooled(pooled);
+        sender = new MllpOutboundSender(properties);
+        return sender;
+    }
+
+    private static String oml(String controlId) {
+        return "MSH|^~\\&|HMS|HOSPITAL|LAB_ANALYZER|LAB|20260428||OML^O21|" + controlId + "|P|2.5.1\rPID|1||X\r";
+    }
+
+    @Test
+    @DisplayName("consecutive messages to one destination share a connection")
+    void reusesConnection() throws Exception {
+        MllpOutboundSender pooled = sender(true);
+
+        assertThat(pooled.send(oml("M-1"))).contains("MSA|AA|M-1");
+        assertThat(pooled.send(oml("M-2"))).contains("MSA|AA|M-2");
+        assertThat(pooled.send(oml("M-3"))).contains("MSA|AA|M-3");
+
+        assertThat(accepted.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a connection the receiver dropped while idle is detected and replaced")
+    void replacesDroppedConnection() throws Exception {
+        MllpOutboundSender pooled = sender(true);
+        pooled.send(oml("M-1"));
+
+        // Analyzer-side idle cut-off: our socket is now half-open.
+        for (Socket socket : open) socket.close();
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        assertThat(pooled.send(oml("M-2"))).contains("MSA|AA|M-2");
+        assertThat(accepted.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("the retry path connects anew and evicts the destination's idle sockets")
+    void retryOpensFreshAndEvictsIdle() throws Exception {
+        MllpConnectionPool pool = new MllpConnectionPool(1_000, 5_000, 4, 60_000);
+        MllpConnectionPool.Destination destination = new MllpConnectionPool.Destination(
+            InetAddress.getLoopbackAddress().getHostAddress(), serverSocket.getLocalPort());
+        try {
+            MllpConnectionPool.Connection first = pool.borrow(destination);
+            MllpConnectionPool.Connection second = pool.borrow(destination);
+            pool.release(first);
+            pool.release(second);
+
+            MllpConnectionPool.Connection fresh = pool.open(destination);
+
+            assertThat(fresh.reused()).isFalse();
+            assertThat(pool.idleCount(destination)).isEqualTo(2);
+            pool.evict(destination);
+            assertThat(pool.idleCount(destination)).isZero();
+            pool.invalidate(fresh);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @DisplayName("pooling off connects per message, as before")
+    void unpooledConnectsPerMessage() throws Exception {
+        MllpOutboundSender unpooled = sender(false);
+
+        unpooled.send(oml("M-1"));
+        unpooled.send(oml("M-2"));
+
+        assertThat(accepted.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.hms.hl7.mllp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Socket-level test of the {@code VIRTUAL_THREADS} transport without a
+ * Spring context: a mocked dispatcher echoes the control id so pipelined
+ * frames can be matched to their ACKs.
+ */
+class MllpTcpServerVirtualThreadTest {
+
+    private MllpTcpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) server.stop();
+    }
+
+    private MllpTcpServer start(int maxConnections, SimpleMeterRegistry registry) throws Exception {
+        MllpProperties properties = new MllpProperties();
+        properties.setPort(0);
+        properties.setBindAddress("127.0.0.1");
+        properties.setTransport(MllpProperties.Transport.VIRTUAL_THREADS);
+        properties.setMaxConcurrentConnections(maxConnections);
+        properties.setReadTimeoutMs(5_000);
+        Hl7MessageDispatcher dispatcher = mock(Hl7MessageDispatcher.class);
+        when(dispatcher.dispatch(anyString(), anyString())).thenAnswer(inv -> {
+            String body = inv.getArgument(0);
+            String controlId = body.split("\\|")[9];
+            return "MSH|^~\\&|HMS|H|S|F|20260428||ACK|" + controlId + "|P|2.5\rMSA|AA|" + controlId + "\r";
+        });
+        server = new MllpTcpServer(properties, dispatcher, registry);
+        server.start();
+        return server;
+    }
+
+    private static String oru(String controlId) {
+        return "MSH|^~\\&|S|F|HMS|H|20260428||ORU^R01|" + controlId + "|P|2.5\rPID|1||X\r";
+    }
+
+    @Test
+    @DisplayName("pipelined frames in one TCP write each get their own ACK, in order")
+    void acksPipelinedFrames() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        start(10, registry);
+
+        try (Socket client = new Socket()) {
+            client.connect(new InetSocketAddress("127.0.0.1", server.getBoundPort()), 5_000);
+            client.setSoTimeout(5_000);
+            ByteArrayOutputStream wire = new ByteArrayOutputStream();
+            wire.writeBytes(MllpFrameCodec.encodeFrame(oru("A1"), StandardCharsets.UTF_8));
+            wire.writeBytes(MllpFrameCodec.encodeFrame(oru("A2"), StandardCharsets.UTF_8));
+            OutputStream out = client.getOutputStream();
+            out.write(wire.toByteArray());
+            out.flush();
+
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            assertThat(new String(MllpFrameCodec.readFrame(in, 4096), StandardCharsets.UTF_8)).contains("MSA|AA|A1");
+            assertThat(new String(MllpFrameCodec.readFrame(in, 4096), StandardCharsets.UTF_8)).contains("MSA|AA|A2");
+        }
+
+        assertThat(registry.get(MllpMetrics.METRIC_FRAMES).tag(MllpMetrics.TAG_OUTCOME, "ok").counter().count())
+            .isEqualTo(2.0);
+        assertThat(registry.get(MllpMetrics.METRIC_ACK_LATENCY).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("connections over the cap are closed on accept and counted as rejected")
+    void rejectsOverLimitConnections() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        start(1, registry);
+
+        try (Socket first = new Socket(); Socket second = new Socket()) {
+            first.connect(new InetSocketAddress("127.0.0.1", server.getBoundPort()), 5_000);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (server.getActiveConnections() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            second.connect(new InetSocketAddress("127.0.0.1", server.getBoundPort()), 5_000);
+            second.setSoTimeout(5_000);
+
+            assertThat(second.getInputStream().read()).isEqualTo(-1);
+        }
+        assertThat(registry.get(MllpMetrics.METRIC_CONNECTIONS)
+            .tag(MllpMetrics.TAG_OUTCOME, "rejected").counter().count()).isEqualTo(1.0);
+    }
+}
@@ -72,7 +72,7 @@ class DicomProxyServiceBridgeTest {
 
         assertThat(result).containsExactly("INSTANCE-A", "INSTANCE-B");
         verify(bridge).qidoListInstances("STUDY-1");
-        verify(auditService).logEvent(any());
+        verify(auditService).submitEvent(any());
     }
 
     @Test
@@ -82,7 +82,7 @@ class DicomProxyServiceBridgeTest {
         when(bridge.qidoListInstances(any())).thenReturn(List.of());
 
         assertThat(service.listInstancesForStudy("STUDY-2")).isEmpty();
-        verify(auditService).logEvent(any());
+        verify(auditService).submitEvent(any());
     }
 
     @Test
@@ -91,7 +91,7 @@ class DicomProxyServiceBridgeTest {
         // properties.enabled left false
         assertThat(service.listInstancesForStudy("STUDY-3")).isEmpty();
         verify(bridge, never()).qidoListInstances(any());
-        verify(auditService, never()).logEvent(any());
+        verify(auditService, never()).submitEvent(any());
     }
 
     @Test
@@ -104,7 +104,7 @@ class DicomProxyServiceBridgeTest {
 
         assertThat(service.listInstancesForStudy("STUDY-OTHER")).isEmpty();
         verify(bridge, never()).qidoListInstances(any());
-        verify(auditService, never()).logEvent(any());
+        verify(auditService, never()).submitEvent(any());
     }
 
     @Test
@@ -118,7 +118,7 @@ class DicomProxyServiceBridgeTest {
 
         assertThat(result).isSameAs(payload);
         verify(bridge).wadoFetchInstance("STUDY-4", "INSTANCE-X");
-        verify(auditService).logEvent(any());
+        verify(auditService).submitEvent(any());
     }
 
     @Test
@@ -128,7 +128,7 @@ class DicomProxyServiceBridgeTest {
         when(bridge.wadoFetchInstance(any(), any())).thenReturn(null);
 
         assertThat(service.fetchInstanceBytes("STUDY-5", "INSTANCE-Y")).isEmpty();
-        verify(auditService).logEvent(any());
+        verify(auditService).submitEvent(any());
     }
 
     @Test
@@ -136,7 +136,7 @@ class DicomProxyServiceBridgeTest {
     void wadoFlagOffSkipsBridge() {
         assertThat(service.fetchInstanceBytes("STUDY-6", "INSTANCE-Z")).isEmpty();
         verify(bridge, never()).wadoFetchInstance(any(), any());
-        verify(auditService, never()).logEvent(any());
+        verify(auditService, never()).submitEvent(any());
     }
 
     @Test
@@ -159,6 +159,6 @@ class DicomProxyServiceBridgeTest {
 
         assertThat(service.fetchInstanceBytes("STUDY-OTHER", "INSTANCE-Z")).isEmpty();
         verify(bridge, never()).wadoFetchInstance(any(), any());
-        verify(auditService, never()).logEvent(any());
+        verify(auditService, never()).submitEvent(any());
     }
 }
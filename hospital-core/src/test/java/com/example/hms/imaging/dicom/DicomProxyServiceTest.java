@@ -95,6 +95,6 @@ class DicomProxyServiceTest {
         // Audit emission happens even when the upstream is a no-op so
         // the trail accumulates real-world usage data; mock verifies
         // the method was invoked.
-        org.mockito.Mockito.verify(auditService).logEvent(org.mockito.ArgumentMatchers.any());
+        org.mockito.Mockito.verify(auditService).submitEvent(org.mockito.ArgumentMatchers.any());
     }
 }
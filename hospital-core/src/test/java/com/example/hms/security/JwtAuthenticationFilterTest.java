@@ -1,5 +1,8 @@
 package com.example.hms.security;
 
+import com.example.hms.security.context.HospitalContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -9,9 +12,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 import static jakarta.servlet.http.HttpServletResponse.SC_UNAUTHORIZED;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,6 +33,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @org.junit.jupiter.api.extension.ExtendWith(MockitoExtension.class)
 class JwtAuthenticationFilterTest {
@@ -103,16 +115,15 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(GHOST_TOKEN)).thenReturn(true);
-        when(tokenProvider.getAuthenticationFromJwt(GHOST_TOKEN))
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN))
+            .thenReturn(Optional.of(claims("dev_midwife_0007", null)));
+        when(tokenProvider.getAuthentication(any(Claims.class), eq(GHOST_TOKEN)))
             .thenThrow(new UsernameNotFoundException("missing"));
-        when(tokenProvider.getUsernameFromJWT(GHOST_TOKEN)).thenReturn("dev_midwife_0007");
 
         filter.doFilter(request, response, chain);
 
-        verify(tokenProvider).getAuthenticationFromJwt(GHOST_TOKEN);
-        verify(tokenProvider).getUsernameFromJWT(GHOST_TOKEN);
-        verify(tokenProvider, never()).extractHospitalContext(anyString(), any());
+        verify(tokenProvider).getAuthentication(any(Claims.class), eq(GHOST_TOKEN));
+        verify(tokenProvider, never()).extractHospitalContext(any(Claims.class), any());
         verify(chain, never()).doFilter(any(), any());
         assertThat(response.getStatus()).isEqualTo(SC_UNAUTHORIZED);
     }
@@ -125,10 +136,10 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse firstResponse = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(GHOST_TOKEN)).thenReturn(true);
-        when(tokenProvider.getAuthenticationFromJwt(GHOST_TOKEN))
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN))
+            .thenReturn(Optional.of(claims("dev_midwife_0007", null)));
+        when(tokenProvider.getAuthentication(any(Claims.class), eq(GHOST_TOKEN)))
             .thenThrow(new UsernameNotFoundException("missing"));
-        when(tokenProvider.getUsernameFromJWT(GHOST_TOKEN)).thenReturn("dev_midwife_0007");
 
         filter.doFilter(firstRequest, firstResponse, chain);
 
@@ -142,8 +153,8 @@ class JwtAuthenticationFilterTest {
 
         filter.doFilter(secondRequest, secondResponse, chain);
 
-        verify(tokenProvider, times(1)).getAuthenticationFromJwt(GHOST_TOKEN);
-        verify(tokenProvider, times(2)).getUsernameFromJWT(GHOST_TOKEN);
+        verify(tokenProvider, times(1)).getAuthentication(any(Claims.class), eq(GHOST_TOKEN));
+        verify(tokenProvider, times(2)).parseVerifiedClaims(GHOST_TOKEN);
         verify(chain, never()).doFilter(any(), any());
         assertThat(secondResponse.getStatus()).isEqualTo(SC_UNAUTHORIZED);
     }
@@ -156,17 +167,69 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(GHOST_TOKEN)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(GHOST_TOKEN)).thenReturn("user1");
-        when(tokenProvider.getJtiFromToken(GHOST_TOKEN)).thenReturn("blacklisted-jti");
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN))
+            .thenReturn(Optional.of(claims("user1", "blacklisted-jti")));
         when(tokenBlacklistService.isBlacklisted("blacklisted-jti")).thenReturn(true);
 
         filter.doFilter(request, response, chain);
 
         verify(chain, never()).doFilter(any(), any());
+        // A cached verification must not outlive the revocation.
+        verify(tokenProvider).evictVerifiedClaims(GHOST_TOKEN);
+        assertThat(response.getStatus()).isEqualTo(SC_UNAUTHORIZED);
+    }
+
+    @Test
+    void shouldRejectTokenIssuedBeforeGlobalRevocation() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI(API_PATIENTS);
+        request.addHeader(AUTH_HEADER, BEARER_PREFIX + GHOST_TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        Instant revokedAt = Instant.parse("2026-05-01T12:00:00Z");
+        Claims issuedBefore = Jwts.claims().subject("user1")
+            .issuedAt(Date.from(revokedAt.minusSeconds(60))).build();
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN)).thenReturn(Optional.of(issuedBefore));
+        when(globalSessionRevocationService.getGlobalMinTokenIat()).thenReturn(revokedAt);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain, never()).doFilter(any(), any());
+        verify(tokenProvider).evictVerifiedClaims(GHOST_TOKEN);
+        verify(tokenProvider, never()).getAuthentication(any(Claims.class), anyString());
         assertThat(response.getStatus()).isEqualTo(SC_UNAUTHORIZED);
     }
 
+    @Test
+    void shouldVerifyTokenOnceAndReuseClaimsForEveryGate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI(API_PATIENTS);
+        request.addHeader(AUTH_HEADER, BEARER_PREFIX + GHOST_TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        Claims claims = claims("nurse.one", "jti-1");
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "nurse.one", GHOST_TOKEN, List.of(new SimpleGrantedAuthority("ROLE_NURSE")));
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN)).thenReturn(Optional.of(claims));
+        when(tokenProvider.getAuthentication(claims, GHOST_TOKEN)).thenReturn(authentication);
+        when(tokenProvider.extractHospitalContext(claims, authentication)).thenReturn(HospitalContext.empty());
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(any(), any());
+        verify(tokenProvider, times(1)).parseVerifiedClaims(GHOST_TOKEN);
+        verify(tokenProvider).extractImpersonationContext(claims);
+        // None of the token-string accessors (each a full signature check) is used.
+        verify(tokenProvider, never()).validateToken(anyString());
+        verify(tokenProvider, never()).getJtiFromToken(anyString());
+        verify(tokenProvider, never()).getIssuedAt(anyString());
+        verify(tokenProvider, never()).getUsernameFromJWT(anyString());
+        verify(tokenProvider, never()).getAuthenticationFromJwt(anyString());
+        SecurityContextHolder.clearContext();
+    }
+
     @AfterEach
     void clearSecurityContext() {
         // The DisabledException branch must clear the context — assert the
@@ -184,9 +247,9 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(GHOST_TOKEN)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(GHOST_TOKEN)).thenReturn("unverified.user");
-        when(tokenProvider.getAuthenticationFromJwt(GHOST_TOKEN))
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN))
+            .thenReturn(Optional.of(claims("unverified.user", null)));
+        when(tokenProvider.getAuthentication(any(Claims.class), eq(GHOST_TOKEN)))
             .thenThrow(new DisabledException("User account 'unverified.user' is disabled or unverified."));
 
         filter.doFilter(request, response, chain);
@@ -211,9 +274,9 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse firstResponse = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(GHOST_TOKEN)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(GHOST_TOKEN)).thenReturn("unverified.user");
-        when(tokenProvider.getAuthenticationFromJwt(GHOST_TOKEN))
+        when(tokenProvider.parseVerifiedClaims(GHOST_TOKEN))
+            .thenReturn(Optional.of(claims("unverified.user", null)));
+        when(tokenProvider.getAuthentication(any(Claims.class), eq(GHOST_TOKEN)))
             .thenThrow(new DisabledException("disabled"));
 
         filter.doFilter(first, firstResponse, chain);
@@ -225,10 +288,14 @@ class JwtAuthenticationFilterTest {
 
         filter.doFilter(second, secondResponse, chain);
 
-        // getAuthenticationFromJwt was re-invoked — the disabled-user path is NOT
+        // getAuthentication was re-invoked — the disabled-user path is NOT
         // hidden behind the missing-principal short-circuit.
-        verify(tokenProvider, times(2)).getAuthenticationFromJwt(GHOST_TOKEN);
+        verify(tokenProvider, times(2)).getAuthentication(any(Claims.class), eq(GHOST_TOKEN));
         verify(chain, never()).doFilter(any(), any());
         assertThat(secondResponse.getStatus()).isEqualTo(SC_UNAUTHORIZED);
     }
+
+    private static Claims claims(String subject, String jti) {
+        return Jwts.claims().subject(subject).id(jti).build();
+    }
 }
@@ -0,0 +1,108 @@
+package com.example.hms.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedClaimsCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-05-01T12:00:00Z");
+
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("claims are served until the token's own exp")
+    void servesUntilExpiry() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(10, clock);
+        Claims claims = claimsExpiringAt(NOW.plusSeconds(60));
+        cache.put("token-a", claims);
+
+        assertThat(cache.get("token-a")).isSameAs(claims);
+        assertThat(cache.get("token-b")).isNull();
+    }
+
+    @Test
+    @DisplayName("an entry whose exp has passed is dropped on read")
+    void expiredEntryIsDropped() {
+        MutableClock mutable = new MutableClock(NOW);
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(10, mutable);
+        cache.put("token-a", claimsExpiringAt(NOW.plusSeconds(60)));
+
+        mutable.now = NOW.plusSeconds(60);
+
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("tokens without exp, or already expired, are never cached")
+    void doesNotCacheUnboundedTokens() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(10, clock);
+        cache.put("no-exp", Jwts.claims().subject("u").build());
+        cache.put("expired", claimsExpiringAt(NOW.minusSeconds(1)));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("evict removes a revoked token immediately")
+    void evictRemovesEntry() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(10, clock);
+        cache.put("token-a", claimsExpiringAt(NOW.plusSeconds(60)));
+
+        cache.evict("token-a");
+
+        assertThat(cache.get("token-a")).isNull();
+    }
+
+    @Test
+    @DisplayName("the cache never grows past max-entries; 0 disables it")
+    void boundedAndDisableable() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(3, clock);
+        for (int i = 0; i < 10; i++) {
+            cache.put("token-" + i, claimsExpiringAt(NOW.plusSeconds(60)));
+        }
+        assertThat(cache.size()).isEqualTo(3);
+
+        VerifiedClaimsCache disabled = new VerifiedClaimsCache(0, clock);
+        disabled.put("token-a", claimsExpiringAt(NOW.plusSeconds(60)));
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.get("token-a")).isNull();
+    }
+
+    private static Claims claimsExpiringAt(Instant exp) {
+        return Jwts.claims().subject("user").expiration(Date.from(exp)).build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.hms.security.authz;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssignmentSnapshotCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final UUID userId = UUID.randomUUID();
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("within a request the snapshot is loaded once and the saved lookups are recorded at completion")
+    void requestLevel_memoisesAndRecordsSaved() {
+        AssignmentSnapshotCache cache = new AssignmentSnapshotCache(0, Duration.ofSeconds(30), registry);
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+
+        for (int i = 0; i < 6; i++) cache.get(userId, loader());
+        request.requestCompleted();
+
+        assertThat(loads).hasValue(1);
+        assertThat(lookups(AssignmentSnapshotCache.OUTCOME_REQUEST)).isEqualTo(5);
+        DistributionSummary saved = registry.find(AssignmentSnapshotCache.METRIC_SAVED_PER_REQUEST).summary();
+        assertThat(saved).isNotNull();
+        assertThat(saved.count()).isEqualTo(1);
+        assertThat(saved.totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("across requests the shared level answers until the user is invalidated")
+    void sharedLevel_servesUntilInvalidated() {
+        AssignmentSnapshotCache cache = new AssignmentSnapshotCache(100, Duration.ofSeconds(30), registry);
+
+        cache.get(userId, loader());
+        cache.get(userId, loader());
+        assertThat(loads).hasValue(1);
+        assertThat(lookups(AssignmentSnapshotCache.OUTCOME_SHARED)).isEqualTo(1);
+
+        cache.invalidate(userId);
+        cache.get(userId, loader());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("an invalidation during the load keeps the loaded snapshot out of the shared level")
+    void sharedLevel_skipsLoadRacingAnInvalidation() {
+        AssignmentSnapshotCache cache = new AssignmentSnapshotCache(100, Duration.ofSeconds(30), registry);
+
+        cache.get(userId, uid -> {
+            cache.invalidate(uid); // an assignment write committed meanwhile
+            return loader().apply(uid);
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("invalidation also drops the snapshot memoised on the current request")
+    void invalidate_dropsRequestLevel() {
+        AssignmentSnapshotCache cache = new AssignmentSnapshotCache(0, Duration.ofSeconds(30), registry);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        cache.get(userId, loader());
+        cache.invalidate(userId);
+        cache.get(userId, loader());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("the shared level stays within its bound")
+    void sharedLevel_bounded() {
+        AssignmentSnapshotCache cache = new AssignmentSnapshotCache(3, Duration.ofSeconds(30), registry);
+
+        for (int i = 0; i < 10; i++) cache.get(UUID.randomUUID(), loader());
+
+        assertThat(cache.size()).isLessThanOrEqualTo(3);
+    }
+
+    private Function<UUID, AssignmentSnapshot> loader() {
+        return uid -> {
+            loads.incrementAndGet();
+            return AssignmentSnapshot.of(uid, List.of());
+        };
+    }
+
+    private double lookups(String outcome) {
+        var counter = registry.find(AssignmentSnapshotCache.METRIC_LOOKUPS).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -12,10 +12,13 @@ import com.example.hms.repository.PatientRepository;
 import com.example.hms.repository.StaffRepository;
 import com.example.hms.repository.UserRepository;
 import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
+import com.example.hms.service.audit.AuditEventSink;
+import com.example.hms.service.audit.PendingAuditEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -49,6 +52,7 @@ class AuditEventLogServiceImplTest {
     @Mock private ObjectMapper objectMapper;
     @Mock private PatientRepository patientRepository;
     @Mock private StaffRepository staffRepository;
+    @Mock private AuditEventSink auditEventSink;
 
     @InjectMocks
     private AuditEventLogServiceImpl auditService;
@@ -104,6 +108,37 @@ class AuditEventLogServiceImplTest {
                 .doesNotThrowAnyException();
     }
 
+    // ─── Asynchronous submission ──────────────────────────────────────
+
+    @Test
+    @DisplayName("submitEvent hands the sink a fully captured event without touching repositories")
+    void submitEvent_capturesOnCallerThread() {
+        UUID userId = UUID.randomUUID();
+        AuditEventRequestDTO request = buildNormalRequest(userId);
+
+        auditService.submitEvent(request);
+
+        ArgumentCaptor<PendingAuditEvent> captor = ArgumentCaptor.forClass(PendingAuditEvent.class);
+        verify(auditEventSink).submit(captor.capture());
+        PendingAuditEvent event = captor.getValue();
+        assertThat(event.id()).isNotNull();
+        assertThat(event.eventTimestamp()).isNotNull();
+        assertThat(event.userId()).isEqualTo(userId);
+        assertThat(event.eventType()).isEqualTo(AuditEventType.ROLE_ASSIGNED);
+        assertThat(event.details()).isEqualTo("Some details");
+        assertThat(event.resourceId()).isEqualTo(request.getResourceId());
+        verifyNoInteractions(userRepository, auditRepository, assignmentRepository, patientRepository);
+    }
+
+    @Test
+    @DisplayName("submitEvent never throws, even when the synchronous fallback write fails")
+    void submitEvent_sinkThrows_doesNotPropagate() {
+        doThrow(new RuntimeException("DB connection lost")).when(auditEventSink).submit(any());
+
+        assertThatCode(() -> auditService.submitEvent(buildSystemBootstrapRequest()))
+                .doesNotThrowAnyException();
+    }
+
     // ─── Null / missing user handling ─────────────────────────────────
 
     @Test
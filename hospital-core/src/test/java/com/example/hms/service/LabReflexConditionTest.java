@@ -0,0 +1,129 @@
+package com.example.hms.service;
+
+import com.example.hms.enums.AbnormalFlag;
+import com.example.hms.model.LabResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LabReflexConditionTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private static LabResult result(String value, AbnormalFlag flag, LocalDateTime at) {
+        LabResult result = LabResult.builder()
+            .resultValue(value)
+            .abnormalFlag(flag)
+            .resultDate(at)
+            .build();
+        result.setId(UUID.randomUUID());
+        return result;
+    }
+
+    private LabReflexCondition.Subject subject(String value, List<LabResult> priors) {
+        return new LabReflexCondition.Subject(result(value, AbnormalFlag.NORMAL, now), () -> priors);
+    }
+
+    @Test
+    void legacySeverityAndThresholdConditionsStillApply() {
+        LabReflexCondition abnormal = LabReflexCondition.compile("{\"severityFlag\":\"abnormal\"}");
+        LabReflexCondition highWbc = LabReflexCondition.compile("{\"thresholdOperator\":\"GT\",\"thresholdValue\":11.0}");
+
+        assertThat(abnormal.matches(new LabReflexCondition.Subject(
+            result("7", AbnormalFlag.ABNORMAL, now), List::of))).isTrue();
+        assertThat(abnormal.matches(new LabReflexCondition.Subject(
+            result("7", null, now), List::of))).isFalse();
+        assertThat(highWbc.matches(subject(" 12.4 ", List.of()))).isTrue();
+        assertThat(highWbc.matches(subject("11.0", List.of()))).isFalse();
+        assertThat(highWbc.matches(subject("positive", List.of()))).isFalse();
+    }
+
+    @Test
+    void rangeInsideAndOutsideAreInclusive() {
+        LabReflexCondition outside = LabReflexCondition.compile(
+            "{\"rangeLow\":3.5,\"rangeHigh\":5.1,\"rangeMode\":\"OUTSIDE\"}");
+        LabReflexCondition inside = LabReflexCondition.compile("{\"rangeLow\":3.5,\"rangeHigh\":5.1}");
+
+        assertThat(outside.matches(subject("3.4", List.of()))).isTrue();
+        assertThat(outside.matches(subject("5.1", List.of()))).isFalse();
+        assertThat(inside.matches(subject("3.5", List.of()))).isTrue();
+        assertThat(inside.matches(subject("5.2", List.of()))).isFalse();
+    }
+
+    @Test
+    void deltaCheckComparesAgainstMostRecentEarlierResultInWindow() {
+        LabReflexCondition hbDrop = LabReflexCondition.compile(
+            "{\"deltaOperator\":\"GTE\",\"deltaValue\":20,\"deltaMode\":\"PERCENT\","
+                + "\"deltaDirection\":\"FALL\",\"deltaWindowHours\":48}");
+        List<LabResult> priors = List.of(
+            result("13.0", null, now.minusHours(6)),
+            result("9.0", null, now.minusHours(30)),
+            result("15.0", null, now.minusHours(72)));
+
+        assertThat(hbDrop.needsPriorResults()).isTrue();
+        assertThat(hbDrop.matches(subject("10.0", priors))).isTrue();   // 13.0 -> 10.0 is a 23% fall
+        assertThat(hbDrop.matches(subject("11.0", priors))).isFalse();  // 15% fall
+        assertThat(hbDrop.matches(subject("16.0", priors))).isFalse();  // a rise
+        // only a result outside the window: no baseline, no fire
+        assertThat(hbDrop.matches(subject("5.0", List.of(result("15.0", null, now.minusHours(72)))))).isFalse();
+    }
+
+    @Test
+    void priorResultsAreLoadedOnceAndOnlyForDeltaClauses() {
+        AtomicInteger loads = new AtomicInteger();
+        LabReflexCondition.Subject subject = new LabReflexCondition.Subject(result("6.5", null, now), () -> {
+            loads.incrementAndGet();
+            return List.of(result("4.0", null, now.minusHours(1)));
+        });
+
+        LabReflexCondition.compile("{\"thresholdOperator\":\"GT\",\"thresholdValue\":6}").matches(subject);
+        assertThat(loads.get()).isZero();
+
+        LabReflexCondition.compile("{\"deltaOperator\":\"GT\",\"deltaValue\":2}").matches(subject);
+        LabReflexCondition.compile("{\"deltaOperator\":\"GT\",\"deltaValue\":1,\"deltaDirection\":\"RISE\"}")
+            .matches(subject);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void matchingSeverityFlagFiresRegardlessOfOtherClauses() {
+        LabReflexCondition criticalOrHigh = LabReflexCondition.compile(
+            "{\"severityFlag\":\"CRITICAL\",\"thresholdOperator\":\"GE\",\"thresholdValue\":6.5}");
+
+        assertThat(criticalOrHigh.matches(new LabReflexCondition.Subject(
+            result("5.0", AbnormalFlag.CRITICAL, now), List::of))).isTrue();
+        assertThat(criticalOrHigh.matches(new LabReflexCondition.Subject(
+            result("6.8", AbnormalFlag.ABNORMAL, now), List::of))).isTrue();
+        assertThat(criticalOrHigh.matches(new LabReflexCondition.Subject(
+            result("5.0", AbnormalFlag.ABNORMAL, now), List::of))).isFalse();
+    }
+
+    @Test
+    void clausesOtherThanSeverityAreCombinedWithAnd() {
+        LabReflexCondition highAndRising = LabReflexCondition.compile(
+            "{\"thresholdOperator\":\"GE\",\"thresholdValue\":6.5,"
+                + "\"deltaOperator\":\"GT\",\"deltaValue\":1,\"deltaDirection\":\"RISE\"}");
+        List<LabResult> priors = List.of(result("5.0", null, now.minusHours(2)));
+
+        assertThat(highAndRising.matches(subject("6.8", priors))).isTrue();
+        assertThat(highAndRising.matches(subject("6.8", List.of()))).isFalse();
+        assertThat(highAndRising.matches(subject("5.9", priors))).isFalse();
+    }
+
+    @Test
+    void uncompilableConditionsNeverFire() {
+        for (String json : List.of("not json", "[]", "{\"threshold\":5}",
+                "{\"thresholdOperator\":\"BETWEEN\",\"thresholdValue\":1}", "{\"severityFlag\":\"HIGH\"}")) {
+            LabReflexCondition condition = LabReflexCondition.compile(json);
+
+            assertThat(condition.isValid()).as(json).isFalse();
+            assertThat(condition.error()).as(json).isNotBlank();
+            assertThat(condition.matches(subject("100", List.of()))).as(json).isFalse();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.hms.service;
+
+import com.example.hms.model.LabOrder;
+import com.example.hms.model.LabReflexRule;
+import com.example.hms.model.LabResult;
+import com.example.hms.model.LabTestDefinition;
+import com.example.hms.model.Patient;
+import com.example.hms.repository.LabReflexRuleRepository;
+import com.example.hms.repository.LabResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LabReflexRuleEngineTest {
+
+    private final LabReflexRuleRepository ruleRepository = mock(LabReflexRuleRepository.class);
+    private final LabResultRepository resultRepository = mock(LabResultRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LabReflexRuleEngine engine =
+        new LabReflexRuleEngine(ruleRepository, resultRepository, 100, Duration.ofMinutes(10), registry);
+
+    private LabTestDefinition trigger;
+    private LabTestDefinition reflex;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        trigger = new LabTestDefinition();
+        trigger.setId(UUID.randomUUID());
+        reflex = new LabTestDefinition();
+        reflex.setId(UUID.randomUUID());
+        patient = Patient.builder().build();
+        patient.setId(UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("a test's rules are loaded and compiled once for many results")
+    void firedRules_compilesOnce() {
+        when(ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId()))
+            .thenReturn(List.of(rule("{\"thresholdOperator\":\"GT\",\"thresholdValue\":11.0}")));
+
+        assertThat(engine.firedRules(result("12.0"))).hasSize(1);
+        assertThat(engine.firedRules(result("9.0"))).isEmpty();
+        assertThat(engine.firedRules(result("14.2")))
+            .extracting(LabReflexRuleEngine.CompiledRule::reflexTestDefinitionId)
+            .containsExactly(reflex.getId());
+
+        verify(ruleRepository, times(1)).findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId());
+        verify(resultRepository, never())
+            .findTop12ByLabOrder_Patient_IdAndLabOrder_LabTestDefinition_IdOrderByResultDateDesc(any(), any());
+        assertThat(registry.find(LabReflexRuleEngine.METRIC_LOOKUPS)
+            .tag("outcome", LabReflexRuleEngine.OUTCOME_HIT).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("delta rules read the patient's previous results once per result")
+    void firedRules_deltaLoadsPriorsOnce() {
+        LabResult current = result("7.0");
+        when(ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId())).thenReturn(List.of(
+            rule("{\"deltaOperator\":\"GTE\",\"deltaValue\":2,\"deltaDirection\":\"FALL\"}"),
+            rule("{\"deltaOperator\":\"GTE\",\"deltaValue\":50,\"deltaMode\":\"PERCENT\"}")));
+        LabResult prior = result("10.0");
+        prior.setResultDate(current.getResultDate().minusHours(12));
+        when(resultRepository.findTop12ByLabOrder_Patient_IdAndLabOrder_LabTestDefinition_IdOrderByResultDateDesc(
+            patient.getId(), trigger.getId())).thenReturn(List.of(current, prior));
+
+        assertThat(engine.firedRules(current)).hasSize(1);
+
+        verify(resultRepository, times(1))
+            .findTop12ByLabOrder_Patient_IdAndLabOrder_LabTestDefinition_IdOrderByResultDateDesc(
+                patient.getId(), trigger.getId());
+    }
+
+    @Test
+    @DisplayName("a rule with an invalid condition is dropped at compile time")
+    void rulesFor_skipsInvalidConditions() {
+        when(ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId()))
+            .thenReturn(List.of(rule("{\"value\":\">\"}"), rule("{\"severityFlag\":\"CRITICAL\"}")));
+
+        assertThat(engine.rulesFor(trigger.getId())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("a rule edit recompiles on next use")
+    void markStale_recompilesOnNextUse() {
+        when(ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId()))
+            .thenReturn(List.of(rule("{\"severityFlag\":\"ABNORMAL\"}")))
+            .thenReturn(List.of());
+        engine.rulesFor(trigger.getId());
+
+        engine.markStale();
+
+        assertThat(engine.rulesFor(trigger.getId())).isEmpty();
+        verify(ruleRepository, times(2)).findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId());
+    }
+
+    @Test
+    @DisplayName("rules loaded while a rule was being edited are served once but not kept")
+    void rulesFor_racingEditNotKept() {
+        when(ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId())).thenAnswer(inv -> {
+            engine.markStale(); // committed on another thread meanwhile
+            return List.of(rule("{\"severityFlag\":\"ABNORMAL\"}"));
+        });
+
+        assertThat(engine.rulesFor(trigger.getId())).hasSize(1);
+        assertThat(engine.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("max-entries=0 disables caching")
+    void disabledCache_loadsEveryTime() {
+        LabReflexRuleEngine uncached =
+            new LabReflexRuleEngine(ruleRepository, resultRepository, 0, Duration.ofMinutes(10), null);
+        when(ruleRepository.findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId())).thenReturn(List.of());
+
+        uncached.rulesFor(trigger.getId());
+        uncached.rulesFor(trigger.getId());
+
+        verify(ruleRepository, times(2)).findByTriggerTestDefinition_IdAndActiveTrue(trigger.getId());
+    }
+
+    private LabReflexRule rule(String condition) {
+        LabReflexRule rule = LabReflexRule.builder()
+            .triggerTestDefinition(trigger)
+            .reflexTestDefinition(reflex)
+            .condition(condition)
+            .build();
+        rule.setId(UUID.randomUUID());
+        return rule;
+    }
+
+    private LabResult result(String value) {
+        LabOrder order = LabOrder.builder()
+            .patient(patient)
+            .labTestDefinition(trigger)
+            .build();
+        LabResult result = LabResult.builder()
+            .labOrder(order)
+            .resultValue(value)
+            .resultDate(LocalDateTime.now())
+            .build();
+        result.setId(UUID.randomUUID());
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.hms.service;
+
+import com.example.hms.payload.dto.nurse.NurseDashboardSummaryDTO;
+import com.example.hms.service.NurseBoardCache.NurseBoardChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class NurseBoardCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SimpMessagingTemplate messaging = mock(SimpMessagingTemplate.class);
+    private final NurseBoardCache cache = new NurseBoardCache(100, Duration.ofSeconds(15), messaging, registry);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final UUID nurseId = UUID.randomUUID();
+    private final UUID hospitalId = UUID.randomUUID();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("polling the summary within the TTL is served from memory")
+    void summary_loadsOnce() {
+        cache.summary(nurseId, hospitalId, this::load);
+        cache.summary(nurseId, hospitalId, this::load);
+        cache.summary(nurseId, hospitalId, this::load);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(registry.find(NurseBoardCache.METRIC_LOOKUPS)
+            .tag("outcome", NurseBoardCache.OUTCOME_HIT).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a board change drops the hospital's summaries and is pushed once it commits")
+    void boardChanged_evictsAndPushesAfterCommit() {
+        UUID patientId = UUID.randomUUID();
+        cache.summary(nurseId, hospitalId, this::load);
+        cache.summary(UUID.randomUUID(), UUID.randomUUID(), this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.boardChanged(hospitalId, patientId, "VITALS");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.size()).isEqualTo(1);
+        verifyNoInteractions(messaging);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(messaging).convertAndSend(eq(NurseBoardCache.TOPIC_PREFIX + hospitalId), event.capture());
+        assertThat((NurseBoardChangedEvent) event.getValue())
+            .extracting(NurseBoardChangedEvent::patientId, NurseBoardChangedEvent::reason)
+            .containsExactly(patientId, "VITALS");
+    }
+
+    @Test
+    @DisplayName("a summary counted while the board changed is served once but not kept")
+    void summary_racingChangeNotKept() {
+        cache.summary(nurseId, hospitalId, () -> {
+            cache.boardChanged(hospitalId, null, "MAR"); // committed on another thread meanwhile
+            return load();
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("push failures never reach the writer; no template means no push")
+    void boardChanged_pushFailureSwallowed() {
+        doThrow(new IllegalStateException("broker down")).when(messaging).convertAndSend(anyString(), any(Object.class));
+        cache.boardChanged(hospitalId, null, "HANDOFF");
+
+        NurseBoardCache silent = new NurseBoardCache(100, Duration.ofSeconds(15), null, null);
+        silent.boardChanged(hospitalId, null, "HANDOFF");
+        silent.summary(nurseId, hospitalId, this::load);
+        silent.summary(nurseId, hospitalId, this::load);
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private NurseDashboardSummaryDTO load() {
+        loads.incrementAndGet();
+        return NurseDashboardSummaryDTO.builder().assignedPatients(3).build();
+    }
+}
@@ -18,13 +18,17 @@ import com.example.hms.mapper.PatientProblemMapper;
 import com.example.hms.mapper.PatientSurgicalHistoryMapper;
 import com.example.hms.mapper.PrescriptionMapper;
 import com.example.hms.model.Encounter;
+import com.example.hms.model.EncounterHistory;
+import com.example.hms.model.EncounterTreatment;
 import com.example.hms.model.Hospital;
 import com.example.hms.model.LabOrder;
 import com.example.hms.model.Patient;
 import com.example.hms.model.PatientConsent;
 import com.example.hms.model.PatientHospitalRegistration;
 import com.example.hms.model.User;
+import com.example.hms.payload.dto.EncounterHistoryResponseDTO;
 import com.example.hms.payload.dto.EncounterResponseDTO;
+import com.example.hms.payload.dto.EncounterTreatmentResponseDTO;
 import com.example.hms.payload.dto.LabOrderResponseDTO;
 import com.example.hms.payload.dto.PatientRecordDTO;
 import com.example.hms.payload.dto.RecordShareResultDTO;
@@ -55,10 +59,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -68,11 +77,14 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -116,6 +128,7 @@ class PatientRecordSharingServiceImplTest {
     @Mock private ObjectMapper objectMapper;
     @Mock private JdbcTemplate jdbcTemplate;
     @Mock private ConsentResolutionService consentResolutionService;
+    @Mock private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private PatientRecordSharingServiceImpl service;
@@ -460,6 +473,82 @@ class PatientRecordSharingServiceImplTest {
         }
     }
 
+    // ════════════════════════════════════════════════════════════════════════
+    // streamPatientRecord
+    // ════════════════════════════════════════════════════════════════════════
+
+    @Nested
+    @DisplayName("streamPatientRecord")
+    class StreamPatientRecord {
+
+        @Test
+        @DisplayName("CSV stream carries the summary row and loads only the exported sections")
+        void csvStream() throws Exception {
+            stubEmptyClinicalData();
+            when(consentRepository.findByPatientIdAndFromHospitalIdAndToHospitalId(
+                patientId, fromHospitalId, toHospitalId))
+                .thenReturn(Optional.of(activeConsent));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            service.streamPatientRecord(patientId, fromHospitalId, toHospitalId, "csv", out);
+
+            String csv = out.toString(StandardCharsets.UTF_8);
+            assertThat(csv).startsWith("Patient ID,").contains("Jane").endsWith(",0,0,0,0,0,0\n");
+            verifyNoInteractions(labOrderRepository, labResultRepository, patientVitalSignRepository,
+                immunizationRepository, encounterTreatmentRepository);
+            verify(auditRepository).save(any());
+        }
+
+        @Test
+        @DisplayName("PDF stream of 500 encounter history entries uses one query per section")
+        void pdfStreamWithLongHistory() throws Exception {
+            stubEmptyClinicalData();
+            when(consentRepository.findByPatientIdAndFromHospitalIdAndToHospitalId(
+                patientId, fromHospitalId, toHospitalId))
+                .thenReturn(Optional.of(activeConsent));
+            when(encounterRepository.findAllByPatient_IdAndHospital_Id(patientId, fromHospitalId))
+                .thenReturn(buildEncounters(fromHospital, 500));
+            stubHistoryPerEncounter();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            service.streamPatientRecord(patientId, fromHospitalId, toHospitalId, "pdf", out);
+
+            assertThat(out.toString(StandardCharsets.ISO_8859_1)).startsWith("%PDF-");
+            verify(encounterRepository, times(1)).findAllByPatient_IdAndHospital_Id(patientId, fromHospitalId);
+            verify(encounterHistoryRepository, times(1)).findByEncounterIdIn(anyCollection());
+            verify(encounterHistoryRepository, never()).findByEncounterId(any());
+            verify(encounterHistoryMapper, times(500)).toResponseDto(any());
+            verify(prescriptionRepository, times(1)).findByPatient_IdAndHospital_Id(patientId, fromHospitalId);
+            verify(patientAllergyRepository, times(1)).findByPatient_IdAndHospital_Id(patientId, fromHospitalId);
+        }
+
+        @Test
+        @DisplayName("unsupported format is rejected before any lookup")
+        void unsupportedFormat() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            assertThatThrownBy(() ->
+                service.streamPatientRecord(patientId, fromHospitalId, toHospitalId, "xml", out))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported");
+            verifyNoInteractions(consentRepository);
+        }
+
+        @Test
+        @DisplayName("missing consent fails before anything is written")
+        void missingConsentWritesNothing() {
+            when(consentRepository.findByPatientIdAndFromHospitalIdAndToHospitalId(
+                patientId, fromHospitalId, toHospitalId))
+                .thenReturn(Optional.empty());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            assertThatThrownBy(() ->
+                service.streamPatientRecord(patientId, fromHospitalId, toHospitalId, "pdf", out))
+                .isInstanceOf(BusinessException.class);
+            assertThat(out.size()).isZero();
+        }
+    }
+
     // ════════════════════════════════════════════════════════════════════════
     // resolveAndShare
     // ════════════════════════════════════════════════════════════════════════
@@ -637,8 +726,68 @@ class PatientRecordSharingServiceImplTest {
             assertThat(result.getPatientId()).isEqualTo(patientId);
         }
 
+        @Test
+        @DisplayName("500 encounters across 4 hospitals cost one query per section per hospital")
+        void chronicPatientAcrossFourHospitals() throws Exception {
+            allTablesAvailable();
+            lenient().when(patientInsuranceRepository.findByPatient_Id(patientId)).thenReturn(List.of());
+            lenient().when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+            when(hospitalRepository.findById(toHospitalId)).thenReturn(Optional.of(toHospital));
+            ReflectionTestUtils.setField(service, "aggregateParallelism", 4);
+
+            List<PatientConsent> consents = new ArrayList<>();
+            List<UUID> sourceIds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Hospital source = new Hospital();
+                source.setId(UUID.randomUUID());
+                source.setName("Source " + i);
+                PatientConsent consent = new PatientConsent();
+                consent.setId(UUID.randomUUID());
+                consent.setPatient(patient);
+                consent.setFromHospital(source);
+                consent.setToHospital(toHospital);
+                consent.setConsentGiven(true);
+                consent.setConsentTimestamp(LocalDateTime.now().minusDays(1));
+                consent.setConsentExpiration(LocalDateTime.now().plusDays(30));
+                consent.setConsentType(ConsentType.TREATMENT);
+                consents.add(consent);
+                sourceIds.add(source.getId());
+
+                stubEmptyClinicalDataForHospital(source.getId());
+                when(encounterRepository.findAllByPatient_IdAndHospital_Id(patientId, source.getId()))
+                    .thenReturn(buildEncounters(source, 125));
+            }
+            when(consentRepository.findAllByPatientIdAndToHospitalId(patientId, toHospitalId))
+                .thenReturn(consents);
+            when(encounterMapper.toEncounterResponseDTO(any()))
+                .thenAnswer(inv -> EncounterResponseDTO.builder()
+                    .id(inv.<Encounter>getArgument(0).getId()).build());
+            when(encounterTreatmentRepository.findByEncounter_IdIn(anyCollection()))
+                .thenAnswer(inv -> inv.<Collection<UUID>>getArgument(0).stream()
+                    .map(PatientRecordSharingServiceImplTest.this::buildEncounterTreatment)
+                    .toList());
+            when(encounterTreatmentMapper.toDto(any()))
+                .thenAnswer(inv -> EncounterTreatmentResponseDTO.builder()
+                    .id(inv.<EncounterTreatment>getArgument(0).getId()).build());
+            stubHistoryPerEncounter();
+
+            PatientRecordDTO result = service.getAggregatedPatientRecord(patientId, toHospitalId);
+
+            assertThat(result.getEncounters()).hasSize(500);
+            assertThat(result.getTreatments()).hasSize(500);
+            assertThat(result.getEncounterHistory()).hasSize(500);
+            for (UUID sourceId : sourceIds) {
+                verify(encounterRepository, times(1)).findAllByPatient_IdAndHospital_Id(patientId, sourceId);
+                verify(prescriptionRepository, times(1)).findByPatient_IdAndHospital_Id(patientId, sourceId);
+            }
+            verify(encounterTreatmentRepository, times(4)).findByEncounter_IdIn(anyCollection());
+            verify(encounterTreatmentRepository, never()).findByEncounter_Id(any());
+            verify(encounterHistoryRepository, times(4)).findByEncounterIdIn(anyCollection());
+        }
+
         @Test
         @DisplayName("throws when no consent and no registration found")
+
         void throwsWhenNothingFound() {
             patient.setHospitalRegistrations(Set.of());
             when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
@@ -749,7 +898,53 @@ class PatientRecordSharingServiceImplTest {
         return e;
     }
 
+    private List<Encounter> buildEncounters(Hospital hospital, int count) {
+        List<Encounter> encounters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Encounter e = new Encounter();
+            e.setId(UUID.randomUUID());
+            e.setPatient(patient);
+            e.setEncounterDate(LocalDateTime.now().minusDays(count - (long) i));
+            e.setHospital(hospital);
+            encounters.add(e);
+        }
+        return encounters;
+    }
+
+    private EncounterTreatment buildEncounterTreatment(UUID encounterId) {
+        Encounter encounter = new Encounter();
+        encounter.setId(encounterId);
+        EncounterTreatment treatment = EncounterTreatment.builder()
+            .encounter(encounter)
+            .performedAt(LocalDateTime.now())
+            .build();
+        treatment.setId(UUID.randomUUID());
+        return treatment;
+    }
+
+    /** One history row per requested encounter, mapped to a DTO carrying its ids. */
+    private void stubHistoryPerEncounter() {
+        lenient().when(encounterHistoryRepository.findByEncounterIdIn(anyCollection()))
+            .thenAnswer(inv -> inv.<Collection<UUID>>getArgument(0).stream()
+                .map(encounterId -> EncounterHistory.builder()
+                    .id(UUID.randomUUID())
+                    .encounterId(encounterId)
+                    .changedAt(LocalDateTime.now())
+                    .build())
+                .toList());
+        lenient().when(encounterHistoryMapper.toResponseDto(any()))
+            .thenAnswer(inv -> {
+                EncounterHistory history = inv.getArgument(0);
+                return EncounterHistoryResponseDTO.builder()
+                    .id(history.getId())
+                    .encounterId(history.getEncounterId())
+                    .changedAt(history.getChangedAt())
+                    .build();
+            });
+    }
+
     private LabOrder buildLabOrder() {
+
         LabOrder lo = new LabOrder();
         lo.setId(UUID.randomUUID());
         lo.setPatient(patient);
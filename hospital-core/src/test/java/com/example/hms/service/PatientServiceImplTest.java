@@ -67,6 +67,8 @@ import com.example.hms.repository.StaffRepository;
 import com.example.hms.repository.UltrasoundOrderRepository;
 import com.example.hms.repository.UltrasoundReportRepository;
 import com.example.hms.repository.UserRepository;
+import com.example.hms.service.search.PatientSearchQuery;
+import com.example.hms.service.search.PatientSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -91,7 +93,6 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -166,6 +167,8 @@ class PatientServiceImplTest {
     private com.example.hms.utility.RoleValidator roleValidator;
     @Mock
     private PhoneVerificationService phoneVerificationService;
+    @Mock
+    private PatientSearchService patientSearchService;
 
     @InjectMocks
     private PatientServiceImpl patientService;
@@ -364,7 +367,7 @@ class PatientServiceImplTest {
     }
 
     @Test
-    void searchPatientsBuildsPatternsAndReturnsMappedPage() {
+    void searchPatientsNormalizesCriteriaAndReturnsMappedPage() {
         PatientSearchCriteria criteria = PatientSearchCriteria.builder()
             .mrn("  MRN123  ")
             .name("  Alice  ")
@@ -378,7 +381,7 @@ class PatientServiceImplTest {
         PatientResponseDTO dto = PatientResponseDTO.builder().id(patientId).build();
         Page<Patient> patientPage = new PageImpl<>(List.of(patient), pageable, 1);
 
-        when(patientRepository.searchPatientsExtended(anyString(), anyString(), anyString(), anyString(), anyString(), any(), anyBoolean(), any(Pageable.class)))
+        when(patientSearchService.search(any(PatientSearchQuery.class), any(Pageable.class)))
             .thenReturn(patientPage);
         when(patientMapper.toPatientDTO(patient, hospitalId)).thenReturn(dto);
         when(patientVitalSignService.getLatestSnapshot(patientId, hospitalId)).thenReturn(Optional.empty());
@@ -387,30 +390,19 @@ class PatientServiceImplTest {
 
         assertThat(results).containsExactly(dto);
 
-        ArgumentCaptor<String> mrnCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> nameCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> dobCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> phoneCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> emailCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<Boolean> activeCaptor = ArgumentCaptor.forClass(Boolean.class);
-
-        verify(patientRepository).searchPatientsExtended(
-            mrnCaptor.capture(),
-            nameCaptor.capture(),
-            dobCaptor.capture(),
-            phoneCaptor.capture(),
-            emailCaptor.capture(),
-            eq(hospitalId),
-            activeCaptor.capture(),
-            any(Pageable.class)
-        );
-
-        assertThat(mrnCaptor.getValue()).isEqualTo("MRN123");
-        assertThat(nameCaptor.getValue()).isEqualTo("%alice%");
-        assertThat(dobCaptor.getValue()).isEqualTo("1990-01-01");
-        assertThat(phoneCaptor.getValue()).isEqualTo("%555%");
-        assertThat(emailCaptor.getValue()).isEqualTo("%alice@example.com%");
-        assertThat(activeCaptor.getValue()).isTrue();
+        ArgumentCaptor<PatientSearchQuery> queryCaptor = ArgumentCaptor.forClass(PatientSearchQuery.class);
+        verify(patientSearchService).search(queryCaptor.capture(), eq(pageable));
+
+        PatientSearchQuery query = queryCaptor.getValue();
+        assertThat(query.mrn()).isEqualTo("MRN123");
+        assertThat(query.name()).isEqualTo("alice");
+        assertThat(query.dateOfBirth()).isEqualTo("1990-01-01");
+        assertThat(query.phone()).isEqualTo("555");
+        assertThat(query.email()).isEqualTo("alice@example.com");
+        assertThat(query.hospitalId()).isEqualTo(hospitalId);
+        assertThat(query.active()).isTrue();
+        verify(patientRepository, never()).searchPatientsExtended(
+            any(), any(), any(), any(), any(), any(), any(), any(Pageable.class));
     }
 
     @Test
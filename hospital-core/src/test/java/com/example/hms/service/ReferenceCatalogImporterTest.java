@@ -0,0 +1,192 @@
+package com.example.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the importer against an H2 copy of {@code reference.catalog_entries}:
+ * chunk commits, the per-chunk existing-code lookup and row-error handling
+ * only show up against a real database.
+ */
+class ReferenceCatalogImporterTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final String HEADER = "code,label,description,metadata,active\n";
+
+    private static JdbcTemplate jdbc;
+    private static ReferenceCatalogImporter importer;
+
+    private UUID catalogId;
+
+    @BeforeAll
+    static void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:catalog-import-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SCHEMA reference");
+        // The CHECK stands in for any constraint the database enforces that
+        // the importer does not validate up front.
+        jdbc.execute("""
+            CREATE TABLE reference.catalog_entries (
+                active BOOLEAN NOT NULL,
+                created_at TIMESTAMP NOT NULL,
+                updated_at TIMESTAMP NOT NULL,
+                catalog_id UUID NOT NULL,
+                id UUID PRIMARY KEY,
+                code VARCHAR(160) NOT NULL,
+                description VARCHAR(255),
+                label VARCHAR(255) NOT NULL CHECK (label <> 'Rejected By Database'),
+                metadata VARCHAR(255))
+            """);
+        importer = new ReferenceCatalogImporter(jdbc, new DataSourceTransactionManager(dataSource),
+            new ObjectMapper(), CHUNK_SIZE);
+    }
+
+    @BeforeEach
+    void newCatalog() {
+        catalogId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("new rows are inserted chunk by chunk with one progress report per chunk")
+    void importsNewEntriesInChunks() throws IOException {
+        List<ReferenceCatalogImporter.Progress> progress = new ArrayList<>();
+
+        ReferenceCatalogImporter.Result result = importer.importEntries(catalogId, csv(
+            "A01,Cholera,,,true",
+            "a02,Typhoid,Enteric fever,\"{\"\"chapter\"\":\"\"I\"\"}\",",
+            "b-15 x,,,,no",
+            ",Blank code,,,true",
+            "C34,Lung cancer,,,0"), progress::add);
+
+        assertThat(result.processed()).isEqualTo(5);
+        assertThat(result.created()).isEqualTo(4);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.failed()).isZero();
+        assertThat(progress).hasSize(2);
+        assertThat(progress.get(0).created()).isEqualTo(2);
+        assertThat(progress.get(1).processed()).isEqualTo(5);
+
+        assertThat(entry("A02"))
+            .containsEntry("label", "Typhoid")
+            .containsEntry("metadata", "{\"chapter\":\"I\"}")
+            .containsEntry("active", true);
+        assertThat(entry("B_15_X"))
+            .containsEntry("label", "B 15 X")
+            .containsEntry("active", false);
+        assertThat(entry("C34")).containsEntry("active", false);
+    }
+
+    @Test
+    @DisplayName("existing codes match case-insensitively and only changed rows are updated")
+    void updatesChangedEntriesAndSkipsUnchanged() throws IOException {
+        insertExisting("abc", "Old label", "{\"k\":\"v\"}");
+        insertExisting("DEF", "Same label", null);
+
+        ReferenceCatalogImporter.Result result = importer.importEntries(catalogId, csv(
+            "ABC,New label,,\"{\"\"k\"\":\"\"v\"\"}\",true",
+            "def,Same label,,,true",
+            "GHI,Fresh,,,true"), null);
+
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(countEntries()).isEqualTo(3);
+        assertThat(entry("abc")).containsEntry("label", "New label");
+    }
+
+    @Test
+    @DisplayName("invalid and duplicate rows are reported without stopping the import")
+    void collectsRowErrorsAndContinues() throws IOException {
+        ReferenceCatalogImporter.Result result = importer.importEntries(catalogId, csv(
+            "A01,First,,,true",
+            "a01,Duplicate,,,true",
+            "B01,Bad metadata,,not-json,true",
+            "C01," + "x".repeat(300) + ",,,true",
+            "D01,Last,,,true"), null);
+
+        assertThat(result.processed()).isEqualTo(5);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors())
+            .extracting(ReferenceCatalogImporter.RowError::row, ReferenceCatalogImporter.RowError::code)
+            .containsExactly(
+                tuple(2L, "A01"),
+                tuple(3L, "B01"),
+                tuple(4L, "C01"));
+        assertThat(result.errors().get(0).message()).contains("first seen on row 1");
+        assertThat(countEntries()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a chunk the database rejects is replayed row by row, losing only the bad row")
+    void replaysRejectedChunkRowByRow() throws IOException {
+        ReferenceCatalogImporter.Result result = importer.importEntries(catalogId, csv(
+            "A01,Fine,,,true",
+            "A02,Rejected By Database,,,true",
+            "A03,Also fine,,,true"), null);
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors()).singleElement()
+            .satisfies(error -> assertThat(error.row()).isEqualTo(2));
+        assertThat(countEntries()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("chunks committed before malformed CSV stay imported")
+    void keepsCommittedChunksWhenCsvBreaks() {
+        assertThatThrownBy(() -> importer.importEntries(catalogId, csv(
+            "A01,One,,,true",
+            "A02,Two,,,true",
+            "A03,\"unterminated,,,true"), null))
+            .isInstanceOf(IOException.class);
+
+        assertThat(countEntries()).isEqualTo(2);
+    }
+
+    private static StringReader csv(String... rows) {
+        return new StringReader(HEADER + String.join("\n", rows) + "\n");
+    }
+
+    private void insertExisting(String code, String label, String metadata) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbc.update("""
+            INSERT INTO reference.catalog_entries
+                (id, catalog_id, code, label, description, metadata, active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, '', ?, TRUE, ?, ?)
+            """, UUID.randomUUID(), catalogId, code, label, metadata, now, now);
+    }
+
+    private Map<String, Object> entry(String code) {
+        return jdbc.queryForMap(
+            "SELECT label, metadata, active FROM reference.catalog_entries WHERE catalog_id = ? AND code = ?",
+            catalogId, code);
+    }
+
+    private int countEntries() {
+        Integer count = jdbc.queryForObject(
+            "SELECT COUNT(*) FROM reference.catalog_entries WHERE catalog_id = ?", Integer.class, catalogId);
+        return count != null ? count : 0;
+    }
+}
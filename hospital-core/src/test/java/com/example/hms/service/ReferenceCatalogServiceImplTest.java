@@ -4,24 +4,23 @@ import com.example.hms.enums.ReferenceCatalogStatus;
 import com.example.hms.exception.BusinessException;
 import com.example.hms.exception.ResourceNotFoundException;
 import com.example.hms.model.reference.ReferenceCatalog;
-import com.example.hms.model.reference.ReferenceCatalogEntry;
 import com.example.hms.payload.dto.reference.CatalogImportResponseDTO;
 import com.example.hms.payload.dto.reference.CreateReferenceCatalogRequestDTO;
 import com.example.hms.payload.dto.reference.ReferenceCatalogResponseDTO;
 import com.example.hms.payload.dto.reference.SchedulePublishRequestDTO;
 import com.example.hms.repository.reference.ReferenceCatalogEntryRepository;
 import com.example.hms.repository.reference.ReferenceCatalogRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,8 +30,9 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +40,7 @@ class ReferenceCatalogServiceImplTest {
 
     @Mock private ReferenceCatalogRepository catalogRepository;
     @Mock private ReferenceCatalogEntryRepository entryRepository;
-    @Spy private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock private ReferenceCatalogImporter catalogImporter;
 
     @InjectMocks private ReferenceCatalogServiceImpl service;
 
@@ -151,72 +151,47 @@ class ReferenceCatalogServiceImplTest {
     // ---- importCatalog ----
 
     @Test
-    void importCatalog_success() {
-        String csv = "code,label,description,active\nABC,Abc Label,Some desc,true\nDEF,Def Label,,false\n";
+    void importCatalog_success() throws IOException {
         MockMultipartFile file = new MockMultipartFile("file", "catalog.csv",
-                "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+                "text/csv", "code,label\nABC,Abc\nDEF,Def\n".getBytes(StandardCharsets.UTF_8));
 
         when(catalogRepository.findById(catalogId)).thenReturn(Optional.of(catalog));
-        when(entryRepository.findByCatalogIdAndCodeIgnoreCase(eq(catalogId), anyString()))
-                .thenReturn(Optional.empty());
-        when(entryRepository.save(any(ReferenceCatalogEntry.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(catalogImporter.importEntries(eq(catalogId), any(Reader.class), any()))
+                .thenReturn(new ReferenceCatalogImporter.Result(3, 2, 0, 0, 1,
+                        List.of(new ReferenceCatalogImporter.RowError(3, "ABC", "duplicate code, first seen on row 1")),
+                        12));
         when(entryRepository.countByCatalogId(catalogId)).thenReturn(2L);
         when(catalogRepository.save(any(ReferenceCatalog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         CatalogImportResponseDTO result = service.importCatalog(catalogId, file);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getProcessed()).isEqualTo(2);
+        assertThat(result.getProcessed()).isEqualTo(3);
         assertThat(result.getCreated()).isEqualTo(2);
         assertThat(result.getUpdated()).isZero();
-        assertThat(result.getSkipped()).isZero();
-    }
-
-    @Test
-    void importCatalog_updateExisting() {
-        String csv = "code,label,description,active\nABC,Updated Label,New desc,true\n";
-        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv",
-                "text/csv", csv.getBytes(StandardCharsets.UTF_8));
-
-        ReferenceCatalogEntry existing = ReferenceCatalogEntry.builder()
-                .catalog(catalog)
-                .code("ABC")
-                .label("Old Label")
-                .description("Old desc")
-                .active(true)
-                .build();
-        existing.setId(UUID.randomUUID());
-
-        when(catalogRepository.findById(catalogId)).thenReturn(Optional.of(catalog));
-        when(entryRepository.findByCatalogIdAndCodeIgnoreCase(catalogId, "ABC"))
-                .thenReturn(Optional.of(existing));
-        when(entryRepository.save(any(ReferenceCatalogEntry.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(entryRepository.countByCatalogId(catalogId)).thenReturn(1L);
-        when(catalogRepository.save(any(ReferenceCatalog.class))).thenAnswer(inv -> inv.getArgument(0));
-
-        CatalogImportResponseDTO result = service.importCatalog(catalogId, file);
-
-        assertThat(result.getUpdated()).isEqualTo(1);
-        assertThat(result.getCreated()).isZero();
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getRow()).isEqualTo(3);
+                    assertThat(error.getCode()).isEqualTo("ABC");
+                });
+        assertThat(result.getCatalog().getEntryCount()).isEqualTo(2);
+        assertThat(result.getCatalog().getLastImportedAt()).isNotNull();
+        assertThat(result.getCatalog().getStatus()).isEqualTo(ReferenceCatalogStatus.DRAFT);
     }
 
     @Test
-    void importCatalog_skipEmptyCode() {
-        String csv = "code,label,description,active\n,Empty,,true\nABC,Valid,desc,true\n";
+    void importCatalog_unreadableCsv_throwsBusinessException() throws IOException {
         MockMultipartFile file = new MockMultipartFile("file", "catalog.csv",
-                "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+                "text/csv", "code,label\nABC,Test\n".getBytes(StandardCharsets.UTF_8));
 
         when(catalogRepository.findById(catalogId)).thenReturn(Optional.of(catalog));
-        when(entryRepository.findByCatalogIdAndCodeIgnoreCase(eq(catalogId), anyString()))
-                .thenReturn(Optional.empty());
-        when(entryRepository.save(any(ReferenceCatalogEntry.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(entryRepository.countByCatalogId(catalogId)).thenReturn(1L);
-        when(catalogRepository.save(any(ReferenceCatalog.class))).thenAnswer(inv -> inv.getArgument(0));
-
-        CatalogImportResponseDTO result = service.importCatalog(catalogId, file);
+        when(catalogImporter.importEntries(eq(catalogId), any(Reader.class), any()))
+                .thenThrow(new IOException("malformed"));
 
-        assertThat(result.getSkipped()).isEqualTo(1);
-        assertThat(result.getCreated()).isEqualTo(1);
+        assertThatThrownBy(() -> service.importCatalog(catalogId, file))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Failed to parse catalog CSV");
+        verify(catalogRepository, never()).save(any(ReferenceCatalog.class));
     }
 
     @Test
@@ -248,67 +223,6 @@ class ReferenceCatalogServiceImplTest {
                 .hasMessageContaining("Catalog not found");
     }
 
-    @Test
-    void importCatalog_noChanges_skips() {
-        String csv = "code,label,description,active\nABC,Same Label,Same desc,true\n";
-        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv",
-                "text/csv", csv.getBytes(StandardCharsets.UTF_8));
-
-        ReferenceCatalogEntry existing = ReferenceCatalogEntry.builder()
-                .catalog(catalog)
-                .code("ABC")
-                .label("Same Label")
-                .description("Same desc")
-                .active(true)
-                .build();
-        existing.setId(UUID.randomUUID());
-
-        when(catalogRepository.findById(catalogId)).thenReturn(Optional.of(catalog));
-        when(entryRepository.findByCatalogIdAndCodeIgnoreCase(catalogId, "ABC"))
-                .thenReturn(Optional.of(existing));
-        when(entryRepository.countByCatalogId(catalogId)).thenReturn(1L);
-        when(catalogRepository.save(any(ReferenceCatalog.class))).thenAnswer(inv -> inv.getArgument(0));
-
-        CatalogImportResponseDTO result = service.importCatalog(catalogId, file);
-
-        assertThat(result.getSkipped()).isEqualTo(1);
-        assertThat(result.getUpdated()).isZero();
-    }
-
-    @Test
-    void importCatalog_withMetadata() {
-        String csv = "code,label,description,metadata,active\nABC,Label,Desc,\"{\"\"key\"\":\"\"val\"\"}\",true\n";
-        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv",
-                "text/csv", csv.getBytes(StandardCharsets.UTF_8));
-
-        when(catalogRepository.findById(catalogId)).thenReturn(Optional.of(catalog));
-        when(entryRepository.findByCatalogIdAndCodeIgnoreCase(eq(catalogId), anyString()))
-                .thenReturn(Optional.empty());
-        when(entryRepository.save(any(ReferenceCatalogEntry.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(entryRepository.countByCatalogId(catalogId)).thenReturn(1L);
-        when(catalogRepository.save(any(ReferenceCatalog.class))).thenAnswer(inv -> inv.getArgument(0));
-
-        CatalogImportResponseDTO result = service.importCatalog(catalogId, file);
-        assertThat(result.getCreated()).isEqualTo(1);
-    }
-
-    @Test
-    void importCatalog_noLabelUsesCodeAsLabel() {
-        String csv = "code,description,active\nmy_test_code,Some desc,true\n";
-        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv",
-                "text/csv", csv.getBytes(StandardCharsets.UTF_8));
-
-        when(catalogRepository.findById(catalogId)).thenReturn(Optional.of(catalog));
-        when(entryRepository.findByCatalogIdAndCodeIgnoreCase(eq(catalogId), anyString()))
-                .thenReturn(Optional.empty());
-        when(entryRepository.save(any(ReferenceCatalogEntry.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(entryRepository.countByCatalogId(catalogId)).thenReturn(1L);
-        when(catalogRepository.save(any(ReferenceCatalog.class))).thenAnswer(inv -> inv.getArgument(0));
-
-        CatalogImportResponseDTO result = service.importCatalog(catalogId, file);
-        assertThat(result.getCreated()).isEqualTo(1);
-    }
-
     // ---- schedulePublish ----
 
     @Test
@@ -0,0 +1,297 @@
+package com.example.hms.service;
+
+import com.example.hms.exception.BusinessException;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Role;
+import com.example.hms.model.User;
+import com.example.hms.model.UserRoleHospitalAssignment;
+import com.example.hms.model.UserRoleId;
+import com.example.hms.payload.dto.assignment.UserRoleAssignmentBulkImportRequestDTO;
+import com.example.hms.repository.HospitalRepository;
+import com.example.hms.repository.RoleRepository;
+import com.example.hms.repository.UserRepository;
+import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
+import com.example.hms.repository.UserRoleRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserRoleAssignmentBulkImporterTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private RoleRepository roleRepository;
+    @Mock private HospitalRepository hospitalRepository;
+    @Mock private UserRoleHospitalAssignmentRepository assignmentRepository;
+    @Mock private UserRoleRepository userRoleRepository;
+    @Mock private MessageSource messageSource;
+
+    private UserRoleAssignmentBulkImporter importer;
+    private final Map<String, User> usersByEmail = new HashMap<>();
+    private Role nurse;
+    private Role superAdmin;
+    private Hospital central;
+
+    @BeforeEach
+    void setUp() {
+        importer = new UserRoleAssignmentBulkImporter(userRepository, roleRepository, hospitalRepository,
+            assignmentRepository, userRoleRepository, messageSource);
+
+        nurse = role("ROLE_NURSE");
+        superAdmin = role("ROLE_SUPER_ADMIN");
+        central = new Hospital();
+        central.setId(UUID.randomUUID());
+        central.setCode("CH01");
+        central.setName("Central Hospital");
+
+        lenient().when(messageSource.getMessage(anyString(), any(), anyString(), any()))
+            .thenAnswer(inv -> inv.getArgument(2));
+        lenient().when(userRepository.findByUsernameInIgnoreCase(anyList())).thenReturn(List.of());
+        lenient().when(userRepository.findByEmailInIgnoreCase(anyList())).thenAnswer(inv -> {
+            List<String> emails = inv.getArgument(0);
+            return emails.stream().map(usersByEmail::get).filter(Objects::nonNull).toList();
+        });
+        lenient().when(userRepository.findByPhoneNumberIn(anyCollection())).thenReturn(List.of());
+        lenient().when(roleRepository.findByNameInIgnoreCase(anyCollection())).thenReturn(List.of(nurse, superAdmin));
+        lenient().when(hospitalRepository.findByCodeInIgnoreCase(anyCollection())).thenReturn(List.of(central));
+        lenient().when(assignmentRepository.findByUserIdIn(anySet())).thenReturn(List.of());
+        lenient().when(userRoleRepository.findIdsByUserIdIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("the number of lookups does not grow with the number of rows")
+    void lookupCountIsIndependentOfRowCount() {
+        UserRoleAssignmentBulkImporter.Plan small = importer.plan(request(staffCsv(10)), Locale.ROOT);
+        int smallFileQueries = repositoryCalls();
+        Mockito.clearInvocations(userRepository, roleRepository, hospitalRepository, assignmentRepository,
+            userRoleRepository);
+
+        UserRoleAssignmentBulkImporter.Plan large = importer.plan(request(staffCsv(400)), Locale.ROOT);
+
+        assertThat(small.accepted()).hasSize(10);
+        assertThat(large.accepted()).hasSize(400);
+        assertThat(large.rejected()).isEmpty();
+        assertThat(repositoryCalls()).isEqualTo(smallFileQueries).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("quoted fields may contain the delimiter and headers match case-insensitively")
+    void parsesQuotedFieldsWithCustomDelimiter() {
+        User user = user("ana@hospital.org");
+        Hospital saintMary = new Hospital();
+        saintMary.setId(UUID.randomUUID());
+        saintMary.setName("Saint Mary; North");
+        when(hospitalRepository.findByNameInIgnoreCase(anyCollection())).thenReturn(List.of(saintMary));
+
+        UserRoleAssignmentBulkImportRequestDTO request = request("""
+            Email;Role_Name;Hospital_Name;Start_Date
+            ana@hospital.org;role_nurse;"saint mary; north";31/01/2026
+            """);
+        request.setDelimiter(";");
+
+        UserRoleAssignmentBulkImporter.Plan plan = importer.plan(request, Locale.ROOT);
+
+        assertThat(plan.rejected()).isEmpty();
+        assertThat(plan.accepted()).singleElement().satisfies(row -> {
+            assertThat(row.rowNumber()).isEqualTo(2);
+            assertThat(row.user()).isSameAs(user);
+            assertThat(row.hospital()).isSameAs(saintMary);
+            assertThat(row.startDate()).isEqualTo(LocalDate.of(2026, 1, 31));
+            assertThat(row.active()).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("existing assignments and repeated rows are conflicts, not failures")
+    void detectsConflictsInMemory() {
+        User existing = user("old@hospital.org");
+        user("new@hospital.org");
+        UserRoleHospitalAssignment assignment = new UserRoleHospitalAssignment();
+        assignment.setUser(existing);
+        assignment.setRole(nurse);
+        assignment.setHospital(central);
+        when(assignmentRepository.findByUserIdIn(anySet())).thenReturn(List.of(assignment));
+        when(userRoleRepository.findIdsByUserIdIn(anyCollection()))
+            .thenReturn(List.of(new UserRoleId(existing.getId(), nurse.getId())));
+
+        UserRoleAssignmentBulkImporter.Plan plan = importer.plan(request("""
+            email,role_name,hospital_code
+            old@hospital.org,ROLE_NURSE,CH01
+            new@hospital.org,ROLE_NURSE,CH01
+            NEW@hospital.org,ROLE_NURSE,ch01
+            """), Locale.ROOT);
+
+        assertThat(plan.accepted()).extracting(UserRoleAssignmentBulkImporter.ResolvedRow::rowNumber)
+            .containsExactly(3);
+        assertThat(plan.rejected())
+            .extracting(UserRoleAssignmentBulkImporter.RejectedRow::rowNumber,
+                UserRoleAssignmentBulkImporter.RejectedRow::conflict,
+                UserRoleAssignmentBulkImporter.RejectedRow::message)
+            .containsExactly(
+                tuple(2, true, "Role already assigned to this user for this hospital."),
+                tuple(4, true, "Duplicate of row 3"));
+        assertThat(plan.existingUserRoles()).containsExactly(new UserRoleId(existing.getId(), nurse.getId()));
+    }
+
+    @Test
+    @DisplayName("invalid rows are reported with their row number without stopping the import")
+    void reportsRowFailures() {
+        user("ok@hospital.org");
+        user("admin@hospital.org");
+
+        UserRoleAssignmentBulkImporter.Plan plan = importer.plan(request("""
+            email,role_name,hospital_code,active
+            ok@hospital.org,ROLE_NURSE,CH01,
+            ghost@hospital.org,ROLE_NURSE,CH01,
+            ok@hospital.org,ROLE_WIZARD,CH01,
+            ,ROLE_NURSE,CH01,
+            ok@hospital.org,ROLE_NURSE,CH01,maybe
+            admin@hospital.org,ROLE_SUPER_ADMIN,CH01,
+            """), Locale.ROOT);
+
+        assertThat(plan.processed()).isEqualTo(6);
+        assertThat(plan.accepted()).hasSize(1);
+        assertThat(plan.rejected())
+            .extracting(UserRoleAssignmentBulkImporter.RejectedRow::rowNumber,
+                UserRoleAssignmentBulkImporter.RejectedRow::conflict,
+                UserRoleAssignmentBulkImporter.RejectedRow::message)
+            .containsExactlyInAnyOrder(
+                tuple(3, false, "User not found: ghost@hospital.org"),
+                tuple(4, false, "Role not found with name: ROLE_WIZARD"),
+                tuple(5, false, "Row missing user identifier"),
+                tuple(6, false, "Invalid boolean value: maybe"),
+                tuple(7, false, "SUPER_ADMIN assignments are global and must not include a hospital."));
+    }
+
+    @Test
+    @DisplayName("identifiers fall back from username to email to phone number")
+    void resolvesIdentifiersByUsernameEmailThenPhone() {
+        User byUsername = user("jdoe@hospital.org");
+        byUsername.setUsername("JDoe");
+        User byPhone = user("phone@hospital.org");
+        byPhone.setPhoneNumber("+15550100");
+        when(userRepository.findByUsernameInIgnoreCase(anyList())).thenReturn(List.of(byUsername));
+        when(userRepository.findByPhoneNumberIn(anyCollection())).thenReturn(List.of(byPhone));
+
+        UserRoleAssignmentBulkImporter.Plan plan = importer.plan(request("""
+            identifier,role_name,hospital_code
+            jdoe,ROLE_NURSE,CH01
+            +15550100,ROLE_NURSE,CH01
+            """), Locale.ROOT);
+
+        assertThat(plan.accepted()).extracting(UserRoleAssignmentBulkImporter.ResolvedRow::user)
+            .containsExactly(byUsername, byPhone);
+        verify(userRepository).findByPhoneNumberIn(Set.of("+15550100"));
+    }
+
+    @Test
+    @DisplayName("an unterminated quote rejects the whole file")
+    void rejectsMalformedCsv() {
+        assertThatThrownBy(() -> importer.plan(request("""
+            email,role_name
+            "ana@hospital.org,ROLE_NURSE
+            """), Locale.ROOT))
+            .isInstanceOf(BusinessException.class)
+            .hasMessage("Unable to process CSV content");
+    }
+
+    @Test
+    @DisplayName("persist flushes and detaches every batch and restores the session batch size")
+    void persistFlushesPerBatch() {
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        Session session = Mockito.mock(Session.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        ReflectionTestUtils.setField(importer, "entityManager", entityManager);
+
+        List<Object> entities = new ArrayList<>();
+        IntStream.range(0, UserRoleAssignmentBulkImporter.BATCH_SIZE * 2 + 50)
+            .forEach(i -> entities.add(new UserRoleHospitalAssignment()));
+        importer.persist(entities);
+
+        verify(entityManager, times(entities.size())).persist(any());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(entities.size())).detach(any());
+        InOrder flushThenDetach = inOrder(entityManager);
+        flushThenDetach.verify(entityManager).flush();
+        flushThenDetach.verify(entityManager).detach(entities.get(0));
+        InOrder order = inOrder(session);
+        order.verify(session).setJdbcBatchSize(UserRoleAssignmentBulkImporter.BATCH_SIZE);
+        order.verify(session).setJdbcBatchSize(null);
+    }
+
+    private int repositoryCalls() {
+        return List.of(userRepository, roleRepository, hospitalRepository, assignmentRepository, userRoleRepository)
+            .stream()
+            .map(Mockito::mockingDetails)
+            .map(details -> details.getInvocations())
+            .mapToInt(Collection::size)
+            .sum();
+    }
+
+    private String staffCsv(int rows) {
+        StringBuilder csv = new StringBuilder("email,role_name,hospital_code,start_date\n");
+        for (int i = 0; i < rows; i++) {
+            String email = "staff" + i + "@hospital.org";
+            if (!usersByEmail.containsKey(email)) {
+                user(email);
+            }
+            csv.append(email).append(",ROLE_NURSE,CH01,2026-02-01\n");
+        }
+        return csv.toString();
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        usersByEmail.put(email.toLowerCase(Locale.ROOT), user);
+        return user;
+    }
+
+    private static Role role(String name) {
+        Role role = new Role();
+        role.setId(UUID.randomUUID());
+        role.setName(name);
+        role.setCode(name);
+        return role;
+    }
+
+    private static UserRoleAssignmentBulkImportRequestDTO request(String csv) {
+        return UserRoleAssignmentBulkImportRequestDTO.builder().csvContent(csv).build();
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.hms.service;
 
 import com.example.hms.exception.BusinessException;
+import com.example.hms.exception.ConflictException;
 import com.example.hms.exception.ResourceNotFoundException;
 import com.example.hms.mapper.UserRoleHospitalAssignmentMapper;
 import com.example.hms.model.Hospital;
 import com.example.hms.model.Role;
 import com.example.hms.model.User;
 import com.example.hms.model.UserRoleHospitalAssignment;
+import com.example.hms.payload.dto.assignment.UserRoleAssignmentBulkImportRequestDTO;
+import com.example.hms.payload.dto.assignment.UserRoleAssignmentBulkImportResponseDTO;
+import com.example.hms.payload.dto.assignment.UserRoleAssignmentBulkImportResultDTO;
 import com.example.hms.payload.dto.assignment.UserRoleAssignmentPublicViewDTO;
 import com.example.hms.repository.HospitalRepository;
 import com.example.hms.repository.OrganizationRepository;
@@ -23,14 +27,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.MessageSource;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +59,7 @@ class UserRoleHospitalAssignmentServiceImplTest {
     @Mock private UserRoleHospitalAssignmentMapper mapper;
     @Mock private MessageSource messageSource;
     @Mock private com.example.hms.utility.RoleValidator roleValidator;
+    @Mock private UserRoleAssignmentBulkImporter bulkImporter;
 
     @InjectMocks
     private UserRoleHospitalAssignmentServiceImpl service;
@@ -237,4 +247,48 @@ class UserRoleHospitalAssignmentServiceImplTest {
 
         verify(assignmentRepository).findAll(any(org.springframework.data.domain.Pageable.class));
     }
+
+    @Test
+    void bulkImportAssignments_reportsEveryRowInFileOrder() {
+        when(bulkImporter.plan(any(), any())).thenReturn(new UserRoleAssignmentBulkImporter.Plan(3,
+            List.of(new UserRoleAssignmentBulkImporter.ResolvedRow(3, "jdoe", assignee, role, hospital, null, false, null)),
+            List.of(
+                new UserRoleAssignmentBulkImporter.RejectedRow(4, "ghost", false, "User not found: ghost"),
+                new UserRoleAssignmentBulkImporter.RejectedRow(2, "jdoe", true, "Role already assigned")),
+            Set.of()));
+
+        UserRoleAssignmentBulkImportResponseDTO response = service.bulkImportAssignments(
+            UserRoleAssignmentBulkImportRequestDTO.builder().csvContent("email,role_name\n").build());
+
+        assertThat(response.getProcessed()).isEqualTo(3);
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getSkipped()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults())
+            .extracting(UserRoleAssignmentBulkImportResultDTO::getRowNumber, UserRoleAssignmentBulkImportResultDTO::getStatus)
+            .containsExactly(
+                tuple(2, UserRoleAssignmentBulkImportResultDTO.Status.SKIPPED),
+                tuple(3, UserRoleAssignmentBulkImportResultDTO.Status.CREATED),
+                tuple(4, UserRoleAssignmentBulkImportResultDTO.Status.FAILED));
+        assertThat(response.getResults().get(1).getAssignmentCode()).startsWith("CH01-JD-");
+        // One batch of assignments, one of legacy user-role links.
+        verify(bulkImporter, times(2)).persist(argThat(entities -> entities.size() == 1));
+    }
+
+    @Test
+    void bulkImportAssignments_conflictWithoutSkipWritesNothing() {
+        when(bulkImporter.plan(any(), any())).thenReturn(new UserRoleAssignmentBulkImporter.Plan(2,
+            List.of(new UserRoleAssignmentBulkImporter.ResolvedRow(2, "jdoe", assignee, role, hospital, null, false, null)),
+            List.of(new UserRoleAssignmentBulkImporter.RejectedRow(3, "jdoe", true, "Role already assigned")),
+            Set.of()));
+        UserRoleAssignmentBulkImportRequestDTO request = UserRoleAssignmentBulkImportRequestDTO.builder()
+            .csvContent("email,role_name\n")
+            .skipConflicts(false)
+            .build();
+
+        assertThatThrownBy(() -> service.bulkImportAssignments(request))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("Role already assigned");
+        verify(bulkImporter, never()).persist(any());
+    }
 }
@@ -0,0 +1,123 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.enums.AuditEventType;
+import com.example.hms.enums.AuditStatus;
+import com.example.hms.enums.OrganizationType;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Organization;
+import com.example.hms.model.Patient;
+import com.example.hms.model.User;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.security.EncryptionKeyHolder;
+import com.example.hms.security.context.HospitalContextHolder;
+import com.example.hms.security.tenant.TenantContextAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The batch writer runs on the audit flusher thread, which never has a
+ * {@code HospitalContext}; PATIENT resource names must still resolve
+ * against the real, tenant-scoped {@link PatientRepository}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TenantContextAccessor.class, EncryptionKeyHolder.class})
+class AuditEventBatchWriterTenantScopeTest {
+
+    // column positions in AuditEventBatchWriter.INSERT_SQL
+    private static final int RESOURCE_NAME = 18;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        HospitalContextHolder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        HospitalContextHolder.clear();
+    }
+
+    @Test
+    void patientNamesResolveWithoutHospitalContext() {
+        Organization organization = entityManager.persist(Organization.builder()
+            .name("Org One")
+            .code("ORG-ONE")
+            .type(OrganizationType.HOSPITAL_CHAIN)
+            .build());
+        Hospital hospital = entityManager.persist(Hospital.builder()
+            .name("Primary Hospital")
+            .code("PRIM-HOSP")
+            .address("123 Primary Way")
+            .city("Ouagadougou")
+            .country("BF")
+            .organization(organization)
+            .build());
+        User user = entityManager.persist(User.builder()
+            .username("audit-patient-user")
+            .passwordHash("hashed-secret")
+            .email("salimata@example.com")
+            .phoneNumber("+22670000001")
+            .firstName("Salimata")
+            .lastName("Ouedraogo")
+            .build());
+        Patient patient = entityManager.persist(Patient.builder()
+            .firstName("Salimata")
+            .lastName("Ouedraogo")
+            .dateOfBirth(LocalDate.of(1988, 6, 3))
+            .gender("FEMALE")
+            .address("123 Primary Way")
+            .phoneNumberPrimary("+22670000001")
+            .email("salimata@example.com")
+            .user(user)
+            .hospitalId(hospital.getId())
+            .organizationId(organization.getId())
+            .active(true)
+            .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AuditPrincipalCache principals = mock(AuditPrincipalCache.class);
+        when(principals.usersById(any())).thenReturn(Map.of());
+        when(principals.assignmentsById(any())).thenReturn(Map.of());
+        AuditEventBatchWriter writer = new AuditEventBatchWriter(jdbcTemplate, principals, patientRepository,
+            mock(PlatformTransactionManager.class));
+
+        writer.write(List.of(new PendingAuditEvent(UUID.randomUUID(), LocalDateTime.now(), null, null, null,
+            null, null, AuditEventType.PATIENT_EXPORT, "exported", null, AuditStatus.SUCCESS, null,
+            patient.getId().toString(), null, "PATIENT", null, null)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuditEventBatchWriter.INSERT_SQL), rows.capture());
+        assertThat(rows.getValue().get(0)[RESOURCE_NAME]).isEqualTo("Salimata Ouedraogo");
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.enums.AuditEventType;
+import com.example.hms.enums.AuditStatus;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.service.audit.AuditPrincipalCache.AssignmentSnapshot;
+import com.example.hms.service.audit.AuditPrincipalCache.PrincipalSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Row resolution of the batched audit writer: the same actor / role /
+ * hospital / resource-name rules as the synchronous {@code logEvent}, with
+ * one lookup per kind of miss for the whole batch.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditEventBatchWriterTest {
+
+    // column positions in AuditEventBatchWriter.INSERT_SQL
+    private static final int USER_ID = 4;
+    private static final int ASSIGNMENT_ID = 5;
+    private static final int ACTOR_TYPE = 6;
+    private static final int ACTOR_LABEL = 7;
+    private static final int ROLE_NAME = 9;
+    private static final int HOSPITAL_NAME = 10;
+    private static final int RESOURCE_ID = 16;
+    private static final int RESOURCE_NAME = 18;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private AuditPrincipalCache principals;
+    @Mock private PatientRepository patientRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private AuditEventBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new AuditEventBatchWriter(jdbcTemplate, principals, patientRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("user events take label, role and hospital from the cached principal and assignment")
+    void write_resolvesUserAndAssignment() {
+        UUID userId = UUID.randomUUID();
+        UUID assignmentId = UUID.randomUUID();
+        when(principals.usersById(Set.of(userId)))
+            .thenReturn(Map.of(userId, new PrincipalSnapshot(userId, "Ada Nurse", "ROLE_NURSE")));
+        when(principals.assignmentsById(Set.of(assignmentId)))
+            .thenReturn(Map.of(assignmentId, new AssignmentSnapshot(assignmentId, userId, "General", "Charge Nurse")));
+
+        writer.write(List.of(
+            event(userId, assignmentId, "USER", "r1", null),
+            event(userId, assignmentId, "USER", "r2", null)));
+
+        List<Object[]> rows = insertedRows();
+        assertThat(rows).hasSize(2);
+        Object[] row = rows.get(0);
+        assertThat(row[USER_ID]).isEqualTo(userId);
+        assertThat(row[ASSIGNMENT_ID]).isEqualTo(assignmentId);
+        assertThat(row[ACTOR_TYPE]).isEqualTo("USER");
+        assertThat(row[ACTOR_LABEL]).isEqualTo("Ada Nurse");
+        assertThat(row[ROLE_NAME]).isEqualTo("Charge Nurse");
+        assertThat(row[HOSPITAL_NAME]).isEqualTo("General");
+        verify(principals, times(1)).usersById(anyCollection());
+    }
+
+    @Test
+    @DisplayName("an assignment belonging to another user is dropped; role falls back to the user's default")
+    void write_assignmentMismatch_dropped() {
+        UUID userId = UUID.randomUUID();
+        UUID assignmentId = UUID.randomUUID();
+        when(principals.usersById(Set.of(userId)))
+            .thenReturn(Map.of(userId, new PrincipalSnapshot(userId, "Ada Nurse", "ROLE_NURSE")));
+        when(principals.assignmentsById(Set.of(assignmentId))).thenReturn(Map.of(assignmentId,
+            new AssignmentSnapshot(assignmentId, UUID.randomUUID(), "Elsewhere", "Admin")));
+
+        writer.write(List.of(event(userId, assignmentId, "USER", "r1", null)));
+
+        Object[] row = insertedRows().get(0);
+        assertThat(row[ASSIGNMENT_ID]).isNull();
+        assertThat(row[ROLE_NAME]).isEqualTo("ROLE_NURSE");
+        assertThat(row[HOSPITAL_NAME]).isNull();
+    }
+
+    @Test
+    @DisplayName("PATIENT names are loaded with one query per batch; unknown actors are SYSTEM")
+    void write_patientNamesBatched() {
+        UUID p1 = UUID.randomUUID();
+        UUID p2 = UUID.randomUUID();
+        when(principals.usersById(any())).thenReturn(Map.of());
+        when(principals.assignmentsById(any())).thenReturn(Map.of());
+        when(patientRepository.findNameTuplesByIdInUnscoped(Set.of(p1, p2)))
+            .thenReturn(List.<Object[]>of(new Object[] {p1, "Jane", null, "Doe"}));
+
+        writer.write(List.of(
+            event(null, null, "PATIENT", p1.toString(), null),
+            event(null, null, "PATIENT", p2.toString(), null),
+            event(null, null, "PATIENT", "not-a-uuid", null),
+            event(null, null, "PATIENT", null, null)));
+
+        List<Object[]> rows = insertedRows();
+        assertThat(rows.get(0)[RESOURCE_NAME]).isEqualTo("Jane Doe");
+        assertThat(rows.get(1)[RESOURCE_NAME]).isEqualTo(p2.toString());
+        assertThat(rows.get(2)[RESOURCE_NAME]).isEqualTo(AuditEventBatchWriter.UNKNOWN_RESOURCE);
+        assertThat(rows.get(3)[RESOURCE_ID]).isEqualTo(AuditEventBatchWriter.UNKNOWN_RESOURCE);
+        assertThat(rows.get(0)[ACTOR_TYPE]).isEqualTo("SYSTEM");
+        assertThat(rows.get(0)[ACTOR_LABEL]).isEqualTo("SYSTEM");
+        assertThat(rows.get(0)[ROLE_NAME]).isEqualTo(AuditEventBatchWriter.UNKNOWN_ROLE);
+    }
+
+    @Test
+    @DisplayName("empty batches touch nothing")
+    void write_empty_noop() {
+        writer.write(List.of());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> insertedRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuditEventBatchWriter.INSERT_SQL), rows.capture());
+        return rows.getValue();
+    }
+
+    private static PendingAuditEvent event(UUID userId, UUID assignmentId, String entityType,
+                                           String resourceId, String resourceName) {
+        return new PendingAuditEvent(UUID.randomUUID(), LocalDateTime.now(), userId, null, assignmentId,
+            null, null, AuditEventType.PATIENT_EXPORT, "viewed", null, AuditStatus.SUCCESS, null,
+            resourceId, resourceName, entityType, null, null);
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.enums.AuditEventType;
+import com.example.hms.enums.AuditStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buffering, backpressure, failure handling and spill replay of the
+ * asynchronous audit write path, against a stubbed batch writer.
+ */
+class AuditEventSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AuditEventBatchWriter writer = mock(AuditEventBatchWriter.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<List<PendingAuditEvent>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private static final String INSTANCE_ID = "node-a";
+
+    @TempDir
+    Path spillDir;
+
+    private AuditEventSink sink;
+
+    @AfterEach
+    void tearDown() {
+        if (sink != null) sink.stop();
+    }
+
+    @Test
+    @DisplayName("buffered events reach the writer in batches, off the caller's thread")
+    void submit_flushesInBatches() {
+        recordBatches();
+        sink = start(properties(AuditSinkProperties.Durability.MEMORY, 100, 3));
+
+        for (int i = 0; i < 7; i++) sink.submit(event("e" + i));
+
+        awaitWritten(7);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(batches.stream().flatMap(List::stream).map(PendingAuditEvent::resourceId))
+            .containsExactly("e0", "e1", "e2", "e3", "e4", "e5", "e6");
+        assertThat(counter("queued")).isEqualTo(7);
+        assertThat(counter("written")).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("a full buffer makes the caller write its own event synchronously")
+    void submit_fullBuffer_writesOnCallerThread() throws InterruptedException {
+        CountDownLatch flusherBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> callerWrites = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            List<PendingAuditEvent> batch = inv.getArgument(0);
+            if ("audit-sink".equals(Thread.currentThread().getName())) {
+                flusherBusy.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } else {
+                batch.forEach(e -> callerWrites.add(e.resourceId()));
+            }
+            batches.add(batch);
+            return null;
+        }).when(writer).write(anyList());
+        sink = start(properties(AuditSinkProperties.Durability.MEMORY, 1, 1));
+
+        sink.submit(event("in-flight"));
+        assertThat(flusherBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        sink.submit(event("buffered"));
+        sink.submit(event("overflow"));
+
+        assertThat(callerWrites).containsExactly("overflow");
+        assertThat(counter("overflow")).isEqualTo(1);
+        release.countDown();
+        awaitWritten(3);
+    }
+
+    @Test
+    @DisplayName("disabled sink writes synchronously")
+    void submit_disabled_writesSynchronously() {
+        recordBatches();
+        AuditSinkProperties properties = properties(AuditSinkProperties.Durability.MEMORY, 100, 10);
+        properties.setEnabled(false);
+        sink = start(properties);
+
+        sink.submit(event("now"));
+
+        assertThat(batches).hasSize(1);
+        assertThat(counter("sync")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a rejected batch is retried row by row and only the bad row is dropped")
+    void flush_poisonRow_droppedAlone() {
+        doAnswer(inv -> {
+            List<PendingAuditEvent> batch = inv.getArgument(0);
+            if (batch.stream().anyMatch(e -> "bad".equals(e.resourceId()))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            batches.add(batch);
+            return null;
+        }).when(writer).write(anyList());
+        sink = start(properties(AuditSinkProperties.Durability.MEMORY, 100, 10));
+
+        sink.submit(event("a"));
+        sink.submit(event("bad"));
+        sink.submit(event("b"));
+
+        awaitWritten(2);
+        await(() -> counter("dropped") == 1);
+        assertThat(batches.stream().flatMap(List::stream).map(PendingAuditEvent::resourceId))
+            .containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    @DisplayName("a connectivity failure retries the whole batch instead of dropping it")
+    void flush_transientFailure_retried() {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(inv -> {
+            if (attempts.getAndIncrement() == 0) throw new QueryTimeoutException("db busy");
+            batches.add(inv.getArgument(0));
+            return null;
+        }).when(writer).write(anyList());
+        sink = start(properties(AuditSinkProperties.Durability.MEMORY, 100, 10));
+
+        sink.submit(event("a"));
+
+        awaitWritten(1);
+        assertThat(counter("dropped")).isZero();
+    }
+
+    @Test
+    @DisplayName("a non-data failure such as an NPE is also split row by row instead of retried forever")
+    void flush_unexpectedFailure_droppedAlone() {
+        doAnswer(inv -> {
+            List<PendingAuditEvent> batch = inv.getArgument(0);
+            if (batch.stream().anyMatch(e -> "bad".equals(e.resourceId()))) {
+                throw new NullPointerException("details");
+            }
+            batches.add(batch);
+            return null;
+        }).when(writer).write(anyList());
+        sink = start(properties(AuditSinkProperties.Durability.MEMORY, 100, 10));
+
+        sink.submit(event("a"));
+        sink.submit(event("bad"));
+        sink.submit(event("b"));
+
+        awaitWritten(2);
+        await(() -> counter("dropped") == 1);
+        assertThat(batches.stream().flatMap(List::stream).map(PendingAuditEvent::resourceId))
+            .containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    @DisplayName("a batch still failing after maxRetries connectivity retries is written row by row")
+    void flush_transientFailure_givesUpAfterMaxRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(inv -> {
+            attempts.incrementAndGet();
+            throw new QueryTimeoutException("db down");
+        }).when(writer).write(anyList());
+        AuditSinkProperties properties = properties(AuditSinkProperties.Durability.MEMORY, 100, 10);
+        properties.setMaxRetries(1);
+        sink = start(properties);
+
+        sink.submit(event("a"));
+        sink.submit(event("b"));
+
+        await(() -> counter("dropped") == 2);
+        // first attempt, one retry, then one attempt per row
+        assertThat(attempts.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("a relative spill directory is refused and events stay in memory")
+    void spill_relativeDir_bufferedInMemory() {
+        recordBatches();
+        AuditSinkProperties properties = properties(AuditSinkProperties.Durability.SPILL, 100, 10);
+        properties.setSpillDir("data/audit-spill");
+        sink = start(properties);
+
+        sink.submit(event("a"));
+
+        awaitWritten(1);
+        assertThat(Path.of("data/audit-spill")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("committed events leave no spill data behind")
+    void spill_committedSegmentsAreEmptied() throws Exception {
+        recordBatches();
+        sink = start(properties(AuditSinkProperties.Durability.SPILL, 100, 2));
+
+        for (int i = 0; i < 4; i++) sink.submit(event("s" + i));
+
+        awaitWritten(4);
+        await(() -> spillBytes() == 0);
+        sink.stop();
+        sink = null;
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).containsExactly(spillDir.resolve(INSTANCE_ID));
+        }
+        try (Stream<Path> files = Files.list(spillDir.resolve(INSTANCE_ID))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("segments left by a crashed run are replayed idempotently and deleted")
+    void spill_replayedOnStart() throws Exception {
+        AuditSpillJournal crashed = new AuditSpillJournal(spillDir.resolve(INSTANCE_ID), 1 << 20, objectMapper);
+        crashed.append(1, event("lost-1"));
+        crashed.append(2, event("lost-2"));
+        // no committedThrough / close: the JVM died here
+        AuditSpillJournal otherNode = new AuditSpillJournal(spillDir.resolve("node-b"), 1 << 20, objectMapper);
+        otherNode.append(1, event("not-mine"));
+        Path leftover;
+        try (Stream<Path> files = Files.list(spillDir.resolve(INSTANCE_ID))) {
+            leftover = files.findFirst().orElseThrow();
+        }
+        List<PendingAuditEvent> replayed = Collections.synchronizedList(new ArrayList<>());
+        when(writer.writeIfAbsent(anyList())).thenAnswer(inv -> {
+            List<PendingAuditEvent> events = inv.getArgument(0);
+            replayed.addAll(events);
+            return events.size();
+        });
+
+        sink = start(properties(AuditSinkProperties.Durability.SPILL, 100, 10));
+
+        await(() -> replayed.size() == 2);
+        assertThat(replayed).extracting(PendingAuditEvent::resourceId).containsExactly("lost-1", "lost-2");
+        await(() -> !Files.exists(leftover));
+        assertThat(counter("replayed")).isEqualTo(2);
+        assertThat(spillDir.resolve("node-b")).isNotEmptyDirectory();
+    }
+
+    private void recordBatches() {
+        doAnswer(inv -> {
+            batches.add(inv.getArgument(0));
+            return null;
+        }).when(writer).write(anyList());
+    }
+
+    private AuditEventSink start(AuditSinkProperties properties) {
+        AuditEventSink started = new AuditEventSink(writer, properties, objectMapper, registry);
+        started.start();
+        return started;
+    }
+
+    private AuditSinkProperties properties(AuditSinkProperties.Durability durability, int capacity, int batchSize) {
+        AuditSinkProperties properties = new AuditSinkProperties();
+        properties.setDurability(durability);
+        properties.setCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        properties.setFlushIntervalMs(20);
+        properties.setSpillDir(spillDir.toString());
+        properties.setInstanceId(INSTANCE_ID);
+        return properties;
+    }
+
+    private static PendingAuditEvent event(String resourceId) {
+        return new PendingAuditEvent(UUID.randomUUID(), LocalDateTime.now(), null, "SYSTEM", null, null, null,
+            AuditEventType.DATA_EXPORT, "test event", null, AuditStatus.SUCCESS, null,
+            resourceId, null, "TEST", null, null);
+    }
+
+    private double counter(String outcome) {
+        var counter = registry.find(AuditEventSink.METRIC_EVENTS).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long spillBytes() {
+        try (Stream<Path> files = Files.list(spillDir.resolve(INSTANCE_ID))) {
+            return files.mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    private void awaitWritten(int events) {
+        await(() -> batches.stream().mapToInt(List::size).sum() >= events);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("condition not met within 5s");
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(ex);
+            }
+        }
+    }
+}
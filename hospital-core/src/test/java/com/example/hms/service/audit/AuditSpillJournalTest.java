@@ -0,0 +1,87 @@
+package com.example.hms.service.audit;
+
+import com.example.hms.enums.AuditEventType;
+import com.example.hms.enums.AuditStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditSpillJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("segments roll over by size and are deleted once committed")
+    void committedThrough_deletesClosedSegmentsAndTruncatesActive() throws IOException {
+        AuditSpillJournal journal = new AuditSpillJournal(dir, 4096, objectMapper);
+        for (long seq = 1; seq <= 40; seq++) journal.append(seq, event("r" + seq));
+        assertThat(segments()).hasSizeGreaterThan(1);
+
+        journal.committedThrough(20);
+        long halfway = journal.pendingBytes();
+        assertThat(halfway).isPositive();
+
+        journal.committedThrough(40);
+        assertThat(journal.pendingBytes()).isZero();
+        assertThat(segments()).hasSize(1);
+
+        journal.close();
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a new journal lists an earlier run's segments for replay and round-trips events")
+    void recoverableSegments_roundTrip() throws IOException {
+        AuditSpillJournal crashed = new AuditSpillJournal(dir, 1 << 20, objectMapper);
+        PendingAuditEvent first = event("a");
+        crashed.append(1, first);
+        crashed.append(2, event("b"));
+
+        AuditSpillJournal next = new AuditSpillJournal(dir, 1 << 20, objectMapper);
+
+        assertThat(next.recoverableSegments()).hasSize(1);
+        List<PendingAuditEvent> events = AuditSpillJournal.read(next.recoverableSegments().get(0), objectMapper);
+        assertThat(events).extracting(PendingAuditEvent::resourceId).containsExactly("a", "b");
+        assertThat(events.get(0)).isEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("a torn last line is skipped, not fatal")
+    void read_skipsTornLine() throws IOException {
+        AuditSpillJournal crashed = new AuditSpillJournal(dir, 1 << 20, objectMapper);
+        crashed.append(1, event("whole"));
+        Path segment = segments().get(0);
+        Files.writeString(segment, "{\"id\":\"1234", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(AuditSpillJournal.read(segment, objectMapper))
+            .extracting(PendingAuditEvent::resourceId).containsExactly("whole");
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static PendingAuditEvent event(String resourceId) {
+        return new PendingAuditEvent(UUID.randomUUID(), LocalDateTime.of(2026, 10, 1, 9, 30), UUID.randomUUID(),
+            null, null, "Nurse", "General Hospital", AuditEventType.DATA_EXPORT, "exported", "10.0.0.1",
+            AuditStatus.SUCCESS, "{\"k\":1}", resourceId, null, "PATIENT", null, null);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.hms.service.empi;
+
+import com.example.hms.empi.probabilistic.EmpiProbabilisticProperties;
+import com.example.hms.enums.empi.EmpiDedupJobStatus;
+import com.example.hms.enums.empi.EmpiDuplicateReviewStatus;
+import com.example.hms.enums.empi.EmpiMergeType;
+import com.example.hms.exception.BusinessException;
+import com.example.hms.model.empi.EmpiDedupJob;
+import com.example.hms.model.empi.EmpiDuplicateCandidate;
+import com.example.hms.payload.dto.empi.EmpiDuplicatePairResponseDTO;
+import com.example.hms.payload.dto.empi.EmpiDuplicateResolutionRequestDTO;
+import com.example.hms.repository.PatientRepository;
+import com.example.hms.repository.empi.EmpiBlockingKeyRepository;
+import com.example.hms.repository.empi.EmpiDedupJobRepository;
+import com.example.hms.repository.empi.EmpiDuplicateCandidateRepository;
+import com.example.hms.utility.RoleValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Job lifecycle of the batch deduplication scan: claim, checkpoint/resume
+ * and cancellation are all optimistic-version races against the job row,
+ * so each is pinned here against repository mocks. Transactions are no-ops
+ * (a mocked {@link PlatformTransactionManager}).
+ */
+@ExtendWith(MockitoExtension.class)
+class EmpiDeduplicationServiceImplTest {
+
+    private static final UUID HOSPITAL_ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final LocalDate DOB = LocalDate.of(1990, 4, 12);
+
+    @Mock private EmpiDedupJobRepository jobRepository;
+    @Mock private EmpiDuplicateCandidateRepository candidateRepository;
+    @Mock private EmpiBlockingKeyRepository blockingKeyRepository;
+    @Mock private PatientRepository patientRepository;
+    @Mock private EmpiService empiService;
+    @Mock private RoleValidator roleValidator;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private EmpiDeduplicationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        EmpiProbabilisticProperties properties = new EmpiProbabilisticProperties();
+        properties.setEnabled(true);
+        properties.setDedupKeysPerCheckpoint(2);
+        properties.setDedupParallelism(1);
+        service = new EmpiDeduplicationServiceImpl(properties, jobRepository, candidateRepository,
+            blockingKeyRepository, patientRepository, empiService, roleValidator, transactionManager, null);
+    }
+
+    @Test
+    @DisplayName("a resumed job continues after its checkpoint instead of rescoring completed blocks")
+    void resumedRunSkipsCompletedBlocks() {
+        EmpiDedupJob job = job(EmpiDedupJobStatus.RUNNING);
+        job.setCheckpointKey("LG:dia");
+        job.setProcessedBlocks(7);
+        job.setHeartbeatAt(LocalDateTime.now().minusHours(1));
+        UUID fatou = UUID.randomUUID();
+        UUID fatoumata = UUID.randomUUID();
+        when(jobRepository.findClaimable(any())).thenReturn(List.of(job));
+        when(jobRepository.save(job)).thenReturn(job);
+        when(blockingKeyRepository.findKeyValuesAfter(eq(HOSPITAL_ID), eq("LG:dia"), any(Pageable.class)))
+            .thenReturn(List.of("LP:D400"));
+        when(blockingKeyRepository.findBlockMembers(HOSPITAL_ID, List.of("LP:D400")))
+            .thenReturn(List.of(new Object[] {"LP:D400", fatou}, new Object[] {"LP:D400", fatoumata}));
+        when(patientRepository.findEmpiMatchTuplesByIds(anyCollection())).thenReturn(List.of(
+            new Object[] {fatou, "Fatou", "Diallo", DOB, "F"},
+            new Object[] {fatoumata, "Fatoumata", "Dyalo", DOB, "F"}));
+        when(blockingKeyRepository.countBlockMembersByYear(eq(HOSPITAL_ID), anyCollection())).thenReturn(List.of());
+
+        assertThat(service.runPendingJobs()).isEqualTo(1);
+
+        verify(blockingKeyRepository, never()).findKeyValuesAfter(eq(HOSPITAL_ID), eq(""), any(Pageable.class));
+        assertThat(job.getStatus()).isEqualTo(EmpiDedupJobStatus.COMPLETED);
+        assertThat(job.getCheckpointKey()).isEqualTo("LP:D400");
+        assertThat(job.getProcessedBlocks()).isEqualTo(8);
+        assertThat(job.getScoredPairs()).isEqualTo(1);
+        verify(empiService).publishDuplicateScanCompleted(eq(job.getId()), eq(HOSPITAL_ID), anyLong());
+    }
+
+    @Test
+    @DisplayName("a job cancelled mid-scan stops at its next checkpoint without completing")
+    void cancelledRunStopsAtNextCheckpoint() {
+        EmpiDedupJob job = job(EmpiDedupJobStatus.QUEUED);
+        when(jobRepository.findClaimable(any())).thenReturn(List.of(job));
+        // Claim succeeds; the cancel then bumps the version, so the first checkpoint conflicts.
+        when(jobRepository.save(job)).thenReturn(job)
+            .thenThrow(new OptimisticLockingFailureException("cancelled"));
+        when(blockingKeyRepository.findKeyValuesAfter(eq(HOSPITAL_ID), eq(""), any(Pageable.class)))
+            .thenReturn(List.of("FP:A000", "FP:A500"));
+        when(blockingKeyRepository.findBlockMembers(HOSPITAL_ID, List.of("FP:A000", "FP:A500")))
+            .thenReturn(List.of());
+
+        assertThat(service.runPendingJobs()).isZero();
+
+        verify(blockingKeyRepository, times(1)).findKeyValuesAfter(any(), any(), any(Pageable.class));
+        verify(jobRepository, times(2)).save(job);
+        verify(empiService, never()).publishDuplicateScanCompleted(any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("cancelling a finished job is refused")
+    void cancelFinishedJobRefused() {
+        EmpiDedupJob job = job(EmpiDedupJobStatus.COMPLETED);
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(roleValidator.requireActiveHospitalId()).thenReturn(HOSPITAL_ID);
+
+        assertThatThrownBy(() -> service.cancelJob(job.getId())).isInstanceOf(BusinessException.class);
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("a second worker losing the claim race never scans the job")
+    void concurrentSecondClaimRefused() {
+        EmpiDedupJob job = job(EmpiDedupJobStatus.QUEUED);
+        when(jobRepository.findClaimable(any())).thenReturn(List.of(job));
+        when(jobRepository.save(job)).thenThrow(new OptimisticLockingFailureException("claimed elsewhere"));
+
+        assertThat(service.runPendingJobs()).isZero();
+
+        verify(blockingKeyRepository, never()).findKeyValuesAfter(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("merge decision keeps the chosen primary and records the reviewer")
+    void resolvePairMergesIntoPrimary() {
+        EmpiDuplicateCandidate pair = pendingPair();
+        when(candidateRepository.findById(pair.getId())).thenReturn(Optional.of(pair));
+        when(candidateRepository.save(pair)).thenReturn(pair);
+        when(roleValidator.requireActiveHospitalId()).thenReturn(HOSPITAL_ID);
+        when(roleValidator.getCurrentUserId()).thenReturn(USER_ID);
+        EmpiDuplicateResolutionRequestDTO request = new EmpiDuplicateResolutionRequestDTO();
+        request.setDecision(EmpiDuplicateReviewStatus.MERGED);
+        request.setPrimaryPatientId(pair.getPatientBId());
+        request.setNotes("same mother, same village");
+
+        EmpiDuplicatePairResponseDTO result = service.resolvePair(pair.getId(), request);
+
+        verify(empiService).mergePatients(pair.getPatientBId(), pair.getPatientAId(),
+            EmpiMergeType.DATA_CLEANUP, "same mother, same village");
+        assertThat(result.getReviewStatus()).isEqualTo(EmpiDuplicateReviewStatus.MERGED);
+        assertThat(result.getReviewedBy()).isEqualTo(USER_ID);
+        assertThat(result.getReviewedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("a primary outside the pair and an already-resolved pair are both refused")
+    void resolvePairRejectsInvalidRequests() {
+        EmpiDuplicateCandidate pair = pendingPair();
+        when(candidateRepository.findById(pair.getId())).thenReturn(Optional.of(pair));
+        when(roleValidator.requireActiveHospitalId()).thenReturn(HOSPITAL_ID);
+        EmpiDuplicateResolutionRequestDTO request = new EmpiDuplicateResolutionRequestDTO();
+        request.setDecision(EmpiDuplicateReviewStatus.MERGED);
+        request.setPrimaryPatientId(UUID.randomUUID());
+
+        assertThatThrownBy(() -> service.resolvePair(pair.getId(), request)).isInstanceOf(BusinessException.class);
+
+        pair.setReviewStatus(EmpiDuplicateReviewStatus.NOT_DUPLICATE);
+        request.setPrimaryPatientId(pair.getPatientAId());
+        assertThatThrownBy(() -> service.resolvePair(pair.getId(), request)).isInstanceOf(BusinessException.class);
+        verify(empiService, never()).mergePatients(any(), any(), any(), any());
+        verify(candidateRepository, never()).save(any());
+    }
+
+    private static EmpiDedupJob job(EmpiDedupJobStatus status) {
+        EmpiDedupJob job = EmpiDedupJob.builder()
+            .hospitalId(HOSPITAL_ID)
+            .status(status)
+            .build();
+        job.setId(UUID.randomUUID());
+        return job;
+    }
+
+    private static EmpiDuplicateCandidate pendingPair() {
+        EmpiDuplicateCandidate pair = EmpiDuplicateCandidate.builder()
+            .jobId(UUID.randomUUID())
+            .hospitalId(HOSPITAL_ID)
+            .patientAId(UUID.randomUUID())
+            .patientBId(UUID.randomUUID())
+            .score(0.71)
+            .build();
+        pair.setId(UUID.randomUUID());
+        return pair;
+    }
+}
@@ -6,9 +6,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -81,13 +83,17 @@ import com.example.hms.repository.PrescriptionRepository;
 import com.example.hms.repository.ProcedureOrderRepository;
 import com.example.hms.repository.StaffRepository;
 import com.example.hms.repository.UserRepository;
+import com.example.hms.service.NurseBoardCache;
 import com.example.hms.service.NurseDashboardService;
 import com.example.hms.service.emar.FiveRightsVerificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -125,6 +131,7 @@ class NurseTaskServiceImplTest {
     private NurseTaskServiceImpl service;
     private final FiveRightsVerificationService fiveRightsService = new FiveRightsVerificationService();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NurseBoardCache boardCache = new NurseBoardCache(0, Duration.ZERO, null, null);
 
     @BeforeEach
     void setUp() {
@@ -134,7 +141,7 @@ class NurseTaskServiceImplTest {
             admissionRepository, encounterRepository, patientRepository, nursingTaskRepository,
             nursingNoteRepository, notificationRepository, userRepository,
             nurseHandoffRepository, labOrderRepository, imagingOrderRepository, procedureOrderRepository,
-            fiveRightsService, objectMapper));
+            fiveRightsService, objectMapper, boardCache));
 
         // Default stubs so synthetic/fallback paths activate in existing tests
         lenient().when(vitalSignRepository.findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(any(), any()))
@@ -1208,25 +1215,17 @@ class NurseTaskServiceImplTest {
             .thenReturn(List.of(patient(patientId, "Summary Pat", "Summary", "Pat")));
 
         // Patient has no vitals → should count as vitalsDue=1
-        when(vitalSignRepository.findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(patientId, hospitalId))
-            .thenReturn(Optional.empty());
+        when(vitalSignRepository.findLatestRecordedAtByPatient(hospitalId, Set.of(patientId)))
+            .thenReturn(List.of());
 
         // One active prescription that's DUE
-        Patient mockPatient = mock(Patient.class);
-        when(mockPatient.getId()).thenReturn(patientId);
-        Hospital mockHospital = mock(Hospital.class);
-        when(mockHospital.getId()).thenReturn(hospitalId);
-
         Prescription rx = mock(Prescription.class);
-        lenient().when(rx.getId()).thenReturn(UUID.randomUUID());
-        when(rx.getPatient()).thenReturn(mockPatient);
-        when(rx.getHospital()).thenReturn(mockHospital);
-        when(rx.getStatus()).thenReturn(PrescriptionStatus.SIGNED);
+        when(rx.getId()).thenReturn(UUID.randomUUID());
         when(rx.getCreatedAt()).thenReturn(fixedNow.minusHours(1));
 
-        when(prescriptionRepository.findByPatient_IdAndHospital_Id(patientId, hospitalId))
+        when(prescriptionRepository.findByHospital_IdAndPatient_IdInAndStatusIn(eq(hospitalId), eq(Set.of(patientId)), any()))
             .thenReturn(List.of(rx));
-        when(marRepository.findByPatient_IdAndHospital_IdAndStatus(eq(patientId), eq(hospitalId), any()))
+        when(marRepository.findPrescriptionIdsWithStatus(eq(hospitalId), any(), eq(MedicationAdministrationStatus.GIVEN)))
             .thenReturn(List.of());
         when(announcementRepository.countByHospital_Id(hospitalId)).thenReturn(3L);
 
@@ -1254,25 +1253,16 @@ class NurseTaskServiceImplTest {
             .thenReturn(List.of(patient(patientId, "Multi Pat", "Multi", "Pat")));
 
         // Vitals recorded recently — not overdue
-        PatientVitalSign vs = PatientVitalSign.builder().recordedAt(fixedNow.minusHours(1)).build();
-        when(vitalSignRepository.findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(patientId, hospitalId))
-            .thenReturn(Optional.of(vs));
-
-        Patient mockPatient = mock(Patient.class);
-        when(mockPatient.getId()).thenReturn(patientId);
-        Hospital mockHospital = mock(Hospital.class);
-        when(mockHospital.getId()).thenReturn(hospitalId);
+        when(vitalSignRepository.findLatestRecordedAtByPatient(hospitalId, Set.of(patientId)))
+            .thenReturn(List.<Object[]>of(new Object[]{patientId, fixedNow.minusHours(1)}));
 
         Prescription overdueRx = mock(Prescription.class);
-        lenient().when(overdueRx.getId()).thenReturn(UUID.randomUUID());
-        when(overdueRx.getPatient()).thenReturn(mockPatient);
-        when(overdueRx.getHospital()).thenReturn(mockHospital);
-        when(overdueRx.getStatus()).thenReturn(PrescriptionStatus.SIGNED);
+        when(overdueRx.getId()).thenReturn(UUID.randomUUID());
         when(overdueRx.getCreatedAt()).thenReturn(fixedNow.minusHours(8)); // overdue
 
-        when(prescriptionRepository.findByPatient_IdAndHospital_Id(patientId, hospitalId))
+        when(prescriptionRepository.findByHospital_IdAndPatient_IdInAndStatusIn(eq(hospitalId), eq(Set.of(patientId)), any()))
             .thenReturn(List.of(overdueRx));
-        when(marRepository.findByPatient_IdAndHospital_IdAndStatus(eq(patientId), eq(hospitalId), any()))
+        when(marRepository.findPrescriptionIdsWithStatus(eq(hospitalId), any(), eq(MedicationAdministrationStatus.GIVEN)))
             .thenReturn(List.of());
         when(announcementRepository.countByHospital_Id(hospitalId)).thenReturn(0L);
 
@@ -1288,6 +1278,96 @@ class NurseTaskServiceImplTest {
         }
     }
 
+    @Test
+    void getDashboardSummaryQueryCountDoesNotGrowWithWardSize() {
+        UUID hospitalId = UUID.randomUUID();
+
+        int smallWard = dashboardQueryCount(hospitalId, 4);
+        int fortyBeds = dashboardQueryCount(hospitalId, 40);
+
+        assertThat(fortyBeds).isEqualTo(smallWard);
+        // scope, vitals, prescriptions, MAR, three order tables, handoffs, announcements
+        assertThat(fortyBeds).isEqualTo(9);
+    }
+
+    @Test
+    void getWorkboardQueryCountDoesNotGrowWithWardSize() {
+        UUID hospitalId = UUID.randomUUID();
+
+        assertThat(workboardQueryCount(hospitalId, 40)).isEqualTo(workboardQueryCount(hospitalId, 4));
+    }
+
+    /** Repository/service calls made by one dashboard load over a ward of {@code beds} patients, each with one active prescription. */
+    private int dashboardQueryCount(UUID hospitalId, int beds) {
+        UUID nurseId = UUID.randomUUID();
+        List<PatientResponseDTO> ward = new ArrayList<>();
+        for (int i = 0; i < beds; i++) {
+            ward.add(patient(UUID.randomUUID(), "Bed " + i, "Bed", String.valueOf(i)));
+        }
+        when(nurseDashboardService.getPatientsForNurse(nurseId, hospitalId, null)).thenReturn(ward);
+        stubOnePrescriptionPerPatient(hospitalId);
+        clearInvocations(queryMocks());
+
+        NurseDashboardSummaryDTO summary = service.getDashboardSummary(nurseId, hospitalId);
+
+        assertThat(summary.getAssignedPatients()).isEqualTo(beds);
+        assertThat(summary.getVitalsDue()).isEqualTo(beds);
+        assertThat(summary.getMedicationsDue() + summary.getMedicationsOverdue()).isEqualTo(beds);
+        return invocationCount();
+    }
+
+    private int workboardQueryCount(UUID hospitalId, int beds) {
+        List<Admission> admissions = new ArrayList<>();
+        for (int i = 0; i < beds; i++) {
+            Patient pat = Patient.builder().firstName("Bed").lastName(String.valueOf(i)).build();
+            pat.setId(UUID.randomUUID());
+            Admission adm = new Admission();
+            adm.setId(UUID.randomUUID());
+            adm.setPatient(pat);
+            adm.setStatus(AdmissionStatus.ACTIVE);
+            admissions.add(adm);
+        }
+        when(admissionRepository.findActiveAdmissionsByHospital(hospitalId)).thenReturn(admissions);
+        stubOnePrescriptionPerPatient(hospitalId);
+        clearInvocations(queryMocks());
+
+        List<NurseWorkboardPatientDTO> cards = service.getWorkboard(UUID.randomUUID(), hospitalId);
+
+        assertThat(cards).hasSize(beds).allMatch(c -> c.getMedsDue() == 1L);
+        return invocationCount();
+    }
+
+    private void stubOnePrescriptionPerPatient(UUID hospitalId) {
+        when(prescriptionRepository.findByHospital_IdAndPatient_IdInAndStatusIn(eq(hospitalId), any(), any()))
+            .thenAnswer(inv -> {
+                Collection<UUID> patientIds = inv.getArgument(1);
+                return patientIds.stream().map(id -> {
+                    Patient pat = Patient.builder().build();
+                    pat.setId(id);
+                    Prescription rx = Prescription.builder().patient(pat).status(PrescriptionStatus.SIGNED).build();
+                    rx.setId(UUID.randomUUID());
+                    rx.setCreatedAt(LocalDateTime.now().minusHours(1));
+                    return rx;
+                }).toList();
+            });
+    }
+
+    private Object[] queryMocks() {
+        return new Object[] {
+            nurseDashboardService, prescriptionRepository, marRepository, vitalSignRepository,
+            announcementRepository, admissionRepository, patientRepository, nurseHandoffRepository,
+            labOrderRepository, imagingOrderRepository, procedureOrderRepository
+        };
+    }
+
+    private int invocationCount() {
+        int count = 0;
+        for (Object mock : queryMocks()) {
+            count += mockingDetails(mock).getInvocations().size();
+        }
+        return count;
+    }
+
     /* ════════════════════════════════════════════════════════════════════
        Edge case: resolveNurseStaff with null values
        ════════════════════════════════════════════════════════════════════ */
@@ -1442,9 +1522,9 @@ class NurseTaskServiceImplTest {
         adm.setStatus(AdmissionStatus.ACTIVE);
 
         when(admissionRepository.findActiveAdmissionsByHospital(hospitalId)).thenReturn(List.of(adm));
-        when(vitalSignRepository.findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(patientId, hospitalId))
-            .thenReturn(Optional.empty());
-        when(prescriptionRepository.findByPatient_IdAndHospital_Id(patientId, hospitalId))
+        when(vitalSignRepository.findLatestRecordedAtByPatient(hospitalId, Set.of(patientId)))
+            .thenReturn(List.of());
+        when(prescriptionRepository.findByHospital_IdAndPatient_IdInAndStatusIn(eq(hospitalId), eq(Set.of(patientId)), any()))
             .thenReturn(List.of());
 
         List<NurseWorkboardPatientDTO> result = service.getWorkboard(nurseId, hospitalId);
@@ -1486,11 +1566,12 @@ class NurseTaskServiceImplTest {
         activePending.setCreatedAt(LocalDateTime.now().minusHours(6));
 
         when(admissionRepository.findActiveAdmissionsByHospital(hospitalId)).thenReturn(List.of(adm));
-        when(vitalSignRepository.findFirstByPatient_IdAndHospital_IdOrderByRecordedAtDesc(patientId, hospitalId))
-            .thenReturn(Optional.of(PatientVitalSign.builder().recordedAt(LocalDateTime.now()).build()));
-        when(prescriptionRepository.findByPatient_IdAndHospital_Id(patientId, hospitalId))
+        when(vitalSignRepository.findLatestRecordedAtByPatient(hospitalId, Set.of(patientId)))
+            .thenReturn(List.<Object[]>of(new Object[]{patientId, LocalDateTime.now()}));
+        when(prescriptionRepository.findByHospital_IdAndPatient_IdInAndStatusIn(eq(hospitalId), eq(Set.of(patientId)), any()))
             .thenReturn(List.of(activePending));
-        when(marRepository.findByPatient_IdAndHospital_IdAndStatus(patientId, hospitalId, MedicationAdministrationStatus.GIVEN))
+        when(marRepository.findPrescriptionIdsWithStatus(hospitalId, List.of(activePending.getId()),
+                MedicationAdministrationStatus.GIVEN))
             .thenReturn(List.of()); // not given yet
 
         List<NurseWorkboardPatientDTO> result = service.getWorkboard(UUID.randomUUID(), hospitalId);
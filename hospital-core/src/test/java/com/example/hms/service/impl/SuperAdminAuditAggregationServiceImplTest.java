@@ -4,6 +4,7 @@ import com.example.hms.enums.AuditEventType;
 import com.example.hms.enums.AuditSource;
 import com.example.hms.enums.AuditStatus;
 import com.example.hms.enums.PermissionMatrixAuditAction;
+import com.example.hms.exception.BadRequestException;
 import com.example.hms.model.AuditEventLog;
 import com.example.hms.model.FrontendAuditEvent;
 import com.example.hms.model.Hospital;
@@ -22,22 +23,33 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -95,13 +107,11 @@ class SuperAdminAuditAggregationServiceImplTest {
             .createdAt(t0.toInstant(ZoneOffset.UTC)) // earliest
             .build();
 
-        when(auditEventLogRepository.findByDateRange(isNull(), isNull(), any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(support), PageRequest.of(0, 20), 1L));
-        when(frontendAuditEventRepository.findInDateRangeOrdered(isNull(), isNull(), any(Pageable.class)))
-            .thenReturn(List.of(frontend));
+        stubSupportAndPlatform(List.of(support));
+        when(auditEventLogRepository.countInDateRange(isNull(), isNull())).thenReturn(1L);
+        stubFrontend(List.of(frontend));
         when(frontendAuditEventRepository.countInDateRange(isNull(), isNull())).thenReturn(1L);
-        when(permissionMatrixAuditEventRepository.findInDateRangeOrdered(isNull(), isNull(), any(Pageable.class)))
-            .thenReturn(List.of(permission));
+        stubPermissionMatrix(List.of(permission));
         when(permissionMatrixAuditEventRepository.countInDateRange(isNull(), isNull())).thenReturn(1L);
 
         AggregatedAuditPageDTO page = service.searchAggregated(
@@ -112,19 +122,13 @@ class SuperAdminAuditAggregationServiceImplTest {
         assertThat(page.content().get(1).source()).isEqualTo(AuditSource.SUPPORT);    // t1
         assertThat(page.content().get(2).source()).isEqualTo(AuditSource.PERMISSION_MATRIX); // t0
         assertThat(page.totalElements()).isEqualTo(3L);
+        assertThat(page.nextCursor()).isNull();
     }
 
     @Test
     void searchAggregated_filtersToRequestedSourcesOnly() {
-        FrontendAuditEvent frontend = FrontendAuditEvent.builder()
-            .eventType("PAGE_VIEW")
-            .actor("bob")
-            .occurredAt(t1)
-            .build();
-        frontend.setId(UUID.randomUUID());
-
-        when(frontendAuditEventRepository.findInDateRangeOrdered(isNull(), isNull(), any(Pageable.class)))
-            .thenReturn(List.of(frontend));
+        FrontendAuditEvent frontend = frontendAt("PAGE_VIEW", t1);
+        stubFrontend(List.of(frontend));
         when(frontendAuditEventRepository.countInDateRange(isNull(), isNull())).thenReturn(1L);
 
         AggregatedAuditPageDTO page = service.searchAggregated(
@@ -137,14 +141,9 @@ class SuperAdminAuditAggregationServiceImplTest {
 
     @Test
     void searchAggregated_nullSourcesTreatedAsAll() {
-        when(auditEventLogRepository.findByDateRange(any(), any(), any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0L));
-        when(frontendAuditEventRepository.findInDateRangeOrdered(any(), any(), any(Pageable.class)))
-            .thenReturn(List.of());
-        when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(0L);
-        when(permissionMatrixAuditEventRepository.findInDateRangeOrdered(any(), any(), any(Pageable.class)))
-            .thenReturn(List.of());
-        when(permissionMatrixAuditEventRepository.countInDateRange(any(), any())).thenReturn(0L);
+        stubSupportAndPlatform(List.of());
+        stubFrontend(List.of());
+        stubPermissionMatrix(List.of());
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             null, t0, t2, PageRequest.of(0, 20));
@@ -152,25 +151,23 @@ class SuperAdminAuditAggregationServiceImplTest {
         assertThat(page.content()).isEmpty();
         assertThat(page.totalElements()).isZero();
         // All three sources were consulted.
-        verify(auditEventLogRepository).findByDateRange(any(), any(), any(Pageable.class));
-        verify(frontendAuditEventRepository).findInDateRangeOrdered(any(), any(), any(Pageable.class));
-        verify(permissionMatrixAuditEventRepository).findInDateRangeOrdered(any(), any(), any(Pageable.class));
+        verify(auditEventLogRepository).findKeysetFirstPage(any(), any(), any(Pageable.class));
+        verify(frontendAuditEventRepository).findKeysetFirstPage(any(), any(), any(Pageable.class));
+        verify(permissionMatrixAuditEventRepository).findKeysetFirstPage(any(), any(), any(Pageable.class));
     }
 
     @Test
     void searchAggregated_paginatesMergedStream() {
-        // Five FRONTEND rows, t1 .. t5 ascending — sort puts them DESC,
-        // then page(1, 2) should return rows at indices 2 and 3 of the
-        // sorted list (i.e. the 3rd and 4th most-recent).
-        List<FrontendAuditEvent> rows = List.of(
+        // Five FRONTEND rows, t1 .. t5 ascending — the merge emits them
+        // DESC, then page(1, 2) without a cursor should return the 3rd and
+        // 4th most-recent.
+        stubFrontend(List.of(
             frontendAt("e1", t0),
             frontendAt("e2", t0.plusMinutes(1)),
             frontendAt("e3", t0.plusMinutes(2)),
             frontendAt("e4", t0.plusMinutes(3)),
             frontendAt("e5", t0.plusMinutes(4))
-        );
-        when(frontendAuditEventRepository.findInDateRangeOrdered(any(), any(), any(Pageable.class)))
-            .thenReturn(rows);
+        ));
         when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(5L);
 
         AggregatedAuditPageDTO page = service.searchAggregated(
@@ -182,65 +179,138 @@ class SuperAdminAuditAggregationServiceImplTest {
         assertThat(page.totalPages()).isEqualTo(3); // ceil(5/2)
         assertThat(page.content()).extracting(AggregatedAuditEventDTO::eventType)
             .containsExactly("e3", "e2"); // 3rd and 4th most-recent
+        assertThat(page.nextCursor()).isNotNull();
     }
 
     @Test
-    void searchAggregated_supportOnly_skipsOtherRepositories() {
-        // MVP-c3 — SUPPORT-only routes through findByDateRangeAndEventTypeNotIn
-        // (excludes the platform-config event-type set so PLATFORM_CONFIG
-        // rows don't leak into the SUPPORT bucket).
-        when(auditEventLogRepository.findByDateRangeAndEventTypeNotIn(
-            any(), any(), ArgumentMatchers.<java.util.Collection<AuditEventType>>any(), any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0L));
+    void searchAggregated_cursorWalksEveryRowOnceAcrossSources() {
+        // Interleaved timestamps across two sources plus a same-timestamp
+        // tie: following nextCursor must visit every row exactly once in
+        // (timestamp, id) DESC order.
+        List<FrontendAuditEvent> frontend = new ArrayList<>();
+        List<AuditEventLog> support = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            frontend.add(frontendAt("fe" + i, t0.plusMinutes(2L * i)));
+            support.add(supportAt("su" + i, t0.plusMinutes(2L * i + 1)));
+        }
+        support.add(supportAt("tie", t0.plusMinutes(4)));
+        stubSupport(support);
+        stubFrontend(frontend);
+
+        Set<AuditSource> sources = EnumSet.of(AuditSource.SUPPORT, AuditSource.FRONTEND);
+        List<AggregatedAuditEventDTO> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            AggregatedAuditPageDTO page = service.searchAggregated(
+                sources, null, null, cursor, PageRequest.of(pages, 4));
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(4);
+            walked.addAll(page.content());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(walked).hasSize(15);
+        assertThat(walked).isSortedAccordingTo(SuperAdminAuditAggregationServiceImpl.MERGE_ORDER);
+        assertThat(walked).extracting(AggregatedAuditEventDTO::id).doesNotHaveDuplicates();
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void searchAggregated_cursorPage_fetchesOnlyPageSizePlusOnePerSource() {
+        // A deep page costs the same as page 1: each source is asked for
+        // pageSize + 1 rows after the cursor, never offset + pageSize.
+        stubFrontend(List.of(frontendAt("a", t2), frontendAt("b", t1), frontendAt("c", t0)));
+        AggregatedAuditPageDTO first = service.searchAggregated(
+            EnumSet.of(AuditSource.FRONTEND), null, null, null, PageRequest.of(0, 1));
+
+        service.searchAggregated(
+            EnumSet.of(AuditSource.FRONTEND), null, null, first.nextCursor(), PageRequest.of(400, 1));
+
+        verify(frontendAuditEventRepository).findKeysetNextPage(isNull(), isNull(), eq(t2),
+            eq(first.content().get(0).id()), eq(2));
+    }
+
+    @Test
+    void searchAggregated_pageNumberWithoutCursor_skipsInOneFetchPerSource() {
+        // page(3, 2) needs the 7th and 8th rows: one first-page query of
+        // skip + pageSize + 1 = 9 rows, not four rounds of pageSize + 1.
+        List<FrontendAuditEvent> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(frontendAt("e" + i, t0.plusMinutes(i)));
+        }
+        stubFrontend(rows);
 
         AggregatedAuditPageDTO page = service.searchAggregated(
-            Set.of(AuditSource.SUPPORT), null, null, PageRequest.of(0, 20));
+            EnumSet.of(AuditSource.FRONTEND), null, null, PageRequest.of(3, 2));
 
-        assertThat(page.totalElements()).isZero();
-        verify(frontendAuditEventRepository, never()).findInDateRangeOrdered(any(), any(), any(Pageable.class));
-        verify(permissionMatrixAuditEventRepository, never()).findInDateRangeOrdered(any(), any(), any(Pageable.class));
-        verify(auditEventLogRepository, never()).findByDateRange(any(), any(), any(Pageable.class));
+        assertThat(page.content()).extracting(AggregatedAuditEventDTO::eventType)
+            .containsExactly("e3", "e2");
+        verify(frontendAuditEventRepository).findKeysetFirstPage(isNull(), isNull(),
+            argThat(p -> p.getPageSize() == 9 && p.getOffset() == 0));
+        verify(frontendAuditEventRepository, never()).findKeysetNextPage(any(), any(), any(), any(), anyInt());
     }
 
-    private FrontendAuditEvent frontendAt(String eventType, LocalDateTime when) {
-        FrontendAuditEvent e = FrontendAuditEvent.builder()
-            .eventType(eventType)
-            .occurredAt(when)
-            .build();
-        e.setId(UUID.randomUUID());
-        return e;
+    @Test
+    void searchAggregated_totalsAreCachedPerFilter() {
+        stubFrontend(List.of());
+        when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(42L);
+
+        service.searchAggregated(EnumSet.of(AuditSource.FRONTEND), t0, t2, PageRequest.of(0, 20));
+        AggregatedAuditPageDTO again = service.searchAggregated(
+            EnumSet.of(AuditSource.FRONTEND), t0, t2, PageRequest.of(1, 20));
+
+        assertThat(again.totalElements()).isEqualTo(42L);
+        verify(frontendAuditEventRepository, times(1)).countInDateRange(t0, t2);
+    }
+
+    @Test
+    void searchAggregated_malformedCursor_isBadRequest() {
+        Set<AuditSource> sources = EnumSet.of(AuditSource.FRONTEND);
+        PageRequest firstPage = PageRequest.of(0, 20);
+
+        assertThatThrownBy(() -> service.searchAggregated(sources, null, null, "not-a-cursor", firstPage))
+            .isInstanceOf(BadRequestException.class);
     }
 
     @Test
-    void searchAggregated_capsTotalElementsAtPerSourceHardCap() {
-        // Copilot review fix — when an underlying source reports 100 000
-        // matching rows but the service can only fetch 5 000, the page
-        // metadata must reflect what's actually retrievable, not the
-        // raw COUNT(*). Otherwise pagination promises pages the service
-        // can't deliver.
-        when(frontendAuditEventRepository.findInDateRangeOrdered(any(), any(), any(Pageable.class)))
+    void mergeOrder_breaksTimestampTiesByUnsignedUuidDescending() {
+        // 0x8… is negative as a signed long but sorts above 0x7… in
+        // PostgreSQL's uuid order — the merge must agree with the database.
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        AggregatedAuditEventDTO a = AggregatedAuditEventDTO.builder().id(low).timestamp(t1).build();
+        AggregatedAuditEventDTO b = AggregatedAuditEventDTO.builder().id(high).timestamp(t1).build();
+
+        assertThat(SuperAdminAuditAggregationServiceImpl.MERGE_ORDER.compare(b, a)).isNegative();
+    }
+
+    @Test
+    void searchAggregated_supportOnly_skipsOtherRepositories() {
+        // MVP-c3 — SUPPORT-only routes through findKeysetFirstPageByEventTypeNotIn
+        // (excludes the platform-config event-type set so PLATFORM_CONFIG
+        // rows don't leak into the SUPPORT bucket).
+        when(auditEventLogRepository.findKeysetFirstPageByEventTypeNotIn(
+            any(), any(), ArgumentMatchers.<Collection<AuditEventType>>any(), any(Pageable.class)))
             .thenReturn(List.of());
-        when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(100_000L);
 
         AggregatedAuditPageDTO page = service.searchAggregated(
-            EnumSet.of(AuditSource.FRONTEND), null, null, PageRequest.of(0, 20));
+            Set.of(AuditSource.SUPPORT), null, null, PageRequest.of(0, 20));
 
-        // PER_SOURCE_HARD_CAP is 5 000; totalElements should be capped.
-        assertThat(page.totalElements()).isEqualTo(5_000L);
-        assertThat(page.totalPages()).isEqualTo(250); // 5000 / 20
+        assertThat(page.totalElements()).isZero();
+        verify(frontendAuditEventRepository, never()).findKeysetFirstPage(any(), any(), any(Pageable.class));
+        verify(permissionMatrixAuditEventRepository, never()).findKeysetFirstPage(any(), any(), any(Pageable.class));
+        verify(auditEventLogRepository, never()).findKeysetFirstPage(any(), any(), any(Pageable.class));
     }
 
     @Test
     void searchAggregated_pageSizeOverMaxIsClamped() {
         // Copilot review fix — pageSize is user-controlled; clamp before
         // any arithmetic so offset + pageSize cannot overflow int.
-        when(frontendAuditEventRepository.findInDateRangeOrdered(any(), any(), any(Pageable.class)))
-            .thenReturn(List.of());
-        when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(0L);
+        stubFrontend(List.of());
 
         // Request pageSize = Integer.MAX_VALUE; service must clamp to
-        // MAX_PAGE_SIZE (= PER_SOURCE_HARD_CAP = 5 000) before computing
-        // offset / perSourceLimit.
+        // MAX_PAGE_SIZE (= 5 000) before computing the fetch size.
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.FRONTEND), null, null,
             PageRequest.of(0, Integer.MAX_VALUE));
@@ -250,12 +320,8 @@ class SuperAdminAuditAggregationServiceImplTest {
 
     @Test
     void searchAggregated_offsetBeyondResults_returnsEmptyPage() {
-        // Exercises the Math.min(offset, merged.size()) and
-        // Math.min(offset + size, merged.size()) bounds when the requested
-        // offset exceeds the merged stream size.
-        FrontendAuditEvent only = frontendAt("only", t1);
-        when(frontendAuditEventRepository.findInDateRangeOrdered(any(), any(), any(Pageable.class)))
-            .thenReturn(List.of(only));
+        // The cursor-less skip runs off the end of the merged stream.
+        stubFrontend(List.of(frontendAt("only", t1)));
         when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(1L);
 
         AggregatedAuditPageDTO page = service.searchAggregated(
@@ -263,6 +329,19 @@ class SuperAdminAuditAggregationServiceImplTest {
 
         assertThat(page.content()).isEmpty();
         assertThat(page.totalElements()).isEqualTo(1L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void searchAggregated_offsetBeyondCursorlessLimit_returnsEmptyWithoutFetching() {
+        when(frontendAuditEventRepository.countInDateRange(any(), any())).thenReturn(100_000L);
+
+        AggregatedAuditPageDTO page = service.searchAggregated(
+            EnumSet.of(AuditSource.FRONTEND), null, null, PageRequest.of(1_000, 20));
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.totalElements()).isEqualTo(100_000L);
+        verify(frontendAuditEventRepository, never()).findKeysetFirstPage(any(), any(), any(Pageable.class));
     }
 
     @Test
@@ -283,11 +362,7 @@ class SuperAdminAuditAggregationServiceImplTest {
         row.setId(UUID.randomUUID());
         row.setEventTimestamp(t1);
 
-        when(auditEventLogRepository.findByDateRangeAndEventTypeNotIn(
-            isNull(), isNull(),
-            ArgumentMatchers.<java.util.Collection<AuditEventType>>any(),
-            any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 20), 1L));
+        stubSupport(List.of(row));
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.SUPPORT), null, null, PageRequest.of(0, 20));
@@ -318,11 +393,7 @@ class SuperAdminAuditAggregationServiceImplTest {
         row.setId(UUID.randomUUID());
         row.setEventTimestamp(t1);
 
-        when(auditEventLogRepository.findByDateRangeAndEventTypeNotIn(
-            isNull(), isNull(),
-            ArgumentMatchers.<java.util.Collection<AuditEventType>>any(),
-            any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 20), 1L));
+        stubSupport(List.of(row));
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.SUPPORT), null, null, PageRequest.of(0, 20));
@@ -353,11 +424,7 @@ class SuperAdminAuditAggregationServiceImplTest {
         row.setId(UUID.randomUUID());
         row.setEventTimestamp(t1);
 
-        when(auditEventLogRepository.findByDateRangeAndEventTypeNotIn(
-            isNull(), isNull(),
-            ArgumentMatchers.<java.util.Collection<AuditEventType>>any(),
-            any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 20), 1L));
+        stubSupport(List.of(row));
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.SUPPORT), null, null, PageRequest.of(0, 20));
@@ -380,11 +447,7 @@ class SuperAdminAuditAggregationServiceImplTest {
         row.setId(UUID.randomUUID());
         row.setEventTimestamp(t1);
 
-        when(auditEventLogRepository.findByDateRangeAndEventTypeNotIn(
-            isNull(), isNull(),
-            ArgumentMatchers.<java.util.Collection<AuditEventType>>any(),
-            any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 20), 1L));
+        stubSupport(List.of(row));
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.SUPPORT), null, null, PageRequest.of(0, 20));
@@ -409,7 +472,7 @@ class SuperAdminAuditAggregationServiceImplTest {
             .initiatedBy("system")
             .build();
 
-        when(permissionMatrixAuditEventRepository.findInDateRangeOrdered(isNull(), isNull(), any(Pageable.class)))
+        when(permissionMatrixAuditEventRepository.findKeysetFirstPage(isNull(), isNull(), any(Pageable.class)))
             .thenReturn(List.of(row));
         when(permissionMatrixAuditEventRepository.countInDateRange(isNull(), isNull())).thenReturn(1L);
 
@@ -426,7 +489,7 @@ class SuperAdminAuditAggregationServiceImplTest {
     @Test
     void searchAggregated_platformConfigOnly_routesThroughEventTypeIn() {
         // MVP-c3 — PLATFORM_CONFIG-only routes through
-        // findByDateRangeAndEventTypeIn so only platform-config rows
+        // findKeysetFirstPageByEventTypeIn so only platform-config rows
         // are fetched. The DTO source must come back as PLATFORM_CONFIG.
         AuditEventLog row = AuditEventLog.builder()
             .eventType(AuditEventType.REGION_POLICY_UPDATED)
@@ -437,26 +500,28 @@ class SuperAdminAuditAggregationServiceImplTest {
         row.setId(UUID.randomUUID());
         row.setEventTimestamp(t1);
 
-        when(auditEventLogRepository.findByDateRangeAndEventTypeIn(
+        when(auditEventLogRepository.findKeysetFirstPageByEventTypeIn(
             isNull(), isNull(),
-            ArgumentMatchers.<java.util.Collection<AuditEventType>>any(),
+            ArgumentMatchers.<Collection<AuditEventType>>any(),
             any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 20), 1L));
+            .thenAnswer(firstPage(List.of(row), AuditEventLog::getEventTimestamp, AuditEventLog::getId));
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.PLATFORM_CONFIG), null, null, PageRequest.of(0, 20));
 
         assertThat(page.content()).hasSize(1);
         assertThat(page.content().get(0).source()).isEqualTo(AuditSource.PLATFORM_CONFIG);
-        verify(auditEventLogRepository, never()).findByDateRangeAndEventTypeNotIn(
-            any(), any(), ArgumentMatchers.<java.util.Collection<AuditEventType>>any(), any(Pageable.class));
-        verify(auditEventLogRepository, never()).findByDateRange(any(), any(), any(Pageable.class));
+        verify(auditEventLogRepository, never()).findKeysetFirstPageByEventTypeNotIn(
+            any(), any(), ArgumentMatchers.<Collection<AuditEventType>>any(), any(Pageable.class));
+        verify(auditEventLogRepository, never()).findKeysetFirstPage(any(), any(), any(Pageable.class));
+        verify(auditEventLogRepository).countInDateRangeByEventTypeIn(
+            isNull(), isNull(), ArgumentMatchers.<Collection<AuditEventType>>any());
     }
 
     @Test
     void searchAggregated_supportPlusPlatformConfig_usesUnfilteredQueryAndSplitsRowsByEventType() {
         // When BOTH SUPPORT and PLATFORM_CONFIG are selected the service
-        // pulls everything in one query (findByDateRange) and tags each
+        // pulls everything in one query (findKeysetFirstPage) and tags each
         // row by its eventType — keeps the round-trip count to one.
         AuditEventLog supportRow = AuditEventLog.builder()
             .eventType(AuditEventType.LOGIN)
@@ -476,8 +541,7 @@ class SuperAdminAuditAggregationServiceImplTest {
         platformRow.setId(UUID.randomUUID());
         platformRow.setEventTimestamp(t1);
 
-        when(auditEventLogRepository.findByDateRange(isNull(), isNull(), any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(supportRow, platformRow), PageRequest.of(0, 20), 2L));
+        stubSupportAndPlatform(List.of(supportRow, platformRow));
 
         AggregatedAuditPageDTO page = service.searchAggregated(
             EnumSet.of(AuditSource.SUPPORT, AuditSource.PLATFORM_CONFIG),
@@ -486,10 +550,10 @@ class SuperAdminAuditAggregationServiceImplTest {
         assertThat(page.content()).hasSize(2);
         assertThat(page.content().get(0).source()).isEqualTo(AuditSource.SUPPORT);          // LOGIN @ t2
         assertThat(page.content().get(1).source()).isEqualTo(AuditSource.PLATFORM_CONFIG);  // REGION_POLICY_UPDATED @ t1
-        verify(auditEventLogRepository, never()).findByDateRangeAndEventTypeIn(
-            any(), any(), ArgumentMatchers.<java.util.Collection<AuditEventType>>any(), any(Pageable.class));
-        verify(auditEventLogRepository, never()).findByDateRangeAndEventTypeNotIn(
-            any(), any(), ArgumentMatchers.<java.util.Collection<AuditEventType>>any(), any(Pageable.class));
+        verify(auditEventLogRepository, never()).findKeysetFirstPageByEventTypeIn(
+            any(), any(), ArgumentMatchers.<Collection<AuditEventType>>any(), any(Pageable.class));
+        verify(auditEventLogRepository, never()).findKeysetFirstPageByEventTypeNotIn(
+            any(), any(), ArgumentMatchers.<Collection<AuditEventType>>any(), any(Pageable.class));
     }
 
     @Test
@@ -511,7 +575,8 @@ class SuperAdminAuditAggregationServiceImplTest {
 
     @Test
     void searchAggregated_permissionMatrixInstantConvertedFromLocalDateTimeBounds() {
-        when(permissionMatrixAuditEventRepository.findInDateRangeOrdered(any(Instant.class), any(Instant.class), any(Pageable.class)))
+        when(permissionMatrixAuditEventRepository.findKeysetFirstPage(
+            any(Instant.class), any(Instant.class), any(Pageable.class)))
             .thenReturn(List.of());
         when(permissionMatrixAuditEventRepository.countInDateRange(any(Instant.class), any(Instant.class))).thenReturn(0L);
 
@@ -520,8 +585,124 @@ class SuperAdminAuditAggregationServiceImplTest {
 
         // The repo got Instants, not LocalDateTime — type conversion happened.
         verify(permissionMatrixAuditEventRepository)
-            .findInDateRangeOrdered(any(Instant.class), any(Instant.class), any(Pageable.class));
+            .findKeysetFirstPage(any(Instant.class), any(Instant.class), any(Pageable.class));
         verify(permissionMatrixAuditEventRepository)
             .countInDateRange(any(Instant.class), any(Instant.class));
     }
+
+    // ── helpers ─────────────────────────────────────────────────────────
+
+    private FrontendAuditEvent frontendAt(String eventType, LocalDateTime when) {
+        FrontendAuditEvent e = FrontendAuditEvent.builder()
+            .eventType(eventType)
+            .occurredAt(when)
+            .build();
+        e.setId(UUID.randomUUID());
+        return e;
+    }
+
+    private AuditEventLog supportAt(String description, LocalDateTime when) {
+        AuditEventLog row = AuditEventLog.builder()
+            .eventType(AuditEventType.LOGIN)
+            .eventDescription(description)
+            .build();
+        row.setId(UUID.randomUUID());
+        row.setEventTimestamp(when);
+        return row;
+    }
+
+    // First pages are stubbed strictly; next pages leniently, since most
+    // tests never get past page one.
+
+    private void stubSupportAndPlatform(List<AuditEventLog> rows) {
+        when(auditEventLogRepository.findKeysetFirstPage(any(), any(), any(Pageable.class)))
+            .thenAnswer(firstPage(rows, AuditEventLog::getEventTimestamp, AuditEventLog::getId));
+        lenient().when(auditEventLogRepository.findKeysetNextIds(any(), any(), any(), any(), anyInt()))
+            .thenAnswer(nextIds(rows, 2));
+        stubAuditLogRowsById(rows);
+    }
+
+    private void stubSupport(List<AuditEventLog> rows) {
+        when(auditEventLogRepository.findKeysetFirstPageByEventTypeNotIn(
+            any(), any(), ArgumentMatchers.<Collection<AuditEventType>>any(), any(Pageable.class)))
+            .thenAnswer(firstPage(rows, AuditEventLog::getEventTimestamp, AuditEventLog::getId));
+        lenient().when(auditEventLogRepository.findKeysetNextIdsByEventTypeNotIn(
+            any(), any(), ArgumentMatchers.<Collection<String>>any(), any(), any(), anyInt()))
+            .thenAnswer(nextIds(rows, 3));
+        stubAuditLogRowsById(rows);
+    }
+
+    /** Rows of an id page, deliberately in reverse — the service restores keyset order. */
+    private void stubAuditLogRowsById(List<AuditEventLog> rows) {
+        lenient().when(auditEventLogRepository.findAllWithAssignmentByIdIn(ArgumentMatchers.<Collection<UUID>>any()))
+            .thenAnswer(invocation -> {
+                Collection<UUID> ids = invocation.getArgument(0);
+                List<AuditEventLog> found = new ArrayList<>(rows.stream().filter(r -> ids.contains(r.getId())).toList());
+                Collections.reverse(found);
+                return found;
+            });
+    }
+
+    private void stubFrontend(List<FrontendAuditEvent> rows) {
+        when(frontendAuditEventRepository.findKeysetFirstPage(any(), any(), any(Pageable.class)))
+            .thenAnswer(firstPage(rows, FrontendAuditEvent::getOccurredAt, FrontendAuditEvent::getId));
+        lenient().when(frontendAuditEventRepository.findKeysetNextPage(any(), any(), any(), any(), anyInt()))
+            .thenAnswer(nextPage(rows, FrontendAuditEvent::getOccurredAt, FrontendAuditEvent::getId, 2));
+    }
+
+    private void stubPermissionMatrix(List<PermissionMatrixAuditEvent> rows) {
+        Function<PermissionMatrixAuditEvent, LocalDateTime> timestamp =
+            row -> LocalDateTime.ofInstant(row.getCreatedAt(), ZoneOffset.UTC);
+        when(permissionMatrixAuditEventRepository.findKeysetFirstPage(any(), any(), any(Pageable.class)))
+            .thenAnswer(firstPage(rows, timestamp, PermissionMatrixAuditEvent::getId));
+        lenient().when(permissionMatrixAuditEventRepository.findKeysetNextPage(any(), any(), any(), any(), anyInt()))
+            .thenAnswer(nextPage(rows, timestamp, PermissionMatrixAuditEvent::getId, 2));
+    }
+
+    /** Behaves like a first-page keyset query: rows in (timestamp, id) DESC order, limited by the trailing Pageable. */
+    private static <T> Answer<List<T>> firstPage(List<T> rows, Function<T, LocalDateTime> timestamp,
+                                                 Function<T, UUID> id) {
+        return invocation -> {
+            Pageable limit = invocation.getArgument(invocation.getArguments().length - 1);
+            return keyset(rows, timestamp, id, null, null, limit.getPageSize());
+        };
+    }
+
+    /**
+     * Behaves like a next-page keyset query: rows strictly after the cursor
+     * arguments at {@code afterTsArg} / {@code afterTsArg + 1}, limited by
+     * the trailing {@code int}.
+     */
+    private static <T> Answer<List<T>> nextPage(List<T> rows, Function<T, LocalDateTime> timestamp,
+                                                Function<T, UUID> id, int afterTsArg) {
+        return invocation -> {
+            Object afterRaw = invocation.getArgument(afterTsArg);
+            LocalDateTime afterTs = afterRaw instanceof Instant instant
+                ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC)
+                : (LocalDateTime) afterRaw;
+            UUID afterId = invocation.getArgument(afterTsArg + 1);
+            int limit = invocation.getArgument(afterTsArg + 2);
+            return keyset(rows, timestamp, id, afterTs, afterId, limit);
+        };
+    }
+
+    private static Answer<List<UUID>> nextIds(List<AuditEventLog> rows, int afterTsArg) {
+        Answer<List<AuditEventLog>> page = nextPage(rows, AuditEventLog::getEventTimestamp, AuditEventLog::getId,
+            afterTsArg);
+        return invocation -> page.answer(invocation).stream().map(AuditEventLog::getId).toList();
+    }
+
+    private static <T> List<T> keyset(List<T> rows, Function<T, LocalDateTime> timestamp, Function<T, UUID> id,
+                                      LocalDateTime afterTs, UUID afterId, int limit) {
+        Comparator<T> order = Comparator.comparing(timestamp, Comparator.reverseOrder())
+            .thenComparing(id, (UUID a, UUID b) -> SuperAdminAuditAggregationServiceImpl.compareUuidUnsigned(b, a));
+        return rows.stream()
+            .sorted(order)
+            .filter(row -> afterTs == null
+                || timestamp.apply(row).isBefore(afterTs)
+                || (timestamp.apply(row).isEqual(afterTs)
+                    && SuperAdminAuditAggregationServiceImpl.compareUuidUnsigned(id.apply(row), afterId) < 0))
+            .limit(limit)
+            .toList();
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.hms.service.integration;
 
 import com.example.hms.enums.InstrumentOutboxStatus;
+import com.example.hms.hl7.mllp.MllpConnectionPool.Destination;
 import com.example.hms.hl7.mllp.MllpOutboundProperties;
 import com.example.hms.hl7.mllp.MllpOutboundSender;
 import com.example.hms.model.InstrumentOutbox;
@@ -8,6 +9,7 @@ import com.example.hms.repository.InstrumentOutboxRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -16,12 +18,17 @@ import org.mockito.quality.Strictness;
 import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -64,7 +71,7 @@ class InstrumentOutboxDispatchServiceTest {
 
     @Test
     void aPositiveAckMarksTheMessageAcknowledged() throws Exception {
-        when(sender.send(anyString())).thenReturn("MSH|^~\\&|LAB|...\rMSA|AA|MSGID");
+        when(sender.send(any(), anyString())).thenReturn("MSH|^~\\&|LAB|...\rMSA|AA|MSGID");
         when(sender.isPositiveAck(anyString())).thenReturn(true);
 
         assertThat(service.dispatchPending()).isEqualTo(1);
@@ -77,7 +84,7 @@ class InstrumentOutboxDispatchServiceTest {
     void aNegativeAckIsTerminalRatherThanRetried() throws Exception {
         // The receiver answered and said no. Retrying an AE/AR verbatim fails
         // identically every time — the message itself is the problem.
-        when(sender.send(anyString())).thenReturn("MSA|AR|MSGID|Unknown test code");
+        when(sender.send(any(), anyString())).thenReturn("MSA|AR|MSGID|Unknown test code");
         when(sender.isPositiveAck(anyString())).thenReturn(false);
 
         assertThat(service.dispatchPending()).isZero();
@@ -88,7 +95,7 @@ class InstrumentOutboxDispatchServiceTest {
     @Test
     void aTransportFailureIsRetriedUntilTheCeiling() throws Exception {
         // The receiver may simply be down, so this one IS worth retrying.
-        when(sender.send(anyString())).thenThrow(new IOException("Connection refused"));
+        when(sender.send(any(), anyString())).thenThrow(new IOException("Connection refused"));
 
         service.dispatchPending();
 
@@ -103,7 +110,7 @@ class InstrumentOutboxDispatchServiceTest {
         // An outbox that retries forever against a decommissioned analyser looks
         // identical to one that is working.
         message.setAttempts(2);
-        when(sender.send(anyString())).thenThrow(new IOException("Connection refused"));
+        when(sender.send(any(), anyString())).thenThrow(new IOException("Connection refused"));
 
         service.dispatchPending();
 
@@ -117,7 +124,7 @@ class InstrumentOutboxDispatchServiceTest {
         when(outboxRepository.findByStatus(InstrumentOutboxStatus.PENDING)).thenReturn(List.of(message));
 
         assertThat(service.dispatchPending()).isZero();
-        verify(sender, never()).send(anyString());
+        verify(sender, never()).send(any(), anyString());
         assertThat(message.getStatus()).isEqualTo(InstrumentOutboxStatus.PENDING);
     }
 
@@ -125,11 +132,67 @@ class InstrumentOutboxDispatchServiceTest {
     void everyAttemptIsRecordedEvenWhenItFails() throws Exception {
         // "status = ERROR" with no reason is a dead end for whoever has to fix
         // the interface at 3am.
-        when(sender.send(anyString())).thenThrow(new IOException("Read timed out"));
+        when(sender.send(any(), anyString())).thenThrow(new IOException("Read timed out"));
 
         service.dispatchPending();
 
         verify(outboxRepository).save(message);
         assertThat(message.getLastError()).contains("IOException");
     }
+
+    @Test
+    void destinationsAreServedInParallelAndEachStateIsSavedAfterItsOwnSend() throws Exception {
+        // A slow analyser must not hold up the others, and each row is saved
+        // as soon as its own exchange returns, not at the end of the sweep.
+        Destination chemistry = new Destination("chem.lab", 2576);
+        Destination hematology = new Destination("hema.lab", 2576);
+        InstrumentOutbox second = new InstrumentOutbox();
+        second.setId(UUID.randomUUID());
+        second.setMessageType("OML^O21");
+        second.setPayload("MSH|^~\\&|HMS|...|HEMA");
+        second.setStatus(InstrumentOutboxStatus.PENDING);
+        when(outboxRepository.findDispatchable(any(), anyInt(), any(), any()))
+            .thenReturn(List.of(message, second));
+        when(sender.destinationFor(message.getPayload())).thenReturn(chemistry);
+        when(sender.destinationFor(second.getPayload())).thenReturn(hematology);
+        CountDownLatch bothInFlight = new CountDownLatch(2);
+        when(sender.send(any(), anyString())).thenAnswer(inv -> {
+            bothInFlight.countDown();
+            // Only completes if the other destination is being sent concurrently.
+            if (!bothInFlight.await(5, TimeUnit.SECONDS)) {
+                throw new IOException("destinations were sent sequentially");
+            }
+            return "MSA|AA|MSGID";
+        });
+        when(sender.isPositiveAck(anyString())).thenReturn(true);
+
+        assertThat(service.dispatchPending()).isEqualTo(2);
+        verify(sender).send(eq(chemistry), anyString());
+        verify(sender).send(eq(hematology), anyString());
+        verify(outboxRepository, times(1)).save(message);
+        verify(outboxRepository, times(1)).save(second);
+        verify(outboxRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void anAcknowledgedMessageIsSavedBeforeTheNextOneIsSent() throws Exception {
+        // A crash after the first ACK must not re-send it on the next sweep.
+        InstrumentOutbox second = new InstrumentOutbox();
+        second.setId(UUID.randomUUID());
+        second.setMessageType("OML^O21");
+        second.setPayload("MSH|^~\\&|HMS|...|2");
+        second.setStatus(InstrumentOutboxStatus.PENDING);
+        when(outboxRepository.findDispatchable(any(), anyInt(), any(), any()))
+            .thenReturn(List.of(message, second));
+        when(sender.send(any(), anyString())).thenReturn("MSA|AA|MSGID");
+        when(sender.isPositiveAck(anyString())).thenReturn(true);
+
+        service.dispatchPending();
+
+        InOrder order = inOrder(sender, outboxRepository);
+        order.verify(sender).send(any(), eq(message.getPayload()));
+        order.verify(outboxRepository).save(message);
+        order.verify(sender).send(any(), eq(second.getPayload()));
+        order.verify(outboxRepository).save(second);
+    }
 }
@@ -25,11 +25,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
@@ -249,4 +251,41 @@ class MllpInboundLabServiceImplTest {
         assertThat(captor.getValue().getSourceSendingApplication()).isEqualTo("APP");
         assertThat(captor.getValue().getSourceSendingFacility()).isEqualTo("FAC");
     }
+
+    @Test
+    @DisplayName("batch — clean frames inserted with one saveAll; unknown accession and in-batch repeat left to the single path")
+    @SuppressWarnings("unchecked")
+    void batchInsertsCleanFramesTogether() {
+        specimen.setAccessionNumber("ACC-1");
+        when(specimenRepository.findWithOrderByAccessionNumberIn(any())).thenReturn(List.of(specimen));
+        when(labResultRepository.findSourceKeysByMessageControlIdIn(any())).thenReturn(List.of());
+        when(labResultRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<MllpInboundOutcome> outcomes = service.processOruR01Batch(List.of(
+            new MllpInboundLabService.OruFrame(observation("ACC-1", "5.4"), hospital, "APP", "FAC", "MSG-1", "MSH|1\r"),
+            new MllpInboundLabService.OruFrame(observation("ACC-404", "6.1"), hospital, "APP", "FAC", "MSG-2", "MSH|2\r"),
+            new MllpInboundLabService.OruFrame(observation("ACC-1", "5.4"), hospital, "APP", "FAC", "MSG-1", "MSH|1\r"),
+            new MllpInboundLabService.OruFrame(observation("ACC-1", "7.0"), hospital, "APP", "FAC", "MSG-3", "MSH|3\r")));
+
+        assertThat(outcomes).containsExactly(MllpInboundOutcome.ACCEPTED, null, null, MllpInboundOutcome.ACCEPTED);
+        ArgumentCaptor<List<LabResult>> captor = ArgumentCaptor.forClass(List.class);
+        verify(labResultRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(LabResult::getSourceMessageControlId).containsExactly("MSG-1", "MSG-3");
+        verify(labResultRepository, never()).save(any(LabResult.class));
+    }
+
+    @Test
+    @DisplayName("batch — an already-persisted (sender, MSH-10) is left to the single path's replay handling")
+    void batchLeavesReplaysToSinglePath() {
+        specimen.setAccessionNumber("ACC-1");
+        when(specimenRepository.findWithOrderByAccessionNumberIn(any())).thenReturn(List.of(specimen));
+        when(labResultRepository.findSourceKeysByMessageControlIdIn(any()))
+            .thenReturn(List.<Object[]>of(new Object[] {"APP", "FAC", "MSG-1"}));
+
+        List<MllpInboundOutcome> outcomes = service.processOruR01Batch(List.of(
+            new MllpInboundLabService.OruFrame(observation("ACC-1", "5.4"), hospital, "APP", "FAC", "MSG-1", "MSH|1\r")));
+
+        assertThat(outcomes).containsExactly((MllpInboundOutcome) null);
+        verify(labResultRepository, never()).saveAll(anyList());
+    }
 }
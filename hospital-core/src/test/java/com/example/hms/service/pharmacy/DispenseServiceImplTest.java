@@ -5,6 +5,7 @@ import com.example.hms.enums.CdsAlertSeverity;
 import com.example.hms.enums.DispenseStatus;
 import com.example.hms.enums.PrescriptionStatus;
 import com.example.hms.enums.RefillStatus;
+import com.example.hms.enums.StockTransactionType;
 import com.example.hms.exception.BusinessException;
 import com.example.hms.exception.ResourceNotFoundException;
 import com.example.hms.mapper.pharmacy.DispenseMapper;
@@ -17,6 +18,7 @@ import com.example.hms.model.pharmacy.Dispense;
 import com.example.hms.model.pharmacy.InventoryItem;
 import com.example.hms.model.pharmacy.Pharmacy;
 import com.example.hms.model.pharmacy.StockLot;
+import com.example.hms.model.pharmacy.StockTransaction;
 import com.example.hms.payload.dto.pharmacy.CdsAlertResult;
 import com.example.hms.payload.dto.pharmacy.DispenseRequestDTO;
 import com.example.hms.payload.dto.pharmacy.DispenseResponseDTO;
@@ -26,10 +28,8 @@ import com.example.hms.repository.PrescriptionRepository;
 import com.example.hms.repository.RefillRequestRepository;
 import com.example.hms.repository.UserRepository;
 import com.example.hms.repository.pharmacy.DispenseRepository;
-import com.example.hms.repository.pharmacy.InventoryItemRepository;
 import com.example.hms.repository.pharmacy.PharmacyRepository;
 import com.example.hms.repository.pharmacy.StockLotRepository;
-import com.example.hms.repository.pharmacy.StockTransactionRepository;
 import com.example.hms.service.AuditEventLogService;
 import com.example.hms.utility.RoleValidator;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,6 +37,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -56,6 +57,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -68,8 +70,7 @@ class DispenseServiceImplTest {
     @Mock private PatientRepository patientRepository;
     @Mock private PharmacyRepository pharmacyRepository;
     @Mock private StockLotRepository stockLotRepository;
-    @Mock private InventoryItemRepository inventoryItemRepository;
-    @Mock private StockTransactionRepository stockTransactionRepository;
+    @Mock private StockLedger stockLedger;
     @Mock private UserRepository userRepository;
     @Mock private MedicationCatalogItemRepository medicationCatalogItemRepository;
     @Mock private RefillRequestRepository refillRequestRepository;
@@ -222,11 +223,14 @@ class DispenseServiceImplTest {
 
             service.createDispense(dto);
 
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(BigDecimal.valueOf(40));
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(BigDecimal.valueOf(90));
-            verify(stockLotRepository).save(stockLot);
-            verify(inventoryItemRepository).save(inventoryItem);
-            verify(stockTransactionRepository).save(any());
+            // Decremented in the database, never written back from the entity.
+            verify(stockLedger).withdraw(stockLot, BigDecimal.TEN);
+            verify(stockLotRepository, never()).save(any());
+            ArgumentCaptor<StockTransaction> entry = ArgumentCaptor.forClass(StockTransaction.class);
+            verify(stockLedger).record(entry.capture());
+            assertThat(entry.getValue().getTransactionType()).isEqualTo(StockTransactionType.DISPENSE);
+            assertThat(entry.getValue().getQuantity()).isEqualByComparingTo(BigDecimal.TEN);
+            assertThat(entry.getValue().getInventoryItem()).isSameAs(inventoryItem);
         }
 
         @Test
@@ -246,7 +250,6 @@ class DispenseServiceImplTest {
         @Test
         @DisplayName("should reject when stock lot has insufficient quantity")
         void shouldRejectInsufficientLotStock() {
-            stockLot.setRemainingQuantity(BigDecimal.valueOf(5));
             DispenseRequestDTO dto = buildRequest();
             dto.setStockLotId(stockLotId);
 
@@ -257,10 +260,14 @@ class DispenseServiceImplTest {
             when(roleValidator.getCurrentUserId()).thenReturn(userId);
             when(userRepository.findById(userId)).thenReturn(Optional.of(user));
             when(stockLotRepository.findById(stockLotId)).thenReturn(Optional.of(stockLot));
+            doThrow(new BusinessException("Insufficient lot stock: lot L-1 has fewer than 10 units remaining"))
+                    .when(stockLedger).withdraw(stockLot, BigDecimal.TEN);
 
             assertThatThrownBy(() -> service.createDispense(dto))
                     .isInstanceOf(BusinessException.class)
                     .hasMessageContaining("Insufficient lot stock");
+            verify(stockLedger, never()).record(any());
+            verify(dispenseRepository, never()).save(any());
         }
 
         @Test
@@ -623,12 +630,11 @@ class DispenseServiceImplTest {
         void shouldCancelAndReverseStock() {
             Dispense dispense = buildDispense(DispenseStatus.COMPLETED);
             dispense.setStockLot(stockLot);
-            stockLot.setRemainingQuantity(BigDecimal.valueOf(40));
-            inventoryItem.setQuantityOnHand(BigDecimal.valueOf(90));
             DispenseResponseDTO responseDTO = DispenseResponseDTO.builder()
                     .id(dispenseId).status("CANCELLED").build();
 
             when(dispenseRepository.findById(dispenseId)).thenReturn(Optional.of(dispense));
+            when(dispenseRepository.markCancelled(eq(dispenseId), any())).thenReturn(1);
             when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
             when(roleValidator.getCurrentUserId()).thenReturn(userId);
             when(userRepository.findById(userId)).thenReturn(Optional.of(user));
@@ -638,11 +644,28 @@ class DispenseServiceImplTest {
             DispenseResponseDTO result = service.cancelDispense(dispenseId);
 
             assertThat(result.getStatus()).isEqualTo("CANCELLED");
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(BigDecimal.valueOf(50));
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(BigDecimal.valueOf(100));
-            verify(stockLotRepository).save(stockLot);
-            verify(inventoryItemRepository).save(inventoryItem);
-            verify(stockTransactionRepository).save(any());
+            verify(stockLedger).restore(stockLot, BigDecimal.TEN);
+            ArgumentCaptor<StockTransaction> entry = ArgumentCaptor.forClass(StockTransaction.class);
+            verify(stockLedger).record(entry.capture());
+            assertThat(entry.getValue().getTransactionType()).isEqualTo(StockTransactionType.RETURN);
+            assertThat(entry.getValue().getQuantity()).isEqualByComparingTo(BigDecimal.TEN);
+        }
+
+        @Test
+        @DisplayName("a cancel that loses the race to a concurrent cancel returns no stock")
+        void shouldNotReturnStockTwiceOnRacingCancel() {
+            Dispense dispense = buildDispense(DispenseStatus.COMPLETED);
+            dispense.setStockLot(stockLot);
+
+            when(dispenseRepository.findById(dispenseId)).thenReturn(Optional.of(dispense));
+            when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
+            when(dispenseRepository.markCancelled(eq(dispenseId), any())).thenReturn(0);
+
+            assertThatThrownBy(() -> service.cancelDispense(dispenseId))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("already cancelled");
+            verify(stockLedger, never()).restore(any(), any());
+            verify(stockLedger, never()).record(any());
         }
 
         @Test
@@ -878,7 +901,7 @@ class DispenseServiceImplTest {
             // branch is fully short-circuited.
             verify(dispenseRepository, never()).save(any());
             verify(prescriptionRepository, never()).save(any());
-            verify(stockLotRepository, never()).save(any());
+            verify(stockLedger, never()).withdraw(any(), any());
             verify(support, never()).notifyReadyForPickup(any(), any(), any());
             verify(auditEventLogService, never()).logEvent(any());
         }
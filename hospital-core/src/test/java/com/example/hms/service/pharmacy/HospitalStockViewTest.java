@@ -0,0 +1,186 @@
+package com.example.hms.service.pharmacy;
+
+import com.example.hms.enums.PharmacyType;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.medication.MedicationCatalogItem;
+import com.example.hms.model.pharmacy.InventoryItem;
+import com.example.hms.model.pharmacy.Pharmacy;
+import com.example.hms.repository.pharmacy.InventoryItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HospitalStockViewTest {
+
+    @Mock private InventoryItemRepository inventoryItemRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UUID hospitalId = UUID.randomUUID();
+    private final UUID catalogItemId = UUID.randomUUID();
+
+    private HospitalStockView view;
+    private InventoryItem item;
+
+    @BeforeEach
+    void setUp() {
+        view = new HospitalStockView(inventoryItemRepository, 100, Duration.ofMinutes(5), registry);
+
+        Hospital hospital = new Hospital();
+        hospital.setId(hospitalId);
+        Pharmacy dispensary = Pharmacy.builder()
+                .hospital(hospital)
+                .pharmacyType(PharmacyType.HOSPITAL_DISPENSARY)
+                .build();
+        MedicationCatalogItem catalogItem = new MedicationCatalogItem();
+        catalogItem.setId(catalogItemId);
+        item = InventoryItem.builder()
+                .pharmacy(dispensary)
+                .medicationCatalogItem(catalogItem)
+                .active(true)
+                .build();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("a miss costs one aggregate query, repeat checks are served from the view")
+    void onHand_loadsOnceThenHits() {
+        stubSum(BigDecimal.valueOf(40));
+
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("40");
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("40");
+
+        verify(inventoryItemRepository, times(1)).sumOnHandByHospitalAndCatalogItem(
+                hospitalId, catalogItemId, PharmacyType.HOSPITAL_DISPENSARY);
+        assertThat(registry.find(HospitalStockView.METRIC_LOOKUPS)
+                .tag("outcome", HospitalStockView.OUTCOME_HIT).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a dispense is applied as a delta once its transaction commits")
+    void recordMovement_appliedAfterCommit() {
+        stubSum(BigDecimal.valueOf(40));
+        view.onHand(hospitalId, catalogItemId);
+
+        List<TransactionSynchronization> tx = inTransaction(() ->
+                view.recordMovement(item, BigDecimal.TEN.negate()));
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("40");
+        commit(tx);
+
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("30");
+        verify(inventoryItemRepository, times(1)).sumOnHandByHospitalAndCatalogItem(
+                hospitalId, catalogItemId, PharmacyType.HOSPITAL_DISPENSARY);
+    }
+
+    @Test
+    @DisplayName("a rolled-back movement leaves the view untouched")
+    void recordMovement_rollbackIgnored() {
+        stubSum(BigDecimal.valueOf(40));
+        view.onHand(hospitalId, catalogItemId);
+
+        List<TransactionSynchronization> tx = inTransaction(() ->
+                view.recordMovement(item, BigDecimal.TEN.negate()));
+        tx.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("40");
+        assertThat(TransactionSynchronizationManager.getResource(view)).isNull();
+    }
+
+    @Test
+    @DisplayName("an entry summed while the movement was committing is dropped, not double-counted")
+    void recordMovement_dropsEntryLoadedDuringCommit() {
+        stubSum(BigDecimal.valueOf(30));
+
+        List<TransactionSynchronization> tx = inTransaction(() ->
+                view.recordMovement(item, BigDecimal.TEN.negate()));
+        tx.forEach(s -> s.beforeCommit(false));
+        view.onHand(hospitalId, catalogItemId); // may already see the decrement
+        tx.forEach(TransactionSynchronization::afterCommit);
+        tx.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(view.size()).isZero();
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("30");
+    }
+
+    @Test
+    @DisplayName("invalidating a catalog item drops its entries and nothing else")
+    void invalidate_dropsCatalogItemOnly() {
+        UUID otherItemId = UUID.randomUUID();
+        stubSum(BigDecimal.valueOf(40));
+        when(inventoryItemRepository.sumOnHandByHospitalAndCatalogItem(
+                hospitalId, otherItemId, PharmacyType.HOSPITAL_DISPENSARY)).thenReturn(BigDecimal.ONE);
+        view.onHand(hospitalId, catalogItemId);
+        view.onHand(hospitalId, otherItemId);
+
+        view.invalidate(Set.of(catalogItemId));
+
+        assertThat(view.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a total summed while stock moved is served once but not kept")
+    void onHand_racingChangeNotKept() {
+        when(inventoryItemRepository.sumOnHandByHospitalAndCatalogItem(
+                hospitalId, catalogItemId, PharmacyType.HOSPITAL_DISPENSARY))
+                .thenAnswer(inv -> {
+                    view.invalidate(Set.of(catalogItemId)); // a receipt committed meanwhile
+                    return BigDecimal.valueOf(40);
+                });
+
+        assertThat(view.onHand(hospitalId, catalogItemId)).isEqualByComparingTo("40");
+        assertThat(view.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("movements on partner or inactive inventory are not part of the hospital total")
+    void recordMovement_ignoresNonDispensaryStock() {
+        item.getPharmacy().setPharmacyType(PharmacyType.PARTNER_PHARMACY);
+        List<TransactionSynchronization> tx = inTransaction(() ->
+                view.recordMovement(item, BigDecimal.ONE));
+
+        assertThat(tx).isEmpty();
+    }
+
+    private void stubSum(BigDecimal total) {
+        when(inventoryItemRepository.sumOnHandByHospitalAndCatalogItem(
+                hospitalId, catalogItemId, PharmacyType.HOSPITAL_DISPENSARY)).thenReturn(total);
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        work.run();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static void commit(List<TransactionSynchronization> synchronizations) {
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
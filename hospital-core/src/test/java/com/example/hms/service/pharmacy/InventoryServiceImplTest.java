@@ -71,6 +71,7 @@ class InventoryServiceImplTest {
     @Mock private RoleValidator roleValidator;
     @Mock private AuditEventLogService auditEventLogService;
     @Mock private NotificationService notificationService;
+    @Mock private StockLedger stockLedger;
 
     @InjectMocks
     private InventoryServiceImpl service;
@@ -439,7 +440,6 @@ class InventoryServiceImplTest {
             when(userRepository.findById(userId)).thenReturn(Optional.of(user));
             when(stockLotMapper.toEntity(dto, inventoryItem, user)).thenReturn(lot);
             when(stockLotRepository.save(lot)).thenReturn(lot);
-            when(inventoryItemRepository.save(inventoryItem)).thenReturn(inventoryItem);
             when(roleValidator.getCurrentUserId()).thenReturn(userId);
             when(userRepository.findById(userId)).thenReturn(Optional.of(user));
             when(stockTransactionRepository.save(any(StockTransaction.class)))
@@ -455,11 +455,11 @@ class InventoryServiceImplTest {
             // 1. Lot is saved
             verify(stockLotRepository).save(lot);
 
-            // 2. Item quantity on hand is increased by lot's remaining quantity
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("150.00"));
+            // 2. Item quantity on hand is increased by lot's remaining quantity, atomically
+            verify(stockLedger).deposit(inventoryItem, null, new BigDecimal("50.00"));
 
-            // 3. Inventory item is saved with updated quantity
-            verify(inventoryItemRepository).save(inventoryItem);
+            // 3. The loaded inventory item is not written back
+            verify(inventoryItemRepository, never()).save(inventoryItem);
 
             // 4. RECEIPT stock transaction is recorded
             ArgumentCaptor<StockTransaction> txCaptor = ArgumentCaptor.forClass(StockTransaction.class);
@@ -494,7 +494,6 @@ class InventoryServiceImplTest {
             when(userRepository.findById(userId)).thenReturn(Optional.of(user));
             when(stockLotMapper.toEntity(dto, inventoryItem, user)).thenReturn(lot);
             when(stockLotRepository.save(lot)).thenReturn(lot);
-            when(inventoryItemRepository.save(inventoryItem)).thenReturn(inventoryItem);
             when(stockTransactionRepository.save(any(StockTransaction.class)))
                     .thenAnswer(inv -> {
                         StockTransaction tx = inv.getArgument(0);
@@ -0,0 +1,203 @@
+package com.example.hms.service.pharmacy;
+
+import com.example.hms.enums.OrganizationType;
+import com.example.hms.enums.PharmacyType;
+import com.example.hms.exception.BusinessException;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Organization;
+import com.example.hms.model.medication.MedicationCatalogItem;
+import com.example.hms.model.pharmacy.InventoryItem;
+import com.example.hms.model.pharmacy.Pharmacy;
+import com.example.hms.model.pharmacy.StockLot;
+import com.example.hms.repository.pharmacy.InventoryItemRepository;
+import com.example.hms.repository.pharmacy.StockLotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Many dispensers race on one lot against real {@code stock_lots} /
+ * {@code inventory_items} rows (H2 in PostgreSQL mode). Each withdrawal runs
+ * in its own transaction, so the only serialisation is the database's row
+ * lock on the conditional UPDATEs: every accepted withdrawal must land, and
+ * the lot must run out exactly once.
+ *
+ * <p>The fixtures are committed (the test is not transactional) and carry a
+ * unique suffix; the stock rows are deleted again in teardown.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockLedgerConcurrencyIT {
+
+    private static final int LOT_UNITS = 300;
+    private static final int ITEM_UNITS = 800;
+
+    @Autowired private StockLotRepository stockLotRepository;
+    @Autowired private InventoryItemRepository inventoryItemRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private TestEntityManager em;
+
+    private TransactionTemplate tx;
+    private StockLedger ledger;
+    private InventoryItem item;
+    private StockLot lot;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        ledger = new StockLedger(stockLotRepository, inventoryItemRepository, jdbcTemplate,
+                mock(HospitalStockView.class));
+        String uid = UUID.randomUUID().toString().substring(0, 8);
+
+        tx.executeWithoutResult(status -> {
+            Organization organization = em.persist(Organization.builder()
+                    .name("Org " + uid)
+                    .code("ORG-" + uid)
+                    .type(OrganizationType.HOSPITAL_CHAIN)
+                    .build());
+            Hospital hospital = em.persist(Hospital.builder()
+                    .name("Stock Hospital")
+                    .code("HOSP-" + uid)
+                    .address("1 Depot Rd")
+                    .city("Ouagadougou")
+                    .country("BF")
+                    .organization(organization)
+                    .build());
+            Pharmacy pharmacy = em.persist(Pharmacy.builder()
+                    .hospital(hospital)
+                    .name("Dispensary " + uid)
+                    .pharmacyType(PharmacyType.HOSPITAL_DISPENSARY)
+                    .build());
+            MedicationCatalogItem medication = em.persist(MedicationCatalogItem.builder()
+                    .code("MED-" + uid)
+                    .nameFr("Paracétamol " + uid)
+                    .genericName("paracetamol")
+                    .build());
+            item = em.persist(InventoryItem.builder()
+                    .pharmacy(pharmacy)
+                    .medicationCatalogItem(medication)
+                    .quantityOnHand(BigDecimal.valueOf(ITEM_UNITS))
+                    .active(true)
+                    .build());
+            lot = em.persist(StockLot.builder()
+                    .inventoryItem(item)
+                    .lotNumber("LOT-" + uid)
+                    .expiryDate(LocalDate.now().plusYears(1))
+                    .initialQuantity(BigDecimal.valueOf(LOT_UNITS))
+                    .remainingQuantity(BigDecimal.valueOf(LOT_UNITS))
+                    .receivedDate(LocalDate.now())
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            stockLotRepository.deleteById(lot.getId());
+            inventoryItemRepository.deleteById(item.getId());
+        });
+    }
+
+    @Test
+    void concurrentWithdrawals_neitherOversellNorLoseAnUpdate() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 50;
+        AtomicInteger withdrawn = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            tx.executeWithoutResult(status -> ledger.withdraw(lot, BigDecimal.ONE));
+                            withdrawn.incrementAndGet();
+                        } catch (BusinessException insufficient) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : workers) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Demand (400) exceeds the lot (300): exactly the lot's units are taken.
+        assertThat(withdrawn.get()).isEqualTo(LOT_UNITS);
+        assertThat(rejected.get()).isEqualTo(threads * attemptsPerThread - LOT_UNITS);
+        assertThat(stockLotRepository.findById(lot.getId()).orElseThrow().getRemainingQuantity())
+                .isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(inventoryItemRepository.findById(item.getId()).orElseThrow().getQuantityOnHand())
+                .isEqualByComparingTo(BigDecimal.valueOf(ITEM_UNITS - LOT_UNITS));
+    }
+
+    @Test
+    void concurrentReceiptsAndWithdrawals_allLand() throws Exception {
+        int threads = 8;
+        int movementsPerThread = 40;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean receiving = t % 2 == 0;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < movementsPerThread; i++) {
+                        tx.executeWithoutResult(status -> {
+                            if (receiving) {
+                                ledger.deposit(item, lot, BigDecimal.valueOf(2));
+                            } else {
+                                ledger.withdraw(item, lot, BigDecimal.ONE);
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : workers) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 4 receiving threads x 40 x 2 in, 4 withdrawing threads x 40 x 1 out
+        int net = 4 * movementsPerThread * 2 - 4 * movementsPerThread;
+        assertThat(stockLotRepository.findById(lot.getId()).orElseThrow().getRemainingQuantity())
+                .isEqualByComparingTo(BigDecimal.valueOf(LOT_UNITS + net));
+        assertThat(inventoryItemRepository.findById(item.getId()).orElseThrow().getQuantityOnHand())
+                .isEqualByComparingTo(BigDecimal.valueOf(ITEM_UNITS + net));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.hms.service.pharmacy;
+
+import com.example.hms.enums.StockTransactionType;
+import com.example.hms.exception.BusinessException;
+import com.example.hms.model.User;
+import com.example.hms.model.pharmacy.InventoryItem;
+import com.example.hms.model.pharmacy.StockLot;
+import com.example.hms.model.pharmacy.StockTransaction;
+import com.example.hms.repository.pharmacy.InventoryItemRepository;
+import com.example.hms.repository.pharmacy.StockLotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+
+    @Mock private StockLotRepository stockLotRepository;
+    @Mock private InventoryItemRepository inventoryItemRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private HospitalStockView stockView;
+
+    @InjectMocks private StockLedger ledger;
+
+    private InventoryItem item;
+    private StockLot lot;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        item = InventoryItem.builder().quantityOnHand(BigDecimal.valueOf(100)).build();
+        item.setId(UUID.randomUUID());
+        lot = StockLot.builder().inventoryItem(item).lotNumber("L-1")
+                .remainingQuantity(BigDecimal.valueOf(50)).build();
+        lot.setId(UUID.randomUUID());
+        user = new User();
+        user.setId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("withdraw decrements the lot, then the item, without touching the entities")
+    void withdraw_conditionalUpdates() {
+        when(stockLotRepository.withdrawIfAvailable(eq(lot.getId()), eq(BigDecimal.TEN), any())).thenReturn(1);
+        when(inventoryItemRepository.withdrawIfAvailable(eq(item.getId()), eq(BigDecimal.TEN), any())).thenReturn(1);
+
+        ledger.withdraw(lot, BigDecimal.TEN);
+
+        assertThat(lot.getRemainingQuantity()).isEqualByComparingTo("50");
+        assertThat(item.getQuantityOnHand()).isEqualByComparingTo("100");
+        verify(stockView).recordMovement(item, BigDecimal.TEN.negate());
+    }
+
+    @Test
+    @DisplayName("a lot that cannot cover the quantity fails before the item is touched")
+    void withdraw_insufficientLot() {
+        when(stockLotRepository.withdrawIfAvailable(eq(lot.getId()), eq(BigDecimal.TEN), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> ledger.withdraw(lot, BigDecimal.TEN))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Insufficient lot stock");
+        verify(inventoryItemRepository, never()).withdrawIfAvailable(any(), any(), any());
+        verify(stockView, never()).recordMovement(any(), any());
+    }
+
+    @Test
+    @DisplayName("an item that cannot cover the quantity fails the withdrawal")
+    void withdraw_insufficientItem() {
+        when(stockLotRepository.withdrawIfAvailable(eq(lot.getId()), eq(BigDecimal.TEN), any())).thenReturn(1);
+        when(inventoryItemRepository.withdrawIfAvailable(eq(item.getId()), eq(BigDecimal.TEN), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> ledger.withdraw(lot, BigDecimal.TEN))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Insufficient stock");
+    }
+
+    @Test
+    @DisplayName("outside a transaction a ledger row is written straight away")
+    @SuppressWarnings("unchecked")
+    void record_noTransaction_insertsImmediately() {
+        StockTransaction entry = entry(StockTransactionType.DISPENSE);
+
+        ledger.record(entry);
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(StockLedger.INSERT_SQL), rows.capture());
+        Object[] row = rows.getValue().get(0);
+        assertThat(row[0]).isEqualTo(entry.getId()).isNotNull();
+        assertThat(row[3]).isEqualTo(item.getId());
+        assertThat(row[4]).isEqualTo(lot.getId());
+        assertThat(row[5]).isEqualTo("DISPENSE");
+        assertThat(row[9]).isEqualTo(user.getId());
+    }
+
+    @Test
+    @DisplayName("inside a transaction the rows are buffered and written as one batch before commit")
+    @SuppressWarnings("unchecked")
+    void record_inTransaction_batchedBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.record(entry(StockTransactionType.DISPENSE));
+        ledger.record(entry(StockTransactionType.DISPENSE));
+        ledger.record(entry(StockTransactionType.RETURN));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(StockLedger.INSERT_SQL), rows.capture());
+        assertThat(rows.getValue()).hasSize(3);
+        assertThat(TransactionSynchronizationManager.getResource(ledger)).isNull();
+    }
+
+    @Test
+    @DisplayName("an item-only withdrawal skips the lot")
+    void withdraw_itemOnly() {
+        when(inventoryItemRepository.withdrawIfAvailable(eq(item.getId()), eq(BigDecimal.TEN), any())).thenReturn(1);
+
+        ledger.withdraw(item, null, BigDecimal.TEN);
+
+        verify(stockLotRepository, never()).withdrawIfAvailable(any(), any(), any());
+        verify(stockView).recordMovement(item, BigDecimal.TEN.negate());
+    }
+
+    @Test
+    @DisplayName("deposit increments the lot, then the item, unconditionally")
+    void deposit_incrementsLotThenItem() {
+        ledger.deposit(item, lot, BigDecimal.TEN);
+
+        InOrder order = inOrder(stockLotRepository, inventoryItemRepository);
+        order.verify(stockLotRepository).restore(eq(lot.getId()), eq(BigDecimal.TEN), any());
+        order.verify(inventoryItemRepository).restore(eq(item.getId()), eq(BigDecimal.TEN), any());
+        assertThat(item.getQuantityOnHand()).isEqualByComparingTo("100");
+        verify(stockView).recordMovement(item, BigDecimal.TEN);
+    }
+
+    private StockTransaction entry(StockTransactionType type) {
+        return StockTransaction.builder()
+                .inventoryItem(item)
+                .stockLot(lot)
+                .transactionType(type)
+                .quantity(BigDecimal.TEN)
+                .reason("test")
+                .performedByUser(user)
+                .build();
+    }
+}
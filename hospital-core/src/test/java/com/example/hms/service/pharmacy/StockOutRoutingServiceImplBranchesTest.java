@@ -11,7 +11,6 @@ import com.example.hms.model.Patient;
 import com.example.hms.model.Prescription;
 import com.example.hms.model.User;
 import com.example.hms.model.medication.MedicationCatalogItem;
-import com.example.hms.model.pharmacy.InventoryItem;
 import com.example.hms.model.pharmacy.Pharmacy;
 import com.example.hms.model.pharmacy.PrescriptionRoutingDecision;
 import com.example.hms.payload.dto.pharmacy.RoutingDecisionRequestDTO;
@@ -45,6 +44,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -65,6 +65,7 @@ class StockOutRoutingServiceImplBranchesTest {
     @Mock private PrescriptionRoutingMapper routingMapper;
     @Mock private RoleValidator roleValidator;
     @Mock private PharmacyServiceSupport support;
+    @Mock private HospitalStockView stockView;
     @Mock private PartnerNotificationChannel partnerChannel;
 
     @InjectMocks
@@ -145,47 +146,22 @@ class StockOutRoutingServiceImplBranchesTest {
     }
 
     @Test
-    @DisplayName("checkStock ignores inventory items with null pharmacy or null quantity")
-    void checkStockIgnoresNullQuantityItems() {
-        UUID medicationId = UUID.randomUUID();
-        MedicationCatalogItem catalogItem = MedicationCatalogItem.builder()
-                .hospital(hospital)
-                .code("AMOX500")
-                .build();
-        catalogItem.setId(medicationId);
-
-        Pharmacy dispensary = Pharmacy.builder()
-                .hospital(hospital)
-                .pharmacyType(PharmacyType.HOSPITAL_DISPENSARY)
-                .build();
-        dispensary.setId(UUID.randomUUID());
-
-        InventoryItem nullQty = InventoryItem.builder()
-                .pharmacy(dispensary)
-                .medicationCatalogItem(catalogItem)
-                .quantityOnHand(null)
-                .active(true)
-                .build();
-        InventoryItem nullPharmacy = InventoryItem.builder()
-                .pharmacy(null)
-                .medicationCatalogItem(catalogItem)
-                .quantityOnHand(BigDecimal.valueOf(100))
-                .active(true)
-                .build();
-
+    @DisplayName("checkStock with partners but no catalog item skips the formulary query")
+    void checkStockNoCatalogItemSkipsFormularyQuery() {
         when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
         when(prescriptionRepository.findById(prescriptionId)).thenReturn(Optional.of(prescription));
         when(medicationCatalogItemRepository.findByHospitalIdAndCode(hospitalId, "AMOX500"))
-                .thenReturn(Optional.of(catalogItem));
-        when(inventoryItemRepository.findByPharmacyHospitalIdAndMedicationCatalogItemIdAndActiveTrue(
-                hospitalId, medicationId)).thenReturn(List.of(nullQty, nullPharmacy));
+                .thenReturn(Optional.empty());
         when(pharmacyRepository.findByHospitalIdAndPharmacyTypeAndActiveTrue(
-                hospitalId, PharmacyType.PARTNER_PHARMACY)).thenReturn(List.of());
+                hospitalId, PharmacyType.PARTNER_PHARMACY)).thenReturn(List.of(partnerPharmacy));
 
         StockCheckResultDTO result = service.checkStock(prescriptionId);
 
         assertThat(result.getQuantityOnHand()).isEqualByComparingTo(BigDecimal.ZERO);
-        assertThat(result.isSufficient()).isFalse();
+        assertThat(result.getPartnerPharmacies()).singleElement()
+                .satisfies(option -> assertThat(option.isHasOnFormulary()).isFalse());
+        verify(stockView, never()).onHand(any(), any());
+        verify(inventoryItemRepository, never()).findPharmacyIdsCarrying(any(), any());
     }
 
     @Test
@@ -199,25 +175,11 @@ class StockOutRoutingServiceImplBranchesTest {
                 .build();
         catalogItem.setId(medicationId);
 
-        Pharmacy dispensary = Pharmacy.builder()
-                .hospital(hospital)
-                .pharmacyType(PharmacyType.HOSPITAL_DISPENSARY)
-                .build();
-        dispensary.setId(UUID.randomUUID());
-
-        InventoryItem inv = InventoryItem.builder()
-                .pharmacy(dispensary)
-                .medicationCatalogItem(catalogItem)
-                .quantityOnHand(BigDecimal.ONE)
-                .active(true)
-                .build();
-
         when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
         when(prescriptionRepository.findById(prescriptionId)).thenReturn(Optional.of(prescription));
         when(medicationCatalogItemRepository.findByHospitalIdAndCode(hospitalId, "AMOX500"))
                 .thenReturn(Optional.of(catalogItem));
-        when(inventoryItemRepository.findByPharmacyHospitalIdAndMedicationCatalogItemIdAndActiveTrue(
-                hospitalId, medicationId)).thenReturn(List.of(inv));
+        when(stockView.onHand(hospitalId, medicationId)).thenReturn(BigDecimal.ONE);
 
         StockCheckResultDTO result = service.checkStock(prescriptionId);
 
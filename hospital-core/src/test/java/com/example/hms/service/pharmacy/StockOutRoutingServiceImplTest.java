@@ -11,7 +11,6 @@ import com.example.hms.model.Patient;
 import com.example.hms.model.Prescription;
 import com.example.hms.model.User;
 import com.example.hms.model.medication.MedicationCatalogItem;
-import com.example.hms.model.pharmacy.InventoryItem;
 import com.example.hms.model.pharmacy.Pharmacy;
 import com.example.hms.model.pharmacy.PrescriptionRoutingDecision;
 import com.example.hms.payload.dto.pharmacy.RoutingDecisionRequestDTO;
@@ -36,6 +35,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -43,6 +43,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -59,6 +60,7 @@ class StockOutRoutingServiceImplTest {
     @Mock private RoleValidator roleValidator;
     @Mock private AuditEventLogService auditEventLogService;
     @Mock private PharmacyServiceSupport support;
+    @Mock private HospitalStockView stockView;
     @Mock private com.example.hms.service.pharmacy.partner.PartnerNotificationChannel partnerChannel;
 
     @InjectMocks
@@ -127,29 +129,15 @@ class StockOutRoutingServiceImplTest {
     @Test
     @DisplayName("checkStock should include partner routing options when stock is insufficient")
     void checkStockShouldIncludePartnerOptionsWhenInsufficient() {
-        InventoryItem dispensaryInventory = InventoryItem.builder()
-                .pharmacy(dispensary)
-                .medicationCatalogItem(catalogItem)
-                .quantityOnHand(BigDecimal.ONE)
-                .active(true)
-                .build();
-        InventoryItem partnerInventory = InventoryItem.builder()
-                .pharmacy(partnerPharmacy)
-                .medicationCatalogItem(catalogItem)
-                .quantityOnHand(BigDecimal.valueOf(25))
-                .active(true)
-                .build();
-
         when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
         when(prescriptionRepository.findById(prescriptionId)).thenReturn(Optional.of(prescription));
         when(medicationCatalogItemRepository.findByHospitalIdAndCode(hospitalId, "AMOX500"))
                 .thenReturn(Optional.of(catalogItem));
-        when(inventoryItemRepository.findByPharmacyHospitalIdAndMedicationCatalogItemIdAndActiveTrue(
-                hospitalId, medicationId)).thenReturn(List.of(dispensaryInventory, partnerInventory));
+        when(stockView.onHand(hospitalId, medicationId)).thenReturn(BigDecimal.ONE);
         when(pharmacyRepository.findByHospitalIdAndPharmacyTypeAndActiveTrue(
                 hospitalId, PharmacyType.PARTNER_PHARMACY)).thenReturn(List.of(partnerPharmacy));
-        when(inventoryItemRepository.findByPharmacyIdAndMedicationCatalogItemId(partnerId, medicationId))
-                .thenReturn(Optional.of(partnerInventory));
+        when(inventoryItemRepository.findPharmacyIdsCarrying(List.of(partnerId), medicationId))
+                .thenReturn(Set.of(partnerId));
 
         StockCheckResultDTO result = service.checkStock(prescriptionId);
 
@@ -234,24 +222,17 @@ class StockOutRoutingServiceImplTest {
     @Test
     @DisplayName("checkStock should report sufficient when dispensary stock meets need")
     void checkStockShouldReportSufficient() {
-        InventoryItem dispensaryInventory = InventoryItem.builder()
-                .pharmacy(dispensary)
-                .medicationCatalogItem(catalogItem)
-                .quantityOnHand(BigDecimal.valueOf(50))
-                .active(true)
-                .build();
-
         when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
         when(prescriptionRepository.findById(prescriptionId)).thenReturn(Optional.of(prescription));
         when(medicationCatalogItemRepository.findByHospitalIdAndCode(hospitalId, "AMOX500"))
                 .thenReturn(Optional.of(catalogItem));
-        when(inventoryItemRepository.findByPharmacyHospitalIdAndMedicationCatalogItemIdAndActiveTrue(
-                hospitalId, medicationId)).thenReturn(List.of(dispensaryInventory));
+        when(stockView.onHand(hospitalId, medicationId)).thenReturn(BigDecimal.valueOf(50));
 
         StockCheckResultDTO result = service.checkStock(prescriptionId);
 
         assertThat(result.isSufficient()).isTrue();
         assertThat(result.getPartnerPharmacies()).isEmpty();
+        verify(pharmacyRepository, never()).findByHospitalIdAndPharmacyTypeAndActiveTrue(any(), any());
     }
 
     @Test
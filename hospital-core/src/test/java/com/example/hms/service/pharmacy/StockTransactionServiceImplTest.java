@@ -46,6 +46,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -61,6 +62,7 @@ class StockTransactionServiceImplTest {
     @Mock private StockTransactionMapper stockTransactionMapper;
     @Mock private RoleValidator roleValidator;
     @Mock private AuditEventLogService auditEventLogService;
+    @Mock private StockLedger stockLedger;
 
     @InjectMocks
     private StockTransactionServiceImpl service;
@@ -163,7 +165,6 @@ class StockTransactionServiceImplTest {
         tx.setId(transactionId);
         when(stockTransactionMapper.toEntity(eq(dto), eq(inventoryItem), any(), eq(user))).thenReturn(tx);
         when(stockTransactionRepository.save(tx)).thenReturn(tx);
-        when(inventoryItemRepository.save(inventoryItem)).thenReturn(inventoryItem);
         when(roleValidator.getCurrentUserId()).thenReturn(userId);
         when(stockTransactionMapper.toResponseDTO(tx)).thenReturn(buildResponse());
     }
@@ -175,7 +176,7 @@ class StockTransactionServiceImplTest {
     class RecordReceipt {
 
         @Test
-        @DisplayName("adds quantity to item and lot")
+        @DisplayName("adds quantity to item and lot through the ledger, not the entities")
         void success() {
             BigDecimal qty = new BigDecimal("20.00");
             StockTransactionRequestDTO dto = buildRequest(StockTransactionType.RECEIPT, qty);
@@ -183,12 +184,11 @@ class StockTransactionServiceImplTest {
 
             service.recordTransaction(dto);
 
-            // Item quantity increased
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("120.00"));
-            // Lot remaining increased
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("70.00"));
-            verify(stockLotRepository).save(stockLot);
-            verify(inventoryItemRepository).save(inventoryItem);
+            verify(stockLedger).deposit(inventoryItem, stockLot, qty);
+            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("100.00"));
+            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("50.00"));
+            verify(stockLotRepository, never()).save(any(StockLot.class));
+            verify(inventoryItemRepository, never()).save(any(InventoryItem.class));
             verify(auditEventLogService).logEvent(any(AuditEventRequestDTO.class));
         }
     }
@@ -208,10 +208,8 @@ class StockTransactionServiceImplTest {
 
             service.recordTransaction(dto);
 
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("90.00"));
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("40.00"));
-            verify(stockLotRepository).save(stockLot);
-            verify(inventoryItemRepository).save(inventoryItem);
+            verify(stockLedger).withdraw(inventoryItem, stockLot, qty);
+            verify(inventoryItemRepository, never()).save(any(InventoryItem.class));
         }
 
         @Test
@@ -235,17 +233,18 @@ class StockTransactionServiceImplTest {
             when(stockTransactionMapper.toEntity(dto, inventoryItem, stockLot, user))
                     .thenReturn(tx);
             when(stockTransactionRepository.save(tx)).thenReturn(tx);
+            doThrow(new BusinessException("Insufficient stock: fewer than 200.00 units on hand"))
+                    .when(stockLedger).withdraw(inventoryItem, stockLot, qty);
 
             assertThatThrownBy(() -> service.recordTransaction(dto))
                     .isInstanceOf(BusinessException.class)
                     .hasMessageContaining("Insufficient stock");
+            verify(auditEventLogService, never()).logEvent(any(AuditEventRequestDTO.class));
         }
 
         @Test
         @DisplayName("throws BusinessException when insufficient lot stock")
         void insufficientLotStock() {
-            // Item has enough stock, but lot doesn't
-            inventoryItem.setQuantityOnHand(new BigDecimal("500.00"));
             BigDecimal qty = new BigDecimal("60.00"); // lot only has 50
             StockTransactionRequestDTO dto = buildRequest(StockTransactionType.DISPENSE, qty);
 
@@ -264,6 +263,8 @@ class StockTransactionServiceImplTest {
             when(stockTransactionMapper.toEntity(dto, inventoryItem, stockLot, user))
                     .thenReturn(tx);
             when(stockTransactionRepository.save(tx)).thenReturn(tx);
+            doThrow(new BusinessException("Insufficient lot stock: lot LOT-001 has fewer than 60.00 units remaining"))
+                    .when(stockLedger).withdraw(inventoryItem, stockLot, qty);
 
             assertThatThrownBy(() -> service.recordTransaction(dto))
                     .isInstanceOf(BusinessException.class)
@@ -286,10 +287,7 @@ class StockTransactionServiceImplTest {
 
             service.recordTransaction(dto);
 
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("85.00"));
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("35.00"));
-            verify(stockLotRepository).save(stockLot);
-            verify(inventoryItemRepository).save(inventoryItem);
+            verify(stockLedger).withdraw(inventoryItem, stockLot, qty);
         }
 
         @Test
@@ -313,6 +311,8 @@ class StockTransactionServiceImplTest {
             when(stockTransactionMapper.toEntity(dto, inventoryItem, stockLot, user))
                     .thenReturn(tx);
             when(stockTransactionRepository.save(tx)).thenReturn(tx);
+            doThrow(new BusinessException("Insufficient stock: fewer than 150.00 units on hand"))
+                    .when(stockLedger).withdraw(inventoryItem, stockLot, qty);
 
             assertThatThrownBy(() -> service.recordTransaction(dto))
                     .isInstanceOf(BusinessException.class)
@@ -335,13 +335,11 @@ class StockTransactionServiceImplTest {
 
             service.recordTransaction(dto);
 
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("105.00"));
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("55.00"));
-            verify(stockLotRepository).save(stockLot);
+            verify(stockLedger).deposit(inventoryItem, stockLot, qty);
         }
 
         @Test
-        @DisplayName("subtracts negative adjustment from item and lot")
+        @DisplayName("withdraws a negative adjustment from item and lot, guarded like a dispense")
         void negativeAdjustment() {
             BigDecimal qty = new BigDecimal("-10.00");
             StockTransactionRequestDTO dto = buildRequest(StockTransactionType.ADJUSTMENT, qty);
@@ -349,8 +347,7 @@ class StockTransactionServiceImplTest {
 
             service.recordTransaction(dto);
 
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("90.00"));
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("40.00"));
+            verify(stockLedger).withdraw(inventoryItem, stockLot, new BigDecimal("10.00"));
         }
     }
 
@@ -369,10 +366,7 @@ class StockTransactionServiceImplTest {
 
             service.recordTransaction(dto);
 
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("108.00"));
-            assertThat(stockLot.getRemainingQuantity()).isEqualByComparingTo(new BigDecimal("58.00"));
-            verify(stockLotRepository).save(stockLot);
-            verify(inventoryItemRepository).save(inventoryItem);
+            verify(stockLedger).deposit(inventoryItem, stockLot, qty);
         }
     }
 
@@ -404,14 +398,12 @@ class StockTransactionServiceImplTest {
             when(stockTransactionMapper.toEntity(eq(dto), eq(inventoryItem), isNull(), eq(user)))
                     .thenReturn(tx);
             when(stockTransactionRepository.save(tx)).thenReturn(tx);
-            when(inventoryItemRepository.save(inventoryItem)).thenReturn(inventoryItem);
-            when(roleValidator.getCurrentUserId()).thenReturn(userId);
+                when(roleValidator.getCurrentUserId()).thenReturn(userId);
             when(stockTransactionMapper.toResponseDTO(tx)).thenReturn(buildResponse());
 
             service.recordTransaction(dto);
 
-            assertThat(inventoryItem.getQuantityOnHand()).isEqualByComparingTo(new BigDecimal("125.00"));
-            verify(inventoryItemRepository).save(inventoryItem);
+            verify(stockLedger).deposit(inventoryItem, null, qty);
             verify(stockLotRepository, never()).save(any(StockLot.class));
         }
     }
@@ -662,8 +654,7 @@ class StockTransactionServiceImplTest {
             when(stockTransactionMapper.toEntity(dto, inventoryItem, stockLot, user))
                     .thenReturn(tx);
             when(stockTransactionRepository.save(tx)).thenReturn(tx);
-            when(inventoryItemRepository.save(inventoryItem)).thenReturn(inventoryItem);
-            when(stockTransactionMapper.toResponseDTO(tx)).thenReturn(buildResponse());
+                when(stockTransactionMapper.toResponseDTO(tx)).thenReturn(buildResponse());
 
             StockTransactionResponseDTO result = service.recordTransaction(dto);
 
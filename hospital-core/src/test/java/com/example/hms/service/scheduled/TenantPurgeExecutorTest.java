@@ -3,6 +3,7 @@ package com.example.hms.service.scheduled;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -19,6 +20,7 @@ import com.example.hms.service.tenant.TenantArchiveEncryptionService;
 import com.example.hms.service.tenant.TenantExportPackager;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
@@ -59,15 +61,19 @@ class TenantPurgeExecutorTest {
         Path envelope = Path.of(System.getProperty("java.io.tmpdir"), "stub.zip.enc.envelope.json");
         // lenient() — failure-path tests in this class throw before reaching
         // these stubs, which Mockito's STRICT_STUBS would otherwise flag.
-        lenient().when(exportPackager.packageOrganization(any(Organization.class), any(Path.class)))
-            .thenReturn(new TenantExportPackager.PackageResult(
-                Path.of(System.getProperty("java.io.tmpdir"), "stub.zip"),
-                Map.of("organization.ndjson", 1L)));
-        lenient().when(archiveEncryption.encryptArchive(any(Path.class), any(Path.class)))
-            .thenReturn(new TenantArchiveEncryptionService.EncryptionResult(
-                archive, envelope,
-                TenantArchiveEncryptionService.EncryptionResult.Mode.ENCRYPTED,
-                "AES/GCM/NoPadding"));
+        lenient().when(exportPackager.writeOrganization(any(Organization.class), any(OutputStream.class)))
+            .thenReturn(Map.of("organization.ndjson", 1L));
+        // The encryption stub drives the writer like the real service does,
+        // so packaging failures surface through encryptStream.
+        lenient().when(archiveEncryption.encryptStream(any(Path.class), any()))
+            .thenAnswer(inv -> {
+                inv.<TenantArchiveEncryptionService.ArchiveWriter>getArgument(1)
+                    .writeTo(OutputStream.nullOutputStream());
+                return new TenantArchiveEncryptionService.EncryptionResult(
+                    archive, envelope,
+                    TenantArchiveEncryptionService.EncryptionResult.Mode.ENCRYPTED,
+                    "AES/GCM/NoPadding");
+            });
     }
 
     @Test
@@ -89,7 +95,7 @@ class TenantPurgeExecutorTest {
         executor.executePurge(org, false);
 
         ArgumentCaptor<AuditEventRequestDTO> cap = ArgumentCaptor.forClass(AuditEventRequestDTO.class);
-        verify(auditEventLogService, times(2)).logEvent(cap.capture());
+        verify(auditEventLogService, times(2)).submitEvent(cap.capture());
         List<AuditEventRequestDTO> events = cap.getAllValues();
         assertThat(events).extracting(AuditEventRequestDTO::getEventType)
             .containsExactly(AuditEventType.TENANT_PURGE_PACKAGED, AuditEventType.TENANT_PURGED);
@@ -111,7 +117,7 @@ class TenantPurgeExecutorTest {
 
     @Test
     void packagingFailureAbortsPurgeAndEmitsPackagingFailedAudit() throws IOException {
-        when(exportPackager.packageOrganization(any(Organization.class), any(Path.class)))
+        when(exportPackager.writeOrganization(any(Organization.class), any(OutputStream.class)))
             .thenThrow(new IOException("disk full"));
 
         executor.executePurge(org, false);
@@ -121,7 +127,7 @@ class TenantPurgeExecutorTest {
         verify(organizationRepository, never()).save(any(Organization.class));
 
         ArgumentCaptor<AuditEventRequestDTO> cap = ArgumentCaptor.forClass(AuditEventRequestDTO.class);
-        verify(auditEventLogService, times(1)).logEvent(cap.capture());
+        verify(auditEventLogService, times(1)).submitEvent(cap.capture());
         assertThat(cap.getValue().getEventType())
             .isEqualTo(AuditEventType.TENANT_PURGE_PACKAGING_FAILED);
         assertThat(cap.getValue().getEventDescription()).contains("disk full");
@@ -129,21 +135,21 @@ class TenantPurgeExecutorTest {
 
     @Test
     void encryptionFailureAlsoAbortsPurge() throws IOException {
-        when(archiveEncryption.encryptArchive(any(Path.class), any(Path.class)))
+        when(archiveEncryption.encryptStream(any(Path.class), any()))
             .thenThrow(new IOException("KEK source not configured"));
 
         executor.executePurge(org, false);
 
         assertThat(org.getLifecycleState()).isEqualTo(OrganizationLifecycleState.PENDING_PURGE);
         verify(organizationRepository, never()).save(any(Organization.class));
-        verify(auditEventLogService).logEvent(
+        verify(auditEventLogService).submitEvent(
             argThat(req -> req.getEventType() == AuditEventType.TENANT_PURGE_PACKAGING_FAILED));
     }
 
     @Test
     void auditFailureDoesNotPropagateOutOfTheExecutor() {
         when(organizationRepository.save(any(Organization.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditEventLogService.logEvent(any())).thenThrow(new RuntimeException("audit down"));
+        doThrow(new RuntimeException("audit down")).when(auditEventLogService).submitEvent(any());
 
         // Should not throw — audit emission is best-effort by contract.
         executor.executePurge(org, false);
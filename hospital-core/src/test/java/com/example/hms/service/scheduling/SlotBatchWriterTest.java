@@ -0,0 +1,107 @@
+package com.example.hms.service.scheduling;
+
+import com.example.hms.service.scheduling.SlotBatchWriter.NewSlot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlotBatchWriterTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks private SlotBatchWriter writer;
+
+    @Test
+    @DisplayName("large inserts are split into JDBC batches of BATCH_SIZE rows")
+    @SuppressWarnings("unchecked")
+    void insert_splitsIntoBatches() {
+        int total = SlotBatchWriter.BATCH_SIZE + 10;
+        when(jdbcTemplate.batchUpdate(eq(SlotBatchWriter.INSERT_SQL), anyList()))
+            .thenAnswer(inv -> new int[((List<Object[]>) inv.getArgument(1)).size()]);
+
+        writer.insert(slots(total));
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(SlotBatchWriter.INSERT_SQL), batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size)
+            .containsExactly(SlotBatchWriter.BATCH_SIZE, 10);
+        Object[] row = batches.getAllValues().get(0).get(0);
+        assertThat(row[9]).isInstanceOf(Timestamp.class);
+        assertThat(row[11]).isEqualTo("OPEN");
+    }
+
+    @Test
+    @DisplayName("conflicting rows are not counted")
+    void insert_countsOnlyInsertedRows() {
+        when(jdbcTemplate.batchUpdate(eq(SlotBatchWriter.INSERT_SQL), anyList()))
+            .thenReturn(new int[] {1, 0, 1});
+
+        assertThat(writer.insert(slots(3))).isEqualTo(2);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("a rewritten batch (SUCCESS_NO_INFO) is counted by looking up the ids it generated")
+    @SuppressWarnings("unchecked")
+    void insert_successNoInfo_countsGeneratedIds() {
+        int noInfo = Statement.SUCCESS_NO_INFO;
+        when(jdbcTemplate.batchUpdate(eq(SlotBatchWriter.INSERT_SQL), anyList()))
+            .thenReturn(new int[] {noInfo, noInfo, noInfo});
+        List<UUID[]> looked = new ArrayList<>();
+        when(jdbcTemplate.queryForObject(eq(SlotBatchWriter.COUNT_INSERTED_SQL), eq(Integer.class), any(Object[].class)))
+            .thenAnswer(inv -> {
+                looked.add(inv.getArgument(2));
+                return 2;
+            });
+
+        assertThat(writer.insert(slots(3))).isEqualTo(2);
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(SlotBatchWriter.INSERT_SQL), rows.capture());
+        assertThat(looked).singleElement().satisfies(ids -> assertThat(ids)
+            .containsExactly(rows.getValue().stream().map(row -> (UUID) row[0]).toArray(UUID[]::new)));
+    }
+
+    @Test
+    @DisplayName("nothing to insert touches nothing")
+    void insert_empty_noop() {
+        assertThat(writer.insert(List.of())).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private static List<NewSlot> slots(int count) {
+        UUID staffId = UUID.randomUUID();
+        LocalDateTime first = LocalDateTime.of(2026, 8, 24, 9, 0);
+        List<NewSlot> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime startAt = first.plusMinutes(15L * i);
+            slots.add(new NewSlot(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), staffId,
+                null, LocalDate.from(startAt), startAt, startAt.plusMinutes(15)));
+        }
+        return slots;
+    }
+}
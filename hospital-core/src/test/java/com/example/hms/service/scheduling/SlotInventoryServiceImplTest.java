@@ -10,19 +10,23 @@ import com.example.hms.model.scheduling.SessionTemplate;
 import com.example.hms.payload.dto.scheduling.SlotGenerationResultDTO;
 import com.example.hms.repository.scheduling.AppointmentSlotRepository;
 import com.example.hms.repository.scheduling.SessionTemplateRepository;
+import com.example.hms.service.scheduling.SlotBatchWriter.NewSlot;
 import com.example.hms.utility.RoleValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,7 +34,10 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +56,8 @@ class SlotInventoryServiceImplTest {
     @Mock private SessionTemplateRepository templateRepository;
     @Mock private AppointmentSlotRepository slotRepository;
     @Mock private RoleValidator roleValidator;
+    @Mock private SlotBatchWriter slotBatchWriter;
+    @Mock private PlatformTransactionManager transactionManager;
 
     private SlotInventoryServiceImpl service;
 
@@ -59,7 +68,8 @@ class SlotInventoryServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        service = new SlotInventoryServiceImpl(templateRepository, slotRepository, roleValidator);
+        service = new SlotInventoryServiceImpl(
+            templateRepository, slotRepository, roleValidator, slotBatchWriter, transactionManager);
 
         hospitalId = UUID.randomUUID();
         hospital = Hospital.builder().name("CHU").code("CHU").build();
@@ -88,7 +98,8 @@ class SlotInventoryServiceImplTest {
         when(roleValidator.requireActiveHospitalId()).thenReturn(hospitalId);
         when(templateRepository.findByHospital_IdAndActiveTrue(hospitalId)).thenReturn(List.of(template));
         when(slotRepository.save(any(AppointmentSlot.class))).thenAnswer(i -> i.getArgument(0));
-        when(slotRepository.existsByStaff_IdAndStartAt(any(), any())).thenReturn(false);
+        when(slotRepository.findStaffStartTimes(any(), any(), any())).thenReturn(List.of());
+        when(slotBatchWriter.insert(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
     }
 
     /** 2026-08-24 is a Monday. */
@@ -112,7 +123,7 @@ class SlotInventoryServiceImplTest {
 
         assertThat(result.getSlotsCreated()).isZero();
         assertThat(result.getTemplatesApplied()).isZero();
-        verify(slotRepository, never()).save(any());
+        assertThat(insertedSlots()).isEmpty();
     }
 
     @Test
@@ -120,15 +131,68 @@ class SlotInventoryServiceImplTest {
         // Re-running over an overlapping window is the NORMAL case — the natural
         // way to operate this is a rolling horizon that always re-covers days it
         // already covered.
-        when(slotRepository.existsByStaff_IdAndStartAt(any(), any())).thenReturn(true);
+        List<Object[]> existing = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            existing.add(new Object[] {staff.getId(), MONDAY.atTime(9, 0).plusMinutes(30L * i)});
+        }
+        when(slotRepository.findStaffStartTimes(any(), any(), any())).thenReturn(existing);
 
         SlotGenerationResultDTO result = service.generate(MONDAY, MONDAY);
 
         assertThat(result.getSlotsCreated()).isZero();
         assertThat(result.getSkippedExisting()).isEqualTo(6);
+        assertThat(insertedSlots()).isEmpty();
+    }
+
+    @Test
+    void generateInsertsOnlyTheMissingSlotsInOneBatch() {
+        // Two of the six already exist: one read, one batch of four, no
+        // per-slot existence checks or saves.
+        List<Object[]> existing = List.of(
+            new Object[] {staff.getId(), MONDAY.atTime(9, 0)},
+            new Object[] {staff.getId(), MONDAY.atTime(10, 30)});
+        when(slotRepository.findStaffStartTimes(any(), any(), any())).thenReturn(existing);
+
+        SlotGenerationResultDTO result = service.generate(MONDAY, MONDAY);
+
+        assertThat(result.getSlotsCreated()).isEqualTo(4);
+        assertThat(result.getSkippedExisting()).isEqualTo(2);
+        List<NewSlot> inserted = insertedSlots();
+        assertThat(inserted).extracting(NewSlot::startAt).containsExactly(
+            MONDAY.atTime(9, 30), MONDAY.atTime(10, 0), MONDAY.atTime(11, 0), MONDAY.atTime(11, 30));
+        assertThat(inserted.get(0).endAt()).isEqualTo(MONDAY.atTime(10, 0));
+        assertThat(inserted.get(0).staffId()).isEqualTo(staff.getId());
+        assertThat(inserted.get(0).sessionTemplateId()).isEqualTo(template.getId());
+        verify(slotRepository, never()).existsByStaff_IdAndStartAt(any(), any());
         verify(slotRepository, never()).save(any());
     }
 
+    @Test
+    void generateChunksLongWindowsAcrossTransactions() {
+        // 181 days => ceil(181 / 14) = 13 chunks, each one read and one batch.
+        SlotGenerationResultDTO result = service.generate(MONDAY, MONDAY.plusDays(180));
+
+        int chunks = 13;
+        verify(slotRepository, times(chunks)).findStaffStartTimes(any(), any(), any());
+        verify(slotBatchWriter, times(chunks)).insert(anyList());
+        // 26 Mondays in the window, six slots each.
+        assertThat(result.getSlotsCreated()).isEqualTo(26 * 6);
+        assertThat(result.getTemplatesApplied()).isEqualTo(1);
+    }
+
+    @Test
+    void generateCountsSlotsLostToAConcurrentRunAsPresent() {
+        // The unique index, not our read, has the last word: a row another
+        // run inserted between our read and our batch is skipped by
+        // ON CONFLICT DO NOTHING and reported as already present.
+        when(slotBatchWriter.insert(anyList())).thenReturn(5);
+
+        SlotGenerationResultDTO result = service.generate(MONDAY, MONDAY);
+
+        assertThat(result.getSlotsCreated()).isEqualTo(5);
+        assertThat(result.getSkippedExisting()).isEqualTo(1);
+    }
+
     @Test
     void generateRefusesAnUnboundedWindow() {
         // An unbounded range would let one request materialise years of rows and
@@ -240,17 +304,11 @@ class SlotInventoryServiceImplTest {
     }
 
     @Test
-    void reclaimReturnsExpiredHoldsToOpen() {
-        AppointmentSlot slot = openSlot();
-        slot.setStatus(SlotStatus.HELD);
-        slot.setHeldUntil(LocalDateTime.now().minusMinutes(1));
-        slot.setHeldByUserId(UUID.randomUUID());
-        when(slotRepository.findByStatusAndHeldUntilBefore(any(), any())).thenReturn(List.of(slot));
-
-        assertThat(service.reclaimExpiredHolds()).isEqualTo(1);
-        assertThat(slot.getStatus()).isEqualTo(SlotStatus.OPEN);
-        assertThat(slot.getHeldUntil()).isNull();
-        assertThat(slot.getHeldByUserId()).isNull();
+    void reclaimReturnsExpiredHoldsToOpenInOneStatement() {
+        when(slotRepository.reopenExpiredHolds(any(LocalDateTime.class))).thenReturn(3);
+
+        assertThat(service.reclaimExpiredHolds()).isEqualTo(3);
+        verify(slotRepository, never()).save(any());
     }
 
     @Test
@@ -263,4 +321,11 @@ class SlotInventoryServiceImplTest {
             .isInstanceOf(BusinessException.class)
             .hasMessageContaining("active hospital");
     }
+
+    @SuppressWarnings("unchecked")
+    private List<NewSlot> insertedSlots() {
+        ArgumentCaptor<List<NewSlot>> batches = ArgumentCaptor.forClass(List.class);
+        verify(slotBatchWriter, atLeastOnce()).insert(batches.capture());
+        return batches.getAllValues().stream().flatMap(List::stream).toList();
+    }
 }
@@ -0,0 +1,192 @@
+package com.example.hms.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.hms.repository.PatientRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Snapshot tests for {@link PatientNgramIndex}. The postings may only
+ * narrow the rows that get verified: the match set must be exactly what
+ * the legacy {@code LOWER(col) LIKE '%term%'} predicates returned, and the
+ * ranking must follow pg_trgm's {@code similarity()}.
+ */
+class PatientNgramIndexTest {
+
+    private static final String[][] PATIENTS = {
+        {"Awa", "Diallo", "awa.diallo@example.com", "+221770000001", null},
+        {"Aminata", "Diallo", "AMINATA@clinic.sn", "+221770000002", "+221338000002"},
+        {"Mamadou", "Ba", null, "+221770000003", null},
+        {"Fatou", "Ndiaye", "fatou_n@example.com", "+221770000004", "+221770099999"},
+        {"Ousmane", "Diallo-Sow", "o.sow@example.com", "+221770000005", null},
+        {"Awa", "Ba", "awa.ba@example.com", "+221770000006", null},
+    };
+
+    @Test
+    @DisplayName("name, email and phone matches equal a naive substring scan, including short and cross-word terms")
+    void matchesEqualNaiveScan() {
+        List<Object[]> rows = rows();
+        PatientNgramIndex.Snapshot snapshot = PatientNgramIndex.build(rows);
+
+        for (String term : List.of("awa", "aw", "a", "diallo", "llo", "a dia", "awa diallo", "iallo-s", "zzz", "ba")) {
+            PatientSearchQuery query = PatientSearchQuery.of(null, term, null, null, null, null, null);
+            assertThat(snapshot.matchingIds(query)).as("name %s", term)
+                .containsExactlyElementsOf(naive(rows, row -> name(row).contains(query.name())));
+        }
+        for (String term : List.of("example", "clinic", "_n@", "aminata@", "@")) {
+            PatientSearchQuery query = PatientSearchQuery.of(null, null, null, null, term, null, null);
+            assertThat(snapshot.matchingIds(query)).as("email %s", term)
+                .containsExactlyElementsOf(naive(rows, row -> contains(lower((String) row[3]), query.email())));
+        }
+        for (String term : List.of("0000", "99999", "338", "+22177", "5")) {
+            PatientSearchQuery query = PatientSearchQuery.of(null, null, null, term, null, null, null);
+            assertThat(snapshot.matchingIds(query)).as("phone %s", term)
+                .containsExactlyElementsOf(naive(rows,
+                    row -> contains((String) row[4], term) || contains((String) row[5], term)));
+        }
+    }
+
+    @Test
+    @DisplayName("all present terms must match")
+    void termsCombineWithAnd() {
+        List<Object[]> rows = rows();
+        PatientNgramIndex.Snapshot snapshot = PatientNgramIndex.build(rows);
+
+        PatientSearchQuery query = PatientSearchQuery.of(null, "awa", null, "0006", "example", null, null);
+
+        assertThat(snapshot.matchingIds(query)).containsExactly((UUID) rows.get(5)[0]);
+    }
+
+    @Test
+    @DisplayName("similarity follows pg_trgm word padding and set semantics")
+    void similarityMatchesPgTrgm() {
+        assertThat(PatientNgramIndex.similarity("word", "two words")).isCloseTo(4d / 11d, within(1e-9));
+        assertThat(PatientNgramIndex.similarity("Awa Diallo", "awa diallo")).isEqualTo(1d);
+        assertThat(PatientNgramIndex.similarity("abc", "xyz")).isZero();
+        assertThat(PatientNgramIndex.similarity("", "abc")).isZero();
+    }
+
+    @Test
+    @DisplayName("ranking puts the closest name first and keeps only the requested head")
+    void rankingBySimilarity() {
+        List<Object[]> rows = rows();
+        PatientNgramIndex.Snapshot snapshot = PatientNgramIndex.build(rows);
+        PatientSearchQuery query = PatientSearchQuery.of(null, "awa ba", null, null, null, null, null);
+        List<UUID> awaMatches = snapshot.matchingIds(PatientSearchQuery.of(null, "awa", null, null, null, null, null));
+
+        List<UUID> ranked = snapshot.rank(awaMatches, query, 10);
+
+        assertThat(ranked).containsExactly((UUID) rows.get(5)[0], (UUID) rows.get(0)[0]);
+        assertThat(snapshot.rank(awaMatches, query, 1)).containsExactly((UUID) rows.get(5)[0]);
+    }
+
+    @Test
+    @DisplayName("a patch overrides updated rows, hides deleted ones and adds new ones")
+    void patchedSnapshotMatchesRebuild() {
+        List<Object[]> rows = rows();
+        PatientNgramIndex.Snapshot snapshot = PatientNgramIndex.build(rows);
+        UUID renamed = (UUID) rows.get(0)[0];
+        UUID deleted = (UUID) rows.get(5)[0];
+        UUID created = UUID.randomUUID();
+        Object[] renamedRow = {renamed, "Awa", "Sarr", "awa.sarr@example.com", "+221770000001", null};
+        Object[] createdRow = {created, "Awa", "Ba", null, "+221770000007", null};
+
+        PatientNgramIndex.Snapshot patched = snapshot.patched(List.of(renamed, deleted, created),
+            List.of(renamedRow, createdRow));
+
+        PatientSearchQuery awaBa = PatientSearchQuery.of(null, "awa ba", null, null, null, null, null);
+        assertThat(patched.matchingIds(awaBa)).containsExactly(created);
+        assertThat(patched.matchingIds(PatientSearchQuery.of(null, "diallo", null, null, null, null, null)))
+            .containsExactly((UUID) rows.get(1)[0], (UUID) rows.get(4)[0]);
+        assertThat(patched.matchingIds(PatientSearchQuery.of(null, "sarr", null, null, null, null, null)))
+            .containsExactly(renamed);
+        assertThat(patched.rank(List.of(deleted, created, renamed), awaBa, 10)).containsExactly(created, renamed);
+        assertThat(patched.size()).isEqualTo(rows.size());
+        assertThat(patched.loadedAt).isEqualTo(snapshot.loadedAt);
+        // the base snapshot is untouched
+        assertThat(snapshot.matchingIds(awaBa)).containsExactly(deleted);
+    }
+
+    @Test
+    @DisplayName("a patch past its limit is folded into fresh postings with the same results")
+    void oversizedPatchIsCompacted() {
+        List<Object[]> rows = rows();
+        PatientNgramIndex.Snapshot snapshot = PatientNgramIndex.build(rows);
+        List<Object[]> created = new ArrayList<>();
+        for (int i = 0; i <= snapshot.patchLimit(); i++) {
+            created.add(new Object[] {UUID.randomUUID(), "Patient", "N" + i, null, String.format("+2217%08d", i), null});
+        }
+
+        PatientNgramIndex.Snapshot compacted = snapshot.patched(created.stream().map(row -> (UUID) row[0]).toList(),
+            created);
+
+        List<Object[]> all = new ArrayList<>(rows);
+        all.addAll(created);
+        assertThat(compacted.size()).isEqualTo(all.size());
+        assertThat(compacted.loadedAt).isEqualTo(snapshot.loadedAt);
+        for (String term : List.of("diallo", "patient n1", "n99")) {
+            PatientSearchQuery query = PatientSearchQuery.of(null, term, null, null, null, null, null);
+            assertThat(compacted.matchingIds(query)).as("name %s", term)
+                .containsExactlyElementsOf(naive(all, row -> name(row).contains(query.name())));
+        }
+    }
+
+    @Test
+    @DisplayName("queued ids are re-read by id on the next search instead of reloading every patient")
+    void changedIdsArePatchedNotReloaded() {
+        List<Object[]> rows = rows();
+        UUID renamed = (UUID) rows.get(2)[0];
+        PatientRepository repository = mock(PatientRepository.class);
+        when(repository.findSearchIndexTuples()).thenReturn(rows);
+        when(repository.findSearchIndexTuplesByIdIn(List.of(renamed)))
+            .thenReturn(List.<Object[]>of(new Object[] {renamed, "Mamadou", "Sy", null, "+221770000003", null}));
+        PatientNgramIndex index = new PatientNgramIndex(repository, 15);
+        index.current();
+
+        index.invalidate(Set.of(renamed));
+        PatientNgramIndex.Snapshot patched = index.current();
+
+        assertThat(patched.matchingIds(PatientSearchQuery.of(null, "mamadou sy", null, null, null, null, null)))
+            .containsExactly(renamed);
+        assertThat(index.current()).isSameAs(patched);
+        verify(repository, times(1)).findSearchIndexTuples();
+        verify(repository, times(1)).findSearchIndexTuplesByIdIn(any());
+    }
+
+    private static List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (String[] patient : PATIENTS) {
+            rows.add(new Object[] {UUID.randomUUID(), patient[0], patient[1], patient[2], patient[3], patient[4]});
+        }
+        return rows;
+    }
+
+    private static List<UUID> naive(List<Object[]> rows, Predicate<Object[]> predicate) {
+        return rows.stream().filter(predicate).map(row -> (UUID) row[0]).toList();
+    }
+
+    private static String name(Object[] row) {
+        return lower(row[1] + " " + row[2]);
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean contains(String value, String term) {
+        return value != null && value.contains(term);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.hms.service.search;
+
+import com.example.hms.enums.OrganizationType;
+import com.example.hms.model.Hospital;
+import com.example.hms.model.Organization;
+import com.example.hms.model.Patient;
+import com.example.hms.model.PatientHospitalRegistration;
+import com.example.hms.model.User;
+import com.example.hms.security.EncryptionKeyHolder;
+import com.example.hms.security.context.HospitalContext;
+import com.example.hms.security.context.HospitalContextHolder;
+import com.example.hms.security.tenant.TenantContextAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * H2 has no V132 search columns, so these exercise the n-gram fallback end
+ * to end: index matching, then the registration, MRN and tenant filters of
+ * the legacy query, then ranking and paging.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TenantContextAccessor.class, EncryptionKeyHolder.class,
+    PatientSearchService.class, PatientTrigramSearch.class, PatientNgramIndex.class})
+class PatientSearchServiceTest {
+
+    @Autowired
+    private PatientSearchService patientSearchService;
+
+    @Autowired
+    private PatientTrigramSearch trigramSearch;
+
+    @Autowired
+    private PatientNgramIndex ngramIndex;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Hospital scopedHospital;
+    private Patient scopedAwa;
+    private Patient scopedAminata;
+
+    @BeforeEach
+    void setUp() {
+        HospitalContextHolder.clear();
+        Organization organization = entityManager.persist(Organization.builder()
+            .name("Org One")
+            .code("ORG-ONE")
+            .type(OrganizationType.HOSPITAL_CHAIN)
+            .build());
+        scopedHospital = persistHospital("Scoped Hospital", "SCOP-HOSP", organization);
+        Hospital otherHospital = persistHospital("Other Hospital", "OTHR-HOSP", organization);
+
+        scopedAwa = persistPatient("Awa", "Diallo", "+22670000001", scopedHospital, "MRN-1");
+        scopedAminata = persistPatient("Aminata", "Diallo", "+22670000002", scopedHospital, "MRN-2");
+        persistPatient("Awa", "Diallo", "+22670000003", otherHospital, "MRN-3");
+
+        entityManager.flush();
+        entityManager.clear();
+        // Test transactions roll back, so no commit ever marks the shared index stale.
+        ngramIndex.invalidate();
+
+        HospitalContextHolder.setContext(HospitalContext.builder()
+            .principalUserId(UUID.randomUUID())
+            .principalUsername("dev_doctor")
+            .activeHospitalId(scopedHospital.getId())
+            .permittedHospitalIds(Set.of(scopedHospital.getId()))
+            .permittedOrganizationIds(Collections.emptySet())
+            .permittedDepartmentIds(Collections.emptySet())
+            .superAdmin(false)
+            .hospitalAdmin(false)
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        HospitalContextHolder.clear();
+    }
+
+    @Test
+    void usesTheInProcessIndexWithoutTrigramColumns() {
+        assertThat(trigramSearch.isAvailable()).isFalse();
+    }
+
+    @Test
+    void nameSearchIsTenantScopedAndRankedBySimilarity() {
+        Page<Patient> result = patientSearchService.search(
+            PatientSearchQuery.of(null, " Awa DIALLO ", null, null, null, null, true), PageRequest.of(0, 5));
+
+        assertThat(result.getContent()).extracting(Patient::getId).containsExactly(scopedAwa.getId());
+        assertThat(result.getTotalElements()).isEqualTo(1);
+
+        Page<Patient> family = patientSearchService.search(
+            PatientSearchQuery.of(null, "diallo", null, null, null, null, true), PageRequest.of(0, 5));
+
+        assertThat(family.getContent()).extracting(Patient::getId)
+            .containsExactly(scopedAwa.getId(), scopedAminata.getId());
+    }
+
+    @Test
+    void exactFiltersNarrowTextMatches() {
+        Page<Patient> byMrn = patientSearchService.search(
+            PatientSearchQuery.of("MRN-2", "diallo", null, null, null, scopedHospital.getId(), true),
+            PageRequest.of(0, 5));
+
+        assertThat(byMrn.getContent()).extracting(Patient::getId).containsExactly(scopedAminata.getId());
+
+        Page<Patient> byPhone = patientSearchService.search(
+            PatientSearchQuery.of(null, null, "1990-01-01", "0000", null, null, true), PageRequest.of(0, 1));
+
+        assertThat(byPhone.getContent()).hasSize(1);
+        assertThat(byPhone.getTotalElements()).isEqualTo(2);
+    }
+
+    private Hospital persistHospital(String name, String code, Organization organization) {
+        return entityManager.persist(Hospital.builder()
+            .name(name)
+            .code(code)
+            .address("123 Way")
+            .city("Ouagadougou")
+            .country("BF")
+            .organization(organization)
+            .build());
+    }
+
+    private Patient persistPatient(String firstName, String lastName, String phone, Hospital hospital, String mrn) {
+        User user = entityManager.persist(User.builder()
+            .username("user" + phone)
+            .passwordHash("hashed-secret")
+            .email(mrn.toLowerCase(Locale.ROOT) + "@example.com")
+            .phoneNumber(phone)
+            .firstName(firstName)
+            .lastName(lastName)
+            .build());
+        Patient patient = entityManager.persist(Patient.builder()
+            .firstName(firstName)
+            .lastName(lastName)
+            .dateOfBirth(LocalDate.of(1990, 1, 1))
+            .gender("FEMALE")
+            .address("123 Way")
+            .phoneNumberPrimary(phone)
+            .email(mrn.toLowerCase(Locale.ROOT) + "@example.com")
+            .user(user)
+            .hospitalId(hospital.getId())
+            .organizationId(hospital.getOrganization().getId())
+            .active(true)
+            .build());
+        entityManager.persist(PatientHospitalRegistration.builder()
+            .patient(patient)
+            .hospital(hospital)
+            .mrn(mrn)
+            .registrationDate(LocalDate.now())
+            .active(true)
+            .build());
+        return patient;
+    }
+}
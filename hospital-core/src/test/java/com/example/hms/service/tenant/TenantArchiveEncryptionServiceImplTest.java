@@ -16,6 +16,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -279,4 +280,52 @@ class TenantArchiveEncryptionServiceImplTest {
         JsonNode envB = new ObjectMapper().readTree(Files.readAllBytes(resB.envelopePath()));
         assertThat(envA.get("kek_id").asText()).isNotEqualTo(envB.get("kek_id").asText());
     }
+
+    @Test
+    void encryptStreamWritesOnlyCiphertextAndRoundTrips(@TempDir Path tmp) throws Exception {
+        MockEnvironment env = new MockEnvironment();
+        env.setActiveProfiles("prod");
+        String kek = randomKekB64();
+        TenantArchiveEncryptionServiceImpl service = serviceWith(env, "env", kek);
+        byte[] plaintext = "{\"row\":1}\n".repeat(50_000).getBytes(StandardCharsets.UTF_8);
+        Path out = tmp.resolve("streamed.zip.enc");
+
+        TenantArchiveEncryptionService.EncryptionResult result = service.encryptStream(out, stream -> {
+            // Written in small pieces, the way a ZIP stream arrives.
+            for (int off = 0; off < plaintext.length; off += 512) {
+                stream.write(plaintext, off, Math.min(512, plaintext.length - off));
+            }
+        });
+
+        try (Stream<Path> files = Files.list(tmp)) {
+            assertThat(files.map(p -> p.getFileName().toString()))
+                .containsExactlyInAnyOrder("streamed.zip.enc", "streamed.zip.enc.envelope.json");
+        }
+        JsonNode envelope = new ObjectMapper().readTree(Files.readAllBytes(result.envelopePath()));
+        Cipher unwrap = Cipher.getInstance("AES/GCM/NoPadding");
+        unwrap.init(Cipher.DECRYPT_MODE, new SecretKeySpec(Base64.getDecoder().decode(kek), "AES"),
+            new GCMParameterSpec(128, Base64.getDecoder().decode(envelope.get("wrap_iv_b64").asText())));
+        byte[] dek = unwrap.doFinal(Base64.getDecoder().decode(envelope.get("wrapped_dek_b64").asText()));
+        Cipher decrypt = Cipher.getInstance("AES/GCM/NoPadding");
+        decrypt.init(Cipher.DECRYPT_MODE, new SecretKeySpec(dek, "AES"),
+            new GCMParameterSpec(128, Base64.getDecoder().decode(envelope.get("data_iv_b64").asText())));
+
+        assertThat(decrypt.doFinal(Files.readAllBytes(out))).isEqualTo(plaintext);
+    }
+
+    @Test
+    void encryptStreamDeletesPartialOutputWhenTheWriterFails(@TempDir Path tmp) {
+        MockEnvironment env = new MockEnvironment();
+        env.setActiveProfiles("prod");
+        TenantArchiveEncryptionServiceImpl service = serviceWith(env, "env", randomKekB64());
+        Path out = tmp.resolve("broken.zip.enc");
+
+        assertThatThrownBy(() -> service.encryptStream(out, stream -> {
+            stream.write(new byte[200_000]);
+            throw new IOException("cursor lost");
+        })).isInstanceOf(IOException.class).hasMessageContaining("cursor lost");
+
+        assertThat(out).doesNotExist();
+        assertThat(tmp.resolve("broken.zip.enc.envelope.json")).doesNotExist();
+    }
 }
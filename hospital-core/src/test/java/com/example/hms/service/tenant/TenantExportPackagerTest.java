@@ -15,28 +15,43 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TenantExportPackagerTest {
 
+    private static final List<String> TABLES = List.of(
+        "patients.ndjson", "staff.ndjson", "encounters.ndjson", "appointments.ndjson", "audit_events.ndjson");
+
     @Mock private RegionPolicyService regionPolicyService;
+    @Mock private TenantTableExporter tableExporter;
 
     private TenantExportPackager packager;
 
     @BeforeEach
     void setUp() {
-        packager = new TenantExportPackager(regionPolicyService);
+        lenient().when(tableExporter.entryNames()).thenReturn(TABLES);
+        packager = new TenantExportPackager(regionPolicyService, tableExporter, 3);
     }
 
     private Organization sampleOrg() {
@@ -186,4 +201,75 @@ class TenantExportPackagerTest {
             assertThat(midIdx).isLessThan(zedIdx);
         }
     }
+
+    @Test
+    void tableDumpsLandInEntryOrderWhileWorkersRunInParallel(@TempDir Path tmp) throws IOException {
+        Organization org = sampleOrg();
+        // Each table streams well past the pipe capacity, so workers must
+        // block and resume behind the ZIP writer.
+        when(tableExporter.exportTable(any(), eq(org.getId()), any())).thenAnswer(inv -> {
+            String table = inv.getArgument(0);
+            OutputStream out = inv.getArgument(2);
+            long rows = 20_000;
+            for (long i = 0; i < rows; i++) {
+                out.write(("{\"table\":\"" + table + "\",\"row\":" + i + ",\"pad\":\"" + "x".repeat(80) + "\"}\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+            return rows;
+        });
+        Path out = tmp.resolve("parallel.zip");
+
+        TenantExportPackager.PackageResult result = packager.packageOrganization(org, out);
+
+        assertThat(result.recordCountsByTable()).containsAllEntriesOf(
+            Map.of("patients.ndjson", 20_000L, "audit_events.ndjson", 20_000L));
+        assertThat(entries(out)).containsSubsequence(TABLES);
+        try (ZipFile zf = new ZipFile(out.toFile())) {
+            for (String table : TABLES) {
+                List<String> lines = new String(zf.getInputStream(zf.getEntry(table)).readAllBytes(),
+                    StandardCharsets.UTF_8).lines().toList();
+                assertThat(lines).hasSize(20_000);
+                assertThat(lines).allMatch(line -> line.contains("\"table\":\"" + table + "\""));
+                assertThat(lines.get(19_999)).contains("\"row\":19999");
+            }
+        }
+    }
+
+    @Test
+    void failingTableAbortsTheArchiveWithoutStrandingOtherWorkers() throws IOException {
+        Organization org = sampleOrg();
+        when(tableExporter.exportTable(any(), eq(org.getId()), any())).thenAnswer(inv -> {
+            if ("staff.ndjson".equals(inv.getArgument(0))) {
+                throw new IOException("cursor closed");
+            }
+            OutputStream out = inv.getArgument(2);
+            for (int i = 0; i < 50_000; i++) {
+                out.write(("{\"row\":" + i + "}\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return 50_000L;
+        });
+        OutputStream sink = OutputStream.nullOutputStream();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+            assertThatThrownBy(() -> packager.writeOrganization(org, sink))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("cursor closed"));
+    }
+
+    @Test
+    void sequentialExportWritesStraightIntoTheZip(@TempDir Path tmp) throws IOException {
+        Organization org = sampleOrg();
+        when(tableExporter.exportTable(any(), eq(org.getId()), any())).thenAnswer(inv -> {
+            OutputStream out = inv.getArgument(2);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        TenantExportPackager sequential = new TenantExportPackager(regionPolicyService, tableExporter, 1);
+        Path out = tmp.resolve("sequential.zip");
+
+        TenantExportPackager.PackageResult result = sequential.packageOrganization(org, out);
+
+        assertThat(result.recordCountsByTable()).containsEntry("encounters.ndjson", 1L);
+        assertThat(entries(out)).containsSubsequence(TABLES);
+    }
 }
@@ -0,0 +1,288 @@
+package com.example.hms.service.tenant;
+
+import com.example.hms.enums.OrganizationLifecycleState;
+import com.example.hms.enums.OrganizationRegion;
+import com.example.hms.model.Organization;
+import com.example.hms.service.RegionPolicyService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * End-to-end export of a seeded H2 tenant: JDBC cursors → parallel table
+ * workers → ZIP → AES-GCM → file, with a second organization's rows in the
+ * same tables that must stay out of the archive. Publishes rows/s and the
+ * peak heap seen during the export as test report entries.
+ */
+class TenantExportStreamingTest {
+
+    private static final int PATIENTS = 20_000;
+    private static final int STAFF = 2_000;
+    private static final int ENCOUNTERS = 30_000;
+    private static final int APPOINTMENTS = 30_000;
+    private static final int AUDIT_EVENTS = 40_000;
+
+    private static final UUID ORG_ID = UUID.randomUUID();
+    private static final UUID OTHER_ORG_ID = UUID.randomUUID();
+    private static final UUID HOSPITAL_ID = UUID.randomUUID();
+    private static final UUID OTHER_HOSPITAL_ID = UUID.randomUUID();
+    private static final UUID ASSIGNMENT_ID = UUID.randomUUID();
+    private static final UUID OTHER_ASSIGNMENT_ID = UUID.randomUUID();
+
+    private static JdbcTemplate jdbc;
+    private static DataSourceTransactionManager transactionManager;
+
+    @BeforeAll
+    static void seedTenant() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:tenant-export-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbc.execute("CREATE SCHEMA hospital");
+        jdbc.execute("CREATE SCHEMA clinical");
+        jdbc.execute("CREATE SCHEMA support");
+        jdbc.execute("CREATE SCHEMA \"security\"");
+        jdbc.execute("CREATE TABLE hospital.hospitals (id UUID PRIMARY KEY, organization_id UUID)");
+        jdbc.execute("""
+            CREATE TABLE clinical.patients (
+                id UUID PRIMARY KEY, first_name VARCHAR(100), middle_name VARCHAR(100), last_name VARCHAR(100),
+                date_of_birth DATE, gender VARCHAR(10), address TEXT, address_line1 TEXT, address_line2 TEXT,
+                city VARCHAR(100), state VARCHAR(100), zip_code VARCHAR(100), country VARCHAR(100),
+                phone_number_primary VARCHAR(100), phone_number_secondary VARCHAR(100), email VARCHAR(150),
+                emergency_contact_name TEXT, emergency_contact_phone TEXT, emergency_contact_relationship TEXT,
+                blood_type VARCHAR(5), allergies TEXT, medical_history_summary TEXT, preferred_pharmacy VARCHAR(255),
+                care_team_notes TEXT, chronic_conditions TEXT, code_status VARCHAR(30), is_active BOOLEAN,
+                created_at TIMESTAMP, updated_at TIMESTAMP)
+            """);
+        jdbc.execute("""
+            CREATE TABLE clinical.patient_hospital_registrations (
+                id UUID PRIMARY KEY, patient_id UUID, hospital_id UUID)
+            """);
+        jdbc.execute("""
+            CREATE TABLE hospital.staff (
+                id UUID PRIMARY KEY, user_id UUID, hospital_id UUID, department_id UUID, name VARCHAR(500),
+                job_title VARCHAR(48), employment_type VARCHAR(24), specialization VARCHAR(100),
+                license_number VARCHAR(100), license_expiry_date DATE, npi VARCHAR(20), start_date DATE,
+                end_date DATE, active BOOLEAN, created_at TIMESTAMP, updated_at TIMESTAMP)
+            """);
+        jdbc.execute("""
+            CREATE TABLE clinical.encounters (
+                id UUID PRIMARY KEY, code VARCHAR(50), patient_id UUID, staff_id UUID, hospital_id UUID,
+                department_id UUID, appointment_id UUID, encounter_type VARCHAR(50), urgency VARCHAR(20),
+                encounter_date TIMESTAMP, status VARCHAR(40), chief_complaint VARCHAR(2048), esi_score INT,
+                arrival_timestamp TIMESTAMP, triage_timestamp TIMESTAMP, roomed_timestamp TIMESTAMP,
+                checkout_timestamp TIMESTAMP, notes VARCHAR(2048), follow_up_instructions TEXT,
+                discharge_diagnoses TEXT, created_at TIMESTAMP, updated_at TIMESTAMP)
+            """);
+        jdbc.execute("""
+            CREATE TABLE clinical.appointments (
+                id UUID PRIMARY KEY, patient_id UUID, staff_id UUID, hospital_id UUID, department_id UUID,
+                appointment_date DATE, start_time TIME, end_time TIME, status VARCHAR(50), reason VARCHAR(2048),
+                notes VARCHAR(2048), checked_in_at TIMESTAMP, created_at TIMESTAMP, updated_at TIMESTAMP)
+            """);
+        jdbc.execute("""
+            CREATE TABLE "security".user_role_hospital_assignment (id UUID PRIMARY KEY, hospital_id UUID)
+            """);
+        jdbc.execute("""
+            CREATE TABLE support.audit_event_logs (
+                id UUID PRIMARY KEY, event_timestamp TIMESTAMP, event_type VARCHAR(50), status VARCHAR(20),
+                actor_type VARCHAR(20), actor_label VARCHAR(255), user_id UUID, user_name VARCHAR(255),
+                role_name VARCHAR(255), hospital_name VARCHAR(255), event_description VARCHAR(2048),
+                details VARCHAR(2048), target_entity_type VARCHAR(50), target_resource_id VARCHAR(100),
+                resource_name VARCHAR(255), assignment_id UUID)
+            """);
+
+        jdbc.update("INSERT INTO hospital.hospitals VALUES (?, ?), (?, ?)",
+            HOSPITAL_ID, ORG_ID, OTHER_HOSPITAL_ID, OTHER_ORG_ID);
+        jdbc.update("INSERT INTO \"security\".user_role_hospital_assignment VALUES (?, ?), (?, ?)",
+            ASSIGNMENT_ID, HOSPITAL_ID, OTHER_ASSIGNMENT_ID, OTHER_HOSPITAL_ID);
+        seed(HOSPITAL_ID, ASSIGNMENT_ID, 1);
+        // The other tenant: a tenth of the volume, none of which may leak.
+        seed(OTHER_HOSPITAL_ID, OTHER_ASSIGNMENT_ID, 10);
+    }
+
+    private static void seed(UUID hospitalId, UUID assignmentId, int divisor) {
+        jdbc.update("""
+            INSERT INTO clinical.patients (id, first_name, last_name, date_of_birth, gender, address_line1, city,
+                country, phone_number_primary, email, allergies, is_active, created_at, updated_at)
+            SELECT RANDOM_UUID(), 'Given' || x, 'Family' || x, DATEADD(DAY, MOD(x, 20000), DATE '1970-01-01'),
+                   'F', x || ' Main Street', 'Ouagadougou', 'BF', '+226' || x || ?, 'p' || x || ?, 'penicillin',
+                   TRUE, LOCALTIMESTAMP, LOCALTIMESTAMP
+              FROM SYSTEM_RANGE(1, ?)
+            """, hospitalId.toString(), hospitalId + "@example.test", PATIENTS / divisor);
+        jdbc.update("""
+            INSERT INTO clinical.patient_hospital_registrations (id, patient_id, hospital_id)
+            SELECT RANDOM_UUID(), p.id, ? FROM clinical.patients p WHERE p.email LIKE ?
+            """, hospitalId, "%" + hospitalId + "@example.test");
+        jdbc.update("""
+            INSERT INTO hospital.staff (id, user_id, hospital_id, name, job_title, employment_type,
+                license_number, start_date, active, created_at, updated_at)
+            SELECT RANDOM_UUID(), RANDOM_UUID(), ?, 'Staff ' || x, 'NURSE', 'FULL_TIME', 'LIC-' || x,
+                   CURRENT_DATE, TRUE, LOCALTIMESTAMP, LOCALTIMESTAMP
+              FROM SYSTEM_RANGE(1, ?)
+            """, hospitalId, STAFF / divisor);
+        jdbc.update("""
+            INSERT INTO clinical.encounters (id, code, patient_id, staff_id, hospital_id, encounter_type,
+                encounter_date, status, chief_complaint, esi_score, created_at, updated_at)
+            SELECT RANDOM_UUID(), 'ENC-' || RANDOM_UUID(), RANDOM_UUID(), RANDOM_UUID(), ?, 'OUTPATIENT',
+                   LOCALTIMESTAMP, 'COMPLETED', 'Cough for ' || MOD(x, 14) || ' days', MOD(x, 5) + 1,
+                   LOCALTIMESTAMP, LOCALTIMESTAMP
+              FROM SYSTEM_RANGE(1, ?)
+            """, hospitalId, ENCOUNTERS / divisor);
+        jdbc.update("""
+            INSERT INTO clinical.appointments (id, patient_id, staff_id, hospital_id, appointment_date,
+                start_time, end_time, status, reason, created_at, updated_at)
+            SELECT RANDOM_UUID(), RANDOM_UUID(), RANDOM_UUID(), ?, CURRENT_DATE, TIME '09:00:00',
+                   TIME '09:30:00', 'SCHEDULED', 'Follow-up ' || x, LOCALTIMESTAMP, LOCALTIMESTAMP
+              FROM SYSTEM_RANGE(1, ?)
+            """, hospitalId, APPOINTMENTS / divisor);
+        jdbc.update("""
+            INSERT INTO support.audit_event_logs (id, event_timestamp, event_type, status, actor_type,
+                user_name, event_description, assignment_id)
+            SELECT RANDOM_UUID(), LOCALTIMESTAMP, 'PATIENT_VIEWED', 'SUCCESS', 'USER', 'nurse' || MOD(x, 50),
+                   'Viewed patient chart ' || x, ?
+              FROM SYSTEM_RANGE(1, ?)
+            """, assignmentId, AUDIT_EVENTS / divisor);
+    }
+
+    @Test
+    void exportsSeededTenantThroughTheCipherWithoutPlaintextOnDisk(@TempDir Path tmp, TestReporter reporter)
+        throws Exception {
+        TenantTableExporter exporter = new TenantTableExporter(jdbc, transactionManager, 500);
+        TenantExportPackager packager = new TenantExportPackager(mock(RegionPolicyService.class), exporter, 3);
+        String kek = Base64.getEncoder().encodeToString(randomBytes(32));
+        TenantArchiveEncryptionServiceImpl encryption = encryptionService(kek);
+        Organization org = organization();
+        Path archive = tmp.resolve("org.zip.enc");
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long started = System.nanoTime();
+
+        AtomicReference<Map<String, Long>> counts = new AtomicReference<>();
+        TenantArchiveEncryptionService.EncryptionResult result =
+            encryption.encryptStream(archive, out -> counts.set(packager.writeOrganization(org, out)));
+
+        long elapsedNanos = System.nanoTime() - started;
+        long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long rows = PATIENTS + STAFF + ENCOUNTERS + APPOINTMENTS + AUDIT_EVENTS;
+        reporter.publishEntry("tenant_export.rows", String.valueOf(rows));
+        reporter.publishEntry("tenant_export.rows_per_second",
+            String.valueOf(Math.round(rows / (elapsedNanos / 1_000_000_000.0))));
+        reporter.publishEntry("tenant_export.peak_heap_mb", String.valueOf(peakHeapBytes / (1024 * 1024)));
+        reporter.publishEntry("tenant_export.archive_bytes", String.valueOf(Files.size(archive)));
+
+        assertThat(counts.get())
+            .containsEntry("patients.ndjson", (long) PATIENTS)
+            .containsEntry("staff.ndjson", (long) STAFF)
+            .containsEntry("encounters.ndjson", (long) ENCOUNTERS)
+            .containsEntry("appointments.ndjson", (long) APPOINTMENTS)
+            .containsEntry("audit_events.ndjson", (long) AUDIT_EVENTS);
+        try (Stream<Path> files = Files.list(tmp)) {
+            assertThat(files.map(p -> p.getFileName().toString()))
+                .containsExactlyInAnyOrder("org.zip.enc", "org.zip.enc.envelope.json");
+        }
+
+        Map<String, Long> linesByEntry = new HashMap<>();
+        Map<String, JsonNode> firstRowByEntry = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(decrypting(archive, result.envelopePath(), kek))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+                long lines = 0;
+                for (String line; (line = reader.readLine()) != null; lines++) {
+                    if (lines == 0 && entry.getName().endsWith(".ndjson")) {
+                        firstRowByEntry.put(entry.getName(), new ObjectMapper().readTree(line));
+                    }
+                }
+                linesByEntry.put(entry.getName(), lines);
+            }
+        }
+        assertThat(linesByEntry)
+            .containsEntry("patients.ndjson", (long) PATIENTS)
+            .containsEntry("audit_events.ndjson", (long) AUDIT_EVENTS)
+            .containsKey("manifest.json");
+        JsonNode patient = firstRowByEntry.get("patients.ndjson");
+        assertThat(patient.get("email").asText()).endsWith(HOSPITAL_ID + "@example.test");
+        assertThat(patient.get("is_active").isBoolean()).isTrue();
+        assertThat(patient.get("date_of_birth").asText()).matches("\\d{4}-\\d{2}-\\d{2}");
+        assertThat(firstRowByEntry.get("appointments.ndjson").get("start_time").asText()).isEqualTo("09:00");
+        assertThat(firstRowByEntry.get("encounters.ndjson").get("esi_score").isNumber()).isTrue();
+    }
+
+    private static InputStream decrypting(Path archive, Path envelopePath, String kek) throws Exception {
+        JsonNode envelope = new ObjectMapper().readTree(Files.readAllBytes(envelopePath));
+        Cipher unwrap = Cipher.getInstance("AES/GCM/NoPadding");
+        unwrap.init(Cipher.DECRYPT_MODE, new SecretKeySpec(Base64.getDecoder().decode(kek), "AES"),
+            new GCMParameterSpec(128, Base64.getDecoder().decode(envelope.get("wrap_iv_b64").asText())));
+        byte[] dek = unwrap.doFinal(Base64.getDecoder().decode(envelope.get("wrapped_dek_b64").asText()));
+        Cipher decrypt = Cipher.getInstance("AES/GCM/NoPadding");
+        decrypt.init(Cipher.DECRYPT_MODE, new SecretKeySpec(dek, "AES"),
+            new GCMParameterSpec(128, Base64.getDecoder().decode(envelope.get("data_iv_b64").asText())));
+        return new CipherInputStream(Files.newInputStream(archive), decrypt);
+    }
+
+    private static TenantArchiveEncryptionServiceImpl encryptionService(String kekBase64) {
+        MockEnvironment env = new MockEnvironment();
+        env.setActiveProfiles("prod");
+        TenantArchiveEncryptionServiceImpl service = new TenantArchiveEncryptionServiceImpl(env);
+        ReflectionTestUtils.setField(service, "kekSource", "env");
+        ReflectionTestUtils.setField(service, "envKekBase64", kekBase64);
+        return service;
+    }
+
+    private static Organization organization() {
+        Organization org = new Organization();
+        org.setId(ORG_ID);
+        org.setName("Acme Health");
+        org.setCode("ACME");
+        org.setRegion(OrganizationRegion.BF);
+        org.setLifecycleState(OrganizationLifecycleState.PENDING_PURGE);
+        return org;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+}
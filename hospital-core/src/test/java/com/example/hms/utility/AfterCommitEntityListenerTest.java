@@ -0,0 +1,136 @@
+package com.example.hms.utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AfterCommitEntityListenerTest {
+
+    private final Target target = new Target();
+    private ApplicationContext previousContext;
+
+    @BeforeEach
+    void setUp() {
+        previousContext = ApplicationContextProvider.getApplicationContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        new ApplicationContextProvider().setApplicationContext(previousContext);
+    }
+
+    @Test
+    @DisplayName("keys queued in one transaction reach the bean once, after it completes")
+    void coalescedPerTransaction() {
+        withBean(target);
+        RecordingListener listener = new RecordingListener();
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.queue("p1");
+        listener.queue("p2");
+        listener.queue("p1");
+        assertThat(target.calls).isEmpty();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(target.calls).containsExactly("committed [p1, p2]");
+    }
+
+    @Test
+    @DisplayName("a rolled-back transaction is reported as such and the next one starts empty")
+    void rollbackReported() {
+        withBean(target);
+        RecordingListener listener = new RecordingListener();
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.queue("p1");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.initSynchronization();
+        listener.queue("p2");
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(target.calls).containsExactly("rolled back [p1]", "committed [p2]");
+    }
+
+    @Test
+    @DisplayName("outside a transaction keys are handled at once; now() always runs at once")
+    void noTransactionImmediate() {
+        withBean(target);
+        RecordingListener listener = new RecordingListener();
+
+        listener.queue("p1");
+        listener.now("p2", (bean, key) -> bean.calls.add("now " + key));
+
+        assertThat(target.calls).containsExactly("committed [p1]", "now p2");
+    }
+
+    @Test
+    @DisplayName("no context, a missing bean or a failing bean never reaches the writer")
+    void failuresSwallowed() {
+        RecordingListener listener = new RecordingListener();
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean(Target.class)).thenThrow(new NoSuchBeanDefinitionException(Target.class));
+        new ApplicationContextProvider().setApplicationContext(context);
+
+        assertThatCode(() -> listener.queue("p1")).doesNotThrowAnyException();
+
+        withBean(target);
+        target.failing = true;
+        assertThatCode(() -> listener.queue("p1")).doesNotThrowAnyException();
+        assertThatCode(() -> listener.now("p1", (bean, key) -> bean.fail())).doesNotThrowAnyException();
+        assertThat(target.calls).isEmpty();
+    }
+
+    private static void withBean(Target target) {
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean(Target.class)).thenReturn(target);
+        new ApplicationContextProvider().setApplicationContext(context);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    static final class Target {
+        private final List<String> calls = new ArrayList<>();
+        private boolean failing;
+
+        void handle(Set<String> keys, boolean committed) {
+            if (failing) fail();
+            calls.add((committed ? "committed " : "rolled back ") + keys);
+        }
+
+        void fail() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    static final class RecordingListener extends AfterCommitEntityListener<Target, String> {
+        RecordingListener() {
+            super(Target.class, "[TEST]");
+        }
+
+        @Override
+        protected void afterCompletion(Target bean, Set<String> keys, boolean committed) {
+            bean.handle(keys, committed);
+        }
+    }
+}
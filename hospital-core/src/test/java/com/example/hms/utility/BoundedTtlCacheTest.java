@@ -0,0 +1,166 @@
+package com.example.hms.utility;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-05-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+
+    @Test
+    @DisplayName("values are served until the TTL runs out, then dropped on read")
+    void expiresAfterTtl() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put("a", "A");
+
+        clock.now = NOW.plusSeconds(29);
+        assertThat(cache.getIfPresent("a")).isEqualTo("A");
+
+        clock.now = NOW.plusSeconds(30);
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("an explicit expiry is honoured but capped at the TTL")
+    void explicitExpiryCappedAtTtl() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put("short", "S", NOW.plusSeconds(5).toEpochMilli());
+        cache.put("long", "L", NOW.plusSeconds(300).toEpochMilli());
+        cache.put("past", "P", NOW.minusSeconds(1).toEpochMilli());
+
+        clock.now = NOW.plusSeconds(5);
+        assertThat(cache.getIfPresent("short")).isNull();
+        assertThat(cache.getIfPresent("long")).isEqualTo("L");
+        assertThat(cache.getIfPresent("past")).isNull();
+
+        clock.now = NOW.plusSeconds(30);
+        assertThat(cache.getIfPresent("long")).isNull();
+    }
+
+    @Test
+    @DisplayName("the cache never grows past max-entries and expired entries go first")
+    void boundedExpiredFirst() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(3, Duration.ofSeconds(30), clock);
+        cache.put("old", "O", NOW.plusSeconds(1).toEpochMilli());
+        cache.put("b", "B");
+        cache.put("c", "C");
+        clock.now = NOW.plusSeconds(2);
+
+        cache.put("d", "D");
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.getIfPresent("b")).isEqualTo("B");
+        assertThat(cache.getIfPresent("c")).isEqualTo("C");
+        assertThat(cache.getIfPresent("d")).isEqualTo("D");
+
+        for (int i = 0; i < 10; i++) cache.put("k" + i, "V");
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("a load overlapping a change to its own key is served once but not kept")
+    void loadRacingInvalidationNotKept() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(30), clock);
+
+        String invalidated = cache.load("a", () -> {
+            cache.invalidate("a");
+            return "A";
+        });
+        String updated = cache.load("b", () -> {
+            cache.computeIfPresent("b", (k, v) -> v + "!");
+            return "B";
+        });
+        String unrelated = cache.load("c", () -> {
+            cache.invalidate("other");
+            return "C";
+        });
+
+        assertThat(invalidated).isEqualTo("A");
+        assertThat(updated).isEqualTo("B");
+        assertThat(unrelated).isEqualTo("C");
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("c")).isEqualTo("C");
+    }
+
+    @Test
+    @DisplayName("computeIfPresent keeps the expiry and a null result removes the entry")
+    void computeIfPresentKeepsExpiry() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put("a", 1);
+        cache.put("b", 1);
+        clock.now = NOW.plusSeconds(20);
+
+        cache.computeIfPresent("a", (k, v) -> v + 1);
+        cache.computeIfPresent("b", (k, v) -> null);
+        cache.computeIfPresent("absent", (k, v) -> 99);
+
+        assertThat(cache.getIfPresent("a")).isEqualTo(2);
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("absent")).isNull();
+        clock.now = NOW.plusSeconds(30);
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("invalidateIf drops only the matching keys")
+    void invalidateIfMatchesKeys() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put("p1:h1", "A");
+        cache.put("p1:h2", "B");
+        cache.put("p2:h1", "C");
+
+        cache.invalidateIf(k -> k.startsWith("p1:"));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getIfPresent("p2:h1")).isEqualTo("C");
+    }
+
+    @Test
+    @DisplayName("zero entries or zero TTL disables storage but loads still run")
+    void disabled() {
+        BoundedTtlCache<String, String> noEntries = new BoundedTtlCache<>(0, Duration.ofSeconds(30), clock);
+        BoundedTtlCache<String, String> noTtl = new BoundedTtlCache<>(10, Duration.ZERO, clock);
+
+        assertThat(noEntries.isEnabled()).isFalse();
+        assertThat(noTtl.isEnabled()).isFalse();
+        assertThat(noEntries.load("a", () -> "A")).isEqualTo("A");
+        noTtl.put("a", "A");
+        assertThat(noEntries.getIfPresent("a")).isNull();
+        assertThat(noTtl.getIfPresent("a")).isNull();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
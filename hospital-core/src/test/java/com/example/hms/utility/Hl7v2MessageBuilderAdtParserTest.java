@@ -2,10 +2,12 @@ package com.example.hms.utility;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.example.hms.hl7.Hl7v2Message;
 import com.example.hms.utility.Hl7v2MessageBuilder.ParsedAdtMessage;
 import com.example.hms.utility.Hl7v2MessageBuilder.ParsedObservation;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -172,6 +174,26 @@ class Hl7v2MessageBuilderAdtParserTest {
             assertThat(obs.fillerOrderNumber()).isEqualTo("FILLER-789");
         }
 
+        @Test
+        @DisplayName("parses every OBX, each under the OBR that precedes it")
+        void parsesAllObservations() {
+            String oru = "MSH|^~\\&|MINDRAY|LAB1|HMS|HOSP1|20260428073000||ORU^R01|MSG-4|P|2.5.1\r"
+                       + "PID|1||MRN-1\r"
+                       + "OBR|1|ACC-1||GLU^Glucose\r"
+                       + "OBX|1|NM|GLU^Glucose||5.6|mmol/L|||N\r"
+                       + "OBR|2|ACC-2||CHOL^Cholesterol\r"
+                       + "OBX|1|NM|CHOL^Cholesterol||6.4|mmol/L|||H\r"
+                       + "OBX|2|NM|HDL^HDL||1.1|mmol/L\r";
+
+            List<ParsedObservation> all = builder.parseOruR01Observations(Hl7v2Message.parse(oru));
+
+            assertThat(all).extracting(ParsedObservation::testCode).containsExactly("GLU", "CHOL", "HDL");
+            assertThat(all).extracting(ParsedObservation::placerOrderNumber)
+                .containsExactly("ACC-1", "ACC-2", "ACC-2");
+            assertThat(all.get(2).abnormalFlag()).isEqualTo("N");
+            assertThat(builder.parseOruR01(oru).testCode()).isEqualTo("GLU");
+        }
+
         @Test
         @DisplayName("returns null on blank input")
         void nullOnBlank() {
@@ -1,9 +1,11 @@
 package com.example.hms.utility;
 
 import com.example.hms.model.Hospital;
+import com.example.hms.model.Role;
 import com.example.hms.model.UserRoleHospitalAssignment;
 import com.example.hms.repository.UserRoleHospitalAssignmentRepository;
 import com.example.hms.security.CustomUserDetails;
+import com.example.hms.security.authz.AssignmentSnapshotCache;
 import com.example.hms.security.context.HospitalContext;
 import com.example.hms.security.context.HospitalContextHolder;
 import org.junit.jupiter.api.AfterEach;
@@ -19,10 +21,14 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -51,11 +57,13 @@ class RoleValidatorTest {
 
     @Mock private UserRoleHospitalAssignmentRepository assignmentRepository;
 
+    private AssignmentSnapshotCache assignmentSnapshots;
     private RoleValidator roleValidator;
 
     @BeforeEach
     void setUp() {
-        roleValidator = new RoleValidator(assignmentRepository);
+        assignmentSnapshots = new AssignmentSnapshotCache(100, Duration.ofSeconds(30), null);
+        roleValidator = new RoleValidator(assignmentRepository, assignmentSnapshots);
     }
 
     @AfterEach
@@ -261,6 +269,65 @@ class RoleValidatorTest {
         assertThat(roleValidator.isSuperAdminFromJwtClaim()).isTrue();
     }
 
+    // ── hospital-scoped role checks (assignment snapshot) ─────────────
+
+    @Test
+    void roleChecks_answerFromOneAssignmentQuery() {
+        UUID userId = setAuthenticatedUser(UUID.randomUUID(), new SimpleGrantedAuthority("ROLE_NURSE"));
+        UUID hospitalId = UUID.randomUUID();
+        when(assignmentRepository.findByUser_IdAndActiveTrue(userId))
+            .thenReturn(List.of(scopedAssignment(hospitalId, "ROLE_NURSE")));
+
+        assertThat(roleValidator.getCurrentHospitalId()).isEqualTo(hospitalId);
+        assertThat(roleValidator.isNurse(userId, hospitalId)).isTrue();
+        assertThat(roleValidator.hasRole(userId, hospitalId, "nurse")).isTrue();
+        assertThat(roleValidator.isDoctor(userId, hospitalId)).isFalse();
+        assertThat(roleValidator.canCreatePrescription(userId, hospitalId)).isTrue();
+        assertThat(roleValidator.canViewPatient(userId, UUID.randomUUID())).isTrue();
+        assertThat(roleValidator.isAnyActiveRole(userId)).isTrue();
+
+        verify(assignmentRepository, times(1)).findByUser_IdAndActiveTrue(userId);
+    }
+
+    @Test
+    void roleChecks_scopedToTheAskedHospital() {
+        UUID userId = UUID.randomUUID();
+        UUID hospitalId = UUID.randomUUID();
+        when(assignmentRepository.findByUser_IdAndActiveTrue(userId))
+            .thenReturn(List.of(scopedAssignment(hospitalId, "DOCTOR")));
+
+        assertThat(roleValidator.isDoctor(userId, hospitalId)).isTrue();
+        assertThat(roleValidator.isDoctor(userId, UUID.randomUUID())).isFalse();
+        // A null hospital never matches, as with the old exists-query.
+        assertThat(roleValidator.isDoctor(userId, null)).isFalse();
+    }
+
+    @Test
+    void roleChecks_reloadAfterAssignmentChange() {
+        UUID userId = UUID.randomUUID();
+        UUID hospitalId = UUID.randomUUID();
+        when(assignmentRepository.findByUser_IdAndActiveTrue(userId))
+            .thenReturn(List.of(scopedAssignment(hospitalId, "NURSE")))
+            .thenReturn(List.of());
+
+        assertThat(roleValidator.isNurse(userId, hospitalId)).isTrue();
+        assignmentSnapshots.invalidate(userId);
+
+        assertThat(roleValidator.isNurse(userId, hospitalId)).isFalse();
+        verify(assignmentRepository, times(2)).findByUser_IdAndActiveTrue(userId);
+    }
+
+    @Test
+    void getCurrentAssignmentForHospital_loadsTheSnapshotAssignmentById() {
+        UUID userId = setAuthenticatedUser(UUID.randomUUID());
+        UserRoleHospitalAssignment assignment = scopedAssignment(UUID.randomUUID(), "NURSE");
+        assignment.setId(UUID.randomUUID());
+        when(assignmentRepository.findByUser_IdAndActiveTrue(userId)).thenReturn(List.of(assignment));
+        when(assignmentRepository.findById(assignment.getId())).thenReturn(Optional.of(assignment));
+
+        assertThat(roleValidator.getCurrentAssignmentForHospital()).isSameAs(assignment);
+    }
+
     // ── helpers ──────────────────────────────────────────────────────
 
     private UUID setAuthenticatedUser(UUID userId, GrantedAuthority... auths) {
@@ -288,6 +355,14 @@ class RoleValidatorTest {
         return a;
     }
 
+    private UserRoleHospitalAssignment scopedAssignment(UUID hospitalId, String roleCode) {
+        UserRoleHospitalAssignment a = scopedAssignment(hospitalId);
+        Role role = new Role();
+        role.setCode(roleCode);
+        a.setRole(role);
+        return a;
+    }
+
     private UserRoleHospitalAssignment globalAssignment() {
         // Hospital deliberately left null — represents a SUPER_ADMIN
         // role assigned without a tenant scope.
@@ -64,12 +64,16 @@ export interface AggregatedAuditPage {
   pageSize: number;
   totalElements: number;
   totalPages: number;
+  /** Opaque keyset cursor for the following page; null on the last page. */
+  nextCursor: string | null;
 }
 
 export interface AggregatedAuditFilter {
   sources?: AuditSource[];
   fromDate?: string;
   toDate?: string;
+  /** `nextCursor` of the previous page; when set the backend ignores `page`. */
+  cursor?: string;
   page?: number;
   size?: number;
 }
@@ -99,13 +99,15 @@ export class AuditSearchService {
    * MVP-8c — calls the cross-source aggregation endpoint that unions
    * `audit_event_logs`, `frontend_audit_events`, and
    * `permission_matrix_audit_events`. Empty `sources` defaults to all
-   * three on the backend; the per-source row cap (5 000) is enforced
-   * server-side so a deep-page request stays bounded.
+   * three on the backend. Pass the previous page's `nextCursor` as
+   * `cursor` to page through the feed; a page number alone is only
+   * served to a bounded depth.
    */
   searchAggregated(filter: AggregatedAuditFilter): Observable<AggregatedAuditPage> {
     let params = buildParams({
       fromDate: filter.fromDate,
       toDate: filter.toDate,
+      cursor: filter.cursor,
       page: filter.page,
       size: filter.size,
     });
@@ -106,4 +106,32 @@ describe('SuperAdminAuditSearchComponent — MVP-8c source toggles', () => {
     expect(cmp.aggregatedSources()).toContain('PLATFORM_CONFIG');
     expect(cmp.allSources).toContain('PLATFORM_CONFIG');
   });
+
+  it('aggregated paging follows nextCursor forwards and re-sends earlier cursors going back', () => {
+    const page = (pageNumber: number, nextCursor: string | null) => ({
+      content: [],
+      pageNumber,
+      pageSize: 25,
+      totalElements: 60,
+      totalPages: 3,
+      nextCursor,
+    });
+    auditSearch.searchAggregated.and.returnValues(
+      of(page(0, 'c1')),
+      of(page(1, 'c2')),
+      of(page(2, null)),
+      of(page(1, 'c2')),
+    );
+    const cmp = setup();
+
+    cmp.selectTab('aggregated');
+    cmp.goToAggregatedNext();
+    cmp.goToAggregatedNext();
+    expect(cmp.aggregatedHasNext()).toBeFalse();
+    cmp.goToAggregatedPrev();
+
+    const cursors = auditSearch.searchAggregated.calls.allArgs().map(([filter]) => filter.cursor);
+    expect(cursors).toEqual([undefined, 'c1', 'c2', 'c1']);
+    expect(cmp.aggregatedPageNumber()).toBe(1);
+  });
 });
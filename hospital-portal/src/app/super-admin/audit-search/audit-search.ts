@@ -80,6 +80,12 @@ export class SuperAdminAuditSearchComponent implements OnInit {
   readonly aggregatedSources = signal<AuditSource[]>([...ALL_SOURCES]);
   readonly aggregatedPage = signal<AggregatedAuditPage | null>(null);
   readonly aggregatedPageNumber = signal(0);
+  /**
+   * Cursor of every page visited so far, indexed by page number — the
+   * backend pages by keyset, so going back re-sends the cursor that
+   * produced the earlier page. Page 0 has none.
+   */
+  private readonly aggregatedCursors = signal<(string | undefined)[]>([undefined]);
   readonly aggregatedLoading = signal(false);
   readonly aggregatedError = signal(false);
 
@@ -88,9 +94,7 @@ export class SuperAdminAuditSearchComponent implements OnInit {
   );
   readonly aggregatedTotalPages = computed(() => this.aggregatedPage()?.totalPages ?? 0);
   readonly aggregatedHasPrev = computed(() => this.aggregatedPageNumber() > 0);
-  readonly aggregatedHasNext = computed(
-    () => this.aggregatedPageNumber() < this.aggregatedTotalPages() - 1,
-  );
+  readonly aggregatedHasNext = computed(() => !!this.aggregatedPage()?.nextCursor);
 
   ngOnInit(): void {
     this.residencyService
@@ -196,6 +200,7 @@ export class SuperAdminAuditSearchComponent implements OnInit {
 
   applyAggregatedFilters(): void {
     this.aggregatedPageNumber.set(0);
+    this.aggregatedCursors.set([undefined]);
     this.runAggregatedSearch();
   }
 
@@ -207,8 +212,11 @@ export class SuperAdminAuditSearchComponent implements OnInit {
   }
 
   goToAggregatedNext(): void {
-    if (this.aggregatedHasNext()) {
-      this.aggregatedPageNumber.update((n) => n + 1);
+    const nextCursor = this.aggregatedPage()?.nextCursor;
+    if (nextCursor) {
+      const next = this.aggregatedPageNumber() + 1;
+      this.aggregatedCursors.update((cursors) => [...cursors.slice(0, next), nextCursor]);
+      this.aggregatedPageNumber.set(next);
       this.runAggregatedSearch();
     }
   }
@@ -221,6 +229,7 @@ export class SuperAdminAuditSearchComponent implements OnInit {
         sources: this.aggregatedSources(),
         fromDate: this.toIsoDateTime(this.fromDate()),
         toDate: this.toIsoDateTime(this.toDate()),
+        cursor: this.aggregatedCursors()[this.aggregatedPageNumber()],
         page: this.aggregatedPageNumber(),
         size: DEFAULT_PAGE_SIZE,
       })